@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status;
+
+/**
+ * Describes the distribution of durations of a single kind of operation that a component performed, such as the
+ * duration of each invocation of a Processor's onTrigger method, over the same window of time that the rest of the
+ * component's status covers. Percentiles are approximate: each is accurate to within a few percent of the true value.
+ */
+public class LatencyDistribution implements Cloneable {
+
+    private long count;
+    private long medianNanos;
+    private long percentile90Nanos;
+    private long percentile99Nanos;
+    private long percentile999Nanos;
+    private long maxNanos;
+
+    /**
+     * @return the number of operations that the distribution describes
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(final long count) {
+        this.count = count;
+    }
+
+    public long getMedianNanos() {
+        return medianNanos;
+    }
+
+    public void setMedianNanos(final long medianNanos) {
+        this.medianNanos = medianNanos;
+    }
+
+    public long getPercentile90Nanos() {
+        return percentile90Nanos;
+    }
+
+    public void setPercentile90Nanos(final long percentile90Nanos) {
+        this.percentile90Nanos = percentile90Nanos;
+    }
+
+    public long getPercentile99Nanos() {
+        return percentile99Nanos;
+    }
+
+    public void setPercentile99Nanos(final long percentile99Nanos) {
+        this.percentile99Nanos = percentile99Nanos;
+    }
+
+    public long getPercentile999Nanos() {
+        return percentile999Nanos;
+    }
+
+    public void setPercentile999Nanos(final long percentile999Nanos) {
+        this.percentile999Nanos = percentile999Nanos;
+    }
+
+    /**
+     * @return the exact duration of the longest operation that the distribution describes
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public void setMaxNanos(final long maxNanos) {
+        this.maxNanos = maxNanos;
+    }
+
+    @Override
+    public LatencyDistribution clone() {
+        final LatencyDistribution clonedObj = new LatencyDistribution();
+        clonedObj.count = count;
+        clonedObj.medianNanos = medianNanos;
+        clonedObj.percentile90Nanos = percentile90Nanos;
+        clonedObj.percentile99Nanos = percentile99Nanos;
+        clonedObj.percentile999Nanos = percentile999Nanos;
+        clonedObj.maxNanos = maxNanos;
+        return clonedObj;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("LatencyDistribution [count=");
+        builder.append(count);
+        builder.append(", medianNanos=");
+        builder.append(medianNanos);
+        builder.append(", percentile90Nanos=");
+        builder.append(percentile90Nanos);
+        builder.append(", percentile99Nanos=");
+        builder.append(percentile99Nanos);
+        builder.append(", percentile999Nanos=");
+        builder.append(percentile999Nanos);
+        builder.append(", maxNanos=");
+        builder.append(maxNanos);
+        builder.append("]");
+        return builder.toString();
+    }
+}
@@ -49,6 +49,8 @@ public class ProcessorStatus implements Cloneable {
     private int flowFilesSent;
     private long bytesSent;
     private Map<String, Long> counters;
+    private LatencyDistribution onTriggerLatency;
+    private LatencyDistribution sessionCommitLatency;
 
     public String getId() {
         return id;
@@ -242,6 +244,30 @@ public class ProcessorStatus implements Cloneable {
         this.counters = counters;
     }
 
+    /**
+     * @return the distribution of the durations of the Processor's onTrigger invocations, or <code>null</code> if the
+     *         Processor was not triggered
+     */
+    public LatencyDistribution getOnTriggerLatency() {
+        return onTriggerLatency;
+    }
+
+    public void setOnTriggerLatency(final LatencyDistribution onTriggerLatency) {
+        this.onTriggerLatency = onTriggerLatency;
+    }
+
+    /**
+     * @return the distribution of the time taken to commit the Processor's sessions, or <code>null</code> if the
+     *         Processor did not commit any session
+     */
+    public LatencyDistribution getSessionCommitLatency() {
+        return sessionCommitLatency;
+    }
+
+    public void setSessionCommitLatency(final LatencyDistribution sessionCommitLatency) {
+        this.sessionCommitLatency = sessionCommitLatency;
+    }
+
     @Override
     public ProcessorStatus clone() {
         final ProcessorStatus clonedObj = new ProcessorStatus();
@@ -268,6 +294,8 @@ public class ProcessorStatus implements Cloneable {
         clonedObj.executionNode = executionNode;
         clonedObj.type = type;
         clonedObj.counters = counters == null ? null : new HashMap<>(counters);
+        clonedObj.onTriggerLatency = onTriggerLatency == null ? null : onTriggerLatency.clone();
+        clonedObj.sessionCommitLatency = sessionCommitLatency == null ? null : sessionCommitLatency.clone();
         return clonedObj;
     }
 
@@ -308,6 +336,10 @@ public class ProcessorStatus implements Cloneable {
         builder.append(terminatedThreadCount);
         builder.append(", counters=");
         builder.append(counters);
+        builder.append(", onTriggerLatency=");
+        builder.append(onTriggerLatency);
+        builder.append(", sessionCommitLatency=");
+        builder.append(sessionCommitLatency);
         builder.append("]");
         return builder.toString();
     }
@@ -86,6 +86,20 @@ public interface ProvenanceEventRepository {
      */
     ProvenanceEventRecord getEvent(long id) throws IOException;
 
+    /**
+     * Creates a subscription that provides the events registered with this repository, in order of Event ID,
+     * beginning with the event whose ID is <code>firstEventId</code>. Events that are registered after the
+     * subscription is created are handed to the subscriber as they are registered, rather than being read back
+     * from the repository. Repositories that do not support subscriptions return <code>null</code>, in which case
+     * the caller should fall back to polling {@link #getEvents(long, int)}.
+     *
+     * @param firstEventId the ID of the first event to provide to the subscriber
+     * @return a subscription to the events of this repository, or <code>null</code> if the repository does not support subscriptions
+     */
+    default ProvenanceEventSubscription subscribe(long firstEventId) {
+        return null;
+    }
+
     /**
      * Closes the repository, freeing any resources
      *
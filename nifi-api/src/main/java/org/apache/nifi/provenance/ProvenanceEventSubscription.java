@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Provenance Event Subscription provides a consumer with the events that are registered with a
+ * {@link ProvenanceEventRepository}, in order of Event ID, starting with the Event ID given when
+ * subscribing. Events are handed to the subscriber from memory as they are registered, so that the
+ * subscriber does not have to read them back from the repository. If the subscriber falls too far
+ * behind, the events are instead read from the repository, so a slow subscriber never blocks the
+ * registration of events and never misses an event that is still held by the repository.
+ *
+ * <p>
+ * A subscription does not store the position of its subscriber. A subscriber that must resume
+ * from where it left off, such as after a restart, is responsible for persisting the ID of the last
+ * event that it has processed and subscribing again from the following Event ID.
+ * </p>
+ *
+ * <p>
+ * Implementations are not required to be thread-safe and should be used by a single consumer at a time.
+ * </p>
+ */
+public interface ProvenanceEventSubscription extends Closeable {
+
+    /**
+     * Returns up to <code>maxEvents</code> events, beginning with the event whose ID is {@link #getNextEventId()},
+     * without waiting for any further events to be registered.
+     *
+     * @param maxEvents the maximum number of events to return
+     * @return the next events, in order of Event ID, or an empty list if no events are available
+     * @throws IOException if unable to read events from the repository
+     */
+    List<ProvenanceEventRecord> poll(int maxEvents) throws IOException;
+
+    /**
+     * Returns up to <code>maxEvents</code> events, beginning with the event whose ID is {@link #getNextEventId()},
+     * waiting up to the given amount of time for an event to be registered if none is available.
+     *
+     * @param maxEvents the maximum number of events to return
+     * @param timeout the maximum amount of time to wait for an event
+     * @param timeUnit the unit of the timeout
+     * @return the next events, in order of Event ID, or an empty list if no events became available before the timeout elapsed
+     * @throws IOException if unable to read events from the repository
+     * @throws InterruptedException if interrupted while waiting for events
+     */
+    List<ProvenanceEventRecord> poll(int maxEvents, long timeout, TimeUnit timeUnit) throws IOException, InterruptedException;
+
+    /**
+     * @return the ID of the next event that will be returned by this subscription. This is one greater than the ID
+     *         of the last event returned, or the ID that was provided when subscribing if no events have been returned
+     */
+    long getNextEventId();
+
+    /**
+     * Cancels the subscription, releasing any resources that it holds. After a subscription has been closed,
+     * calls to {@link #poll(int)} will return an empty list.
+     */
+    @Override
+    void close();
+}
@@ -17,7 +17,9 @@
 
 package org.apache.nifi.provenance;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * A Provenance query result that is capable of being updated
@@ -26,6 +28,27 @@ public interface ProgressiveResult {
 
     void update(Collection<ProvenanceEventRecord> records, long totalHitCount);
 
+    /**
+     * Updates the result with the IDs of the events that matched, along with a loader that is able to read those events.
+     * Results that only need some of the events may hold on to the IDs and read the events lazily; by default, all of
+     * the events are read immediately.
+     *
+     * @param eventIds the IDs of the matching events
+     * @param totalHitCount the total number of hits
+     * @param eventLoader the loader to use for reading the events
+     */
+    default void update(final List<Long> eventIds, final long totalHitCount, final ProvenanceEventLoader eventLoader) {
+        final List<ProvenanceEventRecord> events;
+        try {
+            events = eventLoader.getEvents(eventIds);
+        } catch (final IOException ioe) {
+            setError("Failed to retrieve Provenance Events from store due to " + ioe);
+            return;
+        }
+
+        update(events, totalHitCount);
+    }
+
     void setError(String error);
 
     long getTotalHitCount();
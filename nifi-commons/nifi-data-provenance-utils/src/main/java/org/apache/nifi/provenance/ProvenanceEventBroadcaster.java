@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Hands the events that are registered with a {@link ProvenanceEventRepository} to any number of
+ * {@link ProvenanceEventSubscription}s from memory, so that subscribers such as Reporting Tasks do not have
+ * to read back from disk the events that were just written.
+ * </p>
+ *
+ * <p>
+ * Events are published to a bounded ring, in which the event with a given ID is held in slot
+ * <code>eventId % capacity</code>. Publishing never blocks: once the ring is full, the oldest events
+ * are overwritten. A subscriber that falls more than <code>capacity</code> events behind therefore finds
+ * that the event it needs has been overwritten and reads from the repository instead, until it has caught
+ * back up with the ring. The same is true of a subscriber that starts from an event that was registered
+ * before the ring was created. An event that is missing from the ring although later events have been
+ * published, because it is still being stored by another thread, is waited for up to the configured gap
+ * timeout before the subscriber reads it from the repository.
+ * </p>
+ *
+ * <p>
+ * The ring is created when the first subscription is created and released when the last subscription is
+ * closed, so that no memory is used and no work is done when publishing if there are no subscribers.
+ * </p>
+ */
+public class ProvenanceEventBroadcaster {
+    public static final long DEFAULT_GAP_TIMEOUT_MILLIS = 1000L;
+
+    private final ProvenanceEventRepository repository;
+    private final int capacity;
+    private final long gapTimeoutNanos;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition eventsPublished = lock.newCondition();
+
+    private int subscriptionCount = 0; // guarded by lock
+    private volatile EventRing ring;
+
+    public ProvenanceEventBroadcaster(final ProvenanceEventRepository repository, final int capacity) {
+        this(repository, capacity, DEFAULT_GAP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public ProvenanceEventBroadcaster(final ProvenanceEventRepository repository, final int capacity, final long gapTimeout, final TimeUnit timeUnit) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1 but was " + capacity);
+        }
+
+        this.repository = repository;
+        this.capacity = capacity;
+        this.gapTimeoutNanos = timeUnit.toNanos(gapTimeout);
+    }
+
+    /**
+     * @return <code>true</code> if there is at least one open subscription, <code>false</code> if events that are
+     *         published will be ignored. Callers may use this to avoid preparing events for publication when there is no subscriber.
+     */
+    public boolean isActive() {
+        return ring != null;
+    }
+
+    /**
+     * Publishes the given events to all subscribers. Each event must already have been stored in the repository
+     * and must have its Event ID populated. If there are no subscribers, the events are ignored.
+     *
+     * @param events the events to publish
+     */
+    public void publish(final Iterable<ProvenanceEventRecord> events) {
+        final EventRing currentRing = ring;
+        if (currentRing == null) {
+            return;
+        }
+
+        long maxId = -1L;
+        for (final ProvenanceEventRecord event : events) {
+            final long eventId = event.getEventId();
+            if (eventId < 0) {
+                throw new IllegalArgumentException("Cannot publish " + event + " because its Event ID has not been populated");
+            }
+
+            currentRing.events.set(currentRing.slot(eventId), event);
+            maxId = Math.max(maxId, eventId);
+        }
+
+        if (maxId < 0) {
+            return;
+        }
+
+        currentRing.maxPublishedId.accumulateAndGet(maxId, Math::max);
+
+        lock.lock();
+        try {
+            eventsPublished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a new subscription that begins with the given Event ID.
+     *
+     * @param firstEventId the ID of the first event to provide to the subscriber
+     * @return the subscription
+     */
+    public ProvenanceEventSubscription subscribe(final long firstEventId) {
+        lock.lock();
+        try {
+            if (subscriptionCount++ == 0) {
+                // Any event with an ID at or below the current max may have been stored without being published,
+                // so subscribers must obtain those events from the repository.
+                final Long maxEventId = repository.getMaxEventId();
+                ring = new EventRing(capacity, maxEventId == null ? 0L : maxEventId + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return new BroadcastSubscription(Math.max(0L, firstEventId));
+    }
+
+    private void unsubscribe() {
+        lock.lock();
+        try {
+            if (--subscriptionCount == 0) {
+                ring = null;
+            }
+
+            eventsPublished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getSubscriptionCount() {
+        lock.lock();
+        try {
+            return subscriptionCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    private static class EventRing {
+        private final AtomicReferenceArray<ProvenanceEventRecord> events;
+        private final long firstEventId;
+        private final AtomicLong maxPublishedId;
+
+        EventRing(final int capacity, final long firstEventId) {
+            this.events = new AtomicReferenceArray<>(capacity);
+            this.firstEventId = firstEventId;
+            this.maxPublishedId = new AtomicLong(firstEventId - 1);
+        }
+
+        int slot(final long eventId) {
+            return (int) (eventId % events.length());
+        }
+    }
+
+
+    private class BroadcastSubscription implements ProvenanceEventSubscription {
+        private long nextEventId;
+        private long gapStartNanos = -1L;
+        private volatile boolean closed = false;
+
+        BroadcastSubscription(final long firstEventId) {
+            this.nextEventId = firstEventId;
+        }
+
+        @Override
+        public List<ProvenanceEventRecord> poll(final int maxEvents) throws IOException {
+            if (closed || maxEvents < 1) {
+                return Collections.emptyList();
+            }
+
+            final EventRing currentRing = ring;
+            if (currentRing == null) {
+                // Subscription was closed concurrently
+                return Collections.emptyList();
+            }
+
+            final List<ProvenanceEventRecord> events = new ArrayList<>(Math.min(maxEvents, capacity));
+            boolean readFromRepository = false;
+
+            while (events.size() < maxEvents) {
+                if (nextEventId < currentRing.firstEventId) {
+                    // Event was registered before the ring was created.
+                    readFromRepository = true;
+                    break;
+                }
+
+                final ProvenanceEventRecord event = currentRing.events.get(currentRing.slot(nextEventId));
+                if (event != null && event.getEventId() == nextEventId) {
+                    events.add(event);
+                    nextEventId++;
+                    gapStartNanos = -1L;
+                    continue;
+                }
+
+                if (event != null && event.getEventId() > nextEventId) {
+                    // Subscriber has fallen behind and the event has been overwritten.
+                    readFromRepository = true;
+                    break;
+                }
+
+                if (nextEventId > currentRing.maxPublishedId.get()) {
+                    // Subscriber has caught up with the publishers.
+                    gapStartNanos = -1L;
+                    break;
+                }
+
+                // A later event has been published but this one has not, most likely because it is still being stored
+                // by another thread. Give it a chance to be published before falling back to the repository.
+                if (gapStartNanos < 0) {
+                    gapStartNanos = System.nanoTime();
+                }
+                readFromRepository = System.nanoTime() - gapStartNanos >= gapTimeoutNanos;
+                break;
+            }
+
+            if (!events.isEmpty() || !readFromRepository) {
+                return events;
+            }
+
+            gapStartNanos = -1L;
+            final List<ProvenanceEventRecord> storedEvents = repository.getEvents(nextEventId, maxEvents);
+            if (storedEvents == null || storedEvents.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            nextEventId = storedEvents.get(storedEvents.size() - 1).getEventId() + 1;
+            return storedEvents;
+        }
+
+        @Override
+        public List<ProvenanceEventRecord> poll(final int maxEvents, final long timeout, final TimeUnit timeUnit) throws IOException, InterruptedException {
+            final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+
+            while (true) {
+                final List<ProvenanceEventRecord> events = poll(maxEvents);
+                if (!events.isEmpty() || closed) {
+                    return events;
+                }
+
+                final long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return events;
+                }
+
+                lock.lock();
+                try {
+                    // Do not wait if an event was published after the call to poll above; a pending gap is re-checked once its timeout elapses.
+                    final EventRing currentRing = ring;
+                    if (!closed && currentRing != null && nextEventId > currentRing.maxPublishedId.get()) {
+                        eventsPublished.awaitNanos(remainingNanos);
+                    } else if (!closed && gapStartNanos >= 0) {
+                        eventsPublished.awaitNanos(Math.min(remainingNanos, Math.max(1L, gapTimeoutNanos - (System.nanoTime() - gapStartNanos))));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        @Override
+        public long getNextEventId() {
+            return nextEventId;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            unsubscribe();
+        }
+
+        @Override
+        public String toString() {
+            return "BroadcastSubscription[nextEventId=" + nextEventId + ", closed=" + closed + "]";
+        }
+    }
+}
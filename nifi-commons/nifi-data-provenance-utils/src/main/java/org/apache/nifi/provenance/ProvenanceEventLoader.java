@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads Provenance Events on demand, so that a result can hold the IDs of matching events
+ * and read only those events that are actually requested.
+ */
+public interface ProvenanceEventLoader {
+
+    /**
+     * Reads the events with the given IDs. Events that no longer exist, or that the user is not
+     * authorized to see, are omitted from the returned list.
+     *
+     * @param eventIds the IDs of the events to read
+     * @return the events that were read, in no particular order
+     * @throws IOException if unable to read the events
+     */
+    List<ProvenanceEventRecord> getEvents(List<Long> eventIds) throws IOException;
+}
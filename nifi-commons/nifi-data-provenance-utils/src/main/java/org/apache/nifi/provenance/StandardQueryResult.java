@@ -16,14 +16,18 @@
  */
 package org.apache.nifi.provenance;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -34,6 +38,20 @@ import org.apache.nifi.provenance.search.QueryResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * <p>
+ * Holds the results of a Provenance query, keeping only the events with the largest Event IDs, up to the maximum number
+ * of results requested by the query.
+ * </p>
+ *
+ * <p>
+ * A step of the query may provide either the matching events themselves or only their Event IDs, along with a
+ * {@link ProvenanceEventLoader} that can read them. In the latter case, events are read only when they are requested,
+ * a page at a time, so that a query that matches many events does not need to hold all of them in memory. Once the query
+ * has finished, the events returned by {@link #getMatchingEvents()} are retained so that they are read only once. Because
+ * these events are authorized as they are read, the total hit count may include events that the user is not permitted to see.
+ * </p>
+ */
 public class StandardQueryResult implements QueryResult, ProgressiveResult {
     private static final Logger logger = LoggerFactory.getLogger(StandardQueryResult.class);
 
@@ -46,8 +64,12 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
     private final Lock readLock = rwLock.readLock();
 
     private final Lock writeLock = rwLock.writeLock();
-    // guarded by writeLock
-    private final SortedSet<ProvenanceEventRecord> matchingRecords = new TreeSet<>(new EventIdComparator());
+    // guarded by writeLock. Maps Event ID to the event, or to null if the event has not been read.
+    private final NavigableMap<Long, ProvenanceEventRecord> matchingRecords = new TreeMap<>(Comparator.reverseOrder());
+    private volatile ProvenanceEventLoader eventLoader;
+    // guarded by materializationMonitor. The events returned by getMatchingEvents() once the query has finished.
+    private volatile List<ProvenanceEventRecord> materializedEvents;
+    private final Object materializationMonitor = new Object();
     private long hitCount = 0L;
     private int numCompletedSteps = 0;
     private Date expirationDate;
@@ -67,14 +89,140 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
 
     @Override
     public List<ProvenanceEventRecord> getMatchingEvents() {
+        final List<ProvenanceEventRecord> materialized = materializedEvents;
+        if (materialized != null) {
+            return materialized;
+        }
+
+        synchronized (materializationMonitor) {
+            if (materializedEvents != null) {
+                return materializedEvents;
+            }
+
+            // Determine whether the query is finished before reading the events. Otherwise, a step that completes while
+            // the events are being read could add events that would then be missing from the retained list.
+            final boolean finished = isFinished();
+
+            final List<ProvenanceEventRecord> events;
+            try {
+                events = getMatchingEvents(null, query.getMaxResults());
+            } catch (final IOException ioe) {
+                logger.error("Failed to retrieve Provenance Events from store for {}", query, ioe);
+
+                writeLock.lock();
+                try {
+                    error = "Failed to retrieve Provenance Events from store; see logs for more details";
+                } finally {
+                    writeLock.unlock();
+                }
+
+                return getRetainedEvents();
+            }
+
+            if (!finished) {
+                return events;
+            }
+
+            materializedEvents = Collections.unmodifiableList(events);
+            return materializedEvents;
+        }
+    }
+
+    private List<ProvenanceEventRecord> getRetainedEvents() {
         readLock.lock();
         try {
-            return new ArrayList<>(matchingRecords);
+            final List<ProvenanceEventRecord> events = new ArrayList<>(matchingRecords.size());
+            for (final ProvenanceEventRecord event : matchingRecords.values()) {
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+
+            return events;
         } finally {
             readLock.unlock();
         }
     }
 
+    @Override
+    public List<ProvenanceEventRecord> getMatchingEvents(final Long beforeEventId, final int maxEvents) throws IOException {
+        final List<ProvenanceEventRecord> materialized = materializedEvents;
+        if (materialized != null) {
+            return getPage(materialized, beforeEventId, maxEvents);
+        }
+
+        final List<ProvenanceEventRecord> page = new ArrayList<>(Math.min(maxEvents, query.getMaxResults()));
+        Long cursor = beforeEventId;
+
+        while (page.size() < maxEvents) {
+            // Take the next entries while holding the lock but read any events that have not been read only after releasing it,
+            // so that steps of the query that are still running are not blocked on reading events.
+            final List<Map.Entry<Long, ProvenanceEventRecord>> entries = new ArrayList<>();
+            readLock.lock();
+            try {
+                final NavigableMap<Long, ProvenanceEventRecord> remaining = cursor == null ? matchingRecords : matchingRecords.tailMap(cursor, false);
+                final Iterator<Map.Entry<Long, ProvenanceEventRecord>> itr = remaining.entrySet().iterator();
+                while (itr.hasNext() && entries.size() < maxEvents - page.size()) {
+                    entries.add(itr.next());
+                }
+            } finally {
+                readLock.unlock();
+            }
+
+            if (entries.isEmpty()) {
+                break;
+            }
+
+            final Map<Long, ProvenanceEventRecord> loadedEvents = loadEvents(entries);
+            for (final Map.Entry<Long, ProvenanceEventRecord> entry : entries) {
+                final ProvenanceEventRecord event = entry.getValue() == null ? loadedEvents.get(entry.getKey()) : entry.getValue();
+                if (event != null) {
+                    page.add(event);
+                }
+            }
+
+            cursor = entries.get(entries.size() - 1).getKey();
+        }
+
+        return page;
+    }
+
+    private static List<ProvenanceEventRecord> getPage(final List<ProvenanceEventRecord> events, final Long beforeEventId, final int maxEvents) {
+        final List<ProvenanceEventRecord> page = new ArrayList<>(Math.min(maxEvents, events.size()));
+        for (final ProvenanceEventRecord event : events) {
+            if (page.size() >= maxEvents) {
+                break;
+            }
+
+            if (beforeEventId == null || event.getEventId() < beforeEventId) {
+                page.add(event);
+            }
+        }
+
+        return page;
+    }
+
+    private Map<Long, ProvenanceEventRecord> loadEvents(final List<Map.Entry<Long, ProvenanceEventRecord>> entries) throws IOException {
+        final List<Long> eventIds = new ArrayList<>();
+        for (final Map.Entry<Long, ProvenanceEventRecord> entry : entries) {
+            if (entry.getValue() == null) {
+                eventIds.add(entry.getKey());
+            }
+        }
+
+        final ProvenanceEventLoader loader = eventLoader;
+        if (eventIds.isEmpty() || loader == null) {
+            return Collections.emptyMap();
+        }
+
+        final Map<Long, ProvenanceEventRecord> loadedEvents = new HashMap<>(eventIds.size());
+        for (final ProvenanceEventRecord event : loader.getEvents(eventIds)) {
+            loadedEvents.put(event.getEventId(), event);
+        }
+
+        return loadedEvents;
+    }
+
     @Override
     public long getTotalHitCount() {
         readLock.lock();
@@ -155,6 +303,31 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
 
     @Override
     public void update(final Collection<ProvenanceEventRecord> newEvents, final long totalHits) {
+        final Map<Long, ProvenanceEventRecord> newRecords = new HashMap<>(newEvents.size());
+        for (final ProvenanceEventRecord event : newEvents) {
+            newRecords.put(event.getEventId(), event);
+        }
+
+        update(newRecords, totalHits);
+    }
+
+    /**
+     * Records the IDs of the matching events without reading them. The events are read from the given loader only
+     * when they are requested, via {@link #getMatchingEvents(Long, int)}.
+     */
+    @Override
+    public void update(final List<Long> eventIds, final long totalHits, final ProvenanceEventLoader eventLoader) {
+        this.eventLoader = eventLoader;
+
+        final Map<Long, ProvenanceEventRecord> newRecords = new HashMap<>(eventIds.size());
+        for (final Long eventId : eventIds) {
+            newRecords.put(eventId, null);
+        }
+
+        update(newRecords, totalHits);
+    }
+
+    private void update(final Map<Long, ProvenanceEventRecord> newRecords, final long totalHits) {
         boolean queryComplete = false;
 
         writeLock.lock();
@@ -163,22 +336,18 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
                 return;
             }
 
-            this.matchingRecords.addAll(newEvents);
+            for (final Map.Entry<Long, ProvenanceEventRecord> entry : newRecords.entrySet()) {
+                if (entry.getValue() != null || !matchingRecords.containsKey(entry.getKey())) {
+                    matchingRecords.put(entry.getKey(), entry.getValue());
+                }
+            }
             hitCount += totalHits;
 
             // If we've added more records than the query's max, then remove the trailing elements.
             // We do this, rather than avoiding the addition of the elements because we want to choose
             // the events with the largest ID.
-            if (matchingRecords.size() > query.getMaxResults()) {
-                final Iterator<ProvenanceEventRecord> itr = matchingRecords.iterator();
-                for (int i = 0; i < query.getMaxResults(); i++) {
-                    itr.next();
-                }
-
-                while (itr.hasNext()) {
-                    itr.next();
-                    itr.remove();
-                }
+            while (matchingRecords.size() > query.getMaxResults()) {
+                matchingRecords.pollLastEntry();
             }
 
             numCompletedSteps++;
@@ -190,10 +359,10 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
                 queryComplete = true;
 
                 if (numCompletedSteps >= numSteps) {
-                    logger.info("Completed {} comprised of {} steps in {} millis. Index found {} hits. Read {} events from Event Files.",
+                    logger.info("Completed {} comprised of {} steps in {} millis. Index found {} hits. Retained {} matching events.",
                         query, numSteps, queryTime, hitCount, matchingRecords.size());
                 } else {
-                    logger.info("Completed {} comprised of {} steps in {} millis. Index found {} hits. Read {} events from Event Files. "
+                    logger.info("Completed {} comprised of {} steps in {} millis. Index found {} hits. Retained {} matching events. "
                             + "Only completed {} steps because the maximum number of results was reached.",
                         query, numSteps, queryTime, hitCount, matchingRecords.size(), numCompletedSteps);
                 }
@@ -232,11 +401,4 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
     private void updateExpiration() {
         expirationDate = new Date(System.currentTimeMillis() + TTL);
     }
-
-    private static class EventIdComparator implements Comparator<ProvenanceEventRecord> {
-        @Override
-        public int compare(final ProvenanceEventRecord o1, final ProvenanceEventRecord o2) {
-            return Long.compare(o2.getEventId(), o1.getEventId());
-        }
-    }
 }
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestProvenanceEventBroadcaster {
+
+    private ProvenanceEventRepository repository;
+
+    @Before
+    public void setup() {
+        repository = mock(ProvenanceEventRepository.class);
+        when(repository.getMaxEventId()).thenReturn(null);
+    }
+
+    @Test
+    public void testPublishedEventsServedFromMemory() throws IOException {
+        final ProvenanceEventBroadcaster broadcaster = new ProvenanceEventBroadcaster(repository, 100);
+        assertFalse(broadcaster.isActive());
+
+        try (final ProvenanceEventSubscription subscription = broadcaster.subscribe(0L)) {
+            assertTrue(broadcaster.isActive());
+            assertTrue(subscription.poll(10).isEmpty());
+
+            broadcaster.publish(createEvents(0, 5));
+            final List<ProvenanceEventRecord> first = subscription.poll(3);
+            assertEquals(Arrays.asList(0L, 1L, 2L), getIds(first));
+            assertEquals(3L, subscription.getNextEventId());
+
+            final List<ProvenanceEventRecord> second = subscription.poll(10);
+            assertEquals(Arrays.asList(3L, 4L), getIds(second));
+            assertEquals(5L, subscription.getNextEventId());
+        }
+
+        verify(repository, never()).getEvents(anyLong(), anyInt());
+        assertFalse(broadcaster.isActive());
+    }
+
+    @Test
+    public void testEventsStoredBeforeSubscriptionReadFromRepository() throws IOException {
+        when(repository.getMaxEventId()).thenReturn(9L);
+        when(repository.getEvents(0L, 5)).thenReturn(createEvents(0, 5));
+        when(repository.getEvents(5L, 5)).thenReturn(createEvents(5, 10));
+
+        final ProvenanceEventBroadcaster broadcaster = new ProvenanceEventBroadcaster(repository, 100);
+        try (final ProvenanceEventSubscription subscription = broadcaster.subscribe(0L)) {
+            broadcaster.publish(createEvents(10, 12));
+
+            assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L), getIds(subscription.poll(5)));
+            assertEquals(Arrays.asList(5L, 6L, 7L, 8L, 9L), getIds(subscription.poll(5)));
+            assertEquals(Arrays.asList(10L, 11L), getIds(subscription.poll(5)));
+        }
+    }
+
+    @Test
+    public void testLaggingSubscriberReadsFromRepository() throws IOException {
+        when(repository.getEvents(0L, 4)).thenReturn(createEvents(0, 4));
+
+        final ProvenanceEventBroadcaster broadcaster = new ProvenanceEventBroadcaster(repository, 4);
+        try (final ProvenanceEventSubscription subscription = broadcaster.subscribe(0L)) {
+            // Publishing never waits for the subscriber, so events 0 through 5 are overwritten
+            broadcaster.publish(createEvents(0, 10));
+
+            assertEquals(Arrays.asList(0L, 1L, 2L, 3L), getIds(subscription.poll(4)));
+            verify(repository).getEvents(0L, 4);
+
+            when(repository.getEvents(4L, 4)).thenReturn(createEvents(4, 8));
+            assertEquals(Arrays.asList(4L, 5L, 6L, 7L), getIds(subscription.poll(4)));
+
+            // Subscriber has caught up with the ring
+            assertEquals(Arrays.asList(8L, 9L), getIds(subscription.poll(4)));
+        }
+    }
+
+    @Test
+    public void testGapWaitsBeforeReadingFromRepository() throws IOException, InterruptedException {
+        final ProvenanceEventBroadcaster broadcaster = new ProvenanceEventBroadcaster(repository, 100, 50L, TimeUnit.MILLISECONDS);
+        try (final ProvenanceEventSubscription subscription = broadcaster.subscribe(0L)) {
+            broadcaster.publish(createEvents(0, 2));
+            broadcaster.publish(createEvents(3, 5));
+
+            assertEquals(Arrays.asList(0L, 1L), getIds(subscription.poll(10)));
+            assertTrue(subscription.poll(10).isEmpty());
+            verify(repository, never()).getEvents(anyLong(), anyInt());
+
+            // Event 2 is published within the gap timeout
+            broadcaster.publish(createEvents(2, 3));
+            assertEquals(Arrays.asList(2L, 3L, 4L), getIds(subscription.poll(10)));
+
+            // Event 6 is never published, so once the gap timeout elapses the repository is consulted
+            broadcaster.publish(createEvents(5, 6));
+            broadcaster.publish(createEvents(7, 8));
+            when(repository.getEvents(6L, 10)).thenReturn(createEvents(7, 8));
+
+            assertEquals(Collections.singletonList(5L), getIds(subscription.poll(10)));
+            assertEquals(Collections.singletonList(7L), getIds(subscription.poll(10, 5, TimeUnit.SECONDS)));
+            assertEquals(8L, subscription.getNextEventId());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testPollWaitsForPublish() throws IOException, InterruptedException {
+        final ProvenanceEventBroadcaster broadcaster = new ProvenanceEventBroadcaster(repository, 100);
+        try (final ProvenanceEventSubscription subscription = broadcaster.subscribe(0L)) {
+            assertTrue(subscription.poll(10, 10, TimeUnit.MILLISECONDS).isEmpty());
+
+            final Thread publisher = new Thread(() -> {
+                try {
+                    Thread.sleep(100L);
+                } catch (final InterruptedException ie) {
+                    return;
+                }
+
+                broadcaster.publish(createEvents(0, 3));
+            });
+            publisher.start();
+
+            assertEquals(Arrays.asList(0L, 1L, 2L), getIds(subscription.poll(10, 5, TimeUnit.SECONDS)));
+            publisher.join();
+        }
+    }
+
+    @Test
+    public void testRingReleasedWhenLastSubscriptionClosed() throws IOException {
+        when(repository.getMaxEventId()).thenReturn(null, 4L);
+        when(repository.getEvents(3L, 10)).thenReturn(createEvents(3, 5));
+
+        final ProvenanceEventBroadcaster broadcaster = new ProvenanceEventBroadcaster(repository, 100);
+        final ProvenanceEventSubscription first = broadcaster.subscribe(0L);
+        final ProvenanceEventSubscription second = broadcaster.subscribe(0L);
+        assertEquals(2, broadcaster.getSubscriptionCount());
+
+        broadcaster.publish(createEvents(0, 3));
+        assertEquals(3, first.poll(10).size());
+
+        first.close();
+        first.close();
+        assertEquals(1, broadcaster.getSubscriptionCount());
+        assertTrue(broadcaster.isActive());
+        assertTrue(first.poll(10).isEmpty());
+        assertEquals(3, second.poll(10).size());
+
+        second.close();
+        assertEquals(0, broadcaster.getSubscriptionCount());
+        assertFalse(broadcaster.isActive());
+
+        // Events published while there are no subscribers are ignored, so a new subscriber reads them from the repository
+        broadcaster.publish(createEvents(3, 5));
+        try (final ProvenanceEventSubscription third = broadcaster.subscribe(3L)) {
+            assertEquals(Arrays.asList(3L, 4L), getIds(third.poll(10)));
+            verify(repository).getEvents(3L, 10);
+        }
+    }
+
+    private static List<Long> getIds(final List<ProvenanceEventRecord> events) {
+        return events.stream().map(ProvenanceEventRecord::getEventId).collect(Collectors.toList());
+    }
+
+    private static List<ProvenanceEventRecord> createEvents(final long firstId, final long endId) {
+        return LongStream.range(firstId, endId).mapToObj(TestProvenanceEventBroadcaster::createEvent).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static ProvenanceEventRecord createEvent(final long eventId) {
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventId(eventId)
+            .setEventTime(System.currentTimeMillis())
+            .setEventType(ProvenanceEventType.CREATE)
+            .setFlowFileUUID("00000000-0000-0000-0000-" + String.format("%012d", eventId))
+            .setComponentId("1234")
+            .setComponentType("dummy processor")
+            .setCurrentContentClaim(null, null, null, null, 0L)
+            .build();
+    }
+}
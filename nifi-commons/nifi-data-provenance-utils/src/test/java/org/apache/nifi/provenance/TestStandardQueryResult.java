@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.search.Query;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestStandardQueryResult {
+
+    @Test
+    public void testEventsReadLazilyPageByPage() throws IOException {
+        final Query query = new Query("1234");
+        query.setMaxResults(100);
+        final StandardQueryResult result = new StandardQueryResult(query, 2);
+
+        final List<List<Long>> requestedIds = new ArrayList<>();
+        final ProvenanceEventLoader loader = eventIds -> {
+            requestedIds.add(new ArrayList<>(eventIds));
+            return eventIds.stream().map(TestStandardQueryResult::createEvent).collect(Collectors.toList());
+        };
+
+        // Two partitions, each providing its matching Event IDs newest first
+        result.update(Arrays.asList(9L, 7L, 5L, 3L, 1L), 5L, loader);
+        assertFalse(result.isFinished());
+        result.update(Arrays.asList(8L, 6L, 4L, 2L, 0L), 5L, loader);
+        assertTrue(result.isFinished());
+        assertEquals(10L, result.getTotalHitCount());
+        assertTrue(requestedIds.isEmpty());
+
+        final List<ProvenanceEventRecord> firstPage = result.getMatchingEvents(null, 4);
+        assertEquals(Arrays.asList(9L, 8L, 7L, 6L), getIds(firstPage));
+        assertEquals(Collections.singletonList(Arrays.asList(9L, 8L, 7L, 6L)), requestedIds);
+
+        final List<ProvenanceEventRecord> secondPage = result.getMatchingEvents(6L, 4);
+        assertEquals(Arrays.asList(5L, 4L, 3L, 2L), getIds(secondPage));
+
+        final List<ProvenanceEventRecord> lastPage = result.getMatchingEvents(2L, 4);
+        assertEquals(Arrays.asList(1L, 0L), getIds(lastPage));
+        assertTrue(result.getMatchingEvents(0L, 4).isEmpty());
+        assertEquals(3, requestedIds.size());
+    }
+
+    @Test
+    public void testPageSkipsEventsThatAreNotLoaded() throws IOException {
+        final Query query = new Query("1234");
+        query.setMaxResults(100);
+        final StandardQueryResult result = new StandardQueryResult(query, 1);
+
+        // Simulate the user not being authorized for events with an odd ID
+        final ProvenanceEventLoader loader = eventIds -> eventIds.stream()
+            .filter(id -> id % 2 == 0)
+            .map(TestStandardQueryResult::createEvent)
+            .collect(Collectors.toList());
+
+        result.update(LongStream.range(0, 20).boxed().sorted(Collections.reverseOrder()).collect(Collectors.toList()), 20L, loader);
+
+        assertEquals(Arrays.asList(18L, 16L, 14L), getIds(result.getMatchingEvents(null, 3)));
+        assertEquals(Arrays.asList(12L, 10L, 8L), getIds(result.getMatchingEvents(14L, 3)));
+    }
+
+    @Test
+    public void testOnlyLargestEventIdsRetained() throws IOException {
+        final Query query = new Query("1234");
+        query.setMaxResults(3);
+        final StandardQueryResult result = new StandardQueryResult(query, 3);
+
+        final ProvenanceEventLoader loader = eventIds -> eventIds.stream().map(TestStandardQueryResult::createEvent).collect(Collectors.toList());
+        result.update(Arrays.asList(2L, 1L), 2L, loader);
+        result.update(Collections.singletonList(createEvent(10L)), 1L);
+        assertEquals(3L, result.getTotalHitCount());
+        assertTrue(result.isFinished());
+
+        // Further steps are ignored once the maximum number of results has been reached
+        result.update(Arrays.asList(20L, 19L), 2L, loader);
+
+        assertEquals(Arrays.asList(10L, 2L, 1L), getIds(result.getMatchingEvents()));
+        assertEquals(Arrays.asList(2L, 1L), getIds(result.getMatchingEvents(10L, 5)));
+    }
+
+    @Test
+    public void testMatchingEventsReadOnceQueryFinished() throws IOException {
+        final Query query = new Query("1234");
+        query.setMaxResults(100);
+        final StandardQueryResult result = new StandardQueryResult(query, 1);
+
+        final AtomicInteger loadCount = new AtomicInteger(0);
+        final ProvenanceEventLoader loader = eventIds -> {
+            loadCount.incrementAndGet();
+            return eventIds.stream().map(TestStandardQueryResult::createEvent).collect(Collectors.toList());
+        };
+
+        result.update(Arrays.asList(3L, 2L, 1L), 3L, loader);
+        assertTrue(result.isFinished());
+
+        assertEquals(Arrays.asList(3L, 2L, 1L), getIds(result.getMatchingEvents()));
+        assertEquals(Arrays.asList(3L, 2L, 1L), getIds(result.getMatchingEvents()));
+        assertEquals(Arrays.asList(2L, 1L), getIds(result.getMatchingEvents(3L, 5)));
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testFailureToReadMatchingEventsReportedAsError() {
+        final Query query = new Query("1234");
+        query.setMaxResults(100);
+        final StandardQueryResult result = new StandardQueryResult(query, 2);
+
+        final ProvenanceEventLoader loader = eventIds -> {
+            throw new IOException("Intentional Unit Test Exception");
+        };
+
+        result.update(Collections.singletonList(createEvent(5L)), 1L);
+        result.update(Arrays.asList(3L, 2L), 2L, loader);
+        assertTrue(result.isFinished());
+        assertNull(result.getError());
+
+        assertEquals(Collections.singletonList(5L), getIds(result.getMatchingEvents()));
+        assertNotNull(result.getError());
+    }
+
+    private static List<Long> getIds(final List<ProvenanceEventRecord> events) {
+        return events.stream().map(ProvenanceEventRecord::getEventId).collect(Collectors.toList());
+    }
+
+    private static ProvenanceEventRecord createEvent(final long eventId) {
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventId(eventId)
+            .setEventTime(System.currentTimeMillis())
+            .setEventType(ProvenanceEventType.CREATE)
+            .setFlowFileUUID("00000000-0000-0000-0000-" + String.format("%012d", eventId))
+            .setComponentId("1234")
+            .setComponentType("dummy processor")
+            .setCurrentContentClaim(null, null, null, null, 0L)
+            .build();
+    }
+}
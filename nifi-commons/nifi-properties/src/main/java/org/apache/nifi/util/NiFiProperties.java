@@ -81,6 +81,7 @@ public abstract class NiFiProperties {
     public static final String TEMPLATE_DIRECTORY = "nifi.templates.directory";
     public static final String ADMINISTRATIVE_YIELD_DURATION = "nifi.administrative.yield.duration";
     public static final String BORED_YIELD_DURATION = "nifi.bored.yield.duration";
+    public static final String DEMAND_DRIVEN_SCHEDULING_ENABLED = "nifi.scheduling.demand.driven.enabled";
     public static final String PROCESSOR_SCHEDULING_TIMEOUT = "nifi.processor.scheduling.timeout";
     public static final String BACKPRESSURE_COUNT = "nifi.queue.backpressure.count";
     public static final String BACKPRESSURE_SIZE = "nifi.queue.backpressure.size";
@@ -95,6 +96,8 @@ public abstract class NiFiProperties {
     public static final String CONTENT_ARCHIVE_BACK_PRESSURE_PERCENTAGE = "nifi.content.repository.archive.backpressure.percentage";
     public static final String CONTENT_ARCHIVE_ENABLED = "nifi.content.repository.archive.enabled";
     public static final String CONTENT_ARCHIVE_CLEANUP_FREQUENCY = "nifi.content.repository.archive.cleanup.frequency";
+    public static final String CONTENT_REPOSITORY_DEDUPLICATION_ENABLED = "nifi.content.repository.deduplication.enabled";
+    public static final String CONTENT_REPOSITORY_DEDUPLICATION_MIN_SIZE = "nifi.content.repository.deduplication.min.size";
     public static final String CONTENT_VIEWER_URL = "nifi.content.viewer.url";
     public static final String CONTENT_REPOSITORY_ENCRYPTION_KEY = "nifi.content.repository.encryption.key";
     public static final String CONTENT_REPOSITORY_ENCRYPTION_KEY_ID = "nifi.content.repository.encryption.key.id";
@@ -105,14 +108,19 @@ public abstract class NiFiProperties {
     public static final String FLOWFILE_REPOSITORY_IMPLEMENTATION = "nifi.flowfile.repository.implementation";
     public static final String FLOWFILE_REPOSITORY_WAL_IMPLEMENTATION = "nifi.flowfile.repository.wal.implementation";
     public static final String FLOWFILE_REPOSITORY_ALWAYS_SYNC = "nifi.flowfile.repository.always.sync";
+    public static final String FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW = "nifi.flowfile.repository.group.commit.window";
     public static final String FLOWFILE_REPOSITORY_DIRECTORY = "nifi.flowfile.repository.directory";
     public static final String FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL = "nifi.flowfile.repository.checkpoint.interval";
+    public static final String FLOWFILE_REPOSITORY_MAX_INCREMENTAL_CHECKPOINTS = "nifi.flowfile.repository.checkpoint.max.incremental";
+    public static final String FLOWFILE_REPOSITORY_RECOVERY_THREADS = "nifi.flowfile.repository.recovery.threads";
+    public static final String FLOWFILE_REPOSITORY_PARALLEL_SNAPSHOT_ENABLED = "nifi.flowfile.repository.recovery.parallel.snapshot.enabled";
     public static final String FLOWFILE_REPOSITORY_ENCRYPTION_KEY = "nifi.flowfile.repository.encryption.key";
     public static final String FLOWFILE_REPOSITORY_ENCRYPTION_KEY_ID = "nifi.flowfile.repository.encryption.key.id";
     public static final String FLOWFILE_REPOSITORY_ENCRYPTION_KEY_PROVIDER_IMPLEMENTATION_CLASS = "nifi.flowfile.repository.encryption.key.provider.implementation";
     public static final String FLOWFILE_REPOSITORY_ENCRYPTION_KEY_PROVIDER_LOCATION = "nifi.flowfile.repository.encryption.key.provider.location";
     public static final String FLOWFILE_SWAP_MANAGER_IMPLEMENTATION = "nifi.swap.manager.implementation";
     public static final String QUEUE_SWAP_THRESHOLD = "nifi.queue.swap.threshold";
+    public static final String QUEUE_SWAP_COMPRESSION_ENABLED = "nifi.queue.swap.compression.enabled";
 
     // provenance properties
     public static final String PROVENANCE_REPO_IMPLEMENTATION_CLASS = "nifi.provenance.repository.implementation";
@@ -134,10 +142,16 @@ public abstract class NiFiProperties {
     public static final String PROVENANCE_REPO_ENCRYPTION_KEY_PROVIDER_IMPLEMENTATION_CLASS = "nifi.provenance.repository.encryption.key.provider.implementation";
     public static final String PROVENANCE_REPO_ENCRYPTION_KEY_PROVIDER_LOCATION = "nifi.provenance.repository.encryption.key.provider.location";
     public static final String PROVENANCE_REPO_DEBUG_FREQUENCY = "nifi.provenance.repository.debug.frequency";
+    public static final String PROVENANCE_CAPTURE_PREFIX = "nifi.provenance.repository.capture.";
+    public static final String PROVENANCE_CAPTURE_ATTRIBUTES = PROVENANCE_CAPTURE_PREFIX + "attributes";
 
     // component status repository properties
     public static final String COMPONENT_STATUS_REPOSITORY_IMPLEMENTATION = "nifi.components.status.repository.implementation";
     public static final String COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "nifi.components.status.snapshot.frequency";
+    public static final String COMPONENT_STATUS_REPOSITORY_DIRECTORY = "nifi.components.status.repository.directory";
+    public static final String COMPONENT_STATUS_REPOSITORY_MINUTE_RETENTION = "nifi.components.status.repository.minute.retention";
+    public static final String COMPONENT_STATUS_REPOSITORY_HOUR_RETENTION = "nifi.components.status.repository.hour.retention";
+    public static final String COMPONENT_STATUS_REPOSITORY_DAY_RETENTION = "nifi.components.status.repository.day.retention";
 
     // security properties
     public static final String SECURITY_KEYSTORE = "nifi.security.keystore";
@@ -273,14 +287,25 @@ public abstract class NiFiProperties {
     public static final String DEFAULT_NAR_LIBRARY_DIR = "./lib";
     public static final String DEFAULT_NAR_LIBRARY_AUTOLOAD_DIR = "./extensions";
     public static final String DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL = "20 secs";
+    public static final String DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW = "0 millis";
+    public static final int DEFAULT_FLOWFILE_REPOSITORY_MAX_INCREMENTAL_CHECKPOINTS = 0;
+    public static final String DEFAULT_FLOWFILE_REPOSITORY_PARALLEL_SNAPSHOT_ENABLED = "false";
     public static final int DEFAULT_MAX_FLOWFILES_PER_CLAIM = 100;
     public static final String DEFAULT_MAX_APPENDABLE_CLAIM_SIZE = "1 MB";
+    public static final Boolean DEFAULT_CONTENT_REPOSITORY_DEDUPLICATION_ENABLED = false;
+    public static final String DEFAULT_CONTENT_REPOSITORY_DEDUPLICATION_MIN_SIZE = "4 KB";
     public static final int DEFAULT_QUEUE_SWAP_THRESHOLD = 20000;
+    public static final String DEFAULT_QUEUE_SWAP_COMPRESSION_ENABLED = "false";
     public static final long DEFAULT_BACKPRESSURE_COUNT = 10_000L;
     public static final String DEFAULT_BACKPRESSURE_SIZE = "1 GB";
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
     public static final String DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "5 mins";
+    public static final String DEFAULT_COMPONENT_STATUS_REPOSITORY_DIRECTORY = "./status_repository";
+    public static final String DEFAULT_COMPONENT_STATUS_REPOSITORY_MINUTE_RETENTION = "1 day";
+    public static final String DEFAULT_COMPONENT_STATUS_REPOSITORY_HOUR_RETENTION = "30 days";
+    public static final String DEFAULT_COMPONENT_STATUS_REPOSITORY_DAY_RETENTION = "365 days";
     public static final String DEFAULT_BORED_YIELD_DURATION = "10 millis";
+    public static final String DEFAULT_DEMAND_DRIVEN_SCHEDULING_ENABLED = "false";
     public static final String DEFAULT_ZOOKEEPER_CONNECT_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_SESSION_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_ROOT_NODE = "/nifi";
@@ -389,6 +414,17 @@ public abstract class NiFiProperties {
         }
     }
 
+    /**
+     * Returns whether FlowFiles that are swapped out should be written using the compressed swap file format.
+     * Swap files are always readable regardless of this setting; it only determines the format used for new swap files.
+     *
+     * @return whether to compress swap files
+     */
+    public boolean isQueueSwapCompressionEnabled() {
+        final String rawValue = getProperty(QUEUE_SWAP_COMPRESSION_ENABLED, DEFAULT_QUEUE_SWAP_COMPRESSION_ENABLED);
+        return Boolean.parseBoolean(rawValue.trim());
+    }
+
     public Integer getIntegerProperty(final String propertyName, final Integer defaultValue) {
         final String value = getProperty(propertyName);
         if (value == null || value.trim().isEmpty()) {
@@ -523,6 +559,46 @@ public abstract class NiFiProperties {
         return getProperty(FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL, DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL);
     }
 
+    /**
+     * Returns the amount of time that the FlowFile Repository waits before syncing an update to disk, so that
+     * updates from other concurrent sessions can be made durable by the same sync
+     *
+     * @return the group commit window, as a time period
+     */
+    public String getFlowFileRepositoryGroupCommitWindow() {
+        return getProperty(FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW, DEFAULT_FLOWFILE_REPOSITORY_GROUP_COMMIT_WINDOW);
+    }
+
+    /**
+     * Returns the maximum number of checkpoints of the FlowFile Repository that write only the FlowFiles that have changed since
+     * the previous checkpoint, before a checkpoint writes all FlowFiles again
+     *
+     * @return the maximum number of incremental checkpoints, or 0 if every checkpoint writes all FlowFiles
+     */
+    public int getFlowFileRepositoryMaxIncrementalCheckpoints() {
+        return getIntegerProperty(FLOWFILE_REPOSITORY_MAX_INCREMENTAL_CHECKPOINTS, DEFAULT_FLOWFILE_REPOSITORY_MAX_INCREMENTAL_CHECKPOINTS);
+    }
+
+    /**
+     * Returns the maximum number of threads that the FlowFile Repository uses to deserialize FlowFiles when recovering on startup
+     *
+     * @return the number of recovery threads, which defaults to the number of available processors
+     */
+    public int getFlowFileRepositoryRecoveryThreads() {
+        return getIntegerProperty(FLOWFILE_REPOSITORY_RECOVERY_THREADS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns whether checkpoints of the FlowFile Repository should be written in the block encoding that allows them to be
+     * deserialized in parallel on recovery. Versions of NiFi that predate this encoding cannot read such checkpoints.
+     *
+     * @return whether to write checkpoints that can be recovered in parallel
+     */
+    public boolean isFlowFileRepositoryParallelSnapshotEnabled() {
+        final String rawValue = getProperty(FLOWFILE_REPOSITORY_PARALLEL_SNAPSHOT_ENABLED, DEFAULT_FLOWFILE_REPOSITORY_PARALLEL_SNAPSHOT_ENABLED);
+        return Boolean.parseBoolean(rawValue.trim());
+    }
+
     /**
      * @return the restore directory or null if not configured
      */
@@ -1189,6 +1265,29 @@ public abstract class NiFiProperties {
         return getProperty(MAX_APPENDABLE_CLAIM_SIZE, DEFAULT_MAX_APPENDABLE_CLAIM_SIZE);
     }
 
+    /**
+     * Returns whether the Content Repository should store content that is identical to content it already holds only once,
+     * referencing the existing copy instead.
+     *
+     * @return whether content deduplication is enabled
+     */
+    public boolean isContentRepositoryDeduplicationEnabled() {
+        final String rawValue = getProperty(CONTENT_REPOSITORY_DEDUPLICATION_ENABLED, DEFAULT_CONTENT_REPOSITORY_DEDUPLICATION_ENABLED.toString());
+        return Boolean.parseBoolean(rawValue.trim());
+    }
+
+    /**
+     * Returns the size below which content is not considered for deduplication, since the cost of indexing small content
+     * outweighs the space that would be saved.
+     * <p>
+     * Default is {@link #DEFAULT_CONTENT_REPOSITORY_DEDUPLICATION_MIN_SIZE}
+     *
+     * @return the minimum size of content to deduplicate
+     */
+    public String getContentRepositoryDeduplicationMinSize() {
+        return getProperty(CONTENT_REPOSITORY_DEDUPLICATION_MIN_SIZE, DEFAULT_CONTENT_REPOSITORY_DEDUPLICATION_MIN_SIZE);
+    }
+
     public String getProperty(final String key, final String defaultValue) {
         final String value = getProperty(key);
         return (value == null || value.trim().isEmpty()) ? defaultValue : value;
@@ -1198,6 +1297,16 @@ public abstract class NiFiProperties {
         return getProperty(BORED_YIELD_DURATION, DEFAULT_BORED_YIELD_DURATION);
     }
 
+    /**
+     * Returns whether Timer-Driven components that are waiting on input should be woken
+     * when data is queued for them, rather than polling for work after the bored yield duration.
+     *
+     * @return true if demand-driven scheduling is enabled, false otherwise
+     */
+    public boolean isDemandDrivenSchedulingEnabled() {
+        return Boolean.parseBoolean(getProperty(DEMAND_DRIVEN_SCHEDULING_ENABLED, DEFAULT_DEMAND_DRIVEN_SCHEDULING_ENABLED));
+    }
+
     public File getStateManagementConfigFile() {
         return new File(getProperty(STATE_MANAGEMENT_CONFIG_FILE, DEFAULT_STATE_MANAGEMENT_CONFIG_FILE));
     }
@@ -30,6 +30,8 @@ import org.apache.nifi.record.path.paths.RecordPathSegment;
 import org.apache.nifi.record.path.paths.RootPath;
 import org.apache.nifi.serialization.record.Record;
 
+import java.util.Optional;
+
 public interface RecordPath {
 
     /**
@@ -48,6 +50,19 @@ public interface RecordPath {
      */
     RecordPathResult evaluate(Record record);
 
+    /**
+     * If this RecordPath does nothing more than select a single field of the root Record by name, such as <code>/name</code>,
+     * returns the name of that field. Evaluating such a RecordPath against a Record selects exactly one FieldValue, whose value is
+     * the value of the field if the Record's schema has the field, or <code>null</code> otherwise. This allows callers to obtain the
+     * value directly, such as from a column of a {@link org.apache.nifi.serialization.record.batch.RecordBatch}, rather than evaluating
+     * the RecordPath against each Record.
+     *
+     * @return the name of the root Record's field that this RecordPath selects, or an empty Optional if the RecordPath is anything more than that
+     */
+    default Optional<String> getRootFieldName() {
+        return Optional.empty();
+    }
+
 
     /**
      * Evaluates a RecordPath against the given context node. This allows a RecordPath to be evaluated
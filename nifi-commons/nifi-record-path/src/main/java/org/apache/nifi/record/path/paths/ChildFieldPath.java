@@ -64,6 +64,11 @@ public class ChildFieldPath extends RecordPathSegment {
         return new StandardFieldValue(value, field.get(), fieldValue);
     }
 
+    @Override
+    public Optional<String> getRootFieldName() {
+        return getParentPath() instanceof RootPath ? Optional.of(childName) : Optional.empty();
+    }
+
     @Override
     public Stream<FieldValue> evaluate(final RecordPathEvaluationContext context) {
         return getParentPath().evaluate(context)
@@ -102,6 +102,17 @@ public class TestRecordPath {
         assertEquals(accountRecord, RecordPath.compile("/mainAccount/id").evaluate(record).getSelectedFields().findFirst().get().getParentRecord().get());
     }
 
+    @Test
+    public void testRootFieldName() {
+        assertEquals(Optional.of("name"), RecordPath.compile("/name").getRootFieldName());
+        assertEquals(Optional.empty(), RecordPath.compile("/person/name").getRootFieldName());
+        assertEquals(Optional.empty(), RecordPath.compile("/name[0]").getRootFieldName());
+        assertEquals(Optional.empty(), RecordPath.compile("/*").getRootFieldName());
+        assertEquals(Optional.empty(), RecordPath.compile("//name").getRootFieldName());
+        assertEquals(Optional.empty(), RecordPath.compile("/name[. = 'John']").getRootFieldName());
+        assertEquals(Optional.empty(), RecordPath.compile("toUpperCase(/name)").getRootFieldName());
+    }
+
     @Test
     public void testRootRecord() {
         final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());
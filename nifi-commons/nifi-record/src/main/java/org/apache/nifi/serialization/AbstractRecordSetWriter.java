@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSet;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 public abstract class AbstractRecordSetWriter implements RecordSetWriter {
     private final OutputStream out;
@@ -60,6 +61,13 @@ public abstract class AbstractRecordSetWriter implements RecordSetWriter {
         return WriteResult.of(++recordCount, attributes);
     }
 
+    @Override
+    public final WriteResult write(final RecordBatch batch) throws IOException {
+        final Map<String, String> attributes = writeBatch(batch);
+        recordCount += batch.size();
+        return WriteResult.of(recordCount, attributes == null ? Collections.emptyMap() : attributes);
+    }
+
     protected OutputStream getOutputStream() {
         return out;
     }
@@ -118,4 +126,20 @@ public abstract class AbstractRecordSetWriter implements RecordSetWriter {
     }
 
     protected abstract Map<String, String> writeRecord(Record record) throws IOException;
+
+    /**
+     * Method that is called by {@link #write(RecordBatch)} to write each of the records in a batch. Subclasses that are able to write
+     * the columns of a batch more efficiently than its records should override this method. By default, each record of the batch
+     * is written by calling {@link #writeRecord(Record)}.
+     *
+     * @param batch the batch of records to write
+     * @return a Map of key/value pairs that should be added to the FlowFile as attributes
+     */
+    protected Map<String, String> writeBatch(final RecordBatch batch) throws IOException {
+        Map<String, String> attributes = Collections.emptyMap();
+        for (int i = 0; i < batch.size(); i++) {
+            attributes = writeRecord(batch.getRecord(i));
+        }
+        return attributes;
+    }
 }
@@ -20,9 +20,13 @@ package org.apache.nifi.serialization;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.RecordSet;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * <p>
@@ -70,6 +74,63 @@ public interface RecordReader extends Closeable {
      */
     Record nextRecord(boolean coerceTypes, boolean dropUnknownFields) throws IOException, MalformedRecordException;
 
+    /**
+     * Reads up to the given number of records from the underlying stream as a single batch. Types will be coerced and any unknown fields
+     * will be dropped, so every record of the batch adheres to the schema of the batch. Readers that are able to fill the columns of a batch
+     * directly should override this method; by default, the batch is made up of the records returned by {@link #nextRecord(boolean, boolean)}.
+     *
+     * @param maxRecords the maximum number of records to read into the batch
+     * @return a batch of at least one and at most <code>maxRecords</code> records, or <code>null</code> if no more records are available
+     *
+     * @throws IOException if unable to read from the underlying data
+     * @throws MalformedRecordException if an unrecoverable failure occurs when trying to parse a record, or a Record contains a field
+     *             that violates the schema and cannot be coerced into the appropriate field type.
+     */
+    default RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("Cannot read a batch of " + maxRecords + " records");
+        }
+
+        final List<Record> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        Record record;
+        while (records.size() < maxRecords && (record = nextRecord(true, true)) != null) {
+            records.add(record);
+        }
+
+        return records.isEmpty() ? null : RecordBatch.of(getSchema(), records);
+    }
+
+    /**
+     * <p>
+     * Informs the reader of which fields the caller needs and of the conditions that a record must meet for the caller to use it, so that the
+     * reader can avoid parsing and converting values that will not be used and can skip records that will be filtered out. This method must be
+     * called before the first record is read.
+     * </p>
+     *
+     * <p>
+     * If the reader accepts the pushdown, then each record that it returns still adheres to the reader's schema. If the pushdown restricts the
+     * fields that are needed, however, a field that is not needed may have no value, so records are not type checked and carry no
+     * {@link org.apache.nifi.serialization.record.SerializedForm SerializedForm}, since their values no longer reflect the data that was read.
+     * The reader may skip only records that do not satisfy the predicates, but it need not skip all of them, so the caller must still
+     * evaluate its conditions against each record that is returned.
+     * By default, the pushdown is not accepted and all records are read in full.
+     * </p>
+     *
+     * @param pushdown the fields that are needed and the predicates that records must satisfy
+     * @return <code>true</code> if the reader accepts the pushdown, <code>false</code> if it reads records as it otherwise would
+     */
+    default boolean pushDown(final RecordPushdown pushdown) {
+        return false;
+    }
+
+    /**
+     * @return the number of records that the reader has skipped, without returning them, because they did not satisfy the predicates of
+     *         a {@link #pushDown(RecordPushdown) pushdown}
+     */
+    default long getSkippedRecordCount() {
+        return 0L;
+    }
+
     /**
      * @return a RecordSchema that is appropriate for the records in the stream
      * @throws MalformedRecordException if an unrecoverable failure occurs when trying to parse the underlying data
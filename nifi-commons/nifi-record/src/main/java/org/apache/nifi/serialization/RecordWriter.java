@@ -21,6 +21,7 @@ import java.io.Closeable;
 import java.io.IOException;
 
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 public interface RecordWriter extends Closeable {
     /**
@@ -32,6 +33,22 @@ public interface RecordWriter extends Closeable {
      */
     WriteResult write(Record record) throws IOException;
 
+    /**
+     * Writes each of the records in the given batch to the underlying stream. Writers that are able to write the columns of a batch
+     * more efficiently than its records should override this method; by default, each record of the batch is written in turn.
+     *
+     * @param batch the batch of records to write
+     * @return the results of writing the data
+     * @throws IOException if unable to write to the underlying stream
+     */
+    default WriteResult write(final RecordBatch batch) throws IOException {
+        WriteResult result = WriteResult.EMPTY;
+        for (int i = 0; i < batch.size(); i++) {
+            result = write(batch.getRecord(i));
+        }
+        return result;
+    }
+
     /**
      * @return the MIME Type that the Record Writer produces. This will be added to FlowFiles using
      *         the mime.type attribute.
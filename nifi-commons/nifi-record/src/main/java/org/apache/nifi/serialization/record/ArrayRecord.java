@@ -0,0 +1,775 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.SchemaValidationException;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.type.ArrayDataType;
+import org.apache.nifi.serialization.record.type.MapDataType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * A Record that holds the values of the fields in its schema in an array, in the order of the schema's fields, rather than in a Map.
+ * Looking up a field by name costs a single lookup of the field's index in the schema, and looking up a field by index costs nothing,
+ * whereas a {@link MapRecord} must hash the name of the field and of each of its aliases. Creating the record allocates only the array.
+ * </p>
+ *
+ * <p>
+ * The record behaves in the same way as a {@link MapRecord} that holds the same values: a field may be missing from the record, which is
+ * not the same as holding a <code>null</code> value, and values for fields that are not in the schema are retained unless unknown fields are
+ * dropped. A record of either type is equal to a record of the other type that has the same schema and values. Unlike a {@link MapRecord}, a value
+ * that is given for one of a field's aliases is held under the name of the field, so {@link #getRawFieldNames()} and {@link #toMap()} report the field's name.
+ * </p>
+ */
+public class ArrayRecord implements Record {
+
+    /**
+     * A value that can be placed into the array of values given to the constructor to indicate that the record has no value at all for the
+     * field at that index. This is the equivalent of a {@link MapRecord} whose Map does not contain the field, as opposed to mapping it to <code>null</code>.
+     */
+    public static final Object MISSING_VALUE = new Object() {
+        @Override
+        public String toString() {
+            return "<missing>";
+        }
+    };
+
+    private RecordSchema schema;
+    private Object[] values;
+    private Map<String, Object> unknownValues;
+    private Optional<SerializedForm> serializedForm;
+    private final boolean checkTypes;
+    private final boolean dropUnknownFields;
+    private Set<RecordField> inactiveFields = null;
+    private Set<String> rawFieldNames = null;
+
+    /**
+     * @param schema the schema of the record
+     * @param values the value of each of the schema's fields, in the order of the schema's fields. The array is used by the record rather than copied.
+     */
+    public ArrayRecord(final RecordSchema schema, final Object[] values) {
+        this(schema, values, null, null, false, false);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, null, null, checkTypes, dropUnknownFields);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, null, serializedForm, checkTypes, dropUnknownFields);
+    }
+
+    /**
+     * @param schema the schema of the record
+     * @param values the value of each of the schema's fields, in the order of the schema's fields, or {@link #MISSING_VALUE} for a field that the record
+     *            has no value for. The array is used by the record rather than copied.
+     * @param unknownValues the values of fields that are not in the schema, keyed by field name, or <code>null</code> if there are none
+     * @param serializedForm the serialized form of the record, or <code>null</code> if not known
+     * @param checkTypes whether or not the values are to be checked against, and coerced into, the types of the schema's fields
+     * @param dropUnknownFields whether or not values for fields that are not in the schema are dropped
+     *
+     * @throws IllegalArgumentException if the number of values does not match the number of fields in the schema
+     * @throws SchemaValidationException if types are checked and a value is not compatible with the type of its field
+     */
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final Map<String, Object> unknownValues, final SerializedForm serializedForm,
+                       final boolean checkTypes, final boolean dropUnknownFields) {
+        Objects.requireNonNull(values);
+
+        this.schema = Objects.requireNonNull(schema);
+        if (values.length != schema.getFieldCount()) {
+            throw new IllegalArgumentException("Record has " + values.length + " values but its schema has " + schema.getFieldCount() + " fields");
+        }
+
+        this.values = values;
+        this.unknownValues = unknownValues == null || unknownValues.isEmpty() ? null : new LinkedHashMap<>(unknownValues);
+        this.serializedForm = Optional.ofNullable(serializedForm);
+        this.checkTypes = checkTypes;
+        this.dropUnknownFields = dropUnknownFields;
+
+        if (checkTypes) {
+            checkTypes();
+        }
+    }
+
+    /**
+     * Creates a record that holds the same values as a {@link MapRecord} that is given the same schema and Map.
+     *
+     * @param schema the schema of the record
+     * @param values the values of the record, keyed by field name or alias
+     */
+    public ArrayRecord(final RecordSchema schema, final Map<String, Object> values) {
+        this(schema, values, null, false, false);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Map<String, Object> values, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, null, checkTypes, dropUnknownFields);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Map<String, Object> values, final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, toArray(schema, values), getUnknownValues(schema, values), serializedForm, checkTypes, dropUnknownFields);
+    }
+
+    private static Object[] toArray(final RecordSchema schema, final Map<String, Object> values) {
+        Objects.requireNonNull(values);
+
+        final Object[] array = new Object[schema.getFieldCount()];
+        for (int i = 0; i < array.length; i++) {
+            final RecordField field = schema.getField(i);
+
+            // As with a MapRecord, the first non-null value of the field's name and aliases wins
+            Object value = values.get(field.getFieldName());
+            boolean present = value != null || values.containsKey(field.getFieldName());
+            if (value == null) {
+                for (final String alias : field.getAliases()) {
+                    final Object aliasValue = values.get(alias);
+                    present = present || aliasValue != null || values.containsKey(alias);
+                    if (aliasValue != null) {
+                        value = aliasValue;
+                        break;
+                    }
+                }
+            }
+
+            array[i] = present ? value : MISSING_VALUE;
+        }
+
+        return array;
+    }
+
+    private static Map<String, Object> getUnknownValues(final RecordSchema schema, final Map<String, Object> values) {
+        if (values.size() <= schema.getFieldCount() && values.keySet().stream().allMatch(fieldName -> schema.getFieldIndex(fieldName) >= 0)) {
+            return null;
+        }
+
+        final Map<String, Object> unknownValues = new LinkedHashMap<>();
+        for (final Map.Entry<String, Object> entry : values.entrySet()) {
+            if (schema.getFieldIndex(entry.getKey()) < 0) {
+                unknownValues.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return unknownValues;
+    }
+
+    private void checkTypes() {
+        for (int i = 0; i < values.length; i++) {
+            final RecordField field = schema.getField(i);
+            final Object value = getExplicitValue(i);
+
+            if (value == null) {
+                if (field.isNullable() || field.getDefaultValue() != null) {
+                    continue;
+                }
+
+                throw new SchemaValidationException("Field " + field.getFieldName() + " cannot be null");
+            }
+
+            if (!DataTypeUtils.isCompatibleDataType(value, field.getDataType())) {
+                throw new SchemaValidationException("Field " + field.getFieldName() + " has a value of " + value
+                    + ", which cannot be coerced into the appropriate data type of " + field.getDataType());
+            }
+        }
+    }
+
+    private Object getExplicitValue(final int index) {
+        final Object value = values[index];
+        return value == MISSING_VALUE ? null : value;
+    }
+
+    @Override
+    public boolean isDropUnknownFields() {
+        return dropUnknownFields;
+    }
+
+    @Override
+    public boolean isTypeChecked() {
+        return checkTypes;
+    }
+
+    @Override
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public Object[] getValues() {
+        final Object[] copy = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            copy[i] = getValue(i);
+        }
+        return copy;
+    }
+
+    /**
+     * @param index the index of the field in the record's schema
+     * @return the value of the field, or its default value if the record has no value for it
+     * @throws IndexOutOfBoundsException if the schema has no field at the given index
+     */
+    public Object getValue(final int index) {
+        final Object value = getExplicitValue(index);
+        if (value != null) {
+            return value;
+        }
+
+        return schema.getField(index).getDefaultValue();
+    }
+
+    @Override
+    public Object getValue(final String fieldName) {
+        final int index = schema.getFieldIndex(fieldName);
+        if (index >= 0) {
+            return getValue(index);
+        }
+
+        if (dropUnknownFields || unknownValues == null) {
+            return null;
+        }
+
+        return unknownValues.get(fieldName);
+    }
+
+    @Override
+    public Object getValue(final RecordField field) {
+        int index = schema.getFieldIndex(field.getFieldName());
+        if (index < 0) {
+            for (final String alias : field.getAliases()) {
+                index = schema.getFieldIndex(alias);
+                if (index >= 0) {
+                    break;
+                }
+            }
+        }
+
+        final Object explicitValue = index >= 0 ? getExplicitValue(index) : getUnknownValue(field);
+        if (explicitValue != null) {
+            return explicitValue;
+        }
+
+        final Object defaultValue = field.getDefaultValue();
+        if (defaultValue != null || index < 0) {
+            return defaultValue;
+        }
+
+        return schema.getField(index).getDefaultValue();
+    }
+
+    private Object getUnknownValue(final RecordField field) {
+        if (unknownValues == null) {
+            return null;
+        }
+
+        final Object value = unknownValues.get(field.getFieldName());
+        if (value != null) {
+            return value;
+        }
+
+        for (final String alias : field.getAliases()) {
+            final Object aliasValue = unknownValues.get(alias);
+            if (aliasValue != null) {
+                return aliasValue;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String getAsString(final String fieldName) {
+        final int index = schema.getFieldIndex(fieldName);
+        if (index >= 0) {
+            return convertToString(getValue(index), schema.getField(index).getDataType().getFormat());
+        }
+
+        return DataTypeUtils.toString(getValue(fieldName), (Supplier<DateFormat>) null);
+    }
+
+    @Override
+    public String getAsString(final String fieldName, final String format) {
+        return convertToString(getValue(fieldName), format);
+    }
+
+    @Override
+    public String getAsString(final RecordField field, final String format) {
+        return convertToString(getValue(field), format);
+    }
+
+    private String convertToString(final Object value, final String format) {
+        if (value == null) {
+            return null;
+        }
+
+        return DataTypeUtils.toString(value, format);
+    }
+
+    // The getAsXXX methods return a value that already has the desired type as it is, which is always the case for a record whose types are checked
+
+    @Override
+    public Long getAsLong(final String fieldName) {
+        return toLong(getValue(fieldName), fieldName);
+    }
+
+    public Long getAsLong(final int index) {
+        return toLong(getValue(index), schema.getField(index).getFieldName());
+    }
+
+    private static Long toLong(final Object value, final String fieldName) {
+        return value instanceof Long ? (Long) value : DataTypeUtils.toLong(value, fieldName);
+    }
+
+    @Override
+    public Integer getAsInt(final String fieldName) {
+        return toInteger(getValue(fieldName), fieldName);
+    }
+
+    public Integer getAsInt(final int index) {
+        return toInteger(getValue(index), schema.getField(index).getFieldName());
+    }
+
+    private static Integer toInteger(final Object value, final String fieldName) {
+        return value instanceof Integer ? (Integer) value : DataTypeUtils.toInteger(value, fieldName);
+    }
+
+    @Override
+    public Double getAsDouble(final String fieldName) {
+        return toDouble(getValue(fieldName), fieldName);
+    }
+
+    public Double getAsDouble(final int index) {
+        return toDouble(getValue(index), schema.getField(index).getFieldName());
+    }
+
+    private static Double toDouble(final Object value, final String fieldName) {
+        return value instanceof Double ? (Double) value : DataTypeUtils.toDouble(value, fieldName);
+    }
+
+    @Override
+    public Float getAsFloat(final String fieldName) {
+        return toFloat(getValue(fieldName), fieldName);
+    }
+
+    public Float getAsFloat(final int index) {
+        return toFloat(getValue(index), schema.getField(index).getFieldName());
+    }
+
+    private static Float toFloat(final Object value, final String fieldName) {
+        return value instanceof Float ? (Float) value : DataTypeUtils.toFloat(value, fieldName);
+    }
+
+    @Override
+    public Boolean getAsBoolean(final String fieldName) {
+        return toBoolean(getValue(fieldName), fieldName);
+    }
+
+    public Boolean getAsBoolean(final int index) {
+        return toBoolean(getValue(index), schema.getField(index).getFieldName());
+    }
+
+    private static Boolean toBoolean(final Object value, final String fieldName) {
+        return value instanceof Boolean ? (Boolean) value : DataTypeUtils.toBoolean(value, fieldName);
+    }
+
+    @Override
+    public Record getAsRecord(final String fieldName, final RecordSchema schema) {
+        return DataTypeUtils.toRecord(getValue(fieldName), schema, fieldName);
+    }
+
+    @Override
+    public Date getAsDate(final String fieldName, final String format) {
+        return DataTypeUtils.toDate(getValue(fieldName), () -> DataTypeUtils.getDateFormat(format), fieldName);
+    }
+
+    @Override
+    public Object[] getAsArray(final String fieldName) {
+        return DataTypeUtils.toArray(getValue(fieldName), fieldName, null, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int hashCode() {
+        // Equal to the hash code of toMap(), so that the record hashes in the same way as an equal MapRecord, without building the Map
+        int mapHashCode = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != MISSING_VALUE) {
+                mapHashCode += schema.getField(i).getFieldName().hashCode() ^ Objects.hashCode(values[i]);
+            }
+        }
+
+        if (unknownValues != null) {
+            mapHashCode += unknownValues.hashCode();
+        }
+
+        return 31 + 41 * mapHashCode + 7 * schema.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (obj instanceof ArrayRecord) {
+            final ArrayRecord other = (ArrayRecord) obj;
+            return schema.equals(other.schema) && Arrays.equals(values, other.values) && unknownValuesEqual(unknownValues, other.unknownValues);
+        }
+        if (!(obj instanceof MapRecord)) {
+            return false;
+        }
+
+        final Record other = (Record) obj;
+        return schema.equals(other.getSchema()) && toMap().equals(other.toMap());
+    }
+
+    private static boolean unknownValuesEqual(final Map<String, Object> unknownValues, final Map<String, Object> otherUnknownValues) {
+        if (unknownValues == null || unknownValues.isEmpty()) {
+            return otherUnknownValues == null || otherUnknownValues.isEmpty();
+        }
+
+        return unknownValues.equals(otherUnknownValues);
+    }
+
+    @Override
+    public String toString() {
+        return "ArrayRecord[" + toMap() + "]";
+    }
+
+    @Override
+    public Optional<SerializedForm> getSerializedForm() {
+        if (serializedForm.isPresent()) {
+            if (!MapRecord.isNestedSerializedFormRetained(Arrays.asList(values))
+                || (unknownValues != null && !MapRecord.isNestedSerializedFormRetained(unknownValues.values()))) {
+                serializedForm = Optional.empty();
+            }
+        }
+
+        return serializedForm;
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+        final Map<String, Object> map = new LinkedHashMap<>((values.length + (unknownValues == null ? 0 : unknownValues.size())) * 2);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != MISSING_VALUE) {
+                map.put(schema.getField(i).getFieldName(), values[i]);
+            }
+        }
+
+        if (unknownValues != null) {
+            map.putAll(unknownValues);
+        }
+
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Updates the value of the field at the given index of the record's schema, in the same way as {@link #setValue(String, Object)}.
+     *
+     * @param index the index of the field in the record's schema
+     * @param value the new value to set
+     * @throws IndexOutOfBoundsException if the schema has no field at the given index
+     */
+    public void setValue(final int index, final Object value) {
+        final RecordField recordField = schema.getField(index);
+        final Object coerced = isTypeChecked() ? DataTypeUtils.convertType(value, recordField.getDataType(), recordField.getFieldName()) : value;
+        final Object previousValue = getExplicitValue(index);
+        values[index] = coerced;
+        if (!Objects.equals(coerced, previousValue)) {
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    public void setValue(final RecordField field, final Object value) {
+        final boolean existingField = setValueAndGetField(field.getFieldName(), value);
+
+        if (!existingField) {
+            if (inactiveFields == null) {
+                inactiveFields = new LinkedHashSet<>();
+            }
+
+            inactiveFields.add(field);
+        }
+    }
+
+    @Override
+    public void setValue(final String fieldName, final Object value) {
+        setValueAndGetField(fieldName, value);
+    }
+
+    private boolean setValueAndGetField(final String fieldName, final Object value) {
+        final int index = schema.getFieldIndex(fieldName);
+        if (index >= 0) {
+            setValue(index, value);
+            return true;
+        }
+
+        if (dropUnknownFields) {
+            return false;
+        }
+
+        if (unknownValues == null) {
+            unknownValues = new LinkedHashMap<>();
+        }
+
+        final Object previousValue = unknownValues.put(fieldName, value);
+        if (!Objects.equals(value, previousValue)) {
+            serializedForm = Optional.empty();
+        }
+
+        return false;
+    }
+
+    @Override
+    public void setArrayValue(final String fieldName, final int arrayIndex, final Object value) {
+        final int index = schema.getFieldIndex(fieldName);
+        if (index < 0) {
+            return;
+        }
+
+        final DataType dataType = schema.getField(index).getDataType();
+        if (dataType.getFieldType() != RecordFieldType.ARRAY) {
+            throw new IllegalTypeConversionException("Cannot set the value of an array index on Record because the field '" + fieldName
+                + "' is of type '" + dataType + "' and cannot be coerced into an ARRAY type");
+        }
+
+        final Object arrayObject = getExplicitValue(index);
+        if (!(arrayObject instanceof Object[])) {
+            return;
+        }
+
+        final Object[] array = (Object[]) arrayObject;
+        if (arrayIndex >= array.length) {
+            return;
+        }
+
+        final DataType elementType = ((ArrayDataType) dataType).getElementType();
+        final Object coerced = DataTypeUtils.convertType(value, elementType, fieldName);
+
+        final boolean update = !Objects.equals(coerced, array[arrayIndex]);
+        if (update) {
+            array[arrayIndex] = coerced;
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setMapValue(final String fieldName, final String mapKey, final Object value) {
+        final int index = schema.getFieldIndex(fieldName);
+        if (index < 0) {
+            return;
+        }
+
+        final DataType dataType = schema.getField(index).getDataType();
+        if (dataType.getFieldType() != RecordFieldType.MAP) {
+            throw new IllegalTypeConversionException("Cannot set the value of map entry on Record because the field '" + fieldName
+                + "' is of type '" + dataType + "' and cannot be coerced into an MAP type");
+        }
+
+        Object mapObject = getExplicitValue(index);
+        if (mapObject == null) {
+            mapObject = new HashMap<String, Object>();
+            values[index] = mapObject;
+        }
+        if (!(mapObject instanceof Map)) {
+            return;
+        }
+
+        final Map<String, Object> map = (Map<String, Object>) mapObject;
+
+        final DataType valueDataType = ((MapDataType) dataType).getValueType();
+        final Object coerced = DataTypeUtils.convertType(value, valueDataType, fieldName);
+
+        final Object replaced = map.put(mapKey, coerced);
+        if (replaced == null || !replaced.equals(coerced)) {
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    public void incorporateSchema(final RecordSchema other) {
+        updateSchema(DataTypeUtils.merge(this.schema, other));
+    }
+
+    @Override
+    public void incorporateInactiveFields() {
+        final List<RecordField> updatedFields = new ArrayList<>();
+
+        boolean fieldUpdated = false;
+        for (final RecordField field : schema.getFields()) {
+            final RecordField updated = MapRecord.getUpdatedRecordField(field, this);
+            if (!updated.equals(field)) {
+                fieldUpdated = true;
+            }
+
+            updatedFields.add(updated);
+        }
+
+        if (!fieldUpdated && (inactiveFields == null || inactiveFields.isEmpty())) {
+            return;
+        }
+
+        if (inactiveFields != null) {
+            for (final RecordField field : inactiveFields) {
+                if (!updatedFields.contains(field)) {
+                    updatedFields.add(field);
+                }
+            }
+        }
+
+        updateSchema(new SimpleRecordSchema(updatedFields));
+    }
+
+    /**
+     * Moves the values into the positions of their fields in the updated schema. Values for fields that are no longer in the schema
+     * are retained as unknown values, and unknown values whose fields have been added to the schema are moved into the array.
+     */
+    private void updateSchema(final RecordSchema updatedSchema) {
+        final Object[] updatedValues = new Object[updatedSchema.getFieldCount()];
+        Arrays.fill(updatedValues, MISSING_VALUE);
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == MISSING_VALUE) {
+                continue;
+            }
+
+            final String fieldName = schema.getField(i).getFieldName();
+            final int updatedIndex = updatedSchema.getFieldIndex(fieldName);
+            if (updatedIndex >= 0) {
+                updatedValues[updatedIndex] = values[i];
+            } else {
+                if (unknownValues == null) {
+                    unknownValues = new LinkedHashMap<>();
+                }
+                unknownValues.put(fieldName, values[i]);
+            }
+        }
+
+        if (unknownValues != null) {
+            final Iterator<Map.Entry<String, Object>> itr = unknownValues.entrySet().iterator();
+            while (itr.hasNext()) {
+                final Map.Entry<String, Object> entry = itr.next();
+                final int updatedIndex = updatedSchema.getFieldIndex(entry.getKey());
+                if (updatedIndex >= 0 && updatedValues[updatedIndex] == MISSING_VALUE) {
+                    updatedValues[updatedIndex] = entry.getValue();
+                    itr.remove();
+                }
+            }
+        }
+
+        this.schema = updatedSchema;
+        this.values = updatedValues;
+    }
+
+    @Override
+    public Set<String> getRawFieldNames() {
+        if (rawFieldNames == null) {
+            rawFieldNames = new RawFieldNames();
+        }
+
+        return rawFieldNames;
+    }
+
+    /**
+     * A view of the names of the fields that the record has values for, in the order of the schema followed by the unknown fields.
+     */
+    private class RawFieldNames extends AbstractSet<String> {
+        @Override
+        public boolean contains(final Object o) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+
+            final String fieldName = (String) o;
+            final int index = schema.getFieldIndex(fieldName);
+            if (index >= 0 && values[index] != MISSING_VALUE && schema.getField(index).getFieldName().equals(fieldName)) {
+                return true;
+            }
+
+            return unknownValues != null && unknownValues.containsKey(fieldName);
+        }
+
+        @Override
+        public int size() {
+            int size = unknownValues == null ? 0 : unknownValues.size();
+            for (final Object value : values) {
+                if (value != MISSING_VALUE) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<String> unknownFieldNames = unknownValues == null ? Collections.emptyIterator() : unknownValues.keySet().iterator();
+
+            return new Iterator<String>() {
+                private int nextIndex = findNext(0);
+
+                private int findNext(final int start) {
+                    int index = start;
+                    while (index < values.length && values[index] == MISSING_VALUE) {
+                        index++;
+                    }
+                    return index;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return nextIndex < values.length || unknownFieldNames.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    if (nextIndex < values.length) {
+                        final String fieldName = schema.getField(nextIndex).getFieldName();
+                        nextIndex = findNext(nextIndex + 1);
+                        return fieldName;
+                    }
+
+                    if (!unknownFieldNames.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    return unknownFieldNames.next();
+                }
+            };
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
 import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -293,6 +294,9 @@ public class MapRecord implements Record {
         if (obj == null) {
             return false;
         }
+        if (obj instanceof ArrayRecord) {
+            return obj.equals(this);
+        }
         if (!(obj instanceof MapRecord)) {
             return false;
         }
@@ -307,6 +311,10 @@ public class MapRecord implements Record {
 
     @Override
     public Optional<SerializedForm> getSerializedForm() {
+        if (serializedForm.isPresent() && !isNestedSerializedFormRetained(values.values())) {
+            serializedForm = Optional.empty();
+        }
+
         return serializedForm;
     }
 
@@ -445,7 +453,7 @@ public class MapRecord implements Record {
 
         boolean fieldUpdated = false;
         for (final RecordField field : schema.getFields()) {
-            final RecordField updated = getUpdatedRecordField(field);
+            final RecordField updated = getUpdatedRecordField(field, this);
             if (!updated.equals(field)) {
                 fieldUpdated = true;
             }
@@ -468,7 +476,39 @@ public class MapRecord implements Record {
         this.schema = new SimpleRecordSchema(updatedFields);
     }
 
-    private RecordField getUpdatedRecordField(final RecordField field) {
+    /**
+     * Indicates whether every record nested within the given values still has its serialized form. A child record can be modified
+     * without its parent being aware of it, but modifying it removes its serialized form, so a parent's serialized form can only be
+     * used if its children's serialized forms have been retained.
+     */
+    static boolean isNestedSerializedFormRetained(final Iterable<?> values) {
+        for (final Object value : values) {
+            if (!isNestedSerializedFormRetained(value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isNestedSerializedFormRetained(final Object value) {
+        if (value instanceof Record) {
+            return ((Record) value).getSerializedForm().isPresent();
+        }
+        if (value instanceof Object[]) {
+            return isNestedSerializedFormRetained(Arrays.asList((Object[]) value));
+        }
+        if (value instanceof Map) {
+            return isNestedSerializedFormRetained(((Map<?, ?>) value).values());
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the given field, updated so that its type incorporates the inactive fields of any child records that the given record holds for it.
+     */
+    static RecordField getUpdatedRecordField(final RecordField field, final Record record) {
         final DataType dataType = field.getDataType();
         final RecordFieldType fieldType = dataType.getFieldType();
 
@@ -476,7 +516,7 @@ public class MapRecord implements Record {
             return field;
         }
 
-        final Object value = getValue(field);
+        final Object value = record.getValue(field);
         if (value == null) {
             return field;
         }
@@ -507,9 +547,9 @@ public class MapRecord implements Record {
                         continue;
                     }
 
-                    final Record record = (Record) element;
-                    record.incorporateInactiveFields();
-                    mergedSchema = DataTypeUtils.merge(mergedSchema, record.getSchema());
+                    final Record elementRecord = (Record) element;
+                    elementRecord.incorporateInactiveFields();
+                    mergedSchema = DataTypeUtils.merge(mergedSchema, elementRecord.getSchema());
                 }
 
                 final DataType mergedRecordType = RecordFieldType.RECORD.getRecordDataType(mergedSchema);
@@ -555,7 +595,7 @@ public class MapRecord implements Record {
         return field;
     }
 
-    private boolean isSimpleType(final RecordFieldType fieldType) {
+    private static boolean isSimpleType(final RecordFieldType fieldType) {
         switch (fieldType) {
             case ARRAY:
             case RECORD:
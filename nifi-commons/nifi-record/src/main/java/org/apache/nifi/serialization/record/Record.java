@@ -112,6 +112,13 @@ public interface Record {
 
     Object[] getAsArray(String fieldName);
 
+    /**
+     * Provides the form that the Record was serialized in when it was read, so that a writer can write the Record by
+     * copying that form rather than serializing each of its values again. The serialized form is removed once any value
+     * of the Record, or of any Record nested within it, is changed.
+     *
+     * @return the serialized form of the Record, or an empty Optional if the serialized form is not known or the Record has been modified
+     */
     Optional<SerializedForm> getSerializedForm();
 
     /**
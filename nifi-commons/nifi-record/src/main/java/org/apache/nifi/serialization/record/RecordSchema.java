@@ -72,6 +72,18 @@ public interface RecordSchema {
      */
     Optional<RecordField> getField(String fieldName);
 
+    /**
+     * Returns the index of the field with the given name or alias, which is the index at which the field appears in the
+     * List returned by {@link #getFields()}.
+     *
+     * @param fieldName the name or an alias of the field
+     * @return the 0-based index of the field, or <code>-1</code> if the schema does not contain a field with the given name or alias
+     */
+    default int getFieldIndex(final String fieldName) {
+        final Optional<RecordField> field = getField(fieldName);
+        return field.isPresent() ? getFields().indexOf(field.get()) : -1;
+    }
+
     /**
      * @return the SchemaIdentifier, which provides various attributes for identifying a schema
      */
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.Arrays;
+
+/**
+ * A column of {@link RecordFieldType#BOOLEAN BOOLEAN} values, which are held in an array of booleans.
+ */
+public class BooleanColumnVector extends ColumnVector {
+    private boolean[] values;
+
+    BooleanColumnVector(final RecordField field, final int capacity) {
+        super(field);
+        this.values = new boolean[capacity];
+    }
+
+    /**
+     * @param row the index of the row
+     * @return the value of the given row, or <code>false</code> if the row's value is <code>null</code>
+     */
+    public boolean getBoolean(final int row) {
+        checkRow(row);
+        return values[row];
+    }
+
+    /**
+     * Appends a value to the column
+     *
+     * @param value the value to append
+     */
+    public void append(final boolean value) {
+        final int row = addRow();
+        values[row] = value;
+    }
+
+    @Override
+    public Object getObject(final int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    protected void ensureCapacity(final int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, getGrownCapacity(values.length, capacity));
+        }
+    }
+
+    @Override
+    protected void setValue(final int row, final Object value) {
+        values[row] = value instanceof Boolean ? (Boolean) value : DataTypeUtils.toBoolean(value, getField().getFieldName());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+
+import java.util.BitSet;
+
+/**
+ * <p>
+ * Holds the values of a single field for each of the records of a {@link RecordBatch}. Columns of numeric and boolean fields
+ * keep their values in arrays of primitives so that they can be read without creating an object per value, and every
+ * column keeps track of which of its rows are <code>null</code> in a bitmap rather than by storing <code>null</code> references.
+ * </p>
+ *
+ * <p>
+ * A ColumnVector grows as values are appended to it. It is not thread-safe.
+ * </p>
+ */
+public abstract class ColumnVector {
+    private final RecordField field;
+    private final BitSet nulls = new BitSet();
+    private int size = 0;
+
+    protected ColumnVector(final RecordField field) {
+        this.field = field;
+    }
+
+    /**
+     * Creates an empty column that is appropriate for the type of the given field
+     *
+     * @param field the field whose values the column will hold
+     * @param capacity the number of values that the column should be able to hold before it must grow
+     * @return a column for the values of the given field
+     */
+    public static ColumnVector create(final RecordField field, final int capacity) {
+        switch (field.getDataType().getFieldType()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return new LongColumnVector(field, capacity);
+            case FLOAT:
+            case DOUBLE:
+                return new DoubleColumnVector(field, capacity);
+            case BOOLEAN:
+                return new BooleanColumnVector(field, capacity);
+            default:
+                return new ObjectColumnVector(field, capacity);
+        }
+    }
+
+    /**
+     * @return the field whose values are held by this column
+     */
+    public RecordField getField() {
+        return field;
+    }
+
+    /**
+     * @return the number of values in this column
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row the index of the row
+     * @return <code>true</code> if the value of the given row is <code>null</code>
+     */
+    public boolean isNull(final int row) {
+        checkRow(row);
+        return nulls.get(row);
+    }
+
+    /**
+     * @return the number of rows whose value is <code>null</code>
+     */
+    public int getNullCount() {
+        return nulls.cardinality();
+    }
+
+    /**
+     * Returns the value of the given row as an object of the type that a Record would hold for the column's field
+     *
+     * @param row the index of the row
+     * @return the value of the given row, or <code>null</code> if the row's value is <code>null</code>
+     */
+    public abstract Object getObject(int row);
+
+    /**
+     * Appends a value to the column, converting it into the type of the column's field if necessary
+     *
+     * @param value the value to append, which may be <code>null</code>
+     * @throws org.apache.nifi.serialization.record.util.IllegalTypeConversionException if the value cannot be converted into the type of the column's field
+     */
+    public final void append(final Object value) {
+        final int row = addRow();
+        if (value == null) {
+            nulls.set(row);
+            return;
+        }
+
+        try {
+            setValue(row, value);
+        } catch (final RuntimeException e) {
+            size--;
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a <code>null</code> value to the column
+     */
+    public final void appendNull() {
+        nulls.set(addRow());
+    }
+
+    /**
+     * Adds a row to the end of the column, growing the column if necessary
+     *
+     * @return the index of the row that was added
+     */
+    protected final int addRow() {
+        final int row = size;
+        ensureCapacity(row + 1);
+        size++;
+        return row;
+    }
+
+    protected final void checkRow(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is not one of the " + size + " rows of the column for field " + field.getFieldName());
+        }
+    }
+
+    /**
+     * @param currentCapacity the number of values that the column can currently hold
+     * @param requiredCapacity the number of values that the column must be able to hold
+     * @return the number of values that the column should be grown to hold
+     */
+    protected static int getGrownCapacity(final int currentCapacity, final int requiredCapacity) {
+        return Math.max(requiredCapacity, currentCapacity * 2);
+    }
+
+    /**
+     * Ensures that the column is able to hold at least the given number of values
+     *
+     * @param capacity the number of values that the column must be able to hold
+     */
+    protected abstract void ensureCapacity(int capacity);
+
+    /**
+     * Stores the given non-null value in the given row, converting it into the type of the column's field if necessary
+     *
+     * @param row the index of the row
+     * @param value the value to store
+     */
+    protected abstract void setValue(int row, Object value);
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.Arrays;
+
+/**
+ * A column of {@link RecordFieldType#FLOAT FLOAT} or {@link RecordFieldType#DOUBLE DOUBLE} values, which are held in an array of doubles.
+ */
+public class DoubleColumnVector extends ColumnVector {
+    private final boolean floatValues;
+    private double[] values;
+
+    DoubleColumnVector(final RecordField field, final int capacity) {
+        super(field);
+        this.floatValues = field.getDataType().getFieldType() == RecordFieldType.FLOAT;
+        this.values = new double[capacity];
+    }
+
+    /**
+     * @param row the index of the row
+     * @return the value of the given row, or 0 if the row's value is <code>null</code>
+     */
+    public double getDouble(final int row) {
+        checkRow(row);
+        return values[row];
+    }
+
+    /**
+     * Appends a value to the column without converting it
+     *
+     * @param value the value to append
+     */
+    public void append(final double value) {
+        final int row = addRow();
+        values[row] = floatValues ? (float) value : value;
+    }
+
+    @Override
+    public Object getObject(final int row) {
+        if (isNull(row)) {
+            return null;
+        }
+
+        final double value = values[row];
+        return floatValues ? (Object) (float) value : (Object) value;
+    }
+
+    @Override
+    protected void ensureCapacity(final int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, getGrownCapacity(values.length, capacity));
+        }
+    }
+
+    @Override
+    protected void setValue(final int row, final Object value) {
+        final Object converted;
+        if (floatValues) {
+            converted = value instanceof Float ? value : DataTypeUtils.toFloat(value, getField().getFieldName());
+        } else {
+            converted = value instanceof Double ? value : DataTypeUtils.toDouble(value, getField().getFieldName());
+        }
+
+        values[row] = ((Number) converted).doubleValue();
+    }
+}
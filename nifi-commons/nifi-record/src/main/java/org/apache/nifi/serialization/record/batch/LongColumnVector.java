@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.Arrays;
+
+/**
+ * A column of {@link RecordFieldType#BYTE BYTE}, {@link RecordFieldType#SHORT SHORT}, {@link RecordFieldType#INT INT}, or
+ * {@link RecordFieldType#LONG LONG} values, which are held in an array of longs.
+ */
+public class LongColumnVector extends ColumnVector {
+    private final RecordFieldType fieldType;
+    private final Class<?> valueClass;
+    private long[] values;
+
+    LongColumnVector(final RecordField field, final int capacity) {
+        super(field);
+        this.fieldType = field.getDataType().getFieldType();
+        this.values = new long[capacity];
+
+        switch (fieldType) {
+            case BYTE:
+                valueClass = Byte.class;
+                break;
+            case SHORT:
+                valueClass = Short.class;
+                break;
+            case INT:
+                valueClass = Integer.class;
+                break;
+            default:
+                valueClass = Long.class;
+                break;
+        }
+    }
+
+    /**
+     * @param row the index of the row
+     * @return the value of the given row, or 0 if the row's value is <code>null</code>
+     */
+    public long getLong(final int row) {
+        checkRow(row);
+        return values[row];
+    }
+
+    /**
+     * Appends a value to the column without converting it. The value must be within the range of the column's field type.
+     *
+     * @param value the value to append
+     */
+    public void append(final long value) {
+        final int row = addRow();
+        values[row] = value;
+    }
+
+    @Override
+    public Object getObject(final int row) {
+        if (isNull(row)) {
+            return null;
+        }
+
+        final long value = values[row];
+        switch (fieldType) {
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case INT:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    protected void ensureCapacity(final int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, getGrownCapacity(values.length, capacity));
+        }
+    }
+
+    @Override
+    protected void setValue(final int row, final Object value) {
+        final Object converted = valueClass.isInstance(value) ? value : DataTypeUtils.convertType(value, getField().getDataType(), getField().getFieldName());
+        values[row] = ((Number) converted).longValue();
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.SerializedForm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>
+ * A group of records that share a single schema, which can be accessed either a column at a time, through the {@link ColumnVector}
+ * of each of the schema's fields, or a row at a time, as {@link Record}s.
+ * </p>
+ *
+ * <p>
+ * A RecordBatch is either created from the columns that a reader fills, using a {@link Builder}, in which case each Record is created
+ * only when it is requested; or it is created from existing Records, via {@link #of(RecordSchema, List)}, in which case each column is
+ * created only when it is requested. Either way, a value that is missing from a record is read as the default value of its field.
+ * </p>
+ *
+ * <p>
+ * A RecordBatch is not thread-safe. Records that are obtained from the batch may be modified, but doing so does not update the batch's columns.
+ * </p>
+ */
+public class RecordBatch {
+    private final RecordSchema schema;
+    private final int size;
+    private final ColumnVector[] columns;
+    private final Record[] records;
+    private final SerializedForm[] serializedForms;
+    private final boolean typeChecked;
+
+    private RecordBatch(final RecordSchema schema, final int size, final ColumnVector[] columns, final Record[] records, final SerializedForm[] serializedForms,
+                        final boolean typeChecked) {
+        this.schema = schema;
+        this.size = size;
+        this.columns = columns;
+        this.records = records;
+        this.serializedForms = serializedForms;
+        this.typeChecked = typeChecked;
+    }
+
+    /**
+     * Creates a batch of the given records. Each record is expected to adhere to the given schema, and the values of its fields are obtained
+     * as they would be by calling {@link Record#getValue(RecordField)} for each of the schema's fields.
+     *
+     * @param schema the schema of the records
+     * @param records the records of the batch
+     * @return a batch of the given records
+     */
+    public static RecordBatch of(final RecordSchema schema, final List<Record> records) {
+        Objects.requireNonNull(schema);
+        final Record[] recordArray = records.toArray(new Record[0]);
+        return new RecordBatch(schema, recordArray.length, new ColumnVector[schema.getFieldCount()], recordArray, null, true);
+    }
+
+    /**
+     * @return the schema of the records in the batch
+     */
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return the number of records in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param fieldIndex the index of the field in the batch's schema
+     * @return the column that holds the values of the field at the given index
+     */
+    public ColumnVector getColumn(final int fieldIndex) {
+        ColumnVector column = columns[fieldIndex];
+        if (column == null) {
+            column = createColumn(fieldIndex);
+            columns[fieldIndex] = column;
+        }
+
+        return column;
+    }
+
+    /**
+     * @param fieldName the name, or an alias, of a field in the batch's schema
+     * @return the column that holds the values of the field, or an empty Optional if the schema has no such field
+     */
+    public Optional<ColumnVector> getColumn(final String fieldName) {
+        final int fieldIndex = schema.getFieldIndex(fieldName);
+        return fieldIndex < 0 ? Optional.empty() : Optional.of(getColumn(fieldIndex));
+    }
+
+    /**
+     * @param row the index of the row
+     * @return the record at the given row of the batch
+     */
+    public Record getRecord(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is not one of the " + size + " rows of the batch");
+        }
+
+        Record record = records[row];
+        if (record == null) {
+            final Object[] values = new Object[columns.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = columns[i].getObject(row);
+            }
+
+            final SerializedForm serializedForm = serializedForms == null ? null : serializedForms[row];
+            record = new ArrayRecord(schema, values, serializedForm, typeChecked, true);
+            records[row] = record;
+        }
+
+        return record;
+    }
+
+    /**
+     * Provides the serialized form of the record at the given row, as described by {@link Record#getSerializedForm()}, without creating
+     * the record if it has not already been created. The serialized form is provided only if the record adheres to the batch's schema.
+     *
+     * @param row the index of the row
+     * @return the serialized form of the record at the given row, or an empty Optional if it is not known or the record has been modified
+     */
+    public Optional<SerializedForm> getSerializedForm(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is not one of the " + size + " rows of the batch");
+        }
+
+        final Record record = records[row];
+        if (record == null) {
+            return serializedForms == null ? Optional.empty() : Optional.ofNullable(serializedForms[row]);
+        }
+
+        final RecordSchema recordSchema = record.getSchema();
+        if (recordSchema != schema && !recordSchema.equals(schema)) {
+            return Optional.empty();
+        }
+
+        return record.getSerializedForm();
+    }
+
+    private ColumnVector createColumn(final int fieldIndex) {
+        final RecordField field = schema.getField(fieldIndex);
+        final ColumnVector column = ColumnVector.create(field, size);
+
+        for (final Record record : records) {
+            // Records of the batch's schema that are backed by arrays can provide the value by its index rather than looking up the field
+            final Object value = record instanceof ArrayRecord && record.getSchema() == schema ? ((ArrayRecord) record).getValue(fieldIndex) : record.getValue(field);
+            column.append(value);
+        }
+
+        return column;
+    }
+
+
+    /**
+     * Builds a RecordBatch one row at a time by appending the values of each row to the columns of the batch. A Builder can build only a single batch.
+     */
+    public static class Builder {
+        private final RecordSchema schema;
+        private final ColumnVector[] columns;
+        private final boolean typeChecked;
+        private SerializedForm[] serializedForms;
+        private int size = 0;
+        private boolean built = false;
+        private boolean failed = false;
+
+        /**
+         * @param schema the schema of the records in the batch
+         * @param capacity the number of rows that the batch is expected to hold
+         */
+        public Builder(final RecordSchema schema, final int capacity) {
+            this(schema, capacity, true);
+        }
+
+        /**
+         * @param schema the schema of the records in the batch
+         * @param capacity the number of rows that the batch is expected to hold
+         * @param typeChecked whether or not the records of the batch are to be checked against the schema when they are created. A reader that
+         *            does not read every field, and so may leave a field that is not nullable without a value, creates records that are not type checked.
+         */
+        public Builder(final RecordSchema schema, final int capacity, final boolean typeChecked) {
+            this.schema = Objects.requireNonNull(schema);
+            this.typeChecked = typeChecked;
+            this.columns = new ColumnVector[schema.getFieldCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = ColumnVector.create(schema.getField(i), capacity);
+            }
+        }
+
+        /**
+         * Adds a row to the batch
+         *
+         * @param values the value of each of the schema's fields, in the order of the schema's fields, or {@link ArrayRecord#MISSING_VALUE} for a field that
+         *            the row has no value for. The values are copied into the batch's columns, so the array may be reused for the next row.
+         * @param serializedForm the serialized form of the row, or <code>null</code> if not known
+         * @return this Builder
+         *
+         * @throws IllegalArgumentException if the number of values does not match the number of fields in the schema
+         * @throws org.apache.nifi.serialization.record.util.IllegalTypeConversionException if a value cannot be converted into the type of its field,
+         *             after which no more rows can be added
+         */
+        public Builder addRow(final Object[] values, final SerializedForm serializedForm) {
+            if (built || failed) {
+                throw new IllegalStateException("Cannot add a row to a batch that has already been built or that failed to add a row");
+            }
+            if (values.length != columns.length) {
+                throw new IllegalArgumentException("Row has " + values.length + " values but its schema has " + columns.length + " fields");
+            }
+
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    final Object value = values[i];
+                    columns[i].append(value == ArrayRecord.MISSING_VALUE ? schema.getField(i).getDefaultValue() : value);
+                }
+            } catch (final RuntimeException e) {
+                // The values that were appended before the failure have left the columns with different numbers of rows
+                failed = true;
+                throw e;
+            }
+
+            if (serializedForm != null) {
+                if (serializedForms == null) {
+                    serializedForms = new SerializedForm[Math.max(16, size * 2)];
+                } else if (serializedForms.length <= size) {
+                    serializedForms = Arrays.copyOf(serializedForms, ColumnVector.getGrownCapacity(serializedForms.length, size + 1));
+                }
+
+                serializedForms[size] = serializedForm;
+            }
+
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the number of rows that have been added
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return a batch of the rows that have been added
+         */
+        public RecordBatch build() {
+            if (failed) {
+                throw new IllegalStateException("Cannot build a batch that failed to add a row");
+            }
+
+            built = true;
+            final SerializedForm[] forms = serializedForms == null ? null : Arrays.copyOf(serializedForms, size);
+            return new RecordBatch(schema, size, columns, new Record[size], forms, typeChecked);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record.pushdown;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * <p>
+ * A simple condition on the value of a single top-level field of a record, such as <code>amount &gt; 100</code> or <code>name IS NOT NULL</code>,
+ * that a query can push down into a {@link org.apache.nifi.serialization.RecordReader RecordReader} so that the reader can discard records that
+ * cannot satisfy the condition before creating them.
+ * </p>
+ *
+ * <p>
+ * A FieldPredicate is evaluated conservatively: a record is rejected only if its value certainly does not satisfy the condition. If the value
+ * cannot be compared with the predicate's value, for instance because it is of some other type, then the record is retained and it is left to
+ * the query to evaluate the condition exactly.
+ * </p>
+ */
+public final class FieldPredicate {
+    public enum Operator {
+        EQUALS("="),
+        NOT_EQUALS("<>"),
+        LESS_THAN("<"),
+        LESS_THAN_OR_EQUAL("<="),
+        GREATER_THAN(">"),
+        GREATER_THAN_OR_EQUAL(">="),
+        IS_NULL("IS NULL"),
+        IS_NOT_NULL("IS NOT NULL");
+
+        private final String symbol;
+
+        Operator(final String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * @return whether or not the operator compares the field's value with the value of the predicate
+         */
+        public boolean isComparison() {
+            return this != IS_NULL && this != IS_NOT_NULL;
+        }
+    }
+
+    private final String fieldName;
+    private final Operator operator;
+    private final Object value;
+
+    private FieldPredicate(final String fieldName, final Operator operator, final Object value) {
+        this.fieldName = Objects.requireNonNull(fieldName);
+        this.operator = Objects.requireNonNull(operator);
+        this.value = value;
+    }
+
+    /**
+     * Creates a predicate that compares the value of a field with the given value
+     *
+     * @param fieldName the name of the field
+     * @param operator the comparison to perform
+     * @param value the value to compare the field's value with, which must be a String, a Boolean, or a Number
+     * @return a predicate that compares the value of the field with the given value
+     *
+     * @throws IllegalArgumentException if the operator is not a comparison or the value is not of a supported type
+     */
+    public static FieldPredicate compare(final String fieldName, final Operator operator, final Object value) {
+        if (!operator.isComparison()) {
+            throw new IllegalArgumentException(operator + " does not compare the value of a field with another value");
+        }
+        if (!(value instanceof String || value instanceof Boolean || value instanceof Number)) {
+            throw new IllegalArgumentException("Cannot compare the value of field " + fieldName + " with " + value);
+        }
+
+        return new FieldPredicate(fieldName, operator, value);
+    }
+
+    /**
+     * @param fieldName the name of the field
+     * @return a predicate that is satisfied only if the field has no value
+     */
+    public static FieldPredicate isNull(final String fieldName) {
+        return new FieldPredicate(fieldName, Operator.IS_NULL, null);
+    }
+
+    /**
+     * @param fieldName the name of the field
+     * @return a predicate that is satisfied only if the field has a value
+     */
+    public static FieldPredicate isNotNull(final String fieldName) {
+        return new FieldPredicate(fieldName, Operator.IS_NOT_NULL, null);
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return the value that the field's value is compared with, or <code>null</code> if the predicate does not compare values
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Determines whether or not the given value of the predicate's field may satisfy the predicate. As in SQL, a <code>null</code> value
+     * satisfies only {@link Operator#IS_NULL}, as comparing it with any value never yields <code>true</code>.
+     *
+     * @param fieldValue the value of the field
+     * @return <code>false</code> if the value certainly does not satisfy the predicate, <code>true</code> otherwise
+     */
+    public boolean test(final Object fieldValue) {
+        if (fieldValue == null) {
+            return operator == Operator.IS_NULL;
+        }
+
+        switch (operator) {
+            case IS_NULL:
+                return false;
+            case IS_NOT_NULL:
+                return true;
+        }
+
+        final Integer comparison = compare(fieldValue, value);
+        if (comparison == null) {
+            return true;
+        }
+
+        switch (operator) {
+            case EQUALS:
+                return comparison == 0;
+            case NOT_EQUALS:
+                return comparison != 0;
+            case LESS_THAN:
+                return comparison < 0;
+            case LESS_THAN_OR_EQUAL:
+                return comparison <= 0;
+            case GREATER_THAN:
+                return comparison > 0;
+            case GREATER_THAN_OR_EQUAL:
+                return comparison >= 0;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Compares two values in the way that a query would, or returns <code>null</code> if they cannot be compared
+     */
+    private static Integer compare(final Object left, final Object right) {
+        if (left instanceof String && right instanceof String) {
+            return Integer.signum(((String) left).compareTo((String) right));
+        }
+
+        if (left instanceof Boolean && right instanceof Boolean) {
+            return Boolean.compare((Boolean) left, (Boolean) right);
+        }
+
+        if (left instanceof Number && right instanceof Number) {
+            // Floating-point values are compared as doubles, as a query compares them; any other numbers are compared exactly
+            if (isFloatingPoint(left) || isFloatingPoint(right)) {
+                final Integer comparison = compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+
+                // A float may instead be compared at the precision of a float, so only a comparison that does not depend on the precision can be relied upon
+                if (left instanceof Float || right instanceof Float) {
+                    final Integer floatComparison = compare(((Number) left).floatValue(), ((Number) right).floatValue());
+                    return Objects.equals(comparison, floatComparison) ? comparison : null;
+                }
+
+                return comparison;
+            }
+
+            final BigDecimal leftDecimal = toBigDecimal((Number) left);
+            final BigDecimal rightDecimal = toBigDecimal((Number) right);
+            if (leftDecimal == null || rightDecimal == null) {
+                return null;
+            }
+
+            return leftDecimal.compareTo(rightDecimal);
+        }
+
+        return null;
+    }
+
+    private static Integer compare(final double left, final double right) {
+        if (Double.isNaN(left) || Double.isNaN(right)) {
+            return null;
+        }
+
+        return left == right ? 0 : (left < right ? -1 : 1);
+    }
+
+    private static boolean isFloatingPoint(final Object value) {
+        return value instanceof Double || value instanceof Float;
+    }
+
+    private static BigDecimal toBigDecimal(final Number value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(value.longValue());
+        }
+
+        return null;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fieldName, operator, value);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof FieldPredicate)) {
+            return false;
+        }
+
+        final FieldPredicate other = (FieldPredicate) obj;
+        return fieldName.equals(other.fieldName) && operator == other.operator && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public String toString() {
+        if (!operator.isComparison()) {
+            return fieldName + " " + operator.symbol;
+        }
+
+        final String valueString = value instanceof String ? "'" + value + "'" : String.valueOf(value);
+        return fieldName + " " + operator.symbol + " " + valueString;
+    }
+}
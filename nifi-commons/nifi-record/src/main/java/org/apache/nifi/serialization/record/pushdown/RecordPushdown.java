@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record.pushdown;
+
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordSchema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ * Describes the parts of each record that the consumer of a {@link org.apache.nifi.serialization.RecordReader RecordReader} actually needs: the
+ * top-level fields whose values it uses, and a conjunction of {@link FieldPredicate}s that a record must satisfy for the consumer to use it at all.
+ * A reader that accepts a RecordPushdown need not parse or convert the values of any other field, and may discard any record that does not satisfy
+ * every predicate without creating it.
+ * </p>
+ *
+ * <p>
+ * Fields are identified by name. A predicate on a field that the schema of the records does not have cannot be evaluated, so it never causes a
+ * record to be discarded.
+ * </p>
+ */
+public final class RecordPushdown {
+    private final Set<String> requiredFieldNames;
+    private final List<FieldPredicate> predicates;
+
+    /**
+     * @param requiredFieldNames the names of the fields that are needed, or <code>null</code> if all fields are needed. The fields that the predicates
+     *            refer to are always needed.
+     * @param predicates the predicates that every record must satisfy
+     */
+    public RecordPushdown(final Set<String> requiredFieldNames, final List<FieldPredicate> predicates) {
+        this.predicates = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(predicates)));
+
+        if (requiredFieldNames == null) {
+            this.requiredFieldNames = null;
+        } else {
+            final Set<String> fieldNames = new HashSet<>(requiredFieldNames);
+            for (final FieldPredicate predicate : predicates) {
+                fieldNames.add(predicate.getFieldName());
+            }
+
+            this.requiredFieldNames = Collections.unmodifiableSet(fieldNames);
+        }
+    }
+
+    /**
+     * @return the names of the fields that are needed, or an empty Optional if all fields are needed
+     */
+    public Optional<Set<String>> getRequiredFieldNames() {
+        return Optional.ofNullable(requiredFieldNames);
+    }
+
+    /**
+     * @return the predicates that every record must satisfy
+     */
+    public List<FieldPredicate> getPredicates() {
+        return predicates;
+    }
+
+    /**
+     * @return <code>true</code> if neither does the pushdown restrict the fields that are needed nor does it have any predicates
+     */
+    public boolean isEmpty() {
+        return requiredFieldNames == null && predicates.isEmpty();
+    }
+
+    /**
+     * Determines which of the fields of the given schema are needed. A field is needed if either its name or one of its aliases is needed.
+     *
+     * @param schema the schema of the records
+     * @return for each of the schema's fields, in order, whether or not the field is needed
+     */
+    public boolean[] getRequiredFields(final RecordSchema schema) {
+        final boolean[] required = new boolean[schema.getFieldCount()];
+        for (int i = 0; i < required.length; i++) {
+            required[i] = isRequired(schema.getField(i));
+        }
+
+        return required;
+    }
+
+    private boolean isRequired(final RecordField field) {
+        if (requiredFieldNames == null || requiredFieldNames.contains(field.getFieldName())) {
+            return true;
+        }
+
+        for (final String alias : field.getAliases()) {
+            if (requiredFieldNames.contains(alias)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates a filter that determines whether or not a record of the given schema may satisfy every predicate. The filter is given the values of
+     * the record's fields in the order of the schema's fields, and treats {@link ArrayRecord#MISSING_VALUE} as the default value of its field.
+     *
+     * @param schema the schema of the records
+     * @return a filter that returns <code>false</code> only for the values of a record that certainly does not satisfy every predicate
+     */
+    public Predicate<Object[]> createFilter(final RecordSchema schema) {
+        final List<FieldPredicate> applicable = new ArrayList<>(predicates.size());
+        final List<RecordField> fields = new ArrayList<>(predicates.size());
+        final List<Integer> fieldIndexes = new ArrayList<>(predicates.size());
+        for (final FieldPredicate predicate : predicates) {
+            final int fieldIndex = schema.getFieldIndex(predicate.getFieldName());
+            if (fieldIndex >= 0) {
+                applicable.add(predicate);
+                fields.add(schema.getField(fieldIndex));
+                fieldIndexes.add(fieldIndex);
+            }
+        }
+
+        if (applicable.isEmpty()) {
+            return values -> true;
+        }
+
+        final FieldPredicate[] predicateArray = applicable.toArray(new FieldPredicate[0]);
+        final RecordField[] fieldArray = fields.toArray(new RecordField[0]);
+        final int[] indexArray = fieldIndexes.stream().mapToInt(Integer::intValue).toArray();
+
+        return values -> {
+            for (int i = 0; i < predicateArray.length; i++) {
+                final Object value = values[indexArray[i]];
+                if (!predicateArray[i].test(value == ArrayRecord.MISSING_VALUE ? fieldArray[i].getDefaultValue() : value)) {
+                    return false;
+                }
+            }
+
+            return true;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "RecordPushdown[requiredFields=" + (requiredFieldNames == null ? "all" : requiredFieldNames) + ", predicates=" + predicates + "]";
+    }
+}
@@ -65,6 +65,7 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -106,9 +107,17 @@ public class DataTypeUtils {
 
     private static final TimeZone gmt = TimeZone.getTimeZone("gmt");
 
-    private static final Supplier<DateFormat> DEFAULT_DATE_FORMAT = () -> getDateFormat(RecordFieldType.DATE.getDefaultFormat());
-    private static final Supplier<DateFormat> DEFAULT_TIME_FORMAT = () -> getDateFormat(RecordFieldType.TIME.getDefaultFormat());
-    private static final Supplier<DateFormat> DEFAULT_TIMESTAMP_FORMAT = () -> getDateFormat(RecordFieldType.TIMESTAMP.getDefaultFormat());
+    private static final DateFormat DEFAULT_THREAD_SAFE_DATE_FORMAT = ThreadSafeDateFormat.of(RecordFieldType.DATE.getDefaultFormat());
+    private static final DateFormat DEFAULT_THREAD_SAFE_TIME_FORMAT = ThreadSafeDateFormat.of(RecordFieldType.TIME.getDefaultFormat());
+    private static final DateFormat DEFAULT_THREAD_SAFE_TIMESTAMP_FORMAT = ThreadSafeDateFormat.of(RecordFieldType.TIMESTAMP.getDefaultFormat());
+
+    private static final Supplier<DateFormat> DEFAULT_DATE_FORMAT = () -> DEFAULT_THREAD_SAFE_DATE_FORMAT;
+    private static final Supplier<DateFormat> DEFAULT_TIME_FORMAT = () -> DEFAULT_THREAD_SAFE_TIME_FORMAT;
+    private static final Supplier<DateFormat> DEFAULT_TIMESTAMP_FORMAT = () -> DEFAULT_THREAD_SAFE_TIMESTAMP_FORMAT;
+    private static final Supplier<DateFormat> NO_DATE_FORMAT = () -> null;
+
+    // The Java types whose values are always converted into themselves when a Choice contains the corresponding type, because the type is the one inferred for them
+    private static final Map<Class<?>, DataType> EXACT_CHOICE_TYPES = new HashMap<>();
 
     private static final int FLOAT_SIGNIFICAND_PRECISION = 24; // As specified in IEEE 754 binary32
     private static final int DOUBLE_SIGNIFICAND_PRECISION = 53; // As specified in IEEE 754 binary64
@@ -137,6 +146,16 @@ public class DataTypeUtils {
         NUMERIC_VALIDATORS.put(RecordFieldType.DOUBLE, value -> value instanceof Double);
         NUMERIC_VALIDATORS.put(RecordFieldType.FLOAT, value -> value instanceof Float);
         NUMERIC_VALIDATORS.put(RecordFieldType.DECIMAL, value -> value instanceof BigDecimal);
+
+        EXACT_CHOICE_TYPES.put(Long.class, RecordFieldType.LONG.getDataType());
+        EXACT_CHOICE_TYPES.put(Integer.class, RecordFieldType.INT.getDataType());
+        EXACT_CHOICE_TYPES.put(Short.class, RecordFieldType.SHORT.getDataType());
+        EXACT_CHOICE_TYPES.put(Byte.class, RecordFieldType.BYTE.getDataType());
+        EXACT_CHOICE_TYPES.put(Float.class, RecordFieldType.FLOAT.getDataType());
+        EXACT_CHOICE_TYPES.put(Double.class, RecordFieldType.DOUBLE.getDataType());
+        EXACT_CHOICE_TYPES.put(BigInteger.class, RecordFieldType.BIGINT.getDataType());
+        EXACT_CHOICE_TYPES.put(Boolean.class, RecordFieldType.BOOLEAN.getDataType());
+        EXACT_CHOICE_TYPES.put(Character.class, RecordFieldType.CHAR.getDataType());
     }
 
     public static Object convertType(final Object value, final DataType dataType, final String fieldName) {
@@ -225,6 +244,138 @@ public class DataTypeUtils {
         return null;
     }
 
+    /**
+     * Compiles a converter that converts a value into the given type in the same way as
+     * {@link #convertType(Object, DataType, Supplier, Supplier, Supplier, String, Charset)} does, but that determines how to convert values
+     * only once rather than for every value. The converter may be used by any number of threads and should be reused for every value of the field.
+     *
+     * @param dataType the type to convert values into
+     * @param fieldName the name of the field, which is used in error messages
+     * @param dateFormat the format of Date values, or <code>null</code> if they are given as a number of milliseconds
+     * @param timeFormat the format of Time values, or <code>null</code> if they are given as a number of milliseconds
+     * @param timestampFormat the format of Timestamp values, or <code>null</code> if they are given as a number of milliseconds
+     * @param charset the character set of values that are converted between Strings and bytes
+     * @return a converter that returns <code>null</code> for a <code>null</code> value and otherwise the converted value
+     */
+    public static Function<Object, Object> compileConverter(final DataType dataType, final String fieldName, final String dateFormat, final String timeFormat,
+                                                            final String timestampFormat, final Charset charset) {
+        return compileConverter(dataType, fieldName, ThreadSafeDateFormat.of(dateFormat), ThreadSafeDateFormat.of(timeFormat), ThreadSafeDateFormat.of(timestampFormat), charset);
+    }
+
+    static Function<Object, Object> compileConverter(final DataType dataType, final String fieldName, final DateFormat dateFormat, final DateFormat timeFormat,
+                                                     final DateFormat timestampFormat, final Charset charset) {
+        final Function<Object, Object> converter;
+        switch (dataType.getFieldType()) {
+            case BIGINT:
+                converter = value -> value instanceof BigInteger ? value : toBigInt(value, fieldName);
+                break;
+            case BOOLEAN:
+                converter = value -> value instanceof Boolean ? value : toBoolean(value, fieldName);
+                break;
+            case BYTE:
+                converter = value -> value instanceof Byte ? value : toByte(value, fieldName);
+                break;
+            case CHAR:
+                converter = value -> value instanceof Character ? value : toCharacter(value, fieldName);
+                break;
+            case DATE: {
+                final Supplier<DateFormat> format = () -> dateFormat;
+                converter = value -> toDate(value, format, fieldName);
+                break;
+            }
+            case DECIMAL:
+                converter = value -> toBigDecimal(value, fieldName);
+                break;
+            case DOUBLE:
+                converter = value -> value instanceof Double ? value : toDouble(value, fieldName);
+                break;
+            case FLOAT:
+                converter = value -> value instanceof Float ? value : toFloat(value, fieldName);
+                break;
+            case INT:
+                converter = value -> value instanceof Integer ? value : toInteger(value, fieldName);
+                break;
+            case LONG:
+                converter = value -> value instanceof Long ? value : toLong(value, fieldName);
+                break;
+            case SHORT:
+                converter = value -> value instanceof Short ? value : toShort(value, fieldName);
+                break;
+            case STRING:
+                converter = value -> value instanceof String ? value : toString(value, NO_DATE_FORMAT, charset);
+                break;
+            case TIME: {
+                final Supplier<DateFormat> format = () -> timeFormat;
+                converter = value -> toTime(value, format, fieldName);
+                break;
+            }
+            case TIMESTAMP: {
+                final Supplier<DateFormat> format = () -> timestampFormat;
+                converter = value -> toTimestamp(value, format, fieldName);
+                break;
+            }
+            case ARRAY: {
+                final DataType elementType = ((ArrayDataType) dataType).getElementType();
+                converter = value -> toArray(value, fieldName, elementType, charset);
+                break;
+            }
+            case MAP:
+                converter = value -> toMap(value, fieldName);
+                break;
+            case RECORD: {
+                final RecordSchema childSchema = ((RecordDataType) dataType).getChildSchema();
+                converter = value -> toRecord(value, childSchema, fieldName, charset);
+                break;
+            }
+            case CHOICE:
+                converter = compileChoiceConverter((ChoiceDataType) dataType, fieldName, charset);
+                break;
+            default:
+                converter = value -> null;
+                break;
+        }
+
+        return value -> value == null ? null : converter.apply(value);
+    }
+
+    private static Function<Object, Object> compileChoiceConverter(final ChoiceDataType choiceDataType, final String fieldName, final Charset charset) {
+        // A value whose Java type corresponds exactly to one of the possible types is always converted into that type, which leaves it unchanged,
+        // so the possible types only need to be tried for other values
+        final Set<DataType> possibleTypes = new HashSet<>();
+        final Queue<DataType> subTypes = new LinkedList<>(choiceDataType.getPossibleSubTypes());
+        DataType subType;
+        while ((subType = subTypes.poll()) != null) {
+            if (subType instanceof ChoiceDataType) {
+                subTypes.addAll(((ChoiceDataType) subType).getPossibleSubTypes());
+            } else {
+                possibleTypes.add(subType);
+            }
+        }
+
+        final Set<Class<?>> unchangedTypes = new HashSet<>();
+        for (final Map.Entry<Class<?>, DataType> entry : EXACT_CHOICE_TYPES.entrySet()) {
+            if (possibleTypes.contains(entry.getValue())) {
+                unchangedTypes.add(entry.getKey());
+            }
+        }
+
+        // As with convertType, the chosen type is converted into using the default date formats
+        final Map<DataType, Function<Object, Object>> chosenTypeConverters = new ConcurrentHashMap<>();
+        return value -> {
+            if (unchangedTypes.contains(value.getClass())) {
+                return value;
+            }
+
+            final DataType chosenDataType = chooseDataType(value, choiceDataType);
+            if (chosenDataType == null) {
+                throw new IllegalTypeConversionException("Cannot convert value [" + value + "] of type " + value.getClass()
+                    + " for field " + fieldName + " to any of the following available Sub-Types for a Choice: " + choiceDataType.getPossibleSubTypes());
+            }
+
+            return chosenTypeConverters.computeIfAbsent(chosenDataType, type -> compileConverter(type, fieldName, DEFAULT_THREAD_SAFE_DATE_FORMAT,
+                DEFAULT_THREAD_SAFE_TIME_FORMAT, DEFAULT_THREAD_SAFE_TIMESTAMP_FORMAT, charset)).apply(value);
+        };
+    }
 
     public static boolean isCompatibleDataType(final Object value, final DataType dataType) {
         switch (dataType.getFieldType()) {
@@ -864,7 +1015,7 @@ public class DataTypeUtils {
     }
 
     public static boolean isMapTypeCompatible(final Object value) {
-        return value != null && (value instanceof Map || value instanceof MapRecord);
+        return value != null && (value instanceof Map || value instanceof Record);
     }
 
 
@@ -959,16 +1110,16 @@ public class DataTypeUtils {
         }
 
         if (value instanceof java.sql.Date) {
-            return getDateFormat(format).format((java.util.Date) value);
+            return ThreadSafeDateFormat.of(format).format((java.util.Date) value);
         }
         if (value instanceof java.sql.Time) {
-            return getDateFormat(format).format((java.util.Date) value);
+            return ThreadSafeDateFormat.of(format).format((java.util.Date) value);
         }
         if (value instanceof java.sql.Timestamp) {
-            return getDateFormat(format).format((java.util.Date) value);
+            return ThreadSafeDateFormat.of(format).format((java.util.Date) value);
         }
         if (value instanceof java.util.Date) {
-            return getDateFormat(format).format((java.util.Date) value);
+            return ThreadSafeDateFormat.of(format).format((java.util.Date) value);
         }
         if (value instanceof Blob) {
             Blob blob = (Blob) value;
@@ -1074,7 +1225,7 @@ public class DataTypeUtils {
             }
 
             try {
-                getDateFormat(format).parse((String) value);
+                ThreadSafeDateFormat.of(format).parse((String) value);
                 return true;
             } catch (final ParseException e) {
                 return false;
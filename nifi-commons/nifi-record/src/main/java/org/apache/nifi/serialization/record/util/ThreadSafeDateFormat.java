@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.util;
+
+import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalField;
+import java.time.temporal.TemporalQueries;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * A DateFormat that may be shared by any number of threads, so that a single instance can be created for a date format and
+ * reused for every value that is converted, rather than creating a new {@link SimpleDateFormat} for every value.
+ * </p>
+ *
+ * <p>
+ * The results are those of a lenient {@link SimpleDateFormat} with the same pattern and time zone. When the pattern only uses
+ * letters whose meaning is the same for a {@link DateTimeFormatter}, values are parsed and formatted with an equivalent, immutable
+ * DateTimeFormatter. Values that it cannot parse, such as values that are outside of the usual range of a field and that only a
+ * lenient parser accepts, and patterns that use any other letters, are handled by a SimpleDateFormat that is confined to the
+ * current thread. Instances are immutable: any attempt to change the time zone, leniency, calendar or number format fails.
+ * </p>
+ */
+public final class ThreadSafeDateFormat extends DateFormat {
+    private static final String DEFAULT_TIME_ZONE_ID = "gmt";
+    private static final int MAX_CACHED_FORMATS = 1000;
+
+    // A SimpleDateFormat uses the Julian calendar before the Gregorian cutover, whereas java.time uses the proleptic Gregorian calendar
+    private static final long GREGORIAN_CUTOVER_MILLIS = -12219292800000L;
+    private static final Map<String, ThreadSafeDateFormat> cachedFormats = new ConcurrentHashMap<>();
+
+    private static final long UNRESOLVED = Long.MIN_VALUE;
+
+    private final String pattern;
+    private final TimeZone timeZone;
+    private final ZoneId zoneId;
+    private final DateTimeFormatter formatter;
+    private final ThreadLocal<DateFormat> simpleDateFormat;
+
+    private ThreadSafeDateFormat(final String pattern, final String timeZoneId) {
+        this.pattern = Objects.requireNonNull(pattern);
+        this.timeZone = TimeZone.getTimeZone(timeZoneId);
+        this.zoneId = timeZone.toZoneId();
+        this.formatter = createFormatter(pattern, zoneId);
+        this.simpleDateFormat = ThreadLocal.withInitial(() -> {
+            final DateFormat dateFormat = new SimpleDateFormat(pattern);
+            dateFormat.setTimeZone(TimeZone.getTimeZone(timeZoneId));
+            return dateFormat;
+        });
+
+        // Fail for an invalid pattern now rather than when the first value is converted
+        this.simpleDateFormat.get();
+    }
+
+    /**
+     * Returns a format for the given pattern in the GMT time zone, which parses and formats values in the same way as
+     * {@link DataTypeUtils#getDateFormat(String)} does.
+     *
+     * @param pattern the pattern of the format, as defined by {@link SimpleDateFormat}
+     * @return a format for the given pattern, or <code>null</code> if the pattern is <code>null</code>
+     * @throws IllegalArgumentException if the pattern is not valid
+     */
+    public static ThreadSafeDateFormat of(final String pattern) {
+        return of(pattern, DEFAULT_TIME_ZONE_ID);
+    }
+
+    /**
+     * Returns a format for the given pattern in the given time zone, which parses and formats values in the same way as
+     * {@link DataTypeUtils#getDateFormat(String, String)} does. Formats are cached, so the same instance is generally returned for the same arguments.
+     *
+     * @param pattern the pattern of the format, as defined by {@link SimpleDateFormat}
+     * @param timeZoneId the ID of the time zone of the format
+     * @return a format for the given pattern, or <code>null</code> if either argument is <code>null</code>
+     * @throws IllegalArgumentException if the pattern is not valid
+     */
+    public static ThreadSafeDateFormat of(final String pattern, final String timeZoneId) {
+        if (pattern == null || timeZoneId == null) {
+            return null;
+        }
+
+        final String key = timeZoneId + "|" + pattern;
+        final ThreadSafeDateFormat cached = cachedFormats.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Patterns are normally configured rather than derived from data, so the cache is only ever cleared as a safeguard
+        if (cachedFormats.size() >= MAX_CACHED_FORMATS) {
+            cachedFormats.clear();
+        }
+
+        return cachedFormats.computeIfAbsent(key, k -> new ThreadSafeDateFormat(pattern, timeZoneId));
+    }
+
+    /**
+     * Translates the given SimpleDateFormat pattern into a DateTimeFormatter, if the pattern only uses letters whose meaning is the same for both.
+     * Two-digit years, textual months, days of the week, AM/PM markers and time zone names are all left to the SimpleDateFormat, because their
+     * meaning or their localized text differs. Years are translated to the proleptic year so that the formatter can resolve fields strictly.
+     *
+     * @return the equivalent formatter, or <code>null</code> if there is none
+     */
+    static DateTimeFormatter createFormatter(final String pattern, final ZoneId zoneId) {
+        final StringBuilder translated = new StringBuilder(pattern.length());
+
+        boolean quoted = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            final char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                translated.append(c);
+                i++;
+                continue;
+            }
+
+            if (quoted) {
+                translated.append(c);
+                i++;
+                continue;
+            }
+
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+
+            final char translatedLetter;
+            switch (c) {
+                case 'y':
+                    if (count == 2) {
+                        return null;
+                    }
+                    translatedLetter = 'u';
+                    break;
+                case 'M':
+                    if (count > 2) {
+                        return null;
+                    }
+                    translatedLetter = c;
+                    break;
+                case 'S':
+                    // A SimpleDateFormat treats any number of 'S' as milliseconds whereas a DateTimeFormatter treats them as a fraction of a second
+                    if (count != 3) {
+                        return null;
+                    }
+                    translatedLetter = c;
+                    break;
+                case 'd':
+                case 'H':
+                case 'm':
+                case 's':
+                case 'Z':
+                case 'X':
+                    translatedLetter = c;
+                    break;
+                case '-':
+                case ':':
+                case '.':
+                case ',':
+                case '/':
+                case ' ':
+                case '_':
+                    translatedLetter = c;
+                    break;
+                default:
+                    return null;
+            }
+
+            for (int j = 0; j < count; j++) {
+                translated.append(translatedLetter);
+            }
+            i += count;
+        }
+
+        if (quoted) {
+            return null;
+        }
+
+        try {
+            return DateTimeFormatter.ofPattern(translated.toString()).withResolverStyle(ResolverStyle.STRICT).withZone(zoneId);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the pattern of this format
+     */
+    public String toPattern() {
+        return pattern;
+    }
+
+    @Override
+    public StringBuffer format(final Date date, final StringBuffer toAppendTo, final FieldPosition fieldPosition) {
+        if (formatter == null) {
+            return simpleDateFormat.get().format(date, toAppendTo, fieldPosition);
+        }
+
+        if (date.getTime() < GREGORIAN_CUTOVER_MILLIS) {
+            return simpleDateFormat.get().format(date, toAppendTo, fieldPosition);
+        }
+
+        formatter.formatTo(Instant.ofEpochMilli(date.getTime()), toAppendTo);
+        return toAppendTo;
+    }
+
+    @Override
+    public Date parse(final String source, final ParsePosition pos) {
+        if (formatter != null) {
+            final int startIndex = pos.getIndex();
+            try {
+                final TemporalAccessor parsed = formatter.parse(source, pos);
+                final long epochMilli = toEpochMilli(parsed);
+                if (epochMilli != UNRESOLVED) {
+                    return new Date(epochMilli);
+                }
+            } catch (final DateTimeException e) {
+                // Values that are not strictly valid are parsed leniently by the SimpleDateFormat below
+            }
+
+            pos.setIndex(startIndex);
+            pos.setErrorIndex(-1);
+        }
+
+        return simpleDateFormat.get().parse(source, pos);
+    }
+
+    /**
+     * @return the number of milliseconds since the epoch of the parsed value, or {@link #UNRESOLVED} if the SimpleDateFormat must parse the value instead
+     */
+    private long toEpochMilli(final TemporalAccessor parsed) {
+        LocalDate date = parsed.query(TemporalQueries.localDate());
+        if (date == null) {
+            date = LocalDate.of((int) getField(parsed, ChronoField.YEAR, 1970), (int) getField(parsed, ChronoField.MONTH_OF_YEAR, 1),
+                (int) getField(parsed, ChronoField.DAY_OF_MONTH, 1));
+        }
+
+        LocalTime time = parsed.query(TemporalQueries.localTime());
+        if (time == null) {
+            time = LocalTime.of((int) getField(parsed, ChronoField.HOUR_OF_DAY, 0), (int) getField(parsed, ChronoField.MINUTE_OF_HOUR, 0),
+                (int) getField(parsed, ChronoField.SECOND_OF_MINUTE, 0), (int) getField(parsed, ChronoField.NANO_OF_SECOND, 0));
+        }
+
+        final LocalDateTime dateTime = LocalDateTime.of(date, time);
+        ZoneOffset offset = parsed.query(TemporalQueries.offset());
+        if (offset == null) {
+            // Local times that fall into a gap or an overlap of the time zone are resolved in the same way as the SimpleDateFormat resolves them
+            final List<ZoneOffset> validOffsets = zoneId.getRules().getValidOffsets(dateTime);
+            if (validOffsets.size() != 1) {
+                return UNRESOLVED;
+            }
+
+            offset = validOffsets.get(0);
+        }
+
+        final long epochMilli = dateTime.toInstant(offset).toEpochMilli();
+        return epochMilli < GREGORIAN_CUTOVER_MILLIS ? UNRESOLVED : epochMilli;
+    }
+
+    private static long getField(final TemporalAccessor parsed, final TemporalField field, final long defaultValue) {
+        return parsed.isSupported(field) ? parsed.getLong(field) : defaultValue;
+    }
+
+    @Override
+    public TimeZone getTimeZone() {
+        return (TimeZone) timeZone.clone();
+    }
+
+    @Override
+    public boolean isLenient() {
+        return true;
+    }
+
+    @Override
+    public void setTimeZone(final TimeZone zone) {
+        throw new UnsupportedOperationException("The time zone of a " + getClass().getSimpleName() + " cannot be changed");
+    }
+
+    @Override
+    public void setLenient(final boolean lenient) {
+        throw new UnsupportedOperationException("The leniency of a " + getClass().getSimpleName() + " cannot be changed");
+    }
+
+    @Override
+    public void setCalendar(final java.util.Calendar newCalendar) {
+        throw new UnsupportedOperationException("The calendar of a " + getClass().getSimpleName() + " cannot be changed");
+    }
+
+    @Override
+    public void setNumberFormat(final java.text.NumberFormat newNumberFormat) {
+        throw new UnsupportedOperationException("The number format of a " + getClass().getSimpleName() + " cannot be changed");
+    }
+
+    @Override
+    public Object clone() {
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pattern, timeZone.getID());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ThreadSafeDateFormat)) {
+            return false;
+        }
+
+        final ThreadSafeDateFormat other = (ThreadSafeDateFormat) obj;
+        return pattern.equals(other.pattern) && timeZone.getID().equals(other.timeZone.getID());
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.nifi.serialization.SchemaValidationException;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.junit.Test;
+
+public class TestArrayRecord {
+
+    private RecordSchema createSchema() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType(), null, set("fullName")));
+        fields.add(new RecordField("greeting", RecordFieldType.STRING.getDataType(), "hello"));
+        return new SimpleRecordSchema(fields);
+    }
+
+    private Set<String> set(final String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    @Test
+    public void testGetValueByNameAndIndex() {
+        final Record record = new ArrayRecord(createSchema(), new Object[] {42, "John Doe", "hi"});
+
+        assertEquals(42, record.getValue("id"));
+        assertEquals("John Doe", record.getValue("name"));
+        assertEquals("John Doe", record.getValue("fullName"));
+        assertEquals("hi", record.getValue("greeting"));
+        assertNull(record.getValue("other"));
+
+        final ArrayRecord arrayRecord = (ArrayRecord) record;
+        assertEquals(42, arrayRecord.getValue(0));
+        assertEquals(Integer.valueOf(42), arrayRecord.getAsInt(0));
+        assertEquals(Long.valueOf(42L), arrayRecord.getAsLong(0));
+        assertEquals(Long.valueOf(42L), record.getAsLong("id"));
+        assertEquals("42", record.getAsString("id"));
+        assertTrue(Arrays.equals(new Object[] {42, "John Doe", "hi"}, record.getValues()));
+    }
+
+    @Test
+    public void testDefaultValue() {
+        final Record record = new ArrayRecord(createSchema(), new Object[] {1, null, ArrayRecord.MISSING_VALUE});
+
+        assertNull(record.getValue("name"));
+        assertEquals("hello", record.getValue("greeting"));
+        assertEquals("hello", ((ArrayRecord) record).getValue(2));
+
+        final RecordField newField = new RecordField("name", RecordFieldType.STRING.getDataType(), "new");
+        assertEquals("new", record.getValue(newField));
+    }
+
+    @Test
+    public void testMissingValueIsNotRawField() {
+        final Record record = new ArrayRecord(createSchema(), new Object[] {1, null, ArrayRecord.MISSING_VALUE});
+
+        final Set<String> rawFieldNames = record.getRawFieldNames();
+        assertEquals(2, rawFieldNames.size());
+        assertTrue(rawFieldNames.contains("id"));
+        assertTrue(rawFieldNames.contains("name"));
+        assertFalse(rawFieldNames.contains("fullName"));
+        assertFalse(rawFieldNames.contains("greeting"));
+        assertEquals(Arrays.asList("id", "name"), new ArrayList<>(rawFieldNames));
+
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("id", 1);
+        expected.put("name", null);
+        assertEquals(expected, record.toMap());
+
+        record.setValue("greeting", "hey");
+        assertTrue(rawFieldNames.contains("greeting"));
+        assertEquals("hey", record.getValue("greeting"));
+    }
+
+    @Test
+    public void testCreateFromMap() {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("id", 7);
+        values.put("fullName", "Jane Doe");
+        values.put("extra", "value");
+
+        final RecordSchema schema = createSchema();
+        final Record arrayRecord = new ArrayRecord(schema, values);
+        final Record mapRecord = new MapRecord(schema, values);
+
+        assertEquals(7, arrayRecord.getValue("id"));
+        assertEquals("Jane Doe", arrayRecord.getValue("name"));
+        assertEquals("value", arrayRecord.getValue("extra"));
+        assertEquals("hello", arrayRecord.getValue("greeting"));
+        assertEquals(mapRecord.getValue("name"), arrayRecord.getValue("name"));
+
+        // values given for an alias are held under the name of the field
+        assertEquals(set("id", "name", "extra"), new HashSet<>(arrayRecord.getRawFieldNames()));
+
+        final Record dropped = new ArrayRecord(schema, values, false, true);
+        assertNull(dropped.getValue("extra"));
+    }
+
+    @Test
+    public void testEqualToMapRecord() {
+        final RecordSchema schema = createSchema();
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", 1);
+        values.put("name", "John Doe");
+
+        final Record arrayRecord = new ArrayRecord(schema, new Object[] {1, "John Doe", ArrayRecord.MISSING_VALUE});
+        final Record mapRecord = new MapRecord(schema, values);
+
+        assertEquals(mapRecord, arrayRecord);
+        assertEquals(arrayRecord, mapRecord);
+        assertEquals(mapRecord.hashCode(), arrayRecord.hashCode());
+
+        arrayRecord.setValue("name", "Jane Doe");
+        assertFalse(arrayRecord.equals(mapRecord));
+        assertFalse(mapRecord.equals(arrayRecord));
+    }
+
+    @Test
+    public void testEqualsAndHashCodeWithUnknownValues() {
+        final RecordSchema schema = createSchema();
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", 1);
+        values.put("name", "John Doe");
+        values.put("extra", "value");
+
+        final Record first = new ArrayRecord(schema, values);
+        final Record second = new ArrayRecord(schema, values);
+        final Record mapRecord = new MapRecord(schema, values);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(mapRecord, first);
+        assertEquals(first, mapRecord);
+        assertEquals(mapRecord.hashCode(), first.hashCode());
+
+        second.setValue("extra", "other");
+        assertFalse(first.equals(second));
+
+        // a missing value is not the same as a null value
+        final Record missing = new ArrayRecord(schema, new Object[] {1, "John Doe", ArrayRecord.MISSING_VALUE});
+        final Record nullValue = new ArrayRecord(schema, new Object[] {1, "John Doe", null});
+        assertFalse(missing.equals(nullValue));
+        assertFalse(nullValue.equals(missing));
+    }
+
+    @Test
+    public void testWrongNumberOfValues() {
+        try {
+            new ArrayRecord(createSchema(), new Object[] {1, "John Doe"});
+            fail("Was able to create a record with fewer values than fields");
+        } catch (final IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCheckTypes() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType(), false));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final ArrayRecord record = new ArrayRecord(schema, new Object[] {1}, true, false);
+        record.setValue("id", "12");
+        assertEquals(12, record.getValue("id"));
+
+        try {
+            new ArrayRecord(schema, new Object[] {null}, true, false);
+            fail("Was able to create a record with a null value for a non-nullable field");
+        } catch (final SchemaValidationException expected) {
+            // expected
+        }
+
+        try {
+            new ArrayRecord(schema, new Object[] {"foo"}, true, false);
+            fail("Was able to create a record with a value of the wrong type");
+        } catch (final SchemaValidationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSerializedFormClearedOnChange() {
+        final SerializedForm serializedForm = SerializedForm.of("{\"id\":1}", "application/json");
+        final Record record = new ArrayRecord(createSchema(), new Object[] {1, null, null}, serializedForm, false, false);
+        assertTrue(record.getSerializedForm().isPresent());
+
+        record.setValue("id", 1);
+        assertTrue(record.getSerializedForm().isPresent());
+
+        record.setValue("id", 2);
+        assertFalse(record.getSerializedForm().isPresent());
+    }
+
+    @Test
+    public void testSerializedFormClearedOnNestedChange() {
+        final RecordSchema childSchema = createSchema();
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("child", RecordFieldType.RECORD.getRecordDataType(childSchema)));
+        fields.add(new RecordField("children", RecordFieldType.ARRAY.getArrayDataType(RecordFieldType.RECORD.getRecordDataType(childSchema))));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final Record child = new ArrayRecord(childSchema, new Object[] {1, null, null}, SerializedForm.of("{\"id\":1}", "application/json"), false, false);
+        final Record element = new ArrayRecord(childSchema, new Object[] {2, null, null}, SerializedForm.of("{\"id\":2}", "application/json"), false, false);
+        final SerializedForm serializedForm = SerializedForm.of("{\"child\":{\"id\":1},\"children\":[{\"id\":2}]}", "application/json");
+        final Record record = new ArrayRecord(schema, new Object[] {child, new Object[] {element}}, serializedForm, false, false);
+        assertTrue(record.getSerializedForm().isPresent());
+
+        element.setValue("id", 3);
+        assertFalse(element.getSerializedForm().isPresent());
+        assertFalse(record.getSerializedForm().isPresent());
+        assertTrue(child.getSerializedForm().isPresent());
+
+        // A child record without a serialized form cannot have been serialized as part of its parent
+        final Record unserializedChild = new ArrayRecord(childSchema, new Object[] {1, null, null});
+        assertFalse(new ArrayRecord(schema, new Object[] {unserializedChild, null}, serializedForm, false, false).getSerializedForm().isPresent());
+    }
+
+    @Test
+    public void testIncorporateInactiveFields() {
+        final ArrayRecord record = new ArrayRecord(createSchema(), new Object[] {1, "John Doe", null});
+        record.setValue(new RecordField("age", RecordFieldType.INT.getDataType()), 30);
+        assertEquals(30, record.getValue("age"));
+
+        record.incorporateInactiveFields();
+
+        final RecordSchema schema = record.getSchema();
+        assertEquals(4, schema.getFieldCount());
+        assertEquals(3, schema.getFieldIndex("age"));
+        assertEquals(30, record.getValue(3));
+        assertEquals(1, record.getValue("id"));
+        assertEquals("John Doe", record.getValue("fullName"));
+    }
+
+    @Test
+    public void testIncorporateSchema() {
+        final ArrayRecord record = new ArrayRecord(createSchema(), new Object[] {1, "John Doe", null});
+
+        final RecordSchema other = new SimpleRecordSchema(Collections.singletonList(new RecordField("age", RecordFieldType.INT.getDataType())));
+        record.incorporateSchema(other);
+
+        assertNotNull(record.getSchema().getField("age").orElse(null));
+        assertNull(record.getValue("age"));
+        assertFalse(record.getRawFieldNames().contains("age"));
+
+        record.setValue("age", 5);
+        assertEquals(5, record.getValue("age"));
+        assertEquals("John Doe", record.getValue("name"));
+    }
+}
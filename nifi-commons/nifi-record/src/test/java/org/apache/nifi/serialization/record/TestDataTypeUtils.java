@@ -866,4 +866,39 @@ public class TestDataTypeUtils {
         assertTrue(DataTypeUtils.isFittingNumberType(9D, RecordFieldType.DOUBLE));
         assertFalse(DataTypeUtils.isFittingNumberType(9, RecordFieldType.DOUBLE));
     }
+
+    @Test
+    public void testCompiledConverterSameAsConvertType() {
+        final DataType choiceType = RecordFieldType.CHOICE.getChoiceDataType(RecordFieldType.INT.getDataType(), RecordFieldType.LONG.getDataType(),
+            RecordFieldType.STRING.getDataType(), RecordFieldType.TIMESTAMP.getDataType());
+        final List<DataType> dataTypes = Arrays.asList(RecordFieldType.INT.getDataType(), RecordFieldType.LONG.getDataType(), RecordFieldType.DOUBLE.getDataType(),
+            RecordFieldType.FLOAT.getDataType(), RecordFieldType.BOOLEAN.getDataType(), RecordFieldType.STRING.getDataType(), RecordFieldType.DATE.getDataType(),
+            RecordFieldType.TIMESTAMP.getDataType(), RecordFieldType.TIME.getDataType(), RecordFieldType.BIGINT.getDataType(), RecordFieldType.SHORT.getDataType(),
+            RecordFieldType.DECIMAL.getDecimalDataType(10, 2), choiceType);
+        final List<Object> values = Arrays.asList(1, 2L, 3.5D, 4.5F, true, "5", "2020-01-05", "2020-01-05 12:34:56", "12:34:56", new Timestamp(1578227696789L),
+            BigInteger.TEN, (short) 6, null);
+
+        for (final DataType dataType : dataTypes) {
+            final Function<Object, Object> converter = DataTypeUtils.compileConverter(dataType, "field", RecordFieldType.DATE.getDefaultFormat(),
+                RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), StandardCharsets.UTF_8);
+
+            for (final Object value : values) {
+                Object expected;
+                try {
+                    expected = DataTypeUtils.convertType(value, dataType, "field");
+                } catch (final RuntimeException e) {
+                    expected = e.getClass();
+                }
+
+                Object actual;
+                try {
+                    actual = converter.apply(value);
+                } catch (final RuntimeException e) {
+                    actual = e.getClass();
+                }
+
+                assertEquals("Converted " + value + " to " + dataType, expected, actual);
+            }
+        }
+    }
 }
@@ -18,9 +18,12 @@
 package org.apache.nifi.serialization.record;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -185,4 +188,24 @@ public class TestMapRecord {
         assertEquals("hello", record.getValue("bar"));
         assertEquals("hello", record.getValue("baz"));
     }
+
+    @Test
+    public void testSerializedFormClearedOnNestedChange() {
+        final List<RecordField> childFields = new ArrayList<>();
+        childFields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        final RecordSchema childSchema = new SimpleRecordSchema(childFields);
+
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("children", RecordFieldType.MAP.getMapDataType(RecordFieldType.RECORD.getRecordDataType(childSchema))));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final Record child = new MapRecord(childSchema, new HashMap<>(Collections.singletonMap("id", 1)), SerializedForm.of("{\"id\":1}", "application/json"));
+        final Map<String, Object> values = new HashMap<>();
+        values.put("children", Collections.singletonMap("a", child));
+        final Record record = new MapRecord(schema, values, SerializedForm.of("{\"children\":{\"a\":{\"id\":1}}}", "application/json"));
+        assertTrue(record.getSerializedForm().isPresent());
+
+        child.setValue("id", 2);
+        assertFalse(record.getSerializedForm().isPresent());
+    }
 }
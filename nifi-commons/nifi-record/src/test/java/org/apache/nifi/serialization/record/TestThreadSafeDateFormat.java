@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.ThreadSafeDateFormat;
+import org.junit.Test;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class TestThreadSafeDateFormat {
+
+    private static final List<String> PATTERNS = Arrays.asList("yyyy-MM-dd", "HH:mm:ss", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm:ss.SSS",
+        "yyyy-MM-dd'T'HH:mm:ss.SSSX", "yyyy-MM-dd'T'HH:mm:ssZ", "MM/dd/yyyy", "yyyyMMdd", "yy-MM-dd", "MMM dd, yyyy", "hh:mm a", "HH:mm:ss.S", "MM/dd");
+
+    private static final List<String> VALUES = Arrays.asList("2020-02-29", "2020-02-30", "1970-01-01", "0001-01-01", "1582-10-10", "9999-12-31",
+        "20-1-5", "2020-01-05 extra", "12:34:56", "24:00:00", "23:59:60", "1:2:3", "2020-01-05 12:34:56", "2020-01-05 12:34:56.789", "2020-01-05 12:34:56.5",
+        "2020-01-05T12:34:56.789Z", "2020-01-05T12:34:56.789-08", "2020-01-05T12:34:56+0100", "2020-01-05T12:34:56-0800", "01/05/2020", "13/05/2020", "20200105",
+        "Jan 05, 2020", "01:30 PM", "12:30:00.1", "02/29", "not a date", "");
+
+    @Test
+    public void testParseSameAsSimpleDateFormat() {
+        for (final String pattern : PATTERNS) {
+            final DateFormat expectedFormat = DataTypeUtils.getDateFormat(pattern);
+            final DateFormat format = ThreadSafeDateFormat.of(pattern);
+
+            for (final String value : VALUES) {
+                Date expected;
+                try {
+                    expected = expectedFormat.parse(value);
+                } catch (final ParseException e) {
+                    expected = null;
+                }
+
+                Date actual;
+                try {
+                    actual = format.parse(value);
+                } catch (final ParseException e) {
+                    actual = null;
+                }
+
+                assertEquals("Parsed [" + value + "] with pattern [" + pattern + "]", expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testFormatSameAsSimpleDateFormat() {
+        final long[] times = {0L, 1578227696789L, -1L, -62135596800000L, 253402300799999L, 951782400000L};
+
+        for (final String pattern : PATTERNS) {
+            final DateFormat expectedFormat = DataTypeUtils.getDateFormat(pattern);
+            final DateFormat format = ThreadSafeDateFormat.of(pattern);
+
+            for (final long time : times) {
+                assertEquals("Formatted " + time + " with pattern [" + pattern + "]", expectedFormat.format(new Date(time)), format.format(new Date(time)));
+            }
+        }
+    }
+
+    @Test
+    public void testTimeZone() throws ParseException {
+        final String pattern = "yyyy-MM-dd HH:mm:ss";
+        for (final String timeZoneId : Arrays.asList("America/New_York", "Europe/Paris", "UTC", "GMT+05:30")) {
+            final DateFormat expectedFormat = DataTypeUtils.getDateFormat(pattern, timeZoneId);
+            final DateFormat format = ThreadSafeDateFormat.of(pattern, timeZoneId);
+
+            // Includes a time in the gap and a time in the overlap of the daylight saving time transitions of New York
+            for (final String value : Arrays.asList("2020-03-08 02:30:00", "2020-11-01 01:30:00", "2020-07-01 12:00:00")) {
+                assertEquals(expectedFormat.parse(value), format.parse(value));
+            }
+
+            assertEquals(expectedFormat.format(new Date(1578227696789L)), format.format(new Date(1578227696789L)));
+        }
+    }
+
+    @Test
+    public void testCached() {
+        assertSame(ThreadSafeDateFormat.of("yyyy-MM-dd"), ThreadSafeDateFormat.of("yyyy-MM-dd"));
+        assertEquals(null, ThreadSafeDateFormat.of(null));
+    }
+
+    @Test
+    public void testInvalidPattern() {
+        try {
+            ThreadSafeDateFormat.of("yyyy-MM-dd qq");
+            fail("Was able to create a format with an invalid pattern");
+        } catch (final IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testImmutable() {
+        try {
+            ThreadSafeDateFormat.of("yyyy-MM-dd").setLenient(false);
+            fail("Was able to change the leniency of a shared format");
+        } catch (final UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        final DateFormat format = ThreadSafeDateFormat.of("yyyy-MM-dd HH:mm:ss");
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int offset = thread;
+                futures.add(executor.submit(() -> {
+                    final DateFormat expectedFormat = DataTypeUtils.getDateFormat("yyyy-MM-dd HH:mm:ss");
+                    for (int i = 0; i < 10_000; i++) {
+                        final Date date = new Date(1_000_000_000_000L + (i * 4L + offset) * 86_399_000L);
+                        final String formatted = format.format(date);
+                        assertEquals(expectedFormat.format(date), formatted);
+                        assertEquals(date, format.parse(formatted));
+                    }
+                    return null;
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
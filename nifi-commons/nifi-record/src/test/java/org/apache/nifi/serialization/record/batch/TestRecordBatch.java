@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.SerializedForm;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+import org.junit.Test;
+
+public class TestRecordBatch {
+
+    private RecordSchema createSchema() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType(), null, Collections.singleton("fullName")));
+        fields.add(new RecordField("balance", RecordFieldType.FLOAT.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType(), Boolean.TRUE, true));
+        return new SimpleRecordSchema(fields);
+    }
+
+    @Test
+    public void testBuildFromColumns() {
+        final RecordSchema schema = createSchema();
+        final SerializedForm serializedForm = SerializedForm.of("1,John,4.5,false", "text/csv");
+
+        // the same array is reused for each row
+        final Object[] values = new Object[] {1, "John", 4.5f, false};
+        final RecordBatch.Builder builder = new RecordBatch.Builder(schema, 1);
+        builder.addRow(values, serializedForm);
+        values[0] = "2";
+        values[1] = null;
+        values[2] = 0.25D;
+        values[3] = ArrayRecord.MISSING_VALUE;
+        builder.addRow(values, null);
+
+        final RecordBatch batch = builder.build();
+        assertEquals(2, batch.size());
+
+        final ColumnVector idColumn = batch.getColumn(0);
+        assertTrue(idColumn instanceof LongColumnVector);
+        assertEquals(1L, ((LongColumnVector) idColumn).getLong(0));
+        assertEquals(2, idColumn.getObject(1));
+
+        final ColumnVector nameColumn = batch.getColumn("fullName").get();
+        assertTrue(nameColumn instanceof ObjectColumnVector);
+        assertFalse(nameColumn.isNull(0));
+        assertTrue(nameColumn.isNull(1));
+        assertEquals(1, nameColumn.getNullCount());
+
+        final ColumnVector balanceColumn = batch.getColumn("balance").get();
+        assertTrue(balanceColumn instanceof DoubleColumnVector);
+        assertEquals(0.25f, balanceColumn.getObject(1));
+
+        // a missing value is read as the field's default value
+        final BooleanColumnVector activeColumn = (BooleanColumnVector) batch.getColumn(3);
+        assertFalse(activeColumn.getBoolean(0));
+        assertTrue(activeColumn.getBoolean(1));
+        assertFalse(batch.getColumn("other").isPresent());
+
+        assertSame(serializedForm, batch.getSerializedForm(0).get());
+        assertFalse(batch.getSerializedForm(1).isPresent());
+
+        final Record first = batch.getRecord(0);
+        assertEquals(1, first.getValue("id"));
+        assertEquals(4.5f, first.getValue("balance"));
+        assertSame(serializedForm, first.getSerializedForm().get());
+        assertSame(first, batch.getRecord(0));
+
+        final Record second = batch.getRecord(1);
+        assertNull(second.getValue("name"));
+        assertEquals(true, second.getValue("active"));
+        assertFalse(second.getSerializedForm().isPresent());
+
+        first.setValue("id", 3);
+        assertFalse(batch.getSerializedForm(0).isPresent());
+    }
+
+    @Test
+    public void testBuildFromRecords() {
+        final RecordSchema schema = createSchema();
+        final Map<String, Object> values = new HashMap<>();
+        values.put("id", 7);
+        values.put("fullName", "Jane");
+
+        final Record mapRecord = new MapRecord(schema, values);
+        final Record arrayRecord = new ArrayRecord(schema, new Object[] {8, "John", 1.5f, false});
+        final RecordBatch batch = RecordBatch.of(schema, Arrays.asList(mapRecord, arrayRecord));
+
+        assertEquals(2, batch.size());
+        assertSame(mapRecord, batch.getRecord(0));
+        assertSame(arrayRecord, batch.getRecord(1));
+
+        final ColumnVector idColumn = batch.getColumn("id").get();
+        assertEquals(7, idColumn.getObject(0));
+        assertEquals(8, idColumn.getObject(1));
+        assertEquals("Jane", batch.getColumn(1).getObject(0));
+        assertTrue(batch.getColumn(2).isNull(0));
+        assertEquals(true, batch.getColumn(3).getObject(0));
+        assertSame(idColumn, batch.getColumn(0));
+    }
+
+    @Test
+    public void testColumnGrowsAndConverts() {
+        final ColumnVector column = ColumnVector.create(new RecordField("count", RecordFieldType.LONG.getDataType()), 0);
+        for (int i = 0; i < 100; i++) {
+            column.append(String.valueOf(i));
+        }
+        column.appendNull();
+
+        assertEquals(101, column.size());
+        assertEquals(99L, column.getObject(99));
+        assertNull(column.getObject(100));
+
+        try {
+            column.append("not a number");
+            fail("Was able to append a value that cannot be converted into a long");
+        } catch (final NumberFormatException | IllegalTypeConversionException expected) {
+            // expected
+        }
+        assertEquals(101, column.size());
+
+        try {
+            column.getObject(101);
+            fail("Was able to get a value beyond the end of the column");
+        } catch (final IndexOutOfBoundsException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testWrongNumberOfValues() {
+        try {
+            new RecordBatch.Builder(createSchema(), 4).addRow(new Object[] {1, "John"}, null);
+            fail("Was able to add a row with fewer values than fields");
+        } catch (final IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
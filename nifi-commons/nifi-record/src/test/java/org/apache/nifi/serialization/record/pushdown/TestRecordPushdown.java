@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.pushdown;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.pushdown.FieldPredicate.Operator;
+import org.junit.Test;
+
+public class TestRecordPushdown {
+
+    private RecordSchema createSchema() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType(), null, new HashSet<>(Collections.singletonList("fullName"))));
+        fields.add(new RecordField("balance", RecordFieldType.DOUBLE.getDataType(), 0D));
+        fields.add(new RecordField("notes", RecordFieldType.STRING.getDataType()));
+        return new SimpleRecordSchema(fields);
+    }
+
+    @Test
+    public void testCompareNumbers() {
+        final FieldPredicate greaterThan = FieldPredicate.compare("id", Operator.GREATER_THAN, new BigDecimal("10"));
+        assertTrue(greaterThan.test(11));
+        assertTrue(greaterThan.test(10.5D));
+        assertTrue(greaterThan.test(new BigDecimal("10.01")));
+        assertFalse(greaterThan.test(10L));
+        assertFalse(greaterThan.test((short) 3));
+        assertFalse(greaterThan.test(null));
+
+        final FieldPredicate equals = FieldPredicate.compare("id", Operator.EQUALS, new BigDecimal("2.50"));
+        assertTrue(equals.test(2.5F));
+        assertTrue(equals.test(new BigDecimal("2.5")));
+        assertFalse(equals.test(2));
+    }
+
+    @Test
+    public void testCompareStringsAndBooleans() {
+        final FieldPredicate lessThan = FieldPredicate.compare("name", Operator.LESS_THAN_OR_EQUAL, "John");
+        assertTrue(lessThan.test("Jane"));
+        assertTrue(lessThan.test("John"));
+        assertFalse(lessThan.test("Mark"));
+
+        final FieldPredicate notEquals = FieldPredicate.compare("active", Operator.NOT_EQUALS, Boolean.TRUE);
+        assertTrue(notEquals.test(false));
+        assertFalse(notEquals.test(true));
+        assertFalse(notEquals.test(null));
+    }
+
+    @Test
+    public void testIncomparableValuesAreKept() {
+        final FieldPredicate predicate = FieldPredicate.compare("id", Operator.EQUALS, new BigDecimal("1"));
+        assertTrue(predicate.test("one"));
+        assertTrue(predicate.test(new Object[] {1, 2}));
+        assertTrue(FieldPredicate.compare("balance", Operator.LESS_THAN, new BigDecimal("1")).test(Double.NaN));
+
+        // 0.1 as a float is greater than 0.1 as a double but equal to it as a float, so the comparison cannot be decided
+        assertTrue(FieldPredicate.compare("balance", Operator.LESS_THAN_OR_EQUAL, new BigDecimal("0.1")).test(0.1F));
+        assertTrue(FieldPredicate.compare("balance", Operator.GREATER_THAN, new BigDecimal("0.1")).test(0.1F));
+        assertFalse(FieldPredicate.compare("balance", Operator.GREATER_THAN, new BigDecimal("0.2")).test(0.1F));
+    }
+
+    @Test
+    public void testNullChecks() {
+        assertTrue(FieldPredicate.isNull("notes").test(null));
+        assertFalse(FieldPredicate.isNull("notes").test("note"));
+        assertTrue(FieldPredicate.isNotNull("notes").test(""));
+        assertFalse(FieldPredicate.isNotNull("notes").test(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompareWithUnsupportedValue() {
+        FieldPredicate.compare("id", Operator.EQUALS, new Object());
+    }
+
+    @Test
+    public void testRequiredFields() {
+        final RecordSchema schema = createSchema();
+
+        final RecordPushdown all = new RecordPushdown(null, Collections.singletonList(FieldPredicate.isNotNull("id")));
+        assertArrayEquals(new boolean[] {true, true, true, true}, all.getRequiredFields(schema));
+        assertFalse(all.getRequiredFieldNames().isPresent());
+
+        // Fields are required if they are referred to by an alias or by a predicate
+        final RecordPushdown projected = new RecordPushdown(new HashSet<>(Collections.singletonList("fullName")), Collections.singletonList(FieldPredicate.isNotNull("balance")));
+        assertArrayEquals(new boolean[] {false, true, true, false}, projected.getRequiredFields(schema));
+        assertEquals(new HashSet<>(Arrays.asList("fullName", "balance")), projected.getRequiredFieldNames().get());
+        assertFalse(projected.isEmpty());
+
+        assertTrue(new RecordPushdown(null, Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testFilter() {
+        final List<FieldPredicate> predicates = Arrays.asList(
+            FieldPredicate.compare("balance", Operator.GREATER_THAN_OR_EQUAL, new BigDecimal("0")),
+            FieldPredicate.compare("fullName", Operator.NOT_EQUALS, "Jim"),
+            FieldPredicate.isNull("other"));
+        final Predicate<Object[]> filter = new RecordPushdown(null, predicates).createFilter(createSchema());
+
+        assertTrue(filter.test(new Object[] {1, "John", 4.5D, null}));
+        assertFalse(filter.test(new Object[] {2, "Jim", 4.5D, null}));
+        assertFalse(filter.test(new Object[] {3, "Jane", -1D, null}));
+        assertFalse(filter.test(new Object[] {4, null, 1D, null}));
+
+        // A missing value is treated as the default value of the field
+        assertTrue(filter.test(new Object[] {5, "Jane", ArrayRecord.MISSING_VALUE, null}));
+
+        final Predicate<Object[]> none = new RecordPushdown(null, Collections.singletonList(FieldPredicate.isNull("other"))).createFilter(createSchema());
+        assertTrue(none.test(new Object[] {null, null, null, null}));
+    }
+}
@@ -29,6 +29,7 @@ import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +42,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -337,6 +339,43 @@ public class RocksDBMetronome implements Closeable {
         }
     }
 
+    /**
+     * Apply all of the updates in the given batch atomically, optionally syncing the wal. The batch may span column families.
+     *
+     * @param writeBatch the updates to apply
+     * @param forceSync  if true, sync the wal
+     * @throws RocksDBException thrown if there is an error in the underlying library.
+     */
+    public void write(final WriteBatch writeBatch, final boolean forceSync) throws RocksDBException {
+        dbReadLock.lock();
+        try {
+            checkDbState();
+            rocksDB.write(getWriteOptions(forceSync), writeBatch);
+        } finally {
+            dbReadLock.unlock();
+        }
+    }
+
+    /**
+     * Delete the files of the specified column family whose keys all lie within the given range, reclaiming their space without
+     * compaction. Keys in the range that are held in files that also hold keys outside of the range, or in memory, are not deleted,
+     * so this is typically followed by a range deletion.
+     *
+     * @param columnFamilyHandle the column family from which to delete files
+     * @param begin              the first key of the range, inclusive
+     * @param end                the last key of the range, exclusive
+     * @throws RocksDBException thrown if there is an error in the underlying library.
+     */
+    public void deleteFilesInRange(final ColumnFamilyHandle columnFamilyHandle, final byte[] begin, final byte[] end) throws RocksDBException {
+        dbReadLock.lock();
+        try {
+            checkDbState();
+            rocksDB.deleteFilesInRanges(columnFamilyHandle, Arrays.asList(begin, end), false);
+        } finally {
+            dbReadLock.unlock();
+        }
+    }
+
     /**
      * Flushes the WAL and syncs to disk
      *
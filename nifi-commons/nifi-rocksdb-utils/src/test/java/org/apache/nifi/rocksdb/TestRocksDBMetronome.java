@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
 
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -209,6 +210,37 @@ public class TestRocksDBMetronome {
         }
     }
 
+    @Test
+    public void testWriteBatch() throws Exception {
+        String secondFamilyName = "second family";
+        try (RocksDBMetronome db = new RocksDBMetronome.Builder()
+                .setStoragePath(temporaryFolder.newFolder().toPath())
+                .addColumnFamily(secondFamilyName)
+                .build()) {
+            db.initialize();
+            ColumnFamilyHandle secondFamily = db.getColumnFamilyHandle(secondFamilyName);
+
+            db.put(KEY, VALUE);
+
+            // move the value to the second family and add another value, all in one batch
+            try (WriteBatch writeBatch = new WriteBatch()) {
+                writeBatch.put(secondFamily, KEY, VALUE);
+                writeBatch.delete(KEY);
+                writeBatch.put(secondFamily, KEY_2, VALUE_2);
+
+                // nothing is applied until the batch is written
+                assertArrayEquals(VALUE, db.get(KEY));
+                assertNull(db.get(secondFamily, KEY));
+
+                db.write(writeBatch, true);
+            }
+
+            assertNull(db.get(KEY));
+            assertArrayEquals(VALUE, db.get(secondFamily, KEY));
+            assertArrayEquals(VALUE_2, db.get(secondFamily, KEY_2));
+        }
+    }
+
     @Test
     public void testIterator() throws Exception {
         try (RocksDBMetronome db = new RocksDBMetronome.Builder()
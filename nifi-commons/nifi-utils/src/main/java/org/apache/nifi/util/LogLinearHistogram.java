@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A histogram of non-negative values that many threads can record into concurrently without locking. Values are recorded into
+ * logarithmic buckets: every power of two is divided into {@link #SUB_BUCKET_COUNT} linear sub-buckets, so the value that a bucket
+ * reports is never more than 1/8th larger than any value that was recorded into it, while values up to {@link #MAX_TRACKABLE_VALUE}
+ * fit in a few hundred buckets. Larger values are counted in the last bucket.
+ * </p>
+ *
+ * <p>
+ * All threads initially record into a single stripe of counters. Only when an update of a counter fails because another thread
+ * updated it concurrently is the number of stripes doubled, up to {@link #MAX_STRIPE_COUNT}, after which each thread records into
+ * the stripe chosen by its thread ID. A histogram that is not updated concurrently therefore never allocates more than one stripe.
+ * The stripes are merged only when the histogram is read.
+ * </p>
+ */
+public class LogLinearHistogram {
+    public static final int SUB_BUCKET_BITS = 3;
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    public static final long MAX_TRACKABLE_VALUE = (1L << 40) - 1;
+    public static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+    public static final int MAX_STRIPE_COUNT = Math.min(8, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(MAX_STRIPE_COUNT);
+    private final AtomicInteger stripeCount = new AtomicInteger(1);
+    private final LongAdder sum = new LongAdder();
+
+    public void record(final long value) {
+        final long normalized = Math.max(0L, value);
+
+        final int currentStripeCount = stripeCount.get();
+        final int stripeIndex = (int) (Thread.currentThread().getId() & (currentStripeCount - 1));
+        AtomicLongArray counts = stripes.get(stripeIndex);
+        if (counts == null) {
+            final AtomicLongArray created = new AtomicLongArray(BUCKET_COUNT);
+            counts = stripes.compareAndSet(stripeIndex, null, created) ? created : stripes.get(stripeIndex);
+        }
+
+        final int bucket = bucketIndex(normalized);
+        final long currentCount = counts.get(bucket);
+        if (!counts.compareAndSet(bucket, currentCount, currentCount + 1)) {
+            // Another thread updated the same counter, so spread the threads over more stripes from now on
+            counts.incrementAndGet(bucket);
+            if (currentStripeCount < MAX_STRIPE_COUNT) {
+                stripeCount.compareAndSet(currentStripeCount, currentStripeCount * 2);
+            }
+        }
+
+        sum.add(normalized);
+    }
+
+    /**
+     * Adds the counts of this histogram to the given array, which must have {@link #BUCKET_COUNT} elements
+     *
+     * @param counts the counts to add to
+     */
+    public void addTo(final long[] counts) {
+        for (int i = 0; i < MAX_STRIPE_COUNT; i++) {
+            final AtomicLongArray stripe = stripes.get(i);
+            if (stripe == null) {
+                continue;
+            }
+
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                counts[bucket] += stripe.get(bucket);
+            }
+        }
+    }
+
+    public long[] getBucketCounts() {
+        final long[] counts = new long[BUCKET_COUNT];
+        addTo(counts);
+        return counts;
+    }
+
+    public long getCount() {
+        long count = 0L;
+        for (final long bucketCount : getBucketCounts()) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    public double getMean() {
+        final long count = getCount();
+        return count == 0 ? 0D : (double) sum.sum() / count;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the largest value that falls into the bucket containing the given percentile, or 0 if no values have been recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long[] counts = getBucketCounts();
+        long count = 0L;
+        for (final long bucketCount : counts) {
+            count += bucketCount;
+        }
+
+        final int bucket = bucketAtPercentile(counts, count, percentile);
+        return bucket < 0 ? 0L : highestEquivalentValue(bucket);
+    }
+
+    /**
+     * @return the number of stripes of counters that have been allocated
+     */
+    public int getAllocatedStripeCount() {
+        int allocated = 0;
+        for (int i = 0; i < MAX_STRIPE_COUNT; i++) {
+            if (stripes.get(i) != null) {
+                allocated++;
+            }
+        }
+
+        return allocated;
+    }
+
+    public static int bucketIndex(final long value) {
+        final long bounded = Math.min(value, MAX_TRACKABLE_VALUE);
+        if (bounded < SUB_BUCKET_COUNT) {
+            return (int) bounded;
+        }
+
+        // The highest set bit selects the power of two, the bits after it select the linear sub-bucket within it
+        final int exponent = 63 - Long.numberOfLeadingZeros(bounded);
+        final int subBucket = (int) (bounded >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @return the largest value that falls into the given bucket
+     */
+    public static long highestEquivalentValue(final int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+
+        final int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+        final long lowest = (long) (SUB_BUCKET_COUNT + bucketIndex % SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Determines the bucket that holds the given percentile of the counted values
+     *
+     * @param counts bucket counts, as populated by {@link #addTo(long[])}, possibly from several histograms
+     * @param totalCount the sum of all counts
+     * @param percentile the percentile, between 0 and 100
+     * @return the index of the bucket, or -1 if there are no counts
+     */
+    public static int bucketAtPercentile(final long[] counts, final long totalCount, final double percentile) {
+        if (totalCount == 0L) {
+            return -1;
+        }
+
+        final long countAtPercentile = Math.max(1L, (long) Math.ceil(totalCount * percentile / 100D));
+
+        long runningCount = 0L;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            runningCount += counts[bucket];
+            if (runningCount >= countAtPercentile) {
+                return bucket;
+            }
+        }
+
+        return counts.length - 1;
+    }
+}
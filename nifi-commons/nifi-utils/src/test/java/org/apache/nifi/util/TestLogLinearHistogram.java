@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLogLinearHistogram {
+
+    @Test
+    public void testBucketBoundaries() {
+        long previousIndex = -1;
+        for (long value = 0; value < 100_000; value++) {
+            final int index = LogLinearHistogram.bucketIndex(value);
+            assertTrue(index == previousIndex || index == previousIndex + 1);
+            assertTrue(value <= LogLinearHistogram.highestEquivalentValue(index));
+            previousIndex = index;
+        }
+
+        assertEquals(LogLinearHistogram.BUCKET_COUNT - 1, LogLinearHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testCountMeanAndPercentiles() {
+        final LogLinearHistogram histogram = new LogLinearHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(50));
+
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(1000L, histogram.getCount());
+        assertEquals(500.5D, histogram.getMean(), 0D);
+
+        final long median = histogram.getValueAtPercentile(50);
+        assertTrue("Median was " + median, median >= 500 && median <= 500 + 500 / LogLinearHistogram.SUB_BUCKET_COUNT);
+        assertEquals(LogLinearHistogram.highestEquivalentValue(LogLinearHistogram.bucketIndex(1000)), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testSingleStripeWithoutContention() throws InterruptedException {
+        final LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 0; i < 100_000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1, histogram.getAllocatedStripeCount());
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i % 1000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(900_000L, histogram.getCount());
+        assertTrue(histogram.getAllocatedStripeCount() <= LogLinearHistogram.MAX_STRIPE_COUNT);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.wali;
+
+import org.apache.nifi.util.LogLinearHistogram;
+
+/**
+ * Statistics about how updates to a {@link LengthDelimitedJournal} are synchronized to disk. When many threads update the journal concurrently
+ * and each requests that its update be synced, a single call to fsync is able to make the updates of all of those threads durable. These statistics
+ * capture how many transactions were made durable by each fsync (the batch size) and how long each caller waited for its update to become durable.
+ */
+public class GroupCommitStatistics {
+    private final Histogram batchSizes = new Histogram();
+    private final Histogram waitMicros = new Histogram();
+
+    void recordSync(final long transactionsSynced) {
+        batchSizes.record(transactionsSynced);
+    }
+
+    void recordWait(final long nanos) {
+        waitMicros.record(nanos / 1000L);
+    }
+
+    /**
+     * @return a histogram of the number of transactions that were made durable by each fsync
+     */
+    public Histogram getBatchSizeHistogram() {
+        return batchSizes;
+    }
+
+    /**
+     * @return a histogram of the number of microseconds that each caller waited for its update to become durable
+     */
+    public Histogram getWaitTimeHistogram() {
+        return waitMicros;
+    }
+
+    /**
+     * A thread-safe histogram of non-negative values, reported with the precision of a {@link LogLinearHistogram}
+     */
+    public static class Histogram extends LogLinearHistogram {
+        /**
+         * Returns an upper bound for the given percentile. Because values are grouped into buckets, the value returned is the
+         * exclusive upper bound of the bucket that contains the given percentile.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return an upper bound for the given percentile, or 0 if no values have been recorded
+         */
+        public long getPercentileUpperBound(final double percentile) {
+            final long[] counts = getBucketCounts();
+            long total = 0L;
+            for (final long bucketCount : counts) {
+                total += bucketCount;
+            }
+
+            final int bucket = bucketAtPercentile(counts, total, percentile);
+            if (bucket < 0) {
+                return 0L;
+            }
+
+            return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : highestEquivalentValue(bucket) + 1;
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram[count=" + getCount() + ", mean=" + String.format("%.2f", getMean()) + ", p50<" + getPercentileUpperBound(50)
+                + ", p90<" + getPercentileUpperBound(90) + ", p99<" + getPercentileUpperBound(99) + "]";
+        }
+    }
+}
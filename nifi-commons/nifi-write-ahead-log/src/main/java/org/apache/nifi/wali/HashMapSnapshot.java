@@ -27,7 +27,6 @@ import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
-import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -45,16 +44,37 @@ import java.util.concurrent.ConcurrentMap;
 
 public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T> {
     private static final Logger logger = LoggerFactory.getLogger(HashMapSnapshot.class);
-    private static final int ENCODING_VERSION = 1;
+    // The latest version of the encoding that can be read. Version 1 is still written unless the block encoding is enabled.
+    static final int ENCODING_VERSION = 2;
 
     private final ConcurrentMap<Object, T> recordMap = new ConcurrentHashMap<>();
     private final SerDeFactory<T> serdeFactory;
     private final Set<String> swapLocations = Collections.synchronizedSet(new HashSet<>());
     private final File storageDirectory;
+    private final int recoveryThreads;
+    private final boolean blockEncodingEnabled;
 
     public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory) {
+        this(storageDirectory, serdeFactory, 1);
+    }
+
+    /**
+     * @param recoveryThreads the maximum number of threads to use for deserializing records when recovering from the snapshot
+     */
+    public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int recoveryThreads) {
+        this(storageDirectory, serdeFactory, recoveryThreads, false);
+    }
+
+    /**
+     * @param recoveryThreads the maximum number of threads to use for deserializing records when recovering from the snapshot
+     * @param parallelSnapshotEnabled whether or not to write the snapshot in the block encoding, which allows it to be deserialized by multiple
+     *            threads but cannot be read by versions of NiFi that predate it. It is used only if there is more than one recovery thread.
+     */
+    public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int recoveryThreads, final boolean parallelSnapshotEnabled) {
         this.serdeFactory = serdeFactory;
         this.storageDirectory = storageDirectory;
+        this.recoveryThreads = recoveryThreads;
+        this.blockEncodingEnabled = parallelSnapshotEnabled && recoveryThreads > 1;
     }
 
     private SnapshotHeader validateHeader(final DataInputStream dataIn) throws IOException {
@@ -84,10 +104,7 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         final int numRecords = dataIn.readInt();
         logger.debug("Number of Records for Snapshot at {} is {}", storageDirectory, numRecords);
 
-        final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
-        serde.readHeader(dataIn);
-
-        return new SnapshotHeader(serde, serdeVersion, maxTransactionId, numRecords);
+        return new SnapshotHeader(snapshotVersion, serdeEncoding, serdeVersion, maxTransactionId, numRecords);
     }
 
     @Override
@@ -125,27 +142,21 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             // Ensure that the header contains the information that we expect and retrieve the relevant information from the header.
             final SnapshotHeader header = validateHeader(dataIn);
 
-            final SerDe<T> serde = header.getSerDe();
-            final int serdeVersion = header.getSerDeVersion();
             final int numRecords = header.getNumRecords();
             final long maxTransactionId = header.getMaxTransactionId();
 
             // Read all of the records that we expect to receive.
-            for (int i = 0; i < numRecords; i++) {
-                final T record = serde.deserializeRecord(dataIn, serdeVersion);
-                if (record == null) {
-                    throw new EOFException();
-                }
-
-                final UpdateType updateType = serde.getUpdateType(record);
-                if (updateType == UpdateType.DELETE) {
-                    logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
-                    continue;
-                }
-
-                logger.trace("Recovered from snapshot: {}", record);
-                recordMap.put(serde.getRecordIdentifier(record), record);
-            }
+            SnapshotRecordBlocks.readRecords(dataIn, snapshotFile, header.getSnapshotVersion(), serdeFactory, header.getSerDeEncoding(), header.getSerDeVersion(),
+                numRecords, recoveryThreads, record -> {
+                    final UpdateType updateType = serdeFactory.getUpdateType(record);
+                    if (updateType == UpdateType.DELETE) {
+                        logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+                        return;
+                    }
+
+                    logger.trace("Recovered from snapshot: {}", record);
+                    recordMap.put(serdeFactory.getRecordIdentifier(record), record);
+                });
 
             // Determine the location of any swap files.
             final int numSwapRecords = dataIn.readInt();
@@ -230,6 +241,10 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         return ENCODING_VERSION;
     }
 
+    private int getWriteVersion(final SerDe<T> serde) {
+        return SnapshotRecordBlocks.getEncodingVersion(serde, blockEncodingEnabled);
+    }
+
     private File getPartialFile() {
         return new File(storageDirectory, "checkpoint.partial");
     }
@@ -269,19 +284,16 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             final DataOutputStream dataOut = new DataOutputStream(bufferedOut)) {
 
             // Write out the header
+            final int encodingVersion = getWriteVersion(serde);
             dataOut.writeUTF(HashMapSnapshot.class.getName());
-            dataOut.writeInt(getVersion());
+            dataOut.writeInt(encodingVersion);
             dataOut.writeUTF(serde.getClass().getName());
             dataOut.writeInt(serde.getVersion());
             dataOut.writeLong(snapshot.getMaxTransactionId());
             dataOut.writeInt(snapshot.getRecords().size());
-            serde.writeHeader(dataOut);
 
-            // Serialize each record
-            for (final T record : snapshot.getRecords().values()) {
-                logger.trace("Checkpointing {}", record);
-                serde.serializeRecord(record, dataOut);
-            }
+            // Write out the SerDe header, followed by each record
+            SnapshotRecordBlocks.writeRecords(serde, snapshot.getRecords().values(), encodingVersion, dataOut);
 
             // Write out the number of swap locations, followed by the swap locations themselves.
             dataOut.writeInt(snapshot.getSwapLocations().size());
@@ -337,21 +349,27 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         }
     }
 
-    private class SnapshotHeader {
-        private final SerDe<T> serde;
+    private static class SnapshotHeader {
+        private final int snapshotVersion;
+        private final String serdeEncoding;
         private final int serdeVersion;
         private final int numRecords;
         private final long maxTransactionId;
 
-        public SnapshotHeader(final SerDe<T> serde, final int serdeVersion, final long maxTransactionId, final int numRecords) {
-            this.serde = serde;
+        public SnapshotHeader(final int snapshotVersion, final String serdeEncoding, final int serdeVersion, final long maxTransactionId, final int numRecords) {
+            this.snapshotVersion = snapshotVersion;
+            this.serdeEncoding = serdeEncoding;
             this.serdeVersion = serdeVersion;
             this.maxTransactionId = maxTransactionId;
             this.numRecords = numRecords;
         }
 
-        public SerDe<T> getSerDe() {
-            return serde;
+        public int getSnapshotVersion() {
+            return snapshotVersion;
+        }
+
+        public String getSerDeEncoding() {
+            return serdeEncoding;
         }
 
         public int getSerDeVersion() {
@@ -0,0 +1,578 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wali.SerDe;
+import org.wali.SerDeFactory;
+import org.wali.UpdateType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * A {@link WriteAheadSnapshot} that, like the {@link HashMapSnapshot}, holds the current version of each active record in memory but that does
+ * not write every record on each checkpoint. Instead, most checkpoints write a <em>delta</em> snapshot, which contains only those records that
+ * have been created, updated, deleted or swapped since the previous checkpoint, so that the amount of data written is proportional to the
+ * churn of the repository rather than to the number of records that it holds.
+ * </p>
+ *
+ * <p>
+ * Periodically, the delta snapshots are compacted by writing a new <em>base</em> snapshot that contains all records, after which the delta
+ * snapshots are deleted. This happens once the configured number of delta snapshots has been written, or once the delta snapshots together
+ * contain as many records as a base snapshot would, so that the cost of recovery is bounded. On recovery, the base snapshot is read and each
+ * delta snapshot is then applied in the order in which it was written.
+ * </p>
+ *
+ * <p>
+ * The base snapshot uses the same file and format as the {@link HashMapSnapshot}, so a repository can be switched from one implementation
+ * to the other. Delta snapshots are written to separate files named <code>checkpoint.delta.&lt;sequence number&gt;</code>.
+ * </p>
+ */
+public class IncrementalHashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T> {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalHashMapSnapshot.class);
+    // The latest version of the encoding that can be read. Version 1 is still written unless the block encoding is enabled.
+    private static final int ENCODING_VERSION = 2;
+    private static final String DELTA_FILENAME_PREFIX = "checkpoint.delta.";
+    private static final String PARTIAL_SUFFIX = ".partial";
+    private static final Pattern DELTA_FILENAME_PATTERN = Pattern.compile("checkpoint\\.delta\\.(\\d+)(\\.partial)?");
+
+    private final ConcurrentMap<Object, T> recordMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, T> changedRecords = new ConcurrentHashMap<>();
+    private final SerDeFactory<T> serdeFactory;
+    private final Set<String> swapLocations = Collections.synchronizedSet(new HashSet<>());
+    private final File storageDirectory;
+    private final int maxDeltaSnapshots;
+    private final int recoveryThreads;
+    private final boolean blockEncodingEnabled;
+
+    // updated only while synchronized on 'this'; also read when a snapshot is prepared
+    private volatile boolean baseSnapshotRequired = true;
+    private volatile int deltaSnapshotCount = 0;
+    private volatile long deltaRecordCount = 0L;
+
+    // guarded by synchronizing on 'this'
+    private long nextDeltaSequence = 0L;
+
+    /**
+     * @param storageDirectory the directory to write the snapshots to
+     * @param serdeFactory the factory for the SerDe that is used to read and write records
+     * @param maxDeltaSnapshots the maximum number of delta snapshots to write before a new base snapshot is written. A value of 0 means that
+     *            every snapshot is a base snapshot.
+     */
+    public IncrementalHashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxDeltaSnapshots) {
+        this(storageDirectory, serdeFactory, maxDeltaSnapshots, 1);
+    }
+
+    /**
+     * @param storageDirectory the directory to write the snapshots to
+     * @param serdeFactory the factory for the SerDe that is used to read and write records
+     * @param maxDeltaSnapshots the maximum number of delta snapshots to write before a new base snapshot is written. A value of 0 means that
+     *            every snapshot is a base snapshot.
+     * @param recoveryThreads the maximum number of threads to use for deserializing records when recovering from the snapshots
+     */
+    public IncrementalHashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxDeltaSnapshots, final int recoveryThreads) {
+        this(storageDirectory, serdeFactory, maxDeltaSnapshots, recoveryThreads, false);
+    }
+
+    /**
+     * @param storageDirectory the directory to write the snapshots to
+     * @param serdeFactory the factory for the SerDe that is used to read and write records
+     * @param maxDeltaSnapshots the maximum number of delta snapshots to write before a new base snapshot is written. A value of 0 means that
+     *            every snapshot is a base snapshot.
+     * @param recoveryThreads the maximum number of threads to use for deserializing records when recovering from the snapshots
+     * @param parallelSnapshotEnabled whether or not to write the snapshots in the block encoding, as described by {@link HashMapSnapshot}
+     */
+    public IncrementalHashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxDeltaSnapshots, final int recoveryThreads,
+                                      final boolean parallelSnapshotEnabled) {
+        if (maxDeltaSnapshots < 0) {
+            throw new IllegalArgumentException("Max number of delta snapshots cannot be negative");
+        }
+
+        this.storageDirectory = storageDirectory;
+        this.serdeFactory = serdeFactory;
+        this.maxDeltaSnapshots = maxDeltaSnapshots;
+        this.recoveryThreads = recoveryThreads;
+        this.blockEncodingEnabled = parallelSnapshotEnabled && recoveryThreads > 1;
+    }
+
+    /**
+     * @param storageDirectory the storage directory of a Write-Ahead Log
+     * @return <code>true</code> if the given directory contains any delta snapshot, which can be recovered only by an IncrementalHashMapSnapshot
+     */
+    public static boolean hasDeltaSnapshots(final File storageDirectory) {
+        final File[] deltaFiles = storageDirectory.listFiles(file -> DELTA_FILENAME_PATTERN.matcher(file.getName()).matches());
+        return deltaFiles != null && deltaFiles.length > 0;
+    }
+
+    @Override
+    public synchronized SnapshotRecovery<T> recover() throws IOException {
+        // Records that are recovered from the journals after the snapshot are not passed through update(), so the
+        // next snapshot must contain every record.
+        baseSnapshotRequired = true;
+
+        final File partialFile = getPartialFile();
+        final File snapshotFile = getSnapshotFile();
+        final boolean partialExists = partialFile.exists();
+        final boolean snapshotExists = snapshotFile.exists();
+
+        if (partialExists && snapshotExists) {
+            // both files exist -- assume NiFi crashed/died while writing a base snapshot. Delete the partial file.
+            Files.delete(partialFile.toPath());
+        } else if (partialExists) {
+            // partial exists but snapshot does not -- we must have completed creating the partial, deleted the snapshot
+            // but crashed before renaming the partial to the snapshot. Just rename partial to snapshot.
+            Files.move(partialFile.toPath(), snapshotFile.toPath());
+        }
+
+        final List<File> deltaFiles = getDeltaFiles();
+        for (final File deltaFile : deltaFiles) {
+            nextDeltaSequence = Math.max(nextDeltaSequence, getDeltaSequence(deltaFile) + 1);
+        }
+
+        final boolean baseExists = snapshotFile.exists() && snapshotFile.length() > 0;
+        if (!baseExists) {
+            if (!deltaFiles.isEmpty()) {
+                throw new IOException("Write-Ahead Log Snapshot located at " + storageDirectory + " contains " + deltaFiles.size()
+                    + " delta snapshot files but no base snapshot file; cannot restore records from the delta snapshots alone");
+            }
+
+            if (snapshotFile.exists()) {
+                logger.warn("{} Found 0-byte Snapshot file; skipping Snapshot file in recovery", this);
+            }
+
+            return SnapshotRecovery.emptyRecovery();
+        }
+
+        final long baseTransactionId = readSnapshotFile(snapshotFile, true);
+        long maxTransactionId = baseTransactionId;
+        File recoveryFile = snapshotFile;
+        int deltasApplied = 0;
+
+        for (final File deltaFile : deltaFiles) {
+            if (deltaFile.getName().endsWith(PARTIAL_SUFFIX)) {
+                // NiFi was stopped while the delta snapshot was being written; the records are still in the journals.
+                logger.debug("{} Deleting incomplete delta snapshot {}", this, deltaFile);
+                Files.delete(deltaFile.toPath());
+                continue;
+            }
+
+            final long deltaTransactionId = readMaxTransactionId(deltaFile);
+            if (deltaTransactionId < baseTransactionId) {
+                // The delta snapshot was written before the base snapshot and NiFi was stopped before it could be deleted.
+                logger.debug("{} Deleting delta snapshot {} because it was written before the base snapshot", this, deltaFile);
+                Files.delete(deltaFile.toPath());
+                continue;
+            }
+
+            maxTransactionId = readSnapshotFile(deltaFile, false);
+            recoveryFile = deltaFile;
+            deltasApplied++;
+        }
+
+        logger.info("{} restored {} Records and {} Swap Files from base Snapshot and {} delta Snapshots, ending with Transaction ID {}",
+            new Object[] {this, recordMap.size(), swapLocations.size(), deltasApplied, maxTransactionId});
+
+        return new StandardSnapshotRecovery<>(recordMap, new HashSet<>(swapLocations), recoveryFile, maxTransactionId);
+    }
+
+    /**
+     * Reads the records of the given snapshot file into the record map, replacing the swap locations with those from the file
+     *
+     * @return the max transaction ID of the snapshot
+     */
+    private long readSnapshotFile(final File file, final boolean base) throws IOException {
+        try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            final String snapshotClass = dataIn.readUTF();
+            final String expectedClass = base ? HashMapSnapshot.class.getName() : IncrementalHashMapSnapshot.class.getName();
+            if (!snapshotClass.equals(expectedClass)) {
+                throw new IOException("Write-Ahead Log Snapshot file " + file + " was written using the " + snapshotClass + " class; cannot restore using " + getClass().getName());
+            }
+
+            final int snapshotVersion = dataIn.readInt();
+            final int supportedVersion = base ? HashMapSnapshot.ENCODING_VERSION : ENCODING_VERSION;
+            if (snapshotVersion > supportedVersion) {
+                throw new IOException("Write-Ahead Log Snapshot file " + file + " was written using version " + snapshotVersion + " of the "
+                    + snapshotClass + " class; cannot restore using Version " + supportedVersion);
+            }
+
+            final String serdeEncoding = dataIn.readUTF();
+            final int serdeVersion = dataIn.readInt();
+            final long maxTransactionId = dataIn.readLong();
+            final int numRecords = dataIn.readInt();
+            logger.debug("Snapshot file {} was written with serde {} version {} and contains {} records, ending with Transaction ID {}",
+                file, serdeEncoding, serdeVersion, numRecords, maxTransactionId);
+
+            SnapshotRecordBlocks.readRecords(dataIn, file, snapshotVersion, serdeFactory, serdeEncoding, serdeVersion, numRecords, recoveryThreads, record -> {
+                final Object recordId = serdeFactory.getRecordIdentifier(record);
+                final UpdateType updateType = serdeFactory.getUpdateType(record);
+                switch (updateType) {
+                    case DELETE:
+                    case SWAP_OUT:
+                        if (base) {
+                            logger.warn("While recovering from snapshot, found record with type '{}'; this record will not be restored", updateType);
+                        }
+                        recordMap.remove(recordId);
+                        break;
+                    default:
+                        logger.trace("Recovered from snapshot: {}", record);
+                        recordMap.put(recordId, record);
+                        break;
+                }
+            });
+
+            // Each snapshot contains the complete set of swap locations at the time that it was written.
+            final int numSwapRecords = dataIn.readInt();
+            final Set<String> recoveredSwapLocations = new HashSet<>();
+            for (int i = 0; i < numSwapRecords; i++) {
+                recoveredSwapLocations.add(dataIn.readUTF());
+            }
+
+            swapLocations.clear();
+            swapLocations.addAll(recoveredSwapLocations);
+            return maxTransactionId;
+        }
+    }
+
+    private long readMaxTransactionId(final File file) throws IOException {
+        try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            dataIn.readUTF(); // snapshot class
+            dataIn.readInt(); // snapshot version
+            dataIn.readUTF(); // serde encoding
+            dataIn.readInt(); // serde version
+            return dataIn.readLong();
+        }
+    }
+
+    @Override
+    public void update(final Collection<T> records) {
+        // Keep the most up-to-date version of each record, as HashMapSnapshot does, and also keep the most recent update to
+        // each record that has changed since the last snapshot was written, so that the next delta snapshot can be written
+        // without comparing the full set of records.
+        for (final T record : records) {
+            final Object recordId = serdeFactory.getRecordIdentifier(record);
+            final UpdateType updateType = serdeFactory.getUpdateType(record);
+
+            switch (updateType) {
+                case DELETE:
+                    recordMap.remove(recordId);
+                    changedRecords.put(recordId, record);
+                    break;
+                case SWAP_OUT:
+                    final String location = serdeFactory.getLocation(record);
+                    if (location == null) {
+                        logger.error("Received Record (ID=" + recordId + ") with UpdateType of SWAP_OUT but "
+                            + "no indicator of where the Record is to be Swapped Out to; these records may be "
+                            + "lost when the repository is restored!");
+                    } else {
+                        recordMap.remove(recordId);
+                        changedRecords.put(recordId, record);
+                        this.swapLocations.add(location);
+                    }
+                    break;
+                case SWAP_IN:
+                    final String swapLocation = serdeFactory.getLocation(record);
+                    if (swapLocation == null) {
+                        logger.error("Received Record (ID=" + recordId + ") with UpdateType of SWAP_IN but no "
+                            + "indicator of where the Record is to be Swapped In from; these records may be duplicated "
+                            + "when the repository is restored!");
+                    } else {
+                        swapLocations.remove(swapLocation);
+                    }
+                    recordMap.put(recordId, record);
+                    changedRecords.put(recordId, record);
+                    break;
+                default:
+                    recordMap.put(recordId, record);
+                    changedRecords.put(recordId, record);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public int getRecordCount() {
+        return recordMap.size();
+    }
+
+    /**
+     * @return the number of records that have changed since the last snapshot was written
+     */
+    public int getChangedRecordCount() {
+        return changedRecords.size();
+    }
+
+    @Override
+    public T lookup(final Object recordId) {
+        return recordMap.get(recordId);
+    }
+
+    @Override
+    public SnapshotCapture<T> prepareSnapshot(final long maxTransactionId) {
+        return prepareSnapshot(maxTransactionId, this.swapLocations);
+    }
+
+    @Override
+    public SnapshotCapture<T> prepareSnapshot(final long maxTransactionId, final Set<String> swapFileLocations) {
+        final Map<Object, T> changes = new HashMap<>(changedRecords);
+        final Set<String> swapLocationsCopy = new HashSet<>(swapFileLocations);
+
+        // Only a base snapshot needs a copy of every record. A delta snapshot is written from the changes alone, so that preparing it,
+        // which the Write-Ahead Log does while updates are blocked, takes time in proportion to the churn rather than to the number of records.
+        // Write a base snapshot if required, if the configured number of deltas has been reached, or if the deltas would contain more
+        // records than a base snapshot, as recovering from them would then be more expensive than recovering from a base snapshot.
+        final boolean base = baseSnapshotRequired || deltaSnapshotCount >= maxDeltaSnapshots || deltaRecordCount + changes.size() >= recordMap.size();
+        if (base) {
+            return new IncrementalSnapshot(new HashMap<>(recordMap), changes, swapLocationsCopy, maxTransactionId, true);
+        }
+
+        return new IncrementalSnapshot(Collections.unmodifiableMap(recordMap), changes, swapLocationsCopy, maxTransactionId, false);
+    }
+
+    private File getPartialFile() {
+        return new File(storageDirectory, "checkpoint.partial");
+    }
+
+    private File getSnapshotFile() {
+        return new File(storageDirectory, "checkpoint");
+    }
+
+    private File getDeltaFile(final long sequence) {
+        return new File(storageDirectory, DELTA_FILENAME_PREFIX + sequence);
+    }
+
+    private static long getDeltaSequence(final File deltaFile) {
+        final Matcher matcher = DELTA_FILENAME_PATTERN.matcher(deltaFile.getName());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(deltaFile + " is not a delta snapshot file");
+        }
+
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * @return the delta snapshot files in the storage directory, including partially written ones, in the order in which they were written
+     */
+    private List<File> getDeltaFiles() throws IOException {
+        final File[] deltaFiles = storageDirectory.listFiles(file -> DELTA_FILENAME_PATTERN.matcher(file.getName()).matches());
+        if (deltaFiles == null) {
+            throw new IOException("Cannot access the list of files in directory " + storageDirectory + "; please ensure that appropriate file permissions are set.");
+        }
+
+        return Arrays.stream(deltaFiles)
+            .sorted(Comparator.comparingLong(IncrementalHashMapSnapshot::getDeltaSequence))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void writeSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
+        final IncrementalSnapshot incrementalSnapshot = (snapshot instanceof IncrementalHashMapSnapshot.IncrementalSnapshot) ? (IncrementalSnapshot) snapshot : null;
+        final Map<Object, T> changes = incrementalSnapshot == null ? null : incrementalSnapshot.getChangedRecords();
+        final boolean writeBase = incrementalSnapshot == null || incrementalSnapshot.isBase();
+
+        if (!writeBase && baseSnapshotRequired) {
+            // A snapshot failed to be written after this one was prepared, so the delta snapshots are no longer complete. The changes
+            // remain in the journals, and the next snapshot that is prepared will be a base snapshot.
+            throw new IOException("Cannot write a delta Snapshot for Transaction ID " + snapshot.getMaxTransactionId() + " to " + storageDirectory
+                + " because a base Snapshot is required");
+        }
+
+        try {
+            if (writeBase) {
+                writeBaseSnapshot(snapshot);
+                baseSnapshotRequired = false;
+                deltaSnapshotCount = 0;
+                deltaRecordCount = 0L;
+            } else {
+                writeDeltaSnapshot(snapshot, changes);
+                deltaSnapshotCount++;
+                deltaRecordCount += changes.size();
+            }
+        } catch (final Throwable t) {
+            // The changes in this snapshot have not been written. They will remain in the journals until a snapshot
+            // is written successfully, but the delta snapshots would no longer be complete, so the next snapshot must be a base snapshot.
+            baseSnapshotRequired = true;
+            throw t;
+        }
+
+        // Forget about changes that are now in a snapshot, unless the record has been updated again since the snapshot was prepared.
+        if (changes != null) {
+            changes.forEach(changedRecords::remove);
+        }
+    }
+
+    private void writeBaseSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
+        final File snapshotFile = getSnapshotFile();
+        final File partialFile = getPartialFile();
+
+        // As in HashMapSnapshot, never overwrite the existing Snapshot file directly. If there is no Snapshot file but there is
+        // a Partial file, we failed to rename the Partial file after deleting the Snapshot file, so rename it first.
+        if (!snapshotFile.exists() && partialFile.exists()) {
+            final boolean rename = partialFile.renameTo(snapshotFile);
+            if (!rename) {
+                throw new IOException("Failed to rename partial snapshot file " + partialFile + " to " + snapshotFile);
+            }
+        }
+
+        writeSnapshotFile(partialFile, HashMapSnapshot.class.getName(), snapshot.getMaxTransactionId(), snapshot.getRecords().values(), snapshot.getSwapLocations());
+
+        if (snapshotFile.exists()) {
+            if (!snapshotFile.delete()) {
+                logger.warn("Unable to delete existing Snapshot file " + snapshotFile);
+            }
+        }
+
+        final boolean rename = partialFile.renameTo(snapshotFile);
+        if (!rename) {
+            throw new IOException("Failed to rename partial snapshot file " + partialFile + " to " + snapshotFile);
+        }
+
+        // The delta snapshots are now contained in the base snapshot. If any cannot be deleted, it will be ignored on recovery
+        // because it was written for an earlier transaction than the base snapshot.
+        for (final File deltaFile : getDeltaFiles()) {
+            if (!deltaFile.delete()) {
+                logger.warn("Unable to delete delta Snapshot file " + deltaFile);
+            }
+        }
+
+        logger.debug("{} Wrote base Snapshot with {} Records, ending with Transaction ID {}", this, snapshot.getRecords().size(), snapshot.getMaxTransactionId());
+    }
+
+    private void writeDeltaSnapshot(final SnapshotCapture<T> snapshot, final Map<Object, T> changes) throws IOException {
+        final long sequence = nextDeltaSequence++;
+        final File deltaFile = getDeltaFile(sequence);
+        final File partialFile = new File(storageDirectory, deltaFile.getName() + PARTIAL_SUFFIX);
+
+        writeSnapshotFile(partialFile, IncrementalHashMapSnapshot.class.getName(), snapshot.getMaxTransactionId(), changes.values(), snapshot.getSwapLocations());
+        Files.move(partialFile.toPath(), deltaFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        logger.debug("{} Wrote delta Snapshot {} with {} changed Records, ending with Transaction ID {}", this, deltaFile, changes.size(), snapshot.getMaxTransactionId());
+    }
+
+    private void writeSnapshotFile(final File file, final String snapshotClass, final long maxTransactionId, final Collection<T> records,
+                                   final Set<String> swapLocations) throws IOException {
+        final SerDe<T> serde = serdeFactory.createSerDe(null);
+        final int snapshotVersion = SnapshotRecordBlocks.getEncodingVersion(serde, blockEncodingEnabled);
+
+        try (final FileOutputStream fileOut = new FileOutputStream(file);
+            final OutputStream bufferedOut = new BufferedOutputStream(fileOut);
+            final DataOutputStream dataOut = new DataOutputStream(bufferedOut)) {
+
+            // Write out the header
+            dataOut.writeUTF(snapshotClass);
+            dataOut.writeInt(snapshotVersion);
+            dataOut.writeUTF(serde.getClass().getName());
+            dataOut.writeInt(serde.getVersion());
+            dataOut.writeLong(maxTransactionId);
+            dataOut.writeInt(records.size());
+
+            // Write out the SerDe header, followed by each record
+            SnapshotRecordBlocks.writeRecords(serde, records, snapshotVersion, dataOut);
+
+            // Write out the number of swap locations, followed by the swap locations themselves.
+            dataOut.writeInt(swapLocations.size());
+            for (final String swapLocation : swapLocations) {
+                dataOut.writeUTF(swapLocation);
+            }
+
+            // Ensure that we flush the Buffered Output Stream and then perform an fsync() before the file is renamed.
+            dataOut.flush();
+            fileOut.getChannel().force(false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IncrementalHashMapSnapshot[storageDirectory=" + storageDirectory + "]";
+    }
+
+    private class IncrementalSnapshot implements SnapshotCapture<T> {
+        private final Map<Object, T> records;
+        private final Map<Object, T> changedRecords;
+        private final long maxTransactionId;
+        private final Set<String> swapLocations;
+        private final boolean base;
+
+        IncrementalSnapshot(final Map<Object, T> records, final Map<Object, T> changedRecords, final Set<String> swapLocations, final long maxTransactionId,
+                            final boolean base) {
+            this.records = records;
+            this.changedRecords = changedRecords;
+            this.swapLocations = swapLocations;
+            this.maxTransactionId = maxTransactionId;
+            this.base = base;
+        }
+
+        /**
+         * @return the records at the time that this snapshot was prepared if this is a base snapshot. The records are not copied for a
+         *         delta snapshot, so for a delta snapshot this is a read-only view of the current records.
+         */
+        @Override
+        public Map<Object, T> getRecords() {
+            return records;
+        }
+
+        /**
+         * @return <code>true</code> if all records are to be written, <code>false</code> if only the changed records are to be written
+         */
+        boolean isBase() {
+            return base;
+        }
+
+        /**
+         * @return the most recent update to each record that had changed since the last snapshot was written, at the time that this snapshot was prepared
+         */
+        Map<Object, T> getChangedRecords() {
+            return changedRecords;
+        }
+
+        @Override
+        public long getMaxTransactionId() {
+            return maxTransactionId;
+        }
+
+        @Override
+        public Set<String> getSwapLocations() {
+            return swapLocations;
+        }
+    }
+}
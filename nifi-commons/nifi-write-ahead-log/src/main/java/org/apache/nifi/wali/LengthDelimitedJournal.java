@@ -19,6 +19,7 @@ package org.apache.nifi.wali;
 
 import org.apache.nifi.stream.io.ByteCountingInputStream;
 import org.apache.nifi.stream.io.LimitingInputStream;
+import org.apache.nifi.stream.io.StreamUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wali.SerDe;
@@ -27,6 +28,7 @@ import org.wali.UpdateType;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -37,17 +39,25 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private static final Logger logger = LoggerFactory.getLogger(LengthDelimitedJournal.class);
@@ -58,6 +68,7 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private static final byte TRANSACTION_FOLLOWS = 64;
     private static final byte JOURNAL_COMPLETE = 127;
     private static final int NUL_BYTE = 0;
+    private static final int TRANSACTION_BATCH_SIZE = 4 * 1024 * 1024;
 
     private final File journalFile;
     private final File overflowDirectory;
@@ -65,6 +76,9 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private final SerDeFactory<T> serdeFactory;
     private final ObjectPool<ByteArrayDataOutputStream> streamPool;
     private final int maxInHeapSerializationBytes;
+    private final long groupCommitWindowNanos;
+    private final GroupCommitStatistics groupCommitStatistics;
+    private final Lock syncLock = new ReentrantLock();
 
     private SerDe<T> serde;
     private FileOutputStream fileOut;
@@ -77,6 +91,7 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
     private volatile Throwable poisonCause = null;
     private volatile boolean closed = false;
     private final ByteBuffer transactionPreamble = ByteBuffer.allocate(12); // guarded by synchronized block
+    private volatile long syncedTransactionId; // the ID of the last transaction known to be durable
 
     public LengthDelimitedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId) {
         this(journalFile, serdeFactory, streamPool, initialTransactionId, DEFAULT_MAX_IN_HEAP_SERIALIZATION_BYTES);
@@ -84,6 +99,21 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     public LengthDelimitedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId,
                                   final int maxInHeapSerializationBytes) {
+        this(journalFile, serdeFactory, streamPool, initialTransactionId, maxInHeapSerializationBytes, 0L, new GroupCommitStatistics());
+    }
+
+    public LengthDelimitedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId,
+                                  final long groupCommitWindowNanos, final GroupCommitStatistics groupCommitStatistics) {
+        this(journalFile, serdeFactory, streamPool, initialTransactionId, DEFAULT_MAX_IN_HEAP_SERIALIZATION_BYTES, groupCommitWindowNanos, groupCommitStatistics);
+    }
+
+    /**
+     * @param groupCommitWindowNanos when a call to {@link #fsync()} must sync the journal to disk, the amount of time to wait before doing so, in order
+     *            to allow other threads that are updating the journal concurrently to have their updates made durable by the same fsync
+     * @param groupCommitStatistics the statistics to update each time that the journal is synced to disk
+     */
+    public LengthDelimitedJournal(final File journalFile, final SerDeFactory<T> serdeFactory, final ObjectPool<ByteArrayDataOutputStream> streamPool, final long initialTransactionId,
+                                  final int maxInHeapSerializationBytes, final long groupCommitWindowNanos, final GroupCommitStatistics groupCommitStatistics) {
         this.journalFile = journalFile;
         this.overflowDirectory = new File(journalFile.getParentFile(), "overflow-" + getBaseFilename(journalFile));
         this.serdeFactory = serdeFactory;
@@ -93,6 +123,9 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         this.initialTransactionId = initialTransactionId;
         this.currentTransactionId = initialTransactionId;
         this.maxInHeapSerializationBytes = maxInHeapSerializationBytes;
+        this.groupCommitWindowNanos = groupCommitWindowNanos;
+        this.groupCommitStatistics = groupCommitStatistics;
+        this.syncedTransactionId = initialTransactionId - 1;
     }
 
     public void dispose() {
@@ -214,12 +247,13 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                 + " of the serializer/deserializer but this version of the code only understands version " + serde.getVersion() + " and below");
         }
 
+        // Retain the SerDe header so that additional SerDe instances can be created to deserialize transactions concurrently
         final int serdeHeaderLength = in.readInt();
-        final InputStream serdeHeaderIn = new LimitingInputStream(in, serdeHeaderLength);
-        final DataInputStream dis = new DataInputStream(serdeHeaderIn);
-        serde.readHeader(dis);
+        final byte[] serdeHeader = new byte[serdeHeaderLength];
+        in.readFully(serdeHeader);
+        serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
 
-        return new SerDeAndVersion(serde, serdeVersion);
+        return new SerDeAndVersion(serde, serdeClassName, serdeVersion, serdeHeader);
     }
 
 
@@ -375,16 +409,65 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         }
     }
 
+    /**
+     * Ensures that all transactions that have been written to the journal are durable. Rather than each caller syncing the journal to disk,
+     * callers are serialized on a separate lock, so that the journal can continue to be updated while an fsync is in progress. A caller whose
+     * transactions were already made durable by an fsync that was performed by another thread returns without syncing the journal again. As a
+     * result, many concurrent updates are made durable by a single fsync (group commit).
+     */
     @Override
-    public synchronized void fsync() throws IOException {
+    public void fsync() throws IOException {
         checkState();
 
+        final long startNanos = System.nanoTime();
+        final long targetTransactionId;
+        synchronized (this) {
+            targetTransactionId = currentTransactionId - 1;
+        }
+
+        if (syncedTransactionId >= targetTransactionId) {
+            groupCommitStatistics.recordWait(System.nanoTime() - startNanos);
+            return;
+        }
+
+        syncLock.lock();
         try {
-            if (fileOut != null) {
-                fileOut.getChannel().force(false);
+            if (syncedTransactionId >= targetTransactionId) {
+                return;
             }
-        } catch (final IOException ioe) {
-            poison(ioe);
+
+            checkState();
+
+            // Give other threads that are updating the journal a chance to write their transactions so that they can be synced along with ours.
+            if (groupCommitWindowNanos > 0) {
+                LockSupport.parkNanos(groupCommitWindowNanos);
+            }
+
+            final long lastWrittenTransactionId;
+            final FileOutputStream out;
+            synchronized (this) {
+                checkState();
+                lastWrittenTransactionId = currentTransactionId - 1;
+                out = fileOut;
+            }
+
+            try {
+                if (out != null) {
+                    out.getChannel().force(false);
+                }
+            } catch (final IOException ioe) {
+                synchronized (this) {
+                    poison(ioe);
+                }
+
+                return;
+            }
+
+            groupCommitStatistics.recordSync(lastWrittenTransactionId - syncedTransactionId);
+            syncedTransactionId = lastWrittenTransactionId;
+        } finally {
+            syncLock.unlock();
+            groupCommitStatistics.recordWait(System.nanoTime() - startNanos);
         }
     }
 
@@ -411,11 +494,41 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     @Override
     public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
-        long maxTransactionId = -1L;
-        int updateCount = 0;
+        return recoverRecords(recordMap, swapLocations, 1);
+    }
 
-        boolean eofException = false;
+    @Override
+    public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations, final int recoveryThreads) throws IOException {
         logger.info("Recovering records from journal {}", journalFile);
+        final long startNanos = System.nanoTime();
+        final RecoveryState recoveryState = new RecoveryState();
+
+        if (recoveryThreads > 1 && isConcurrentDeserializationSupported()) {
+            recoverConcurrently(recordMap, swapLocations, recoveryThreads, recoveryState);
+        } else {
+            recoverSequentially(recordMap, swapLocations, 0L, recoveryState);
+        }
+
+        logger.info("Successfully recovered {} updates from journal {} in {} milliseconds", recoveryState.updateCount, journalFile,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return new StandardJournalRecovery(recoveryState.updateCount, recoveryState.maxTransactionId, recoveryState.eofException);
+    }
+
+    private boolean isConcurrentDeserializationSupported() throws IOException {
+        try (final InputStream fis = new FileInputStream(journalFile);
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(fis))) {
+            return validateHeader(in).getSerDe().isConcurrentDeserializationSupported();
+        } catch (final EOFException eof) {
+            // The header is incomplete, which will be handled by the sequential recovery.
+            return false;
+        }
+    }
+
+    /**
+     * Recovers the records from the journal on the calling thread, beginning with the transaction at the given offset, or with the first transaction if
+     * the offset is 0.
+     */
+    private void recoverSequentially(final Map<Object, T> recordMap, final Set<String> swapLocations, final long startOffset, final RecoveryState recoveryState) throws IOException {
         final double journalLength = journalFile.length();
 
         try (final InputStream fis = new FileInputStream(journalFile);
@@ -428,6 +541,9 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                 final SerDeAndVersion serdeAndVersion = validateHeader(in);
                 final SerDe<T> serde = serdeAndVersion.getSerDe();
 
+                // Skip any transactions that have already been recovered
+                StreamUtils.skip(in, startOffset - byteCountingIn.getBytesConsumed());
+
                 // Ensure that we get a valid transaction indicator
                 int transactionIndicator = in.read();
                 if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
@@ -435,30 +551,22 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                         + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
                 }
 
-                long consumedAtLog = 0L;
+                long consumedAtLog = byteCountingIn.getBytesConsumed();
 
                 // We don't want to apply the updates in a transaction until we've finished recovering the entire
                 // transaction. Otherwise, we could apply say 8 out of 10 updates and then hit an EOF. In such a case,
                 // we want to rollback the entire transaction. We handle this by not updating recordMap or swapLocations
                 // variables directly but instead keeping track of the things that occurred and then once we've read the
                 // entire transaction, we can apply those updates to the recordMap and swapLocations.
-                final Map<Object, T> transactionRecordMap = new HashMap<>();
-                final Set<Object> idsRemoved = new HashSet<>();
-                final Set<String> swapLocationsRemoved = new HashSet<>();
-                final Set<String> swapLocationsAdded = new HashSet<>();
-                int transactionUpdates = 0;
+                final TransactionUpdates transactionUpdates = new TransactionUpdates(serde);
 
                 // While we have a transaction to recover, recover it
                 while (transactionIndicator == TRANSACTION_FOLLOWS) {
-                    transactionRecordMap.clear();
-                    idsRemoved.clear();
-                    swapLocationsRemoved.clear();
-                    swapLocationsAdded.clear();
-                    transactionUpdates = 0;
+                    transactionUpdates.clear();
 
                     // Format is <Transaction ID: 8 bytes> <Transaction Length: 4 bytes> <Transaction data: # of bytes indicated by Transaction Length Field>
                     final long transactionId = in.readLong();
-                    maxTransactionId = Math.max(maxTransactionId, transactionId);
+                    recoveryState.maxTransactionId = Math.max(recoveryState.maxTransactionId, transactionId);
                     final int transactionLength = in.readInt();
 
                     // Use SerDe to deserialize the update. We use a LimitingInputStream to ensure that the SerDe is not able to read past its intended
@@ -472,57 +580,12 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                         final T record = serde.deserializeEdit(transactionDis, recordMap, serdeAndVersion.getVersion());
 
                         // Update our RecordMap so that we have the most up-to-date version of the Record.
-                        final Object recordId = serde.getRecordIdentifier(record);
-                        final UpdateType updateType = serde.getUpdateType(record);
-
-                        switch (updateType) {
-                            case DELETE: {
-                                idsRemoved.add(recordId);
-                                transactionRecordMap.remove(recordId);
-                                break;
-                            }
-                            case SWAP_IN: {
-                                final String location = serde.getLocation(record);
-                                if (location == null) {
-                                    logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
-                                } else {
-                                    swapLocationsRemoved.add(location);
-                                    swapLocationsAdded.remove(location);
-                                    transactionRecordMap.put(recordId, record);
-                                }
-                                break;
-                            }
-                            case SWAP_OUT: {
-                                final String location = serde.getLocation(record);
-                                if (location == null) {
-                                    logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
-                                } else {
-                                    swapLocationsRemoved.remove(location);
-                                    swapLocationsAdded.add(location);
-                                    idsRemoved.add(recordId);
-                                    transactionRecordMap.remove(recordId);
-                                }
-
-                                break;
-                            }
-                            default: {
-                                transactionRecordMap.put(recordId, record);
-                                idsRemoved.remove(recordId);
-                                break;
-                            }
-                        }
-
-                        transactionUpdates++;
+                        transactionUpdates.add(record);
                     }
 
                     // Apply the transaction
-                    for (final Object id : idsRemoved) {
-                        recordMap.remove(id);
-                    }
-                    recordMap.putAll(transactionRecordMap);
-                    swapLocations.removeAll(swapLocationsRemoved);
-                    swapLocations.addAll(swapLocationsAdded);
-                    updateCount += transactionUpdates;
+                    transactionUpdates.apply(recordMap, swapLocations);
+                    recoveryState.updateCount += transactionUpdates.getUpdateCount();
 
                     // Check if there is another transaction to read
                     transactionIndicator = in.read();
@@ -536,14 +599,12 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                     // NiFi has become "stuck".
                     final long consumed = byteCountingIn.getBytesConsumed();
                     if (consumed - consumedAtLog > 50_000_000) {
-                        final double percentage = consumed / journalLength * 100D;
-                        final String pct = new DecimalFormat("#.00").format(percentage);
-                        logger.info("{}% of the way finished recovering journal {}, having recovered {} updates", pct, journalFile, updateCount);
+                        logProgress(consumed, journalLength, recoveryState.updateCount);
                         consumedAtLog = consumed;
                     }
                 }
             } catch (final EOFException eof) {
-                eofException = true;
+                recoveryState.eofException = true;
                 logger.warn("Encountered unexpected End-of-File when reading journal file {}; assuming that NiFi was shutdown unexpectedly and continuing recovery", journalFile);
             } catch (final Exception e) {
                 // If the stream consists solely of NUL bytes, then we want to treat it
@@ -559,9 +620,138 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
                 }
             }
         }
+    }
+
+    /**
+     * Recovers the records from the journal by reading the transactions on the calling thread and deserializing them, in batches, on a pool of
+     * threads. The transactions are applied in the order in which they were written. If any transaction cannot be deserialized, the transactions
+     * that precede it are applied and the remainder of the journal is recovered sequentially, so that an incomplete or corrupt journal is handled
+     * exactly as it would be had the journal been recovered sequentially from the start.
+     */
+    private void recoverConcurrently(final Map<Object, T> recordMap, final Set<String> swapLocations, final int recoveryThreads, final RecoveryState recoveryState)
+            throws IOException {
+        final double journalLength = journalFile.length();
+
+        // The offset of the first transaction that could not be deserialized, or -1 if all transactions have been deserialized
+        final long[] fallbackOffset = new long[] {-1L};
+        long maxTransactionIdRead = -1L;
+
+        try (final InputStream fis = new FileInputStream(journalFile);
+            final InputStream bufferedIn = new BufferedInputStream(fis);
+            final ByteCountingInputStream byteCountingIn = new ByteCountingInputStream(bufferedIn);
+            final DataInputStream in = new DataInputStream(byteCountingIn);
+            final OrderedParallelDecoder<TransactionBatch> decoder = new OrderedParallelDecoder<>(recoveryThreads, batch -> {
+                if (fallbackOffset[0] >= 0) {
+                    return;
+                }
+
+                for (final TransactionUpdates transactionUpdates : batch.getDecodedTransactions()) {
+                    transactionUpdates.apply(recordMap, swapLocations);
+                    recoveryState.updateCount += transactionUpdates.getUpdateCount();
+                    recoveryState.maxTransactionId = Math.max(recoveryState.maxTransactionId, transactionUpdates.getTransactionId());
+                }
 
-        logger.info("Successfully recovered {} updates from journal {}", updateCount, journalFile);
-        return new StandardJournalRecovery(updateCount, maxTransactionId, eofException);
+                if (batch.getFailureOffset() >= 0) {
+                    logger.debug("Failed to deserialize transaction at offset {} of journal {}; will recover the remainder of the journal sequentially",
+                        batch.getFailureOffset(), journalFile, batch.getFailure());
+                    fallbackOffset[0] = batch.getFailureOffset();
+                }
+            })) {
+
+            final SerDeAndVersion serdeAndVersion = validateHeader(in);
+            TransactionBatch batch = new TransactionBatch();
+
+            try {
+                int transactionIndicator = in.read();
+                if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
+                    throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
+                        + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
+                }
+
+                long consumedAtLog = 0L;
+
+                while (transactionIndicator == TRANSACTION_FOLLOWS && fallbackOffset[0] < 0) {
+                    final long transactionOffset = byteCountingIn.getBytesConsumed() - 1;
+                    final long transactionId = in.readLong();
+                    maxTransactionIdRead = Math.max(maxTransactionIdRead, transactionId);
+                    final int transactionLength = in.readInt();
+
+                    final byte[] transactionBytes = new byte[transactionLength];
+                    in.readFully(transactionBytes);
+                    batch.addTransaction(transactionOffset, transactionId, transactionBytes);
+
+                    if (batch.getByteCount() >= TRANSACTION_BATCH_SIZE) {
+                        submit(decoder, batch, serdeAndVersion);
+                        batch = new TransactionBatch();
+                    }
+
+                    transactionIndicator = in.read();
+                    if (transactionIndicator != TRANSACTION_FOLLOWS && transactionIndicator != JOURNAL_COMPLETE && transactionIndicator != -1) {
+                        throw new IOException("After reading " + byteCountingIn.getBytesConsumed() + " bytes from " + journalFile + ", encountered unexpected value of "
+                            + transactionIndicator + " for the Transaction Indicator. This journal may have been corrupted.");
+                    }
+
+                    final long consumed = byteCountingIn.getBytesConsumed();
+                    if (consumed - consumedAtLog > 50_000_000) {
+                        logProgress(consumed, journalLength, recoveryState.updateCount);
+                        consumedAtLog = consumed;
+                    }
+                }
+
+                submit(decoder, batch, serdeAndVersion);
+                batch = new TransactionBatch();
+                decoder.finish();
+            } catch (final EOFException eof) {
+                // Apply the transactions that were read completely. If any could not be deserialized, the sequential recovery will encounter the EOF itself.
+                submit(decoder, batch, serdeAndVersion);
+                decoder.finish();
+                if (fallbackOffset[0] < 0) {
+                    recoveryState.eofException = true;
+                    logger.warn("Encountered unexpected End-of-File when reading journal file {}; assuming that NiFi was shutdown unexpectedly and continuing recovery", journalFile);
+                }
+            } catch (final InterruptedIOException iioe) {
+                throw iioe;
+            } catch (final Exception e) {
+                submit(decoder, batch, serdeAndVersion);
+                decoder.finish();
+                if (fallbackOffset[0] < 0) {
+                    if (remainingBytesAllNul(in)) {
+                        logger.warn("Failed to recover some of the data from Write-Ahead Log Journal because encountered trailing NUL bytes. "
+                            + "This will sometimes happen after a sudden power loss. The rest of this journal file will be skipped for recovery purposes."
+                            + "The following Exception was encountered while recovering the updates to the journal:", e);
+                    } else {
+                        throw e;
+                    }
+                }
+            }
+        }
+
+        if (fallbackOffset[0] >= 0) {
+            recoverSequentially(recordMap, swapLocations, fallbackOffset[0], recoveryState);
+        } else {
+            // Include the ID of any transaction whose header was read but whose data was not, as sequential recovery would.
+            recoveryState.maxTransactionId = Math.max(recoveryState.maxTransactionId, maxTransactionIdRead);
+        }
+    }
+
+    private void submit(final OrderedParallelDecoder<TransactionBatch> decoder, final TransactionBatch batch, final SerDeAndVersion serdeAndVersion) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        decoder.submit(() -> {
+            // Each batch is deserialized by its own SerDe, which must first read the header of the journal.
+            final SerDe<T> serde = serdeFactory.createSerDe(serdeAndVersion.getSerDeClassName());
+            serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeAndVersion.getSerDeHeader())));
+            batch.decode(serde, serdeAndVersion.getVersion());
+            return batch;
+        });
+    }
+
+    private void logProgress(final long consumed, final double journalLength, final int updateCount) {
+        final double percentage = consumed / journalLength * 100D;
+        final String pct = new DecimalFormat("#.00").format(percentage);
+        logger.info("{}% of the way finished recovering journal {}, having recovered {} updates", pct, journalFile, updateCount);
     }
 
     /**
@@ -597,19 +787,195 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     private class SerDeAndVersion {
         private final SerDe<T> serde;
+        private final String serdeClassName;
         private final int version;
+        private final byte[] serdeHeader;
 
-        public SerDeAndVersion(final SerDe<T> serde, final int version) {
+        public SerDeAndVersion(final SerDe<T> serde, final String serdeClassName, final int version, final byte[] serdeHeader) {
             this.serde = serde;
+            this.serdeClassName = serdeClassName;
             this.version = version;
+            this.serdeHeader = serdeHeader;
         }
 
         public SerDe<T> getSerDe() {
             return serde;
         }
 
+        public String getSerDeClassName() {
+            return serdeClassName;
+        }
+
         public int getVersion() {
             return version;
         }
+
+        public byte[] getSerDeHeader() {
+            return serdeHeader;
+        }
+    }
+
+    private static class RecoveryState {
+        private long maxTransactionId = -1L;
+        private int updateCount = 0;
+        private boolean eofException = false;
+    }
+
+    /**
+     * The updates that were recovered from a single transaction. The updates are not applied to the record map or the swap locations until the
+     * entire transaction has been recovered, so that an incomplete transaction can be rolled back.
+     */
+    private class TransactionUpdates {
+        private final SerDe<T> serde;
+        private final Map<Object, T> transactionRecordMap = new HashMap<>();
+        private final Set<Object> idsRemoved = new HashSet<>();
+        private final Set<String> swapLocationsRemoved = new HashSet<>();
+        private final Set<String> swapLocationsAdded = new HashSet<>();
+        private long transactionId = -1L;
+        private int updateCount = 0;
+
+        TransactionUpdates(final SerDe<T> serde) {
+            this.serde = serde;
+        }
+
+        void clear() {
+            transactionRecordMap.clear();
+            idsRemoved.clear();
+            swapLocationsRemoved.clear();
+            swapLocationsAdded.clear();
+            updateCount = 0;
+        }
+
+        void add(final T record) {
+            final Object recordId = serde.getRecordIdentifier(record);
+            final UpdateType updateType = serde.getUpdateType(record);
+
+            switch (updateType) {
+                case DELETE: {
+                    idsRemoved.add(recordId);
+                    transactionRecordMap.remove(recordId);
+                    break;
+                }
+                case SWAP_IN: {
+                    final String location = serde.getLocation(record);
+                    if (location == null) {
+                        logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
+                    } else {
+                        swapLocationsRemoved.add(location);
+                        swapLocationsAdded.remove(location);
+                        transactionRecordMap.put(recordId, record);
+                    }
+                    break;
+                }
+                case SWAP_OUT: {
+                    final String location = serde.getLocation(record);
+                    if (location == null) {
+                        logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
+                    } else {
+                        swapLocationsRemoved.remove(location);
+                        swapLocationsAdded.add(location);
+                        idsRemoved.add(recordId);
+                        transactionRecordMap.remove(recordId);
+                    }
+
+                    break;
+                }
+                default: {
+                    transactionRecordMap.put(recordId, record);
+                    idsRemoved.remove(recordId);
+                    break;
+                }
+            }
+
+            updateCount++;
+        }
+
+        void apply(final Map<Object, T> recordMap, final Set<String> swapLocations) {
+            for (final Object id : idsRemoved) {
+                recordMap.remove(id);
+            }
+            recordMap.putAll(transactionRecordMap);
+            swapLocations.removeAll(swapLocationsRemoved);
+            swapLocations.addAll(swapLocationsAdded);
+        }
+
+        long getTransactionId() {
+            return transactionId;
+        }
+
+        int getUpdateCount() {
+            return updateCount;
+        }
+    }
+
+    /**
+     * A batch of consecutive transactions that were read from the journal, to be deserialized together
+     */
+    private class TransactionBatch {
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Long> transactionIds = new ArrayList<>();
+        private final List<byte[]> transactions = new ArrayList<>();
+        private final List<TransactionUpdates> decodedTransactions = new ArrayList<>();
+        private long byteCount = 0L;
+        private long failureOffset = -1L;
+        private Exception failure;
+
+        void addTransaction(final long offset, final long transactionId, final byte[] transaction) {
+            offsets.add(offset);
+            transactionIds.add(transactionId);
+            transactions.add(transaction);
+            byteCount += transaction.length;
+        }
+
+        boolean isEmpty() {
+            return transactions.isEmpty();
+        }
+
+        long getByteCount() {
+            return byteCount;
+        }
+
+        /**
+         * Deserializes the transactions in this batch, stopping at the first transaction that cannot be deserialized
+         */
+        void decode(final SerDe<T> serde, final int serdeVersion) {
+            final Map<Object, T> emptyRecordMap = Collections.emptyMap();
+
+            for (int i = 0; i < transactions.size(); i++) {
+                final byte[] transaction = transactions.get(i);
+                final TransactionUpdates transactionUpdates = new TransactionUpdates(serde);
+                transactionUpdates.transactionId = transactionIds.get(i);
+
+                try {
+                    final ByteCountingInputStream transactionByteCountingIn = new ByteCountingInputStream(new ByteArrayInputStream(transaction));
+                    final DataInputStream transactionDis = new DataInputStream(transactionByteCountingIn);
+
+                    while (transactionByteCountingIn.getBytesConsumed() < transaction.length || serde.isMoreInExternalFile()) {
+                        transactionUpdates.add(serde.deserializeEdit(transactionDis, emptyRecordMap, serdeVersion));
+                    }
+                } catch (final Exception e) {
+                    failureOffset = offsets.get(i);
+                    failure = e;
+                    break;
+                }
+
+                decodedTransactions.add(transactionUpdates);
+            }
+
+            // The serialized transactions are no longer needed
+            transactions.clear();
+        }
+
+        List<TransactionUpdates> getDecodedTransactions() {
+            return decodedTransactions;
+        }
+
+        long getFailureOffset() {
+            return failureOffset;
+        }
+
+        Exception getFailure() {
+            return failure;
+        }
     }
 }
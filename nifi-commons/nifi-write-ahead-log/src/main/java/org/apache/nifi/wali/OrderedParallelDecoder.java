@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes blocks of data on a pool of threads, handing each decoded result to a consumer on the calling thread in the same order in which
+ * the blocks were submitted. This allows the expensive work of deserializing records to be spread across threads during recovery, while
+ * the records are still applied in the order in which they were written. The number of blocks that may be decoded ahead of the consumer is
+ * bounded, so that the amount of memory used does not depend on the size of the data being recovered.
+ *
+ * If only a single thread is to be used, each block is decoded on the calling thread when it is submitted.
+ */
+class OrderedParallelDecoder<R> implements Closeable {
+    private static final AtomicInteger threadCounter = new AtomicInteger(0);
+
+    private final ExecutorService executor;
+    private final ResultConsumer<R> consumer;
+    private final int maxPending;
+    private final Deque<Future<R>> pending = new ArrayDeque<>();
+
+    OrderedParallelDecoder(final int threads, final ResultConsumer<R> consumer) {
+        this.consumer = consumer;
+
+        if (threads > 1) {
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "Write-Ahead Log Recovery Thread-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.maxPending = threads * 2;
+        } else {
+            this.executor = null;
+            this.maxPending = 0;
+        }
+    }
+
+    /**
+     * Submits a block to be decoded. If the maximum number of blocks are already waiting to be consumed, the oldest are consumed first.
+     *
+     * @param task the task that decodes the block
+     * @throws IOException if unable to decode a block or the consumer fails to consume the result
+     */
+    void submit(final DecodeTask<R> task) throws IOException {
+        if (executor == null) {
+            consumer.accept(task.decode());
+            return;
+        }
+
+        while (pending.size() >= maxPending) {
+            consumeNext();
+        }
+
+        pending.add(executor.submit(task::decode));
+    }
+
+    /**
+     * Waits for all submitted blocks to be decoded and consumed
+     *
+     * @throws IOException if unable to decode a block or the consumer fails to consume the result
+     */
+    void finish() throws IOException {
+        while (!pending.isEmpty()) {
+            consumeNext();
+        }
+    }
+
+    private void consumeNext() throws IOException {
+        final Future<R> future = pending.poll();
+
+        final R result;
+        try {
+            result = future.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for records to be decoded");
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException("Failed to decode records", cause);
+        }
+
+        consumer.accept(result);
+    }
+
+    @Override
+    public void close() {
+        for (final Future<R> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    interface DecodeTask<R> {
+        R decode() throws IOException;
+    }
+
+    interface ResultConsumer<R> {
+        void accept(R result) throws IOException;
+    }
+}
@@ -66,6 +66,9 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     protected final SerDeFactory<T> serdeFactory;
     private final SyncListener syncListener;
     private final Set<String> recoveredSwapLocations = new HashSet<>();
+    private final long groupCommitWindowNanos;
+    private final int recoveryThreads;
+    private final GroupCommitStatistics groupCommitStatistics = new GroupCommitStatistics();
 
     private final ReadWriteLock journalRWLock = new ReentrantReadWriteLock();
     private final Lock journalReadLock = journalRWLock.readLock();
@@ -88,6 +91,22 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     }
 
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, 0L, 0, 1, false);
+    }
+
+    /**
+     * @param groupCommitWindowNanos when an update must be synced to disk, the amount of time to wait before syncing, so that updates from other threads
+     *            can be made durable by the same fsync. A value of 0 means that the journal is synced immediately, though concurrent updates are still made
+     *            durable together when one thread's fsync is in progress while others are waiting.
+     * @param maxIncrementalSnapshots the maximum number of checkpoints that write only the records that have changed since the previous checkpoint, before a
+     *            checkpoint writes all records again. A value of 0 means that every checkpoint writes all records.
+     * @param recoveryThreads the maximum number of threads to use for deserializing records from the snapshot and journals on recovery. Records are deserialized
+     *            concurrently only if the SerDe supports it, and are always applied in the order in which they were written.
+     * @param parallelSnapshotEnabled whether or not snapshots are written in the block encoding that allows them, and not only the journals, to be deserialized
+     *            concurrently. Versions of NiFi that predate the block encoding cannot read such snapshots.
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener, final long groupCommitWindowNanos,
+                                         final int maxIncrementalSnapshots, final int recoveryThreads, final boolean parallelSnapshotEnabled) throws IOException {
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new IOException("Directory " + storageDirectory + " does not exist and cannot be created");
         }
@@ -95,9 +114,18 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IOException("File " + storageDirectory + " is a regular file and not a directory");
         }
 
-        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
-        this.snapshot = hashMapSnapshot;
-        this.recordLookup = hashMapSnapshot;
+        // If incremental snapshots were written previously, they must be recovered by the IncrementalHashMapSnapshot even if
+        // they are no longer enabled. It will write all records on the first checkpoint, after which the HashMapSnapshot can be used again.
+        if (maxIncrementalSnapshots > 0 || IncrementalHashMapSnapshot.hasDeltaSnapshots(storageDirectory)) {
+            final IncrementalHashMapSnapshot<T> incrementalSnapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, maxIncrementalSnapshots, recoveryThreads,
+                parallelSnapshotEnabled);
+            this.snapshot = incrementalSnapshot;
+            this.recordLookup = incrementalSnapshot;
+        } else {
+            final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, recoveryThreads, parallelSnapshotEnabled);
+            this.snapshot = hashMapSnapshot;
+            this.recordLookup = hashMapSnapshot;
+        }
 
         this.storageDirectory = storageDirectory;
         this.journalsDirectory = new File(storageDirectory, "journals");
@@ -109,6 +137,8 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.serdeFactory = serdeFactory;
         this.syncListener = (syncListener == null) ? SyncListener.NOP_SYNC_LISTENER : syncListener;
+        this.groupCommitWindowNanos = groupCommitWindowNanos;
+        this.recoveryThreads = Math.max(1, recoveryThreads);
     }
 
     @Override
@@ -140,7 +170,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IllegalStateException("Cannot recover records from repository because record recovery has already commenced");
         }
 
-        logger.info("Recovering records from Write-Ahead Log at {}", storageDirectory);
+        logger.info("Recovering records from Write-Ahead Log at {} using up to {} threads", storageDirectory, recoveryThreads);
 
         final long recoverStart = System.nanoTime();
         recovered = true;
@@ -177,6 +207,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         });
 
         final long snapshotTransactionId = snapshotRecovery.getMaxTransactionId();
+        final long journalRecoveryStart = System.nanoTime();
 
         int totalUpdates = 0;
         int journalFilesRecovered = 0;
@@ -197,7 +228,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             journalFilesRecovered++;
 
             try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
-                final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations);
+                final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations, recoveryThreads);
                 final int updates = journalRecovery.getUpdateCount();
 
                 logger.debug("Recovered {} updates from journal {}", updates, journalFile);
@@ -206,8 +237,9 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             }
         }
 
-        logger.debug("Recovered {} updates from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
-            totalUpdates, journalFilesRecovered, journalFilesSkipped);
+        final long journalRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - journalRecoveryStart);
+        logger.info("Recovered {} updates from {} journal files in {} milliseconds and skipped {} journal files because their data was already encapsulated in the snapshot",
+            totalUpdates, journalFilesRecovered, journalRecoveryMillis, journalFilesSkipped);
         this.nextTransactionId = maxTransactionId + 1;
 
         final long recoverNanos = System.nanoTime() - recoverStart;
@@ -216,7 +248,10 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.recoveredSwapLocations.addAll(swapLocations);
 
+        final long checkpointStart = System.nanoTime();
         checkpoint(this.recoveredSwapLocations);
+        logger.info("Completed recovery of Write-Ahead Log at {}: recovered Snapshot in {} milliseconds, journals in {} milliseconds and checkpointed in {} milliseconds",
+            storageDirectory, snapshotRecoveryMillis, journalRecoveryMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - checkpointStart));
 
         return recoveredRecords.values();
     }
@@ -245,6 +280,13 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         return Collections.unmodifiableSet(this.recoveredSwapLocations);
     }
 
+    /**
+     * @return statistics about how updates to the journal have been synced to disk
+     */
+    public GroupCommitStatistics getGroupCommitStatistics() {
+        return groupCommitStatistics;
+    }
+
     public SnapshotCapture<T> captureSnapshot() {
         return snapshot.prepareSnapshot(nextTransactionId - 1);
     }
@@ -305,7 +347,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
                 journalFile = new File(journalsDirectory, nextTransactionId + ".journal");
             }
 
-            journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, nextTransactionId);
+            journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, nextTransactionId, groupCommitWindowNanos, groupCommitStatistics);
             journal.writeHeader();
 
             logger.debug("Created new Journal starting with Transaction ID {}", nextTransactionId);
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wali.SerDe;
+import org.wali.SerDeFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Reads and writes the records of a snapshot file. Beginning with version 2 of the snapshot encoding, the SerDe header is written with a length
+ * prefix and the records are written in blocks, each of which is prefixed by the number of records that it contains and its length in bytes.
+ * This allows the blocks to be read from the file sequentially and then deserialized concurrently, by separate SerDe instances that have each
+ * read the same header, if the SerDe {@link SerDe#isConcurrentDeserializationSupported() supports} doing so.
+ * </p>
+ *
+ * <p>
+ * Snapshots that were written using version 1 of the encoding contain a single, unframed sequence of records and are always read sequentially.
+ * Versions of NiFi that predate the block encoding cannot read version 2, so version 1 is still written unless the block encoding is explicitly
+ * enabled and the SerDe is able to make use of it.
+ * </p>
+ */
+final class SnapshotRecordBlocks {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotRecordBlocks.class);
+
+    /**
+     * The version of the snapshot encoding, for both the HashMapSnapshot and the IncrementalHashMapSnapshot, that writes records in a single sequence
+     */
+    static final int SEQUENTIAL_ENCODING_VERSION = 1;
+
+    /**
+     * The first version of the snapshot encoding, for both the HashMapSnapshot and the IncrementalHashMapSnapshot, that writes records in blocks
+     */
+    static final int FIRST_BLOCK_ENCODING_VERSION = 2;
+
+    private static final int TARGET_BLOCK_SIZE = 1024 * 1024;
+    private static final int PROGRESS_LOG_INTERVAL = 1_000_000;
+
+    private SnapshotRecordBlocks() {
+    }
+
+    /**
+     * Determines the version of the snapshot encoding to write records with
+     *
+     * @param serde the SerDe that the records are written with
+     * @param blockEncodingEnabled whether or not the block encoding may be used
+     * @return the block encoding version if it is enabled and the SerDe supports deserializing records concurrently, otherwise the sequential encoding version
+     */
+    static int getEncodingVersion(final SerDe<?> serde, final boolean blockEncodingEnabled) {
+        return blockEncodingEnabled && serde.isConcurrentDeserializationSupported() ? FIRST_BLOCK_ENCODING_VERSION : SEQUENTIAL_ENCODING_VERSION;
+    }
+
+    /**
+     * Writes the SerDe header and the given records to the given stream, in blocks if the given encoding version supports them
+     */
+    static <T> void writeRecords(final SerDe<T> serde, final Collection<T> records, final int encodingVersion, final DataOutputStream dataOut) throws IOException {
+        if (encodingVersion < FIRST_BLOCK_ENCODING_VERSION) {
+            serde.writeHeader(dataOut);
+
+            for (final T record : records) {
+                logger.trace("Checkpointing {}", record);
+                serde.serializeRecord(record, dataOut);
+            }
+
+            return;
+        }
+
+        final ByteArrayDataOutputStream blockOut = new ByteArrayDataOutputStream(TARGET_BLOCK_SIZE + 64 * 1024);
+        serde.writeHeader(blockOut.getDataOutputStream());
+        writeBlock(blockOut, -1, dataOut);
+
+        int blockRecordCount = 0;
+        for (final T record : records) {
+            logger.trace("Checkpointing {}", record);
+            serde.serializeRecord(record, blockOut.getDataOutputStream());
+            blockRecordCount++;
+
+            if (blockOut.getByteArrayOutputStream().size() >= TARGET_BLOCK_SIZE) {
+                writeBlock(blockOut, blockRecordCount, dataOut);
+                blockRecordCount = 0;
+            }
+        }
+
+        if (blockRecordCount > 0) {
+            writeBlock(blockOut, blockRecordCount, dataOut);
+        }
+    }
+
+    private static void writeBlock(final ByteArrayDataOutputStream blockOut, final int recordCount, final DataOutputStream dataOut) throws IOException {
+        // The SerDe header is written with only a length prefix.
+        if (recordCount >= 0) {
+            dataOut.writeInt(recordCount);
+        }
+
+        dataOut.writeInt(blockOut.getByteArrayOutputStream().size());
+        blockOut.getByteArrayOutputStream().writeTo(dataOut);
+        blockOut.getByteArrayOutputStream().reset();
+    }
+
+    /**
+     * Reads the SerDe header and the given number of records from the given stream, handing each record to the given consumer in the order in
+     * which the records were written.
+     *
+     * @param dataIn the stream to read from, positioned immediately after the snapshot header
+     * @param snapshotFile the file that is being read, used for logging
+     * @param snapshotVersion the version of the snapshot encoding that the file was written with
+     * @param serdeFactory the factory to use for creating SerDe instances
+     * @param serdeEncoding the SerDe encoding that the file was written with
+     * @param serdeVersion the SerDe version that the file was written with
+     * @param numRecords the number of records in the file
+     * @param recoveryThreads the maximum number of threads to use for deserializing records
+     * @param consumer the consumer of the records
+     * @throws IOException if unable to read the records
+     */
+    static <T> void readRecords(final DataInputStream dataIn, final File snapshotFile, final int snapshotVersion, final SerDeFactory<T> serdeFactory, final String serdeEncoding,
+                                final int serdeVersion, final int numRecords, final int recoveryThreads, final RecordConsumer<T> consumer) throws IOException {
+        final long startNanos = System.nanoTime();
+
+        if (snapshotVersion < FIRST_BLOCK_ENCODING_VERSION) {
+            final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
+            serde.readHeader(dataIn);
+
+            for (int i = 0; i < numRecords; i++) {
+                final T record = serde.deserializeRecord(dataIn, serdeVersion);
+                if (record == null) {
+                    throw new EOFException("Expected " + numRecords + " records in Write-Ahead Log Snapshot file " + snapshotFile + " but found only " + i);
+                }
+
+                consumer.accept(record);
+                logProgress(snapshotFile, i + 1, numRecords);
+            }
+        } else {
+            final byte[] serdeHeader = new byte[dataIn.readInt()];
+            dataIn.readFully(serdeHeader);
+
+            final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
+            serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
+
+            // If the records cannot be deserialized concurrently, each block is deserialized on this thread by the one SerDe.
+            final boolean concurrent = recoveryThreads > 1 && serde.isConcurrentDeserializationSupported();
+            final int[] recordsConsumed = new int[1];
+
+            try (final OrderedParallelDecoder<List<T>> decoder = new OrderedParallelDecoder<>(concurrent ? recoveryThreads : 1, records -> {
+                for (final T record : records) {
+                    consumer.accept(record);
+                    logProgress(snapshotFile, ++recordsConsumed[0], numRecords);
+                }
+            })) {
+                int recordsRead = 0;
+                while (recordsRead < numRecords) {
+                    final int blockRecordCount = dataIn.readInt();
+                    final byte[] block = new byte[dataIn.readInt()];
+                    dataIn.readFully(block);
+                    recordsRead += blockRecordCount;
+
+                    decoder.submit(() -> {
+                        final SerDe<T> blockSerde;
+                        if (concurrent) {
+                            blockSerde = serdeFactory.createSerDe(serdeEncoding);
+                            blockSerde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
+                        } else {
+                            blockSerde = serde;
+                        }
+
+                        return readBlock(blockSerde, block, blockRecordCount, serdeVersion, snapshotFile);
+                    });
+                }
+
+                decoder.finish();
+            }
+        }
+
+        logger.debug("Deserialized {} records from Write-Ahead Log Snapshot file {} in {} milliseconds", numRecords, snapshotFile,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private static <T> List<T> readBlock(final SerDe<T> serde, final byte[] block, final int recordCount, final int serdeVersion, final File snapshotFile) throws IOException {
+        final List<T> records = new ArrayList<>(recordCount);
+        final DataInputStream blockIn = new DataInputStream(new ByteArrayInputStream(block));
+
+        for (int i = 0; i < recordCount; i++) {
+            final T record = serde.deserializeRecord(blockIn, serdeVersion);
+            if (record == null) {
+                throw new EOFException("Expected " + recordCount + " records in block of Write-Ahead Log Snapshot file " + snapshotFile + " but found only " + i);
+            }
+
+            records.add(record);
+        }
+
+        return records;
+    }
+
+    private static void logProgress(final File snapshotFile, final int recordsRecovered, final int numRecords) {
+        if (recordsRecovered % PROGRESS_LOG_INTERVAL == 0) {
+            logger.info("Recovered {} of {} records ({}%) from Write-Ahead Log Snapshot file {}", recordsRecovered, numRecords,
+                (int) (recordsRecovered * 100L / numRecords), snapshotFile);
+        }
+    }
+
+    interface RecordConsumer<T> {
+        void accept(T record) throws IOException;
+    }
+}
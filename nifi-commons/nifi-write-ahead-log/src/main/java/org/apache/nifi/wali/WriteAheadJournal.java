@@ -27,6 +27,20 @@ public interface WriteAheadJournal<T> extends Closeable {
 
     JournalRecovery recoverRecords(Map<Object, T> recordMap, Set<String> swapLocations) throws IOException;
 
+    /**
+     * Recovers the records from the journal, applying each transaction to the given record map and swap locations in the order in which the
+     * transactions were written. The records may be deserialized using up to the given number of threads.
+     *
+     * @param recordMap the records to update
+     * @param swapLocations the swap locations to update
+     * @param recoveryThreads the maximum number of threads to use for deserializing records
+     * @return information about the records that were recovered
+     * @throws IOException if unable to recover the records from the journal
+     */
+    default JournalRecovery recoverRecords(Map<Object, T> recordMap, Set<String> swapLocations, int recoveryThreads) throws IOException {
+        return recoverRecords(recordMap, swapLocations);
+    }
+
     /**
      * Updates the journal with the given set of records
      *
@@ -185,4 +185,15 @@ public interface SerDe<T> {
     default boolean isMoreInExternalFile() throws IOException {
         return false;
     }
+
+    /**
+     * Indicates whether or not records may be deserialized concurrently, on recovery, by separate instances of this SerDe that are created by the same
+     * {@link SerDeFactory} and that have each read the same header. This requires that {@link #deserializeEdit(DataInputStream, Map, int)} not make use
+     * of the current record states and that a transaction or block of records can be deserialized without having deserialized the preceding ones.
+     *
+     * @return <code>true</code> if records may be deserialized concurrently, <code>false</code> if they must be deserialized sequentially by a single instance
+     */
+    default boolean isConcurrentDeserializationSupported() {
+        return false;
+    }
 }
@@ -21,7 +21,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Collections;
@@ -33,6 +37,7 @@ import java.util.Set;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.wali.ConcurrentDummyRecordSerdeFactory;
 import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
 import org.wali.SerDeFactory;
@@ -213,4 +218,107 @@ public class TestHashMapSnapshot {
         assertTrue(swapLocations.contains("SwapLocation-1"));
     }
 
+    @Test
+    public void testConcurrentRecovery() throws IOException {
+        final SerDeFactory<DummyRecord> concurrentSerdeFactory = new ConcurrentDummyRecordSerdeFactory();
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, concurrentSerdeFactory, 4, true);
+
+        // Write enough records that the snapshot contains several blocks.
+        final String value = String.join("", Collections.nCopies(1024, "v"));
+        for (int i = 0; i < 5_000; i++) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+            record.setProperty("key", String.valueOf(i));
+            record.setProperty("value", value);
+            snapshot.update(Collections.singleton(record));
+        }
+
+        final DummyRecord swapOutRecord = new DummyRecord("4999", UpdateType.SWAP_OUT);
+        swapOutRecord.setSwapLocation("SwapLocation-1");
+        snapshot.update(Collections.singleton(swapOutRecord));
+
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(50L));
+        assertEquals(2, readEncodingVersion());
+
+        final HashMapSnapshot<DummyRecord> recoverySnapshot = new HashMapSnapshot<>(storageDirectory, concurrentSerdeFactory, 4);
+        final SnapshotRecovery<DummyRecord> recovery = recoverySnapshot.recover();
+        assertEquals(50L, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("SwapLocation-1"), recovery.getRecoveredSwapLocations());
+
+        final Map<Object, DummyRecord> recordMap = recovery.getRecords();
+        assertEquals(4_999, recordMap.size());
+        for (int i = 0; i < 4_999; i++) {
+            final DummyRecord record = recordMap.get(String.valueOf(i));
+            assertNotNull(record);
+            assertEquals(String.valueOf(i), record.getProperty("key"));
+            assertEquals(value, record.getProperty("value"));
+        }
+    }
+
+    @Test
+    public void testVersion1WrittenUnlessParallelSnapshotEnabled() throws IOException {
+        final SerDeFactory<DummyRecord> concurrentSerdeFactory = new ConcurrentDummyRecordSerdeFactory();
+        final DummyRecord record = new DummyRecord("1", UpdateType.CREATE);
+        record.setProperty("key", "1");
+
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, concurrentSerdeFactory, 4);
+        snapshot.update(Collections.singleton(record));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+        assertEquals(1, readEncodingVersion());
+
+        // The block encoding is of no use with a single recovery thread or a SerDe that cannot deserialize records concurrently
+        final HashMapSnapshot<DummyRecord> singleThreadSnapshot = new HashMapSnapshot<>(storageDirectory, concurrentSerdeFactory, 1, true);
+        singleThreadSnapshot.update(Collections.singleton(record));
+        singleThreadSnapshot.writeSnapshot(singleThreadSnapshot.prepareSnapshot(20L));
+        assertEquals(1, readEncodingVersion());
+
+        final HashMapSnapshot<DummyRecord> sequentialSerdeSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 4, true);
+        sequentialSerdeSnapshot.update(Collections.singleton(record));
+        sequentialSerdeSnapshot.writeSnapshot(sequentialSerdeSnapshot.prepareSnapshot(30L));
+        assertEquals(1, readEncodingVersion());
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, concurrentSerdeFactory, 4).recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals("1", recovery.getRecords().get("1").getProperty("key"));
+    }
+
+    private int readEncodingVersion() throws IOException {
+        try (final DataInputStream dataIn = new DataInputStream(new FileInputStream(new File(storageDirectory, "checkpoint")))) {
+            dataIn.readUTF();
+            return dataIn.readInt();
+        }
+    }
+
+    @Test
+    public void testRecoverSnapshotWrittenWithVersion1() throws IOException {
+        // Version 1 of the encoding writes the SerDe header and the records without any framing.
+        try (final DataOutputStream dataOut = new DataOutputStream(new FileOutputStream(new File(storageDirectory, "checkpoint")))) {
+            dataOut.writeUTF(HashMapSnapshot.class.getName());
+            dataOut.writeInt(1);
+            dataOut.writeUTF(DummyRecordSerde.class.getName());
+            dataOut.writeInt(serde.getVersion());
+            dataOut.writeLong(30L);
+            dataOut.writeInt(3);
+            serde.writeHeader(dataOut);
+
+            for (int i = 0; i < 3; i++) {
+                final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+                record.setProperty("key", String.valueOf(i));
+                serde.serializeRecord(record, dataOut);
+            }
+
+            dataOut.writeInt(1);
+            dataOut.writeUTF("SwapLocation-1");
+        }
+
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 4);
+        final SnapshotRecovery<DummyRecord> recovery = snapshot.recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("SwapLocation-1"), recovery.getRecoveredSwapLocations());
+
+        final Map<Object, DummyRecord> recordMap = recovery.getRecords();
+        assertEquals(3, recordMap.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(String.valueOf(i), recordMap.get(String.valueOf(i)).getProperty("key"));
+        }
+    }
 }
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wali.DummyRecord;
+import org.wali.DummyRecordSerde;
+import org.wali.SerDeFactory;
+import org.wali.SingletonSerDeFactory;
+import org.wali.UpdateType;
+
+public class TestIncrementalHashMapSnapshot {
+
+    private final File storageDirectory = new File("target/test-incremental-hashmap-snapshot");
+    private DummyRecordSerde serde;
+    private SerDeFactory<DummyRecord> serdeFactory;
+
+    @Before
+    public void setup() throws IOException {
+        if (!storageDirectory.exists()) {
+            Files.createDirectories(storageDirectory.toPath());
+        }
+
+        final File[] childFiles = storageDirectory.listFiles();
+        for (final File childFile : childFiles) {
+            if (childFile.isFile()) {
+                Files.delete(childFile.toPath());
+            }
+        }
+
+        serde = new DummyRecordSerde();
+        serdeFactory = new SingletonSerDeFactory<>(serde);
+    }
+
+    private void createRecords(final WriteAheadSnapshot<DummyRecord> snapshot, final int count) {
+        for (int i = 0; i < count; i++) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+            record.setProperty("key", String.valueOf(i));
+            snapshot.update(Collections.singleton(record));
+        }
+    }
+
+    private File[] getDeltaFiles() {
+        return storageDirectory.listFiles(file -> file.getName().startsWith("checkpoint.delta."));
+    }
+
+    @Test
+    public void testDeltaSnapshotsRoundTrip() throws IOException {
+        final IncrementalHashMapSnapshot<DummyRecord> snapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10);
+        createRecords(snapshot, 100);
+
+        // The first snapshot is always a base snapshot
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(10L));
+        assertEquals(0, getDeltaFiles().length);
+        assertEquals(0, snapshot.getChangedRecordCount());
+        final long baseLength = new File(storageDirectory, "checkpoint").length();
+
+        final DummyRecord update = new DummyRecord("5", UpdateType.UPDATE);
+        update.setProperty("key", "updated");
+        snapshot.update(Collections.singleton(update));
+        snapshot.update(Collections.singleton(new DummyRecord("6", UpdateType.DELETE)));
+        assertEquals(2, snapshot.getChangedRecordCount());
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(20L));
+
+        final DummyRecord swapOut = new DummyRecord("7", UpdateType.SWAP_OUT);
+        swapOut.setSwapLocation("swap-1");
+        snapshot.update(Collections.singleton(swapOut));
+        final DummyRecord create = new DummyRecord("100", UpdateType.CREATE);
+        create.setProperty("key", "100");
+        snapshot.update(Collections.singleton(create));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(30L));
+
+        assertEquals(2, getDeltaFiles().length);
+        assertEquals(baseLength, new File(storageDirectory, "checkpoint").length());
+
+        final IncrementalHashMapSnapshot<DummyRecord> recoverySnapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10);
+        final SnapshotRecovery<DummyRecord> recovery = recoverySnapshot.recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("swap-1"), recovery.getRecoveredSwapLocations());
+        assertEquals(new File(storageDirectory, "checkpoint.delta.1"), recovery.getRecoveryFile());
+
+        final Map<Object, DummyRecord> records = recovery.getRecords();
+        assertEquals(99, records.size());
+        assertEquals("updated", records.get("5").getProperty("key"));
+        assertFalse(records.containsKey("6"));
+        assertFalse(records.containsKey("7"));
+        assertEquals("100", records.get("100").getProperty("key"));
+        assertEquals(snapshot.prepareSnapshot(30L).getRecords(), records);
+    }
+
+    @Test
+    public void testBaseSnapshotWrittenAfterMaxDeltas() throws IOException {
+        final IncrementalHashMapSnapshot<DummyRecord> snapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 2);
+        createRecords(snapshot, 100);
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(1L));
+
+        for (int i = 0; i < 3; i++) {
+            final DummyRecord update = new DummyRecord(String.valueOf(i), UpdateType.UPDATE);
+            update.setProperty("key", "update-" + i);
+            snapshot.update(Collections.singleton(update));
+            snapshot.writeSnapshot(snapshot.prepareSnapshot(2L + i));
+        }
+
+        // Two deltas were written and then compacted into a new base snapshot
+        assertEquals(0, getDeltaFiles().length);
+
+        final SnapshotRecovery<DummyRecord> recovery = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 2).recover();
+        assertEquals(4L, recovery.getMaxTransactionId());
+        assertEquals(new File(storageDirectory, "checkpoint"), recovery.getRecoveryFile());
+        assertEquals(100, recovery.getRecords().size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("update-" + i, recovery.getRecords().get(String.valueOf(i)).getProperty("key"));
+        }
+    }
+
+    @Test
+    public void testBaseSnapshotWrittenWhenDeltasAsLargeAsBase() throws IOException {
+        final IncrementalHashMapSnapshot<DummyRecord> snapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 100);
+        createRecords(snapshot, 10);
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(1L));
+
+        final Map<String, String> props = new HashMap<>();
+        for (int i = 0; i < 6; i++) {
+            props.put("key", "update-" + i);
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.UPDATE).setProperties(props)));
+        }
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(2L));
+        assertEquals(1, getDeltaFiles().length);
+
+        // 6 + 6 changed records would be more than the 10 records in a base snapshot
+        for (int i = 4; i < 10; i++) {
+            props.put("key", "update-" + i);
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.UPDATE).setProperties(props)));
+        }
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(3L));
+        assertEquals(0, getDeltaFiles().length);
+
+        final SnapshotRecovery<DummyRecord> recovery = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 100).recover();
+        assertEquals(3L, recovery.getMaxTransactionId());
+        assertEquals(10, recovery.getRecords().size());
+    }
+
+    @Test
+    public void testIOExceptionWhenWritingDeltaResultsInPreviousSnapshotStillRecoverable() throws IOException {
+        final IncrementalHashMapSnapshot<DummyRecord> snapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10);
+        createRecords(snapshot, 20);
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(25L));
+
+        for (int i = 0; i < 5; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.DELETE)));
+        }
+
+        serde.setThrowIOEAfterNSerializeEdits(2);
+        try {
+            snapshot.writeSnapshot(snapshot.prepareSnapshot(150L));
+            Assert.fail("Expected IOE");
+        } catch (final IOException ioe) {
+            // expected
+        }
+
+        // The incomplete delta snapshot must not be applied
+        SnapshotRecovery<DummyRecord> recovery = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10).recover();
+        assertEquals(25L, recovery.getMaxTransactionId());
+        assertEquals(20, recovery.getRecords().size());
+        assertEquals(0, getDeltaFiles().length);
+
+        // Because the delta snapshot could not be written, the next snapshot must contain all records.
+        serde.setThrowIOEAfterNSerializeEdits(-1);
+        snapshot.update(Collections.singleton(new DummyRecord("5", UpdateType.DELETE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(160L));
+        assertEquals(0, getDeltaFiles().length);
+        assertEquals(0, snapshot.getChangedRecordCount());
+
+        recovery = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10).recover();
+        assertEquals(160L, recovery.getMaxTransactionId());
+        assertEquals(14, recovery.getRecords().size());
+    }
+
+    @Test
+    public void testDeltaPreparedBeforeFailedWriteIsRejected() throws IOException {
+        final IncrementalHashMapSnapshot<DummyRecord> snapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10);
+        createRecords(snapshot, 20);
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(1L));
+
+        snapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.DELETE)));
+        snapshot.update(Collections.singleton(new DummyRecord("2", UpdateType.DELETE)));
+        final SnapshotCapture<DummyRecord> failingCapture = snapshot.prepareSnapshot(2L);
+        final SnapshotCapture<DummyRecord> laterCapture = snapshot.prepareSnapshot(3L);
+
+        // A delta snapshot does not copy the records
+        snapshot.update(Collections.singleton(new DummyRecord("3", UpdateType.DELETE)));
+        assertEquals(17, laterCapture.getRecords().size());
+
+        serde.setThrowIOEAfterNSerializeEdits(1);
+        try {
+            snapshot.writeSnapshot(failingCapture);
+            Assert.fail("Expected IOE");
+        } catch (final IOException ioe) {
+            // expected
+        }
+
+        // The deltas are no longer complete, so a delta that was prepared before the failure cannot be written
+        serde.setThrowIOEAfterNSerializeEdits(-1);
+        try {
+            snapshot.writeSnapshot(laterCapture);
+            Assert.fail("Expected IOE");
+        } catch (final IOException ioe) {
+            // expected
+        }
+
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(4L));
+        assertEquals(0, getDeltaFiles().length);
+
+        final SnapshotRecovery<DummyRecord> recovery = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10).recover();
+        assertEquals(4L, recovery.getMaxTransactionId());
+        assertEquals(17, recovery.getRecords().size());
+    }
+
+    @Test
+    public void testChangesAfterPrepareRetainedForNextDelta() throws IOException {
+        final IncrementalHashMapSnapshot<DummyRecord> snapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10);
+        createRecords(snapshot, 20);
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(1L));
+
+        snapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.DELETE)));
+        final SnapshotCapture<DummyRecord> capture = snapshot.prepareSnapshot(2L);
+
+        // Updated after the snapshot was prepared, so it belongs to the next snapshot
+        snapshot.update(Collections.singleton(new DummyRecord("2", UpdateType.DELETE)));
+        snapshot.writeSnapshot(capture);
+        assertEquals(1, snapshot.getChangedRecordCount());
+
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(3L));
+        assertEquals(2, getDeltaFiles().length);
+
+        final SnapshotRecovery<DummyRecord> recovery = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10).recover();
+        assertEquals(3L, recovery.getMaxTransactionId());
+        assertEquals(18, recovery.getRecords().size());
+    }
+
+    @Test
+    public void testRecoverFromHashMapSnapshotAndBack() throws IOException {
+        final HashMapSnapshot<DummyRecord> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        createRecords(hashMapSnapshot, 10);
+        final DummyRecord swapOut = new DummyRecord("9", UpdateType.SWAP_OUT);
+        swapOut.setSwapLocation("swap-1");
+        hashMapSnapshot.update(Collections.singleton(swapOut));
+        hashMapSnapshot.writeSnapshot(hashMapSnapshot.prepareSnapshot(5L));
+
+        final IncrementalHashMapSnapshot<DummyRecord> snapshot = new IncrementalHashMapSnapshot<>(storageDirectory, serdeFactory, 10);
+        final SnapshotRecovery<DummyRecord> recovery = snapshot.recover();
+        assertEquals(5L, recovery.getMaxTransactionId());
+        assertEquals(9, recovery.getRecords().size());
+        final Set<String> swapLocations = recovery.getRecoveredSwapLocations();
+        assertEquals(Collections.singleton("swap-1"), swapLocations);
+
+        // After recovery, a base snapshot is written, which the HashMapSnapshot can read
+        snapshot.update(Collections.singleton(new DummyRecord("0", UpdateType.DELETE)));
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(6L));
+        assertFalse(IncrementalHashMapSnapshot.hasDeltaSnapshots(storageDirectory));
+
+        final SnapshotRecovery<DummyRecord> hashMapRecovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover();
+        assertEquals(6L, hashMapRecovery.getMaxTransactionId());
+        assertEquals(8, hashMapRecovery.getRecords().size());
+        assertTrue(hashMapRecovery.getRecoveredSwapLocations().contains("swap-1"));
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.nifi.wali;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.wali.ConcurrentDummyRecordSerdeFactory;
 import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
 import org.wali.SerDeFactory;
@@ -43,6 +44,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -315,6 +317,81 @@ public class TestLengthDelimitedJournal {
         }
     }
 
+    @Test
+    public void testFsyncOnlySyncsUnsyncedTransactions() throws IOException {
+        final GroupCommitStatistics statistics = new GroupCommitStatistics();
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L, 0L, statistics)) {
+            journal.writeHeader();
+
+            journal.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), key -> null);
+            journal.fsync();
+            assertEquals(1L, statistics.getBatchSizeHistogram().getCount());
+
+            // Nothing has been written since the last sync, so there is nothing to sync.
+            journal.fsync();
+            assertEquals(1L, statistics.getBatchSizeHistogram().getCount());
+
+            for (int i = 2; i <= 4; i++) {
+                journal.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)), key -> null);
+            }
+
+            journal.fsync();
+            assertEquals(2L, statistics.getBatchSizeHistogram().getCount());
+            assertEquals(2D, statistics.getBatchSizeHistogram().getMean(), 0D);
+            assertEquals(3L, statistics.getWaitTimeHistogram().getCount());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentUpdatesShareFsync() throws IOException, InterruptedException {
+        final int threadCount = 8;
+        final int updatesPerThread = 25;
+        final GroupCommitStatistics statistics = new GroupCommitStatistics();
+        final ObjectPool<ByteArrayDataOutputStream> pool = new BlockingQueuePool<>(threadCount,
+            () -> new ByteArrayDataOutputStream(BUFFER_SIZE),
+            stream -> stream.getByteArrayOutputStream().size() < BUFFER_SIZE,
+            stream -> stream.getByteArrayOutputStream().reset());
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, pool, 0L,
+                TimeUnit.MILLISECONDS.toNanos(5L), statistics)) {
+            journal.writeHeader();
+
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+            final List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                final int threadIndex = t;
+                threads.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < updatesPerThread; i++) {
+                            journal.update(Collections.singleton(new DummyRecord(threadIndex + "-" + i, UpdateType.CREATE)), key -> null);
+                            journal.fsync();
+                        }
+                    } catch (final Throwable e) {
+                        failure.set(e);
+                    }
+                }));
+            }
+
+            threads.forEach(Thread::start);
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+
+            assertNull(failure.get());
+
+            // Every transaction must have been made durable exactly once, and there should have been fewer syncs than transactions.
+            final GroupCommitStatistics.Histogram batchSizes = statistics.getBatchSizeHistogram();
+            final long transactions = (long) threadCount * updatesPerThread;
+            assertEquals(transactions, Math.round(batchSizes.getMean() * batchSizes.getCount()));
+            assertTrue(batchSizes.getCount() < transactions);
+            assertEquals(transactions, statistics.getWaitTimeHistogram().getCount());
+
+            final Map<Object, DummyRecord> recordMap = new HashMap<>();
+            journal.recoverRecords(recordMap, new HashSet<>());
+            assertEquals(threadCount * updatesPerThread, recordMap.size());
+        }
+    }
+
     @Test
     public void testMultipleThreadsCreatingOverflowDirectory() throws IOException, InterruptedException {
         final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<DummyRecord>(journalFile, serdeFactory, streamPool, 3820L, 100) {
@@ -424,6 +501,122 @@ public class TestLengthDelimitedJournal {
         }
     }
 
+    @Test
+    public void testConcurrentRecoveryMatchesSequentialRecovery() throws IOException {
+        final ConcurrentDummyRecordSerdeFactory concurrentSerdeFactory = new ConcurrentDummyRecordSerdeFactory();
+
+        // Write enough data that the transactions are deserialized in several batches.
+        final String value = String.join("", Collections.nCopies(1024, "v"));
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, concurrentSerdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+
+            for (int i = 0; i < 12_000; i++) {
+                final List<DummyRecord> transaction = new ArrayList<>();
+                transaction.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE).setProperty("value", value));
+                transaction.add(new DummyRecord(String.valueOf(i % 100), UpdateType.UPDATE).setProperty("transaction", String.valueOf(i)));
+
+                if (i % 3 == 0) {
+                    transaction.add(new DummyRecord(String.valueOf(i / 2), UpdateType.DELETE));
+                } else if (i % 7 == 0) {
+                    final DummyRecord swapOut = new DummyRecord(String.valueOf(i / 2), UpdateType.SWAP_OUT);
+                    swapOut.setSwapLocation("swap-" + i);
+                    transaction.add(swapOut);
+                }
+
+                journal.update(transaction, id -> null);
+            }
+        }
+
+        final Map<Object, DummyRecord> sequentialRecordMap = new HashMap<>();
+        final Set<String> sequentialSwapLocations = new HashSet<>();
+        final JournalRecovery sequentialRecovery;
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+            sequentialRecovery = journal.recoverRecords(sequentialRecordMap, sequentialSwapLocations, 1);
+        }
+
+        final Map<Object, DummyRecord> concurrentRecordMap = new HashMap<>();
+        final Set<String> concurrentSwapLocations = new HashSet<>();
+        final JournalRecovery concurrentRecovery;
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, concurrentSerdeFactory, streamPool, 0L)) {
+            concurrentRecovery = journal.recoverRecords(concurrentRecordMap, concurrentSwapLocations, 4);
+        }
+
+        assertFalse(sequentialRecovery.isEOFExceptionEncountered());
+        assertFalse(concurrentRecovery.isEOFExceptionEncountered());
+        assertEquals(11_999L, concurrentRecovery.getMaxTransactionId());
+        assertEquals(sequentialRecovery.getMaxTransactionId(), concurrentRecovery.getMaxTransactionId());
+        assertEquals(sequentialRecovery.getUpdateCount(), concurrentRecovery.getUpdateCount());
+        assertFalse(concurrentSwapLocations.isEmpty());
+        assertEquals(sequentialSwapLocations, concurrentSwapLocations);
+        assertEquals(sequentialRecordMap, concurrentRecordMap);
+
+        for (final Map.Entry<Object, DummyRecord> entry : sequentialRecordMap.entrySet()) {
+            assertEquals(entry.getValue().getProperties(), concurrentRecordMap.get(entry.getKey()).getProperties());
+        }
+    }
+
+    @Test
+    public void testConcurrentRecoveryOfTruncatedJournalFile() throws IOException {
+        final ConcurrentDummyRecordSerdeFactory concurrentSerdeFactory = new ConcurrentDummyRecordSerdeFactory();
+
+        final DummyRecord firstRecord = new DummyRecord("1", UpdateType.CREATE);
+        final DummyRecord secondRecord = new DummyRecord("2", UpdateType.CREATE);
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, concurrentSerdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+            journal.update(Collections.singleton(firstRecord), key -> null);
+            journal.update(Collections.singleton(secondRecord), key -> firstRecord);
+            journal.update(Collections.singleton(new DummyRecord("1", UpdateType.UPDATE)), key -> secondRecord);
+        }
+
+        // Truncate the file so that the last transaction is incomplete. Its header is still read, but its data cannot be deserialized.
+        try (final FileOutputStream fos = new FileOutputStream(journalFile, true)) {
+            fos.getChannel().truncate(journalFile.length() - 8);
+        }
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, concurrentSerdeFactory, streamPool, 0L)) {
+            final Map<Object, DummyRecord> recordMap = new HashMap<>();
+            final Set<String> swapLocations = new HashSet<>();
+            final JournalRecovery recovery = journal.recoverRecords(recordMap, swapLocations, 4);
+            assertTrue(recovery.isEOFExceptionEncountered());
+
+            assertEquals(2L, recovery.getMaxTransactionId());
+            assertEquals(2, recovery.getUpdateCount());
+            assertEquals(2, recordMap.size());
+            assertEquals(firstRecord, recordMap.get("1"));
+            assertEquals(secondRecord, recordMap.get("2"));
+        }
+    }
+
+    @Test
+    public void testConcurrentRecoveryFallsBackWhenTransactionCannotBeDeserialized() throws IOException {
+        final ConcurrentDummyRecordSerdeFactory concurrentSerdeFactory = new ConcurrentDummyRecordSerdeFactory();
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, concurrentSerdeFactory, streamPool, 0L)) {
+            journal.writeHeader();
+            journal.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), key -> null);
+            journal.update(Collections.singleton(new DummyRecord("2", UpdateType.CREATE)), key -> null);
+        }
+
+        // Replace the data of the last transaction, and the indicator that the journal is complete, with NUL bytes, as may be seen after a sudden power loss.
+        // The transaction is framed correctly but cannot be deserialized, so the remainder of the journal must be recovered sequentially, which skips the
+        // trailing NUL bytes.
+        final byte[] contents = Files.readAllBytes(journalFile.toPath());
+        final int lastRecordLength = 1 + 2 + "CREATE".length() + 2 + 1 + 4;
+        Arrays.fill(contents, contents.length - lastRecordLength - 1, contents.length, (byte) 0);
+        Files.write(journalFile.toPath(), contents);
+
+        try (final LengthDelimitedJournal<DummyRecord> journal = new LengthDelimitedJournal<>(journalFile, concurrentSerdeFactory, streamPool, 0L)) {
+            final Map<Object, DummyRecord> recordMap = new HashMap<>();
+            final Set<String> swapLocations = new HashSet<>();
+            final JournalRecovery recovery = journal.recoverRecords(recordMap, swapLocations, 4);
+
+            assertFalse(recovery.isEOFExceptionEncountered());
+            assertEquals(1L, recovery.getMaxTransactionId());
+            assertEquals(1, recovery.getUpdateCount());
+            assertEquals(Collections.singleton("1"), recordMap.keySet());
+        }
+    }
+
     /**
      * This test is rather complicated and creates a lot of odd objects with Thread.sleep, etc., and it may not be at-all clear what is happening. The intent of this
      * test is to try to cause a race condition to occur that would cause the journal to become corrupt. Consider the following scenario:
@@ -22,10 +22,12 @@ import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
+import org.wali.ConcurrentDummyRecordSerdeFactory;
 import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
+import org.wali.SyncListener;
 import org.wali.UpdateType;
 import org.wali.WriteAheadRepository;
 
@@ -187,6 +189,85 @@ public class TestSequentialAccessWriteAheadLog {
         assertEquals(expected, new HashSet<>(recovered));
     }
 
+    @Test
+    public void testRecoverWithIncrementalSnapshots() throws IOException {
+        final File storageDir = new File("target", testName.getMethodName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER, 0L, 5, 1, false);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final List<DummyRecord> creations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            creations.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE));
+        }
+        repo.update(creations, false);
+        assertEquals(100, repo.checkpoint());
+
+        final DummyRecord updateRecord = new DummyRecord("1", UpdateType.UPDATE);
+        updateRecord.setProperties(Collections.singletonMap("greeting", "hello"));
+        repo.update(Collections.singleton(updateRecord), false);
+        repo.update(Collections.singleton(new DummyRecord("2", UpdateType.DELETE)), false);
+        assertEquals(99, repo.checkpoint());
+        assertTrue(IncrementalHashMapSnapshot.hasDeltaSnapshots(storageDir));
+
+        // This update is only in the journal
+        repo.update(Collections.singleton(new DummyRecord("3", UpdateType.DELETE)), false);
+        repo.shutdown();
+
+        // Even though incremental snapshots are not enabled, the delta snapshot must be recovered
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRecoveryRepo();
+        final Map<String, DummyRecord> recordMap = recoveryRepo.recoverRecords().stream()
+            .collect(Collectors.toMap(DummyRecord::getId, Function.identity()));
+
+        assertEquals(98, recordMap.size());
+        assertEquals("hello", recordMap.get("1").getProperties().get("greeting"));
+        assertFalse(recordMap.containsKey("2"));
+        assertFalse(recordMap.containsKey("3"));
+
+        // The checkpoint that is performed on recovery writes all records, so the delta snapshots are no longer needed
+        assertFalse(IncrementalHashMapSnapshot.hasDeltaSnapshots(storageDir));
+        recoveryRepo.shutdown();
+    }
+
+    @Test
+    public void testConcurrentRecovery() throws IOException {
+        final File storageDir = new File("target", testName.getMethodName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SerDeFactory<DummyRecord> serdeFactory = new ConcurrentDummyRecordSerdeFactory();
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER, 0L, 0, 4, true);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        for (int i = 0; i < 1000; i++) {
+            repo.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)), false);
+        }
+        assertEquals(1000, repo.checkpoint());
+
+        // These updates are only in the journal
+        for (int i = 0; i < 1000; i += 2) {
+            final DummyRecord updateRecord = new DummyRecord(String.valueOf(i), UpdateType.UPDATE);
+            updateRecord.setProperties(Collections.singletonMap("index", String.valueOf(i)));
+            repo.update(Collections.singleton(updateRecord), false);
+            repo.update(Collections.singleton(new DummyRecord(String.valueOf(i + 1), UpdateType.DELETE)), false);
+        }
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER, 0L, 0, 4, false);
+        final Map<String, DummyRecord> recordMap = recoveryRepo.recoverRecords().stream()
+            .collect(Collectors.toMap(DummyRecord::getId, Function.identity()));
+
+        assertEquals(500, recordMap.size());
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals(String.valueOf(i), recordMap.get(String.valueOf(i)).getProperty("index"));
+            assertFalse(recordMap.containsKey(String.valueOf(i + 1)));
+        }
+        recoveryRepo.shutdown();
+    }
+
     private SequentialAccessWriteAheadLog<DummyRecord> createRecoveryRepo() throws IOException {
         final File targetDir = new File("target");
         final File storageDir = new File(targetDir, testName.getMethodName());
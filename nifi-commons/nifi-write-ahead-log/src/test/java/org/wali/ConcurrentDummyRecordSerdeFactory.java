@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wali;
+
+/**
+ * A SerDeFactory that creates a new DummyRecordSerde, which supports concurrent deserialization, each time that a SerDe is requested
+ */
+public class ConcurrentDummyRecordSerdeFactory implements SerDeFactory<DummyRecord> {
+    private final DummyRecordSerde serde = createDummyRecordSerde();
+
+    @Override
+    public SerDe<DummyRecord> createSerDe(final String encodingName) {
+        return createDummyRecordSerde();
+    }
+
+    private static DummyRecordSerde createDummyRecordSerde() {
+        final DummyRecordSerde serde = new DummyRecordSerde();
+        serde.setConcurrentDeserializationSupported(true);
+        return serde;
+    }
+
+    @Override
+    public Object getRecordIdentifier(final DummyRecord record) {
+        return serde.getRecordIdentifier(record);
+    }
+
+    @Override
+    public UpdateType getUpdateType(final DummyRecord record) {
+        return serde.getUpdateType(record);
+    }
+
+    @Override
+    public String getLocation(final DummyRecord record) {
+        return serde.getLocation(record);
+    }
+}
@@ -37,6 +37,7 @@ public class DummyRecordSerde implements SerDe<DummyRecord> {
     private int throwIOEAfterNserializeEdits = -1;
     private int throwOOMEAfterNserializeEdits = -1;
     private int serializeEditCount = 0;
+    private boolean concurrentDeserializationSupported = false;
 
     private final Set<File> externalFilesWritten = new HashSet<>();
     private Queue<DummyRecord> externalRecords;
@@ -215,6 +216,15 @@ public class DummyRecordSerde implements SerDe<DummyRecord> {
         externalFilesWritten.add(externalFile);
     }
 
+    @Override
+    public synchronized boolean isConcurrentDeserializationSupported() {
+        return concurrentDeserializationSupported;
+    }
+
+    public synchronized void setConcurrentDeserializationSupported(final boolean supported) {
+        this.concurrentDeserializationSupported = supported;
+    }
+
     public Set<File> getExternalFileReferences() {
         return Collections.unmodifiableSet(externalFilesWritten);
     }
@@ -304,4 +304,45 @@ public interface ContentRepository {
     default boolean isActiveResourceClaimsSupported() {
         return false;
     }
+
+    /**
+     * Indicates whether or not the repository stores identical content only once. When this returns <code>true</code>, callers that write content
+     * may compute a SHA-256 digest of that content and use {@link #getIdenticalContent(byte[], long)} and
+     * {@link #registerContent(ContentClaim, long, long, byte[])} to share a single copy of it between FlowFiles.
+     *
+     * @return <code>true</code> if content deduplication is enabled, <code>false</code> otherwise
+     */
+    default boolean isContentDeduplicationEnabled() {
+        return false;
+    }
+
+    /**
+     * Optional operation that locates previously registered content having the given SHA-256 digest and length. If such content exists and is still
+     * referenced by at least one FlowFile, the claimant count of its Resource Claim is incremented on behalf of the caller and a Content Claim
+     * pointing to the content is returned. The caller then owns that claimant count in the same way as it would own the count of a Content Claim
+     * returned from {@link #create(boolean)}.
+     *
+     * @param digest the SHA-256 digest of the content
+     * @param length the length of the content, in bytes
+     * @return a Content Claim referencing identical content, or <code>null</code> if no such content is available
+     * @throws IOException if unable to access the index of content
+     * @see #isContentDeduplicationEnabled()
+     */
+    default ContentClaim getIdenticalContent(byte[] digest, long length) throws IOException {
+        return null;
+    }
+
+    /**
+     * Optional operation that records the SHA-256 digest of content that was just written so that later writes of identical content can reference
+     * it via {@link #getIdenticalContent(byte[], long)}. Repositories that do not deduplicate content ignore this call.
+     *
+     * @param claim the Content Claim that the content was written to
+     * @param claimOffset the offset into the Content Claim at which the content begins
+     * @param length the length of the content, in bytes
+     * @param digest the SHA-256 digest of the content
+     * @throws IOException if unable to update the index of content
+     * @see #isContentDeduplicationEnabled()
+     */
+    default void registerContent(ContentClaim claim, long claimOffset, long length, byte[] digest) throws IOException {
+    }
 }
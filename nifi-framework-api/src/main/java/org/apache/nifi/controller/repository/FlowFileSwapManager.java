@@ -80,6 +80,18 @@ public interface FlowFileSwapManager {
      */
     SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue) throws IncompleteSwapFileException, IOException;
 
+    /**
+     * Provides a hint to the Swap Manager that the swap file at the given location is likely to be swapped in soon,
+     * so that the Swap Manager may begin reading it in the background. This method must not block and must not update the
+     * FlowFile Repository; a subsequent call to {@link #swapIn(String, FlowFileQueue)} is still required in order to swap the FlowFiles in.
+     * The default implementation does nothing.
+     *
+     * @param swapLocation the location of the swap file
+     * @param flowFileQueue the queue to which the FlowFiles belong
+     */
+    default void prefetch(String swapLocation, FlowFileQueue flowFileQueue) {
+    }
+
     /**
      * Determines swap files that exist for the given FlowFileQueue
      *
@@ -126,6 +138,13 @@ public interface FlowFileSwapManager {
      */
     void purge();
 
+    /**
+     * Releases any resources, such as background threads, that are held by the Swap Manager. Swap Files are left in place so that
+     * they can be recovered when NiFi is restarted. The default implementation does nothing.
+     */
+    default void shutdown() {
+    }
+
     /**
      * Returns the ID of the queue that the given swap file belongs to
      * @param swapLocation the swap location
@@ -90,6 +90,33 @@ public interface ResourceClaimManager {
      */
     int incrementClaimantCount(ResourceClaim claim, boolean newClaim);
 
+    /**
+     * Increases by 1 the count of how many FlowFiles hold a claim to a
+     * particular piece of FlowFile content, but only if at least one FlowFile
+     * already holds a claim to it. This allows a component that has located
+     * existing content (for instance, through a content digest) to reference
+     * that content without racing against its destruction: a ResourceClaim
+     * whose count has already dropped to 0 may be queued for destruction and
+     * must not be brought back into use.
+     * <p>
+     * The default implementation checks the count and then increments it as
+     * two separate steps, so a claim may still be released in between.
+     * Implementations that can perform the check and the increment atomically
+     * should override this method.
+     * </p>
+     *
+     * @param claim to increment
+     * @return the new claimant count, or 0 if the claim was not in use and
+     *         therefore was not incremented
+     */
+    default int incrementClaimantCountIfInUse(ResourceClaim claim) {
+        if (getClaimantCount(claim) < 1) {
+            return 0;
+        }
+
+        return incrementClaimantCount(claim);
+    }
+
     /**
      * Indicates that the given ResourceClaim can now be destroyed by the
      * appropriate Content Repository. This should be done only after it is
@@ -16,9 +16,12 @@
  */
 package org.apache.nifi.provenance.search;
 
+import java.io.IOException;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 
@@ -30,6 +33,25 @@ public interface QueryResult {
      */
     List<ProvenanceEventRecord> getMatchingEvents();
 
+    /**
+     * Returns a single page of the matching events, newest first. Events are ordered by descending Event ID, which is the order
+     * in which they were stored in the repository. In order to retrieve the next page, the ID of the last event in this page
+     * should be provided as the <code>beforeEventId</code>. Implementations may read events from the repository only as they
+     * are needed to fill the page, rather than holding all of the matching events in memory.
+     *
+     * @param beforeEventId only events whose ID is smaller than this value are returned, or <code>null</code> to start with the newest event
+     * @param maxEvents the maximum number of events to return
+     * @return the matching events, newest first. If fewer than <code>maxEvents</code> are returned, there are no further matching events at this time
+     * @throws IOException if unable to read the events from the repository
+     */
+    default List<ProvenanceEventRecord> getMatchingEvents(final Long beforeEventId, final int maxEvents) throws IOException {
+        return getMatchingEvents().stream()
+            .filter(event -> beforeEventId == null || event.getEventId() < beforeEventId)
+            .sorted(Comparator.comparingLong(ProvenanceEventRecord::getEventId).reversed())
+            .limit(maxEvents)
+            .collect(Collectors.toList());
+    }
+
     /**
      * @return the total number of Provenance Events that hit
      */
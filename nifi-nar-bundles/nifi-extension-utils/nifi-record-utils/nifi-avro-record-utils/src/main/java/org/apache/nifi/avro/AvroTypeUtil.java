@@ -34,6 +34,7 @@ import org.apache.commons.compress.utils.IOUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
@@ -41,7 +42,10 @@ import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.SchemaIdentifier;
+import org.apache.nifi.serialization.record.SerializedForm;
 import org.apache.nifi.serialization.record.StandardSchemaIdentifier;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.apache.nifi.serialization.record.type.ArrayDataType;
 import org.apache.nifi.serialization.record.type.ChoiceDataType;
 import org.apache.nifi.serialization.record.type.DecimalDataType;
@@ -80,6 +84,7 @@ import java.util.stream.Collectors;
 public class AvroTypeUtil {
     private static final Logger logger = LoggerFactory.getLogger(AvroTypeUtil.class);
     public static final String AVRO_SCHEMA_FORMAT = "avro";
+    public static final String AVRO_BINARY_MIME_TYPE = "application/avro-binary";
 
     private static final String LOGICAL_TYPE_DATE = "date";
     private static final String LOGICAL_TYPE_TIME_MILLIS = "time-millis";
@@ -570,6 +575,37 @@ public class AvroTypeUtil {
         return createAvroRecord(record, avroSchema, StandardCharsets.UTF_8);
     }
 
+    /**
+     * Returns the Avro record that the given Record was read from, provided that the Record has not been modified since and that the Avro
+     * record has the given schema, so that the Avro record can be written as-is rather than created from the Record's values again.
+     *
+     * @param record the record to be written
+     * @param avroSchema the schema that the record is to be written with
+     * @return the Avro record that the given Record was read from, or an empty Optional if it is not known or cannot be written as-is
+     */
+    public static Optional<GenericRecord> getSerializedAvroRecord(final Record record, final Schema avroSchema) {
+        return getSerializedAvroRecord(record.getSerializedForm(), avroSchema);
+    }
+
+    private static Optional<GenericRecord> getSerializedAvroRecord(final Optional<SerializedForm> serializedForm, final Schema avroSchema) {
+        if (!serializedForm.isPresent() || !AVRO_BINARY_MIME_TYPE.equals(serializedForm.get().getMimeType())) {
+            return Optional.empty();
+        }
+
+        final Object serialized = serializedForm.get().getSerialized();
+        if (!(serialized instanceof GenericRecord)) {
+            return Optional.empty();
+        }
+
+        final GenericRecord avroRecord = (GenericRecord) serialized;
+        final Schema serializedSchema = avroRecord.getSchema();
+        if (serializedSchema != avroSchema && !serializedSchema.equals(avroSchema)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(avroRecord);
+    }
+
     public static GenericRecord createAvroRecord(final Record record, final Schema avroSchema, final Charset charset) throws IOException {
         final GenericRecord rec = new GenericData.Record(avroSchema);
         final RecordSchema recordSchema = record.getSchema();
@@ -600,6 +636,75 @@ public class AvroTypeUtil {
         return rec;
     }
 
+    public static List<GenericRecord> createAvroRecords(final RecordBatch batch, final Schema avroSchema) {
+        return createAvroRecords(batch, avroSchema, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates an Avro record for each of the records in the given batch, in the same way as {@link #createAvroRecord(Record, Schema, Charset)}
+     * but reading the values of each field from the batch's columns and looking up the Avro field for each of them only once per batch.
+     * The Avro record that a row was read from is used as-is if it can be, as described by {@link #getSerializedAvroRecord(Record, Schema)}.
+     *
+     * @param batch the batch of records to convert
+     * @param avroSchema the schema of the Avro records
+     * @param charset the character set to use when converting values
+     * @return an Avro record for each of the rows of the batch, in order
+     */
+    public static List<GenericRecord> createAvroRecords(final RecordBatch batch, final Schema avroSchema, final Charset charset) {
+        final RecordSchema recordSchema = batch.getSchema();
+        final int fieldCount = recordSchema.getFieldCount();
+        final String[] fieldNames = new String[fieldCount];
+        final Field[] avroFields = new Field[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            final Pair<String, Field> fieldPair = lookupField(avroSchema, recordSchema.getField(i));
+            fieldNames[i] = fieldPair.getLeft();
+            avroFields[i] = fieldPair.getRight();
+        }
+
+        final List<Field> defaultedFields = new ArrayList<>();
+        for (final Field field : avroSchema.getFields()) {
+            if (field.defaultVal() != null && !recordSchema.getField(field.name()).isPresent()) {
+                defaultedFields.add(field);
+            }
+        }
+
+        final ColumnVector[] columns = new ColumnVector[fieldCount];
+        final List<GenericRecord> avroRecords = new ArrayList<>(batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+            final Optional<GenericRecord> serializedAvroRecord = getSerializedAvroRecord(batch.getSerializedForm(row), avroSchema);
+            if (serializedAvroRecord.isPresent()) {
+                avroRecords.add(serializedAvroRecord.get());
+                continue;
+            }
+
+            final GenericRecord rec = new GenericData.Record(avroSchema);
+            for (int i = 0; i < fieldCount; i++) {
+                final Field field = avroFields[i];
+                if (field == null) {
+                    continue;
+                }
+
+                // Columns are obtained only once a row needs them, so that a batch of rows that all have their Avro records does not create them
+                if (columns[i] == null) {
+                    columns[i] = batch.getColumn(i);
+                }
+
+                final Object converted = convertToAvroObject(columns[i].getObject(row), field.schema(), fieldNames[i], charset);
+                rec.put(field.name(), converted);
+            }
+
+            for (final Field field : defaultedFields) {
+                if (rec.get(field.name()) == null) {
+                    rec.put(field.name(), field.defaultVal());
+                }
+            }
+
+            avroRecords.add(rec);
+        }
+
+        return avroRecords;
+    }
+
     /**
      * Convert a raw value to an Avro object to serialize in Avro type system, using the provided character set when necessary.
      * The counter-part method which reads an Avro object back to a raw value is {@link #normalizeValue(Object, Schema, String)}.
@@ -769,6 +874,13 @@ public class AvroTypeUtil {
                     throw new IllegalTypeConversionException("Cannot convert value " + rawValue + " of type " + rawValue.getClass() + " to a Map");
                 }
             case RECORD:
+                if (rawValue instanceof Record) {
+                    final Optional<GenericRecord> serializedAvroRecord = getSerializedAvroRecord((Record) rawValue, fieldSchema);
+                    if (serializedAvroRecord.isPresent()) {
+                        return serializedAvroRecord.get();
+                    }
+                }
+
                 final GenericData.Record avroRecord = new GenericData.Record(fieldSchema);
 
                 final Set<Map.Entry<String, Object>> entries;
@@ -839,39 +951,79 @@ public class AvroTypeUtil {
         final Map<String, Object> values = new HashMap<>(recordSchema.getFieldCount());
 
         for (final RecordField recordField : recordSchema.getFields()) {
+            values.put(recordField.getFieldName(), convertAvroField(avroRecord, recordField, charset));
+        }
 
-            Object value = avroRecord.get(recordField.getFieldName());
-            if (value == null) {
-                for (final String alias : recordField.getAliases()) {
-                    value = avroRecord.get(alias);
-                    if (value != null) {
-                        break;
-                    }
+        return values;
+    }
+
+    /**
+     * Converts the given Avro record into an array that holds the value of each of the fields of the given Record Schema, in the order of the
+     * schema's fields, which is suitable for creating an {@link org.apache.nifi.serialization.record.ArrayRecord}.
+     *
+     * @param avroRecord the Avro record to convert
+     * @param recordSchema the schema of the resulting values
+     * @return the converted values
+     */
+    public static Object[] convertAvroRecordToArray(final GenericRecord avroRecord, final RecordSchema recordSchema) {
+        return convertAvroRecordToArray(avroRecord, recordSchema, StandardCharsets.UTF_8);
+    }
+
+    public static Object[] convertAvroRecordToArray(final GenericRecord avroRecord, final RecordSchema recordSchema, final Charset charset) {
+        return convertAvroRecordToArray(avroRecord, recordSchema, null, charset);
+    }
+
+    /**
+     * Converts the values of only some of the fields of the given Record Schema from the given Avro record, in the order of the schema's fields.
+     * Each field whose value is not converted is given the value {@link ArrayRecord#MISSING_VALUE}.
+     *
+     * @param avroRecord the Avro record to convert
+     * @param recordSchema the schema of the resulting values
+     * @param requiredFields for each of the schema's fields, whether or not its value is to be converted, or <code>null</code> to convert the values of all fields
+     * @param charset the character set of any String values that are held as bytes
+     * @return the converted values
+     */
+    public static Object[] convertAvroRecordToArray(final GenericRecord avroRecord, final RecordSchema recordSchema, final boolean[] requiredFields, final Charset charset) {
+        final Object[] values = new Object[recordSchema.getFieldCount()];
+
+        for (int i = 0; i < values.length; i++) {
+            if (requiredFields == null || requiredFields[i]) {
+                values[i] = convertAvroField(avroRecord, recordSchema.getField(i), charset);
+            } else {
+                values[i] = ArrayRecord.MISSING_VALUE;
+            }
+        }
+
+        return values;
+    }
+
+    private static Object convertAvroField(final GenericRecord avroRecord, final RecordField recordField, final Charset charset) {
+        Object value = avroRecord.get(recordField.getFieldName());
+        if (value == null) {
+            for (final String alias : recordField.getAliases()) {
+                value = avroRecord.get(alias);
+                if (value != null) {
+                    break;
                 }
             }
+        }
 
-            final String fieldName = recordField.getFieldName();
-            try {
+        final String fieldName = recordField.getFieldName();
+        try {
             final Field avroField = avroRecord.getSchema().getField(fieldName);
             if (avroField == null) {
-                values.put(fieldName, null);
-                continue;
+                return null;
             }
 
             final Schema fieldSchema = avroField.schema();
             final Object rawValue = normalizeValue(value, fieldSchema, fieldName);
 
             final DataType desiredType = recordField.getDataType();
-            final Object coercedValue = DataTypeUtils.convertType(rawValue, desiredType, fieldName, charset);
-
-            values.put(fieldName, coercedValue);
-            } catch (Exception ex) {
-                logger.debug("fail to convert field " + fieldName, ex );
-                throw ex;
-            }
+            return DataTypeUtils.convertType(rawValue, desiredType, fieldName, charset);
+        } catch (Exception ex) {
+            logger.debug("fail to convert field " + fieldName, ex );
+            throw ex;
         }
-
-        return values;
     }
 
     /**
@@ -1018,7 +1170,7 @@ public class AvroTypeUtil {
                     values.put(field.name(), fieldValue);
                 }
                 final RecordSchema childSchema = AvroTypeUtil.createSchema(recordSchema, false);
-                return new MapRecord(childSchema, values);
+                return new MapRecord(childSchema, values, SerializedForm.of(record, AVRO_BINARY_MIME_TYPE));
             case BYTES:
                 final ByteBuffer bb = (ByteBuffer) value;
                 final LogicalType logicalType = avroSchema.getLogicalType();
@@ -26,6 +26,7 @@ import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventSubscription;
 import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.reporting.EventAccess;
 import org.apache.nifi.reporting.ReportingContext;
@@ -80,6 +81,7 @@ public class ProvenanceEventConsumer {
 
     private volatile long firstEventId = -1L;
     private volatile boolean scheduled = false;
+    private volatile ProvenanceEventSubscription subscription;
 
     private ComponentLog logger;
 
@@ -133,6 +135,10 @@ public class ProvenanceEventConsumer {
 
     public void setScheduled(boolean scheduled) {
         this.scheduled = scheduled;
+
+        if (!scheduled) {
+            closeSubscription();
+        }
     }
 
     public boolean isScheduled() {
@@ -200,7 +206,7 @@ public class ProvenanceEventConsumer {
         List<ProvenanceEventRecord> rawEvents;
         List<ProvenanceEventRecord> filteredEvents;
         try {
-            rawEvents = eventAccess.getProvenanceEvents(firstEventId, batchSize);
+            rawEvents = getEvents(eventAccess);
             filteredEvents = filterEvents(componentMapHolder, rawEvents);
         } catch (final IOException ioe) {
             logger.error("Failed to retrieve Provenance Events from repository due to: " + ioe.getMessage(), ioe);
@@ -224,7 +230,7 @@ public class ProvenanceEventConsumer {
 
             // Retrieve the next batch
             try {
-                rawEvents = eventAccess.getProvenanceEvents(firstEventId, batchSize);
+                rawEvents = getEvents(eventAccess);
                 filteredEvents = filterEvents(componentMapHolder, rawEvents);
             } catch (final IOException ioe) {
                 logger.error("Failed to retrieve Provenance Events from repository due to: " + ioe.getMessage(), ioe);
@@ -234,6 +240,47 @@ public class ProvenanceEventConsumer {
 
     }
 
+    /**
+     * Retrieves the next batch of events, beginning with {@link #firstEventId}. If the Provenance Repository supports subscriptions, the events
+     * are obtained from a subscription, which hands over recently registered events from memory rather than reading them from disk. Otherwise,
+     * or if the subscription was closed because the Reporting Task was unscheduled, the events are read from the repository.
+     */
+    private List<ProvenanceEventRecord> getEvents(final EventAccess eventAccess) throws IOException {
+        final long nextEventId = Math.max(0L, firstEventId);
+
+        ProvenanceEventSubscription currentSubscription = subscription;
+        if (currentSubscription != null && currentSubscription.getNextEventId() != nextEventId) {
+            // The position was reset, such as when the repository restarted its ids
+            closeSubscription();
+            currentSubscription = null;
+        }
+
+        if (currentSubscription == null && isScheduled()) {
+            currentSubscription = eventAccess.getProvenanceRepository().subscribe(nextEventId);
+            subscription = currentSubscription;
+
+            // Guard against the subscription having been created after the Reporting Task was unscheduled
+            if (currentSubscription != null && !isScheduled()) {
+                closeSubscription();
+                currentSubscription = null;
+            }
+        }
+
+        if (currentSubscription == null) {
+            return eventAccess.getProvenanceEvents(firstEventId, batchSize);
+        }
+
+        return currentSubscription.poll(batchSize);
+    }
+
+    private void closeSubscription() {
+        final ProvenanceEventSubscription currentSubscription = subscription;
+        if (currentSubscription != null) {
+            subscription = null;
+            currentSubscription.close();
+        }
+    }
+
     private long updateLastEventId(final List<ProvenanceEventRecord> events, final StateManager stateManager) {
         if (events == null || events.isEmpty()) {
             return firstEventId;
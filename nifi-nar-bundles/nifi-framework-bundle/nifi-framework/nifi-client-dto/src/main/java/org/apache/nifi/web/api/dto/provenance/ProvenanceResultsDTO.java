@@ -38,6 +38,7 @@ public class ProvenanceResultsDTO {
     private Date generated;
     private Date oldestEvent;
     private Integer timeOffset;
+    private String nextCursor;
 
     private Set<String> errors;
 
@@ -143,4 +144,19 @@ public class ProvenanceResultsDTO {
         this.timeOffset = timeOffset;
     }
 
+    /**
+     * @return the cursor to provide in order to retrieve the next page of results, or null if there are no further results
+     */
+    @ApiModelProperty(
+            value = "When the results were requested a page at a time, the cursor to provide in order to retrieve the next page. "
+                    + "Not set if there are no further results."
+    )
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
 }
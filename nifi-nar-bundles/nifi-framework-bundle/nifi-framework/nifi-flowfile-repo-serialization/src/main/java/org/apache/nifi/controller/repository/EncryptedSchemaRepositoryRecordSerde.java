@@ -341,4 +341,14 @@ public class EncryptedSchemaRepositoryRecordSerde implements SerDe<SerializedRep
     public int getVersion() {
         return wrappedSerDe.getVersion();
     }
+
+    /**
+     * Each record is encrypted independently, so records can be deserialized concurrently if the wrapped {@link SerDe} supports it.
+     *
+     * @return true if the wrapped SerDe supports concurrent deserialization
+     */
+    @Override
+    public boolean isConcurrentDeserializationSupported() {
+        return wrappedSerDe.isConcurrentDeserializationSupported();
+    }
 }
@@ -289,4 +289,10 @@ public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implement
     public boolean isMoreInExternalFile() throws IOException {
         return recordIterator != null && recordIterator.isNext();
     }
+
+    @Override
+    public boolean isConcurrentDeserializationSupported() {
+        // Each record is written in its entirety, so records do not depend on the current record states or on the preceding records.
+        return true;
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixes the run configuration that all of the framework benchmarks share. Keeping the number of forks, warmup and
+ * measurement iterations identical for every benchmark and every commit is what allows the results of two builds to
+ * be compared with one another; a benchmark should only override these when it cannot produce stable results otherwise.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public abstract class AbstractFrameworkBenchmark {
+
+    /**
+     * Creates the attributes for a single FlowFile, including a random <code>uuid</code> attribute. The values vary with
+     * the given index so that a benchmark cannot benefit from every FlowFile sharing the exact same attribute values.
+     *
+     * @param attributeCount the number of attributes to create
+     * @param index the index of the FlowFile that the attributes belong to
+     * @return a new, mutable map containing the <code>uuid</code> attribute and <code>attributeCount</code> other attributes
+     */
+    protected static Map<String, String> createAttributes(final int attributeCount, final long index) {
+        final Map<String, String> attributes = new HashMap<>(attributeCount * 2 + 2);
+        attributes.put(CoreAttributes.UUID.key(), UUID.randomUUID().toString());
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.put("attribute." + i, "value-" + i + "-" + index);
+        }
+        return attributes;
+    }
+}
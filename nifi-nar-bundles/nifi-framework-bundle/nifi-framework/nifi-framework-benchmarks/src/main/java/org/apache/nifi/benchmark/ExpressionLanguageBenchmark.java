@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.attribute.expression.language.PreparedQuery;
+import org.apache.nifi.attribute.expression.language.Query;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+/**
+ * Measures compiling and evaluating Expression Language against the attributes of a FlowFile. Compiling is measured
+ * separately from evaluating because Processors compile a property's value once but evaluate it for every FlowFile.
+ */
+@State(Scope.Benchmark)
+public class ExpressionLanguageBenchmark extends AbstractFrameworkBenchmark {
+
+    @Param({"5", "50"})
+    private int attributeCount;
+
+    @Param({
+        "${attribute.0}",
+        "${attribute.1:toUpper():substringAfter('-'):equals('1-0')}",
+        "${allAttributes('attribute.0', 'attribute.1', 'attribute.2'):isEmpty():not()}/${attribute.3:length():plus(5):toString():padLeft(8, '0')}"
+    })
+    private String expression;
+
+    private Map<String, String> attributes;
+    private PreparedQuery preparedQuery;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        attributes = createAttributes(attributeCount, 0L);
+        preparedQuery = Query.prepare(expression);
+    }
+
+    @Benchmark
+    public PreparedQuery compile() {
+        return Query.prepare(expression);
+    }
+
+    @Benchmark
+    public String evaluate() {
+        return preparedQuery.evaluateExpressions(new StandardEvaluationContext(attributes), null);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Measures writing, importing, exporting and reading FlowFile content with a {@link FileSystemRepository} in a temporary
+ * directory. Content that is written or imported is released again immediately, so that the repository is free to
+ * destroy it in the background, just as it would be for FlowFiles that are auto-terminated.
+ */
+@State(Scope.Benchmark)
+public class FileSystemRepositoryBenchmark extends AbstractFrameworkBenchmark {
+
+    @Param({"1024", "1048576"})
+    private int contentSize;
+
+    private TemporaryRepositories repositories;
+    private FileSystemRepository contentRepository;
+    private byte[] content;
+    private Path sourceFile;
+    private Path exportFile;
+    private ContentClaim existingClaim;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new TemporaryRepositories();
+        contentRepository = repositories.getContentRepository();
+
+        content = new byte[contentSize];
+        new Random(contentSize).nextBytes(content);
+
+        sourceFile = repositories.getDirectory().resolve("source-content");
+        Files.write(sourceFile, content);
+        exportFile = repositories.getDirectory().resolve("exported-content");
+
+        existingClaim = contentRepository.create(false);
+        try (final OutputStream out = contentRepository.write(existingClaim)) {
+            out.write(content);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repositories.close();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        final ContentClaim claim = contentRepository.create(false);
+        try (final OutputStream out = contentRepository.write(claim)) {
+            out.write(content);
+        }
+
+        contentRepository.decrementClaimantCount(claim);
+    }
+
+    @Benchmark
+    public void importFromFile() throws IOException {
+        final ContentClaim claim = contentRepository.create(false);
+        contentRepository.importFrom(sourceFile, claim);
+        contentRepository.decrementClaimantCount(claim);
+    }
+
+    @Benchmark
+    public long exportToFile() throws IOException {
+        return contentRepository.exportTo(existingClaim, exportFile, false);
+    }
+
+    @Benchmark
+    public void read(final Blackhole blackhole) throws IOException {
+        final byte[] buffer = new byte[8192];
+        try (final InputStream in = contentRepository.read(existingClaim)) {
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                blackhole.consume(len);
+            }
+        }
+
+        blackhole.consume(buffer);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.repository.LatencyType;
+import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost that recording latencies adds to every onTrigger invocation and session commit. All threads
+ * record for the same component, which is the worst case for contention; run with <code>-t</code> to see how the
+ * cost changes as more concurrent tasks are added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LatencyRecordingBenchmark extends AbstractFrameworkBenchmark {
+    private RingBufferEventRepository eventRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        eventRepository = new RingBufferEventRepository(5);
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        final long startNanos = System.nanoTime();
+        eventRepository.recordLatency("benchmark-processor", LatencyType.ON_TRIGGER, System.nanoTime() - startNanos);
+    }
+
+    @Benchmark
+    public long baseline() {
+        final long startNanos = System.nanoTime();
+        return System.nanoTime() - startNanos;
+    }
+}
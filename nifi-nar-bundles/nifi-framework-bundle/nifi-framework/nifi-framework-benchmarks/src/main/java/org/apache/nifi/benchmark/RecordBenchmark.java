@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a {@link MapRecord} with an {@link ArrayRecord} that holds the same values. Creating a record is measured the way
+ * that a Record Reader creates one, by populating a new Map or array for every record, and reading a record is measured the way
+ * that a Record Writer reads one, by getting the value of every field in the schema, both by name and as a typed value.
+ */
+@State(Scope.Benchmark)
+public class RecordBenchmark extends AbstractFrameworkBenchmark {
+
+    @Param({"5", "50"})
+    private int fieldCount;
+
+    private RecordSchema schema;
+    private List<String> fieldNames;
+    private Object[] values;
+    private Record mapRecord;
+    private ArrayRecord arrayRecord;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final List<RecordField> fields = new ArrayList<>(fieldCount);
+        fieldNames = new ArrayList<>(fieldCount);
+        values = new Object[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            final String fieldName = "field" + i;
+            fieldNames.add(fieldName);
+
+            // Alternate between string and primitive fields, which are the most common in practice
+            if (i % 2 == 0) {
+                fields.add(new RecordField(fieldName, RecordFieldType.STRING.getDataType()));
+                values[i] = "value " + i;
+            } else {
+                fields.add(new RecordField(fieldName, RecordFieldType.LONG.getDataType()));
+                values[i] = (long) i;
+            }
+        }
+
+        schema = new SimpleRecordSchema(fields);
+        mapRecord = createMapRecord();
+        arrayRecord = createArrayRecord();
+    }
+
+    @Benchmark
+    public Record createMapRecord() {
+        final Map<String, Object> map = new HashMap<>(fieldCount * 2);
+        for (int i = 0; i < fieldCount; i++) {
+            map.put(fieldNames.get(i), values[i]);
+        }
+
+        return new MapRecord(schema, map);
+    }
+
+    @Benchmark
+    public ArrayRecord createArrayRecord() {
+        final Object[] array = new Object[fieldCount];
+        System.arraycopy(values, 0, array, 0, fieldCount);
+        return new ArrayRecord(schema, array);
+    }
+
+    @Benchmark
+    public void getMapRecordValuesByName(final Blackhole blackhole) {
+        for (final String fieldName : fieldNames) {
+            blackhole.consume(mapRecord.getValue(fieldName));
+        }
+    }
+
+    @Benchmark
+    public void getArrayRecordValuesByName(final Blackhole blackhole) {
+        for (final String fieldName : fieldNames) {
+            blackhole.consume(arrayRecord.getValue(fieldName));
+        }
+    }
+
+    @Benchmark
+    public void getArrayRecordValuesByIndex(final Blackhole blackhole) {
+        for (int i = 0; i < fieldCount; i++) {
+            blackhole.consume(arrayRecord.getValue(i));
+        }
+    }
+
+    @Benchmark
+    public void getMapRecordLongs(final Blackhole blackhole) {
+        for (int i = 1; i < fieldCount; i += 2) {
+            blackhole.consume(mapRecord.getAsLong(fieldNames.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void getArrayRecordLongs(final Blackhole blackhole) {
+        for (int i = 1; i < fieldCount; i += 2) {
+            blackhole.consume(arrayRecord.getAsLong(i));
+        }
+    }
+}
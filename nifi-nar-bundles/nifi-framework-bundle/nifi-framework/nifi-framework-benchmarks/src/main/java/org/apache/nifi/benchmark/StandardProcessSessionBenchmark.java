@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.controller.repository.RepositoryContext;
+import org.apache.nifi.controller.repository.StandardCounterRepository;
+import org.apache.nifi.controller.repository.StandardProcessSession;
+import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.processor.Processor;
+import org.apache.nifi.processor.Relationship;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures a complete {@link StandardProcessSession} lifecycle as performed by a Processor that generates data: creating
+ * FlowFiles, adding attributes, writing content, transferring and committing. The session uses a real FlowFile Repository
+ * and Content Repository in a temporary directory; the relationship is auto-terminated so that committed FlowFiles are
+ * removed again and the repositories do not grow for the duration of the trial. Provenance events are built but then
+ * discarded, so that no particular Provenance Repository implementation is being measured.
+ */
+@State(Scope.Benchmark)
+public class StandardProcessSessionBenchmark extends AbstractFrameworkBenchmark {
+    private static final Relationship REL_SUCCESS = new Relationship.Builder().name("success").build();
+
+    @Param({"1", "100"})
+    private int flowFileCount;
+
+    @Param({"5", "50"})
+    private int attributeCount;
+
+    @Param({"0", "1024", "1048576"})
+    private int contentSize;
+
+    private TemporaryRepositories repositories;
+    private RepositoryContext repositoryContext;
+    private List<Map<String, String>> attributes;
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new TemporaryRepositories();
+
+        final ProcessorNode connectable = Mockito.mock(ProcessorNode.class, Mockito.withSettings().stubOnly());
+        when(connectable.getIdentifier()).thenReturn("benchmark-processor");
+        when(connectable.getName()).thenReturn("Benchmark Processor");
+        when(connectable.getConnectableType()).thenReturn(ConnectableType.PROCESSOR);
+        when(connectable.getComponentType()).thenReturn("BenchmarkProcessor");
+        when(connectable.getProcessor()).thenReturn(Mockito.mock(Processor.class, Mockito.withSettings().stubOnly()));
+        when(connectable.getRelationships()).thenReturn(Collections.singleton(REL_SUCCESS));
+        when(connectable.isAutoTerminated(any(Relationship.class))).thenReturn(true);
+
+        repositoryContext = new RepositoryContext(connectable, new AtomicLong(0L), repositories.getContentRepository(), repositories.getFlowFileRepository(),
+            new RingBufferEventRepository(5), new StandardCounterRepository(), new DiscardingProvenanceEventRepository());
+
+        attributes = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < flowFileCount; i++) {
+            // the session assigns the uuid of each FlowFile that it creates
+            final Map<String, String> flowFileAttributes = createAttributes(attributeCount, i);
+            flowFileAttributes.remove(CoreAttributes.UUID.key());
+            attributes.add(flowFileAttributes);
+        }
+
+        content = new byte[contentSize];
+        new Random(contentSize).nextBytes(content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repositories.close();
+    }
+
+    @Benchmark
+    public void createWriteTransferCommit() {
+        final StandardProcessSession session = new StandardProcessSession(repositoryContext, () -> false);
+
+        for (final Map<String, String> flowFileAttributes : attributes) {
+            FlowFile flowFile = session.create();
+            flowFile = session.putAllAttributes(flowFile, flowFileAttributes);
+            if (content.length > 0) {
+                flowFile = session.write(flowFile, out -> out.write(content));
+            }
+
+            session.transfer(flowFile, REL_SUCCESS);
+        }
+
+        session.commit();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.FileSystemSwapManager;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.SwappablePriorityQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the cost of enqueuing a batch of FlowFiles into a {@link SwappablePriorityQueue} and polling all of them
+ * back out, as a Connection does between two Processors. Batches that are larger than the swap threshold are swapped
+ * to, and back in from, a {@link FileSystemSwapManager} in a temporary FlowFile Repository. The queue is shared by all
+ * benchmark threads, so running with more than one thread measures contention on the queue's lock.
+ */
+@State(Scope.Benchmark)
+public class SwappablePriorityQueueBenchmark extends AbstractFrameworkBenchmark {
+    private static final int SWAP_THRESHOLD = 20_000;
+    private static final int POLL_BATCH_SIZE = 100;
+
+    @Param({"1000", "50000"})
+    private int flowFileCount;
+
+    @Param({"5"})
+    private int attributeCount;
+
+    @Param({"fifo", "prioritized"})
+    private String ordering;
+
+    private TemporaryRepositories repositories;
+    private SwappablePriorityQueue queue;
+    private List<FlowFileRecord> flowFiles;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new TemporaryRepositories();
+
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class, Mockito.withSettings().stubOnly());
+        when(flowFileQueue.getIdentifier()).thenReturn("benchmark-queue");
+
+        final FileSystemSwapManager swapManager = new FileSystemSwapManager(repositories.getDirectory().resolve("flowfile_repository"));
+        swapManager.initialize(new SwapManagerInitializationContext() {
+            @Override
+            public FlowFileRepository getFlowFileRepository() {
+                return repositories.getFlowFileRepository();
+            }
+
+            @Override
+            public ResourceClaimManager getResourceClaimManager() {
+                return repositories.getClaimManager();
+            }
+
+            @Override
+            public EventReporter getEventReporter() {
+                return EventReporter.NO_OP;
+            }
+        });
+
+        queue = new SwappablePriorityQueue(swapManager, SWAP_THRESHOLD, EventReporter.NO_OP, flowFileQueue,
+            (toDrop, requestor) -> new QueueSize(toDrop.size(), 0L), "benchmark-partition");
+
+        if ("prioritized".equals(ordering)) {
+            final FlowFilePrioritizer byPriority = (a, b) -> Long.compare(Long.parseLong(a.getAttribute("priority")), Long.parseLong(b.getAttribute("priority")));
+            queue.setPriorities(Collections.singletonList(byPriority));
+        }
+
+        final long now = System.currentTimeMillis();
+        flowFiles = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < flowFileCount; i++) {
+            final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder()
+                .id(i)
+                .entryDate(now)
+                .lineageStart(now, i)
+                .lastQueued(now, i)
+                .addAttributes(createAttributes(attributeCount, i))
+                .addAttribute("priority", String.valueOf((i * 31L) % flowFileCount));
+
+            flowFiles.add(builder.build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repositories.close();
+    }
+
+    @Benchmark
+    public void putAllThenPollAll(final Blackhole blackhole) {
+        queue.putAll(flowFiles);
+
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        List<FlowFileRecord> polled;
+        while (!(polled = queue.poll(POLL_BATCH_SIZE, expired, 0L)).isEmpty()) {
+            blackhole.consume(polled);
+        }
+    }
+
+    @Benchmark
+    public void putThenPollOneAtATime(final Blackhole blackhole) {
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        for (final FlowFileRecord flowFile : flowFiles) {
+            queue.put(flowFile);
+            blackhole.consume(queue.poll(expired, 0L));
+        }
+    }
+}
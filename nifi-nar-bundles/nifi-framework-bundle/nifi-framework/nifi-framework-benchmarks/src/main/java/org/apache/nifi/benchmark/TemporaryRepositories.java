@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.util.file.FileUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A FlowFile Repository and Content Repository that live in a freshly created temporary directory and are
+ * deleted, along with everything written to them, when closed. Every trial of a benchmark gets its own instance
+ * so that no trial is influenced by data left over from a previous one.
+ */
+final class TemporaryRepositories implements Closeable {
+    private final Path directory;
+    private final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+    private final WriteAheadFlowFileRepository flowFileRepository;
+    private final FileSystemRepository contentRepository;
+
+    TemporaryRepositories() throws IOException {
+        directory = Files.createTempDirectory("nifi-benchmark");
+
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.FLOWFILE_REPOSITORY_DIRECTORY, directory.resolve("flowfile_repository").toString());
+        properties.put(NiFiProperties.FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL, "2 mins");
+        properties.put(NiFiProperties.REPOSITORY_CONTENT_PREFIX + "default", directory.resolve("content_repository").toString());
+        properties.put(NiFiProperties.CONTENT_ARCHIVE_ENABLED, "false");
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties("", properties);
+
+        flowFileRepository = new WriteAheadFlowFileRepository(nifiProperties);
+        flowFileRepository.initialize(claimManager);
+        flowFileRepository.loadFlowFiles(Collections::emptyList);
+
+        contentRepository = new FileSystemRepository(nifiProperties);
+        contentRepository.initialize(claimManager);
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    ResourceClaimManager getClaimManager() {
+        return claimManager;
+    }
+
+    WriteAheadFlowFileRepository getFlowFileRepository() {
+        return flowFileRepository;
+    }
+
+    FileSystemRepository getContentRepository() {
+        return contentRepository;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            contentRepository.shutdown();
+            flowFileRepository.close();
+        } finally {
+            FileUtils.deleteFile(directory.toFile(), true);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.RepositoryRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.StandardRepositoryRecord;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the cost of persisting FlowFiles to a {@link WriteAheadFlowFileRepository}. Each invocation creates a batch of
+ * FlowFiles in a single update, as a Process Session commit does, and then removes them again in a second update so that
+ * the size of the repository stays constant for the duration of the trial. Because all threads share one repository,
+ * running with more than one thread (<code>-t</code>) also measures how well concurrent updates are synced together.
+ */
+@State(Scope.Benchmark)
+public class WriteAheadFlowFileRepositoryBenchmark extends AbstractFrameworkBenchmark {
+
+    @Param({"1", "100"})
+    private int flowFileCount;
+
+    @Param({"5", "50"})
+    private int attributeCount;
+
+    private TemporaryRepositories repositories;
+    private WriteAheadFlowFileRepository flowFileRepository;
+    private FlowFileQueue flowFileQueue;
+    private List<Map<String, String>> attributes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new TemporaryRepositories();
+        flowFileRepository = repositories.getFlowFileRepository();
+
+        flowFileQueue = Mockito.mock(FlowFileQueue.class, Mockito.withSettings().stubOnly());
+        when(flowFileQueue.getIdentifier()).thenReturn("benchmark-queue");
+
+        attributes = new ArrayList<>(flowFileCount);
+        for (int i = 0; i < flowFileCount; i++) {
+            attributes.add(createAttributes(attributeCount, i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repositories.close();
+    }
+
+    @Benchmark
+    public void createThenDelete() throws IOException {
+        final long now = System.currentTimeMillis();
+
+        final List<RepositoryRecord> creates = new ArrayList<>(flowFileCount);
+        final List<RepositoryRecord> deletes = new ArrayList<>(flowFileCount);
+        for (final Map<String, String> flowFileAttributes : attributes) {
+            final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                .id(flowFileRepository.getNextFlowFileSequence())
+                .entryDate(now)
+                .lineageStart(now, 0L)
+                .addAttributes(flowFileAttributes)
+                .build();
+
+            final StandardRepositoryRecord create = new StandardRepositoryRecord(flowFileQueue);
+            create.setWorking(flowFile, false);
+            create.setDestination(flowFileQueue);
+            creates.add(create);
+
+            final StandardRepositoryRecord delete = new StandardRepositoryRecord(flowFileQueue, flowFile);
+            delete.markForDelete();
+            deletes.add(delete);
+        }
+
+        flowFileRepository.updateRepository(creates);
+        flowFileRepository.updateRepository(deletes);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * <p>
+ * JMH microbenchmarks for the hot paths of the NiFi framework: the Process Session, FlowFile Queues, the FlowFile
+ * and Content Repositories, the Expression Language, and Records. Every benchmark that touches a repository runs against
+ * repositories in a temporary directory that is created for, and deleted after, each trial.
+ * </p>
+ *
+ * <p>
+ * The module is only built when the <code>include-benchmarks</code> profile is active:
+ * </p>
+ *
+ * <pre>
+ * mvn clean package -Pinclude-benchmarks -pl nifi-nar-bundles/nifi-framework-bundle/nifi-framework/nifi-framework-benchmarks -am -DskipTests
+ * java -jar nifi-nar-bundles/nifi-framework-bundle/nifi-framework/nifi-framework-benchmarks/target/benchmarks.jar
+ * </pre>
+ *
+ * <p>
+ * Any of the standard JMH options may be given. A regular expression selects the benchmarks to run, <code>-p</code>
+ * overrides a parameter such as <code>flowFileCount</code>, <code>attributeCount</code> or <code>contentSize</code>,
+ * and <code>-t</code> sets the number of threads that call each benchmark concurrently:
+ * </p>
+ *
+ * <pre>
+ * java -jar benchmarks.jar StandardProcessSessionBenchmark -p contentSize=1024 -t 4
+ * </pre>
+ *
+ * <p>
+ * The number of forks, warmup iterations and measurement iterations are fixed by {@link org.apache.nifi.benchmark.AbstractFrameworkBenchmark}
+ * so that results taken from different commits are comparable. To compare a change against its baseline, run the same
+ * selection of benchmarks on the same machine for both commits and write the results as JSON:
+ * </p>
+ *
+ * <pre>
+ * java -jar benchmarks.jar -rf json -rff baseline.json
+ * java -jar benchmarks.jar -rf json -rff change.json
+ * </pre>
+ *
+ * <p>
+ * The two files can then be compared side by side, or with any tool that understands the JMH JSON format.
+ * A difference is only meaningful when it is larger than the error that JMH reports for both results.
+ * </p>
+ */
+package org.apache.nifi.benchmark;
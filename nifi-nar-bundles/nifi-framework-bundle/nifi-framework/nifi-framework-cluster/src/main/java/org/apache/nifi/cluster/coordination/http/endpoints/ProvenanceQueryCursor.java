@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.http.endpoints;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * The position of a client that is paging through the results of a Provenance query. Results are returned newest first,
+ * in order of descending Event ID, so the position on a single node is the ID of the last event that was returned: the
+ * next page holds the events with smaller IDs.
+ * </p>
+ *
+ * <p>
+ * Because each node in a cluster assigns its own Event IDs, the cursor of a clustered query holds the position on each node,
+ * in the form <code>nodeId:eventId,nodeId:eventId</code>. A node that has no entry has not returned any events yet, and a node
+ * whose entry is <code>0</code> has no further events. A standalone instance uses the Event ID alone.
+ * </p>
+ */
+public final class ProvenanceQueryCursor {
+    private static final String NODE_SEPARATOR = ",";
+    private static final String ID_SEPARATOR = ":";
+
+    private final Map<String, Long> nodeEventIds;
+    private final Long eventId;
+
+    private ProvenanceQueryCursor(final Map<String, Long> nodeEventIds, final Long eventId) {
+        this.nodeEventIds = nodeEventIds;
+        this.eventId = eventId;
+    }
+
+    /**
+     * @param cursor the cursor that was provided by the client, or <code>null</code> when requesting the first page
+     * @return the parsed cursor
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public static ProvenanceQueryCursor parse(final String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return new ProvenanceQueryCursor(Collections.emptyMap(), null);
+        }
+
+        try {
+            if (!cursor.contains(ID_SEPARATOR)) {
+                return new ProvenanceQueryCursor(Collections.emptyMap(), Long.parseLong(cursor.trim()));
+            }
+
+            final Map<String, Long> nodeEventIds = new LinkedHashMap<>();
+            for (final String entry : cursor.split(NODE_SEPARATOR)) {
+                final int separatorIndex = entry.lastIndexOf(ID_SEPARATOR);
+                if (separatorIndex < 1) {
+                    throw new IllegalArgumentException("Invalid Provenance query cursor: " + cursor);
+                }
+
+                nodeEventIds.put(entry.substring(0, separatorIndex).trim(), Long.parseLong(entry.substring(separatorIndex + 1).trim()));
+            }
+
+            return new ProvenanceQueryCursor(nodeEventIds, null);
+        } catch (final NumberFormatException nfe) {
+            throw new IllegalArgumentException("Invalid Provenance query cursor: " + cursor, nfe);
+        }
+    }
+
+    /**
+     * @param nodeEventIds the position on each node
+     * @return a cursor that holds the position on each of the given nodes
+     */
+    public static ProvenanceQueryCursor forNodes(final Map<String, Long> nodeEventIds) {
+        return new ProvenanceQueryCursor(new LinkedHashMap<>(nodeEventIds), null);
+    }
+
+    /**
+     * Returns the ID that all events on the given node must be smaller than in order to be included in the next page.
+     *
+     * @param nodeId the identifier of the node, or <code>null</code> if not clustered
+     * @return the Event ID, or <code>null</code> if the next page begins with the newest event
+     */
+    public Long getEventIdBefore(final String nodeId) {
+        if (nodeId != null && !nodeEventIds.isEmpty()) {
+            return nodeEventIds.get(nodeId);
+        }
+
+        return eventId;
+    }
+
+    /**
+     * @return the position on each node, for a clustered cursor
+     */
+    public Map<String, Long> getNodeEventIds() {
+        return Collections.unmodifiableMap(nodeEventIds);
+    }
+
+    @Override
+    public String toString() {
+        if (nodeEventIds.isEmpty()) {
+            return eventId == null ? "" : String.valueOf(eventId);
+        }
+
+        return nodeEventIds.entrySet().stream()
+            .map(entry -> entry.getKey() + ID_SEPARATOR + entry.getValue())
+            .collect(Collectors.joining(NODE_SEPARATOR));
+    }
+}
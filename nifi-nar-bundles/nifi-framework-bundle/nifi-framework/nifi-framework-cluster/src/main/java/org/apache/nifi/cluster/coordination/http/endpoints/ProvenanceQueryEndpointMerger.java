@@ -27,17 +27,23 @@ import org.apache.nifi.web.api.dto.provenance.ProvenanceRequestDTO;
 import org.apache.nifi.web.api.dto.provenance.ProvenanceResultsDTO;
 import org.apache.nifi.web.api.entity.ProvenanceEntity;
 
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
     public static final String PROVENANCE_URI = "/nifi-api/provenance";
@@ -70,12 +76,43 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
             dtoMap.put(nodeResponse.getNodeId(), nodeDto);
         }
 
-        mergeResponses(dto, dtoMap, successfulResponses, problematicResponses);
+        final String pageSize = getQueryParameter(uri, "pageSize");
+        final String cursor = getQueryParameter(uri, "cursor");
+        mergeResponses(dto, dtoMap, successfulResponses, problematicResponses, pageSize == null ? null : Integer.parseInt(pageSize), ProvenanceQueryCursor.parse(cursor));
         return new NodeResponse(clientResponse, responseEntity);
     }
 
+    private String getQueryParameter(final URI uri, final String name) {
+        final String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+
+        for (final String parameter : query.split("&")) {
+            final int equalsIndex = parameter.indexOf('=');
+            if (equalsIndex > 0 && parameter.substring(0, equalsIndex).equals(name)) {
+                try {
+                    return URLDecoder.decode(parameter.substring(equalsIndex + 1), StandardCharsets.UTF_8.name());
+                } catch (final UnsupportedEncodingException uee) {
+                    throw new IllegalStateException(uee);
+                }
+            }
+        }
+
+        return null;
+    }
 
     protected void mergeResponses(ProvenanceDTO clientDto, Map<NodeIdentifier, ProvenanceDTO> dtoMap, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses) {
+        mergeResponses(clientDto, dtoMap, successfulResponses, problematicResponses, null, ProvenanceQueryCursor.parse(null));
+    }
+
+    /**
+     * Merges the responses of the nodes. If a page size is given, each node has returned a single page of its results, ordered by
+     * its own Event IDs, and the merged page holds the newest of those events. Only a leading run of each node's page can be included,
+     * so that the cursor for the next page can record the position on each node.
+     */
+    protected void mergeResponses(ProvenanceDTO clientDto, Map<NodeIdentifier, ProvenanceDTO> dtoMap, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses,
+                                  Integer pageSize, ProvenanceQueryCursor cursor) {
         final ProvenanceResultsDTO results = clientDto.getResults();
         final ProvenanceRequestDTO request = clientDto.getRequest();
         final List<ProvenanceEventDTO> allResults = new ArrayList<>(1024);
@@ -172,7 +209,9 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
 
         final int maxResults = request.getMaxResults().intValue();
         final List<ProvenanceEventDTO> selectedResults;
-        if (allResults.size() < maxResults) {
+        if (pageSize != null) {
+            selectedResults = selectPage(allResults, dtoMap, pageSize, cursor, results);
+        } else if (allResults.size() < maxResults) {
             selectedResults = allResults;
         } else {
             selectedResults = allResults.subList(0, maxResults);
@@ -197,4 +236,48 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
         clientDto.setPercentCompleted(percentageComplete);
         clientDto.setFinished(finished);
     }
+
+    private List<ProvenanceEventDTO> selectPage(final List<ProvenanceEventDTO> sortedResults, final Map<NodeIdentifier, ProvenanceDTO> dtoMap, final int pageSize,
+                                                final ProvenanceQueryCursor cursor, final ProvenanceResultsDTO results) {
+        final Set<ProvenanceEventDTO> newest = Collections.newSetFromMap(new IdentityHashMap<>());
+        newest.addAll(sortedResults.subList(0, Math.min(pageSize, sortedResults.size())));
+
+        final Set<ProvenanceEventDTO> page = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Map<String, Long> nodeEventIds = new LinkedHashMap<>(cursor.getNodeEventIds());
+        boolean moreResults = false;
+
+        for (final Map.Entry<NodeIdentifier, ProvenanceDTO> entry : dtoMap.entrySet()) {
+            final ProvenanceDTO nodeDto = entry.getValue();
+            final ProvenanceResultsDTO nodeResults = nodeDto.getResults();
+            final List<ProvenanceEventDTO> nodeEvents = nodeResults == null || nodeResults.getProvenanceEvents() == null
+                ? Collections.emptyList() : nodeResults.getProvenanceEvents();
+
+            // Events from a node are ordered by its Event IDs, so only those preceding the first event that did not make the page can be included.
+            int included = 0;
+            while (included < nodeEvents.size() && newest.contains(nodeEvents.get(included))) {
+                included++;
+            }
+
+            page.addAll(nodeEvents.subList(0, included));
+
+            final String nodeId = entry.getKey().getId();
+            if (included > 0) {
+                nodeEventIds.put(nodeId, nodeEvents.get(included - 1).getEventId());
+            }
+
+            final boolean nodeExhausted = included == nodeEvents.size() && nodeResults != null && nodeResults.getNextCursor() == null && nodeDto.isFinished();
+            if (nodeExhausted) {
+                // no events have an ID smaller than 0
+                nodeEventIds.put(nodeId, 0L);
+            } else {
+                moreResults = true;
+            }
+        }
+
+        results.setNextCursor(moreResults ? ProvenanceQueryCursor.forNodes(nodeEventIds).toString() : null);
+
+        return sortedResults.stream()
+            .filter(page::contains)
+            .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.http.endpoints;
+
+import org.apache.nifi.cluster.manager.NodeResponse;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceEventDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceRequestDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceResultsDTO;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestProvenanceQueryEndpointMerger {
+    private final NodeIdentifier node1 = new NodeIdentifier("node-1", "localhost", 9000, "localhost", 9001, "localhost", 9002, 9003, false);
+    private final NodeIdentifier node2 = new NodeIdentifier("node-2", "localhost", 8000, "localhost", 8001, "localhost", 8002, 8003, false);
+
+    @Test
+    public void testMergePage() {
+        // node-1 has the newest two events, node-2 the third, so the page can include only a leading run of each node's events
+        final Map<NodeIdentifier, ProvenanceDTO> dtoMap = new LinkedHashMap<>();
+        dtoMap.put(node1, createNodeDto(true, "7", event(9, 1000L), event(8, 900L), event(7, 500L)));
+        dtoMap.put(node2, createNodeDto(true, "2", event(4, 800L), event(3, 700L), event(2, 600L)));
+
+        final ProvenanceDTO clientDto = createClientDto();
+        new ProvenanceQueryEndpointMerger().mergeResponses(clientDto, dtoMap, Collections.emptySet(), Collections.<NodeResponse>emptySet(), 3, ProvenanceQueryCursor.parse(null));
+
+        assertEquals(Long.valueOf(8L), clientDto.getResults().getTotalCount());
+        assertEquals(list(1000L, 900L, 800L), getEventTimes(clientDto));
+        assertEquals("node-1:8,node-2:4", clientDto.getResults().getNextCursor());
+    }
+
+    @Test
+    public void testMergePageKeepsPositionOfNodeWithoutEvents() {
+        final Map<NodeIdentifier, ProvenanceDTO> dtoMap = new LinkedHashMap<>();
+        dtoMap.put(node1, createNodeDto(true, "7", event(8, 900L), event(7, 500L)));
+        dtoMap.put(node2, createNodeDto(true, "2", event(3, 700L), event(2, 600L)));
+
+        final ProvenanceDTO clientDto = createClientDto();
+        new ProvenanceQueryEndpointMerger().mergeResponses(clientDto, dtoMap, Collections.emptySet(), Collections.<NodeResponse>emptySet(), 1,
+            ProvenanceQueryCursor.parse("node-1:9,node-2:4"));
+
+        assertEquals(list(900L), getEventTimes(clientDto));
+        assertEquals("node-1:8,node-2:4", clientDto.getResults().getNextCursor());
+    }
+
+    @Test
+    public void testMergeLastPage() {
+        final Map<NodeIdentifier, ProvenanceDTO> dtoMap = new LinkedHashMap<>();
+        dtoMap.put(node1, createNodeDto(true, null, event(1, 500L)));
+        dtoMap.put(node2, createNodeDto(true, null));
+
+        final ProvenanceDTO clientDto = createClientDto();
+        new ProvenanceQueryEndpointMerger().mergeResponses(clientDto, dtoMap, Collections.emptySet(), Collections.<NodeResponse>emptySet(), 3,
+            ProvenanceQueryCursor.parse("node-1:2,node-2:0"));
+
+        assertEquals(list(500L), getEventTimes(clientDto));
+        assertNull(clientDto.getResults().getNextCursor());
+    }
+
+    @Test
+    public void testParseCursor() {
+        assertNull(ProvenanceQueryCursor.parse(null).getEventIdBefore(null));
+        assertEquals(Long.valueOf(42L), ProvenanceQueryCursor.parse("42").getEventIdBefore(null));
+
+        final ProvenanceQueryCursor cursor = ProvenanceQueryCursor.parse("node-1:8,node-2:0");
+        assertEquals(Long.valueOf(8L), cursor.getEventIdBefore("node-1"));
+        assertEquals(Long.valueOf(0L), cursor.getEventIdBefore("node-2"));
+        assertNull(cursor.getEventIdBefore("node-3"));
+        assertEquals("node-1:8,node-2:0", cursor.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidCursor() {
+        ProvenanceQueryCursor.parse("node-1:abc");
+    }
+
+    private ProvenanceDTO createClientDto() {
+        final ProvenanceRequestDTO request = new ProvenanceRequestDTO();
+        request.setMaxResults(1000);
+
+        final ProvenanceDTO dto = new ProvenanceDTO();
+        dto.setRequest(request);
+        dto.setResults(new ProvenanceResultsDTO());
+        return dto;
+    }
+
+    private ProvenanceDTO createNodeDto(final boolean finished, final String nextCursor, final ProvenanceEventDTO... events) {
+        final ProvenanceResultsDTO results = new ProvenanceResultsDTO();
+        results.setProvenanceEvents(new ArrayList<>(list(events)));
+        results.setTotalCount((long) events.length + 1);
+        results.setNextCursor(nextCursor);
+
+        final ProvenanceDTO dto = new ProvenanceDTO();
+        dto.setResults(results);
+        dto.setFinished(finished);
+        dto.setPercentCompleted(100);
+        return dto;
+    }
+
+    private ProvenanceEventDTO event(final long eventId, final long eventTime) {
+        final ProvenanceEventDTO event = new ProvenanceEventDTO();
+        event.setId(String.valueOf(eventId));
+        event.setEventId(eventId);
+        event.setEventTime(new Date(eventTime));
+        return event;
+    }
+
+    private List<Long> getEventTimes(final ProvenanceDTO dto) {
+        return dto.getResults().getProvenanceEvents().stream()
+            .map(event -> event.getEventTime().getTime())
+            .collect(Collectors.toList());
+    }
+
+    @SafeVarargs
+    private static <T> List<T> list(final T... values) {
+        final List<T> list = new ArrayList<>();
+        Collections.addAll(list, values);
+        return list;
+    }
+}
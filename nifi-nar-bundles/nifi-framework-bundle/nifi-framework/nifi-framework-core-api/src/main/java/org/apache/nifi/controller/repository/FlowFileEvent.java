@@ -16,6 +16,8 @@
  */
 package org.apache.nifi.controller.repository;
 
+import org.apache.nifi.controller.status.LatencyDistribution;
+
 import java.util.Map;
 
 public interface FlowFileEvent {
@@ -54,4 +56,13 @@ public interface FlowFileEvent {
 
     Map<String, Long> getCounters();
 
+    /**
+     * @param latencyType the kind of operation
+     * @return the distribution of the durations of operations of the given kind, or <code>null</code> if no such
+     *         durations were recorded
+     */
+    default LatencyDistribution getLatencyDistribution(LatencyType latencyType) {
+        return null;
+    }
+
 }
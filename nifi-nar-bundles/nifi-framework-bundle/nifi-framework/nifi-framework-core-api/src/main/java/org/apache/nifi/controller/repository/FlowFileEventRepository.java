@@ -30,6 +30,19 @@ public interface FlowFileEventRepository extends Closeable {
      */
     void updateRepository(FlowFileEvent event, String componentIdentifier) throws IOException;
 
+    /**
+     * Records the duration of a single operation that a component performed, so that the repository can report
+     * the distribution of these durations, and not only their sum, through {@link FlowFileEvent#getLatencyDistribution(LatencyType)}.
+     * This is called on the component's own threads for every operation, so implementations must be cheap and should
+     * not block.
+     *
+     * @param componentIdentifier the ID of the component that performed the operation
+     * @param latencyType the kind of operation
+     * @param nanos the duration of the operation, in nanoseconds
+     */
+    default void recordLatency(String componentIdentifier, LatencyType latencyType, long nanos) {
+    }
+
     /**
      * @param now the current time
      * @return a report of processing activity
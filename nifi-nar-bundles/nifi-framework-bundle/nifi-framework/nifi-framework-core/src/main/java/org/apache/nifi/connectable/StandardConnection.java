@@ -73,6 +73,7 @@ public final class StandardConnection implements Connection, ConnectionEventList
     private final ProcessScheduler scheduler;
     private final FlowFileQueueFactory flowFileQueueFactory;
     private final boolean clustered;
+    private final boolean demandDrivenScheduling;
     private final int hashCode;
 
     private volatile FlowFileQueue flowFileQueue;
@@ -88,6 +89,7 @@ public final class StandardConnection implements Connection, ConnectionEventList
         scheduler = builder.scheduler;
         flowFileQueueFactory = builder.flowFileQueueFactory;
         clustered = builder.clustered;
+        demandDrivenScheduling = builder.demandDrivenScheduling;
 
         flowFileQueue = flowFileQueueFactory.createFlowFileQueue(LoadBalanceStrategy.DO_NOT_LOAD_BALANCE, null, this);
         hashCode = new HashCodeBuilder(7, 67).append(id).toHashCode();
@@ -151,7 +153,10 @@ public final class StandardConnection implements Connection, ConnectionEventList
 
     @Override
     public void triggerDestinationEvent() {
-        if (getDestination().getSchedulingStrategy() == SchedulingStrategy.EVENT_DRIVEN) {
+        // If demand-driven scheduling is enabled, Timer-Driven components are notified as well so that a component
+        // that is waiting on input can be woken immediately.
+        final SchedulingStrategy schedulingStrategy = getDestination().getSchedulingStrategy();
+        if (schedulingStrategy == SchedulingStrategy.EVENT_DRIVEN || (demandDrivenScheduling && schedulingStrategy != SchedulingStrategy.CRON_DRIVEN)) {
             scheduler.registerEvent(getDestination());
         }
     }
@@ -404,6 +409,7 @@ public final class StandardConnection implements Connection, ConnectionEventList
         private Collection<Relationship> relationships;
         private FlowFileQueueFactory flowFileQueueFactory;
         private boolean clustered = false;
+        private boolean demandDrivenScheduling = false;
 
         public Builder(final ProcessScheduler scheduler) {
             this.scheduler = scheduler;
@@ -460,6 +466,11 @@ public final class StandardConnection implements Connection, ConnectionEventList
             return this;
         }
 
+        public Builder demandDrivenScheduling(final boolean demandDrivenScheduling) {
+            this.demandDrivenScheduling = demandDrivenScheduling;
+            return this;
+        }
+
         public StandardConnection build() {
             if (source == null) {
                 throw new IllegalStateException("Cannot build a Connection without a Source");
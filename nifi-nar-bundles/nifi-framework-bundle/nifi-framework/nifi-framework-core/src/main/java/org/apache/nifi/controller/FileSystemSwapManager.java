@@ -26,6 +26,8 @@ import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.SwapSummary;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.CompressedSwapDeserializer;
+import org.apache.nifi.controller.swap.CompressedSwapSerializer;
 import org.apache.nifi.controller.swap.SchemaSwapDeserializer;
 import org.apache.nifi.controller.swap.SchemaSwapSerializer;
 import org.apache.nifi.controller.swap.SimpleSwapDeserializer;
@@ -33,6 +35,7 @@ import org.apache.nifi.controller.swap.StandardSwapContents;
 import org.apache.nifi.controller.swap.StandardSwapSummary;
 import org.apache.nifi.controller.swap.SwapDeserializer;
 import org.apache.nifi.controller.swap.SwapSerializer;
+import org.apache.nifi.engine.FlowEngine;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.reporting.Severity;
 import org.apache.nifi.stream.io.StreamUtils;
@@ -63,6 +66,15 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -81,8 +93,19 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     public static final int SWAP_ENCODING_VERSION = 10;
     public static final String EVENT_CATEGORY = "Swap FlowFiles";
     private static final Logger logger = LoggerFactory.getLogger(FileSystemSwapManager.class);
+    private static final int MAX_PREFETCHED_SWAP_FILES = 8;
+    private static final long PREFETCH_THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    // Prefetched FlowFiles are held on the heap without being counted as part of any queue's active FlowFiles, so the number of them that
+    // may be held at once is bounded across all Swap Managers. This is the equivalent of 10 Swap Files as written by a FlowFile Queue.
+    static final long MAX_PREFETCHED_FLOWFILES = 100_000L;
+    private static final AtomicLong prefetchedFlowFileCount = new AtomicLong(0L);
 
     private final File storageDirectory;
+    private final boolean compressionEnabled;
+    private final ConcurrentMap<String, PrefetchedSwapFile> prefetchedSwapFiles = new ConcurrentHashMap<>();
+    private ExecutorService prefetchExecutor; // guarded by synchronizing on this
+    private boolean shutdown = false; // guarded by synchronizing on this
 
     // effectively final
     private FlowFileRepository flowFileRepository;
@@ -96,13 +119,19 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
      */
     public FileSystemSwapManager() {
         storageDirectory = null;
+        compressionEnabled = Boolean.parseBoolean(NiFiProperties.DEFAULT_QUEUE_SWAP_COMPRESSION_ENABLED);
     }
 
     public FileSystemSwapManager(final NiFiProperties nifiProperties) {
-        this(nifiProperties.getFlowFileRepositoryPath());
+        this(nifiProperties.getFlowFileRepositoryPath(), nifiProperties.isQueueSwapCompressionEnabled());
     }
 
     public FileSystemSwapManager(final Path flowFileRepoPath) {
+        this(flowFileRepoPath, Boolean.parseBoolean(NiFiProperties.DEFAULT_QUEUE_SWAP_COMPRESSION_ENABLED));
+    }
+
+    public FileSystemSwapManager(final Path flowFileRepoPath, final boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
         this.storageDirectory = flowFileRepoPath.resolve("swap").toFile();
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new RuntimeException("Cannot create Swap Storage directory " + storageDirectory.getAbsolutePath());
@@ -132,7 +161,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         final File swapTempFile = new File(swapFile.getParentFile(), swapFile.getName() + ".part");
         final String swapLocation = swapFile.getAbsolutePath();
 
-        final SwapSerializer serializer = new SchemaSwapSerializer();
+        final SwapSerializer serializer = compressionEnabled ? new CompressedSwapSerializer() : new SchemaSwapSerializer();
         try (final FileOutputStream fos = new FileOutputStream(swapTempFile);
             final OutputStream out = new BufferedOutputStream(fos)) {
             out.write(MAGIC_HEADER);
@@ -169,7 +198,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             return new StandardSwapContents(swapSummary, Collections.emptyList());
         }
 
-        final SwapContents swapContents = peek(swapLocation, flowFileQueue);
+        final SwapContents swapContents = getPrefetchedOrPeek(swapLocation, flowFileQueue);
         flowFileRepository.swapFlowFilesIn(swapFile.getAbsolutePath(), swapContents.getFlowFiles(), flowFileQueue);
 
         if (!swapFile.delete()) {
@@ -179,6 +208,95 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         return swapContents;
     }
 
+    /**
+     * Returns the contents of the given Swap File that were read in the background by {@link #prefetch(String, FlowFileQueue)}, if available.
+     * Otherwise, or if the background read failed for any reason, reads the Swap File on the calling thread so that any failure is surfaced
+     * to the caller exactly as it would have been without prefetching.
+     */
+    private SwapContents getPrefetchedOrPeek(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        final PrefetchedSwapFile prefetched = prefetchedSwapFiles.remove(swapLocation);
+        if (prefetched != null) {
+            final SwapContents swapContents = prefetched.await();
+            if (swapContents != null) {
+                return swapContents;
+            }
+        }
+
+        return peek(swapLocation, flowFileQueue);
+    }
+
+    @Override
+    public void prefetch(final String swapLocation, final FlowFileQueue flowFileQueue) {
+        if (prefetchedSwapFiles.containsKey(swapLocation)) {
+            return;
+        }
+
+        if (prefetchedSwapFiles.size() >= MAX_PREFETCHED_SWAP_FILES) {
+            // Discard any prefetched Swap Files that were removed without being swapped in, such as when a queue is emptied.
+            prefetchedSwapFiles.keySet().stream()
+                .filter(location -> !new File(location).exists())
+                .forEach(this::discardPrefetched);
+
+            if (prefetchedSwapFiles.size() >= MAX_PREFETCHED_SWAP_FILES) {
+                return;
+            }
+        }
+
+        if (prefetchedFlowFileCount.get() >= MAX_PREFETCHED_FLOWFILES) {
+            logger.debug("Will not prefetch Swap File {} for {} because {} FlowFiles have already been prefetched", swapLocation, flowFileQueue, prefetchedFlowFileCount.get());
+            return;
+        }
+
+        prefetchedSwapFiles.computeIfAbsent(swapLocation, location -> {
+            final PrefetchedSwapFile prefetched = new PrefetchedSwapFile();
+            prefetched.future = submitPrefetch(() -> {
+                prefetched.complete(peek(location, flowFileQueue));
+                return null;
+            });
+            return prefetched.future == null ? null : prefetched;
+        });
+        logger.debug("Prefetching Swap File {} for {}", swapLocation, flowFileQueue);
+    }
+
+    private synchronized Future<?> submitPrefetch(final Callable<Void> task) {
+        if (shutdown) {
+            return null;
+        }
+
+        if (prefetchExecutor == null) {
+            // Most queues never swap, and those that do may stop doing so, so the thread is created only when needed and allowed to die when idle.
+            final FlowEngine executor = new FlowEngine(1, "Swap Prefetch", true);
+            executor.setKeepAliveTime(PREFETCH_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            prefetchExecutor = executor;
+        }
+
+        return prefetchExecutor.submit(task);
+    }
+
+    private void discardPrefetched(final String swapLocation) {
+        final PrefetchedSwapFile prefetched = prefetchedSwapFiles.remove(swapLocation);
+        if (prefetched != null) {
+            prefetched.discard();
+        }
+    }
+
+    private void discardAllPrefetched(final boolean shutdown) {
+        synchronized (this) {
+            this.shutdown = shutdown;
+            if (prefetchExecutor != null) {
+                prefetchExecutor.shutdownNow();
+                prefetchExecutor = null;
+            }
+        }
+
+        prefetchedSwapFiles.keySet().forEach(this::discardPrefetched);
+    }
+
+    static long getPrefetchedFlowFileCount() {
+        return prefetchedFlowFileCount.get();
+    }
+
     @Override
     public SwapContents peek(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
         final File swapFile = new File(swapLocation);
@@ -197,6 +315,8 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
     @Override
     public void purge() {
+        discardAllPrefetched(false);
+
         final File[] swapFiles = storageDirectory.listFiles(new FilenameFilter() {
             @Override
             public boolean accept(final File dir, final String name) {
@@ -211,6 +331,11 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         }
     }
 
+    @Override
+    public void shutdown() {
+        discardAllPrefetched(true);
+    }
+
     @Override
     public String getQueueIdentifier(final String swapLocation) {
         final String filename = swapLocation.contains("/") ? StringUtils.substringAfterLast(swapLocation, "/") : swapLocation;
@@ -374,6 +499,9 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             if (serializationName.equals(SchemaSwapDeserializer.getSerializationName())) {
                 return new SchemaSwapDeserializer();
             }
+            if (serializationName.equals(CompressedSwapDeserializer.getSerializationName())) {
+                return new CompressedSwapDeserializer();
+            }
 
             throw new IOException("Cannot find a suitable Deserializer for swap file, written with Serialization Name '" + serializationName + "'");
         } else {
@@ -469,8 +597,70 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         final File newFile = new File(existingFile.getParentFile(), newFilename);
         // Use Files.move and convert to Path's instead of File.rename so that we get an IOException on failure that describes why we failed.
         Files.move(existingFile.toPath(), newFile.toPath());
+        discardPrefetched(swapLocation);
 
         logger.debug("Changed Partition for Swap File by renaming from {} to {}", swapLocation, newPartitionName);
         return newFile.getAbsolutePath();
     }
+
+    /**
+     * The contents of a Swap File that is being read, or has been read, in the background. The FlowFiles that it holds are counted
+     * against {@link #MAX_PREFETCHED_FLOWFILES} from the time that the Swap File has been read until they are swapped in or discarded.
+     * If holding them would exceed that limit, they are dropped and the Swap File is read again when it is swapped in.
+     */
+    private static class PrefetchedSwapFile {
+        private volatile Future<?> future;
+        private SwapContents contents;
+        private boolean released = false;
+
+        synchronized void complete(final SwapContents swapContents) {
+            if (released) {
+                return;
+            }
+
+            final int flowFileCount = swapContents.getFlowFiles().size();
+            if (prefetchedFlowFileCount.addAndGet(flowFileCount) > MAX_PREFETCHED_FLOWFILES) {
+                prefetchedFlowFileCount.addAndGet(-flowFileCount);
+                return;
+            }
+
+            contents = swapContents;
+        }
+
+        private synchronized SwapContents release() {
+            released = true;
+
+            final SwapContents swapContents = contents;
+            contents = null;
+            if (swapContents != null) {
+                prefetchedFlowFileCount.addAndGet(-swapContents.getFlowFiles().size());
+            }
+
+            return swapContents;
+        }
+
+        /**
+         * Waits for the background read to finish and returns the contents of the Swap File, or <code>null</code> if they were not retained
+         */
+        SwapContents await() {
+            try {
+                future.get();
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                discard();
+                return null;
+            } catch (final ExecutionException ee) {
+                logger.debug("Failed to prefetch Swap File; will read it synchronously instead", ee.getCause());
+            } catch (final CancellationException ce) {
+                return null;
+            }
+
+            return release();
+        }
+
+        void discard() {
+            release();
+            future.cancel(true);
+        }
+    }
 }
@@ -19,6 +19,7 @@ package org.apache.nifi.controller;
 import static java.util.Objects.requireNonNull;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -36,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
@@ -119,6 +121,7 @@ import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.ProvenanceCaptureConfiguration;
 import org.apache.nifi.controller.repository.QueueProvider;
 import org.apache.nifi.controller.repository.RepositoryStatusReport;
 import org.apache.nifi.controller.repository.StandardCounterRepository;
@@ -249,11 +252,13 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     private final AtomicReference<FlowEngine> timerDrivenEngineRef;
     private final AtomicReference<FlowEngine> eventDrivenEngineRef;
     private final EventDrivenSchedulingAgent eventDrivenSchedulingAgent;
+    private final TimerDrivenSchedulingAgent timerDrivenSchedulingAgent;
 
     private final ContentRepository contentRepository;
     private final FlowFileRepository flowFileRepository;
     private final FlowFileEventRepository flowFileEventRepository;
     private final ProvenanceRepository provenanceRepository;
+    private final ProvenanceCaptureConfiguration provenanceCaptureConfiguration;
     private final BulletinRepository bulletinRepository;
     private final StandardProcessScheduler processScheduler;
     private final SnippetManager snippetManager;
@@ -270,6 +275,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     private final AuditService auditService;
     private final EventDrivenWorkerQueue eventDrivenWorkerQueue;
     private final ComponentStatusRepository componentStatusRepository;
+    // Swap Managers are held weakly so that those of removed connections can still be garbage collected
+    private final Set<FlowFileSwapManager> swapManagers = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
     private final StateManagerProvider stateManagerProvider;
     private final long systemStartTime = System.currentTimeMillis(); // time at which the node was started
     private final VariableRegistry variableRegistry;
@@ -504,6 +511,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
             throw new RuntimeException("Unable to create Provenance Repository", e);
         }
 
+        provenanceCaptureConfiguration = ProvenanceCaptureConfiguration.create(nifiProperties);
+
         try {
             this.contentRepository = createContentRepository(nifiProperties);
         } catch (final Exception e) {
@@ -520,7 +529,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         eventDrivenWorkerQueue = new EventDrivenWorkerQueue(false, false, processScheduler);
 
         parameterContextManager = new StandardParameterContextManager();
-        repositoryContextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository, flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository);
+        repositoryContextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository, flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository,
+            provenanceCaptureConfiguration);
         flowManager = new StandardFlowManager(nifiProperties, sslContext, this, flowFileEventRepository, parameterContextManager);
 
         controllerServiceProvider = new StandardControllerServiceProvider(this, processScheduler, bulletinRepository);
@@ -531,10 +541,10 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         processScheduler.setSchedulingAgent(SchedulingStrategy.EVENT_DRIVEN, eventDrivenSchedulingAgent);
 
         final QuartzSchedulingAgent quartzSchedulingAgent = new QuartzSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory, encryptor);
-        final TimerDrivenSchedulingAgent timerDrivenAgent = new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory, encryptor, this.nifiProperties);
-        processScheduler.setSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN, timerDrivenAgent);
+        timerDrivenSchedulingAgent = new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory, encryptor, this.nifiProperties);
+        processScheduler.setSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN, timerDrivenSchedulingAgent);
         // PRIMARY_NODE_ONLY is deprecated, but still exists to handle processors that are still defined with it (they haven't been re-configured with executeNode = PRIMARY).
-        processScheduler.setSchedulingAgent(SchedulingStrategy.PRIMARY_NODE_ONLY, timerDrivenAgent);
+        processScheduler.setSchedulingAgent(SchedulingStrategy.PRIMARY_NODE_ONLY, timerDrivenSchedulingAgent);
         processScheduler.setSchedulingAgent(SchedulingStrategy.CRON_DRIVEN, quartzSchedulingAgent);
 
         startConnectablesAfterInitialization = new ArrayList<>();
@@ -836,6 +846,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                 swapManager.initialize(initializationContext);
             }
 
+            swapManagers.add(swapManager);
             return swapManager;
         } catch (final Exception e) {
             throw new RuntimeException(e);
@@ -905,7 +916,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
 
             // Begin expiring FlowFiles that are old
             final RepositoryContextFactory contextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository,
-                    flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository);
+                    flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository, provenanceCaptureConfiguration);
             processScheduler.scheduleFrameworkTask(new ExpireFlowFiles(this, contextFactory), "Expire FlowFiles", 30L, 30L, TimeUnit.SECONDS);
 
             // now that we've loaded the FlowFiles, this has restored our ContentClaims' states, so we can tell the
@@ -1300,12 +1311,30 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                 LOG.info("Interrupted while waiting for controller termination.");
             }
 
+            synchronized (swapManagers) {
+                for (final FlowFileSwapManager swapManager : swapManagers) {
+                    try {
+                        swapManager.shutdown();
+                    } catch (final Throwable t) {
+                        LOG.warn("Unable to shut down FlowFile Swap Manager due to {}", new Object[]{t});
+                    }
+                }
+            }
+
             try {
                 flowFileRepository.close();
             } catch (final Throwable t) {
                 LOG.warn("Unable to shut down FlowFileRepository due to {}", new Object[]{t});
             }
 
+            if (componentStatusRepository instanceof Closeable) {
+                try {
+                    ((Closeable) componentStatusRepository).close();
+                } catch (final Throwable t) {
+                    LOG.warn("Unable to shut down Component Status Repository due to {}", new Object[]{t});
+                }
+            }
+
             if (this.timerDrivenEngineRef.get().isTerminated() && eventDrivenEngineRef.get().isTerminated()) {
                 LOG.info("Controller has been terminated successfully.");
             } else {
@@ -1947,6 +1976,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                 .source(requireNonNull(source))
                 .destination(destination)
                 .flowFileQueueFactory(flowFileQueueFactory)
+                .demandDrivenScheduling(timerDrivenSchedulingAgent.isDemandDriven())
                 .build();
 
         return connection;
@@ -2934,6 +2964,10 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         return processScheduler;
     }
 
+    public TimerDrivenSchedulingAgent getTimerDrivenSchedulingAgent() {
+        return timerDrivenSchedulingAgent;
+    }
+
     public AuditService getAuditService() {
         return auditService;
     }
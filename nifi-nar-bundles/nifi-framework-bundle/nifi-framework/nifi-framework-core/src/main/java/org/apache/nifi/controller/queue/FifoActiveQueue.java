@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * A thread-safe "active queue" that is used by {@link SwappablePriorityQueue} when a connection has no
+ * FlowFile Prioritizers configured. FlowFiles are handed out in the order in which they were added, rather than
+ * maintaining a heap ordered by {@link QueuePrioritizer}, so that adding and polling are constant-time operations
+ * and do not require exclusive access to the queue. FlowFiles that are not penalized are held in a non-blocking
+ * deque; penalized FlowFiles are held in a {@link PriorityBlockingQueue}, which does lock briefly.
+ * </p>
+ *
+ * <p>
+ * As with {@link QueuePrioritizer}, penalized FlowFiles are ordered after all FlowFiles that are not penalized. When a
+ * penalized FlowFile is encountered it is moved aside into a separate queue that is ordered by penalty expiration, and
+ * it becomes eligible to be polled again once its penalty has expired.
+ * </p>
+ */
+class FifoActiveQueue extends AbstractQueue<FlowFileRecord> {
+    private static final Comparator<FlowFileRecord> PENALTY_EXPIRATION_COMPARATOR = Comparator.comparingLong(FlowFileRecord::getPenaltyExpirationMillis);
+
+    private final Deque<FlowFileRecord> readyQueue = new ConcurrentLinkedDeque<>();
+    private final Queue<FlowFileRecord> penalizedQueue = new PriorityBlockingQueue<>(11, PENALTY_EXPIRATION_COMPARATOR);
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final AtomicInteger penalizedCount = new AtomicInteger(0);
+
+    @Override
+    public boolean offer(final FlowFileRecord flowFile) {
+        if (flowFile.isPenalized()) {
+            addPenalized(flowFile);
+        } else {
+            readyQueue.offer(flowFile);
+        }
+
+        size.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Adds the given FlowFile only if the queue will then hold no more than <code>maxSize</code> FlowFiles. Because the size is checked and
+     * updated atomically, concurrent callers cannot together cause the queue to exceed that size.
+     *
+     * @param flowFile the FlowFile to add
+     * @param maxSize the maximum number of FlowFiles that the queue may hold after the FlowFile is added
+     * @return <code>true</code> if the FlowFile was added, <code>false</code> if adding it would exceed the maximum size
+     */
+    boolean offer(final FlowFileRecord flowFile, final int maxSize) {
+        if (!reserve(1, maxSize)) {
+            return false;
+        }
+
+        addReserved(flowFile);
+        return true;
+    }
+
+    /**
+     * Adds all of the given FlowFiles, in order, only if the queue will then hold no more than <code>maxSize</code> FlowFiles.
+     * Otherwise, none of them is added.
+     *
+     * @param flowFiles the FlowFiles to add
+     * @param maxSize the maximum number of FlowFiles that the queue may hold after the FlowFiles are added
+     * @return <code>true</code> if the FlowFiles were added, <code>false</code> if adding them would exceed the maximum size
+     */
+    boolean offerAll(final Collection<FlowFileRecord> flowFiles, final int maxSize) {
+        if (!reserve(flowFiles.size(), maxSize)) {
+            return false;
+        }
+
+        for (final FlowFileRecord flowFile : flowFiles) {
+            addReserved(flowFile);
+        }
+
+        return true;
+    }
+
+    private boolean reserve(final int count, final int maxSize) {
+        while (true) {
+            final int currentSize = size.get();
+            if (currentSize + count > maxSize) {
+                return false;
+            }
+
+            if (size.compareAndSet(currentSize, currentSize + count)) {
+                return true;
+            }
+        }
+    }
+
+    private void addReserved(final FlowFileRecord flowFile) {
+        if (flowFile.isPenalized()) {
+            addPenalized(flowFile);
+        } else {
+            readyQueue.offer(flowFile);
+        }
+    }
+
+    /**
+     * Adds the given FlowFiles to the head of the queue, retaining their relative order, so that they are the next FlowFiles to be polled.
+     * This is used to return FlowFiles that were polled but not consumed without causing them to lose their place in line.
+     *
+     * @param flowFiles the FlowFiles to add to the head of the queue
+     */
+    void addAllFirst(final List<FlowFileRecord> flowFiles) {
+        final ListIterator<FlowFileRecord> itr = flowFiles.listIterator(flowFiles.size());
+        while (itr.hasPrevious()) {
+            final FlowFileRecord flowFile = itr.previous();
+            if (flowFile.isPenalized()) {
+                addPenalized(flowFile);
+            } else {
+                readyQueue.offerFirst(flowFile);
+            }
+
+            size.incrementAndGet();
+        }
+    }
+
+    private void addPenalized(final FlowFileRecord flowFile) {
+        penalizedCount.incrementAndGet();
+        penalizedQueue.offer(flowFile);
+    }
+
+    /**
+     * Returns the next FlowFile that is not penalized, if one exists. Otherwise, returns the penalized FlowFile whose penalty
+     * expires soonest, or <code>null</code> if the queue is empty. This mirrors the behavior of a {@link java.util.PriorityQueue}
+     * that is ordered by {@link QueuePrioritizer}, in that callers that receive a penalized FlowFile can assume that all other
+     * FlowFiles in the queue are also penalized.
+     */
+    @Override
+    public FlowFileRecord poll() {
+        FlowFileRecord flowFile = pollExpiredPenalty();
+        if (flowFile != null) {
+            return flowFile;
+        }
+
+        while ((flowFile = readyQueue.poll()) != null) {
+            if (!flowFile.isPenalized()) {
+                size.decrementAndGet();
+                return flowFile;
+            }
+
+            // FlowFile became penalized after it was queued (for instance, it was rolled back); set it aside until its penalty expires.
+            addPenalized(flowFile);
+        }
+
+        if (penalizedCount.get() > 0) {
+            flowFile = penalizedQueue.poll();
+            if (flowFile != null) {
+                penalizedCount.decrementAndGet();
+                size.decrementAndGet();
+                return flowFile;
+            }
+        }
+
+        return null;
+    }
+
+    private FlowFileRecord pollExpiredPenalty() {
+        if (penalizedCount.get() == 0) {
+            return null;
+        }
+
+        final FlowFileRecord head = penalizedQueue.peek();
+        if (head == null || head.isPenalized()) {
+            return null;
+        }
+
+        // Only remove the FlowFile that we inspected. Another thread may have polled it in the meantime,
+        // in which case we simply fall back to the ready queue.
+        if (penalizedQueue.remove(head)) {
+            penalizedCount.decrementAndGet();
+            size.decrementAndGet();
+            return head;
+        }
+
+        return null;
+    }
+
+    @Override
+    public FlowFileRecord peek() {
+        if (penalizedCount.get() > 0) {
+            final FlowFileRecord penalizedHead = penalizedQueue.peek();
+            if (penalizedHead != null && !penalizedHead.isPenalized()) {
+                return penalizedHead;
+            }
+        }
+
+        final FlowFileRecord readyHead = readyQueue.peek();
+        if (readyHead != null) {
+            return readyHead;
+        }
+
+        return penalizedCount.get() > 0 ? penalizedQueue.peek() : null;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Must only be called while no other thread is adding to or polling from the queue.
+     */
+    @Override
+    public void clear() {
+        readyQueue.clear();
+        penalizedQueue.clear();
+        penalizedCount.set(0);
+        size.set(0);
+    }
+
+    @Override
+    public Iterator<FlowFileRecord> iterator() {
+        final Iterator<FlowFileRecord> readyItr = readyQueue.iterator();
+        final Iterator<FlowFileRecord> penalizedItr = penalizedQueue.iterator();
+
+        return new Iterator<FlowFileRecord>() {
+            @Override
+            public boolean hasNext() {
+                return readyItr.hasNext() || penalizedItr.hasNext();
+            }
+
+            @Override
+            public FlowFileRecord next() {
+                if (readyItr.hasNext()) {
+                    return readyItr.next();
+                }
+                if (penalizedItr.hasNext()) {
+                    return penalizedItr.next();
+                }
+
+                throw new NoSuchElementException();
+            }
+        };
+    }
+}
@@ -55,8 +55,11 @@ public class SwappablePriorityQueue {
     private static final Logger logger = LoggerFactory.getLogger(SwappablePriorityQueue.class);
     private static final int SWAP_RECORD_POLL_SIZE = 10_000;
     private static final int MAX_EXPIRED_RECORDS_PER_ITERATION = 10_000;
+    // The next Swap File is prefetched once the active queue holds no more than this fraction of the swap threshold
+    private static final int PREFETCH_THRESHOLD_DIVISOR = 10;
 
     private final int swapThreshold;
+    private final int prefetchThreshold;
     private final FlowFileSwapManager swapManager;
     private final EventReporter eventReporter;
     private final FlowFileQueue flowFileQueue;
@@ -65,6 +68,7 @@ public class SwappablePriorityQueue {
     private final String swapPartitionName;
 
     private final List<String> swapLocations = new ArrayList<>();
+    private volatile String prefetchRequestedLocation;
     private final AtomicReference<FlowFileQueueSize> size = new AtomicReference<>(new FlowFileQueueSize(0, 0L, 0, 0L, 0, 0, 0L));
     private final TimedLock readLock;
     private final TimedLock writeLock;
@@ -78,8 +82,14 @@ public class SwappablePriorityQueue {
     // active queue, then we would end up processing the newer FlowFile before the swapped FlowFile. By
     // keeping these separate, we are able to guarantee that FlowFiles are swapped in in the same order
     // that they are swapped out.
+    // When no prioritizers are configured, the active queue is a FifoActiveQueue, which is thread-safe. In that case,
+    // FlowFiles may be added to and polled from the active queue while holding only the read lock, as long as doing so
+    // does not require interacting with the swap queue or swap files. Any such interaction requires the write lock.
     // Guarded by lock.
-    private PriorityQueue<FlowFileRecord> activeQueue;
+    private Queue<FlowFileRecord> activeQueue;
+    // Whether or not the active queue is a FifoActiveQueue. This is set whenever the active queue is replaced, so that puts and polls against a
+    // prioritized queue can go directly to the write lock rather than first obtaining the read lock only to find that they cannot use it.
+    private volatile boolean concurrentActiveQueue = true;
     private ArrayList<FlowFileRecord> swapQueue;
     private boolean swapMode = false;
 
@@ -87,8 +97,9 @@ public class SwappablePriorityQueue {
         final DropFlowFileAction dropAction, final String swapPartitionName) {
         this.swapManager = swapManager;
         this.swapThreshold = swapThreshold;
+        this.prefetchThreshold = swapThreshold / PREFETCH_THRESHOLD_DIVISOR;
 
-        this.activeQueue = new PriorityQueue<>(20, new QueuePrioritizer(Collections.emptyList()));
+        this.activeQueue = createActiveQueue(Collections.emptyList(), 20);
         this.swapQueue = new ArrayList<>();
         this.eventReporter = eventReporter;
         this.flowFileQueue = flowFileQueue;
@@ -119,14 +130,46 @@ public class SwappablePriorityQueue {
             priorities.clear();
             priorities.addAll(newPriorities);
 
-            final PriorityQueue<FlowFileRecord> newQueue = new PriorityQueue<>(Math.max(20, activeQueue.size()), new QueuePrioritizer(newPriorities));
+            final Queue<FlowFileRecord> newQueue = createActiveQueue(newPriorities, Math.max(20, activeQueue.size()));
             newQueue.addAll(activeQueue);
             activeQueue = newQueue;
+            concurrentActiveQueue = newQueue instanceof FifoActiveQueue;
         } finally {
             writeLock.unlock("setPriorities");
         }
     }
 
+    private static Queue<FlowFileRecord> createActiveQueue(final List<FlowFilePrioritizer> priorities, final int initialCapacity) {
+        if (priorities.isEmpty()) {
+            return new FifoActiveQueue();
+        }
+
+        return new PriorityQueue<>(initialCapacity, new QueuePrioritizer(priorities));
+    }
+
+    /**
+     * This method MUST be called with either the readLock or the writeLock held.
+     *
+     * @return <code>true</code> if the active queue may be accessed concurrently while holding only the read lock
+     */
+    private boolean isConcurrentActiveQueue() {
+        return activeQueue instanceof FifoActiveQueue;
+    }
+
+    /**
+     * Returns the given FlowFiles, which were polled from the active queue but not selected, back to the active queue. When the active queue is
+     * ordered by arrival, the FlowFiles are returned to the head of the queue so that they do not lose their place in line.
+     *
+     * This method MUST be called with the writeLock held.
+     */
+    private void requeue(final List<FlowFileRecord> flowFiles) {
+        if (activeQueue instanceof FifoActiveQueue) {
+            ((FifoActiveQueue) activeQueue).addAllFirst(flowFiles);
+        } else {
+            activeQueue.addAll(flowFiles);
+        }
+    }
+
 
     public LocalQueuePartitionDiagnostics getQueueDiagnostics() {
         readLock.lock();
@@ -461,6 +504,10 @@ public class SwappablePriorityQueue {
 
 
     public void put(final FlowFileRecord flowFile) {
+        if (concurrentActiveQueue && putActive(flowFile)) {
+            return;
+        }
+
         writeLock.lock();
         try {
             if (swapMode || activeQueue.size() >= swapThreshold) {
@@ -479,6 +526,28 @@ public class SwappablePriorityQueue {
         }
     }
 
+    /**
+     * Attempts to add the given FlowFile directly to the active queue while holding only the read lock. This is possible only if the
+     * active queue is able to be accessed concurrently and the FlowFile would not be placed onto the swap queue.
+     *
+     * @return <code>true</code> if the FlowFile was added to the active queue, <code>false</code> if the write lock must be obtained in order to add it
+     */
+    private boolean putActive(final FlowFileRecord flowFile) {
+        readLock.lock();
+        try {
+            // Other threads may be adding to the active queue concurrently, so the check against the swap threshold must be made atomically with the addition.
+            if (!isConcurrentActiveQueue() || swapMode || !((FifoActiveQueue) activeQueue).offer(flowFile, swapThreshold)) {
+                return false;
+            }
+
+            incrementActiveQueueSize(1, flowFile.getSize());
+            logger.trace("{} put to {}", flowFile, this);
+            return true;
+        } finally {
+            readLock.unlock("put(FlowFileRecord)");
+        }
+    }
+
     public void putAll(final Collection<FlowFileRecord> flowFiles) {
         final int numFiles = flowFiles.size();
         long bytes = 0L;
@@ -486,6 +555,10 @@ public class SwappablePriorityQueue {
             bytes += flowFile.getSize();
         }
 
+        if (concurrentActiveQueue && putAllActive(flowFiles, bytes)) {
+            return;
+        }
+
         writeLock.lock();
         try {
             if (swapMode || activeQueue.size() >= swapThreshold - numFiles) {
@@ -504,9 +577,57 @@ public class SwappablePriorityQueue {
         }
     }
 
+    private boolean putAllActive(final Collection<FlowFileRecord> flowFiles, final long bytes) {
+        readLock.lock();
+        try {
+            // Matches the check that is made while holding the write lock: the FlowFiles are added only if the active queue then holds fewer than swapThreshold FlowFiles.
+            if (!isConcurrentActiveQueue() || swapMode || !((FifoActiveQueue) activeQueue).offerAll(flowFiles, swapThreshold - 1)) {
+                return false;
+            }
+
+            incrementActiveQueueSize(flowFiles.size(), bytes);
+            logger.trace("{} put to {}", flowFiles, this);
+            return true;
+        } finally {
+            readLock.unlock("putAll");
+        }
+    }
+
+    /**
+     * Indicates whether or not a poll may be performed against the active queue while holding only the read lock. This is the case
+     * only if the active queue is able to be accessed concurrently and it currently holds FlowFiles, as polling from an empty
+     * active queue requires migrating FlowFiles from the swap queue or swap files, which in turn requires the write lock.
+     *
+     * This method MUST be called with the readLock held.
+     */
+    private boolean isPollActiveOnly() {
+        return isConcurrentActiveQueue() && !activeQueue.isEmpty();
+    }
+
     public FlowFileRecord poll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         FlowFileRecord flowFile;
 
+        if (concurrentActiveQueue) {
+            readLock.lock();
+            try {
+                if (isPollActiveOnly()) {
+                    flowFile = pollActive(expiredRecords, expirationMillis);
+
+                    if (flowFile != null) {
+                        logger.trace("{} poll() returning {}", this, flowFile);
+                        incrementUnacknowledgedQueueSize(1, flowFile.getSize());
+                        return flowFile;
+                    }
+
+                    if (!expiredRecords.isEmpty()) {
+                        return null;
+                    }
+                }
+            } finally {
+                readLock.unlock("poll(Set)");
+            }
+        }
+
         // First check if we have any records Pre-Fetched.
         writeLock.lock();
         try {
@@ -525,11 +646,14 @@ public class SwappablePriorityQueue {
 
 
     private FlowFileRecord doPoll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
+        migrateSwapToActive();
+        return pollActive(expiredRecords, expirationMillis);
+    }
+
+    private FlowFileRecord pollActive(final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         FlowFileRecord flowFile;
         boolean isExpired;
 
-        migrateSwapToActive();
-
         long expiredBytes = 0L;
         do {
             flowFile = this.activeQueue.poll();
@@ -558,18 +682,34 @@ public class SwappablePriorityQueue {
             incrementActiveQueueSize(-expiredRecords.size(), -expiredBytes);
         }
 
+        prefetchIfNecessary();
         return flowFile;
     }
 
     public List<FlowFileRecord> poll(int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         final List<FlowFileRecord> records = new ArrayList<>(Math.min(1, maxResults));
 
-        // First check if we have any records Pre-Fetched.
-        writeLock.lock();
-        try {
-            doPoll(records, maxResults, expiredRecords, expirationMillis);
-        } finally {
-            writeLock.unlock("poll(int, Set)");
+        boolean polled = false;
+        if (concurrentActiveQueue) {
+            readLock.lock();
+            try {
+                if (isPollActiveOnly()) {
+                    pollActive(records, maxResults, expiredRecords, expirationMillis);
+                    polled = !records.isEmpty() || !expiredRecords.isEmpty();
+                }
+            } finally {
+                readLock.unlock("poll(int, Set)");
+            }
+        }
+
+        if (!polled) {
+            // First check if we have any records Pre-Fetched.
+            writeLock.lock();
+            try {
+                doPoll(records, maxResults, expiredRecords, expirationMillis);
+            } finally {
+                writeLock.unlock("poll(int, Set)");
+            }
         }
 
         if (!records.isEmpty()) {
@@ -628,7 +768,7 @@ public class SwappablePriorityQueue {
                 }
             }
 
-            this.activeQueue.addAll(unselected);
+            requeue(unselected);
             incrementActiveQueueSize(-flowFilesPulled, -bytesPulled);
 
             if (!selectedFlowFiles.isEmpty()) {
@@ -643,7 +783,10 @@ public class SwappablePriorityQueue {
 
     private void doPoll(final List<FlowFileRecord> records, int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         migrateSwapToActive();
+        pollActive(records, maxResults, expiredRecords, expirationMillis);
+    }
 
+    private void pollActive(final List<FlowFileRecord> records, int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         final long bytesDrained = drainQueue(activeQueue, records, maxResults, expiredRecords, expirationMillis);
 
         long expiredBytes = 0L;
@@ -653,6 +796,28 @@ public class SwappablePriorityQueue {
 
         incrementActiveQueueSize(-(expiredRecords.size() + records.size()), -bytesDrained);
         incrementUnacknowledgedQueueSize(records.size(), bytesDrained - expiredBytes);
+        prefetchIfNecessary();
+    }
+
+    /**
+     * Once the active queue has been drained to the point that the next Swap File will soon be swapped in, hints to the Swap Manager that
+     * it may begin reading that Swap File in the background rather than while the write lock is held. The hint is given only once per
+     * Swap File, so that the many polls that happen in the meantime need not call into the Swap Manager.
+     *
+     * This method MUST be called with either the readLock or the writeLock held.
+     */
+    private void prefetchIfNecessary() {
+        if (activeQueue.size() > prefetchThreshold || swapLocations.isEmpty()) {
+            return;
+        }
+
+        final String swapLocation = swapLocations.get(0);
+        if (swapLocation.equals(prefetchRequestedLocation)) {
+            return;
+        }
+
+        prefetchRequestedLocation = swapLocation;
+        swapManager.prefetch(swapLocation, flowFileQueue);
     }
 
 
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Maps the SHA-256 digest of content that has been written to a {@link FileSystemRepository} to the location of that content, so that the
+ * repository can hand out a reference to existing content rather than storing a second copy of it.
+ * </p>
+ *
+ * <p>
+ * The index is held in memory and persisted as an append-only journal of additions and removals. The journal is replayed and compacted when
+ * the index is opened. Entries are only hints: before an entry is used, the repository verifies that the Resource Claim it points to is still
+ * in use, so entries that were lost or left stale by a restart do no harm.
+ * </p>
+ */
+class ContentDeduplicationIndex implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ContentDeduplicationIndex.class);
+
+    private static final int ENCODING_VERSION = 1;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int MIN_COMPACTION_THRESHOLD = 10_000;
+
+    private final Path journalPath;
+    private final Map<ByteBuffer, Entry> entriesByDigest = new HashMap<>();
+    private final Map<String, Set<ByteBuffer>> digestsByResourceClaim = new HashMap<>();
+
+    private DataOutputStream journalOut;
+    private long journalRecordCount;
+    private boolean dirty = false;
+
+    ContentDeduplicationIndex(final Path journalPath) throws IOException {
+        this.journalPath = journalPath;
+        recover();
+        compact();
+    }
+
+    synchronized Entry get(final byte[] digest) {
+        return entriesByDigest.get(ByteBuffer.wrap(digest));
+    }
+
+    synchronized boolean putIfAbsent(final byte[] digest, final ResourceClaim resourceClaim, final long resourceOffset, final long length) throws IOException {
+        final ByteBuffer key = ByteBuffer.wrap(digest.clone());
+        if (entriesByDigest.containsKey(key)) {
+            return false;
+        }
+
+        final Entry entry = new Entry(resourceClaim.getContainer(), resourceClaim.getSection(), resourceClaim.getId(), resourceOffset, length);
+        add(key, entry);
+
+        journalOut.writeByte(PUT);
+        journalOut.write(digest);
+        writeLocation(entry);
+        journalOut.writeLong(resourceOffset);
+        journalOut.writeLong(length);
+        journalRecordCount++;
+        dirty = true;
+        return true;
+    }
+
+    synchronized void remove(final byte[] digest) throws IOException {
+        final Entry entry = entriesByDigest.remove(ByteBuffer.wrap(digest));
+        if (entry == null) {
+            return;
+        }
+
+        final Set<ByteBuffer> digests = digestsByResourceClaim.get(entry.getResourceClaimKey());
+        if (digests != null) {
+            digests.remove(ByteBuffer.wrap(digest));
+            if (digests.isEmpty()) {
+                digestsByResourceClaim.remove(entry.getResourceClaimKey());
+            }
+        }
+
+        // Journal removals are expressed per Resource Claim. Dropping the one entry from memory is enough here: if the removal is lost on restart,
+        // the entry will be found to be stale again on first use.
+        if (digests == null || digests.isEmpty()) {
+            writeRemove(entry.getContainer(), entry.getSection(), entry.getId());
+        }
+    }
+
+    synchronized int removeAll(final ResourceClaim resourceClaim) throws IOException {
+        final Set<ByteBuffer> digests = digestsByResourceClaim.remove(toKey(resourceClaim.getContainer(), resourceClaim.getSection(), resourceClaim.getId()));
+        if (digests == null) {
+            return 0;
+        }
+
+        for (final ByteBuffer digest : digests) {
+            entriesByDigest.remove(digest);
+        }
+
+        writeRemove(resourceClaim.getContainer(), resourceClaim.getSection(), resourceClaim.getId());
+        return digests.size();
+    }
+
+    synchronized int size() {
+        return entriesByDigest.size();
+    }
+
+    /**
+     * Flushes any journal records that have been buffered and rewrites the journal if it has grown well beyond the number of live entries.
+     *
+     * @throws IOException if unable to update the journal
+     */
+    synchronized void sync() throws IOException {
+        if (journalRecordCount > Math.max(MIN_COMPACTION_THRESHOLD, 2L * entriesByDigest.size())) {
+            compact();
+            return;
+        }
+
+        if (dirty) {
+            journalOut.flush();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journalOut != null) {
+            journalOut.close();
+            journalOut = null;
+        }
+    }
+
+    private void add(final ByteBuffer digest, final Entry entry) {
+        entriesByDigest.put(digest, entry);
+        digestsByResourceClaim.computeIfAbsent(entry.getResourceClaimKey(), key -> new HashSet<>()).add(digest);
+    }
+
+    private void writeRemove(final String container, final String section, final String id) throws IOException {
+        journalOut.writeByte(REMOVE);
+        journalOut.writeUTF(container);
+        journalOut.writeUTF(section);
+        journalOut.writeUTF(id);
+        journalRecordCount++;
+        dirty = true;
+    }
+
+    private void writeLocation(final Entry entry) throws IOException {
+        journalOut.writeUTF(entry.getContainer());
+        journalOut.writeUTF(entry.getSection());
+        journalOut.writeUTF(entry.getId());
+    }
+
+    private void recover() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+
+        try (final InputStream fis = Files.newInputStream(journalPath);
+             final DataInputStream in = new DataInputStream(new BufferedInputStream(fis))) {
+
+            final int version = in.readInt();
+            if (version != ENCODING_VERSION) {
+                logger.warn("Content deduplication index {} has unsupported encoding version {}; it will be rebuilt as content is written", journalPath, version);
+                return;
+            }
+
+            while (true) {
+                final int recordType = in.read();
+                if (recordType == -1) {
+                    break;
+                }
+
+                if (recordType == PUT) {
+                    final byte[] digest = new byte[32];
+                    in.readFully(digest);
+                    final Entry entry = new Entry(in.readUTF(), in.readUTF(), in.readUTF(), in.readLong(), in.readLong());
+                    add(ByteBuffer.wrap(digest), entry);
+                } else if (recordType == REMOVE) {
+                    final Set<ByteBuffer> digests = digestsByResourceClaim.remove(toKey(in.readUTF(), in.readUTF(), in.readUTF()));
+                    if (digests != null) {
+                        digests.forEach(entriesByDigest::remove);
+                    }
+                } else {
+                    logger.warn("Content deduplication index {} contains unexpected record type {}; ignoring the remainder of the journal", journalPath, recordType);
+                    break;
+                }
+            }
+        } catch (final EOFException eof) {
+            logger.warn("Content deduplication index {} ends with an incomplete record, presumably because NiFi was not shut down cleanly; ignoring the incomplete record",
+                journalPath);
+        }
+
+        logger.info("Recovered {} content deduplication entries from {}", entriesByDigest.size(), journalPath);
+    }
+
+    private void compact() throws IOException {
+        close();
+
+        final Path tempPath = journalPath.resolveSibling(journalPath.getFileName().toString() + ".partial");
+        try (final OutputStream fos = Files.newOutputStream(tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+
+            out.writeInt(ENCODING_VERSION);
+            for (final Map.Entry<ByteBuffer, Entry> mapEntry : entriesByDigest.entrySet()) {
+                final Entry entry = mapEntry.getValue();
+                out.writeByte(PUT);
+                out.write(mapEntry.getKey().array());
+                out.writeUTF(entry.getContainer());
+                out.writeUTF(entry.getSection());
+                out.writeUTF(entry.getId());
+                out.writeLong(entry.getResourceOffset());
+                out.writeLong(entry.getLength());
+            }
+        }
+
+        Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        journalOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+        journalRecordCount = entriesByDigest.size();
+        dirty = false;
+    }
+
+    private static String toKey(final String container, final String section, final String id) {
+        return container + "/" + section + "/" + id;
+    }
+
+    static class Entry {
+        private final String container;
+        private final String section;
+        private final String id;
+        private final long resourceOffset;
+        private final long length;
+
+        Entry(final String container, final String section, final String id, final long resourceOffset, final long length) {
+            this.container = container;
+            this.section = section;
+            this.id = id;
+            this.resourceOffset = resourceOffset;
+            this.length = length;
+        }
+
+        String getContainer() {
+            return container;
+        }
+
+        String getSection() {
+            return section;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        long getResourceOffset() {
+            return resourceOffset;
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        private String getResourceClaimKey() {
+            return toKey(container, section, id);
+        }
+    }
+}
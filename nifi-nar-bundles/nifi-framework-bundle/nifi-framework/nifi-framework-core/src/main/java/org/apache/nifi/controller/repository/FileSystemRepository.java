@@ -43,6 +43,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -61,6 +63,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
@@ -88,6 +91,7 @@ public class FileSystemRepository implements ContentRepository {
     public static final long MIN_CLEANUP_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1L);
     public static final long DEFAULT_CLEANUP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1L);
     public static final String ARCHIVE_DIR_NAME = "archive";
+    public static final String DEDUPLICATION_INDEX_FILENAME = "deduplication.index";
     // 100 MB cap for the configurable NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE property to prevent
     // unnecessarily large resource claim files
     public static final String APPENDABLE_CLAIM_LENGTH_CAP = "100 MB";
@@ -124,6 +128,8 @@ public class FileSystemRepository implements ContentRepository {
     private final Map<String, Long> minUsableContainerBytesForArchive = new HashMap<>();
     private final boolean alwaysSync;
     private final ScheduledExecutorService containerCleanupExecutor;
+    private final long minDeduplicationLength;
+    private final ContentDeduplicationIndex deduplicationIndex; // null if content deduplication is disabled
 
     private ResourceClaimManager resourceClaimManager; // effectively final
 
@@ -150,6 +156,8 @@ public class FileSystemRepository implements ContentRepository {
         maxAppendableClaimLength = 0;
         maxFlowFilesPerClaim = 0;
         writableClaimQueue = null;
+        minDeduplicationLength = 0L;
+        deduplicationIndex = null;
     }
 
     public FileSystemRepository(final NiFiProperties nifiProperties) throws IOException {
@@ -253,6 +261,30 @@ public class FileSystemRepository implements ContentRepository {
         initializeRepository();
 
         containerCleanupExecutor = new FlowEngine(containers.size(), "Cleanup FileSystemRepository Container", true);
+
+        this.minDeduplicationLength = DataUnit.parseDataSize(nifiProperties.getContentRepositoryDeduplicationMinSize(), DataUnit.B).longValue();
+        if (nifiProperties.isContentRepositoryDeduplicationEnabled() && isDeduplicationSupported()) {
+            // The index lives in the root of a container so that the container cleanup, which only considers files within the sections, leaves it alone.
+            final String indexContainer = new TreeSet<>(containerNames).first();
+            this.deduplicationIndex = new ContentDeduplicationIndex(containers.get(indexContainer).resolve(DEDUPLICATION_INDEX_FILENAME));
+            LOG.info("Content deduplication is enabled for content of at least {} bytes", minDeduplicationLength);
+        } else {
+            if (nifiProperties.isContentRepositoryDeduplicationEnabled()) {
+                LOG.warn("Property '{}' is set to true but {} does not support content deduplication; content will not be deduplicated",
+                    NiFiProperties.CONTENT_REPOSITORY_DEDUPLICATION_ENABLED, getClass().getSimpleName());
+            }
+            this.deduplicationIndex = null;
+        }
+    }
+
+    /**
+     * Indicates whether this repository stores content in a form that allows it to be shared by FlowFiles based on a digest of its plaintext.
+     * Subclasses that transform content as it is written should override this to return <code>false</code>.
+     *
+     * @return <code>true</code> if content deduplication can be enabled for this repository
+     */
+    protected boolean isDeduplicationSupported() {
+        return true;
     }
 
     @Override
@@ -274,6 +306,10 @@ public class FileSystemRepository implements ContentRepository {
             final Runnable cleanup = new DestroyExpiredArchiveClaims(containerName, containerPath);
             containerCleanupExecutor.scheduleWithFixedDelay(cleanup, cleanupMillis, cleanupMillis, TimeUnit.MILLISECONDS);
         }
+
+        if (deduplicationIndex != null) {
+            executor.scheduleWithFixedDelay(new SyncDeduplicationIndex(), 1, 1, TimeUnit.SECONDS);
+        }
     }
 
     @Override
@@ -294,6 +330,14 @@ public class FileSystemRepository implements ContentRepository {
             } catch (final IOException ioe) {
             }
         }
+
+        if (deduplicationIndex != null) {
+            try {
+                deduplicationIndex.close();
+            } catch (final IOException ioe) {
+                LOG.warn("Failed to close the content deduplication index", ioe);
+            }
+        }
     }
 
     private static double getRatio(final String value) {
@@ -398,6 +442,57 @@ public class FileSystemRepository implements ContentRepository {
         containers.putAll(realPathMap);
     }
 
+    @Override
+    public boolean isContentDeduplicationEnabled() {
+        return deduplicationIndex != null;
+    }
+
+    @Override
+    public ContentClaim getIdenticalContent(final byte[] digest, final long length) throws IOException {
+        if (deduplicationIndex == null || length < minDeduplicationLength) {
+            return null;
+        }
+
+        final ContentDeduplicationIndex.Entry entry = deduplicationIndex.get(digest);
+        if (entry == null || entry.getLength() != length) {
+            return null;
+        }
+
+        // The index may outlive the content that it points to, for instance if the repository was not shut down cleanly. Only content whose
+        // Resource Claim is still referenced by some FlowFile can be shared, since anything else may already be queued for destruction.
+        final ResourceClaim resourceClaim = resourceClaimManager.getResourceClaim(entry.getContainer(), entry.getSection(), entry.getId());
+        if (resourceClaim == null || resourceClaimManager.incrementClaimantCountIfInUse(resourceClaim) == 0) {
+            deduplicationIndex.remove(digest);
+            return null;
+        }
+
+        final StandardContentClaim contentClaim = new StandardContentClaim(resourceClaim, entry.getResourceOffset());
+        contentClaim.setLength(length);
+        LOG.debug("Found content identical to {} bytes being written in {}", length, contentClaim);
+        return contentClaim;
+    }
+
+    @Override
+    public void registerContent(final ContentClaim claim, final long claimOffset, final long length, final byte[] digest) throws IOException {
+        if (deduplicationIndex == null || claim == null || length < minDeduplicationLength) {
+            return;
+        }
+
+        deduplicationIndex.putIfAbsent(digest, claim.getResourceClaim(), claim.getOffset() + claimOffset, length);
+    }
+
+    private void forgetContent(final ResourceClaim claim) {
+        if (deduplicationIndex == null) {
+            return;
+        }
+
+        try {
+            deduplicationIndex.removeAll(claim);
+        } catch (final IOException ioe) {
+            LOG.warn("Failed to remove {} from the content deduplication index", claim, ioe);
+        }
+    }
+
     @Override
     public Set<String> getContainerNames() {
         return new HashSet<>(containerNames);
@@ -735,6 +830,29 @@ public class FileSystemRepository implements ContentRepository {
             throw new IllegalArgumentException("destination cannot be within claims");
         }
 
+        if (isChannelTransferSupported()) {
+            try (final ContentRepositoryOutputStream out = write(destination, false)) {
+                if (header != null) {
+                    out.write(header);
+                }
+
+                int i = 0;
+                for (final ContentClaim claim : claims) {
+                    transferClaim(claim, 0L, size(claim), out);
+
+                    if (++i < claims.size() && demarcator != null) {
+                        out.write(demarcator);
+                    }
+                }
+
+                if (footer != null) {
+                    out.write(footer);
+                }
+
+                return out.getBytesWritten();
+            }
+        }
+
         try (final ByteCountingOutputStream out = new ByteCountingOutputStream(write(destination))) {
             if (header != null) {
                 out.write(header);
@@ -761,6 +879,13 @@ public class FileSystemRepository implements ContentRepository {
 
     @Override
     public long importFrom(final Path content, final ContentClaim claim) throws IOException {
+        if (isChannelTransferSupported()) {
+            try (final FileChannel source = FileChannel.open(content, StandardOpenOption.READ);
+                 final ContentRepositoryOutputStream out = write(claim, false)) {
+                return out.transferFrom(source, 0L, source.size());
+            }
+        }
+
         try (final InputStream in = Files.newInputStream(content, StandardOpenOption.READ)) {
             return importFrom(in, claim);
         }
@@ -783,6 +908,10 @@ public class FileSystemRepository implements ContentRepository {
             return 0L;
         }
 
+        if (isChannelTransferSupported()) {
+            return transferClaim(claim, destination, append, 0L, size(claim));
+        }
+
         try (final InputStream in = read(claim);
                 final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
             final long copied = StreamUtils.copy(in, fos);
@@ -812,6 +941,14 @@ public class FileSystemRepository implements ContentRepository {
 
         }
 
+        if (isChannelTransferSupported()) {
+            final long transferred = transferClaim(claim, destination, append, offset, length);
+            if (transferred < length) {
+                throw new EOFException("Expected to copy " + length + " bytes from " + claim + " but only " + transferred + " bytes were available");
+            }
+            return transferred;
+        }
+
         try (final InputStream in = read(claim);
                 final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
             if (offset > 0) {
@@ -831,6 +968,10 @@ public class FileSystemRepository implements ContentRepository {
             return 0L;
         }
 
+        if (isChannelTransferSupported() && destination instanceof ContentRepositoryOutputStream) {
+            return transferClaim(claim, 0L, size(claim), (ContentRepositoryOutputStream) destination);
+        }
+
         try (final InputStream in = read(claim)) {
             return StreamUtils.copy(in, destination);
         }
@@ -845,6 +986,9 @@ public class FileSystemRepository implements ContentRepository {
         if (offset > claimSize) {
             throw new IllegalArgumentException("offset of " + offset + " exceeds claim size of " + claimSize);
         }
+        if (claim != null && isChannelTransferSupported() && destination instanceof ContentRepositoryOutputStream) {
+            return transferClaim(claim, offset, Math.min(length, claimSize - offset), (ContentRepositoryOutputStream) destination);
+        }
         if (offset == 0 && length == claimSize) {
             return exportTo(claim, destination);
         }
@@ -861,6 +1005,73 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
+    /**
+     * Indicates whether content may be moved directly between files using {@link FileChannel#transferTo(long, long, WritableByteChannel)}, rather than
+     * being copied through the heap. This is the case only if the bytes on disk are exactly the bytes of the content, so any subclass that transforms
+     * content as it is written or read must return <code>false</code>.
+     *
+     * @return <code>true</code> if content may be transferred between files without being copied through the heap
+     */
+    protected boolean isChannelTransferSupported() {
+        return true;
+    }
+
+    private FileChannel openClaimChannel(final ContentClaim claim, final long offset) throws IOException {
+        final Path path = getPath(claim, true);
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        final long resourceClaimBytes;
+        try {
+            resourceClaimBytes = channel.size();
+        } catch (final IOException ioe) {
+            IOUtils.closeQuietly(channel);
+            throw ioe;
+        }
+
+        if (claim.getOffset() + offset > resourceClaimBytes) {
+            IOUtils.closeQuietly(channel);
+            throw new ContentNotFoundException(claim, "Content Claim has an offset of " + claim.getOffset() + " but Resource Claim " + path + " is only " + resourceClaimBytes + " bytes");
+        }
+
+        return channel;
+    }
+
+    private long transferClaim(final ContentClaim claim, final long offset, final long length, final ContentRepositoryOutputStream destination) throws IOException {
+        try (final FileChannel source = openClaimChannel(claim, offset)) {
+            return destination.transferFrom(source, claim.getOffset() + offset, length);
+        }
+    }
+
+    private long transferClaim(final ContentClaim claim, final Path destination, final boolean append, final long offset, final long length) throws IOException {
+        try (final FileChannel source = openClaimChannel(claim, offset);
+             final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
+            final long transferred = transfer(source, claim.getOffset() + offset, length, fos.getChannel());
+            if (alwaysSync) {
+                fos.getFD().sync();
+            }
+            return transferred;
+        }
+    }
+
+    /**
+     * Transfers up to <code>count</code> bytes from the source channel, beginning at the given position, to the destination, stopping early only if the
+     * end of the source is reached. {@link FileChannel#transferTo(long, long, WritableByteChannel)} may transfer fewer bytes than requested, even when
+     * more are available, so it is called repeatedly.
+     */
+    private static long transfer(final FileChannel source, final long position, final long count, final WritableByteChannel destination) throws IOException {
+        long transferred = 0L;
+        while (transferred < count) {
+            final long bytes = source.transferTo(position + transferred, count - transferred, destination);
+            if (bytes <= 0) {
+                break;
+            }
+
+            transferred += bytes;
+        }
+
+        return transferred;
+    }
+
     @Override
     public long size(final ContentClaim claim) throws IOException {
         if (claim == null) {
@@ -921,7 +1132,7 @@ public class FileSystemRepository implements ContentRepository {
         return write(claim, false);
     }
 
-    private OutputStream write(final ContentClaim claim, final boolean append) {
+    private ContentRepositoryOutputStream write(final ContentClaim claim, final boolean append) {
         StandardContentClaim scc = validateContentClaimForWriting(claim);
 
         ByteCountingOutputStream claimStream = writableClaimStreams.get(scc.getResourceClaim());
@@ -930,7 +1141,7 @@ public class FileSystemRepository implements ContentRepository {
         final ByteCountingOutputStream bcos = claimStream;
 
         // TODO: Refactor OS implementation out (deduplicate methods, etc.)
-        final OutputStream out = new ContentRepositoryOutputStream(scc, bcos, initialLength);
+        final ContentRepositoryOutputStream out = new ContentRepositoryOutputStream(scc, bcos, initialLength);
 
         LOG.debug("Writing to {}", out);
         if (LOG.isTraceEnabled()) {
@@ -1392,6 +1603,17 @@ public class FileSystemRepository implements ContentRepository {
         return oldestContainerArchive;
     }
 
+    private class SyncDeduplicationIndex implements Runnable {
+        @Override
+        public void run() {
+            try {
+                deduplicationIndex.sync();
+            } catch (final Throwable t) {
+                LOG.warn("Failed to sync the content deduplication index", t);
+            }
+        }
+    }
+
     private class ArchiveOrDestroyDestructableClaims implements Runnable {
 
         @Override
@@ -1416,6 +1638,8 @@ public class FileSystemRepository implements ContentRepository {
                         // destroy each claim for this container
                         final long start = System.nanoTime();
                         for (final ResourceClaim claim : toRemove) {
+                            forgetContent(claim);
+
                             if (archiveData) {
                                 try {
                                     if (archive(claim)) {
@@ -1879,6 +2103,39 @@ public class FileSystemRepository implements ContentRepository {
             scc.setLength(bytesWritten + initialLength);
         }
 
+        /**
+         * Appends up to <code>count</code> bytes from the given channel, beginning at the given position, to the Content Claim without
+         * copying them through the heap. Fewer bytes are appended only if the end of the source channel is reached.
+         *
+         * @param source the channel to read from
+         * @param position the position in the source channel of the first byte to append
+         * @param count the maximum number of bytes to append
+         * @return the number of bytes appended
+         * @throws IOException if unable to read from the source or write to the Content Claim
+         */
+        public synchronized long transferFrom(final FileChannel source, final long position, final long count) throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            final long transferred;
+            try {
+                bcos.flush();
+                transferred = transfer(source, position, count, ((FileOutputStream) bcos.getWrappedStream()).getChannel());
+            } catch (final IOException ioe) {
+                recycle = false;
+                throw new IOException("Failed to write to " + this, ioe);
+            }
+
+            bytesWritten += transferred;
+            scc.setLength(bytesWritten + initialLength);
+            return transferred;
+        }
+
+        public synchronized long getBytesWritten() {
+            return bytesWritten;
+        }
+
         @Override
         public synchronized void flush() throws IOException {
             if (closed) {
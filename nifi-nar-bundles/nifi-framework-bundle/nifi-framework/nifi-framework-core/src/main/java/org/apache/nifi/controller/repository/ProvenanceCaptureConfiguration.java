@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.controller.ComponentNode;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * Holds the Provenance capture settings that are configured in nifi.properties and determines the {@link ProvenanceCapturePolicy} of each component.
+ * Settings may be configured globally, for a Process Group (in which case they apply to all of its descendant groups as well), or for a component type,
+ * given either as the simple or the fully qualified class name:
+ * </p>
+ *
+ * <pre>
+ * nifi.provenance.repository.capture.attributes=
+ * nifi.provenance.repository.capture.sample.ATTRIBUTES_MODIFIED=
+ * nifi.provenance.repository.capture.group.&lt;group id&gt;.attributes=
+ * nifi.provenance.repository.capture.type.&lt;component type&gt;.sample.CONTENT_MODIFIED=
+ * </pre>
+ *
+ * <p>
+ * The <code>attributes</code> setting is a comma-separated list of the FlowFile Attributes to store on events, or <code>*</code> for all attributes.
+ * The core FlowFile Attributes and the indexed attributes are always stored, so that events remain searchable. The <code>sample</code> setting is the
+ * number of FlowFiles out of which one has its events of the given type stored. Only event types that do not contribute to lineage can be sampled.
+ * The most specific setting wins: component type, then the nearest Process Group, then the global setting.
+ * </p>
+ */
+public class ProvenanceCaptureConfiguration {
+    private static final Logger logger = LoggerFactory.getLogger(ProvenanceCaptureConfiguration.class);
+
+    public static final ProvenanceCaptureConfiguration CAPTURE_ALL = new ProvenanceCaptureConfiguration(new Settings(), Collections.emptyMap(), Collections.emptyMap());
+
+    private static final Pattern SETTING_PATTERN = Pattern.compile("(?:(group|type)\\.(.+?)\\.)?(attributes|sample\\.(\\w+))");
+    private static final Set<ProvenanceEventType> SAMPLED_EVENT_TYPES = Collections.unmodifiableSet(EnumSet.of(ProvenanceEventType.ATTRIBUTES_MODIFIED,
+        ProvenanceEventType.CONTENT_MODIFIED));
+    private static final String ALL_ATTRIBUTES = "*";
+
+    private final Settings globalSettings;
+    private final Map<String, Settings> groupSettings;
+    private final Map<String, Settings> typeSettings;
+    private final boolean captureAll;
+
+    private ProvenanceCaptureConfiguration(final Settings globalSettings, final Map<String, Settings> groupSettings, final Map<String, Settings> typeSettings) {
+        this.globalSettings = globalSettings;
+        this.groupSettings = groupSettings;
+        this.typeSettings = typeSettings;
+        this.captureAll = globalSettings.isEmpty() && groupSettings.isEmpty() && typeSettings.isEmpty();
+    }
+
+    public static ProvenanceCaptureConfiguration create(final NiFiProperties properties) {
+        final Set<String> requiredAttributes = new HashSet<>();
+        for (final CoreAttributes coreAttribute : CoreAttributes.values()) {
+            requiredAttributes.add(coreAttribute.key());
+        }
+        requiredAttributes.addAll(parseAttributeNames(properties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES)));
+
+        final Settings globalSettings = new Settings();
+        final Map<String, Settings> groupSettings = new HashMap<>();
+        final Map<String, Settings> typeSettings = new HashMap<>();
+
+        for (final String propertyName : properties.getPropertyKeys()) {
+            if (!propertyName.startsWith(NiFiProperties.PROVENANCE_CAPTURE_PREFIX)) {
+                continue;
+            }
+
+            final String value = properties.getProperty(propertyName);
+            if (value == null || value.trim().isEmpty()) {
+                continue;
+            }
+
+            final Matcher matcher = SETTING_PATTERN.matcher(propertyName.substring(NiFiProperties.PROVENANCE_CAPTURE_PREFIX.length()));
+            if (!matcher.matches()) {
+                logger.warn("Ignoring unknown Provenance capture property {}", propertyName);
+                continue;
+            }
+
+            final Settings settings;
+            if (matcher.group(1) == null) {
+                settings = globalSettings;
+            } else if ("group".equals(matcher.group(1))) {
+                settings = groupSettings.computeIfAbsent(matcher.group(2), key -> new Settings());
+            } else {
+                settings = typeSettings.computeIfAbsent(matcher.group(2), key -> new Settings());
+            }
+
+            final String eventTypeName = matcher.group(4);
+            if (eventTypeName == null) {
+                if (ALL_ATTRIBUTES.equals(value.trim())) {
+                    settings.allAttributes = true;
+                } else {
+                    settings.attributes = new HashSet<>(requiredAttributes);
+                    settings.attributes.addAll(parseAttributeNames(value));
+                }
+                continue;
+            }
+
+            final ProvenanceEventType eventType = parseSampledEventType(eventTypeName);
+            if (eventType == null) {
+                logger.warn("Ignoring Provenance capture property {} because only events of type {} can be sampled", propertyName, SAMPLED_EVENT_TYPES);
+                continue;
+            }
+
+            try {
+                settings.samplingIntervals.put(eventType, Integer.parseInt(value.trim()));
+            } catch (final NumberFormatException nfe) {
+                throw new IllegalArgumentException("Provenance capture property " + propertyName + " must be an integer but was " + value);
+            }
+        }
+
+        return new ProvenanceCaptureConfiguration(globalSettings, groupSettings, typeSettings);
+    }
+
+    private static ProvenanceEventType parseSampledEventType(final String eventTypeName) {
+        for (final ProvenanceEventType eventType : SAMPLED_EVENT_TYPES) {
+            if (eventType.name().equalsIgnoreCase(eventTypeName)) {
+                return eventType;
+            }
+        }
+
+        return null;
+    }
+
+    private static Set<String> parseAttributeNames(final String value) {
+        if (value == null) {
+            return Collections.emptySet();
+        }
+
+        final Set<String> attributeNames = new HashSet<>();
+        for (final String attributeName : value.split(",")) {
+            if (!attributeName.trim().isEmpty()) {
+                attributeNames.add(attributeName.trim());
+            }
+        }
+
+        return attributeNames;
+    }
+
+    /**
+     * @param connectable the component that generates Provenance Events
+     * @return the policy that applies to the events generated by the given component
+     */
+    public ProvenanceCapturePolicy getPolicy(final Connectable connectable) {
+        if (captureAll) {
+            return ProvenanceCapturePolicy.CAPTURE_ALL;
+        }
+
+        // Gather the settings that apply to the component, most specific first
+        final List<Settings> applicableSettings = new ArrayList<>(4);
+        addSettings(typeSettings.get(connectable.getComponentType()), applicableSettings);
+        if (connectable instanceof ComponentNode) {
+            addSettings(typeSettings.get(((ComponentNode) connectable).getCanonicalClassName()), applicableSettings);
+        }
+
+        ProcessGroup group = connectable.getProcessGroup();
+        while (group != null) {
+            addSettings(groupSettings.get(group.getIdentifier()), applicableSettings);
+            group = group.getParent();
+        }
+
+        applicableSettings.add(globalSettings);
+
+        Set<String> retainedAttributes = null;
+        for (final Settings settings : applicableSettings) {
+            if (settings.allAttributes) {
+                break;
+            }
+            if (settings.attributes != null) {
+                retainedAttributes = settings.attributes;
+                break;
+            }
+        }
+
+        final Map<ProvenanceEventType, Integer> samplingIntervals = new EnumMap<>(ProvenanceEventType.class);
+        for (int i = applicableSettings.size() - 1; i >= 0; i--) {
+            samplingIntervals.putAll(applicableSettings.get(i).samplingIntervals);
+        }
+
+        if (retainedAttributes == null && samplingIntervals.isEmpty()) {
+            return ProvenanceCapturePolicy.CAPTURE_ALL;
+        }
+
+        return new ProvenanceCapturePolicy(retainedAttributes, samplingIntervals);
+    }
+
+    private static void addSettings(final Settings settings, final List<Settings> applicableSettings) {
+        if (settings != null) {
+            applicableSettings.add(settings);
+        }
+    }
+
+    private static class Settings {
+        private Set<String> attributes;
+        private boolean allAttributes;
+        private final Map<ProvenanceEventType, Integer> samplingIntervals = new EnumMap<>(ProvenanceEventType.class);
+
+        private boolean isEmpty() {
+            return attributes == null && !allAttributes && samplingIntervals.isEmpty();
+        }
+    }
+}
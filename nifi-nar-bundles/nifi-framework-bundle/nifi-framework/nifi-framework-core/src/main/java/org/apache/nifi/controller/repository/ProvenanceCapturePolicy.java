@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The policy that determines which Provenance Events generated by a component are stored in the Provenance Repository
+ * and which FlowFile Attributes those events hold. See {@link ProvenanceCaptureConfiguration} for how the policy of a
+ * component is configured.
+ */
+public class ProvenanceCapturePolicy {
+    public static final ProvenanceCapturePolicy CAPTURE_ALL = new ProvenanceCapturePolicy(null, Collections.emptyMap());
+
+    private final Set<String> retainedAttributes;
+    private final Map<ProvenanceEventType, Integer> samplingIntervals;
+
+    /**
+     * @param retainedAttributes the names of the attributes to store on events, or <code>null</code> to store all attributes
+     * @param samplingIntervals for each sampled event type, the number of FlowFiles out of which one has its events of that type stored
+     */
+    ProvenanceCapturePolicy(final Set<String> retainedAttributes, final Map<ProvenanceEventType, Integer> samplingIntervals) {
+        this.retainedAttributes = retainedAttributes;
+        this.samplingIntervals = samplingIntervals;
+    }
+
+    /**
+     * @return <code>true</code> if some events are not stored because their event type is sampled
+     */
+    public boolean isSampling() {
+        return !samplingIntervals.isEmpty();
+    }
+
+    /**
+     * Indicates whether or not the given event should be stored. Sampling is based on the FlowFile's UUID, rather than on a counter,
+     * so that the FlowFiles that are sampled have all of their events of a given type stored, by every component that uses the same interval.
+     *
+     * @param event the event
+     * @return <code>true</code> if the event should be stored, <code>false</code> if it is to be discarded
+     */
+    public boolean isCaptured(final ProvenanceEventRecord event) {
+        final Integer interval = samplingIntervals.get(event.getEventType());
+        if (interval == null || interval == 1) {
+            return true;
+        }
+        if (interval < 1) {
+            return false;
+        }
+
+        final String flowFileUuid = event.getFlowFileUuid();
+        return flowFileUuid == null || Math.floorMod(flowFileUuid.hashCode(), interval) == 0;
+    }
+
+    /**
+     * @param attributes the attributes of a FlowFile, as they are to be stored on an event
+     * @return the attributes that should be stored on the event
+     */
+    public Map<String, String> retainAttributes(final Map<String, String> attributes) {
+        if (retainedAttributes == null || attributes == null || attributes.isEmpty()) {
+            return attributes;
+        }
+
+        // The retained names are typically far fewer than the attributes of a FlowFile, so look each of them up rather than iterating over the attributes.
+        final Map<String, String> retained = new HashMap<>(Math.min(attributes.size(), retainedAttributes.size()) * 2);
+        for (final String attributeName : retainedAttributes) {
+            final String value = attributes.get(attributeName);
+            if (value != null || attributes.containsKey(attributeName)) {
+                retained.put(attributeName, value);
+            }
+        }
+
+        return retained;
+    }
+}
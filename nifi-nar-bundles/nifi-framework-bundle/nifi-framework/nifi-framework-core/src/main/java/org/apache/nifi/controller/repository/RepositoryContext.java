@@ -40,17 +40,27 @@ public class RepositoryContext {
     private final FlowFileEventRepository flowFileEventRepo;
     private final CounterRepository counterRepo;
     private final ProvenanceEventRepository provenanceRepo;
+    private final ProvenanceCaptureConfiguration provenanceCaptureConfiguration;
     private final AtomicLong connectionIndex;
 
     public RepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
             final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
             final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository) {
+        this(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository,
+            ProvenanceCaptureConfiguration.CAPTURE_ALL);
+    }
+
+    public RepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
+            final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
+            final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+            final ProvenanceCaptureConfiguration provenanceCaptureConfiguration) {
         this.connectable = connectable;
         contentRepo = contentRepository;
         flowFileRepo = flowFileRepository;
         flowFileEventRepo = flowFileEventRepository;
         counterRepo = counterRepository;
         provenanceRepo = provenanceRepository;
+        this.provenanceCaptureConfiguration = provenanceCaptureConfiguration;
 
         this.connectionIndex = connectionIndex;
     }
@@ -144,6 +154,13 @@ public class RepositoryContext {
         return provenanceRepo;
     }
 
+    /**
+     * @return the policy that determines which of the Provenance Events generated by the component are stored, and which attributes they hold
+     */
+    public ProvenanceCapturePolicy getProvenanceCapturePolicy() {
+        return provenanceCaptureConfiguration.getPolicy(connectable);
+    }
+
     long getNextFlowFileSequence() {
         return flowFileRepo.getNextFlowFileSequence();
     }
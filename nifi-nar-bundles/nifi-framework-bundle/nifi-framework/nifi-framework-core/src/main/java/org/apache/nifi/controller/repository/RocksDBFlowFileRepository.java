@@ -25,8 +25,10 @@ import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.rocksdb.RocksDBMetronome;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wali.SerDe;
@@ -87,6 +89,7 @@ public class RocksDBFlowFileRepository implements FlowFileRepository {
     private static final byte[] SERIALIZATION_HEADER_KEY = "serial.header".getBytes(StandardCharsets.UTF_8);
     static final byte[] REPOSITORY_VERSION_KEY = "repository.version".getBytes(StandardCharsets.UTF_8);
     static final byte[] VERSION_ONE_BYTES = "1.0".getBytes(StandardCharsets.UTF_8);
+    static final String SWAP_COLUMN_FAMILY = "swap.column.family";
     private static final IllegalStateException NO_NEW_FLOWFILES = new IllegalStateException("Repository is not currently accepting new FlowFiles");
     private static final Runtime runtime = Runtime.getRuntime();
     private static final NumberFormat percentFormat = NumberFormat.getPercentInstance();
@@ -243,6 +246,7 @@ public class RocksDBFlowFileRepository implements FlowFileRepository {
     private SerDe<SerializedRepositoryRecord> serializer;
     private String serializationEncodingName;
     private byte[] serializationHeader;
+    private ColumnFamilyHandle swapColumnFamily;
 
     private final boolean acceptDataLoss;
     private final boolean enableStallStop;
@@ -339,6 +343,7 @@ public class RocksDBFlowFileRepository implements FlowFileRepository {
                 .setCreateMissingColumnFamilies(true)
                 .setCreateIfMissing(true)
                 .setPeriodicSyncEnabled(!acceptDataLoss)
+                .addColumnFamily(SWAP_COLUMN_FAMILY)
                 .build();
     }
 
@@ -371,6 +376,7 @@ public class RocksDBFlowFileRepository implements FlowFileRepository {
     @Override
     public void initialize(final ResourceClaimManager claimManager) throws IOException {
         this.db.initialize();
+        this.swapColumnFamily = db.getColumnFamilyHandle(SWAP_COLUMN_FAMILY);
         this.claimManager = claimManager;
         this.serdeFactory = new StandardRepositoryRecordSerdeFactory(claimManager);
 
@@ -1000,6 +1006,226 @@ public class RocksDBFlowFileRepository implements FlowFileRepository {
     }
 
 
+    /**
+     * Moves the given FlowFiles out of the repository and into the swap column family, along with the entry that describes the swap location,
+     * using a single atomic write. Each FlowFile is stored under the given key prefix followed by its FlowFile ID, so that the FlowFiles can later
+     * be read back with a range scan. Used by {@link RocksDBSwapManager} in place of writing a swap file.
+     *
+     * @param swappedOut            the FlowFiles to swap out
+     * @param queue                 the queue that the FlowFiles belong to
+     * @param swapLocationKey       the key of the swap location entry
+     * @param swapLocationValue     the value of the swap location entry
+     * @param flowFileKeyPrefix     the prefix of the key under which each FlowFile is to be stored
+     * @throws IOException if unable to update the database or a required sync is interrupted
+     */
+    void moveToSwapColumnFamily(final List<FlowFileRecord> swappedOut, final FlowFileQueue queue, final byte[] swapLocationKey, final byte[] swapLocationValue,
+                                final byte[] flowFileKeyPrefix) throws IOException {
+        final int syncCounterValue;
+        try (final WriteBatch writeBatch = new WriteBatch()) {
+            for (final FlowFileRecord flowFile : swappedOut) {
+                final StandardRepositoryRecord repoRecord = new StandardRepositoryRecord(queue, flowFile);
+                repoRecord.setDestination(queue);
+
+                final byte[] key = RocksDBMetronome.getBytes(flowFile.getId());
+                writeBatch.put(swapColumnFamily, concat(flowFileKeyPrefix, key), serialize(repoRecord));
+                writeBatch.delete(key);
+            }
+
+            writeBatch.put(swapColumnFamily, swapLocationKey, swapLocationValue);
+            db.write(writeBatch, false);
+            syncCounterValue = db.getSyncCounterValue();
+        } catch (RocksDBException e) {
+            throw new IOException(e);
+        }
+
+        inMemoryFlowFiles.addAndGet(-swappedOut.size());
+        waitForSync(syncCounterValue);
+    }
+
+    /**
+     * Reads the FlowFiles that were stored in the swap column family under the given key prefix, without modifying the database
+     *
+     * @param flowFileKeyPrefix the prefix that was given to {@link #moveToSwapColumnFamily(List, FlowFileQueue, byte[], byte[], byte[])}
+     * @return the FlowFiles, ordered by FlowFile ID
+     * @throws IOException if unable to read or deserialize the FlowFiles
+     */
+    List<FlowFileRecord> readFromSwapColumnFamily(final byte[] flowFileKeyPrefix) throws IOException {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        final SerDe<SerializedRepositoryRecord> deserializer = createDeserializer();
+
+        try (final RocksIterator rocksIterator = db.getIterator(swapColumnFamily)) {
+            for (rocksIterator.seek(flowFileKeyPrefix); rocksIterator.isValid() && startsWith(rocksIterator.key(), flowFileKeyPrefix); rocksIterator.next()) {
+                flowFiles.add(deserialize(deserializer, rocksIterator.value()).getFlowFileRecord());
+            }
+        }
+
+        return flowFiles;
+    }
+
+    /**
+     * Moves the FlowFiles that were stored in the swap column family under the given key prefix back into the repository, removing them and the
+     * swap location entry from the swap column family, using a single atomic write. The serialized FlowFiles are moved as-is, without being
+     * serialized again.
+     *
+     * @param swapLocationKey   the key of the swap location entry
+     * @param flowFileKeyPrefix the prefix that was given to {@link #moveToSwapColumnFamily(List, FlowFileQueue, byte[], byte[], byte[])}
+     * @return the FlowFiles that were swapped in, ordered by FlowFile ID
+     * @throws IOException if unable to read or update the database or a required sync is interrupted
+     */
+    List<FlowFileRecord> moveFromSwapColumnFamily(final byte[] swapLocationKey, final byte[] flowFileKeyPrefix) throws IOException {
+        if (stopNewFlowFiles) {
+            updateStallStop();
+            throw NO_NEW_FLOWFILES;
+        }
+
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        final SerDe<SerializedRepositoryRecord> deserializer = createDeserializer();
+
+        final int syncCounterValue;
+        try (final WriteBatch writeBatch = new WriteBatch();
+             final RocksIterator rocksIterator = db.getIterator(swapColumnFamily)) {
+
+            for (rocksIterator.seek(flowFileKeyPrefix); rocksIterator.isValid() && startsWith(rocksIterator.key(), flowFileKeyPrefix); rocksIterator.next()) {
+                final byte[] swapKey = rocksIterator.key();
+                final byte[] value = rocksIterator.value();
+                flowFiles.add(deserialize(deserializer, value).getFlowFileRecord());
+                writeBatch.put(Arrays.copyOfRange(swapKey, flowFileKeyPrefix.length, swapKey.length), value);
+            }
+
+            // a single range deletion is far cheaper to write than a tombstone for each FlowFile
+            writeBatch.deleteRange(swapColumnFamily, flowFileKeyPrefix, getPrefixEnd(flowFileKeyPrefix));
+            writeBatch.delete(swapColumnFamily, swapLocationKey);
+            db.write(writeBatch, false);
+            syncCounterValue = db.getSyncCounterValue();
+        } catch (RocksDBException e) {
+            throw new IOException(e);
+        }
+
+        inMemoryFlowFiles.addAndGet(flowFiles.size());
+        waitForSync(syncCounterValue);
+        return flowFiles;
+    }
+
+    /**
+     * @param keyPrefix the prefix of the keys to return the values for
+     * @return the values of all entries in the swap column family whose keys start with the given prefix, in key order
+     */
+    List<byte[]> getSwapColumnFamilyValues(final byte[] keyPrefix) {
+        final List<byte[]> values = new ArrayList<>();
+        try (final RocksIterator rocksIterator = db.getIterator(swapColumnFamily)) {
+            for (rocksIterator.seek(keyPrefix); rocksIterator.isValid() && startsWith(rocksIterator.key(), keyPrefix); rocksIterator.next()) {
+                values.add(rocksIterator.value());
+            }
+        }
+
+        return values;
+    }
+
+    byte[] getSwapColumnFamilyValue(final byte[] key) throws IOException {
+        try {
+            return db.get(swapColumnFamily, key);
+        } catch (RocksDBException e) {
+            throw new IOException(e);
+        }
+    }
+
+    void putSwapColumnFamilyValue(final byte[] key, final byte[] value) throws IOException {
+        try {
+            db.put(swapColumnFamily, key, value, !acceptDataLoss);
+        } catch (RocksDBException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Removes everything from the swap column family
+     */
+    void purgeSwapColumnFamily() throws IOException {
+        final byte[] lastKey;
+        try (final RocksIterator rocksIterator = db.getIterator(swapColumnFamily)) {
+            rocksIterator.seekToLast();
+            if (!rocksIterator.isValid()) {
+                return;
+            }
+            lastKey = rocksIterator.key();
+        }
+
+        // the range runs from the empty key to the smallest key that is greater than every key in the column family
+        final byte[] begin = new byte[0];
+        final byte[] end = Arrays.copyOf(lastKey, lastKey.length + 1);
+
+        // drop the files that hold only swapped FlowFiles without reading them, then a single range deletion covers whatever remains
+        try (final WriteBatch writeBatch = new WriteBatch()) {
+            db.deleteFilesInRange(swapColumnFamily, begin, end);
+            writeBatch.deleteRange(swapColumnFamily, begin, end);
+            db.write(writeBatch, !acceptDataLoss);
+        } catch (RocksDBException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void waitForSync(final int syncCounterValue) throws IOException {
+        if (acceptDataLoss) {
+            return;
+        }
+
+        try {
+            db.waitForSync(syncCounterValue);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private SerDe<SerializedRepositoryRecord> createDeserializer() throws IOException {
+        final SerDe<SerializedRepositoryRecord> deserializer = serdeFactory.createSerDe(serializationEncodingName);
+        try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(serializationHeader);
+             DataInputStream dataInputStream = new DataInputStream(byteArrayInputStream)) {
+            deserializer.readHeader(dataInputStream);
+        }
+        return deserializer;
+    }
+
+    private static SerializedRepositoryRecord deserialize(final SerDe<SerializedRepositoryRecord> deserializer, final byte[] value) throws IOException {
+        try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(value);
+             DataInputStream dataInputStream = new DataInputStream(byteArrayInputStream)) {
+            return deserializer.deserializeRecord(dataInputStream, deserializer.getVersion());
+        }
+    }
+
+    private static byte[] concat(final byte[] prefix, final byte[] suffix) {
+        final byte[] bytes = Arrays.copyOf(prefix, prefix.length + suffix.length);
+        System.arraycopy(suffix, 0, bytes, prefix.length, suffix.length);
+        return bytes;
+    }
+
+    private static boolean startsWith(final byte[] bytes, final byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the smallest key that is greater than every key that starts with the given prefix. The prefix must not consist entirely of 0xFF bytes.
+     */
+    private static byte[] getPrefixEnd(final byte[] prefix) {
+        final byte[] end = Arrays.copyOf(prefix, prefix.length);
+        for (int i = end.length - 1; i >= 0; i--) {
+            if (end[i] != (byte) 0xFF) {
+                end[i]++;
+                return Arrays.copyOf(end, i + 1);
+            }
+        }
+        throw new IllegalArgumentException("Cannot determine the end of a prefix that consists entirely of 0xFF bytes");
+    }
+
     @Override
     public long loadFlowFiles(final QueueProvider queueProvider) throws IOException {
 
@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.StandardSwapContents;
+import org.apache.nifi.controller.swap.StandardSwapSummary;
+import org.apache.nifi.controller.swap.SwapSchema;
+import org.apache.nifi.controller.swap.SwapSummaryFieldMap;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordReader;
+import org.apache.nifi.repository.schema.SchemaRecordWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * <p>
+ * An implementation of the {@link FlowFileSwapManager} that swaps FlowFiles into a dedicated column family of the
+ * {@link RocksDBFlowFileRepository}, rather than to swap files on local disk. It may only be used with that repository.
+ * </p>
+ *
+ * <p>
+ * Swapping out moves the serialized FlowFiles from the repository's default column family into the swap column family,
+ * along with an entry that describes the swap location, in a single atomic write. Swapping in is a range scan over the
+ * FlowFiles of the swap location followed by a single atomic write that moves them back. The swap column family holds two
+ * kinds of entries:
+ * </p>
+ *
+ * <ul>
+ * <li>A swap location entry, keyed by queue identifier and swap name, holding the partition name and the Swap Summary, so that
+ * the swap locations of a queue can be recovered, and their summaries read, without reading any FlowFiles.</li>
+ * <li>A FlowFile entry, keyed by swap name and FlowFile ID, holding the FlowFile serialized exactly as the repository stores it.</li>
+ * </ul>
+ */
+public class RocksDBSwapManager implements FlowFileSwapManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(RocksDBSwapManager.class);
+
+    static final String SWAP_LOCATION_PREFIX = "rocksdb://swap/";
+    private static final String SWAP_LOCATION_SUFFIX = ".swap";
+    private static final int ENTRY_ENCODING_VERSION = 1;
+    private static final int UUID_LENGTH = 36;
+
+    private static final byte SWAP_LOCATION_ENTRY = 1;
+    private static final byte FLOWFILE_ENTRY = 2;
+    private static final byte KEY_SEPARATOR = 0;
+
+    private final RecordSchema summarySchema = SwapSchema.SWAP_SUMMARY_SCHEMA_V2;
+
+    // effectively final
+    private RocksDBFlowFileRepository flowFileRepository;
+    private ResourceClaimManager claimManager;
+
+    @Override
+    public synchronized void initialize(final SwapManagerInitializationContext initializationContext) {
+        final FlowFileRepository repository = initializationContext.getFlowFileRepository();
+        if (!(repository instanceof RocksDBFlowFileRepository)) {
+            throw new IllegalStateException(RocksDBSwapManager.class.getSimpleName() + " can only be used with the " + RocksDBFlowFileRepository.class.getSimpleName()
+                + " but the FlowFile Repository is " + (repository == null ? null : repository.getClass().getName()));
+        }
+
+        this.flowFileRepository = (RocksDBFlowFileRepository) repository;
+        this.claimManager = initializationContext.getResourceClaimManager();
+    }
+
+    @Override
+    public String swapOut(final List<FlowFileRecord> toSwap, final FlowFileQueue flowFileQueue, final String partitionName) throws IOException {
+        if (toSwap == null || toSwap.isEmpty()) {
+            return null;
+        }
+
+        final String queueIdentifier = flowFileQueue.getIdentifier();
+        final String swapName = System.currentTimeMillis() + "-" + queueIdentifier + "-" + UUID.randomUUID().toString();
+        final SwapSummary swapSummary = createSwapSummary(toSwap);
+        final byte[] swapLocationEntry = serializeSwapLocationEntry(swapName, partitionName, serializeSwapSummary(swapSummary, queueIdentifier));
+
+        flowFileRepository.moveToSwapColumnFamily(toSwap, flowFileQueue, getSwapLocationKey(queueIdentifier, swapName), swapLocationEntry, getFlowFileKeyPrefix(swapName));
+
+        final String swapLocation = createSwapLocation(swapName, partitionName);
+        logger.info("Successfully swapped out {} FlowFiles from {} to Swap Location {}", toSwap.size(), flowFileQueue, swapLocation);
+        return swapLocation;
+    }
+
+    @Override
+    public SwapContents swapIn(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        final String swapName = getSwapName(swapLocation);
+        final SwapLocationEntry entry = getSwapLocationEntry(swapLocation, flowFileQueue);
+        final SwapSummary swapSummary = entry.getSwapSummary();
+
+        final List<FlowFileRecord> flowFiles = flowFileRepository.moveFromSwapColumnFamily(getSwapLocationKey(flowFileQueue.getIdentifier(), swapName), getFlowFileKeyPrefix(swapName));
+        logger.info("Successfully swapped in {} FlowFiles from Swap Location {} to {}", flowFiles.size(), swapLocation, flowFileQueue);
+        return new StandardSwapContents(swapSummary, flowFiles);
+    }
+
+    @Override
+    public SwapContents peek(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        final SwapLocationEntry entry = getSwapLocationEntry(swapLocation, flowFileQueue);
+        final List<FlowFileRecord> flowFiles = flowFileRepository.readFromSwapColumnFamily(getFlowFileKeyPrefix(entry.getSwapName()));
+        return new StandardSwapContents(entry.getSwapSummary(), flowFiles);
+    }
+
+    @Override
+    public List<String> recoverSwapLocations(final FlowFileQueue flowFileQueue, final String partitionName) throws IOException {
+        final List<String> swapLocations = new ArrayList<>();
+
+        // Swap Location entries are keyed by queue identifier and then by swap name, which begins with the time at which the
+        // FlowFiles were swapped out, so they are returned in the order in which they were swapped out.
+        for (final SwapLocationEntry entry : getSwapLocationEntries(flowFileQueue)) {
+            if (partitionName != null && !partitionName.equals(entry.getPartitionName())) {
+                continue;
+            }
+
+            swapLocations.add(createSwapLocation(entry.getSwapName(), entry.getPartitionName()));
+        }
+
+        return swapLocations;
+    }
+
+    @Override
+    public Set<String> getSwappedPartitionNames(final FlowFileQueue queue) throws IOException {
+        final Set<String> partitionNames = new HashSet<>();
+        for (final SwapLocationEntry entry : getSwapLocationEntries(queue)) {
+            if (entry.getPartitionName() != null) {
+                partitionNames.add(entry.getPartitionName());
+            }
+        }
+
+        return partitionNames;
+    }
+
+    @Override
+    public String changePartitionName(final String swapLocation, final String newPartitionName) throws IOException {
+        final SwapLocationEntry entry = getSwapLocationEntry(swapLocation);
+        final String swapName = entry.getSwapName();
+
+        final byte[] updatedEntry = serializeSwapLocationEntry(swapName, newPartitionName, entry.getSerializedSwapSummary());
+        flowFileRepository.putSwapColumnFamilyValue(getSwapLocationKey(getQueueIdentifier(swapLocation), swapName), updatedEntry);
+
+        logger.debug("Changed Partition for Swap Location {} to {}", swapLocation, newPartitionName);
+        return createSwapLocation(swapName, newPartitionName);
+    }
+
+    @Override
+    public SwapSummary getSwapSummary(final String swapLocation) throws IOException {
+        return getSwapLocationEntry(swapLocation).getSwapSummary();
+    }
+
+    @Override
+    public void purge() {
+        try {
+            flowFileRepository.purgeSwapColumnFamily();
+        } catch (final IOException ioe) {
+            logger.warn("Failed to purge FlowFile Swap Manager", ioe);
+        }
+    }
+
+    @Override
+    public String getQueueIdentifier(final String swapLocation) {
+        // swap name is <timestamp>-<queue identifier>-<random uuid>
+        final String swapName = getSwapName(swapLocation);
+        final int firstDash = swapName.indexOf('-');
+        final int queueIdEnd = swapName.length() - UUID_LENGTH - 1;
+        if (firstDash < 1 || queueIdEnd <= firstDash + 1 || swapName.charAt(queueIdEnd) != '-') {
+            return null;
+        }
+
+        return swapName.substring(firstDash + 1, queueIdEnd);
+    }
+
+    private List<SwapLocationEntry> getSwapLocationEntries(final FlowFileQueue queue) throws IOException {
+        final List<byte[]> values = flowFileRepository.getSwapColumnFamilyValues(getSwapLocationKeyPrefix(queue.getIdentifier()));
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<SwapLocationEntry> entries = new ArrayList<>(values.size());
+        for (final byte[] value : values) {
+            entries.add(deserializeSwapLocationEntry(value));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the Swap Location entry for the given Swap Location, ensuring that the FlowFiles there were swapped out of the given queue.
+     * Swap Locations are recovered per queue, so this is expected to hold. But unlike a swap file, whose FlowFiles are added to whichever
+     * queue reads it, FlowFiles that are swapped in from the swap column family are also moved back into the repository, so swapping them
+     * into the wrong queue would leave the repository and the queues inconsistent.
+     */
+    private SwapLocationEntry getSwapLocationEntry(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        final String queueIdentifier = getQueueIdentifier(swapLocation);
+        if (queueIdentifier != null && !queueIdentifier.equals(flowFileQueue.getIdentifier())) {
+            throw new IOException("Cannot access FlowFiles at Swap Location " + swapLocation + " for " + flowFileQueue + " because the FlowFiles were swapped out of the queue with ID "
+                + queueIdentifier);
+        }
+
+        return getSwapLocationEntry(swapLocation);
+    }
+
+    private SwapLocationEntry getSwapLocationEntry(final String swapLocation) throws IOException {
+        final String queueIdentifier = getQueueIdentifier(swapLocation);
+        if (queueIdentifier == null) {
+            throw new IOException("Cannot access FlowFiles at " + swapLocation + " because it is not a valid RocksDB Swap Location");
+        }
+
+        final byte[] value = flowFileRepository.getSwapColumnFamilyValue(getSwapLocationKey(queueIdentifier, getSwapName(swapLocation)));
+        if (value == null) {
+            throw new FileNotFoundException("Failed to access FlowFiles at Swap Location " + swapLocation + " because the Swap Location could not be found");
+        }
+
+        return deserializeSwapLocationEntry(value);
+    }
+
+    static String createSwapLocation(final String swapName, final String partitionName) {
+        final String baseName = partitionName == null ? swapName : swapName + "." + partitionName;
+        return SWAP_LOCATION_PREFIX + baseName + SWAP_LOCATION_SUFFIX;
+    }
+
+    static String getSwapName(final String swapLocation) {
+        final String name = swapLocation.startsWith(SWAP_LOCATION_PREFIX) ? swapLocation.substring(SWAP_LOCATION_PREFIX.length()) : swapLocation;
+        return StringUtils.substringBefore(name, ".");
+    }
+
+    private static byte[] getSwapLocationKeyPrefix(final String queueIdentifier) {
+        final byte[] queueIdBytes = queueIdentifier.getBytes(StandardCharsets.UTF_8);
+        final byte[] prefix = new byte[queueIdBytes.length + 2];
+        prefix[0] = SWAP_LOCATION_ENTRY;
+        System.arraycopy(queueIdBytes, 0, prefix, 1, queueIdBytes.length);
+        prefix[prefix.length - 1] = KEY_SEPARATOR;
+        return prefix;
+    }
+
+    private static byte[] getSwapLocationKey(final String queueIdentifier, final String swapName) {
+        final byte[] prefix = getSwapLocationKeyPrefix(queueIdentifier);
+        final byte[] swapNameBytes = swapName.getBytes(StandardCharsets.UTF_8);
+        final byte[] key = new byte[prefix.length + swapNameBytes.length];
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        System.arraycopy(swapNameBytes, 0, key, prefix.length, swapNameBytes.length);
+        return key;
+    }
+
+    private static byte[] getFlowFileKeyPrefix(final String swapName) {
+        final byte[] swapNameBytes = swapName.getBytes(StandardCharsets.UTF_8);
+        final byte[] prefix = new byte[swapNameBytes.length + 2];
+        prefix[0] = FLOWFILE_ENTRY;
+        System.arraycopy(swapNameBytes, 0, prefix, 1, swapNameBytes.length);
+        prefix[prefix.length - 1] = KEY_SEPARATOR;
+        return prefix;
+    }
+
+    private static SwapSummary createSwapSummary(final List<FlowFileRecord> flowFiles) {
+        long contentSize = 0L;
+        long maxFlowFileId = -1L;
+        final List<ResourceClaim> resourceClaims = new ArrayList<>();
+        for (final FlowFileRecord flowFile : flowFiles) {
+            contentSize += flowFile.getSize();
+            if (flowFile.getId() > maxFlowFileId) {
+                maxFlowFileId = flowFile.getId();
+            }
+
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            if (contentClaim != null) {
+                resourceClaims.add(contentClaim.getResourceClaim());
+            }
+        }
+
+        return new StandardSwapSummary(new QueueSize(flowFiles.size(), contentSize), maxFlowFileId, resourceClaims);
+    }
+
+    private byte[] serializeSwapSummary(final SwapSummary swapSummary, final String queueIdentifier) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        summarySchema.writeTo(baos);
+        new SchemaRecordWriter().writeRecord(new SwapSummaryFieldMap(swapSummary, queueIdentifier, summarySchema), baos);
+        return baos.toByteArray();
+    }
+
+    private static byte[] serializeSwapLocationEntry(final String swapName, final String partitionName, final byte[] serializedSwapSummary) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeInt(ENTRY_ENCODING_VERSION);
+            out.writeUTF(swapName);
+            out.writeBoolean(partitionName != null);
+            if (partitionName != null) {
+                out.writeUTF(partitionName);
+            }
+            out.write(serializedSwapSummary);
+        }
+
+        return baos.toByteArray();
+    }
+
+    private SwapLocationEntry deserializeSwapLocationEntry(final byte[] value) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            final int encodingVersion = in.readInt();
+            if (encodingVersion > ENTRY_ENCODING_VERSION) {
+                throw new IOException("Cannot read Swap Location entry because it was written using version " + encodingVersion
+                    + " of the encoding, but only versions up to " + ENTRY_ENCODING_VERSION + " are supported");
+            }
+
+            final String swapName = in.readUTF();
+            final String partitionName = in.readBoolean() ? in.readUTF() : null;
+
+            final byte[] serializedSwapSummary = new byte[in.available()];
+            in.readFully(serializedSwapSummary);
+            return new SwapLocationEntry(swapName, partitionName, serializedSwapSummary);
+        }
+    }
+
+    private class SwapLocationEntry {
+        private final String swapName;
+        private final String partitionName;
+        private final byte[] serializedSwapSummary;
+
+        SwapLocationEntry(final String swapName, final String partitionName, final byte[] serializedSwapSummary) {
+            this.swapName = swapName;
+            this.partitionName = partitionName;
+            this.serializedSwapSummary = serializedSwapSummary;
+        }
+
+        String getSwapName() {
+            return swapName;
+        }
+
+        String getPartitionName() {
+            return partitionName;
+        }
+
+        byte[] getSerializedSwapSummary() {
+            return serializedSwapSummary;
+        }
+
+        SwapSummary getSwapSummary() throws IOException {
+            try (final InputStream in = new ByteArrayInputStream(serializedSwapSummary)) {
+                final RecordSchema schema = RecordSchema.readFrom(in);
+                final Record summaryRecord = SchemaRecordReader.fromSchema(schema).readRecord(in);
+                return SwapSummaryFieldMap.getSwapSummary(summaryRecord, claimManager);
+            }
+        }
+    }
+}
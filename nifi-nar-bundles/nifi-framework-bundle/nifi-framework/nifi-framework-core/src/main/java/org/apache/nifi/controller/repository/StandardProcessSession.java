@@ -68,6 +68,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -118,6 +122,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
     private static final Logger LOG = LoggerFactory.getLogger(StandardProcessSession.class);
     private static final Logger claimLog = LoggerFactory.getLogger(StandardProcessSession.class.getSimpleName() + ".claims");
     private static final int MAX_ROLLBACK_FLOWFILES_TO_LOG = 5;
+    private static final String CONTENT_DIGEST_ALGORITHM = "SHA-256";
 
     private final Map<Long, StandardRepositoryRecord> records = new ConcurrentHashMap<>();
     private final Map<String, StandardFlowFileEvent> connectionCounts = new ConcurrentHashMap<>();
@@ -128,6 +133,8 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
     private final Map<FlowFile, Integer> readRecursionSet = new HashMap<>();// set used to track what is currently being operated on to prevent logic failures if recursive calls occurring
     private final Set<FlowFile> writeRecursionSet = new HashSet<>();
     private final Map<FlowFile, Path> deleteOnCommit = new HashMap<>();
+    // digests of content written in this session that was not found in the Content Repository, keyed by FlowFile ID, to be registered on commit
+    private final Map<Long, ContentDigest> contentDigests = new HashMap<>();
     private final long sessionId;
     private final String connectableDescription;
 
@@ -138,6 +145,8 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
     private final Set<String> createdFlowFiles = new HashSet<>();
 
     private final StandardProvenanceReporter provenanceReporter;
+    // resolved once for the session, rather than for each Provenance Event that is enriched
+    private final ProvenanceCapturePolicy provenanceCapturePolicy;
 
     private int removedCount = 0; // number of flowfiles removed in this session
     private long removedBytes = 0L; // size of all flowfiles removed in this session
@@ -202,6 +211,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
 
         this.provenanceReporter = new StandardProvenanceReporter(this, connectable.getIdentifier(), componentType,
             context.getProvenanceRepository(), this);
+        this.provenanceCapturePolicy = context.getProvenanceCapturePolicy();
         this.sessionId = idGenerator.getAndIncrement();
         this.connectableDescription = description;
         this.claimCache = new ContentClaimWriteCache(context.getContentRepository());
@@ -378,6 +388,8 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
                 throw new ProcessException("FlowFile Repository failed to update", ioe);
             }
 
+            registerContentDigests(checkpoint);
+
             final long flowFileRepoUpdateFinishNanos = System.nanoTime();
             final long flowFileRepoUpdateNanos = flowFileRepoUpdateFinishNanos - flowFileRepoUpdateStart;
 
@@ -447,11 +459,13 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             acknowledgeRecords();
             resetState();
 
+            final long commitNanos = System.nanoTime() - commitStartNanos;
+            context.getFlowFileEventRepository().recordLatency(context.getConnectable().getIdentifier(), LatencyType.SESSION_COMMIT, commitNanos);
+
             if (LOG.isDebugEnabled()) {
                 final StringBuilder timingInfo = new StringBuilder();
                 timingInfo.append("Session commit for ").append(this).append(" [").append(connectableDescription).append("]").append(" took ");
 
-                final long commitNanos = System.nanoTime() - commitStartNanos;
                 formatNanos(commitNanos, timingInfo);
                 timingInfo.append("; FlowFile Repository Update took ");
                 formatNanos(flowFileRepoUpdateNanos, timingInfo);
@@ -722,6 +736,11 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             }
         }
 
+        // Discard the events that the capture policy samples out. Only event types that do not contribute to lineage are sampled.
+        if (provenanceCapturePolicy.isSampling()) {
+            recordsToSubmit.removeIf(event -> !provenanceCapturePolicy.isCaptured(event));
+        }
+
         // We want to submit the 'recordsToSubmit' collection, followed by the auto-terminated events to the Provenance Repository.
         // We want to do this with a single call to ProvenanceEventRepository#registerEvents because it may be much more efficient
         // to do so.
@@ -832,7 +851,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             recordBuilder.setSourceQueueIdentifier(originalQueue.getIdentifier());
         }
 
-        recordBuilder.setAttributes(repoRecord.getOriginalAttributes(), repoRecord.getUpdatedAttributes());
+        recordBuilder.setAttributes(provenanceCapturePolicy.retainAttributes(repoRecord.getOriginalAttributes()), provenanceCapturePolicy.retainAttributes(repoRecord.getUpdatedAttributes()));
         if (rawEvent.getEventDuration() < 0) {
             recordBuilder.setEventDuration(TimeUnit.NANOSECONDS.toMillis(commitNanos - repoRecord.getStartNanos()));
         }
@@ -843,6 +862,9 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         final ProvenanceEventRecord rawEvent, final Map<String, FlowFileRecord> flowFileRecordMap, final Map<Long, StandardRepositoryRecord> records,
         final boolean updateAttributes, final long commitNanos) {
         final StandardProvenanceEventRecord.Builder recordBuilder = new StandardProvenanceEventRecord.Builder().fromEvent(rawEvent);
+        Map<String, String> previousAttributes = rawEvent.getPreviousAttributes();
+        Map<String, String> updatedAttributes = rawEvent.getUpdatedAttributes();
+
         final FlowFileRecord eventFlowFile = flowFileRecordMap.get(rawEvent.getFlowFileUuid());
         if (eventFlowFile != null) {
             final StandardRepositoryRecord repoRecord = records.get(eventFlowFile.getId());
@@ -871,13 +893,16 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             }
 
             if (updateAttributes) {
-                recordBuilder.setAttributes(repoRecord.getOriginalAttributes(), repoRecord.getUpdatedAttributes());
+                previousAttributes = repoRecord.getOriginalAttributes();
+                updatedAttributes = repoRecord.getUpdatedAttributes();
             }
 
             if (rawEvent.getEventDuration() < 0) {
                 recordBuilder.setEventDuration(TimeUnit.NANOSECONDS.toMillis(commitNanos - repoRecord.getStartNanos()));
             }
         }
+
+        recordBuilder.setAttributes(provenanceCapturePolicy.retainAttributes(previousAttributes), provenanceCapturePolicy.retainAttributes(updatedAttributes));
         return recordBuilder.build();
     }
 
@@ -957,6 +982,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         }
 
         deleteOnCommit.clear();
+        contentDigests.clear();
 
         closeStreams(openInputStreams, "rolled back", "input");
         closeStreams(openOutputStreams, "rolled back", "output");
@@ -1152,6 +1178,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         connectionCounts.clear();
         createdFlowFiles.clear();
         removedFlowFiles.clear();
+        contentDigests.clear();
         if (countersOnCommit != null) {
             countersOnCommit.clear();
         }
@@ -2214,7 +2241,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
                                     record.getContentClaimOffset() + claim.getOffset(), record.getSize());
                             }
 
-                            enriched.setAttributes(record.getAttributes(), Collections.<String, String> emptyMap());
+                            enriched.setAttributes(provenanceCapturePolicy.retainAttributes(record.getAttributes()), Collections.<String, String> emptyMap());
                             return enriched.build();
                         }
 
@@ -2524,6 +2551,15 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
 
         final StandardRepositoryRecord destinationRecord = getRecord(destination);
         final ContentRepository contentRepo = context.getContentRepository();
+
+        final boolean noDelimiters = (header == null || header.length == 0) && (footer == null || footer.length == 0) && (demarcator == null || demarcator.length == 0);
+        if (noDelimiters) {
+            final FlowFileRecord referencingFile = mergeByReference(sources, destinationRecord);
+            if (referencingFile != null) {
+                return referencingFile;
+            }
+        }
+
         final ContentClaim newClaim;
         try {
             newClaim = contentRepo.create(context.getConnectable().isLossTolerant());
@@ -2550,7 +2586,10 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
                 for (final FlowFile source : sources) {
                     final StandardRepositoryRecord sourceRecord = getRecord(source);
 
-                    final long copied = contentRepo.exportTo(sourceRecord.getCurrentClaim(), out, sourceRecord.getCurrentClaimOffset(), source.getSize());
+                    // Flush anything buffered and export directly to the repository's stream, so that the Content Repository is able to
+                    // transfer the content without copying it through the heap, if it supports doing so.
+                    out.flush();
+                    final long copied = contentRepo.exportTo(sourceRecord.getCurrentClaim(), rawOut, sourceRecord.getCurrentClaimOffset(), source.getSize());
                     writtenCount += copied;
                     readCount += copied;
 
@@ -2592,6 +2631,55 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         return newFile;
     }
 
+    /**
+     * If the content of all sources is a contiguous range of the same Content Claim, in order, then the merged content is simply that range,
+     * so the destination can reference the existing Content Claim, in the same way as {@link #clone(FlowFile, long, long)}, rather than
+     * copying the content.
+     *
+     * @return the updated destination, or <code>null</code> if the content of the sources must be copied
+     */
+    private FlowFileRecord mergeByReference(final Collection<FlowFile> sources, final StandardRepositoryRecord destinationRecord) {
+        ContentClaim sharedClaim = null;
+        long startOffset = 0L;
+        long expectedOffset = 0L;
+        for (final FlowFile source : sources) {
+            final StandardRepositoryRecord sourceRecord = getRecord(source);
+            final ContentClaim claim = sourceRecord.getCurrentClaim();
+            if (claim == null) {
+                return null;
+            }
+
+            if (sharedClaim == null) {
+                sharedClaim = claim;
+                startOffset = sourceRecord.getCurrentClaimOffset();
+                expectedOffset = startOffset;
+            } else if (!sharedClaim.equals(claim) || sourceRecord.getCurrentClaimOffset() != expectedOffset) {
+                return null;
+            }
+
+            expectedOffset += source.getSize();
+        }
+
+        // If the destination already references the shared claim, we cannot tell the two references apart when the session is committed,
+        // so we copy the content instead.
+        if (sharedClaim == null || sharedClaim.equals(destinationRecord.getCurrentClaim())) {
+            return null;
+        }
+
+        context.getContentRepository().incrementClaimaintCount(sharedClaim);
+        claimLog.debug("Merging {} FlowFiles into {} by referencing existing ContentClaim {}", sources.size(), destinationRecord.getCurrent(), sharedClaim);
+
+        removeTemporaryClaim(destinationRecord);
+        final FlowFileRecord newFile = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(destinationRecord.getCurrent())
+            .contentClaim(sharedClaim)
+            .contentClaimOffset(startOffset)
+            .size(expectedOffset - startOffset)
+            .build();
+        destinationRecord.setWorking(newFile, true);
+        return newFile;
+    }
+
     private void ensureNotAppending(final ContentClaim claim) throws IOException {
         if (claim == null) {
             return;
@@ -2620,7 +2708,9 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
 
             final OutputStream rawStream = claimCache.write(newClaim);
             final OutputStream disableOnClose = new DisableOnCloseOutputStream(rawStream);
-            final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(disableOnClose);
+            final MessageDigest contentDigest = createContentDigest();
+            final OutputStream digestOut = contentDigest == null ? disableOnClose : new DigestOutputStream(disableOnClose, contentDigest);
+            final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(digestOut);
 
             final FlowFile sourceFlowFile = source;
             final ContentClaim updatedClaim = newClaim;
@@ -2703,6 +2793,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
                         .build();
 
                     record.setWorking(newFile, true);
+                    deduplicateContent(record, newFile, contentDigest);
                 }
             };
 
@@ -2737,6 +2828,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
 
         long writtenToFlowFile = 0L;
         ContentClaim newClaim = null;
+        final MessageDigest contentDigest = createContentDigest();
         try {
             newClaim = claimCache.getContentClaim();
             claimLog.debug("Creating ContentClaim {} for 'write' for {}", newClaim, source);
@@ -2744,7 +2836,8 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             ensureNotAppending(newClaim);
             try (final OutputStream stream = claimCache.write(newClaim);
                 final OutputStream disableOnClose = new DisableOnCloseOutputStream(stream);
-                final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(disableOnClose)) {
+                final OutputStream digestOut = contentDigest == null ? disableOnClose : new DigestOutputStream(disableOnClose, contentDigest);
+                final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(digestOut)) {
                 try {
                     writeRecursionSet.add(source);
                     final OutputStream ffaos = new FlowFileAccessOutputStream(countingOut, source);
@@ -2783,7 +2876,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             .build();
 
         record.setWorking(newFile, true);
-        return newFile;
+        return deduplicateContent(record, newFile, contentDigest);
     }
 
 
@@ -2903,6 +2996,102 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         return newFile;
     }
 
+    private MessageDigest createContentDigest() {
+        if (!context.getContentRepository().isContentDeduplicationEnabled()) {
+            return null;
+        }
+
+        try {
+            return MessageDigest.getInstance(CONTENT_DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ProcessException("Content deduplication is enabled but the " + CONTENT_DIGEST_ALGORITHM + " algorithm is not available", e);
+        }
+    }
+
+    /**
+     * If the Content Repository already holds content identical to the content that was just written for the given FlowFile, points the
+     * FlowFile at that content and releases the newly written copy. Otherwise, remembers the digest of the new content so that it can be
+     * registered with the Content Repository once the session is committed; registering it any earlier would allow other sessions to reference
+     * content that is not yet flushed and that may yet be rolled back.
+     *
+     * @param record the record of the FlowFile whose content was written
+     * @param flowFile the FlowFile referencing the newly written content
+     * @param contentDigest the digest of the newly written content, or <code>null</code> if content is not being deduplicated
+     * @return the FlowFile, updated to reference the identical content if any was found
+     */
+    private FlowFileRecord deduplicateContent(final StandardRepositoryRecord record, final FlowFileRecord flowFile, final MessageDigest contentDigest) {
+        if (contentDigest == null) {
+            return flowFile;
+        }
+
+        final byte[] digest = contentDigest.digest();
+        final ContentRepository contentRepo = context.getContentRepository();
+
+        final ContentClaim identicalClaim;
+        try {
+            identicalClaim = contentRepo.getIdenticalContent(digest, flowFile.getSize());
+        } catch (final IOException ioe) {
+            LOG.warn("{} Failed to look up content identical to that of {}; content will not be deduplicated", this, flowFile, ioe);
+            contentDigests.remove(flowFile.getId());
+            return flowFile;
+        }
+
+        if (identicalClaim == null) {
+            contentDigests.put(flowFile.getId(), new ContentDigest(flowFile, digest));
+            return flowFile;
+        }
+
+        contentDigests.remove(flowFile.getId());
+
+        // If the identical content is the very claim that the FlowFile held when the session started, keep the copy that was just written.
+        // Pointing the FlowFile back at its original claim would make it appear unmodified and leave the claimant counts unbalanced.
+        if (identicalClaim.equals(record.getOriginalClaim()) || identicalClaim.equals(flowFile.getContentClaim())) {
+            contentRepo.decrementClaimantCount(identicalClaim);
+            return flowFile;
+        }
+
+        claimLog.debug("Replacing content of {} with identical content in {}", flowFile, identicalClaim);
+        removeTemporaryClaim(record);
+
+        final FlowFileRecord deduplicated = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(flowFile)
+            .contentClaim(identicalClaim)
+            .contentClaimOffset(0L)
+            .build();
+
+        record.setWorking(deduplicated, true);
+        return deduplicated;
+    }
+
+    private void registerContentDigests(final Checkpoint checkpoint) {
+        if (checkpoint.contentDigests.isEmpty()) {
+            return;
+        }
+
+        final ContentRepository contentRepo = context.getContentRepository();
+        for (final Map.Entry<Long, ContentDigest> entry : checkpoint.contentDigests.entrySet()) {
+            final StandardRepositoryRecord record = checkpoint.records.get(entry.getKey());
+            if (record == null || record.isMarkedForDelete() || record.isMarkedForAbort()) {
+                continue;
+            }
+
+            // The FlowFile may have been modified again after its content was hashed, in which case the digest no longer applies.
+            final FlowFileRecord flowFile = record.getCurrent();
+            final ContentDigest contentDigest = entry.getValue();
+            if (flowFile == null || !contentDigest.describes(flowFile)) {
+                continue;
+            }
+
+            try {
+                contentRepo.registerContent(flowFile.getContentClaim(), flowFile.getContentClaimOffset(), flowFile.getSize(), contentDigest.digest);
+            } catch (final IOException ioe) {
+                LOG.warn("{} Failed to register the content of {} for deduplication", this, flowFile, ioe);
+            }
+        }
+
+        checkpoint.contentDigests.clear();
+    }
+
     /**
      * Checks if the ContentClaim associated with this record should be removed,
      * since the record is about to be updated to point to a new content claim.
@@ -2980,6 +3169,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
 
         long writtenToFlowFile = 0L;
         ContentClaim newClaim = null;
+        final MessageDigest contentDigest = createContentDigest();
         try {
             newClaim = claimCache.getContentClaim();
             claimLog.debug("Creating ContentClaim {} for 'write' for {}", newClaim, source);
@@ -2996,7 +3186,8 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
                 final ByteCountingInputStream countingIn = new ByteCountingInputStream(disableOnCloseIn, bytesRead);
                 final OutputStream os = claimCache.write(newClaim);
                 final OutputStream disableOnCloseOut = new DisableOnCloseOutputStream(os);
-                final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(disableOnCloseOut)) {
+                final OutputStream digestOut = contentDigest == null ? disableOnCloseOut : new DigestOutputStream(disableOnCloseOut, contentDigest);
+                final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(digestOut)) {
 
                 writeRecursionSet.add(source);
 
@@ -3050,7 +3241,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
 
         record.setWorking(newFile, true);
 
-        return newFile;
+        return deduplicateContent(record, newFile, contentDigest);
     }
 
     @Override
@@ -3078,8 +3269,16 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
 
         claimOffset = 0L;
         long newSize = 0L;
+        final MessageDigest contentDigest = createContentDigest();
         try {
-            newSize = context.getContentRepository().importFrom(source, newClaim);
+            if (contentDigest == null) {
+                newSize = context.getContentRepository().importFrom(source, newClaim);
+            } else {
+                // Hash the content as it is copied, rather than hashing the file separately, so that the digest is guaranteed to describe what was imported
+                try (final InputStream in = new DigestInputStream(Files.newInputStream(source), contentDigest)) {
+                    newSize = context.getContentRepository().importFrom(in, newClaim);
+                }
+            }
             bytesWritten += newSize;
             bytesRead += newSize;
         } catch (final Throwable t) {
@@ -3097,12 +3296,13 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             .addAttribute(CoreAttributes.FILENAME.key(), source.toFile().getName())
             .build();
         record.setWorking(newFile, CoreAttributes.FILENAME.key(), source.toFile().getName(), true);
+        final FlowFileRecord importedFile = deduplicateContent(record, newFile, contentDigest);
 
         if (!keepSourceFile) {
-            deleteOnCommit.put(newFile, source);
+            deleteOnCommit.put(importedFile, source);
         }
 
-        return newFile;
+        return importedFile;
     }
 
     @Override
@@ -3113,6 +3313,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         final StandardRepositoryRecord record = getRecord(destination);
         ContentClaim newClaim = null;
         final long claimOffset = 0L;
+        final MessageDigest contentDigest = createContentDigest();
 
         final long newSize;
         try {
@@ -3120,7 +3321,8 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
                 newClaim = context.getContentRepository().create(context.getConnectable().isLossTolerant());
                 claimLog.debug("Creating ContentClaim {} for 'importFrom' for {}", newClaim, destination);
 
-                newSize = context.getContentRepository().importFrom(createTaskTerminationStream(source), newClaim);
+                final InputStream digestIn = contentDigest == null ? source : new DigestInputStream(source, contentDigest);
+                newSize = context.getContentRepository().importFrom(createTaskTerminationStream(digestIn), newClaim);
                 bytesWritten += newSize;
             } catch (final IOException e) {
                 throw new FlowFileAccessException("Unable to create ContentClaim due to " + e.toString(), e);
@@ -3141,7 +3343,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             .size(newSize)
             .build();
         record.setWorking(newFile, true);
-        return newFile;
+        return deduplicateContent(record, newFile, contentDigest);
     }
 
     @Override
@@ -3378,6 +3580,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         private Map<String, Long> immediateCounters = new HashMap<>();
 
         private final Map<FlowFile, Path> deleteOnCommit = new HashMap<>();
+        private final Map<Long, ContentDigest> contentDigests = new HashMap<>();
         private final Set<String> removedFlowFiles = new HashSet<>();
         private final Set<String> createdFlowFiles = new HashSet<>();
 
@@ -3405,6 +3608,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             mergeMaps(this.immediateCounters, session.immediateCounters, Long::sum);
 
             this.deleteOnCommit.putAll(session.deleteOnCommit);
+            this.contentDigests.putAll(session.contentDigests);
             this.removedFlowFiles.addAll(session.removedFlowFiles);
             this.createdFlowFiles.addAll(session.createdFlowFiles);
 
@@ -3457,4 +3661,25 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             return records.get(flowFile.getId());
         }
     }
+
+    private static class ContentDigest {
+        private final ContentClaim contentClaim;
+        private final long contentClaimOffset;
+        private final long size;
+        private final byte[] digest;
+
+        private ContentDigest(final FlowFileRecord flowFile, final byte[] digest) {
+            this.contentClaim = flowFile.getContentClaim();
+            this.contentClaimOffset = flowFile.getContentClaimOffset();
+            this.size = flowFile.getSize();
+            this.digest = digest;
+        }
+
+        /**
+         * @return <code>true</code> if the FlowFile still points to the content that this digest was computed over
+         */
+        private boolean describes(final FlowFileRecord flowFile) {
+            return contentClaim == flowFile.getContentClaim() && contentClaimOffset == flowFile.getContentClaimOffset() && size == flowFile.getSize();
+        }
+    }
 }
@@ -50,6 +50,7 @@ import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.wali.GroupCommitStatistics;
 import org.apache.nifi.wali.SequentialAccessWriteAheadLog;
 import org.apache.nifi.wali.SnapshotCapture;
 import org.slf4j.Logger;
@@ -100,6 +101,10 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     volatile ScheduledFuture<?> checkpointFuture;
 
     final long checkpointDelayMillis;
+    private final long groupCommitWindowNanos;
+    private final int maxIncrementalCheckpoints;
+    private final int recoveryThreads;
+    private final boolean parallelSnapshotEnabled;
     private final List<File> flowFileRepositoryPaths = new ArrayList<>();
     final List<File> recoveryFiles = new ArrayList<>();
     final ScheduledExecutorService checkpointExecutor;
@@ -142,6 +147,10 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     public WriteAheadFlowFileRepository() {
         alwaysSync = false;
         checkpointDelayMillis = 0L;
+        groupCommitWindowNanos = 0L;
+        maxIncrementalCheckpoints = 0;
+        recoveryThreads = 1;
+        parallelSnapshotEnabled = false;
         checkpointExecutor = null;
         walImplementation = null;
         nifiProperties = null;
@@ -178,6 +187,10 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
 
         checkpointDelayMillis = FormatUtils.getTimeDuration(nifiProperties.getFlowFileRepositoryCheckpointInterval(), TimeUnit.MILLISECONDS);
+        groupCommitWindowNanos = FormatUtils.getTimeDuration(nifiProperties.getFlowFileRepositoryGroupCommitWindow(), TimeUnit.NANOSECONDS);
+        maxIncrementalCheckpoints = nifiProperties.getFlowFileRepositoryMaxIncrementalCheckpoints();
+        recoveryThreads = nifiProperties.getFlowFileRepositoryRecoveryThreads();
+        parallelSnapshotEnabled = nifiProperties.isFlowFileRepositoryParallelSnapshotEnabled();
 
         checkpointExecutor = Executors.newSingleThreadScheduledExecutor();
     }
@@ -192,6 +205,18 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         return walImplementation.equals(SEQUENTIAL_ACCESS_WAL) || walImplementation.equals(ENCRYPTED_SEQUENTIAL_ACCESS_WAL);
     }
 
+    /**
+     * @return statistics about how updates to the Write-Ahead Log are synced to disk, or <code>null</code> if the configured
+     *         Write-Ahead Log implementation does not provide them
+     */
+    public GroupCommitStatistics getGroupCommitStatistics() {
+        if (wal instanceof SequentialAccessWriteAheadLog) {
+            return ((SequentialAccessWriteAheadLog<SerializedRepositoryRecord>) wal).getGroupCommitStatistics();
+        }
+
+        return null;
+    }
+
     @Override
     public void initialize(final ResourceClaimManager claimManager) throws IOException {
         initialize(claimManager, new StandardRepositoryRecordSerdeFactory(claimManager));
@@ -213,7 +238,8 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // The specified implementation can be plaintext or encrypted; the only difference is the serde factory
         if (isSequentialAccessWAL(walImplementation)) {
             // TODO: May need to instantiate ESAWAL for clarity?
-            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this);
+            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this, groupCommitWindowNanos, maxIncrementalCheckpoints, recoveryThreads,
+                parallelSnapshotEnabled);
         } else if (walImplementation.equals(MINIMAL_LOCKING_WALI)) {
             final SortedSet<Path> paths = flowFileRepositoryPaths.stream()
                     .map(File::toPath)
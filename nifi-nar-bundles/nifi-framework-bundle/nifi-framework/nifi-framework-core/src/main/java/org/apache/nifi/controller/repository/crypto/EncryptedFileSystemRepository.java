@@ -73,6 +73,30 @@ public class EncryptedFileSystemRepository extends FileSystemRepository {
         setActiveKeyId(niFiProperties.getContentRepositoryEncryptionKeyId());
     }
 
+    /**
+     * Content on disk is encrypted, so it can never be transferred directly between files; it must always
+     * pass through {@link #read(ContentClaim)} and {@link #write(ContentClaim)}. Because this method returns
+     * <code>false</code>, the overloaded method {@link super#importFrom(Path, ContentClaim)} still delegates to
+     * {@link #importFrom(InputStream, ContentClaim)}.
+     *
+     * @return <code>false</code>
+     */
+    @Override
+    protected boolean isChannelTransferSupported() {
+        return false;
+    }
+
+    /**
+     * Each encrypted content claim carries its own encryption metadata and the length on disk differs from the plaintext
+     * length, so content cannot be shared between FlowFiles by digest and deduplication is never enabled for this repository.
+     *
+     * @return <code>false</code>
+     */
+    @Override
+    protected boolean isDeduplicationSupported() {
+        return false;
+    }
+
     /**
      * Returns the number of bytes read after importing content from the provided
      * {@link InputStream} into the {@link ContentClaim}. This method has the same logic as
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.util.LogLinearHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link LogLinearHistogram} of durations for a single period, recorded with microsecond resolution. The exact largest
+ * duration is tracked separately, in nanoseconds, so that the maximum that is reported is not rounded to a bucket.
+ */
+public class LatencyHistogram extends LogLinearHistogram {
+    private final long timestamp;
+    private final AtomicLong maxNanos = new AtomicLong(0L);
+
+    public LatencyHistogram(final long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the timestamp that was given when the histogram was created
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void recordNanos(final long nanos) {
+        final long duration = Math.max(0L, nanos);
+        record(TimeUnit.NANOSECONDS.toMicros(duration));
+
+        long currentMax = maxNanos.get();
+        while (duration > currentMax && !maxNanos.compareAndSet(currentMax, duration)) {
+            currentMax = maxNanos.get();
+        }
+    }
+
+    /**
+     * @return the exact largest duration, in nanoseconds, that was recorded into this histogram
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Determines the duration below which the given percentage of the counted durations fall
+     *
+     * @param counts merged bucket counts, as populated by {@link #addTo(long[])}
+     * @param totalCount the sum of all counts
+     * @param maxNanos the largest duration that was recorded, which caps the value returned
+     * @param percentile the percentile, between 0 and 100
+     * @return the duration at the given percentile, in nanoseconds
+     */
+    static long valueAtPercentile(final long[] counts, final long totalCount, final long maxNanos, final double percentile) {
+        final int bucket = bucketAtPercentile(counts, totalCount, percentile);
+        if (bucket < 0) {
+            return maxNanos;
+        }
+
+        return Math.min(maxNanos, TimeUnit.MICROSECONDS.toNanos(highestEquivalentValue(bucket) + 1) - 1);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.status.LatencyDistribution;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the durations of one kind of operation for one component into a ring of {@link LatencyHistogram}s, one per
+ * minute, so that the distribution can be reported over the same window as the rest of the component's statistics.
+ * Only the minutes that lie entirely within the window are reported, so a report covers the current minute and the
+ * minutes before it, never more than the window itself. A histogram is replaced, rather than cleared, when its minute
+ * comes around again, so recording never blocks.
+ */
+public class LatencyRecorder {
+    private static final long MILLIS_PER_BIN = TimeUnit.MINUTES.toMillis(1L);
+
+    private final AtomicReferenceArray<LatencyHistogram> bins;
+
+    public LatencyRecorder(final int numMinutes) {
+        // the bin that is currently being added to counts as one of the 'numMinutes' minutes
+        bins = new AtomicReferenceArray<>(numMinutes);
+    }
+
+    public void record(final long nanos) {
+        record(nanos, System.currentTimeMillis());
+    }
+
+    protected void record(final long nanos, final long timestamp) {
+        final long minute = timestamp / MILLIS_PER_BIN;
+        final int binIdx = (int) (minute % bins.length());
+
+        while (true) {
+            final LatencyHistogram histogram = bins.get(binIdx);
+            if (histogram != null && histogram.getTimestamp() >= minute) {
+                histogram.recordNanos(nanos);
+                return;
+            }
+
+            final LatencyHistogram replacement = new LatencyHistogram(minute);
+            if (bins.compareAndSet(binIdx, histogram, replacement)) {
+                replacement.recordNanos(nanos);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of counters that are currently allocated, across all of the minutes that are retained
+     */
+    long getAllocatedCounterCount() {
+        long allocated = 0L;
+        for (int i = 0; i < bins.length(); i++) {
+            final LatencyHistogram histogram = bins.get(i);
+            if (histogram != null) {
+                allocated += (long) histogram.getAllocatedStripeCount() * LatencyHistogram.BUCKET_COUNT;
+            }
+        }
+
+        return allocated;
+    }
+
+    /**
+     * Merges the histograms of all minutes that fall within the window ending at the given time
+     *
+     * @param now the current time
+     * @return the distribution of the durations recorded within the window, or <code>null</code> if none were recorded
+     */
+    public LatencyDistribution generateReport(final long now) {
+        final long currentMinute = now / MILLIS_PER_BIN;
+        final long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+        long maxNanos = 0L;
+
+        for (int i = 0; i < bins.length(); i++) {
+            final LatencyHistogram histogram = bins.get(i);
+            if (histogram == null || currentMinute - histogram.getTimestamp() >= bins.length()) {
+                continue;
+            }
+
+            histogram.addTo(counts);
+            maxNanos = Math.max(maxNanos, histogram.getMaxNanos());
+        }
+
+        long totalCount = 0L;
+        for (final long count : counts) {
+            totalCount += count;
+        }
+
+        if (totalCount == 0L) {
+            return null;
+        }
+
+        final LatencyDistribution distribution = new LatencyDistribution();
+        distribution.setCount(totalCount);
+        distribution.setMedianNanos(LatencyHistogram.valueAtPercentile(counts, totalCount, maxNanos, 50D));
+        distribution.setPercentile90Nanos(LatencyHistogram.valueAtPercentile(counts, totalCount, maxNanos, 90D));
+        distribution.setPercentile99Nanos(LatencyHistogram.valueAtPercentile(counts, totalCount, maxNanos, 99D));
+        distribution.setPercentile999Nanos(LatencyHistogram.valueAtPercentile(counts, totalCount, maxNanos, 99.9D));
+        distribution.setMaxNanos(maxNanos);
+        return distribution;
+    }
+}
@@ -18,7 +18,9 @@ package org.apache.nifi.controller.repository.metrics;
 
 import org.apache.nifi.controller.repository.FlowFileEvent;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.LatencyType;
 import org.apache.nifi.controller.repository.StandardRepositoryStatusReport;
+import org.apache.nifi.controller.status.LatencyDistribution;
 
 import java.io.IOException;
 import java.util.concurrent.ConcurrentHashMap;
@@ -27,6 +29,7 @@ import java.util.concurrent.ConcurrentMap;
 public class RingBufferEventRepository implements FlowFileEventRepository {
     private final int numMinutes;
     private final ConcurrentMap<String, EventContainer> componentEventMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyRecorder[]> componentLatencyMap = new ConcurrentHashMap<>();
 
     public RingBufferEventRepository(final int numMinutes) {
         this.numMinutes = numMinutes;
@@ -42,23 +45,57 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
         eventContainer.addEvent(event);
     }
 
+    @Override
+    public void recordLatency(final String componentId, final LatencyType latencyType, final long nanos) {
+        final LatencyRecorder[] recorders = componentLatencyMap.computeIfAbsent(componentId, id -> createLatencyRecorders());
+        recorders[latencyType.ordinal()].record(nanos);
+    }
+
+    private LatencyRecorder[] createLatencyRecorders() {
+        final LatencyRecorder[] recorders = new LatencyRecorder[LatencyType.values().length];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new LatencyRecorder(numMinutes);
+        }
+        return recorders;
+    }
+
     @Override
     public StandardRepositoryStatusReport reportTransferEvents(final long sinceEpochMillis) {
         final StandardRepositoryStatusReport report = new StandardRepositoryStatusReport();
 
-        componentEventMap.forEach((componentId, container) -> report.addReportEntry(container.generateReport(sinceEpochMillis), componentId));
+        componentEventMap.forEach((componentId, container) -> report.addReportEntry(generateReport(componentId, container, sinceEpochMillis), componentId));
         return report;
     }
 
     @Override
     public FlowFileEvent reportTransferEvents(final String componentId, final long now) {
         final EventContainer container = componentEventMap.get(componentId);
-        return container == null ? null : container.generateReport(now);
+        return container == null ? null : generateReport(componentId, container, now);
+    }
+
+    private FlowFileEvent generateReport(final String componentId, final EventContainer container, final long now) {
+        final FlowFileEvent event = container.generateReport(now);
+
+        final LatencyRecorder[] recorders = componentLatencyMap.get(componentId);
+        if (recorders == null || !(event instanceof StandardFlowFileEvent)) {
+            return event;
+        }
+
+        final StandardFlowFileEvent standardEvent = (StandardFlowFileEvent) event;
+        for (final LatencyType latencyType : LatencyType.values()) {
+            final LatencyDistribution distribution = recorders[latencyType.ordinal()].generateReport(now);
+            if (distribution != null) {
+                standardEvent.setLatencyDistribution(latencyType, distribution);
+            }
+        }
+
+        return standardEvent;
     }
 
     @Override
     public void purgeTransferEvents(String componentIdentifier) {
         componentEventMap.remove(componentIdentifier);
+        componentLatencyMap.remove(componentIdentifier);
     }
 
 }
@@ -17,7 +17,10 @@
 package org.apache.nifi.controller.repository.metrics;
 
 import org.apache.nifi.controller.repository.FlowFileEvent;
+import org.apache.nifi.controller.repository.LatencyType;
+import org.apache.nifi.controller.status.LatencyDistribution;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -39,6 +42,7 @@ public final class StandardFlowFileEvent implements FlowFileEvent, Cloneable {
     private long bytesSent;
     private int invocations;
     private Map<String, Long> counters;
+    private Map<LatencyType, LatencyDistribution> latencyDistributions;
 
     public StandardFlowFileEvent() {
     }
@@ -196,6 +200,19 @@ public final class StandardFlowFileEvent implements FlowFileEvent, Cloneable {
         this.counters = counters;
     }
 
+    @Override
+    public LatencyDistribution getLatencyDistribution(final LatencyType latencyType) {
+        return latencyDistributions == null ? null : latencyDistributions.get(latencyType);
+    }
+
+    public void setLatencyDistribution(final LatencyType latencyType, final LatencyDistribution distribution) {
+        if (latencyDistributions == null) {
+            latencyDistributions = new EnumMap<>(LatencyType.class);
+        }
+
+        latencyDistributions.put(latencyType, distribution);
+    }
+
     public void add(final FlowFileEvent event) {
         flowFilesIn += event.getFlowFilesIn();
         flowFilesOut += event.getFlowFilesOut();
@@ -27,6 +27,7 @@ import org.apache.nifi.controller.ReportingTaskNode;
 import org.apache.nifi.controller.lifecycle.TaskTerminationAwareStateManager;
 import org.apache.nifi.controller.repository.ActiveProcessSessionFactory;
 import org.apache.nifi.controller.repository.BatchingSessionFactory;
+import org.apache.nifi.controller.repository.LatencyType;
 import org.apache.nifi.controller.repository.RepositoryContext;
 import org.apache.nifi.controller.repository.StandardProcessSession;
 import org.apache.nifi.controller.repository.StandardProcessSessionFactory;
@@ -351,7 +352,12 @@ public class EventDrivenSchedulingAgent extends AbstractSchedulingAgent {
 
             try {
                 try (final AutoCloseable ncl = NarCloseable.withComponentNarLoader(extensionManager, worker.getProcessor().getClass(), worker.getIdentifier())) {
-                    worker.onTrigger(processContext, sessionFactory);
+                    final long triggerStartNanos = System.nanoTime();
+                    try {
+                        worker.onTrigger(processContext, sessionFactory);
+                    } finally {
+                        context.getFlowFileEventRepository().recordLatency(worker.getIdentifier(), LatencyType.ON_TRIGGER, System.nanoTime() - triggerStartNanos);
+                    }
                 } catch (final ProcessException pe) {
                     final ComponentLog procLog = new SimpleProcessLogger(worker.getIdentifier(), worker.getProcessor());
                     procLog.error("Failed to process session due to {}", new Object[]{pe});
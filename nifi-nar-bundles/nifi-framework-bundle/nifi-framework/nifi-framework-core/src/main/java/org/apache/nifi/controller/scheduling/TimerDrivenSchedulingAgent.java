@@ -24,6 +24,7 @@ import org.apache.nifi.controller.tasks.InvocationResult;
 import org.apache.nifi.controller.tasks.ReportingTaskWrapper;
 import org.apache.nifi.encrypt.StringEncryptor;
 import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.util.Connectables;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
@@ -31,14 +32,26 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 public class TimerDrivenSchedulingAgent extends AbstractSchedulingAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(TimerDrivenSchedulingAgent.class);
     private final long noWorkYieldNanos;
+    private final boolean demandDriven;
+
+    // Triggers that found no work to do and are waiting for data to be queued for their component. Only populated when demand-driven scheduling is enabled.
+    private final ConcurrentMap<Connectable, Queue<ParkedTrigger>> parkedTriggers = new ConcurrentHashMap<>();
+    private final LongAdder productiveTriggerCount = new LongAdder();
+    private final LongAdder wastedTriggerCount = new LongAdder();
+    private final LongAdder demandWakeupCount = new LongAdder();
 
     private final FlowController flowController;
     private final RepositoryContextFactory contextFactory;
@@ -59,6 +72,47 @@ public class TimerDrivenSchedulingAgent extends AbstractSchedulingAgent {
         } catch (final IllegalArgumentException e) {
             throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.BORED_YIELD_DURATION + " property is set to an invalid time duration: " + boredYieldDuration);
         }
+
+        demandDriven = nifiProperties.isDemandDrivenSchedulingEnabled();
+        if (demandDriven) {
+            logger.info("Demand-driven scheduling is enabled; components waiting on input will be triggered when data is queued for them");
+        }
+    }
+
+    public boolean isDemandDriven() {
+        return demandDriven;
+    }
+
+    /**
+     * @return the number of times that a component was triggered and had work to perform
+     */
+    public long getProductiveTriggerCount() {
+        return productiveTriggerCount.sum();
+    }
+
+    /**
+     * @return the number of times that a component was triggered but yielded because there was no work to do or backpressure was applied
+     */
+    public long getWastedTriggerCount() {
+        return wastedTriggerCount.sum();
+    }
+
+    /**
+     * @return the number of times that a parked trigger was woken because data was queued for its component
+     */
+    public long getDemandWakeupCount() {
+        return demandWakeupCount.sum();
+    }
+
+    /**
+     * @return the number of triggers that are currently parked, waiting for data to be queued for their component
+     */
+    public int getParkedTriggerCount() {
+        int count = 0;
+        for (final Queue<ParkedTrigger> parked : parkedTriggers.values()) {
+            count += parked.size();
+        }
+        return count;
     }
 
     @Override
@@ -116,7 +170,10 @@ public class TimerDrivenSchedulingAgent extends AbstractSchedulingAgent {
                 // based on a lack of work for to do for the component.
                 final InvocationResult invocationResult = connectableTask.invoke();
                 if (invocationResult.isYield()) {
+                    wastedTriggerCount.increment();
                     logger.debug("Yielding {} due to {}", connectable, invocationResult.getYieldExplanation());
+                } else {
+                    productiveTriggerCount.increment();
                 }
 
                 // If the component is yielded, cancel its future and re-submit it to run again
@@ -147,6 +204,10 @@ public class TimerDrivenSchedulingAgent extends AbstractSchedulingAgent {
                             }
                         }
                     }
+                } else if (invocationResult == InvocationResult.NO_WORK && isParkable(connectable)) {
+                    // The component is waiting on input. Rather than polling for work after the bored yield duration,
+                    // stop scheduling this trigger until data is queued for the component.
+                    park(connectable, scheduleState, this, futureRef);
                 } else if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
                     // Component itself didn't yield but there was no work to do, so the framework will choose
                     // to yield the component automatically for a short period of time.
@@ -176,8 +237,44 @@ public class TimerDrivenSchedulingAgent extends AbstractSchedulingAgent {
         return yieldDetectionRunnable;
     }
 
+    private boolean isParkable(final Connectable connectable) {
+        // Source components must continue to run on their own timer, as no incoming data will ever wake them.
+        return demandDriven
+            && !connectable.isTriggerWhenEmpty()
+            && connectable.hasIncomingConnection()
+            && Connectables.hasNonLoopConnection(connectable);
+    }
+
+    private void park(final Connectable connectable, final LifecycleState scheduleState, final Runnable trigger, final AtomicReference<ScheduledFuture<?>> futureRef) {
+        final ScheduledFuture<?> scheduledFuture = futureRef.get();
+        if (scheduledFuture == null || !scheduledFuture.cancel(false)) {
+            return;
+        }
+
+        final ParkedTrigger parkedTrigger = new ParkedTrigger(connectable, scheduleState, trigger, futureRef, scheduledFuture);
+        synchronized (scheduleState) {
+            if (!scheduleState.isScheduled()) {
+                return;
+            }
+
+            parkedTriggers.computeIfAbsent(connectable, key -> new ConcurrentLinkedQueue<>()).add(parkedTrigger);
+        }
+
+        // Data may have been queued after the component determined that it had no work but before the trigger was parked,
+        // in which case the event has already been missed. If so, fall back to the bored yield so that the data is not stranded.
+        // This also covers data that is queued but not yet available, such as penalized FlowFiles, for which no event will fire.
+        if (Connectables.flowFilesQueued(connectable)) {
+            final Queue<ParkedTrigger> parked = parkedTriggers.get(connectable);
+            if (parked != null && parked.remove(parkedTrigger)) {
+                parkedTrigger.resume(noWorkYieldNanos);
+            }
+        }
+    }
+
     @Override
     public void doUnschedule(final Connectable connectable, final LifecycleState scheduleState) {
+        parkedTriggers.remove(connectable);
+
         for (final ScheduledFuture<?> future : scheduleState.getFutures()) {
             // stop scheduling to run but do not interrupt currently running tasks.
             future.cancel(false);
@@ -213,6 +310,20 @@ public class TimerDrivenSchedulingAgent extends AbstractSchedulingAgent {
 
     @Override
     public void onEvent(final Connectable connectable) {
+        if (!demandDriven) {
+            return;
+        }
+
+        final Queue<ParkedTrigger> parked = parkedTriggers.get(connectable);
+        if (parked == null) {
+            return;
+        }
+
+        ParkedTrigger parkedTrigger;
+        while ((parkedTrigger = parked.poll()) != null) {
+            demandWakeupCount.increment();
+            parkedTrigger.resume(0L);
+        }
     }
 
     @Override
@@ -228,4 +339,37 @@ public class TimerDrivenSchedulingAgent extends AbstractSchedulingAgent {
 
         flowEngine.setCorePoolSize(corePoolSize + toAdd);
     }
+
+    /**
+     * A trigger whose future has been cancelled because its component had no work to do, and which will be
+     * re-submitted to the Flow Engine once data is queued for the component.
+     */
+    private class ParkedTrigger {
+        private final Connectable connectable;
+        private final LifecycleState scheduleState;
+        private final Runnable trigger;
+        private final AtomicReference<ScheduledFuture<?>> futureRef;
+        private final ScheduledFuture<?> cancelledFuture;
+
+        ParkedTrigger(final Connectable connectable, final LifecycleState scheduleState, final Runnable trigger, final AtomicReference<ScheduledFuture<?>> futureRef,
+                      final ScheduledFuture<?> cancelledFuture) {
+            this.connectable = connectable;
+            this.scheduleState = scheduleState;
+            this.trigger = trigger;
+            this.futureRef = futureRef;
+            this.cancelledFuture = cancelledFuture;
+        }
+
+        void resume(final long delayNanos) {
+            synchronized (scheduleState) {
+                if (scheduleState.isScheduled()) {
+                    final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(trigger, delayNanos,
+                        connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+                    scheduleState.replaceFuture(cancelledFuture, newFuture);
+                    futureRef.set(newFuture);
+                }
+            }
+        }
+    }
 }
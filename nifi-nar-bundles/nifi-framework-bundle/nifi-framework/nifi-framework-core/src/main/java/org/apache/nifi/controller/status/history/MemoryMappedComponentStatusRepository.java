@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
+import org.apache.nifi.controller.status.history.StatusSeries.RollupStrategy;
+import org.apache.nifi.controller.status.history.StatusSeries.StatusSample;
+import org.apache.nifi.util.ComponentMetrics;
+import org.apache.nifi.util.FormatUtils;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * A {@link ComponentStatusRepository} that persists status history to memory-mapped files, so that history survives restarts
+ * and does not occupy the heap. Each kind of component is stored as a separate {@link StatusSeries}, in which every component
+ * is given a fixed-width row within each time partition. Captures are stored at minute resolution and are rolled up into hourly
+ * and then daily samples as each hour and day ends, with each resolution retained for a configurable period. Because
+ * the layout is fixed, a query reads only the rows of the requested component and nothing needs to be loaded on startup
+ * beyond the list of known components.
+ * </p>
+ *
+ * <p>
+ * Captures that occur more frequently than once per minute overwrite one another, so that only the last capture of each
+ * minute is retained. Processor counters are not retained by this repository. When a query would return more samples than
+ * the preferred number of data points, the requested range is divided into that many equal periods and the samples of each
+ * period are combined in the same way as they are rolled up, so the whole range is still represented.
+ * </p>
+ */
+public class MemoryMappedComponentStatusRepository implements ComponentStatusRepository, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryMappedComponentStatusRepository.class);
+
+    private static final List<MetricDescriptor<?>> PROCESSOR_METRICS = Arrays.stream(ProcessorStatusDescriptor.values())
+        .map(ProcessorStatusDescriptor::getDescriptor)
+        .collect(Collectors.toList());
+    private static final List<MetricDescriptor<?>> CONNECTION_METRICS = Arrays.stream(ConnectionStatusDescriptor.values())
+        .map(ConnectionStatusDescriptor::getDescriptor)
+        .collect(Collectors.toList());
+    private static final List<MetricDescriptor<?>> GROUP_METRICS = Arrays.stream(ProcessGroupStatusDescriptor.values())
+        .map(ProcessGroupStatusDescriptor::getDescriptor)
+        .collect(Collectors.toList());
+    private static final List<MetricDescriptor<?>> RPG_METRICS = Arrays.stream(RemoteProcessGroupStatusDescriptor.values())
+        .map(RemoteProcessGroupStatusDescriptor::getDescriptor)
+        .collect(Collectors.toList());
+
+    private static final int GC_COLLECTION_COUNT = 0;
+    private static final int GC_COLLECTION_MILLIS = 1;
+
+    private final StatusSeries processorSeries;
+    private final StatusSeries connectionSeries;
+    private final StatusSeries groupSeries;
+    private final StatusSeries rpgSeries;
+    private final StatusSeries gcSeries;
+    private final List<StatusSeries> allSeries;
+    private final Map<StatusResolution, Long> retentionMillis = new EnumMap<>(StatusResolution.class);
+    private volatile long lastCaptureTime = 0L;
+
+    /**
+     * Default no args constructor for service loading only
+     */
+    public MemoryMappedComponentStatusRepository() {
+        processorSeries = null;
+        connectionSeries = null;
+        groupSeries = null;
+        rpgSeries = null;
+        gcSeries = null;
+        allSeries = null;
+    }
+
+    public MemoryMappedComponentStatusRepository(final NiFiProperties nifiProperties) throws IOException {
+        final File directory = new File(nifiProperties.getProperty(NiFiProperties.COMPONENT_STATUS_REPOSITORY_DIRECTORY,
+            NiFiProperties.DEFAULT_COMPONENT_STATUS_REPOSITORY_DIRECTORY));
+
+        retentionMillis.put(StatusResolution.MINUTE, getRetentionMillis(nifiProperties, NiFiProperties.COMPONENT_STATUS_REPOSITORY_MINUTE_RETENTION,
+            NiFiProperties.DEFAULT_COMPONENT_STATUS_REPOSITORY_MINUTE_RETENTION));
+        retentionMillis.put(StatusResolution.HOUR, getRetentionMillis(nifiProperties, NiFiProperties.COMPONENT_STATUS_REPOSITORY_HOUR_RETENTION,
+            NiFiProperties.DEFAULT_COMPONENT_STATUS_REPOSITORY_HOUR_RETENTION));
+        retentionMillis.put(StatusResolution.DAY, getRetentionMillis(nifiProperties, NiFiProperties.COMPONENT_STATUS_REPOSITORY_DAY_RETENTION,
+            NiFiProperties.DEFAULT_COMPONENT_STATUS_REPOSITORY_DAY_RETENTION));
+
+        processorSeries = new StatusSeries(new File(directory, "processors"), "Processor", PROCESSOR_METRICS.size(), RollupStrategy.MEAN);
+        connectionSeries = new StatusSeries(new File(directory, "connections"), "Connection", CONNECTION_METRICS.size(), RollupStrategy.MEAN);
+        groupSeries = new StatusSeries(new File(directory, "process-groups"), "Process Group", GROUP_METRICS.size(), RollupStrategy.MEAN);
+        rpgSeries = new StatusSeries(new File(directory, "remote-process-groups"), "Remote Process Group", RPG_METRICS.size(), RollupStrategy.MEAN);
+        gcSeries = new StatusSeries(new File(directory, "garbage-collection"), "Garbage Collection", 2, RollupStrategy.MAX);
+        allSeries = Arrays.asList(processorSeries, connectionSeries, groupSeries, rpgSeries, gcSeries);
+
+        for (final StatusSeries series : allSeries) {
+            lastCaptureTime = Math.max(lastCaptureTime, series.getLatestCaptureTime());
+        }
+
+        logger.info("Loaded Component Status History from {}; last capture was at {}", directory, lastCaptureTime == 0L ? "<never>" : new Date(lastCaptureTime));
+    }
+
+    private static long getRetentionMillis(final NiFiProperties nifiProperties, final String propertyName, final String defaultValue) {
+        final String retention = nifiProperties.getProperty(propertyName, defaultValue);
+        try {
+            return FormatUtils.getTimeDuration(retention.trim(), TimeUnit.MILLISECONDS);
+        } catch (final Exception e) {
+            throw new RuntimeException("Cannot create Component Status Repository because the " + propertyName + " property is set to an invalid time duration: " + retention);
+        }
+    }
+
+    @Override
+    public void capture(final ProcessGroupStatus rootGroupStatus, final List<GarbageCollectionStatus> gcStatus) {
+        capture(rootGroupStatus, gcStatus, new Date());
+    }
+
+    @Override
+    public synchronized void capture(final ProcessGroupStatus rootGroupStatus, final List<GarbageCollectionStatus> gcStatus, final Date timestamp) {
+        final long captureTime = timestamp.getTime();
+
+        try {
+            for (final StatusSeries series : allSeries) {
+                series.markCapture(captureTime);
+            }
+
+            capture(rootGroupStatus, timestamp);
+
+            if (gcStatus != null) {
+                for (final GarbageCollectionStatus status : gcStatus) {
+                    final long[] values = new long[gcSeries.getMetricCount()];
+                    values[GC_COLLECTION_COUNT] = status.getCollectionCount();
+                    values[GC_COLLECTION_MILLIS] = status.getCollectionMillis();
+
+                    final String managerName = status.getMemoryManagerName();
+                    gcSeries.record(new ComponentDetails(managerName, null, managerName, null, null, null, null), captureTime, values);
+                }
+            }
+
+            rollup(lastCaptureTime, captureTime);
+            purgeExpired(captureTime);
+        } catch (final IOException e) {
+            throw new RuntimeException("Failed to capture Component Status History", e);
+        }
+
+        logger.debug("Captured metrics for {}", this);
+        lastCaptureTime = Math.max(lastCaptureTime, captureTime);
+    }
+
+    private void capture(final ProcessGroupStatus groupStatus, final Date timestamp) throws IOException {
+        record(groupSeries, GROUP_METRICS, ComponentDetails.forProcessGroup(groupStatus), ComponentMetrics.createSnapshot(groupStatus, timestamp), timestamp);
+
+        for (final ProcessorStatus processorStatus : groupStatus.getProcessorStatus()) {
+            record(processorSeries, PROCESSOR_METRICS, ComponentDetails.forProcessor(processorStatus), ComponentMetrics.createSnapshot(processorStatus, timestamp), timestamp);
+        }
+
+        for (final ConnectionStatus connectionStatus : groupStatus.getConnectionStatus()) {
+            record(connectionSeries, CONNECTION_METRICS, ComponentDetails.forConnection(connectionStatus), ComponentMetrics.createSnapshot(connectionStatus, timestamp), timestamp);
+        }
+
+        for (final RemoteProcessGroupStatus rpgStatus : groupStatus.getRemoteProcessGroupStatus()) {
+            record(rpgSeries, RPG_METRICS, ComponentDetails.forRemoteProcessGroup(rpgStatus), ComponentMetrics.createSnapshot(rpgStatus, timestamp), timestamp);
+        }
+
+        for (final ProcessGroupStatus childStatus : groupStatus.getProcessGroupStatus()) {
+            capture(childStatus, timestamp);
+        }
+    }
+
+    private void record(final StatusSeries series, final List<MetricDescriptor<?>> metrics, final ComponentDetails details, final StatusSnapshot snapshot,
+                        final Date timestamp) throws IOException {
+        if (snapshot == null) {
+            return;
+        }
+
+        final long[] values = new long[metrics.size()];
+        for (int i = 0; i < values.length; i++) {
+            final Long value = snapshot.getStatusMetric(metrics.get(i));
+            values[i] = value == null ? 0L : value;
+        }
+
+        series.record(details, timestamp.getTime(), values);
+    }
+
+    private void rollup(final long previousCaptureTime, final long captureTime) throws IOException {
+        if (previousCaptureTime == 0L) {
+            return;
+        }
+
+        // Each time a capture moves into a new period of a coarser resolution, roll the period that the previous capture belonged to
+        // up into it. Finer resolutions are rolled up first so that, for example, the last hour of a day is included in the day's sample.
+        for (final StatusResolution resolution : StatusResolution.values()) {
+            final StatusResolution coarser = resolution.getCoarser();
+            if (coarser == null) {
+                continue;
+            }
+
+            if (coarser.getSlotStart(captureTime) > coarser.getSlotStart(previousCaptureTime)) {
+                for (final StatusSeries series : allSeries) {
+                    series.rollup(resolution, previousCaptureTime);
+                }
+            }
+        }
+    }
+
+    private void purgeExpired(final long captureTime) throws IOException {
+        for (final StatusSeries series : allSeries) {
+            boolean purged = false;
+            for (final Map.Entry<StatusResolution, Long> entry : retentionMillis.entrySet()) {
+                purged |= series.purge(entry.getKey(), captureTime - entry.getValue());
+            }
+
+            // Components only stop having samples when partitions expire, so there is no need to look for them otherwise
+            if (purged) {
+                series.purgeRegistrations();
+            }
+        }
+    }
+
+    @Override
+    public Date getLastCaptureDate() {
+        return new Date(lastCaptureTime);
+    }
+
+    @Override
+    public StatusHistory getProcessorStatusHistory(final String processorId, final Date start, final Date end, final int preferredDataPoints, final boolean includeCounters) {
+        return getStatusHistory(processorSeries, PROCESSOR_METRICS, processorId, start, end, preferredDataPoints);
+    }
+
+    @Override
+    public StatusHistory getConnectionStatusHistory(final String connectionId, final Date start, final Date end, final int preferredDataPoints) {
+        return getStatusHistory(connectionSeries, CONNECTION_METRICS, connectionId, start, end, preferredDataPoints);
+    }
+
+    @Override
+    public StatusHistory getProcessGroupStatusHistory(final String processGroupId, final Date start, final Date end, final int preferredDataPoints) {
+        return getStatusHistory(groupSeries, GROUP_METRICS, processGroupId, start, end, preferredDataPoints);
+    }
+
+    @Override
+    public StatusHistory getRemoteProcessGroupStatusHistory(final String remoteGroupId, final Date start, final Date end, final int preferredDataPoints) {
+        return getStatusHistory(rpgSeries, RPG_METRICS, remoteGroupId, start, end, preferredDataPoints);
+    }
+
+    private synchronized StatusHistory getStatusHistory(final StatusSeries series, final List<MetricDescriptor<?>> metrics, final String componentId,
+                                                        final Date start, final Date end, final int preferredDataPoints) {
+        final Date dateGenerated = new Date();
+        final ComponentDetails details = series.getComponentDetails(componentId);
+        if (details == null) {
+            return new StandardStatusHistory(Collections.emptyList(), Collections.emptyMap(), dateGenerated);
+        }
+
+        final List<StatusSample> samples = getSamples(series, componentId, start, end, preferredDataPoints);
+        final Set<MetricDescriptor<?>> metricSet = new LinkedHashSet<>(metrics);
+        final List<StatusSnapshot> snapshots = new ArrayList<>(samples.size());
+        for (final StatusSample sample : samples) {
+            final Date timestamp = new Date(sample.getTimestamp());
+            final long[] values = sample.getValues();
+            if (values == null) {
+                snapshots.add(new EmptyStatusSnapshot(timestamp, metricSet));
+                continue;
+            }
+
+            final StandardStatusSnapshot snapshot = new StandardStatusSnapshot(metricSet);
+            snapshot.setTimestamp(timestamp);
+            for (int i = 0; i < values.length; i++) {
+                snapshot.addStatusMetric(metrics.get(i), values[i]);
+            }
+            snapshots.add(snapshot);
+        }
+
+        return new StandardStatusHistory(snapshots, details.toMap(), dateGenerated);
+    }
+
+    private List<StatusSample> getSamples(final StatusSeries series, final String componentId, final Date start, final Date end, final int preferredDataPoints) {
+        final long startTime = start == null ? 0L : start.getTime();
+        final long endTime = end == null ? System.currentTimeMillis() : end.getTime();
+
+        final List<StatusSample> samples;
+        try {
+            samples = series.getSamples(componentId, startTime, endTime);
+        } catch (final IOException e) {
+            throw new RuntimeException("Failed to read " + series.getName() + " Status History for component " + componentId, e);
+        }
+
+        return series.downsample(samples, preferredDataPoints);
+    }
+
+    @Override
+    public synchronized GarbageCollectionHistory getGarbageCollectionHistory(final Date start, final Date end) {
+        final StandardGarbageCollectionHistory history = new StandardGarbageCollectionHistory();
+
+        for (final String managerName : gcSeries.getComponentIds()) {
+            for (final StatusSample sample : getSamples(gcSeries, managerName, start, end, Integer.MAX_VALUE)) {
+                final long[] values = sample.getValues();
+                if (values != null) {
+                    history.addGarbageCollectionStatus(new StandardGarbageCollectionStatus(managerName, new Date(sample.getTimestamp()),
+                        values[GC_COLLECTION_COUNT], values[GC_COLLECTION_MILLIS]));
+                }
+            }
+        }
+
+        return history;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (allSeries == null) {
+            return;
+        }
+
+        for (final StatusSeries series : allSeries) {
+            series.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryMappedComponentStatusRepository[series=" + allSeries + "]";
+    }
+}
@@ -164,7 +164,63 @@ public enum ProcessorStatusDescriptor {
             }
         },
         true
-    );
+    ),
+
+    ON_TRIGGER_LATENCY_MEDIAN(
+        "onTriggerLatencyMedian",
+        "Median onTrigger Duration (5 mins)",
+        "The median amount of time that a single invocation of this Processor's onTrigger method took, over the past 5 minutes",
+        Formatter.DURATION,
+        s -> s.getOnTriggerLatency() == null ? 0L : TimeUnit.NANOSECONDS.toMillis(s.getOnTriggerLatency().getMedianNanos()),
+        new MaxValueReducer() {
+            @Override
+            protected MetricDescriptor<ProcessorStatus> getMetricDescriptor() {
+                return ON_TRIGGER_LATENCY_MEDIAN.getDescriptor();
+            }
+        },
+        true),
+
+    ON_TRIGGER_LATENCY_99TH_PERCENTILE(
+        "onTriggerLatency99thPercentile",
+        "99th Percentile onTrigger Duration (5 mins)",
+        "The amount of time within which 99% of the invocations of this Processor's onTrigger method completed, over the past 5 minutes",
+        Formatter.DURATION,
+        s -> s.getOnTriggerLatency() == null ? 0L : TimeUnit.NANOSECONDS.toMillis(s.getOnTriggerLatency().getPercentile99Nanos()),
+        new MaxValueReducer() {
+            @Override
+            protected MetricDescriptor<ProcessorStatus> getMetricDescriptor() {
+                return ON_TRIGGER_LATENCY_99TH_PERCENTILE.getDescriptor();
+            }
+        },
+        true),
+
+    ON_TRIGGER_LATENCY_MAX(
+        "onTriggerLatencyMax",
+        "Max onTrigger Duration (5 mins)",
+        "The longest amount of time that a single invocation of this Processor's onTrigger method took, over the past 5 minutes",
+        Formatter.DURATION,
+        s -> s.getOnTriggerLatency() == null ? 0L : TimeUnit.NANOSECONDS.toMillis(s.getOnTriggerLatency().getMaxNanos()),
+        new MaxValueReducer() {
+            @Override
+            protected MetricDescriptor<ProcessorStatus> getMetricDescriptor() {
+                return ON_TRIGGER_LATENCY_MAX.getDescriptor();
+            }
+        },
+        true),
+
+    SESSION_COMMIT_LATENCY_99TH_PERCENTILE(
+        "sessionCommitLatency99thPercentile",
+        "99th Percentile Session Commit Duration (5 mins)",
+        "The amount of time within which 99% of the session commits performed by this Processor completed, over the past 5 minutes",
+        Formatter.DURATION,
+        s -> s.getSessionCommitLatency() == null ? 0L : TimeUnit.NANOSECONDS.toMillis(s.getSessionCommitLatency().getPercentile99Nanos()),
+        new MaxValueReducer() {
+            @Override
+            protected MetricDescriptor<ProcessorStatus> getMetricDescriptor() {
+                return SESSION_COMMIT_LATENCY_99TH_PERCENTILE.getDescriptor();
+            }
+        },
+        true);
 
 
 
@@ -205,4 +261,26 @@ public enum ProcessorStatusDescriptor {
     public boolean isVisible() {
         return visible;
     }
+
+    /**
+     * Reduces a metric to its largest value. Percentiles cannot be combined exactly once they have been computed, so
+     * the largest is used because it never understates the latency that was observed.
+     */
+    private abstract static class MaxValueReducer implements ValueReducer<StatusSnapshot, Long> {
+
+        protected abstract MetricDescriptor<ProcessorStatus> getMetricDescriptor();
+
+        @Override
+        public Long reduce(final List<StatusSnapshot> values) {
+            long max = 0L;
+            for (final StatusSnapshot snapshot : values) {
+                final Long value = snapshot.getStatusMetric(getMetricDescriptor());
+                if (value != null) {
+                    max = Math.max(max, value);
+                }
+            }
+
+            return max;
+        }
+    }
 }
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * A single time partition of a status series, backed by a memory-mapped file. The file begins with a header that
+ * records the partition's start time, slot width, number of metrics per sample and the time at which each slot
+ * was captured. The header is followed by one fixed-width row per component: a bitmap of the slots for which the
+ * component has a sample, followed by <code>slotCount</code> groups of <code>metricCount</code> long values. The value of
+ * any metric for any component at any slot is therefore at a computable offset, and reading a component's history
+ * touches only the pages that hold its row.
+ * </p>
+ *
+ * <p>
+ * Rows are mapped in blocks as they are first written, so a partition grows with the number of components rather than
+ * being allocated up front. This class is not thread-safe; callers are expected to provide synchronization.
+ * </p>
+ */
+class StatusPartition implements Closeable {
+    private static final int MAGIC = 0x4E465348;
+    private static final int VERSION = 1;
+    private static final int FIXED_HEADER_LENGTH = 32;
+    private static final int ROWS_PER_BLOCK = 256;
+    static final int MAX_SLOTS = Long.SIZE;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final long partitionStart;
+    private final long slotMillis;
+    private final int slotCount;
+    private final int metricCount;
+    private final int headerLength;
+    private final int rowLength;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> blocks = new ArrayList<>();
+
+    private StatusPartition(final File file, final RandomAccessFile raf, final long partitionStart, final long slotMillis, final int slotCount, final int metricCount) throws IOException {
+        this.file = file;
+        this.raf = raf;
+        this.channel = raf.getChannel();
+        this.partitionStart = partitionStart;
+        this.slotMillis = slotMillis;
+        this.slotCount = slotCount;
+        this.metricCount = metricCount;
+        this.headerLength = FIXED_HEADER_LENGTH + slotCount * 8;
+        this.rowLength = 8 + slotCount * metricCount * 8;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerLength);
+    }
+
+    /**
+     * Creates a new, empty partition file
+     */
+    public static StatusPartition create(final File file, final long partitionStart, final long slotMillis, final int slotCount, final int metricCount) throws IOException {
+        if (slotCount > MAX_SLOTS) {
+            throw new IllegalArgumentException("Cannot create a Status Partition with " + slotCount + " slots; the maximum is " + MAX_SLOTS);
+        }
+
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final StatusPartition partition = new StatusPartition(file, raf, partitionStart, slotMillis, slotCount, metricCount);
+            partition.header.putInt(0, MAGIC);
+            partition.header.putInt(4, VERSION);
+            partition.header.putInt(8, slotCount);
+            partition.header.putInt(12, metricCount);
+            partition.header.putLong(16, partitionStart);
+            partition.header.putLong(24, slotMillis);
+            return partition;
+        } catch (final Exception e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing partition file, using the layout recorded in its header
+     */
+    public static StatusPartition open(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            if (raf.length() < FIXED_HEADER_LENGTH) {
+                throw new IOException("Status Partition " + file + " is truncated");
+            }
+
+            final int magic = raf.readInt();
+            final int version = raf.readInt();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException("Status Partition " + file + " is not a supported Status Partition file (magic=" + magic + ", version=" + version + ")");
+            }
+
+            final int slotCount = raf.readInt();
+            final int metricCount = raf.readInt();
+            final long partitionStart = raf.readLong();
+            final long slotMillis = raf.readLong();
+            if (slotCount < 1 || slotCount > MAX_SLOTS || metricCount < 0) {
+                throw new IOException("Status Partition " + file + " has an invalid header (slots=" + slotCount + ", metrics=" + metricCount + ")");
+            }
+
+            return new StatusPartition(file, raf, partitionStart, slotMillis, slotCount, metricCount);
+        } catch (final Exception e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getPartitionStart() {
+        return partitionStart;
+    }
+
+    public long getPartitionEnd() {
+        return partitionStart + slotMillis * slotCount;
+    }
+
+    public long getSlotMillis() {
+        return slotMillis;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getMetricCount() {
+        return metricCount;
+    }
+
+    /**
+     * @return the index of the slot that the given timestamp falls into, or -1 if the timestamp is outside of this partition
+     */
+    public int getSlot(final long timestamp) {
+        if (timestamp < partitionStart || timestamp >= getPartitionEnd()) {
+            return -1;
+        }
+
+        return (int) ((timestamp - partitionStart) / slotMillis);
+    }
+
+    /**
+     * @return the time at which the given slot was captured, or 0 if nothing has been captured for the slot
+     */
+    public long getCaptureTime(final int slot) {
+        return header.getLong(FIXED_HEADER_LENGTH + slot * 8);
+    }
+
+    public void setCaptureTime(final int slot, final long timestamp) {
+        header.putLong(FIXED_HEADER_LENGTH + slot * 8, timestamp);
+    }
+
+    /**
+     * @return the earliest capture time recorded in this partition, or 0 if nothing has been captured
+     */
+    public long getEarliestCaptureTime() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            final long captureTime = getCaptureTime(slot);
+            if (captureTime > 0) {
+                return captureTime;
+            }
+        }
+
+        return 0L;
+    }
+
+    /**
+     * @return the latest capture time recorded in this partition, or 0 if nothing has been captured
+     */
+    public long getLatestCaptureTime() {
+        long latest = 0L;
+        for (int slot = 0; slot < slotCount; slot++) {
+            latest = Math.max(latest, getCaptureTime(slot));
+        }
+
+        return latest;
+    }
+
+    /**
+     * Writes the given values for the component in the given row at the given slot. If more values are given than
+     * this partition holds per sample, the additional values are ignored; if fewer, the remaining values are zeroed.
+     */
+    public void write(final int row, final int slot, final long[] values) throws IOException {
+        final MappedByteBuffer block = getBlock(row, true);
+        final int rowOffset = (row % ROWS_PER_BLOCK) * rowLength;
+        final int valueOffset = rowOffset + 8 + slot * metricCount * 8;
+
+        for (int i = 0; i < metricCount; i++) {
+            block.putLong(valueOffset + i * 8, i < values.length ? values[i] : 0L);
+        }
+
+        final long presence = block.getLong(rowOffset);
+        block.putLong(rowOffset, presence | (1L << slot));
+    }
+
+    /**
+     * @return <code>true</code> if the component in the given row has a sample at any slot, <code>false</code> otherwise
+     */
+    public boolean hasSamples(final int row) throws IOException {
+        final MappedByteBuffer block = getBlock(row, false);
+        return block != null && block.getLong((row % ROWS_PER_BLOCK) * rowLength) != 0L;
+    }
+
+    /**
+     * Reads the values for the component in the given row at the given slot into the given array
+     *
+     * @return <code>true</code> if the component has a sample at the given slot, <code>false</code> otherwise, in which
+     * case the contents of the array are unchanged
+     */
+    public boolean read(final int row, final int slot, final long[] values) throws IOException {
+        final MappedByteBuffer block = getBlock(row, false);
+        if (block == null) {
+            return false;
+        }
+
+        final int rowOffset = (row % ROWS_PER_BLOCK) * rowLength;
+        final long presence = block.getLong(rowOffset);
+        if ((presence & (1L << slot)) == 0) {
+            return false;
+        }
+
+        final int valueOffset = rowOffset + 8 + slot * metricCount * 8;
+        final int count = Math.min(metricCount, values.length);
+        for (int i = 0; i < count; i++) {
+            values[i] = block.getLong(valueOffset + i * 8);
+        }
+        Arrays.fill(values, count, values.length, 0L);
+
+        return true;
+    }
+
+    private MappedByteBuffer getBlock(final int row, final boolean create) throws IOException {
+        final int blockIndex = row / ROWS_PER_BLOCK;
+        if (blockIndex < blocks.size() && blocks.get(blockIndex) != null) {
+            return blocks.get(blockIndex);
+        }
+
+        final long blockLength = (long) ROWS_PER_BLOCK * rowLength;
+        final long blockOffset = headerLength + blockIndex * blockLength;
+        if (!create && channel.size() < blockOffset + blockLength) {
+            return null;
+        }
+
+        final MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_WRITE, blockOffset, blockLength);
+        while (blocks.size() <= blockIndex) {
+            blocks.add(null);
+        }
+        blocks.set(blockIndex, block);
+        return block;
+    }
+
+    /**
+     * Forces any changes made to this partition to be written to the underlying storage device
+     */
+    public void force() {
+        header.force();
+        for (final MappedByteBuffer block : blocks) {
+            if (block != null) {
+                block.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        blocks.clear();
+        raf.close();
+    }
+
+    @Override
+    public String toString() {
+        return "StatusPartition[file=" + file + ", start=" + partitionStart + ", slotMillis=" + slotMillis + "]";
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The resolutions at which a {@link MemoryMappedComponentStatusRepository} retains status history. Each resolution
+ * is stored in partitions that span exactly one slot of the next coarser resolution, so that rolling a period up
+ * only ever reads a single partition.
+ */
+enum StatusResolution {
+    MINUTE(TimeUnit.MINUTES.toMillis(1), 60),
+    HOUR(TimeUnit.HOURS.toMillis(1), 24),
+    DAY(TimeUnit.DAYS.toMillis(1), 30);
+
+    private final long slotMillis;
+    private final int slotsPerPartition;
+
+    StatusResolution(final long slotMillis, final int slotsPerPartition) {
+        this.slotMillis = slotMillis;
+        this.slotsPerPartition = slotsPerPartition;
+    }
+
+    public long getSlotMillis() {
+        return slotMillis;
+    }
+
+    public int getSlotsPerPartition() {
+        return slotsPerPartition;
+    }
+
+    public long getPartitionMillis() {
+        return slotMillis * slotsPerPartition;
+    }
+
+    public long getSlotStart(final long timestamp) {
+        return timestamp - Math.floorMod(timestamp, slotMillis);
+    }
+
+    public long getPartitionStart(final long timestamp) {
+        return timestamp - Math.floorMod(timestamp, getPartitionMillis());
+    }
+
+    /**
+     * @return the resolution that this resolution is rolled up into, or <code>null</code> if this is the coarsest resolution
+     */
+    public StatusResolution getCoarser() {
+        final StatusResolution[] values = values();
+        return ordinal() == values.length - 1 ? null : values[ordinal() + 1];
+    }
+}
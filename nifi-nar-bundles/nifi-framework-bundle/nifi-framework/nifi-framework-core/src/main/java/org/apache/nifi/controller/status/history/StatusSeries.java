@@ -0,0 +1,611 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * The status history for one kind of component (Processors, Connections, etc.), stored by a
+ * {@link MemoryMappedComponentStatusRepository}. Each component is assigned a row the first time that it is seen,
+ * and that row is used in every {@link StatusPartition} of the series. The assignment of rows, along with the details
+ * of each component, is kept in an append-only registry file so that it survives restarts. Once none of the retained
+ * partitions holds a sample for a component, its registration is removed and its row is reused for the next new component.
+ * </p>
+ *
+ * <p>
+ * Samples are written at {@link StatusResolution#MINUTE minute} resolution and rolled up into each coarser resolution
+ * when its period ends. Queries stitch the resolutions together, using the finest resolution available for each part of
+ * the requested time range.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe; callers are expected to provide synchronization.
+ * </p>
+ */
+class StatusSeries implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(StatusSeries.class);
+
+    private static final String REGISTRY_FILENAME = "components";
+    private static final String PARTITION_SUFFIX = ".partition";
+
+    private final String name;
+    private final File directory;
+    private final int metricCount;
+    private final RollupStrategy rollupStrategy;
+    private final Map<String, Registration> registrations = new HashMap<>();
+    private final BitSet usedRows = new BitSet();
+    private final Map<StatusResolution, NavigableMap<Long, StatusPartition>> partitions = new EnumMap<>(StatusResolution.class);
+    private DataOutputStream registryOut;
+
+    public StatusSeries(final File directory, final String name, final int metricCount, final RollupStrategy rollupStrategy) throws IOException {
+        this.name = name;
+        this.directory = directory;
+        this.metricCount = metricCount;
+        this.rollupStrategy = rollupStrategy;
+
+        for (final StatusResolution resolution : StatusResolution.values()) {
+            partitions.put(resolution, loadPartitions(resolution));
+        }
+
+        loadRegistry();
+    }
+
+    private NavigableMap<Long, StatusPartition> loadPartitions(final StatusResolution resolution) throws IOException {
+        final File resolutionDirectory = getDirectory(resolution);
+        Files.createDirectories(resolutionDirectory.toPath());
+
+        final NavigableMap<Long, StatusPartition> loaded = new TreeMap<>();
+        final File[] files = resolutionDirectory.listFiles((dir, filename) -> filename.endsWith(PARTITION_SUFFIX));
+        if (files == null) {
+            return loaded;
+        }
+
+        for (final File file : files) {
+            try {
+                final StatusPartition partition = StatusPartition.open(file);
+                loaded.put(partition.getPartitionStart(), partition);
+            } catch (final IOException e) {
+                logger.warn("Unable to open Status History partition {}; it will be deleted", file, e);
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+
+        return loaded;
+    }
+
+    private void loadRegistry() throws IOException {
+        final File registryFile = new File(directory, REGISTRY_FILENAME);
+        int recordCount = 0;
+        boolean truncated = false;
+
+        if (registryFile.exists()) {
+            try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(registryFile)))) {
+                while (true) {
+                    final int row;
+                    try {
+                        row = in.readInt();
+                    } catch (final EOFException eof) {
+                        break;
+                    }
+
+                    try {
+                        final ComponentDetails details = new ComponentDetails(in.readUTF(), readNullableString(in), readNullableString(in), readNullableString(in),
+                            readNullableString(in), readNullableString(in), readNullableString(in));
+                        final Registration replaced = registrations.put(details.getComponentId(), new Registration(row, details));
+                        if (replaced != null && replaced.getRow() != row) {
+                            usedRows.clear(replaced.getRow());
+                        }
+                        usedRows.set(row);
+                        recordCount++;
+                    } catch (final EOFException eof) {
+                        logger.warn("Registry for {} Status History was not completely written; the last entry will be ignored", name);
+                        truncated = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (truncated || recordCount > registrations.size()) {
+            // Rewrite the registry so that it contains exactly one entry per component.
+            rewriteRegistry();
+        }
+
+        registryOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(registryFile, true)));
+    }
+
+    private void rewriteRegistry() throws IOException {
+        final File registryFile = new File(directory, REGISTRY_FILENAME);
+        final File tempFile = new File(directory, REGISTRY_FILENAME + ".tmp");
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            for (final Registration registration : registrations.values()) {
+                writeRegistration(out, registration);
+            }
+        }
+
+        Files.move(tempFile.toPath(), registryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String readNullableString(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullableString(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void writeRegistration(final DataOutputStream out, final Registration registration) throws IOException {
+        final ComponentDetails details = registration.getDetails();
+        out.writeInt(registration.getRow());
+        out.writeUTF(details.getComponentId());
+        writeNullableString(out, details.getGroupId());
+        writeNullableString(out, details.getComponentName());
+        writeNullableString(out, details.getComponentType());
+        writeNullableString(out, details.getSourceName());
+        writeNullableString(out, details.getDestinationName());
+        writeNullableString(out, details.getTargetUri());
+    }
+
+    private File getDirectory(final StatusResolution resolution) {
+        return new File(directory, resolution.name().toLowerCase());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMetricCount() {
+        return metricCount;
+    }
+
+    public Set<String> getComponentIds() {
+        return Collections.unmodifiableSet(registrations.keySet());
+    }
+
+    /**
+     * @return the most recently recorded details of the component with the given ID, or <code>null</code> if the component is not known
+     */
+    public ComponentDetails getComponentDetails(final String componentId) {
+        final Registration registration = registrations.get(componentId);
+        return registration == null ? null : registration.getDetails();
+    }
+
+    /**
+     * @return the latest capture time recorded at minute resolution, or 0 if nothing has been captured
+     */
+    public long getLatestCaptureTime() {
+        final NavigableMap<Long, StatusPartition> minutePartitions = partitions.get(StatusResolution.MINUTE);
+        for (final StatusPartition partition : minutePartitions.descendingMap().values()) {
+            final long latest = partition.getLatestCaptureTime();
+            if (latest > 0) {
+                return latest;
+            }
+        }
+
+        return 0L;
+    }
+
+    /**
+     * Records that a capture was performed at the given time, whether or not any component of this series is included in it
+     */
+    public void markCapture(final long timestamp) throws IOException {
+        final StatusPartition partition = getPartition(StatusResolution.MINUTE, timestamp, true);
+        partition.setCaptureTime(partition.getSlot(timestamp), timestamp);
+    }
+
+    /**
+     * Records the given values for the given component. {@link #markCapture(long)} is expected to have been called for the same timestamp.
+     */
+    public void record(final ComponentDetails details, final long timestamp, final long[] values) throws IOException {
+        final int row = register(details);
+        final StatusPartition partition = getPartition(StatusResolution.MINUTE, timestamp, true);
+        partition.write(row, partition.getSlot(timestamp), values);
+    }
+
+    private int register(final ComponentDetails details) throws IOException {
+        final String componentId = details.getComponentId();
+        final Registration existing = registrations.get(componentId);
+        if (existing != null && existing.getDetails().toMap().equals(details.toMap())) {
+            return existing.getRow();
+        }
+
+        final int row = existing == null ? usedRows.nextClearBit(0) : existing.getRow();
+        final Registration registration = new Registration(row, details);
+        writeRegistration(registryOut, registration);
+        registryOut.flush();
+        registrations.put(componentId, registration);
+        usedRows.set(row);
+        return row;
+    }
+
+    private StatusPartition getPartition(final StatusResolution resolution, final long timestamp, final boolean create) throws IOException {
+        final long partitionStart = resolution.getPartitionStart(timestamp);
+        final NavigableMap<Long, StatusPartition> resolutionPartitions = partitions.get(resolution);
+        StatusPartition partition = resolutionPartitions.get(partitionStart);
+        if (partition == null && create) {
+            final File file = new File(getDirectory(resolution), partitionStart + PARTITION_SUFFIX);
+            partition = StatusPartition.create(file, partitionStart, resolution.getSlotMillis(), resolution.getSlotsPerPartition(), metricCount);
+            resolutionPartitions.put(partitionStart, partition);
+        }
+
+        return partition;
+    }
+
+    /**
+     * Rolls the samples of the given resolution that fall within the coarser resolution's slot containing the given timestamp
+     * up into a single sample per component at the coarser resolution.
+     */
+    public void rollup(final StatusResolution resolution, final long timestamp) throws IOException {
+        final StatusResolution coarser = resolution.getCoarser();
+        if (coarser == null) {
+            return;
+        }
+
+        // A partition of one resolution spans exactly one slot of the next coarser resolution.
+        final long periodStart = coarser.getSlotStart(timestamp);
+        final StatusPartition source = getPartition(resolution, periodStart, false);
+        if (source == null || source.getLatestCaptureTime() == 0L) {
+            return;
+        }
+
+        final StatusPartition target = getPartition(coarser, periodStart, true);
+        final int targetSlot = target.getSlot(periodStart);
+        final long[] sample = new long[metricCount];
+        final long[] rolledUp = new long[metricCount];
+
+        for (final Registration registration : registrations.values()) {
+            final int row = registration.getRow();
+            if (!source.hasSamples(row)) {
+                continue;
+            }
+
+            Arrays.fill(rolledUp, 0L);
+            int sampleCount = 0;
+
+            for (int slot = 0; slot < source.getSlotCount(); slot++) {
+                if (!source.read(row, slot, sample)) {
+                    continue;
+                }
+
+                sampleCount++;
+                for (int i = 0; i < metricCount; i++) {
+                    rolledUp[i] = rollupStrategy.combine(rolledUp[i], sample[i]);
+                }
+            }
+
+            if (sampleCount == 0) {
+                continue;
+            }
+
+            for (int i = 0; i < metricCount; i++) {
+                rolledUp[i] = rollupStrategy.complete(rolledUp[i], sampleCount);
+            }
+
+            target.write(row, targetSlot, rolledUp);
+        }
+
+        target.setCaptureTime(targetSlot, periodStart);
+        logger.debug("Rolled up {} Status History for {} into {} resolution", name, source, coarser);
+    }
+
+    /**
+     * Deletes any partitions of the given resolution that hold only samples older than the given cutoff
+     *
+     * @return <code>true</code> if any partition was deleted, <code>false</code> otherwise
+     */
+    public boolean purge(final StatusResolution resolution, final long cutoff) {
+        boolean purged = false;
+        final Iterator<StatusPartition> itr = partitions.get(resolution).values().iterator();
+        while (itr.hasNext()) {
+            final StatusPartition partition = itr.next();
+            if (partition.getPartitionEnd() > cutoff) {
+                break;
+            }
+
+            itr.remove();
+            purged = true;
+            try {
+                partition.close();
+                Files.deleteIfExists(partition.getFile().toPath());
+                logger.debug("Purged expired {} Status History partition {}", name, partition);
+            } catch (final IOException e) {
+                logger.warn("Failed to delete expired Status History partition {}", partition.getFile(), e);
+            }
+        }
+
+        return purged;
+    }
+
+    /**
+     * Removes the registration of every component for which none of the retained partitions holds a sample, so that
+     * components that have been removed from the flow are no longer rolled up and their rows can be reused
+     */
+    public void purgeRegistrations() throws IOException {
+        final Iterator<Registration> itr = registrations.values().iterator();
+        int purged = 0;
+        while (itr.hasNext()) {
+            final Registration registration = itr.next();
+            if (hasSamples(registration.getRow())) {
+                continue;
+            }
+
+            itr.remove();
+            usedRows.clear(registration.getRow());
+            purged++;
+        }
+
+        if (purged == 0) {
+            return;
+        }
+
+        registryOut.close();
+        rewriteRegistry();
+        registryOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(directory, REGISTRY_FILENAME), true)));
+        logger.debug("Purged {} {} Status History registrations that no longer have any samples", purged, name);
+    }
+
+    private boolean hasSamples(final int row) throws IOException {
+        for (final NavigableMap<Long, StatusPartition> resolutionPartitions : partitions.values()) {
+            for (final StatusPartition partition : resolutionPartitions.values()) {
+                if (partition.hasSamples(row)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the samples for the given component between the given times, inclusive, ordered by time. For each capture that falls
+     * in the range, a sample is returned; if the component has no values for that capture, the sample's values are <code>null</code>.
+     * Each part of the range is answered from the finest resolution that still holds data for it.
+     */
+    public List<StatusSample> getSamples(final String componentId, final long start, final long end) throws IOException {
+        final Registration registration = registrations.get(componentId);
+        final int row = registration == null ? -1 : registration.getRow();
+
+        final List<List<StatusSample>> samplesPerResolution = new ArrayList<>();
+        long finerResolutionStart = Long.MAX_VALUE;
+        for (final StatusResolution resolution : StatusResolution.values()) {
+            samplesPerResolution.add(getSamples(resolution, row, start, end, finerResolutionStart));
+
+            final long earliest = getEarliestCaptureTime(resolution);
+            if (earliest > 0) {
+                finerResolutionStart = Math.min(finerResolutionStart, earliest);
+            }
+        }
+
+        final List<StatusSample> samples = new ArrayList<>();
+        Collections.reverse(samplesPerResolution);
+        samplesPerResolution.forEach(samples::addAll);
+        return samples;
+    }
+
+    private List<StatusSample> getSamples(final StatusResolution resolution, final int row, final long start, final long end, final long finerResolutionStart) throws IOException {
+        final NavigableMap<Long, StatusPartition> resolutionPartitions = partitions.get(resolution);
+        final Long firstKey = resolutionPartitions.floorKey(start);
+        final NavigableMap<Long, StatusPartition> inRange = resolutionPartitions.subMap(firstKey == null ? Long.MIN_VALUE : firstKey, true, end, true);
+        if (inRange.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<StatusSample> samples = new ArrayList<>();
+        for (final StatusPartition partition : inRange.values()) {
+            for (int slot = 0; slot < partition.getSlotCount(); slot++) {
+                final long captureTime = partition.getCaptureTime(slot);
+                if (captureTime == 0L || captureTime < start || captureTime > end) {
+                    continue;
+                }
+
+                // Only use this resolution for periods that have already been dropped from the finer resolutions.
+                if (captureTime + resolution.getSlotMillis() > finerResolutionStart) {
+                    continue;
+                }
+
+                final long[] values = new long[metricCount];
+                final boolean present = row >= 0 && partition.read(row, slot, values);
+                samples.add(new StatusSample(captureTime, present ? values : null));
+            }
+        }
+
+        return samples;
+    }
+
+    /**
+     * Reduces the given samples, which must be ordered by time, to at most the given number by dividing the time that they
+     * span into equal periods and combining the samples of each period as they would be rolled up. Each combined sample
+     * has the timestamp of the latest sample in its period, and its values are <code>null</code> only if none of the
+     * period's samples has values.
+     */
+    public List<StatusSample> downsample(final List<StatusSample> samples, final int maxSamples) {
+        if (samples.size() <= maxSamples) {
+            return samples;
+        }
+        if (maxSamples < 1) {
+            return Collections.emptyList();
+        }
+
+        final long firstTimestamp = samples.get(0).getTimestamp();
+        final long span = samples.get(samples.size() - 1).getTimestamp() - firstTimestamp + 1;
+
+        final List<StatusSample> downsampled = new ArrayList<>(maxSamples);
+        final long[] combined = new long[metricCount];
+        int index = 0;
+        while (index < samples.size()) {
+            final long period = (samples.get(index).getTimestamp() - firstTimestamp) * maxSamples / span;
+
+            Arrays.fill(combined, 0L);
+            int sampleCount = 0;
+            long timestamp = 0L;
+            for (; index < samples.size(); index++) {
+                final StatusSample sample = samples.get(index);
+                if ((sample.getTimestamp() - firstTimestamp) * maxSamples / span != period) {
+                    break;
+                }
+
+                timestamp = sample.getTimestamp();
+                final long[] values = sample.getValues();
+                if (values == null) {
+                    continue;
+                }
+
+                sampleCount++;
+                for (int i = 0; i < metricCount; i++) {
+                    combined[i] = rollupStrategy.combine(combined[i], values[i]);
+                }
+            }
+
+            if (sampleCount == 0) {
+                downsampled.add(new StatusSample(timestamp, null));
+                continue;
+            }
+
+            final long[] values = new long[metricCount];
+            for (int i = 0; i < metricCount; i++) {
+                values[i] = rollupStrategy.complete(combined[i], sampleCount);
+            }
+            downsampled.add(new StatusSample(timestamp, values));
+        }
+
+        return downsampled;
+    }
+
+    private long getEarliestCaptureTime(final StatusResolution resolution) {
+        for (final StatusPartition partition : partitions.get(resolution).values()) {
+            final long earliest = partition.getEarliestCaptureTime();
+            if (earliest > 0) {
+                return earliest;
+            }
+        }
+
+        return 0L;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final NavigableMap<Long, StatusPartition> resolutionPartitions : partitions.values()) {
+            for (final StatusPartition partition : resolutionPartitions.values()) {
+                partition.force();
+                partition.close();
+            }
+            resolutionPartitions.clear();
+        }
+
+        registryOut.close();
+    }
+
+    @Override
+    public String toString() {
+        return "StatusSeries[name=" + name + ", components=" + registrations.size() + "]";
+    }
+
+    /**
+     * Determines how the samples of a period are combined when rolled up into a coarser resolution
+     */
+    enum RollupStrategy {
+        /**
+         * Use the mean of the samples in the period. Appropriate for gauges and for metrics that are themselves windowed counts.
+         */
+        MEAN,
+
+        /**
+         * Use the largest sample in the period. Appropriate for cumulative counters.
+         */
+        MAX;
+
+        long combine(final long combined, final long value) {
+            return this == MAX ? Math.max(combined, value) : combined + value;
+        }
+
+        long complete(final long combined, final int sampleCount) {
+            return this == MEAN ? combined / sampleCount : combined;
+        }
+    }
+
+    /**
+     * A single sample of a component's metrics
+     */
+    static class StatusSample {
+        private final long timestamp;
+        private final long[] values;
+
+        StatusSample(final long timestamp, final long[] values) {
+            this.timestamp = timestamp;
+            this.values = values;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return the values of the sample, or <code>null</code> if the component had no values for the capture
+         */
+        public long[] getValues() {
+            return values;
+        }
+    }
+
+    private static class Registration {
+        private final int row;
+        private final ComponentDetails details;
+
+        Registration(final int row, final ComponentDetails details) {
+            this.row = row;
+            this.details = details;
+        }
+
+        int getRow() {
+            return row;
+        }
+
+        ComponentDetails getDetails() {
+            return details;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.IncompleteSwapFileException;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordReader;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads swap files that were written by {@link CompressedSwapSerializer}.
+ */
+public class CompressedSwapDeserializer implements SwapDeserializer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public SwapContents deserializeFlowFiles(final DataInputStream in, final String swapLocation, final FlowFileQueue queue, final ResourceClaimManager claimManager) throws IOException {
+        final SwapSummary swapSummary = getSwapSummary(in, swapLocation, claimManager);
+
+        final Inflater inflater = new Inflater();
+        try {
+            final DataInputStream dis = new DataInputStream(new InflaterInputStream(in, inflater, BUFFER_SIZE));
+            final StringDictionary keys = new StringDictionary();
+            final StringDictionary values = new StringDictionary();
+
+            final List<FlowFileRecord> flowFiles = new ArrayList<>();
+            try {
+                final int flowFileCount = dis.readInt();
+                for (int i = 0; i < flowFileCount; i++) {
+                    flowFiles.add(readFlowFile(dis, keys, values, claimManager));
+                }
+            } catch (final EOFException eof) {
+                // The swap file was not completely written, as can happen if NiFi was stopped while swapping out. Return the
+                // FlowFiles that could be read so that they are not lost.
+                final SwapContents partialContents = new StandardSwapContents(swapSummary, flowFiles);
+                throw new IncompleteSwapFileException(swapLocation, partialContents);
+            }
+
+            return new StandardSwapContents(swapSummary, flowFiles);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private FlowFileRecord readFlowFile(final DataInputStream dis, final StringDictionary keys, final StringDictionary values, final ResourceClaimManager claimManager)
+            throws IOException {
+        final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder()
+            .id(dis.readLong())
+            .entryDate(dis.readLong());
+
+        final long lineageStartDate = dis.readLong();
+        final long lineageStartIndex = dis.readLong();
+        builder.lineageStart(lineageStartDate, lineageStartIndex);
+
+        final long lastQueueDate = dis.readLong();
+        final long queueDateIndex = dis.readLong();
+        builder.lastQueued(lastQueueDate, queueDateIndex);
+        builder.size(dis.readLong());
+
+        if (dis.readBoolean()) {
+            final String container = values.read(dis);
+            final String section = values.read(dis);
+            final String identifier = values.read(dis);
+            final boolean lossTolerant = dis.readBoolean();
+
+            // Make sure that we preserve the existing ResourceClaim, if there is already one held by the Resource Claim Manager,
+            // so that we honor its determination of whether or not the claim is writable.
+            ResourceClaim resourceClaim = claimManager.getResourceClaim(container, section, identifier);
+            if (resourceClaim == null) {
+                resourceClaim = claimManager.newResourceClaim(container, section, identifier, lossTolerant, false);
+            }
+
+            final StandardContentClaim contentClaim = new StandardContentClaim(resourceClaim, dis.readLong());
+            contentClaim.setLength(dis.readLong());
+            builder.contentClaim(contentClaim);
+            builder.contentClaimOffset(dis.readLong());
+        }
+
+        final int attributeCount = dis.readInt();
+        final Map<String, String> attributes = new HashMap<>(attributeCount * 4 / 3 + 1);
+        for (int j = 0; j < attributeCount; j++) {
+            final String key = keys.read(dis);
+            final String value = CoreAttributes.UUID.key().equals(key) ? readString(dis) : values.read(dis);
+            attributes.put(key, value);
+        }
+
+        builder.addAttributes(attributes);
+        return builder.build();
+    }
+
+    @Override
+    public SwapSummary getSwapSummary(final DataInputStream in, final String swapLocation, final ResourceClaimManager claimManager) throws IOException {
+        final int encodingVersion = in.readInt();
+        if (encodingVersion > CompressedSwapSerializer.ENCODING_VERSION) {
+            throw new IOException("Cannot read Swap File " + swapLocation + " because it is encoded using version " + encodingVersion
+                + " but this version of the code only understands version " + CompressedSwapSerializer.ENCODING_VERSION + " and below");
+        }
+
+        final RecordSchema summarySchema = RecordSchema.readFrom(in);
+        final Record summaryRecord = SchemaRecordReader.fromSchema(summarySchema).readRecord(in);
+        if (summaryRecord == null) {
+            throw new EOFException("Swap File " + swapLocation + " ended before its Swap Summary could be read");
+        }
+
+        return SwapSummaryFieldMap.getSwapSummary(summaryRecord, claimManager);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarInt(final DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+
+            shift += 7;
+            if (shift > 28) {
+                throw new IOException("Swap File is corrupt: encountered an invalid variable-length integer");
+            }
+        }
+    }
+
+    private static class StringDictionary {
+        private final List<String> entries = new ArrayList<>();
+
+        String read(final DataInputStream in) throws IOException {
+            final int reference = readVarInt(in);
+            if (reference > 0) {
+                if (reference > entries.size()) {
+                    throw new IOException("Swap File is corrupt: encountered a reference to dictionary entry " + reference + " but only " + entries.size() + " entries exist");
+                }
+
+                return entries.get(reference - 1);
+            }
+
+            final String value = readString(in);
+            if (CompressedSwapSerializer.isDictionaryCandidate(value, entries.size())) {
+                entries.add(value);
+            }
+
+            return value;
+        }
+    }
+
+    public static String getSerializationName() {
+        return CompressedSwapSerializer.SERIALIZATION_NAME;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.SchemaRecordWriter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <p>
+ * A SwapSerializer that writes the Swap Summary in the same schema-based form used by {@link SchemaSwapSerializer}, followed by the FlowFiles
+ * in a compact binary form that is compressed using DEFLATE. Because the summary is not compressed, it can be read without inflating the
+ * FlowFiles.
+ * </p>
+ *
+ * <p>
+ * The FlowFiles in a swap file tend to share the same attribute keys and many of the same attribute values, as well as the same few Resource Claims.
+ * Each such String is therefore written only the first time that it is encountered, and subsequent occurrences are written as a reference into a
+ * dictionary that the deserializer rebuilds as it reads the file. See {@link CompressedSwapDeserializer} for the corresponding reader.
+ * </p>
+ */
+public class CompressedSwapSerializer implements SwapSerializer {
+    static final String SERIALIZATION_NAME = "Compressed Swap Serialization";
+    static final int ENCODING_VERSION = 1;
+
+    // Strings longer than this are not added to the dictionary, as they are unlikely to be repeated.
+    static final int MAX_DICTIONARY_STRING_LENGTH = 256;
+    static final int MAX_DICTIONARY_SIZE = 65536;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public void serializeFlowFiles(final List<FlowFileRecord> toSwap, final FlowFileQueue queue, final String swapLocation, final OutputStream out) throws IOException {
+        long contentSize = 0L;
+        long maxFlowFileId = -1L;
+        final List<ResourceClaim> resourceClaims = new ArrayList<>();
+        for (final FlowFileRecord flowFile : toSwap) {
+            contentSize += flowFile.getSize();
+            if (flowFile.getId() > maxFlowFileId) {
+                maxFlowFileId = flowFile.getId();
+            }
+
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            if (contentClaim != null) {
+                resourceClaims.add(contentClaim.getResourceClaim());
+            }
+        }
+
+        final DataOutputStream headerOut = new DataOutputStream(out);
+        headerOut.writeInt(ENCODING_VERSION);
+
+        final QueueSize queueSize = new QueueSize(toSwap.size(), contentSize);
+        final SwapSummary swapSummary = new StandardSwapSummary(queueSize, maxFlowFileId, resourceClaims);
+        final Record summaryRecord = new SwapSummaryFieldMap(swapSummary, queue.getIdentifier(), SwapSchema.SWAP_SUMMARY_SCHEMA_V2);
+        SwapSchema.SWAP_SUMMARY_SCHEMA_V2.writeTo(headerOut);
+        new SchemaRecordWriter().writeRecord(summaryRecord, headerOut);
+        headerOut.flush();
+
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            final DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+            final DataOutputStream dos = new DataOutputStream(deflaterOut);
+            final StringDictionary keys = new StringDictionary();
+            final StringDictionary values = new StringDictionary();
+
+            dos.writeInt(toSwap.size());
+            for (final FlowFileRecord flowFile : toSwap) {
+                dos.writeLong(flowFile.getId());
+                dos.writeLong(flowFile.getEntryDate());
+                dos.writeLong(flowFile.getLineageStartDate());
+                dos.writeLong(flowFile.getLineageStartIndex());
+                final Long lastQueueDate = flowFile.getLastQueueDate();
+                if (lastQueueDate == null) {
+                    throw new IOException("Cannot swap out " + flowFile + " because it does not have a Queued Date");
+                }
+                dos.writeLong(lastQueueDate);
+                dos.writeLong(flowFile.getQueueDateIndex());
+                dos.writeLong(flowFile.getSize());
+
+                final ContentClaim claim = flowFile.getContentClaim();
+                if (claim == null) {
+                    dos.writeBoolean(false);
+                } else {
+                    dos.writeBoolean(true);
+                    final ResourceClaim resourceClaim = claim.getResourceClaim();
+                    values.write(resourceClaim.getContainer(), dos);
+                    values.write(resourceClaim.getSection(), dos);
+                    values.write(resourceClaim.getId(), dos);
+                    dos.writeBoolean(resourceClaim.isLossTolerant());
+                    dos.writeLong(claim.getOffset());
+                    dos.writeLong(claim.getLength());
+                    dos.writeLong(flowFile.getContentClaimOffset());
+                }
+
+                final Map<String, String> attributes = flowFile.getAttributes();
+                dos.writeInt(attributes.size());
+                for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+                    final String key = entry.getKey();
+                    keys.write(key, dos);
+
+                    // The UUID is unique to each FlowFile, so there is no sense in adding it to the dictionary.
+                    if (CoreAttributes.UUID.key().equals(key)) {
+                        writeString(entry.getValue(), dos);
+                    } else {
+                        values.write(entry.getValue(), dos);
+                    }
+                }
+            }
+
+            dos.flush();
+            deflaterOut.finish();
+        } finally {
+            deflater.end();
+        }
+
+        out.flush();
+    }
+
+    static boolean isDictionaryCandidate(final String value, final int dictionarySize) {
+        return value.length() <= MAX_DICTIONARY_STRING_LENGTH && dictionarySize < MAX_DICTIONARY_SIZE;
+    }
+
+    static void writeString(final String value, final DataOutputStream out) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length, out);
+        out.write(bytes);
+    }
+
+    static void writeVarInt(final int value, final DataOutputStream out) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+
+    /**
+     * Writes each String as either a reference to a previously written String or, the first time that it is encountered, as a literal.
+     * A reference to dictionary entry <code>n</code> is written as the variable-length integer <code>n + 1</code>. A literal is written as
+     * the integer 0 followed by the String, and is added to the dictionary if {@link #isDictionaryCandidate(String, int)} allows.
+     * A <code>null</code> value is not expected.
+     */
+    private static class StringDictionary {
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        void write(final String value, final DataOutputStream out) throws IOException {
+            final Integer index = indices.get(value);
+            if (index != null) {
+                writeVarInt(index + 1, out);
+                return;
+            }
+
+            writeVarInt(0, out);
+            writeString(value, out);
+
+            if (isDictionaryCandidate(value, indices.size())) {
+                indices.put(value, indices.size());
+            }
+        }
+    }
+
+    @Override
+    public String getSerializationName() {
+        return SERIALIZATION_NAME;
+    }
+}
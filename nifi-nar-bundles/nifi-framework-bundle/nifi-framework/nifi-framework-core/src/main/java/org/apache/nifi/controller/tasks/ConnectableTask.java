@@ -27,6 +27,7 @@ import org.apache.nifi.controller.lifecycle.TaskTerminationAwareStateManager;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.repository.ActiveProcessSessionFactory;
 import org.apache.nifi.controller.repository.BatchingSessionFactory;
+import org.apache.nifi.controller.repository.LatencyType;
 import org.apache.nifi.controller.repository.RepositoryContext;
 import org.apache.nifi.controller.repository.StandardProcessSession;
 import org.apache.nifi.controller.repository.StandardProcessSessionFactory;
@@ -169,7 +170,7 @@ public class ConnectableTask {
         // Make sure processor has work to do.
         if (!isWorkToDo()) {
             logger.debug("Yielding {} because it has no work to do", connectable);
-            return InvocationResult.yield("No work to do");
+            return InvocationResult.NO_WORK;
         }
 
         if (numRelationships > 0) {
@@ -210,7 +211,12 @@ public class ConnectableTask {
                 boolean shouldRun = connectable.getScheduledState() == ScheduledState.RUNNING;
                 while (shouldRun) {
                     invocationCount++;
-                    connectable.onTrigger(processContext, activeSessionFactory);
+                    final long triggerStartNanos = System.nanoTime();
+                    try {
+                        connectable.onTrigger(processContext, activeSessionFactory);
+                    } finally {
+                        repositoryContext.getFlowFileEventRepository().recordLatency(connectable.getIdentifier(), LatencyType.ON_TRIGGER, System.nanoTime() - triggerStartNanos);
+                    }
 
                     if (!batch) {
                         return InvocationResult.DO_NOT_YIELD;
@@ -35,6 +35,11 @@ public interface InvocationResult {
         }
     };
 
+    /**
+     * Indicates that the component was not triggered because it had no incoming data to process
+     */
+    public static InvocationResult NO_WORK = yield("No work to do");
+
     public static InvocationResult yield(final String explanation) {
         return new InvocationResult() {
             @Override
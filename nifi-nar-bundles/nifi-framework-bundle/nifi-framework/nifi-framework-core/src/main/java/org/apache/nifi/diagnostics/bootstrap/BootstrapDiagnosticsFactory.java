@@ -36,6 +36,7 @@ import org.apache.nifi.diagnostics.bootstrap.tasks.NarsDiagnosticTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.NiFiPropertiesDiagnosticTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.OperatingSystemDiagnosticTask;
 import org.apache.nifi.diagnostics.bootstrap.tasks.RepositoryDiagnosticTask;
+import org.apache.nifi.diagnostics.bootstrap.tasks.SchedulingDiagnosticTask;
 import org.apache.nifi.diagnostics.ThreadDumpTask;
 import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
@@ -75,6 +76,7 @@ public class BootstrapDiagnosticsFactory implements DiagnosticsFactory {
         tasks.add(new NarsDiagnosticTask(flowController.getExtensionManager()));
         tasks.add(new FlowConfigurationDiagnosticTask(flowController));
         tasks.add(new LongRunningProcessorTask(flowController));
+        tasks.add(new SchedulingDiagnosticTask(flowController));
         tasks.add(new ClusterDiagnosticTask(flowController));
         tasks.add(new GarbageCollectionDiagnosticTask(flowController));
         tasks.add(new MemoryPoolPeakUsageTask());
@@ -19,6 +19,7 @@ package org.apache.nifi.diagnostics.bootstrap.tasks;
 import org.apache.nifi.controller.FlowController;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
 import org.apache.nifi.controller.scheduling.RepositoryContextFactory;
 import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.diagnostics.DiagnosticTask;
@@ -26,6 +27,7 @@ import org.apache.nifi.diagnostics.DiagnosticsDumpElement;
 import org.apache.nifi.diagnostics.StandardDiagnosticsDumpElement;
 import org.apache.nifi.provenance.ProvenanceRepository;
 import org.apache.nifi.util.FormatUtils;
+import org.apache.nifi.wali.GroupCommitStatistics;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -74,6 +76,14 @@ public class RepositoryDiagnosticTask implements DiagnosticTask {
         details.add("FlowFile Repository File Store: " + repository.getFileStoreName());
         details.add("FlowFile Repository Storage Capacity: " + FormatUtils.formatDataSize(repository.getStorageCapacity()));
         details.add("FlowFile Repository Usable Space: " + FormatUtils.formatDataSize(repository.getUsableStorageSpace()));
+
+        if (repository instanceof WriteAheadFlowFileRepository) {
+            final GroupCommitStatistics groupCommitStatistics = ((WriteAheadFlowFileRepository) repository).getGroupCommitStatistics();
+            if (groupCommitStatistics != null) {
+                details.add("FlowFile Repository Transactions per Sync: " + groupCommitStatistics.getBatchSizeHistogram());
+                details.add("FlowFile Repository Sync Wait Time (micros): " + groupCommitStatistics.getWaitTimeHistogram());
+            }
+        }
     }
 
     private void captureDiagnostics(final ContentRepository repository, final ProcessGroupStatus status, final List<String> details) throws IOException {
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.diagnostics.bootstrap.tasks;
+
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.scheduling.TimerDrivenSchedulingAgent;
+import org.apache.nifi.diagnostics.DiagnosticTask;
+import org.apache.nifi.diagnostics.DiagnosticsDumpElement;
+import org.apache.nifi.diagnostics.StandardDiagnosticsDumpElement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SchedulingDiagnosticTask implements DiagnosticTask {
+    private final FlowController flowController;
+
+    public SchedulingDiagnosticTask(final FlowController flowController) {
+        this.flowController = flowController;
+    }
+
+    @Override
+    public DiagnosticsDumpElement captureDump(final boolean verbose) {
+        final TimerDrivenSchedulingAgent agent = flowController.getTimerDrivenSchedulingAgent();
+        final long productive = agent.getProductiveTriggerCount();
+        final long wasted = agent.getWastedTriggerCount();
+        final long total = productive + wasted;
+
+        final List<String> details = new ArrayList<>();
+        details.add("Demand-Driven Scheduling Enabled: " + agent.isDemandDriven());
+        details.add("Active Timer-Driven Threads: " + flowController.getActiveTimerDrivenThreadCount());
+        details.add("Productive Triggers: " + productive);
+        details.add("Wasted Triggers (no work or backpressure): " + wasted);
+        if (total > 0) {
+            details.add("Wasted Trigger Percentage: " + String.format("%.2f", wasted * 100D / total) + "%");
+        }
+        details.add("Demand Wakeups: " + agent.getDemandWakeupCount());
+        details.add("Currently Parked Triggers: " + agent.getParkedTriggerCount());
+
+        return new StandardDiagnosticsDumpElement("Timer-Driven Scheduling", details);
+    }
+}
@@ -43,6 +43,7 @@ import org.apache.nifi.controller.ScheduledState;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.repository.FlowFileEvent;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.LatencyType;
 import org.apache.nifi.controller.repository.RepositoryStatusReport;
 import org.apache.nifi.controller.repository.metrics.EmptyFlowFileEvent;
 import org.apache.nifi.controller.status.ConnectionStatus;
@@ -716,6 +717,8 @@ public class StandardEventAccess implements UserAwareEventAccess {
             status.setFlowFilesSent(flowFileEvent.getFlowFilesSent());
             status.setBytesSent(flowFileEvent.getBytesSent());
             status.setFlowFilesRemoved(flowFileEvent.getFlowFilesRemoved());
+            status.setOnTriggerLatency(flowFileEvent.getLatencyDistribution(LatencyType.ON_TRIGGER));
+            status.setSessionCommitLatency(flowFileEvent.getLatencyDistribution(LatencyType.SESSION_COMMIT));
 
             if (isProcessorAuthorized) {
                 status.setCounters(flowFileEvent.getCounters());
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.connectable;
+
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.FlowFileQueueFactory;
+import org.apache.nifi.scheduling.SchedulingStrategy;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestStandardConnection {
+
+    @Test
+    public void testTimerDrivenDestinationNotifiedOnlyWhenDemandDriven() {
+        final ProcessScheduler scheduler = mock(ProcessScheduler.class);
+        final Connectable destination = createDestination(SchedulingStrategy.TIMER_DRIVEN);
+
+        createConnection(scheduler, destination, false).triggerDestinationEvent();
+        verify(scheduler, never()).registerEvent(any(Connectable.class));
+
+        createConnection(scheduler, destination, true).triggerDestinationEvent();
+        verify(scheduler, times(1)).registerEvent(destination);
+    }
+
+    @Test
+    public void testEventDrivenDestinationAlwaysNotified() {
+        final ProcessScheduler scheduler = mock(ProcessScheduler.class);
+        final Connectable destination = createDestination(SchedulingStrategy.EVENT_DRIVEN);
+
+        createConnection(scheduler, destination, false).triggerDestinationEvent();
+        verify(scheduler, times(1)).registerEvent(destination);
+    }
+
+    @Test
+    public void testCronDrivenDestinationNeverNotified() {
+        final ProcessScheduler scheduler = mock(ProcessScheduler.class);
+        final Connectable destination = createDestination(SchedulingStrategy.CRON_DRIVEN);
+
+        createConnection(scheduler, destination, true).triggerDestinationEvent();
+        verify(scheduler, never()).registerEvent(any(Connectable.class));
+    }
+
+    private Connectable createDestination(final SchedulingStrategy schedulingStrategy) {
+        final Connectable destination = mock(Connectable.class);
+        when(destination.getSchedulingStrategy()).thenReturn(schedulingStrategy);
+        return destination;
+    }
+
+    private StandardConnection createConnection(final ProcessScheduler scheduler, final Connectable destination, final boolean demandDrivenScheduling) {
+        final Connectable source = mock(Connectable.class);
+        when(source.getConnectableType()).thenReturn(ConnectableType.FUNNEL);
+
+        final FlowFileQueueFactory queueFactory = (loadBalanceStrategy, partitioningAttribute, eventListener) -> mock(FlowFileQueue.class);
+        return new StandardConnection.Builder(scheduler)
+            .source(source)
+            .destination(destination)
+            .flowFileQueueFactory(queueFactory)
+            .demandDrivenScheduling(demandDrivenScheduling)
+            .build();
+    }
+}
@@ -21,8 +21,10 @@ import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.swap.MockFlowFile;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.junit.Assert;
@@ -40,10 +42,14 @@ import java.io.OutputStream;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -146,13 +152,105 @@ public class TestFileSystemSwapManager {
         assertEquals(10000, contents.getFlowFiles().size());
     }
 
+    @Test
+    public void testPrefetchedSwapFileIsSwappedIn() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(new FileSystemSwapManager(Paths.get("target/prefetch")), flowFileRepo);
+
+        final List<FlowFileRecord> flowFileRecords = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final Map<String, String> attributes = new HashMap<>();
+            attributes.put("index", String.valueOf(i));
+            flowFileRecords.add(new MockFlowFile(attributes, i, (ContentClaim) null));
+        }
+
+        final long initialCount = FileSystemSwapManager.getPrefetchedFlowFileCount();
+        final String swapLocation = swapManager.swapOut(flowFileRecords, flowFileQueue, null);
+        swapManager.prefetch(swapLocation, flowFileQueue);
+        swapManager.prefetch(swapLocation, flowFileQueue);
+
+        final SwapContents contents = swapManager.swapIn(swapLocation, flowFileQueue);
+        assertEquals(1000, contents.getFlowFiles().size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(String.valueOf(i), contents.getFlowFiles().get(i).getAttribute("index"));
+        }
+
+        assertFalse(new File(swapLocation).exists());
+        assertEquals(initialCount, FileSystemSwapManager.getPrefetchedFlowFileCount());
+        Mockito.verify(flowFileRepo).swapFlowFilesIn(Mockito.eq(swapLocation), Mockito.anyList(), Mockito.eq(flowFileQueue));
+    }
+
+    @Test(timeout = 10000)
+    public void testPrefetchedFlowFilesAreReleased() throws IOException, InterruptedException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager swapManager = createSwapManager(new FileSystemSwapManager(Paths.get("target/prefetch-release")), flowFileRepo);
+
+        final List<FlowFileRecord> flowFileRecords = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            flowFileRecords.add(new MockFlowFile(Collections.emptyMap(), i, (ContentClaim) null));
+        }
+
+        final long initialCount = FileSystemSwapManager.getPrefetchedFlowFileCount();
+        final String swapLocation = swapManager.swapOut(flowFileRecords, flowFileQueue, null);
+        swapManager.prefetch(swapLocation, flowFileQueue);
+        while (FileSystemSwapManager.getPrefetchedFlowFileCount() == initialCount) {
+            Thread.sleep(10L);
+        }
+        assertEquals(initialCount + 1000, FileSystemSwapManager.getPrefetchedFlowFileCount());
+
+        swapManager.purge();
+        assertEquals(initialCount, FileSystemSwapManager.getPrefetchedFlowFileCount());
+        assertFalse(new File(swapLocation).exists());
+
+        final String nextLocation = swapManager.swapOut(flowFileRecords, flowFileQueue, null);
+        swapManager.shutdown();
+        swapManager.prefetch(nextLocation, flowFileQueue);
+        assertEquals(initialCount, FileSystemSwapManager.getPrefetchedFlowFileCount());
+
+        final SwapContents contents = swapManager.swapIn(nextLocation, flowFileQueue);
+        assertEquals(1000, contents.getFlowFiles().size());
+    }
+
+    @Test
+    public void testSwapInUncompressedSwapFile() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+        final FileSystemSwapManager uncompressedSwapManager = createSwapManager(new FileSystemSwapManager(Paths.get("target/uncompressed"), false), flowFileRepo);
+        final FileSystemSwapManager compressedSwapManager = createSwapManager(new FileSystemSwapManager(Paths.get("target/uncompressed"), true), flowFileRepo);
+
+        final List<FlowFileRecord> flowFileRecords = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            flowFileRecords.add(new MockFlowFile(Collections.emptyMap(), i, (ContentClaim) null));
+        }
+
+        final String swapLocation = uncompressedSwapManager.swapOut(flowFileRecords, flowFileQueue, null);
+        assertEquals(1000, compressedSwapManager.getSwapSummary(swapLocation).getQueueSize().getObjectCount());
+
+        final SwapContents contents = compressedSwapManager.swapIn(swapLocation, flowFileQueue);
+        assertEquals(1000, contents.getFlowFiles().size());
+    }
+
     private FileSystemSwapManager createSwapManager() {
         final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
         return createSwapManager(flowFileRepo);
     }
 
     private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo) {
-        final FileSystemSwapManager swapManager = new FileSystemSwapManager();
+        return createSwapManager(new FileSystemSwapManager(), flowFileRepo);
+    }
+
+    private FileSystemSwapManager createSwapManager(final FileSystemSwapManager swapManager, final FlowFileRepository flowFileRepo) {
         final ResourceClaimManager resourceClaimManager = new NopResourceClaimManager();
         swapManager.initialize(new SwapManagerInitializationContext() {
             @Override
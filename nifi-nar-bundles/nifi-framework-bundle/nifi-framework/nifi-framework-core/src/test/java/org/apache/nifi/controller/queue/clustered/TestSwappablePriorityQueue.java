@@ -28,6 +28,7 @@ import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.apache.nifi.processor.FlowFileFilter;
 import org.apache.nifi.reporting.Severity;
 import org.apache.nifi.util.MockFlowFile;
 import org.apache.nifi.util.StringUtils;
@@ -41,6 +42,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -80,6 +84,156 @@ public class TestSwappablePriorityQueue {
         queue = new SwappablePriorityQueue(swapManager, 10000, eventReporter, flowFileQueue, dropAction, "local");
     }
 
+    @Test
+    public void testNoPrioritizersPollsInArrivalOrder() {
+        for (int i = 0; i < 100; i++) {
+            queue.put(new MockFlowFile(100 - i));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            final FlowFileRecord polled = queue.poll(Collections.emptySet(), 0L);
+            assertEquals(100 - i, polled.getId());
+        }
+
+        assertNull(queue.poll(Collections.emptySet(), 0L));
+        assertEquals(100, queue.size().getObjectCount());
+        assertEquals(0, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+    }
+
+    @Test
+    public void testNoPrioritizersPenalizedFlowFilesPolledLast() {
+        final MockFlowFile penalized = new MockFlowFile(1L) {
+            @Override
+            public boolean isPenalized() {
+                return true;
+            }
+        };
+
+        queue.put(penalized);
+        queue.put(new MockFlowFile(2L));
+        queue.put(new MockFlowFile(3L));
+
+        assertTrue(queue.isFlowFileAvailable());
+
+        final Set<FlowFileRecord> expired = new HashSet<>();
+        final List<FlowFileRecord> polled = queue.poll(10, expired, 0L);
+        assertEquals(2, polled.size());
+        assertEquals(2L, polled.get(0).getId());
+        assertEquals(3L, polled.get(1).getId());
+
+        assertFalse(queue.isFlowFileAvailable());
+        assertNull(queue.poll(expired, 0L));
+        assertEquals(1, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+    }
+
+    @Test
+    public void testNoPrioritizersFilterRetainsOrderOfUnselected() {
+        for (int i = 0; i < 10; i++) {
+            queue.put(new MockFlowFile(i));
+        }
+
+        final List<FlowFileRecord> selected = queue.poll(flowFile -> flowFile.getId() % 2 == 0 ? FlowFileFilter.FlowFileFilterResult.ACCEPT_AND_CONTINUE
+            : FlowFileFilter.FlowFileFilterResult.REJECT_AND_CONTINUE, new HashSet<>(), 0L);
+        assertEquals(5, selected.size());
+
+        for (int i = 1; i < 10; i += 2) {
+            assertEquals(i, queue.poll(Collections.emptySet(), 0L).getId());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentPutAndPollWithoutPrioritizers() throws InterruptedException {
+        final int threadCount = 4;
+        final int flowFilesPerThread = 25000;
+        final int totalFlowFiles = threadCount * flowFilesPerThread;
+
+        final Set<Long> polledIds = ConcurrentHashMap.newKeySet();
+        final AtomicInteger polledCount = new AtomicInteger(0);
+        final CountDownLatch completionLatch = new CountDownLatch(threadCount * 2);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < flowFilesPerThread; i++) {
+                    queue.put(new MockFlowFile((long) threadIndex * flowFilesPerThread + i));
+                }
+                completionLatch.countDown();
+            }));
+
+            threads.add(new Thread(() -> {
+                while (polledCount.get() < totalFlowFiles) {
+                    final List<FlowFileRecord> polled = queue.poll(10, new HashSet<>(), 0L);
+                    for (final FlowFileRecord flowFile : polled) {
+                        assertTrue(polledIds.add(flowFile.getId()));
+                    }
+
+                    queue.acknowledge(polled);
+                    polledCount.addAndGet(polled.size());
+                }
+                completionLatch.countDown();
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        completionLatch.await();
+
+        assertEquals(totalFlowFiles, polledIds.size());
+        assertEquals(0, queue.size().getObjectCount());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentPutsDoNotExceedSwapThreshold() throws InterruptedException {
+        final int threadCount = 8;
+        final int flowFilesPerThread = 5000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            threads.add(new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (final InterruptedException ie) {
+                    return;
+                }
+
+                for (int i = 0; i < flowFilesPerThread; i++) {
+                    if (i % 2 == 0) {
+                        queue.put(new MockFlowFile((long) threadIndex * flowFilesPerThread + i));
+                    } else {
+                        queue.putAll(Collections.singletonList(new MockFlowFile((long) threadIndex * flowFilesPerThread + i)));
+                    }
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        startLatch.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(queue.getFlowFileQueueSize().getActiveCount() <= 10000);
+        assertEquals(threadCount * flowFilesPerThread, queue.size().getObjectCount());
+    }
+
+    @Test
+    public void testSetPrioritiesSwitchesBetweenPrioritizedAndArrivalOrder() {
+        queue.setPriorities(Collections.singletonList((o1, o2) -> Long.compare(o1.getId(), o2.getId())));
+        for (int i = 0; i < 10; i++) {
+            queue.put(new MockFlowFile(10 - i));
+        }
+        assertEquals(1L, queue.poll(new HashSet<>(), 0L).getId());
+
+        queue.setPriorities(Collections.emptyList());
+        queue.put(new MockFlowFile(0L));
+        final List<FlowFileRecord> polled = queue.poll(20, new HashSet<>(), 0L);
+        assertEquals(10, polled.size());
+        assertEquals(0L, polled.get(polled.size() - 1).getId());
+    }
+
     @Test
     public void testPrioritizersBigQueue() {
         final FlowFilePrioritizer iAttributePrioritizer = new FlowFilePrioritizer() {
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import ch.qos.logback.classic.Level;
@@ -40,6 +41,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -319,6 +322,117 @@ public class TestFileSystemRepository {
         assertNotSame(claim1.getResourceClaim(), claim2.getResourceClaim());
     }
 
+    private FileSystemRepository createDeduplicatingRepository(final String minSize) throws IOException {
+        final Map<String, String> addProps = new HashMap<>();
+        addProps.put(NiFiProperties.CONTENT_REPOSITORY_DEDUPLICATION_ENABLED, "true");
+        addProps.put(NiFiProperties.CONTENT_REPOSITORY_DEDUPLICATION_MIN_SIZE, minSize);
+        final NiFiProperties localProps = NiFiProperties.createBasicNiFiProperties(TestFileSystemRepository.class.getResource("/conf/nifi.properties").getFile(), addProps);
+        return new FileSystemRepository(localProps);
+    }
+
+    private ContentClaim writeContent(final byte[] content) throws IOException {
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(content);
+        }
+        return claim;
+    }
+
+    private static byte[] sha256(final byte[] content) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(content);
+    }
+
+    @Test
+    public void testDeduplicationDisabledByDefault() throws IOException, NoSuchAlgorithmException {
+        assertFalse(repository.isContentDeduplicationEnabled());
+
+        final byte[] content = "Hello, World".getBytes(StandardCharsets.UTF_8);
+        final ContentClaim claim = writeContent(content);
+        repository.registerContent(claim, 0L, content.length, sha256(content));
+        assertNull(repository.getIdenticalContent(sha256(content), content.length));
+    }
+
+    @Test
+    public void testIdenticalContentShared() throws IOException, NoSuchAlgorithmException {
+        shutdown();
+        repository = createDeduplicatingRepository("1 B");
+        claimManager = new StandardResourceClaimManager();
+        repository.initialize(claimManager);
+        assertTrue(repository.isContentDeduplicationEnabled());
+
+        // Write other content first so that the content of interest does not begin at the start of the Resource Claim
+        final ContentClaim precedingClaim = writeContent("preceding content".getBytes(StandardCharsets.UTF_8));
+        final byte[] content = "Hello, World".getBytes(StandardCharsets.UTF_8);
+        final ContentClaim claim = writeContent(content);
+        assertEquals(precedingClaim.getResourceClaim(), claim.getResourceClaim());
+        final byte[] digest = sha256(content);
+        repository.registerContent(claim, 0L, content.length, digest);
+
+        assertNull(repository.getIdenticalContent(digest, content.length - 1));
+        assertNull(repository.getIdenticalContent(sha256(new byte[content.length]), content.length));
+
+        final ContentClaim identical = repository.getIdenticalContent(digest, content.length);
+        assertNotNull(identical);
+        assertEquals(claim.getResourceClaim(), identical.getResourceClaim());
+        assertEquals(claim.getOffset(), identical.getOffset());
+        assertEquals(content.length, identical.getLength());
+        assertEquals(3, repository.getClaimantCount(claim));
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final InputStream in = repository.read(identical)) {
+            StreamUtils.copy(in, baos);
+        }
+        assertArrayEquals(content, baos.toByteArray());
+
+        // Once nothing references the content any longer, it must not be handed out again, as it may be destroyed at any time.
+        repository.decrementClaimantCount(identical);
+        repository.decrementClaimantCount(claim);
+        repository.decrementClaimantCount(precedingClaim);
+        assertNull(repository.getIdenticalContent(digest, content.length));
+    }
+
+    @Test
+    public void testContentBelowMinimumSizeNotDeduplicated() throws IOException, NoSuchAlgorithmException {
+        shutdown();
+        repository = createDeduplicatingRepository("1 KB");
+        claimManager = new StandardResourceClaimManager();
+        repository.initialize(claimManager);
+
+        final byte[] content = "Hello, World".getBytes(StandardCharsets.UTF_8);
+        final ContentClaim claim = writeContent(content);
+        repository.registerContent(claim, 0L, content.length, sha256(content));
+        assertNull(repository.getIdenticalContent(sha256(content), content.length));
+        assertEquals(1, repository.getClaimantCount(claim));
+    }
+
+    @Test
+    public void testDeduplicationIndexRecoveredAfterRestart() throws IOException, NoSuchAlgorithmException {
+        shutdown();
+        repository = createDeduplicatingRepository("1 B");
+        claimManager = new StandardResourceClaimManager();
+        repository.initialize(claimManager);
+
+        final byte[] content = "Hello, World".getBytes(StandardCharsets.UTF_8);
+        final ContentClaim claim = writeContent(content);
+        final byte[] digest = sha256(content);
+        repository.registerContent(claim, 0L, content.length, digest);
+        repository.shutdown();
+
+        repository = createDeduplicatingRepository("1 B");
+        claimManager = new StandardResourceClaimManager();
+        repository.initialize(claimManager);
+
+        // The FlowFile Repository restores the references to Resource Claims on restart
+        final ResourceClaim original = claim.getResourceClaim();
+        final ResourceClaim restored = claimManager.newResourceClaim(original.getContainer(), original.getSection(), original.getId(), false, false);
+        claimManager.incrementClaimantCount(restored);
+
+        final ContentClaim identical = repository.getIdenticalContent(digest, content.length);
+        assertNotNull(identical);
+        assertEquals(restored, identical.getResourceClaim());
+        assertEquals(2, claimManager.getClaimantCount(restored));
+    }
+
     @Test
     public void testWriteWithNoContent() throws IOException {
         final ContentClaim claim1 = repository.create(false);
@@ -476,6 +590,115 @@ public class TestFileSystemRepository {
         assertTrue(Arrays.equals(doubleExpected, Files.readAllBytes(outPath)));
     }
 
+    @Test
+    public void testImportFromFileSpanningMultipleWrites() throws IOException {
+        final byte[] expected = new byte[3 * 1024 * 1024 + 17];
+        new Random().nextBytes(expected);
+        final Path sourcePath = new File("target/testImportFromLargeFile").toPath();
+        Files.write(sourcePath, expected);
+
+        final ContentClaim claim = repository.create(false);
+        assertEquals(expected.length, repository.importFrom(sourcePath, claim));
+        assertEquals(expected.length, claim.getLength());
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final InputStream in = repository.read(claim)) {
+            StreamUtils.copy(in, baos);
+        }
+        assertArrayEquals(expected, baos.toByteArray());
+
+        // The next claim must begin where this one ended, even though it may share the same Resource Claim.
+        final ContentClaim nextClaim = repository.create(false);
+        try (final OutputStream out = repository.write(nextClaim)) {
+            out.write("next".getBytes(StandardCharsets.UTF_8));
+        }
+        final ByteArrayOutputStream nextContents = new ByteArrayOutputStream();
+        repository.exportTo(nextClaim, nextContents);
+        assertEquals("next", new String(nextContents.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportToFileWithOffsetAndLength() throws IOException {
+        final ContentClaim previousClaim = repository.create(false);
+        try (final OutputStream out = repository.write(previousClaim)) {
+            out.write("previous".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("hello world".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final Path outPath = new File("target/testExportToFileWithOffsetAndLength").toPath();
+        Files.deleteIfExists(outPath);
+
+        assertEquals(5L, repository.exportTo(claim, outPath, false, 6L, 5L));
+        assertEquals("world", new String(Files.readAllBytes(outPath), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testChannelTransferMatchesStreamCopy() throws IOException {
+        final byte[] expected = new byte[1024 * 1024 + 3];
+        new Random().nextBytes(expected);
+        final Path sourcePath = new File("target/testChannelTransferMatchesStreamCopy.bin").toPath();
+        Files.write(sourcePath, expected);
+
+        repository.shutdown();
+        for (final boolean channelTransfer : new boolean[] {false, true}) {
+            repository = new FileSystemRepository(nifiProperties) {
+                @Override
+                protected boolean isChannelTransferSupported() {
+                    return channelTransfer;
+                }
+            };
+            repository.initialize(claimManager);
+            repository.purge();
+
+            final ContentClaim claim = repository.create(false);
+            assertEquals(expected.length, repository.importFrom(sourcePath, claim));
+
+            final Path exportPath = new File("target/testChannelTransferMatchesStreamCopy.out").toPath();
+            Files.deleteIfExists(exportPath);
+            assertEquals(expected.length - 10L, repository.exportTo(claim, exportPath, false, 10L, expected.length - 10L));
+            assertArrayEquals(Arrays.copyOfRange(expected, 10, expected.length), Files.readAllBytes(exportPath));
+
+            final ContentClaim merged = repository.create(false);
+            repository.merge(Arrays.asList(claim, claim), merged, null, null, null);
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            repository.exportTo(merged, baos);
+            final byte[] mergedBytes = baos.toByteArray();
+            assertEquals(2 * expected.length, mergedBytes.length);
+            assertArrayEquals(expected, Arrays.copyOfRange(mergedBytes, 0, expected.length));
+            assertArrayEquals(expected, Arrays.copyOfRange(mergedBytes, expected.length, mergedBytes.length));
+
+            repository.shutdown();
+        }
+
+        repository = new FileSystemRepository(nifiProperties);
+        repository.initialize(claimManager);
+    }
+
+    @Test
+    public void testExportToContentRepositoryStream() throws IOException {
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("hello world".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final ContentClaim destination = repository.create(false);
+        try (final OutputStream out = repository.write(destination)) {
+            out.write('[');
+            assertEquals(5L, repository.exportTo(claim, out, 6L, 5L));
+            assertEquals(11L, repository.exportTo(claim, out));
+            out.write(']');
+        }
+
+        assertEquals(18L, destination.getLength());
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        repository.exportTo(destination, baos);
+        assertEquals("[worldhello world]", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     @Test
     public void testSize() throws IOException {
         final ContentClaim claim = repository.create(true);
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.controller.ComponentNode;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+public class TestProvenanceCaptureConfiguration {
+
+    @Test
+    public void testNothingConfigured() {
+        final ProvenanceCaptureConfiguration configuration = ProvenanceCaptureConfiguration.create(createProperties(new HashMap<>()));
+        assertSame(ProvenanceCapturePolicy.CAPTURE_ALL, configuration.getPolicy(createConnectable("UpdateAttribute", "child", "parent")));
+    }
+
+    @Test
+    public void testRetainedAttributes() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.PROVENANCE_CAPTURE_ATTRIBUTES, "a, b");
+        properties.put(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES, "indexed");
+        final ProvenanceCaptureConfiguration configuration = ProvenanceCaptureConfiguration.create(createProperties(properties));
+
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("a", "1");
+        attributes.put("c", "3");
+        attributes.put("indexed", "4");
+        attributes.put("filename", "5");
+
+        final Map<String, String> expected = new HashMap<>(attributes);
+        expected.remove("c");
+
+        assertEquals(expected, configuration.getPolicy(createConnectable("UpdateAttribute", "child", "parent")).retainAttributes(attributes));
+    }
+
+    @Test
+    public void testMostSpecificSettingWins() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.PROVENANCE_CAPTURE_ATTRIBUTES, "a");
+        properties.put(NiFiProperties.PROVENANCE_CAPTURE_PREFIX + "group.parent.attributes", "*");
+        properties.put(NiFiProperties.PROVENANCE_CAPTURE_PREFIX + "type.org.apache.nifi.processors.attributes.UpdateAttribute.attributes", "b");
+        final ProvenanceCaptureConfiguration configuration = ProvenanceCaptureConfiguration.create(createProperties(properties));
+
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("a", "1");
+        attributes.put("b", "2");
+
+        // settings of the parent group apply to the child group
+        assertEquals(attributes, configuration.getPolicy(createConnectable("LogAttribute", "child", "parent")).retainAttributes(attributes));
+        assertEquals(singleton("a", "1"), configuration.getPolicy(createConnectable("LogAttribute", "other", null)).retainAttributes(attributes));
+        assertEquals(singleton("b", "2"), configuration.getPolicy(createConnectable("UpdateAttribute", "child", "parent")).retainAttributes(attributes));
+    }
+
+    @Test
+    public void testSampling() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.PROVENANCE_CAPTURE_PREFIX + "sample.CONTENT_MODIFIED", "4");
+        properties.put(NiFiProperties.PROVENANCE_CAPTURE_PREFIX + "sample.ATTRIBUTES_MODIFIED", "0");
+        properties.put(NiFiProperties.PROVENANCE_CAPTURE_PREFIX + "sample.FORK", "0");
+        final ProvenanceCaptureConfiguration configuration = ProvenanceCaptureConfiguration.create(createProperties(properties));
+        final ProvenanceCapturePolicy policy = configuration.getPolicy(createConnectable("UpdateAttribute", "child", null));
+
+        assertTrue(policy.isSampling());
+        assertFalse(policy.isCaptured(createEvent(ProvenanceEventType.ATTRIBUTES_MODIFIED, "1")));
+
+        // lineage events cannot be sampled
+        assertTrue(policy.isCaptured(createEvent(ProvenanceEventType.FORK, "1")));
+
+        int captured = 0;
+        for (int i = 0; i < 1000; i++) {
+            final String uuid = "flowfile-" + i;
+            final boolean isCaptured = policy.isCaptured(createEvent(ProvenanceEventType.CONTENT_MODIFIED, uuid));
+            if (isCaptured) {
+                captured++;
+            }
+
+            // the same FlowFile is always either captured or not
+            assertEquals(isCaptured, policy.isCaptured(createEvent(ProvenanceEventType.CONTENT_MODIFIED, uuid)));
+        }
+
+        assertTrue(captured > 150 && captured < 350);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSamplingInterval() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.PROVENANCE_CAPTURE_PREFIX + "sample.CONTENT_MODIFIED", "often");
+        ProvenanceCaptureConfiguration.create(createProperties(properties));
+    }
+
+    private NiFiProperties createProperties(final Map<String, String> properties) {
+        return NiFiProperties.createBasicNiFiProperties(null, properties);
+    }
+
+    private Map<String, String> singleton(final String key, final String value) {
+        final Map<String, String> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+
+    private Connectable createConnectable(final String type, final String groupId, final String parentGroupId) {
+        ProcessGroup parentGroup = null;
+        if (parentGroupId != null) {
+            parentGroup = Mockito.mock(ProcessGroup.class);
+            when(parentGroup.getIdentifier()).thenReturn(parentGroupId);
+        }
+
+        final ProcessGroup group = Mockito.mock(ProcessGroup.class);
+        when(group.getIdentifier()).thenReturn(groupId);
+        when(group.getParent()).thenReturn(parentGroup);
+
+        final Connectable connectable = Mockito.mock(Connectable.class, Mockito.withSettings().extraInterfaces(ComponentNode.class));
+        when(connectable.getComponentType()).thenReturn(type);
+        when(((ComponentNode) connectable).getCanonicalClassName()).thenReturn("org.apache.nifi.processors.attributes." + type);
+        when(connectable.getProcessGroup()).thenReturn(group);
+        return connectable;
+    }
+
+    private ProvenanceEventRecord createEvent(final ProvenanceEventType eventType, final String flowFileUuid) {
+        final ProvenanceEventRecord event = Mockito.mock(ProvenanceEventRecord.class);
+        when(event.getEventType()).thenReturn(eventType);
+        when(event.getFlowFileUuid()).thenReturn(flowFileUuid);
+        return event;
+    }
+}
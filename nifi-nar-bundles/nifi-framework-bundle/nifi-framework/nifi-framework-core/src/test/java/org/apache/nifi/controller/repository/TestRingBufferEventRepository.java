@@ -76,6 +76,32 @@ public class TestRingBufferEventRepository {
         repo.close();
     }
 
+    @Test
+    public void testLatencyDistributionsReported() throws IOException {
+        final FlowFileEventRepository repo = new RingBufferEventRepository(5);
+        repo.updateRepository(generateEvent(), "component1");
+        repo.updateRepository(generateEvent(), "component2");
+
+        for (int i = 0; i < 100; i++) {
+            repo.recordLatency("component1", LatencyType.ON_TRIGGER, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        repo.recordLatency("component1", LatencyType.SESSION_COMMIT, TimeUnit.MILLISECONDS.toNanos(2));
+
+        final RepositoryStatusReport report = repo.reportTransferEvents(System.currentTimeMillis());
+        final FlowFileEvent entry = report.getReportEntry("component1");
+        Assert.assertEquals(100L, entry.getLatencyDistribution(LatencyType.ON_TRIGGER).getCount());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(5), entry.getLatencyDistribution(LatencyType.ON_TRIGGER).getMaxNanos());
+        Assert.assertEquals(1L, entry.getLatencyDistribution(LatencyType.SESSION_COMMIT).getCount());
+
+        Assert.assertNull(report.getReportEntry("component2").getLatencyDistribution(LatencyType.ON_TRIGGER));
+
+        repo.purgeTransferEvents("component1");
+        repo.updateRepository(generateEvent(), "component1");
+        Assert.assertNull(repo.reportTransferEvents("component1", System.currentTimeMillis()).getLatencyDistribution(LatencyType.ON_TRIGGER));
+
+        repo.close();
+    }
+
     private FlowFileEvent generateEvent() {
         return new FlowFileEvent() {
             @Override
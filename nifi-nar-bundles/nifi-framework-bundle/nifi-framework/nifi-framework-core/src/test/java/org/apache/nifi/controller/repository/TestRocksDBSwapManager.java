@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+public class TestRocksDBSwapManager {
+
+    private static final String QUEUE_ID = "87bb99fe-412c-49f6-a441-d1b0af4e20b4";
+
+    private final Map<String, String> additionalProperties = new HashMap<>();
+    private final Map<Long, FlowFileRecord> queuedFlowFiles = new ConcurrentHashMap<>();
+    private NiFiProperties nifiProperties;
+    private ResourceClaimManager claimManager;
+    private FlowFileQueue queue;
+    private QueueProvider queueProvider;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupClass() {
+        Assume.assumeTrue("Test only runs on *nix", !SystemUtils.IS_OS_WINDOWS);
+    }
+
+    @Before
+    public void before() throws IOException {
+        additionalProperties.put(NiFiProperties.FLOWFILE_REPOSITORY_DIRECTORY, temporaryFolder.newFolder().getAbsolutePath());
+
+        final File properties = temporaryFolder.newFile();
+        Files.copy(Paths.get("src/test/resources/conf/nifi.properties"), properties.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        nifiProperties = NiFiProperties.createBasicNiFiProperties(properties.getAbsolutePath(), additionalProperties);
+
+        claimManager = new StandardResourceClaimManager();
+
+        queue = Mockito.mock(FlowFileQueue.class);
+        when(queue.getIdentifier()).thenReturn(QUEUE_ID);
+        doAnswer(invocation -> {
+            final FlowFileRecord flowFile = invocation.getArgument(0);
+            queuedFlowFiles.put(flowFile.getId(), flowFile);
+            return null;
+        }).when(queue).put(any(FlowFileRecord.class));
+
+        queueProvider = () -> Collections.singletonList(queue);
+    }
+
+    @Test
+    public void testSwapOutAndSwapInSurviveRestart() throws IOException {
+        final ResourceClaim resourceClaim = claimManager.newResourceClaim("container", "section", "1", false, false);
+        final ContentClaim contentClaim = new StandardContentClaim(resourceClaim, 0L);
+
+        final List<FlowFileRecord> toSwap = new ArrayList<>();
+        String swapLocation;
+        try (final RocksDBFlowFileRepository repo = createRepository()) {
+            final List<FlowFileRecord> flowFiles = createFlowFiles(repo, 1, 10, contentClaim);
+            toSwap.addAll(flowFiles.subList(5, 10));
+
+            final RocksDBSwapManager swapManager = createSwapManager(repo);
+            swapLocation = swapManager.swapOut(toSwap, queue, null);
+            assertEquals(QUEUE_ID, swapManager.getQueueIdentifier(swapLocation));
+            assertEquals(5L, repo.getInMemoryFlowFiles());
+        }
+
+        // After restarting, only the FlowFiles that were not swapped out should be loaded into the queue
+        queuedFlowFiles.clear();
+        try (final RocksDBFlowFileRepository repo = createRepository()) {
+            repo.loadFlowFiles(queueProvider);
+            assertEquals(5, queuedFlowFiles.size());
+            for (long id = 1; id <= 5; id++) {
+                assertTrue(queuedFlowFiles.containsKey(id));
+            }
+
+            final RocksDBSwapManager swapManager = createSwapManager(repo);
+            assertEquals(Collections.singletonList(swapLocation), swapManager.recoverSwapLocations(queue, null));
+
+            final SwapSummary summary = swapManager.getSwapSummary(swapLocation);
+            assertEquals(5, summary.getQueueSize().getObjectCount());
+            assertEquals(50L, summary.getQueueSize().getByteCount());
+            assertEquals(Long.valueOf(10L), summary.getMaxFlowFileId());
+            assertEquals(5, summary.getResourceClaims().size());
+            assertEquals(resourceClaim, summary.getResourceClaims().get(0));
+
+            final SwapContents swapContents = swapManager.swapIn(swapLocation, queue);
+            assertEquals(5, swapContents.getFlowFiles().size());
+            for (int i = 0; i < 5; i++) {
+                final FlowFileRecord swappedIn = swapContents.getFlowFiles().get(i);
+                assertEquals(toSwap.get(i).getId(), swappedIn.getId());
+                assertEquals(toSwap.get(i).getAttributes(), swappedIn.getAttributes());
+                assertEquals(contentClaim, swappedIn.getContentClaim());
+            }
+
+            assertTrue(swapManager.recoverSwapLocations(queue, null).isEmpty());
+
+            try {
+                swapManager.swapIn(swapLocation, queue);
+                fail("Expected FileNotFoundException when swapping in the same location twice");
+            } catch (final FileNotFoundException expected) {
+            }
+        }
+
+        // After restarting again, all FlowFiles should be loaded into the queue
+        queuedFlowFiles.clear();
+        try (final RocksDBFlowFileRepository repo = createRepository()) {
+            repo.loadFlowFiles(queueProvider);
+            assertEquals(10, queuedFlowFiles.size());
+            assertTrue(createSwapManager(repo).recoverSwapLocations(queue, null).isEmpty());
+        }
+    }
+
+    @Test
+    public void testPeekDoesNotSwapIn() throws IOException {
+        try (final RocksDBFlowFileRepository repo = createRepository()) {
+            final List<FlowFileRecord> flowFiles = createFlowFiles(repo, 1, 3, null);
+
+            final RocksDBSwapManager swapManager = createSwapManager(repo);
+            final String swapLocation = swapManager.swapOut(flowFiles, queue, null);
+
+            assertEquals(3, swapManager.peek(swapLocation, queue).getFlowFiles().size());
+            assertEquals(3, swapManager.peek(swapLocation, queue).getFlowFiles().size());
+            assertEquals(0L, repo.getInMemoryFlowFiles());
+
+            assertEquals(3, swapManager.swapIn(swapLocation, queue).getFlowFiles().size());
+            assertEquals(3L, repo.getInMemoryFlowFiles());
+        }
+    }
+
+    @Test
+    public void testPartitions() throws IOException {
+        try (final RocksDBFlowFileRepository repo = createRepository()) {
+            final RocksDBSwapManager swapManager = createSwapManager(repo);
+
+            final String unpartitioned = swapManager.swapOut(createFlowFiles(repo, 1, 2, null), queue, null);
+            final String partitionA = swapManager.swapOut(createFlowFiles(repo, 3, 4, null), queue, "a");
+            assertTrue(partitionA.endsWith(".a.swap"));
+
+            assertEquals(Collections.singleton("a"), swapManager.getSwappedPartitionNames(queue));
+            assertEquals(Collections.singletonList(partitionA), swapManager.recoverSwapLocations(queue, "a"));
+            assertTrue(swapManager.recoverSwapLocations(queue, "b").isEmpty());
+
+            final String partitionB = swapManager.changePartitionName(partitionA, "b");
+            assertTrue(partitionB.endsWith(".b.swap"));
+            assertEquals(QUEUE_ID, swapManager.getQueueIdentifier(partitionB));
+
+            final Set<String> partitionNames = swapManager.getSwappedPartitionNames(queue);
+            assertEquals(Collections.singleton("b"), partitionNames);
+            assertTrue(swapManager.recoverSwapLocations(queue, "a").isEmpty());
+            assertEquals(Collections.singletonList(partitionB), swapManager.recoverSwapLocations(queue, "b"));
+
+            final List<String> allLocations = swapManager.recoverSwapLocations(queue, null);
+            assertEquals(2, allLocations.size());
+            assertTrue(allLocations.contains(unpartitioned));
+            assertTrue(allLocations.contains(partitionB));
+
+            assertEquals(2, swapManager.swapIn(partitionB, queue).getFlowFiles().size());
+        }
+    }
+
+    @Test
+    public void testSwapInRequiresOwningQueue() throws IOException {
+        final FlowFileQueue otherQueue = Mockito.mock(FlowFileQueue.class);
+        when(otherQueue.getIdentifier()).thenReturn("other-queue");
+
+        try (final RocksDBFlowFileRepository repo = createRepository()) {
+            final RocksDBSwapManager swapManager = createSwapManager(repo);
+            final String swapLocation = swapManager.swapOut(createFlowFiles(repo, 1, 2, null), queue, null);
+
+            try {
+                swapManager.swapIn(swapLocation, otherQueue);
+                fail("Expected IOException when swapping in to a queue that did not swap out the FlowFiles");
+            } catch (final IOException expected) {
+            }
+
+            try {
+                swapManager.peek(swapLocation, otherQueue);
+                fail("Expected IOException when peeking from a queue that did not swap out the FlowFiles");
+            } catch (final IOException expected) {
+            }
+
+            assertEquals(0L, repo.getInMemoryFlowFiles());
+            assertEquals(2, swapManager.swapIn(swapLocation, queue).getFlowFiles().size());
+        }
+    }
+
+    @Test
+    public void testPurge() throws IOException {
+        try (final RocksDBFlowFileRepository repo = createRepository()) {
+            final RocksDBSwapManager swapManager = createSwapManager(repo);
+            final String swapLocation = swapManager.swapOut(createFlowFiles(repo, 1, 2, null), queue, null);
+
+            swapManager.purge();
+            assertTrue(swapManager.recoverSwapLocations(queue, null).isEmpty());
+
+            try {
+                swapManager.peek(swapLocation, queue);
+                fail("Expected FileNotFoundException");
+            } catch (final FileNotFoundException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testGetQueueIdentifier() {
+        final RocksDBSwapManager swapManager = new RocksDBSwapManager();
+        assertEquals(QUEUE_ID, swapManager.getQueueIdentifier(RocksDBSwapManager.createSwapLocation("1590000000000-" + QUEUE_ID + "-6b5f8a1c-7c9d-4e0a-9b3f-1d2e3f4a5b6c", null)));
+        assertEquals("queue", swapManager.getQueueIdentifier(RocksDBSwapManager.createSwapLocation("1590000000000-queue-6b5f8a1c-7c9d-4e0a-9b3f-1d2e3f4a5b6c", "partition")));
+        assertNull(swapManager.getQueueIdentifier(RocksDBSwapManager.createSwapLocation("1590000000000-queue", null)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRequiresRocksDBFlowFileRepository() {
+        new RocksDBSwapManager().initialize(createInitializationContext(new VolatileFlowFileRepository()));
+    }
+
+    private RocksDBFlowFileRepository createRepository() throws IOException {
+        final RocksDBFlowFileRepository repo = new RocksDBFlowFileRepository(nifiProperties);
+        repo.initialize(claimManager);
+        return repo;
+    }
+
+    private RocksDBSwapManager createSwapManager(final RocksDBFlowFileRepository repo) {
+        final RocksDBSwapManager swapManager = new RocksDBSwapManager();
+        swapManager.initialize(createInitializationContext(repo));
+        return swapManager;
+    }
+
+    private SwapManagerInitializationContext createInitializationContext(final FlowFileRepository repo) {
+        return new SwapManagerInitializationContext() {
+            @Override
+            public FlowFileRepository getFlowFileRepository() {
+                return repo;
+            }
+
+            @Override
+            public ResourceClaimManager getResourceClaimManager() {
+                return claimManager;
+            }
+
+            @Override
+            public EventReporter getEventReporter() {
+                return EventReporter.NO_OP;
+            }
+        };
+    }
+
+    private List<FlowFileRecord> createFlowFiles(final RocksDBFlowFileRepository repo, final long firstId, final long lastId, final ContentClaim contentClaim) throws IOException {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        final Collection<RepositoryRecord> records = new ArrayList<>();
+        for (long id = firstId; id <= lastId; id++) {
+            final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                .id(id)
+                .addAttribute("uuid", "11111111-1111-1111-1111-" + String.format("%012d", id))
+                .addAttribute("index", String.valueOf(id))
+                .size(10L)
+                .contentClaim(contentClaim)
+                .build();
+            flowFiles.add(flowFile);
+
+            final StandardRepositoryRecord record = new StandardRepositoryRecord(queue);
+            record.setWorking(flowFile, false);
+            record.setDestination(queue);
+            records.add(record);
+        }
+
+        repo.updateRepository(records);
+        return flowFiles;
+    }
+}
@@ -69,6 +69,7 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -594,6 +595,40 @@ public class TestStandardProcessSession {
         assertArrayEquals(replacementContent, buffer);
     }
 
+    @Test
+    public void testMergeContiguousRangesReferencesExistingClaim() throws IOException {
+        final byte[] originalContent = "hello world".getBytes();
+        final ContentClaim originalClaim = contentRepo.create(originalContent);
+        final FlowFileRecord flowFileRecord = new StandardFlowFileRecord.Builder()
+            .id(1000L)
+            .addAttribute("uuid", "12345678-1234-1234-1234-123456789012")
+            .entryDate(System.currentTimeMillis())
+            .contentClaim(originalClaim)
+            .size(originalContent.length)
+            .build();
+        flowFileQueue.put(flowFileRecord);
+
+        final FlowFile original = session.get();
+        final FlowFile first = session.clone(original, 0L, 6L);
+        final FlowFile second = session.clone(original, 6L, 5L);
+
+        final FlowFile merged = session.merge(Arrays.asList(first, second), session.create());
+        assertEquals(originalContent.length, merged.getSize());
+        assertEquals(originalClaim, ((FlowFileRecord) merged).getContentClaim());
+        assertEquals(4, contentRepo.getClaimantCount(originalClaim));
+
+        final byte[] buffer = new byte[originalContent.length];
+        try (final InputStream in = session.read(merged)) {
+            StreamUtils.fillBuffer(in, buffer);
+        }
+        assertArrayEquals(originalContent, buffer);
+
+        // Once every FlowFile that references the claim is removed, no claimants should remain.
+        session.remove(Arrays.asList(original, first, second, merged));
+        session.commit();
+        assertEquals(0, contentRepo.getClaimantCount(originalClaim));
+    }
+
     @Test
     public void testEmbeddedReads() {
         FlowFile ff1 = session.write(session.create(), out -> out.write(new byte[] {'A', 'B'}));
@@ -930,6 +965,61 @@ public class TestStandardProcessSession {
         assertEquals(0, contentRepo.getExistingClaims().size());
     }
 
+    @Test
+    public void testWriteOfIdenticalContentReferencesExistingContent() throws IOException {
+        contentRepo.deduplicate = true;
+        final byte[] content = "Hello, World".getBytes(StandardCharsets.UTF_8);
+        final Relationship relationship = new Relationship.Builder().name("A").build();
+
+        FlowFile original = session.create();
+        original = session.write(original, out -> out.write(content));
+        session.transfer(original, relationship);
+        session.commit();
+
+        final ContentClaim originalClaim = ((FlowFileRecord) original).getContentClaim();
+        assertEquals(1, contentRepo.getClaimantCount(originalClaim));
+
+        final StandardProcessSession otherSession = new StandardProcessSession(context, () -> false);
+        FlowFile duplicate = otherSession.create();
+        duplicate = otherSession.write(duplicate, out -> out.write(content));
+        assertEquals(originalClaim, ((FlowFileRecord) duplicate).getContentClaim());
+        assertEquals(0L, ((FlowFileRecord) duplicate).getContentClaimOffset());
+        assertEquals(content.length, duplicate.getSize());
+        otherSession.transfer(duplicate, relationship);
+        otherSession.commit();
+
+        assertEquals(2, contentRepo.getClaimantCount(originalClaim));
+        assertEquals(1, contentRepo.getExistingClaims().size());
+
+        flowFileQueue.poll(Collections.emptySet());
+        final FlowFileRecord onQueue = flowFileQueue.poll(Collections.emptySet());
+        final byte[] buffer = new byte[content.length];
+        try (final InputStream in = contentRepo.read(onQueue.getContentClaim())) {
+            StreamUtils.fillBuffer(in, buffer);
+        }
+        assertArrayEquals(content, buffer);
+    }
+
+    @Test
+    public void testContentNotDeduplicatedAgainstRolledBackSession() throws IOException {
+        contentRepo.deduplicate = true;
+        final byte[] content = "Hello, World".getBytes(StandardCharsets.UTF_8);
+        final Relationship relationship = new Relationship.Builder().name("A").build();
+
+        FlowFile rolledBack = session.create();
+        rolledBack = session.write(rolledBack, out -> out.write(content));
+        final ContentClaim rolledBackClaim = ((FlowFileRecord) rolledBack).getContentClaim();
+        session.rollback();
+
+        FlowFile flowFile = session.create();
+        flowFile = session.write(flowFile, out -> out.write(content));
+        assertNotEquals(rolledBackClaim, ((FlowFileRecord) flowFile).getContentClaim());
+        session.transfer(flowFile, relationship);
+        session.commit();
+
+        assertEquals(1, contentRepo.getExistingClaims().size());
+    }
+
     private void assertDisabled(final OutputStream outputStream) {
         try {
             outputStream.write(new byte[0]);
@@ -1998,6 +2088,71 @@ public class TestStandardProcessSession {
         assertEquals(ProvenanceEventType.ATTRIBUTES_MODIFIED, event.getEventType());
     }
 
+    @Test
+    public void testAttributesRetainedByCapturePolicy() throws IOException {
+        final Map<String, String> captureProperties = new HashMap<>();
+        captureProperties.put(NiFiProperties.PROVENANCE_CAPTURE_ATTRIBUTES, "attr");
+        final StandardProcessSession captureSession = createSession(captureProperties);
+
+        final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                .id(1L)
+                .addAttribute("uuid", "000000000000-0000-0000-0000-00000000")
+                .addAttribute("unused", "x")
+                .build();
+        this.flowFileQueue.put(flowFile);
+
+        FlowFile existingFlowFile = captureSession.get();
+        existingFlowFile = captureSession.putAttribute(existingFlowFile, "attr", "a");
+        existingFlowFile = captureSession.putAttribute(existingFlowFile, "other", "b");
+        captureSession.transfer(existingFlowFile, new Relationship.Builder().name("A").build());
+        captureSession.commit();
+
+        final List<ProvenanceEventRecord> events = provenanceRepo.getEvents(0L, 10000);
+        assertEquals(1, events.size());
+
+        final ProvenanceEventRecord event = events.get(0);
+        assertEquals(Collections.singletonMap("uuid", "000000000000-0000-0000-0000-00000000"), event.getPreviousAttributes());
+        assertEquals(Collections.singletonMap("attr", "a"), event.getUpdatedAttributes());
+    }
+
+    @Test
+    public void testAttributesModifiedSampledByCapturePolicy() throws IOException {
+        final Map<String, String> captureProperties = new HashMap<>();
+        captureProperties.put(NiFiProperties.PROVENANCE_CAPTURE_PREFIX + "sample.ATTRIBUTES_MODIFIED", "0");
+        StandardProcessSession captureSession = createSession(captureProperties);
+
+        this.flowFileQueue.put(new StandardFlowFileRecord.Builder().id(1L).addAttribute("uuid", "000000000000-0000-0000-0000-00000000").build());
+
+        FlowFile existingFlowFile = captureSession.get();
+        existingFlowFile = captureSession.putAttribute(existingFlowFile, "attr", "a");
+        captureSession.transfer(existingFlowFile, new Relationship.Builder().name("A").build());
+        captureSession.commit();
+
+        assertTrue(provenanceRepo.getEvents(0L, 10000).isEmpty());
+
+        // a setting for the Process Group overrides the global setting
+        captureProperties.put(NiFiProperties.PROVENANCE_CAPTURE_PREFIX + "group.proc-group-identifier-1.sample.ATTRIBUTES_MODIFIED", "1");
+        captureSession = createSession(captureProperties);
+
+        this.flowFileQueue.put(new StandardFlowFileRecord.Builder().id(2L).addAttribute("uuid", "000000000000-0000-0000-0000-00000001").build());
+
+        existingFlowFile = captureSession.get();
+        existingFlowFile = captureSession.putAttribute(existingFlowFile, "attr", "b");
+        captureSession.transfer(existingFlowFile, new Relationship.Builder().name("A").build());
+        captureSession.commit();
+
+        final List<ProvenanceEventRecord> events = provenanceRepo.getEvents(0L, 10000);
+        assertEquals(1, events.size());
+        assertEquals(ProvenanceEventType.ATTRIBUTES_MODIFIED, events.get(0).getEventType());
+    }
+
+    private StandardProcessSession createSession(final Map<String, String> captureProperties) {
+        final NiFiProperties properties = NiFiProperties.createBasicNiFiProperties(null, captureProperties);
+        final RepositoryContext captureContext = new RepositoryContext(connectable, new AtomicLong(0L), contentRepo, flowFileRepo, flowFileEventRepository, counterRepository,
+            provenanceRepo, ProvenanceCaptureConfiguration.create(properties));
+        return new StandardProcessSession(captureContext, () -> false);
+    }
+
     @Test
     public void testReadFromInputStream() throws IOException {
         FlowFile flowFile = session.create();
@@ -2431,6 +2586,8 @@ public class TestStandardProcessSession {
         private final AtomicLong claimsRemoved = new AtomicLong(0L);
         private ResourceClaimManager claimManager;
         private boolean disableRead = false;
+        private boolean deduplicate = false;
+        private final ConcurrentMap<ByteBuffer, ContentClaim> contentByDigest = new ConcurrentHashMap<>();
 
         private final ConcurrentMap<ContentClaim, AtomicInteger> claimantCounts = new ConcurrentHashMap<>();
 
@@ -2677,5 +2834,31 @@ public class TestStandardProcessSession {
         public void initialize(ResourceClaimManager claimManager) throws IOException {
             this.claimManager = claimManager;
         }
+
+        @Override
+        public boolean isContentDeduplicationEnabled() {
+            return deduplicate;
+        }
+
+        @Override
+        public ContentClaim getIdenticalContent(byte[] digest, long length) {
+            final ContentClaim claim = contentByDigest.get(ByteBuffer.wrap(digest));
+            if (claim == null) {
+                return null;
+            }
+
+            final AtomicInteger count = claimantCounts.get(claim);
+            if (count == null || count.get() == 0) {
+                return null;
+            }
+
+            count.incrementAndGet();
+            return claim;
+        }
+
+        @Override
+        public void registerContent(ContentClaim claim, long claimOffset, long length, byte[] digest) {
+            contentByDigest.putIfAbsent(ByteBuffer.wrap(digest.clone()), claim);
+        }
     }
 }
@@ -61,6 +61,23 @@ public class TestStandardResourceClaimManager {
     }
 
 
+    @Test
+    public void testIncrementClaimantCountIfInUse() {
+        final StandardResourceClaimManager manager = new StandardResourceClaimManager();
+        final ResourceClaim claim = manager.newResourceClaim("container", "section", "1", false, false);
+
+        assertEquals(0, manager.incrementClaimantCountIfInUse(claim));
+        assertEquals(0, manager.getClaimantCount(claim));
+
+        manager.incrementClaimantCount(claim, true);
+        assertEquals(2, manager.incrementClaimantCountIfInUse(claim));
+
+        manager.decrementClaimantCount(claim);
+        manager.decrementClaimantCount(claim);
+        assertEquals(0, manager.incrementClaimantCountIfInUse(claim));
+        assertEquals(0, manager.getClaimantCount(claim));
+    }
+
     @Test
     @Ignore("Unit test was created to repeat a concurrency bug in StandardResourceClaimManager. "
         + "However, now that the concurrency bug has been fixed, the test will deadlock. Leaving here for now in case it's valuable before the commit is pushed")
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.status.LatencyDistribution;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestLatencyRecorder {
+
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        final LatencyRecorder recorder = new LatencyRecorder(5);
+        final long now = System.currentTimeMillis();
+
+        // 1 through 1000 milliseconds, so the nth percentile is n * 10 milliseconds
+        for (int i = 1; i <= 1000; i++) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(i), now);
+        }
+
+        final LatencyDistribution distribution = recorder.generateReport(now);
+        assertEquals(1000L, distribution.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), distribution.getMaxNanos());
+        assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(500), distribution.getMedianNanos());
+        assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(900), distribution.getPercentile90Nanos());
+        assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(990), distribution.getPercentile99Nanos());
+        assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(999), distribution.getPercentile999Nanos());
+    }
+
+    @Test
+    public void testTailLatencyVisible() {
+        final LatencyRecorder recorder = new LatencyRecorder(5);
+        final long now = System.currentTimeMillis();
+
+        for (int i = 0; i < 990; i++) {
+            recorder.record(TimeUnit.MICROSECONDS.toNanos(200), now);
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.record(TimeUnit.SECONDS.toNanos(30), now);
+        }
+
+        final LatencyDistribution distribution = recorder.generateReport(now);
+        assertWithinPrecision(TimeUnit.MICROSECONDS.toNanos(200), distribution.getPercentile99Nanos());
+        assertWithinPrecision(TimeUnit.SECONDS.toNanos(30), distribution.getPercentile999Nanos());
+        assertEquals(TimeUnit.SECONDS.toNanos(30), distribution.getMaxNanos());
+    }
+
+    @Test
+    public void testOldMinutesExpire() {
+        final LatencyRecorder recorder = new LatencyRecorder(5);
+        final long start = TimeUnit.MINUTES.toMillis(System.currentTimeMillis() / TimeUnit.MINUTES.toMillis(1));
+
+        recorder.record(TimeUnit.SECONDS.toNanos(10), start);
+        for (int minute = 1; minute <= 4; minute++) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(1), start + TimeUnit.MINUTES.toMillis(minute));
+        }
+
+        final LatencyDistribution withinWindow = recorder.generateReport(start + TimeUnit.MINUTES.toMillis(4) + 59_999L);
+        assertEquals(5L, withinWindow.getCount());
+        assertEquals(TimeUnit.SECONDS.toNanos(10), withinWindow.getMaxNanos());
+
+        // once the fifth minute begins, the first minute no longer lies within the 5 minute window, even before its bin is reused
+        final LatencyDistribution outsideWindow = recorder.generateReport(start + TimeUnit.MINUTES.toMillis(5));
+        assertEquals(4L, outsideWindow.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), outsideWindow.getMaxNanos());
+
+        recorder.record(TimeUnit.MILLISECONDS.toNanos(1), start + TimeUnit.MINUTES.toMillis(5));
+        final LatencyDistribution afterExpiration = recorder.generateReport(start + TimeUnit.MINUTES.toMillis(5));
+        assertEquals(5L, afterExpiration.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), afterExpiration.getMaxNanos());
+
+        assertNull(recorder.generateReport(start + TimeUnit.MINUTES.toMillis(20)));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final LatencyRecorder recorder = new LatencyRecorder(5);
+        final long now = System.currentTimeMillis();
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    recorder.record(TimeUnit.MICROSECONDS.toNanos(i % 1000), now);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(800_000L, recorder.generateReport(now).getCount());
+    }
+
+    @Test
+    public void testMemoryBounded() throws InterruptedException {
+        final LatencyRecorder recorder = new LatencyRecorder(5);
+        final long start = System.currentTimeMillis();
+
+        // a component that is never triggered concurrently allocates a single stripe per minute, however long it runs
+        for (int minute = 0; minute < 60; minute++) {
+            for (int i = 0; i < 1000; i++) {
+                recorder.record(TimeUnit.MICROSECONDS.toNanos(i), start + TimeUnit.MINUTES.toMillis(minute));
+            }
+        }
+        assertEquals(5L * LatencyHistogram.BUCKET_COUNT, recorder.getAllocatedCounterCount());
+
+        final long now = start + TimeUnit.MINUTES.toMillis(60);
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    recorder.record(TimeUnit.MICROSECONDS.toNanos(i), now);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(recorder.getAllocatedCounterCount() <= (4L + LatencyHistogram.MAX_STRIPE_COUNT) * LatencyHistogram.BUCKET_COUNT);
+        assertEquals(4000L + 160_000L, recorder.generateReport(now).getCount());
+    }
+
+    private void assertWithinPrecision(final long expected, final long actual) {
+        final double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue("Expected " + expected + " but was " + actual, error <= 1D / LatencyHistogram.SUB_BUCKET_COUNT);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.components.state.StateManagerProvider;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.RepositoryContext;
+import org.apache.nifi.encrypt.StringEncryptor;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.nar.ExtensionManager;
+import org.apache.nifi.processor.Processor;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+public class TestTimerDrivenSchedulingAgent {
+    private final String propsFile = TestTimerDrivenSchedulingAgent.class.getResource("/standardprocessschedulertest.nifi.properties").getFile();
+
+    private FlowEngine flowEngine;
+    private FlowController flowController;
+    private RepositoryContextFactory contextFactory;
+
+    @Before
+    public void setup() {
+        flowEngine = new FlowEngine(2, "Test Timer-Driven Process");
+
+        flowController = Mockito.mock(FlowController.class);
+        when(flowController.getStateManagerProvider()).thenReturn(Mockito.mock(StateManagerProvider.class));
+        when(flowController.getExtensionManager()).thenReturn(Mockito.mock(ExtensionManager.class));
+
+        final RepositoryContext repoContext = Mockito.mock(RepositoryContext.class);
+        when(repoContext.getFlowFileEventRepository()).thenReturn(Mockito.mock(FlowFileEventRepository.class));
+
+        contextFactory = Mockito.mock(RepositoryContextFactory.class);
+        when(contextFactory.newProcessContext(Mockito.any(Connectable.class), Mockito.any(AtomicLong.class))).thenReturn(repoContext);
+    }
+
+    @After
+    public void cleanup() {
+        flowEngine.shutdownNow();
+    }
+
+    private TimerDrivenSchedulingAgent createAgent(final boolean demandDriven) {
+        final Map<String, String> overrideProperties = new HashMap<>();
+        overrideProperties.put(NiFiProperties.BORED_YIELD_DURATION, "1 millis");
+        overrideProperties.put(NiFiProperties.DEMAND_DRIVEN_SCHEDULING_ENABLED, String.valueOf(demandDriven));
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties(propsFile, overrideProperties);
+
+        return new TimerDrivenSchedulingAgent(flowController, flowEngine, contextFactory, Mockito.mock(StringEncryptor.class), nifiProperties);
+    }
+
+    private Connectable createConnectable(final AtomicBoolean queueEmpty) {
+        final Connectable connectable = Mockito.mock(Connectable.class);
+        when(connectable.getIdentifier()).thenReturn("1234");
+        when(connectable.getConnectableType()).thenReturn(ConnectableType.PROCESSOR);
+        when(connectable.getRunnableComponent()).thenReturn(Mockito.mock(Processor.class));
+        when(connectable.getMaxConcurrentTasks()).thenReturn(1);
+        when(connectable.getSchedulingPeriod(Mockito.any(TimeUnit.class))).thenReturn(1L);
+        when(connectable.hasIncomingConnection()).thenReturn(true);
+
+        final FlowFileQueue queue = Mockito.mock(FlowFileQueue.class);
+        when(queue.isActiveQueueEmpty()).thenAnswer(invocation -> queueEmpty.get());
+
+        final Connection connection = Mockito.mock(Connection.class);
+        when(connection.getSource()).thenReturn(Mockito.mock(Connectable.class));
+        when(connection.getDestination()).thenReturn(connectable);
+        when(connection.getFlowFileQueue()).thenReturn(queue);
+        when(connectable.getIncomingConnections()).thenReturn(Collections.singletonList(connection));
+
+        return connectable;
+    }
+
+    private void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        final long maxTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for condition", System.currentTimeMillis() < maxTime);
+            Thread.sleep(5L);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testDemandDrivenParksUntilDataQueued() throws InterruptedException {
+        final TimerDrivenSchedulingAgent agent = createAgent(true);
+        final AtomicBoolean queueEmpty = new AtomicBoolean(true);
+        final Connectable connectable = createConnectable(queueEmpty);
+
+        final LifecycleState scheduleState = new LifecycleState();
+        agent.schedule(connectable, scheduleState);
+
+        // With no data queued, the trigger should park rather than continue polling for work.
+        waitFor(() -> agent.getParkedTriggerCount() == 1);
+        final long wastedWhileParked = agent.getWastedTriggerCount();
+        Thread.sleep(100L);
+        assertEquals(wastedWhileParked, agent.getWastedTriggerCount());
+        assertEquals(0L, agent.getProductiveTriggerCount());
+
+        // Queuing data should wake the trigger.
+        queueEmpty.set(false);
+        agent.onEvent(connectable);
+        assertEquals(1L, agent.getDemandWakeupCount());
+        waitFor(() -> agent.getProductiveTriggerCount() > 0);
+
+        // Once the queue drains, the trigger should park again.
+        queueEmpty.set(true);
+        waitFor(() -> agent.getParkedTriggerCount() == 1);
+
+        agent.unschedule(connectable, scheduleState);
+        assertEquals(0, agent.getParkedTriggerCount());
+    }
+
+    @Test(timeout = 20000)
+    public void testTimerDrivenDoesNotPark() throws InterruptedException {
+        final TimerDrivenSchedulingAgent agent = createAgent(false);
+        final Connectable connectable = createConnectable(new AtomicBoolean(true));
+
+        final LifecycleState scheduleState = new LifecycleState();
+        agent.schedule(connectable, scheduleState);
+
+        // Without demand-driven scheduling, the component continues to poll for work after the bored yield duration.
+        waitFor(() -> agent.getWastedTriggerCount() > 5);
+        assertFalse(agent.isDemandDriven());
+        assertEquals(0, agent.getParkedTriggerCount());
+
+        agent.unschedule(connectable, scheduleState);
+    }
+}
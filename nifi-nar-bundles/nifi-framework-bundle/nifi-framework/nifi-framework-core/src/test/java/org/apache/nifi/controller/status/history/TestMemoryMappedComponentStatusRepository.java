@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestMemoryMappedComponentStatusRepository {
+    private static final long START = TimeUnit.DAYS.toMillis(10_000L);
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1L);
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1L);
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final Map<String, String> properties = new HashMap<>();
+    private MemoryMappedComponentStatusRepository repository;
+
+    @Before
+    public void setup() throws IOException {
+        properties.put(NiFiProperties.COMPONENT_STATUS_REPOSITORY_DIRECTORY, tempFolder.newFolder().getAbsolutePath());
+        repository = createRepository();
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        repository.close();
+    }
+
+    private MemoryMappedComponentStatusRepository createRepository() throws IOException {
+        return new MemoryMappedComponentStatusRepository(NiFiProperties.createBasicNiFiProperties(null, properties));
+    }
+
+    private ProcessGroupStatus createGroupStatus(final int processorInputCount) {
+        final ProcessorStatus processorStatus = new ProcessorStatus();
+        processorStatus.setId("proc-1");
+        processorStatus.setGroupId("root");
+        processorStatus.setName("My Processor");
+        processorStatus.setType("GenerateFlowFile");
+        processorStatus.setInputCount(processorInputCount);
+
+        final ProcessGroupStatus groupStatus = new ProcessGroupStatus();
+        groupStatus.setId("root");
+        groupStatus.setName("Root");
+        groupStatus.setBytesRead(0L);
+        groupStatus.setBytesWritten(0L);
+        groupStatus.setInputContentSize(0L);
+        groupStatus.setInputCount(0);
+        groupStatus.setOutputContentSize(0L);
+        groupStatus.setOutputCount(0);
+        groupStatus.setQueuedContentSize(0L);
+        groupStatus.setQueuedCount(processorInputCount);
+        groupStatus.setProcessorStatus(processorInputCount > 0 ? Collections.singletonList(processorStatus) : Collections.emptyList());
+        return groupStatus;
+    }
+
+    private List<StatusSnapshot> getProcessorSnapshots(final Date start, final Date end, final int preferredDataPoints) {
+        return repository.getProcessorStatusHistory("proc-1", start, end, preferredDataPoints, false).getStatusSnapshots();
+    }
+
+    private long getInputCount(final StatusSnapshot snapshot) {
+        return snapshot.getStatusMetric(ProcessorStatusDescriptor.INPUT_COUNT.getDescriptor());
+    }
+
+    @Test
+    public void testCaptureAndQuery() {
+        repository.capture(createGroupStatus(10), Collections.emptyList(), new Date(START));
+        repository.capture(createGroupStatus(0), Collections.emptyList(), new Date(START + ONE_MINUTE));
+        repository.capture(createGroupStatus(30), Collections.emptyList(), new Date(START + 2 * ONE_MINUTE));
+
+        final StatusHistory history = repository.getProcessorStatusHistory("proc-1", null, new Date(START + ONE_HOUR), Integer.MAX_VALUE, false);
+        assertEquals("My Processor", history.getComponentDetails().get(ComponentStatusRepository.COMPONENT_DETAIL_NAME));
+
+        final List<StatusSnapshot> snapshots = history.getStatusSnapshots();
+        assertEquals(3, snapshots.size());
+        assertEquals(new Date(START), snapshots.get(0).getTimestamp());
+        assertEquals(10L, getInputCount(snapshots.get(0)));
+        assertTrue(snapshots.get(1) instanceof EmptyStatusSnapshot);
+        assertEquals(30L, getInputCount(snapshots.get(2)));
+
+        assertEquals(new Date(START + 2 * ONE_MINUTE), repository.getLastCaptureDate());
+        assertTrue(repository.getProcessorStatusHistory("unknown", null, null, Integer.MAX_VALUE, false).getStatusSnapshots().isEmpty());
+    }
+
+    @Test
+    public void testDateRangeAndPreferredDataPoints() {
+        for (int i = 0; i < 10; i++) {
+            repository.capture(createGroupStatus(i + 1), Collections.emptyList(), new Date(START + i * ONE_MINUTE));
+        }
+
+        final List<StatusSnapshot> inRange = getProcessorSnapshots(new Date(START + 2 * ONE_MINUTE), new Date(START + 5 * ONE_MINUTE), Integer.MAX_VALUE);
+        assertEquals(4, inRange.size());
+        assertEquals(3L, getInputCount(inRange.get(0)));
+        assertEquals(6L, getInputCount(inRange.get(3)));
+
+        // The whole range is represented, with the samples of each third of it averaged
+        final List<StatusSnapshot> downsampled = getProcessorSnapshots(null, new Date(START + ONE_HOUR), 3);
+        assertEquals(3, downsampled.size());
+        assertEquals(new Date(START + 3 * ONE_MINUTE), downsampled.get(0).getTimestamp());
+        assertEquals(2L, getInputCount(downsampled.get(0)));
+        assertEquals(6L, getInputCount(downsampled.get(1)));
+        assertEquals(new Date(START + 9 * ONE_MINUTE), downsampled.get(2).getTimestamp());
+        assertEquals(9L, getInputCount(downsampled.get(2)));
+    }
+
+    @Test
+    public void testDownsampledPeriodWithoutValues() {
+        repository.capture(createGroupStatus(4), Collections.emptyList(), new Date(START));
+        repository.capture(createGroupStatus(0), Collections.emptyList(), new Date(START + ONE_MINUTE));
+        repository.capture(createGroupStatus(0), Collections.emptyList(), new Date(START + 2 * ONE_MINUTE));
+        repository.capture(createGroupStatus(8), Collections.emptyList(), new Date(START + 3 * ONE_MINUTE));
+
+        final List<StatusSnapshot> downsampled = getProcessorSnapshots(null, new Date(START + ONE_HOUR), 3);
+        assertEquals(3, downsampled.size());
+        assertEquals(4L, getInputCount(downsampled.get(0)));
+        assertTrue(downsampled.get(1) instanceof EmptyStatusSnapshot);
+        assertEquals(8L, getInputCount(downsampled.get(2)));
+    }
+
+    @Test
+    public void testHistoryRetainedAcrossRestart() throws IOException {
+        repository.capture(createGroupStatus(5), Collections.emptyList(), new Date(START));
+        repository.capture(createGroupStatus(7), Collections.emptyList(), new Date(START + ONE_MINUTE));
+        repository.close();
+
+        repository = createRepository();
+        assertEquals(new Date(START + ONE_MINUTE), repository.getLastCaptureDate());
+
+        repository.capture(createGroupStatus(9), Collections.emptyList(), new Date(START + 2 * ONE_MINUTE));
+        final List<StatusSnapshot> snapshots = getProcessorSnapshots(null, new Date(START + ONE_HOUR), Integer.MAX_VALUE);
+        assertEquals(3, snapshots.size());
+        assertEquals(5L, getInputCount(snapshots.get(0)));
+        assertEquals(7L, getInputCount(snapshots.get(1)));
+        assertEquals(9L, getInputCount(snapshots.get(2)));
+    }
+
+    @Test
+    public void testRollupToHourlyResolution() throws IOException {
+        repository.close();
+        properties.put(NiFiProperties.COMPONENT_STATUS_REPOSITORY_MINUTE_RETENTION, "1 min");
+        repository = createRepository();
+
+        // Four samples in the first hour, averaging 25
+        for (int i = 0; i < 4; i++) {
+            repository.capture(createGroupStatus(10 * (i + 1)), Collections.emptyList(), new Date(START + i * 15 * ONE_MINUTE));
+        }
+
+        // Moving into the next hour rolls the first hour up and, with the short retention, purges its minute samples
+        repository.capture(createGroupStatus(100), Collections.emptyList(), new Date(START + ONE_HOUR + 30 * ONE_MINUTE));
+
+        final List<StatusSnapshot> snapshots = getProcessorSnapshots(null, new Date(START + 2 * ONE_HOUR), Integer.MAX_VALUE);
+        assertEquals(2, snapshots.size());
+        assertEquals(new Date(START), snapshots.get(0).getTimestamp());
+        assertEquals(25L, getInputCount(snapshots.get(0)));
+        assertEquals(new Date(START + ONE_HOUR + 30 * ONE_MINUTE), snapshots.get(1).getTimestamp());
+        assertEquals(100L, getInputCount(snapshots.get(1)));
+    }
+
+    @Test
+    public void testRegistrationsWithoutSamplesPurged() throws IOException {
+        repository.close();
+        properties.put(NiFiProperties.COMPONENT_STATUS_REPOSITORY_MINUTE_RETENTION, "1 min");
+        properties.put(NiFiProperties.COMPONENT_STATUS_REPOSITORY_HOUR_RETENTION, "1 min");
+        properties.put(NiFiProperties.COMPONENT_STATUS_REPOSITORY_DAY_RETENTION, "1 min");
+        repository = createRepository();
+
+        repository.capture(createGroupStatus(5), Collections.emptyList(), new Date(START));
+        assertEquals(1, getProcessorSnapshots(null, new Date(START + ONE_HOUR), Integer.MAX_VALUE).size());
+
+        // Once every partition holding a sample for the processor has expired, its registration is removed
+        final long later = START + TimeUnit.DAYS.toMillis(60L);
+        repository.capture(createGroupStatus(0), Collections.emptyList(), new Date(later));
+        final StatusHistory purgedHistory = repository.getProcessorStatusHistory("proc-1", null, new Date(later), Integer.MAX_VALUE, false);
+        assertTrue(purgedHistory.getStatusSnapshots().isEmpty());
+        assertTrue(purgedHistory.getComponentDetails().isEmpty());
+
+        // A new processor reuses the row, without inheriting the history of the processor that was removed
+        final ProcessGroupStatus groupStatus = createGroupStatus(7);
+        groupStatus.getProcessorStatus().iterator().next().setId("proc-2");
+        repository.capture(groupStatus, Collections.emptyList(), new Date(later + ONE_MINUTE));
+        repository.close();
+
+        repository = createRepository();
+        assertTrue(repository.getProcessorStatusHistory("proc-1", null, new Date(later + ONE_HOUR), Integer.MAX_VALUE, false).getStatusSnapshots().isEmpty());
+
+        final List<StatusSnapshot> snapshots = repository.getProcessorStatusHistory("proc-2", null, new Date(later + ONE_HOUR), Integer.MAX_VALUE, false).getStatusSnapshots();
+        assertEquals(2, snapshots.size());
+        assertTrue(snapshots.get(0) instanceof EmptyStatusSnapshot);
+        assertEquals(7L, getInputCount(snapshots.get(1)));
+    }
+
+    @Test
+    public void testGarbageCollectionHistory() {
+        repository.capture(createGroupStatus(1), Collections.singletonList(new StandardGarbageCollectionStatus("G1 Young", new Date(START), 3, 40)), new Date(START));
+        repository.capture(createGroupStatus(1), Collections.singletonList(new StandardGarbageCollectionStatus("G1 Young", new Date(START), 5, 60)),
+            new Date(START + ONE_MINUTE));
+
+        final GarbageCollectionHistory history = repository.getGarbageCollectionHistory(new Date(0L), new Date(START + ONE_HOUR));
+        assertEquals(Collections.singleton("G1 Young"), history.getMemoryManagerNames());
+
+        final List<GarbageCollectionStatus> statuses = history.getGarbageCollectionStatuses("G1 Young");
+        assertEquals(2, statuses.size());
+        assertEquals(3L, statuses.get(0).getCollectionCount());
+        assertEquals(60L, statuses.get(1).getCollectionMillis());
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.swap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.IncompleteSwapFileException;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestCompressedSwapSerializerDeserializer {
+    private FlowFileQueue flowFileQueue;
+
+    @Before
+    public void setup() {
+        MockFlowFile.resetIdGenerator();
+
+        flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+    }
+
+    @Test
+    public void testRoundTripSerializeDeserializeFullSwapFile() throws IOException {
+        final ResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+        final List<FlowFileRecord> toSwap = createFlowFiles(10000, resourceClaimManager);
+
+        final String swapLocation = "target/testCompressedRoundTrip.swap";
+        final File swapFile = new File(swapLocation);
+        Files.deleteIfExists(swapFile.toPath());
+
+        final SwapSerializer serializer = new CompressedSwapSerializer();
+        try (final OutputStream fos = new FileOutputStream(swapFile);
+            final OutputStream out = new BufferedOutputStream(fos)) {
+            serializer.serializeFlowFiles(toSwap, flowFileQueue, swapLocation, out);
+        }
+
+        final SwapContents contents;
+        final SwapDeserializer deserializer = new CompressedSwapDeserializer();
+        try (final FileInputStream fis = new FileInputStream(swapFile);
+            final InputStream bufferedIn = new BufferedInputStream(fis);
+            final DataInputStream dis = new DataInputStream(bufferedIn)) {
+
+            contents = deserializer.deserializeFlowFiles(dis, swapLocation, flowFileQueue, resourceClaimManager);
+        }
+
+        final SwapSummary swapSummary = contents.getSummary();
+        assertEquals(10000, swapSummary.getQueueSize().getObjectCount());
+        assertEquals(9999, swapSummary.getMaxFlowFileId().intValue());
+        assertEquals(6667, swapSummary.getResourceClaims().size());
+        assertEquals(10000, contents.getFlowFiles().size());
+
+        for (int i = 0; i < toSwap.size(); i++) {
+            final FlowFileRecord original = toSwap.get(i);
+            final FlowFileRecord recovered = contents.getFlowFiles().get(i);
+
+            assertEquals(original.getId(), recovered.getId());
+            assertEquals(original.getEntryDate(), recovered.getEntryDate());
+            assertEquals(original.getLineageStartDate(), recovered.getLineageStartDate());
+            assertEquals(original.getLastQueueDate(), recovered.getLastQueueDate());
+            assertEquals(original.getSize(), recovered.getSize());
+            assertEquals(original.getAttributes(), recovered.getAttributes());
+
+            final ContentClaim originalClaim = original.getContentClaim();
+            final ContentClaim recoveredClaim = recovered.getContentClaim();
+            if (originalClaim == null) {
+                assertNull(recoveredClaim);
+            } else {
+                assertEquals(original.getContentClaimOffset(), recovered.getContentClaimOffset());
+                assertEquals(originalClaim.getOffset(), recoveredClaim.getOffset());
+                assertEquals(originalClaim.getLength(), recoveredClaim.getLength());
+                assertSame(originalClaim.getResourceClaim(), recoveredClaim.getResourceClaim());
+            }
+        }
+    }
+
+    @Test
+    public void testTruncatedSwapFileReturnsReadableFlowFiles() throws IOException {
+        final ResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+        final List<FlowFileRecord> toSwap = createFlowFiles(10000, resourceClaimManager);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new CompressedSwapSerializer().serializeFlowFiles(toSwap, flowFileQueue, "swap", baos);
+
+        // Drop the last half of the file, as if NiFi had been stopped while swapping out
+        final byte[] serialized = baos.toByteArray();
+        final byte[] truncated = Arrays.copyOf(serialized, serialized.length / 2);
+
+        try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(truncated))) {
+            new CompressedSwapDeserializer().deserializeFlowFiles(dis, "swap", flowFileQueue, resourceClaimManager);
+            fail("Expected IncompleteSwapFileException");
+        } catch (final IncompleteSwapFileException isfe) {
+            final SwapContents partialContents = isfe.getPartialContents();
+            assertEquals(10000, partialContents.getSummary().getQueueSize().getObjectCount());
+
+            final List<FlowFileRecord> recovered = partialContents.getFlowFiles();
+            assertTrue(recovered.size() > 0);
+            assertTrue(recovered.size() < 10000);
+            for (int i = 0; i < recovered.size(); i++) {
+                assertEquals(toSwap.get(i).getId(), recovered.get(i).getId());
+                assertEquals(toSwap.get(i).getAttributes(), recovered.get(i).getAttributes());
+            }
+        }
+    }
+
+    @Test
+    public void testSummaryReadableWithoutInflating() throws IOException {
+        final ResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+        final List<FlowFileRecord> toSwap = createFlowFiles(100, resourceClaimManager);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new CompressedSwapSerializer().serializeFlowFiles(toSwap, flowFileQueue, "swap", baos);
+
+        long expectedBytes = 0L;
+        for (final FlowFileRecord flowFile : toSwap) {
+            expectedBytes += flowFile.getSize();
+        }
+
+        try (final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            final SwapSummary swapSummary = new CompressedSwapDeserializer().getSwapSummary(dis, "swap", resourceClaimManager);
+            assertEquals(100, swapSummary.getQueueSize().getObjectCount());
+            assertEquals(expectedBytes, swapSummary.getQueueSize().getByteCount());
+            assertEquals(99, swapSummary.getMaxFlowFileId().intValue());
+            assertFalse(swapSummary.getResourceClaims().isEmpty());
+        }
+    }
+
+    @Test
+    public void testCompressedFormatIsSmallerThanSchemaFormat() throws IOException {
+        final ResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
+        final List<FlowFileRecord> toSwap = createFlowFiles(10000, resourceClaimManager);
+
+        final ByteArrayOutputStream schemaOut = new ByteArrayOutputStream();
+        new SchemaSwapSerializer().serializeFlowFiles(toSwap, flowFileQueue, "swap", schemaOut);
+
+        final ByteArrayOutputStream compressedOut = new ByteArrayOutputStream();
+        new CompressedSwapSerializer().serializeFlowFiles(toSwap, flowFileQueue, "swap", compressedOut);
+
+        assertTrue("Compressed swap file was " + compressedOut.size() + " bytes but Schema-based swap file was " + schemaOut.size() + " bytes",
+            compressedOut.size() < schemaOut.size() / 2);
+    }
+
+    private List<FlowFileRecord> createFlowFiles(final int count, final ResourceClaimManager resourceClaimManager) {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>(count);
+        final ContentClaim sharedClaim = MockFlowFile.createContentClaim("shared", resourceClaimManager);
+
+        final Map<String, String> attrs = new HashMap<>();
+        attrs.put("mime.type", "application/json");
+        attrs.put("path", "./");
+        for (int i = 0; i < count; i++) {
+            attrs.put(CoreAttributes.UUID.key(), UUID.randomUUID().toString());
+            attrs.put("filename", "file-" + (i % 10) + ".json");
+            attrs.put("i", String.valueOf(i));
+
+            final FlowFileRecord flowFile;
+            if (i % 3 == 0) {
+                flowFile = new MockFlowFile(attrs, i, sharedClaim);
+            } else if (i % 3 == 1) {
+                flowFile = new MockFlowFile(attrs, i, resourceClaimManager);
+            } else {
+                flowFile = new MockFlowFile(attrs, i, (ContentClaim) null);
+            }
+
+            flowFiles.add(flowFile);
+        }
+
+        return flowFiles;
+    }
+}
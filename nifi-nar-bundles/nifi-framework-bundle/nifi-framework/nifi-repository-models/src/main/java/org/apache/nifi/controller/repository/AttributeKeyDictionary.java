@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A process-wide dictionary of FlowFile attribute keys. The vast majority of FlowFiles in a given flow share a small set of
+ * attribute keys, so rather than holding a separate copy of each key for every FlowFile (as happens, for instance, when FlowFiles
+ * are restored from the FlowFile Repository or swapped in), keys are resolved to a single canonical instance.
+ *
+ * The dictionary is bounded so that a flow that generates many distinct attribute keys cannot cause it to grow without limit.
+ * Once the limit has been reached, keys that are not already present in the dictionary are simply used as-is.
+ */
+final class AttributeKeyDictionary {
+    static final int MAX_KEYS = 16384;
+
+    private static final ConcurrentMap<String, String> keys = new ConcurrentHashMap<>();
+
+    private AttributeKeyDictionary() {
+    }
+
+    /**
+     * @param key the attribute key
+     * @return the canonical instance of the given key, or the key itself if the dictionary is full
+     */
+    static String canonicalize(final String key) {
+        final String existing = keys.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (keys.size() >= MAX_KEYS) {
+            return key;
+        }
+
+        final String previous = keys.putIfAbsent(key, key);
+        return previous == null ? key : previous;
+    }
+
+    static int size() {
+        return keys.size();
+    }
+}
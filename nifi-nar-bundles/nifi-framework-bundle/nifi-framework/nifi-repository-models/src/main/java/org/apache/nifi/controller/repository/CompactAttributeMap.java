@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>
+ * An immutable Map of FlowFile attributes that is considerably more compact than a HashMap. Keys and values are held in two packed arrays
+ * rather than in a table of entry objects, and keys are resolved to canonical instances via the {@link AttributeKeyDictionary}.
+ * Keys are ordered by hash code so that a lookup is a binary search over the keys array.
+ * </p>
+ *
+ * <p>
+ * Because the Map is immutable, a FlowFile that is derived from another FlowFile can share its parent's attributes. When the attributes
+ * are modified but the set of keys is unchanged (by far the most common case, as when a Processor updates the value of an existing
+ * attribute), the new Map shares the parent's keys array and only allocates a new array of values.
+ * </p>
+ */
+public final class CompactAttributeMap extends AbstractMap<String, String> {
+    private static final String[] EMPTY_ARRAY = new String[0];
+    private static final CompactAttributeMap EMPTY = new CompactAttributeMap(EMPTY_ARRAY, EMPTY_ARRAY);
+
+    private final String[] keys;
+    private final String[] values;
+
+    private CompactAttributeMap(final String[] keys, final String[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public static CompactAttributeMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a CompactAttributeMap that contains the same mappings as the given Map
+     *
+     * @param attributes the attributes to copy
+     * @return a CompactAttributeMap containing the given attributes
+     */
+    public static CompactAttributeMap of(final Map<String, String> attributes) {
+        if (attributes instanceof CompactAttributeMap) {
+            return (CompactAttributeMap) attributes;
+        }
+        if (attributes == null || attributes.isEmpty()) {
+            return EMPTY;
+        }
+
+        final int size = attributes.size();
+        final String[] keys = new String[size];
+        final String[] values = new String[size];
+
+        int index = 0;
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            keys[index] = AttributeKeyDictionary.canonicalize(entry.getKey());
+            values[index] = entry.getValue();
+            index++;
+        }
+
+        return sorted(keys, values, size);
+    }
+
+    /**
+     * Creates a CompactAttributeMap that contains the same mappings as this Map, with the given changes applied. Building the result directly from
+     * this Map and the changes means that the attributes are copied only once, and as much structure as possible is shared: if the changes leave
+     * every mapping as it was, this Map itself is returned, and if they only change the values of existing keys, this Map's keys are shared.
+     *
+     * @param changes the attributes to add or update, with a <code>null</code> value for each attribute to remove; may be <code>null</code>
+     * @return a CompactAttributeMap containing this Map's attributes with the given changes applied
+     */
+    CompactAttributeMap withChanges(final Map<String, String> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return this;
+        }
+
+        String[] updatedValues = null;
+        boolean keysChanged = false;
+        for (final Map.Entry<String, String> entry : changes.entrySet()) {
+            final int index = indexOf(entry.getKey());
+            final String value = entry.getValue();
+            if (index < 0) {
+                if (value != null) {
+                    keysChanged = true;
+                    break;
+                }
+
+                continue;
+            }
+
+            if (value == null) {
+                keysChanged = true;
+                break;
+            }
+
+            if (!value.equals(values[index])) {
+                if (updatedValues == null) {
+                    updatedValues = values.clone();
+                }
+                updatedValues[index] = value;
+            }
+        }
+
+        if (!keysChanged) {
+            return updatedValues == null ? this : new CompactAttributeMap(keys, updatedValues);
+        }
+
+        final String[] mergedKeys = new String[keys.length + changes.size()];
+        final String[] mergedValues = new String[mergedKeys.length];
+        int size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (!changes.containsKey(keys[i])) {
+                mergedKeys[size] = keys[i];
+                mergedValues[size] = values[i];
+                size++;
+            }
+        }
+
+        for (final Map.Entry<String, String> entry : changes.entrySet()) {
+            if (entry.getValue() != null) {
+                mergedKeys[size] = AttributeKeyDictionary.canonicalize(entry.getKey());
+                mergedValues[size] = entry.getValue();
+                size++;
+            }
+        }
+
+        return sorted(mergedKeys, mergedValues, size);
+    }
+
+    /**
+     * Creates a CompactAttributeMap from the first <code>size</code> elements of the given arrays, whose keys must already be canonical
+     */
+    private static CompactAttributeMap sorted(final String[] unsortedKeys, final String[] unsortedValues, final int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        final long[] sortKeys = new long[size];
+        for (int i = 0; i < size; i++) {
+            // Pack the hash code into the upper 32 bits and the index into the lower 32 bits so that we can sort by hash code without boxing.
+            sortKeys[i] = ((long) unsortedKeys[i].hashCode() << 32) | i;
+        }
+
+        Arrays.sort(sortKeys);
+
+        final String[] keys = new String[size];
+        final String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            final int originalIndex = (int) sortKeys[i];
+            keys[i] = unsortedKeys[originalIndex];
+            values[i] = unsortedValues[originalIndex];
+        }
+
+        return new CompactAttributeMap(keys, values);
+    }
+
+    private int indexOf(final Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        final int hash = key.hashCode();
+
+        // Find the first key whose hash code is not less than the hash code of the key being sought.
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid].hashCode() < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        for (int i = low; i < keys.length && keys[i].hashCode() == hash; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public String get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Iterates over the attributes without creating an Entry object for each attribute.
+     */
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    boolean sharesKeysWith(final CompactAttributeMap other) {
+        return keys == other.keys;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (index >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final Entry<String, String> entry = new SimpleImmutableEntry<>(keys[index], values[index]);
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
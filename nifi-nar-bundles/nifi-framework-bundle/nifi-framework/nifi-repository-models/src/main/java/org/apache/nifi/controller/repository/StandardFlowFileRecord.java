@@ -16,10 +16,8 @@
  */
 package org.apache.nifi.controller.repository;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -49,7 +47,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
     private final long lineageStartIndex;
     private final long size;
     private final long penaltyExpirationMs;
-    private final Map<String, String> attributes;
+    private final CompactAttributeMap attributes;
     private final ContentClaim claim;
     private final long claimOffset;
     private final long lastQueueDate;
@@ -57,7 +55,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     private StandardFlowFileRecord(final Builder builder) {
         this.id = builder.bId;
-        this.attributes = builder.bAttributes == null ? Collections.emptyMap() : builder.bAttributes;
+        this.attributes = builder.buildAttributes();
         this.entryDate = builder.bEntryDate;
         this.lineageStartDate = builder.bLineageStartDate;
         this.lineageStartIndex = builder.bLineageStartIndex;
@@ -106,7 +104,8 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     @Override
     public Map<String, String> getAttributes() {
-        return Collections.unmodifiableMap(this.attributes);
+        // CompactAttributeMap is immutable, so there is no need to wrap it in an UnmodifiableMap.
+        return this.attributes;
     }
 
     @Override
@@ -180,8 +179,8 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
         private long bClaimOffset = 0L;
         private long bLastQueueDate = System.currentTimeMillis();
         private long bQueueDateIndex = 0L;
-        private Map<String, String> bAttributes;
-        private boolean bAttributesCopied = false;
+        private CompactAttributeMap bAttributes = CompactAttributeMap.empty();
+        private Map<String, String> bAttributeChanges;
 
         public Builder id(final long id) {
             bId = id;
@@ -211,29 +210,28 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             return this;
         }
 
-        private Map<String, String> initializeAttributes() {
-            if (bAttributes == null) {
-                bAttributes = new HashMap<>();
-                bAttributesCopied = true;
-            } else if (!bAttributesCopied) {
-                bAttributes = new HashMap<>(bAttributes);
-                bAttributesCopied = true;
+        /**
+         * The attributes are not copied when they are modified. Instead, the changes are collected, with a <code>null</code> value for each
+         * attribute that is removed, and applied to the original attributes once, when the FlowFile is built.
+         */
+        private Map<String, String> getAttributeChanges() {
+            if (bAttributeChanges == null) {
+                bAttributeChanges = new HashMap<>();
             }
 
-            return bAttributes;
+            return bAttributeChanges;
         }
 
         public Builder addAttribute(final String key, final String value) {
             if (key != null && value != null) {
-                initializeAttributes().put(FlowFile.KeyValidator.validateKey(key), value);
+                getAttributeChanges().put(FlowFile.KeyValidator.validateKey(key), value);
             }
             return this;
         }
 
         public Builder addAttributes(final Map<String, String> attributes) {
-            final Map<String, String> initializedAttributes = initializeAttributes();
-
             if (null != attributes) {
+                final Map<String, String> attributeChanges = getAttributeChanges();
                 for (final String key : attributes.keySet()) {
                     FlowFile.KeyValidator.validateKey(key);
                 }
@@ -241,7 +239,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
                     final String key = entry.getKey();
                     final String value = entry.getValue();
                     if (key != null && value != null) {
-                        initializedAttributes.put(key, value);
+                        attributeChanges.put(key, value);
                     }
                 }
             }
@@ -255,7 +253,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
                         continue;
                     }
 
-                    initializeAttributes().remove(key);
+                    getAttributeChanges().put(key, null);
                 }
             }
             return this;
@@ -268,7 +266,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
                         continue;
                     }
 
-                    initializeAttributes().remove(key);
+                    getAttributeChanges().put(key, null);
                 }
             }
             return this;
@@ -276,18 +274,25 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
         public Builder removeAttributes(final Pattern keyPattern) {
             if (keyPattern != null) {
-                final Iterator<String> iterator = initializeAttributes().keySet().iterator();
-                while (iterator.hasNext()) {
-                    final String key = iterator.next();
-
-                    if (CoreAttributes.UUID.key().equals(key)) {
-                        continue;
+                final Set<String> matchingKeys = new HashSet<>();
+                for (final String key : bAttributes.keySet()) {
+                    if (keyPattern.matcher(key).matches()) {
+                        matchingKeys.add(key);
                     }
+                }
 
-                    if (keyPattern.matcher(key).matches()) {
-                        iterator.remove();
+                if (bAttributeChanges != null) {
+                    for (final Map.Entry<String, String> entry : bAttributeChanges.entrySet()) {
+                        if (entry.getValue() != null && keyPattern.matcher(entry.getKey()).matches()) {
+                            matchingKeys.add(entry.getKey());
+                        }
                     }
                 }
+
+                matchingKeys.remove(CoreAttributes.UUID.key());
+                for (final String key : matchingKeys) {
+                    getAttributeChanges().put(key, null);
+                }
             }
             return this;
         }
@@ -319,13 +324,11 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             bLineageIdentifiers.clear();
             bPenaltyExpirationMs = specFlowFile.getPenaltyExpirationMillis();
             bSize = specFlowFile.getSize();
-            // If this is a StandardFlowFileRecord, access the attributes map directly. Do not use the
-            // getAttributes() method, because that will wrap the original in an UnmodifiableMap. As a result,
-            // a Processor that continually calls session.append() for instance will have a FlowFile whose attributes
-            // Map is wrapped thousands of times until it hits a StackOverflowError. We want the getter to return
-            // UnmodifiableMap, though, so that Processors cannot directly modify that Map.
-            bAttributes = specFlowFile instanceof StandardFlowFileRecord ? ((StandardFlowFileRecord) specFlowFile).attributes : specFlowFile.getAttributes();
-            bAttributesCopied = false;
+            // If this is a StandardFlowFileRecord, share its attributes map directly. The map is immutable, so it can be shared
+            // by any number of FlowFiles, and any changes made by this Builder are applied to it only when the FlowFile is built.
+            bAttributes = specFlowFile instanceof StandardFlowFileRecord ? ((StandardFlowFileRecord) specFlowFile).attributes
+                : CompactAttributeMap.of(specFlowFile.getAttributes());
+            bAttributeChanges = null;
             bClaim = specFlowFile.getContentClaim();
             bClaimOffset = specFlowFile.getContentClaimOffset();
             bLastQueueDate = specFlowFile.getLastQueueDate();
@@ -334,6 +337,11 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             return this;
         }
 
+        private CompactAttributeMap buildAttributes() {
+            // Share as much as possible with the attributes of the FlowFile that they were derived from.
+            return bAttributes.withChanges(bAttributeChanges);
+        }
+
         public FlowFileRecord build() {
             return new StandardFlowFileRecord(this);
         }
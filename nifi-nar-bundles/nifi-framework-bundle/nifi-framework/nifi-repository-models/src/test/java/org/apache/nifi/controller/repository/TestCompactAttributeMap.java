@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCompactAttributeMap {
+
+    @Test
+    public void testEquivalentToHashMap() {
+        final Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            attributes.put("attribute-" + i, "value-" + i);
+        }
+
+        // "Aa" and "BB" have the same hash code
+        attributes.put("Aa", "1");
+        attributes.put("BB", "2");
+
+        final CompactAttributeMap compact = CompactAttributeMap.of(attributes);
+        assertEquals(attributes, compact);
+        assertEquals(compact, attributes);
+        assertEquals(attributes.hashCode(), compact.hashCode());
+        assertEquals(102, compact.size());
+        assertEquals("1", compact.get("Aa"));
+        assertEquals("2", compact.get("BB"));
+        assertTrue(compact.containsKey("attribute-57"));
+        assertFalse(compact.containsKey("attribute-100"));
+        assertNull(compact.get("attribute-100"));
+        assertNull(compact.get(new Object()));
+
+        final Map<String, String> iterated = new HashMap<>();
+        compact.forEach(iterated::put);
+        assertEquals(attributes, iterated);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        CompactAttributeMap.of(new LinkedHashMap<>(Collections.singletonMap("a", "b"))).put("c", "d");
+    }
+
+    @Test
+    public void testKeysAreCanonicalized() {
+        final String key = new String("canonical.key");
+        final CompactAttributeMap first = CompactAttributeMap.of(Collections.singletonMap(key, "1"));
+        final CompactAttributeMap second = CompactAttributeMap.of(Collections.singletonMap(new String("canonical.key"), "2"));
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+
+    @Test
+    public void testChildSharesStructureWithParent() {
+        final FlowFileRecord parent = new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .addAttribute("uuid", "11111111-1111-1111-1111-111111111111")
+            .addAttribute("filename", "file.txt")
+            .addAttribute("path", "./")
+            .build();
+
+        final CompactAttributeMap parentAttributes = (CompactAttributeMap) parent.getAttributes();
+
+        // No attribute changes should share the parent's Map entirely
+        final FlowFileRecord unchanged = new StandardFlowFileRecord.Builder().fromFlowFile(parent).size(100L).build();
+        assertSame(parentAttributes, unchanged.getAttributes());
+
+        // Updating the value of an existing attribute should share the keys
+        final FlowFileRecord updated = new StandardFlowFileRecord.Builder().fromFlowFile(parent).addAttribute("filename", "other.txt").build();
+        final CompactAttributeMap updatedAttributes = (CompactAttributeMap) updated.getAttributes();
+        assertTrue(updatedAttributes.sharesKeysWith(parentAttributes));
+        assertEquals("other.txt", updated.getAttribute("filename"));
+        assertEquals("file.txt", parent.getAttribute("filename"));
+
+        // Setting an attribute to its existing value should share the parent's Map entirely
+        final FlowFileRecord same = new StandardFlowFileRecord.Builder().fromFlowFile(parent).addAttribute("path", "./").build();
+        assertSame(parentAttributes, same.getAttributes());
+
+        // Adding an attribute cannot share the keys
+        final FlowFileRecord added = new StandardFlowFileRecord.Builder().fromFlowFile(parent).addAttribute("mime.type", "text/plain").build();
+        final CompactAttributeMap addedAttributes = (CompactAttributeMap) added.getAttributes();
+        assertFalse(addedAttributes.sharesKeysWith(parentAttributes));
+        assertEquals(4, addedAttributes.size());
+        assertEquals(3, parent.getAttributes().size());
+    }
+
+    @Test
+    public void testChangesAppliedWhenBuilt() {
+        final FlowFileRecord parent = new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .addAttribute("uuid", "11111111-1111-1111-1111-111111111111")
+            .addAttribute("filename", "file.txt")
+            .addAttribute("tmp.1", "a")
+            .addAttribute("tmp.2", "b")
+            .build();
+
+        final FlowFileRecord child = new StandardFlowFileRecord.Builder().fromFlowFile(parent)
+            .addAttribute("tmp.3", "c")
+            .removeAttributes(Pattern.compile("tmp\\..*"))
+            .addAttribute("tmp.1", "restored")
+            .removeAttributes("filename", "uuid")
+            .addAttributes(Collections.singletonMap("path", "./"))
+            .build();
+
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("uuid", "11111111-1111-1111-1111-111111111111");
+        expected.put("tmp.1", "restored");
+        expected.put("path", "./");
+        assertEquals(expected, child.getAttributes());
+        assertEquals(4, parent.getAttributes().size());
+
+        // Removing an attribute that does not exist leaves the parent's Map shared
+        final FlowFileRecord unchanged = new StandardFlowFileRecord.Builder().fromFlowFile(parent).removeAttributes("missing").build();
+        assertSame(parent.getAttributes(), unchanged.getAttributes());
+    }
+}
@@ -246,9 +246,11 @@ public interface NiFiServiceFacade {
      * @param queryId identifier
      * @param summarize whether to summarize the event dtos
      * @param incrementalResults whether to return any events if the search has not finished
+     * @param cursor the cursor returned with the previous page of results, or null for the first page
+     * @param pageSize the maximum number of events to return, or null to return all of the results
      * @return result
      */
-    ProvenanceDTO getProvenance(String queryId, Boolean summarize, Boolean incrementalResults);
+    ProvenanceDTO getProvenance(String queryId, Boolean summarize, Boolean incrementalResults, String cursor, Integer pageSize);
 
     /**
      * Deletes provenance.
@@ -3145,8 +3145,8 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
     }
 
     @Override
-    public ProvenanceDTO getProvenance(final String queryId, final Boolean summarize, final Boolean incrementalResults) {
-        return controllerFacade.getProvenanceQuery(queryId, summarize, incrementalResults);
+    public ProvenanceDTO getProvenance(final String queryId, final Boolean summarize, final Boolean incrementalResults, final String cursor, final Integer pageSize) {
+        return controllerFacade.getProvenanceQuery(queryId, summarize, incrementalResults, cursor, pageSize);
     }
 
     @Override
@@ -248,6 +248,8 @@ public class ProvenanceResource extends ApplicationResource {
      *
      * @param id            The id of the provenance
      * @param clusterNodeId The id of node in the cluster to search. This is optional and only relevant when clustered. If clustered and it is not specified the entire cluster is searched.
+     * @param pageSize      The maximum number of events to return. This is optional; if not specified, all of the results are returned.
+     * @param cursor        The cursor returned with the previous page of results. This is optional and only relevant when a page size is specified.
      * @return A provenanceEntity
      */
     @GET
@@ -288,6 +290,16 @@ public class ProvenanceResource extends ApplicationResource {
                     required = false
             )
             @QueryParam("incrementalResults") @DefaultValue(value = "true") final Boolean incrementalResults,
+            @ApiParam(
+                    value = "The maximum number of provenance events to return, newest first. If not specified, all of the results are returned.",
+                    required = false
+            )
+            @QueryParam("pageSize") final Integer pageSize,
+            @ApiParam(
+                    value = "The cursor that was returned with the previous page of results. If not specified, the first page is returned.",
+                    required = false
+            )
+            @QueryParam("cursor") final String cursor,
             @ApiParam(
                     value = "The id of the provenance query.",
                     required = true
@@ -296,6 +308,10 @@ public class ProvenanceResource extends ApplicationResource {
 
         authorizeProvenanceRequest();
 
+        if (pageSize != null && pageSize < 1) {
+            throw new IllegalArgumentException("The page size must be a positive integer.");
+        }
+
         // replicate if cluster manager
         if (isReplicateRequest()) {
             // determine where this request should be sent
@@ -308,7 +324,7 @@ public class ProvenanceResource extends ApplicationResource {
         }
 
         // get the provenance
-        final ProvenanceDTO dto = serviceFacade.getProvenance(id, summarize, incrementalResults);
+        final ProvenanceDTO dto = serviceFacade.getProvenance(id, summarize, incrementalResults, cursor, pageSize);
         dto.getRequest().setClusterNodeId(clusterNodeId);
         populateRemainingProvenanceContent(dto);
 
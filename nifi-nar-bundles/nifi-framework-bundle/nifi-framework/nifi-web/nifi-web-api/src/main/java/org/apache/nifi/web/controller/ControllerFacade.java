@@ -31,6 +31,7 @@ import org.apache.nifi.authorization.user.NiFiUser;
 import org.apache.nifi.authorization.user.NiFiUserUtils;
 import org.apache.nifi.bundle.Bundle;
 import org.apache.nifi.bundle.BundleCoordinate;
+import org.apache.nifi.cluster.coordination.http.endpoints.ProvenanceQueryCursor;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.components.ConfigurableComponent;
 import org.apache.nifi.components.RequiredPermission;
@@ -1056,16 +1057,19 @@ public class ControllerFacade implements Authorizable {
         final QuerySubmission querySubmission = provenanceRepository.submitQuery(query, NiFiUserUtils.getNiFiUser());
 
         // return the query with the results populated at this point
-        return getProvenanceQuery(querySubmission.getQueryIdentifier(), requestDto.getSummarize(), requestDto.getIncrementalResults());
+        return getProvenanceQuery(querySubmission.getQueryIdentifier(), requestDto.getSummarize(), requestDto.getIncrementalResults(), null, null);
     }
 
     /**
-     * Retrieves the results of a provenance query.
+     * Retrieves the results of a provenance query. If a page size is given, only a single page of the results is returned, newest first,
+     * and only the events needed to fill that page are read from the repository.
      *
      * @param provenanceId id
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of events to return, or null to return all of the results
      * @return the results of a provenance query
      */
-    public ProvenanceDTO getProvenanceQuery(String provenanceId, Boolean summarize, Boolean incrementalResults) {
+    public ProvenanceDTO getProvenanceQuery(String provenanceId, Boolean summarize, Boolean incrementalResults, String cursor, Integer pageSize) {
         try {
             // get the query to the provenance repository
             final ProvenanceRepository provenanceRepository = flowController.getProvenanceRepository();
@@ -1113,8 +1117,22 @@ public class ControllerFacade implements Authorizable {
             // convert each event
             final boolean includeResults = incrementalResults == null || Boolean.TRUE.equals(incrementalResults);
             if (includeResults || queryResult.isFinished()) {
+                final List<ProvenanceEventRecord> records;
+                if (pageSize == null) {
+                    records = queryResult.getMatchingEvents();
+                } else {
+                    // when clustered, the cursor holds the position on each node
+                    final NodeIdentifier nodeId = getNodeId();
+                    final Long beforeEventId = ProvenanceQueryCursor.parse(cursor).getEventIdBefore(nodeId == null ? null : nodeId.getId());
+                    records = queryResult.getMatchingEvents(beforeEventId, pageSize);
+
+                    if (records.size() >= pageSize) {
+                        resultsDto.setNextCursor(String.valueOf(records.get(records.size() - 1).getEventId()));
+                    }
+                }
+
                 final List<ProvenanceEventDTO> events = new ArrayList<>();
-                for (final ProvenanceEventRecord record : queryResult.getMatchingEvents()) {
+                for (final ProvenanceEventRecord record : records) {
                     events.add(createProvenanceEventDto(record, Boolean.TRUE.equals(summarize)));
                 }
                 resultsDto.setProvenanceEvents(events);
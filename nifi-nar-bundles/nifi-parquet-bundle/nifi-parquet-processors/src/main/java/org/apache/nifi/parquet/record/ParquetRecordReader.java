@@ -24,6 +24,7 @@ import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.apache.parquet.avro.AvroParquetReader;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.io.InputFile;
@@ -81,6 +82,26 @@ public class ParquetRecordReader implements RecordReader {
         return record;
     }
 
+    @Override
+    public RecordBatch nextBatch(final int maxRecords) throws IOException {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("Cannot read a batch of " + maxRecords + " records");
+        }
+
+        // If null then no more records are available
+        if (lastParquetRecord == null) {
+            return null;
+        }
+
+        final RecordBatch.Builder builder = new RecordBatch.Builder(recordSchema, Math.min(maxRecords, 1024));
+        while (lastParquetRecord != null && builder.size() < maxRecords) {
+            builder.addRow(AvroTypeUtil.convertAvroRecordToArray(lastParquetRecord, recordSchema), null);
+            lastParquetRecord = parquetReader.read();
+        }
+
+        return builder.build();
+    }
+
     @Override
     public RecordSchema getSchema() {
         return recordSchema;
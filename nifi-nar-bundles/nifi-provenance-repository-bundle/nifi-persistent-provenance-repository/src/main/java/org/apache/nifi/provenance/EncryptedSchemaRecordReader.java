@@ -48,6 +48,12 @@ public class EncryptedSchemaRecordReader extends EventIdFirstSchemaRecordReader
         this.provenanceEventEncryptor = provenanceEventEncryptor;
     }
 
+    @Override
+    protected boolean isBlockCompressed(final int serializationVersion) {
+        // Encrypted events are not compressible, so Block Compression is never used for encrypted journals.
+        return false;
+    }
+
     @Override
     protected StandardProvenanceEventRecord nextRecord(final DataInputStream in, final int serializationVersion) throws IOException {
         verifySerializationVersion(serializationVersion);
@@ -88,6 +88,11 @@ public class EventIdFirstSchemaRecordReader extends CompressableRecordReader {
         }
     }
 
+    @Override
+    protected boolean isBlockCompressed(final int serializationVersion) {
+        return serializationVersion >= EventIdFirstSchemaRecordWriter.BLOCK_COMPRESSED_SERIALIZATION_VERSION;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected synchronized void readHeader(final DataInputStream in, final int serializationVersion) throws IOException {
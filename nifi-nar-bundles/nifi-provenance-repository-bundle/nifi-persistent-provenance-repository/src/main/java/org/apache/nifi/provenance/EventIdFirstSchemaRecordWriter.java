@@ -57,7 +57,11 @@ public class EventIdFirstSchemaRecordWriter extends CompressableRecordWriter {
     private static final RecordSchema previousContentClaimSchema = new RecordSchema(eventSchema.getField(EventFieldNames.PREVIOUS_CONTENT_CLAIM).getSubFields());
     private static final RecordSchema headerSchema = EventIdFirstHeaderSchema.SCHEMA;
 
-    public static final int SERIALIZATION_VERSION = 1;
+    public static final int SERIALIZATION_VERSION = 2;
+    // Version 2 writes everything after the serialization name and version as compressed blocks. Otherwise, it is identical to version 1,
+    // which is still written when block compression is not used so that those files can be read by older versions.
+    public static final int BLOCK_COMPRESSED_SERIALIZATION_VERSION = 2;
+    private static final int UNCOMPRESSED_SERIALIZATION_VERSION = 1;
     public static final String SERIALIZATION_NAME = "EventIdFirstSchemaRecordWriter";
     private final IdentifierLookup idLookup;
 
@@ -94,7 +98,12 @@ public class EventIdFirstSchemaRecordWriter extends CompressableRecordWriter {
 
     public EventIdFirstSchemaRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter writer, final boolean compressed,
         final int uncompressedBlockSize, final IdentifierLookup idLookup) throws IOException {
-        super(file, idGenerator, writer, compressed, uncompressedBlockSize);
+        this(file, idGenerator, writer, compressed, false, uncompressedBlockSize, idLookup);
+    }
+
+    public EventIdFirstSchemaRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter writer, final boolean compressed, final boolean blockCompressed,
+        final int uncompressedBlockSize, final IdentifierLookup idLookup) throws IOException {
+        super(file, idGenerator, writer, compressed, blockCompressed, uncompressedBlockSize);
 
         this.idLookup = idLookup;
         componentIdMap = idLookup.invertComponentIdentifiers();
@@ -238,7 +247,7 @@ public class EventIdFirstSchemaRecordWriter extends CompressableRecordWriter {
 
     @Override
     protected int getSerializationVersion() {
-        return SERIALIZATION_VERSION;
+        return isBlockCompressed() ? BLOCK_COMPRESSED_SERIALIZATION_VERSION : UNCOMPRESSED_SERIALIZATION_VERSION;
     }
 
     @Override
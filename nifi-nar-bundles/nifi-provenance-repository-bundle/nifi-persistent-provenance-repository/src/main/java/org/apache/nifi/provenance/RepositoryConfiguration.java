@@ -40,6 +40,10 @@ public class RepositoryConfiguration {
     public static final String CONCURRENT_MERGE_THREADS = "nifi.provenance.repository.concurrent.merge.threads";
     public static final String WARM_CACHE_FREQUENCY = "nifi.provenance.repository.warm.cache.frequency";
     public static final String MAINTENACE_FREQUENCY = "nifi.provenance.repository.maintenance.frequency";
+    public static final String LINEAGE_INDEX_ENABLED = "nifi.provenance.repository.lineage.index.enabled";
+    public static final String BLOCK_COMPRESSION_ENABLED = "nifi.provenance.repository.block.compression.enabled";
+    public static final String EVENT_FILE_SUMMARIES_ENABLED = "nifi.provenance.repository.event.file.summaries.enabled";
+    public static final String SUBSCRIPTION_BUFFER_SIZE = "nifi.provenance.repository.subscription.buffer.size";
 
     private final Map<String, File> storageDirectories = new LinkedHashMap<>();
     private long recordLifeMillis = TimeUnit.MILLISECONDS.convert(24, TimeUnit.HOURS);
@@ -69,6 +73,10 @@ public class RepositoryConfiguration {
     private boolean allowRollover = true;
     private int concurrentMergeThreads = 4;
     private Integer warmCacheFrequencyMinutes = null;
+    private boolean lineageIndexEnabled = false;
+    private boolean blockCompressionEnabled = false;
+    private boolean eventFileSummariesEnabled = false;
+    private int subscriptionBufferSize = 10000;
 
     public void setAllowRollover(final boolean allow) {
         this.allowRollover = allow;
@@ -418,6 +426,54 @@ public class RepositoryConfiguration {
         this.debugFrequency = debugFrequency;
     }
 
+    /**
+     * @return <code>true</code> if each storage partition should maintain a Lineage Index that maps FlowFile UUIDs to the events
+     * that reference them, so that lineage can be computed without searching the Lucene indices
+     */
+    public boolean isLineageIndexEnabled() {
+        return lineageIndexEnabled;
+    }
+
+    public void setLineageIndexEnabled(final boolean lineageIndexEnabled) {
+        this.lineageIndexEnabled = lineageIndexEnabled;
+    }
+
+    /**
+     * @return <code>true</code> if event files should be written as a series of independently compressed blocks, rather than being written
+     * uncompressed and then compressed when they are rolled over
+     */
+    public boolean isBlockCompressionEnabled() {
+        return blockCompressionEnabled;
+    }
+
+    public void setBlockCompressionEnabled(final boolean blockCompressionEnabled) {
+        this.blockCompressionEnabled = blockCompressionEnabled;
+    }
+
+    /**
+     * @return <code>true</code> if a summary of the event times, Event ID's, FlowFile UUIDs, and Component IDs should be written alongside
+     * each event file, so that queries can be answered by reading only those event files that may contain matching events
+     */
+    public boolean isEventFileSummariesEnabled() {
+        return eventFileSummariesEnabled;
+    }
+
+    public void setEventFileSummariesEnabled(final boolean eventFileSummariesEnabled) {
+        this.eventFileSummariesEnabled = eventFileSummariesEnabled;
+    }
+
+    /**
+     * @return the number of the most recently registered events that are held in memory for subscribers, so that they need
+     * not be read back from disk. A value of 0 indicates that subscriptions are not supported
+     */
+    public int getSubscriptionBufferSize() {
+        return subscriptionBufferSize;
+    }
+
+    public void setSubscriptionBufferSize(final int subscriptionBufferSize) {
+        this.subscriptionBufferSize = subscriptionBufferSize;
+    }
+
     public long getMaintenanceFrequency(final TimeUnit timeUnit) {
         return timeUnit.convert(maintenanceFrequencyMillis, TimeUnit.MILLISECONDS);
     }
@@ -508,6 +564,10 @@ public class RepositoryConfiguration {
         }
 
         config.setAlwaysSync(alwaysSync);
+        config.setLineageIndexEnabled(Boolean.parseBoolean(nifiProperties.getProperty(LINEAGE_INDEX_ENABLED, "false")));
+        config.setBlockCompressionEnabled(Boolean.parseBoolean(nifiProperties.getProperty(BLOCK_COMPRESSION_ENABLED, "false")));
+        config.setEventFileSummariesEnabled(Boolean.parseBoolean(nifiProperties.getProperty(EVENT_FILE_SUMMARIES_ENABLED, "false")));
+        config.setSubscriptionBufferSize(nifiProperties.getIntegerProperty(SUBSCRIPTION_BUFFER_SIZE, config.getSubscriptionBufferSize()));
 
         config.setDebugFrequency(nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_REPO_DEBUG_FREQUENCY, config.getDebugFrequency()));
 
@@ -53,6 +53,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -86,6 +87,12 @@ import java.util.Set;
  * stored on a separate physical partition on disk. As a result, this allows striping of data across multiple partitions in order to achieve linear scalability
  * across disks for far greater performance.
  * </p>
+ *
+ * <p>
+ * Reporting Tasks and other in-process consumers may {@link #subscribe(long) subscribe} to the repository in order to be handed events as they are
+ * registered, rather than reading them back from disk. The events are held in a bounded ring whose size is configured by
+ * {@link RepositoryConfiguration#getSubscriptionBufferSize()}; a subscriber that falls further behind than that reads from the Event Store instead.
+ * </p>
  */
 public class WriteAheadProvenanceRepository implements ProvenanceRepository {
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadProvenanceRepository.class);
@@ -100,6 +107,7 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
     private EventReporter eventReporter;
     private Authorizer authorizer;
     private ProvenanceAuthorizableFactory resourceFactory;
+    private ProvenanceEventBroadcaster broadcaster;
 
     /**
      * This constructor exists solely for the use of the Java Service Loader mechanism and should not be used.
@@ -120,8 +128,9 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
     public synchronized void initialize(final EventReporter eventReporter, final Authorizer authorizer, final ProvenanceAuthorizableFactory resourceFactory,
         final IdentifierLookup idLookup) throws IOException {
         final RecordWriterFactory recordWriterFactory = (file, idGenerator, compressed, createToc) -> {
-            final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), false, false) : null;
-            return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, BLOCK_SIZE, idLookup);
+            final boolean blockCompressed = !compressed && config.isBlockCompressionEnabled();
+            final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), blockCompressed, false) : null;
+            return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, blockCompressed, BLOCK_SIZE, idLookup);
         };
 
         final EventFileManager fileManager = new EventFileManager();
@@ -151,6 +160,9 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         this.authorizer = authorizer;
         this.resourceFactory = resourceFactory;
 
+        final int subscriptionBufferSize = config.getSubscriptionBufferSize();
+        this.broadcaster = subscriptionBufferSize > 0 ? new ProvenanceEventBroadcaster(this, subscriptionBufferSize) : null;
+
         eventStore.initialize();
         eventIndex.initialize(eventStore);
 
@@ -191,7 +203,33 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         final Map<ProvenanceEventRecord, StorageSummary> locationMap = storageResult.getStorageLocations();
         if (!locationMap.isEmpty()) {
             eventIndex.addEvents(locationMap);
+            publish(locationMap);
+        }
+    }
+
+    private void publish(final Map<ProvenanceEventRecord, StorageSummary> locationMap) {
+        if (broadcaster == null || !broadcaster.isActive()) {
+            return;
+        }
+
+        // The events that were registered do not carry the Event ID that the Event Store assigned, so publish copies that do.
+        final List<ProvenanceEventRecord> storedEvents = new ArrayList<>(locationMap.size());
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : locationMap.entrySet()) {
+            final ProvenanceEventRecord event = entry.getKey();
+            final long eventId = entry.getValue().getEventId();
+            if (event.getEventId() == eventId) {
+                storedEvents.add(event);
+            } else {
+                storedEvents.add(new StandardProvenanceEventRecord.Builder().fromEvent(event).setEventId(eventId).build());
+            }
         }
+
+        broadcaster.publish(storedEvents);
+    }
+
+    @Override
+    public ProvenanceEventSubscription subscribe(final long firstEventId) {
+        return broadcaster == null ? null : broadcaster.subscribe(firstEventId);
     }
 
     @Override
@@ -287,7 +325,19 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public List<SearchableField> getSearchableFields() {
-        return Collections.unmodifiableList(config.getSearchableFields());
+        if (!config.isEventFileSummariesEnabled()) {
+            return Collections.unmodifiableList(config.getSearchableFields());
+        }
+
+        // Queries for a FlowFile UUID or Component ID can be answered from the event files, using the Event File Summaries, even if the fields are not indexed.
+        final List<SearchableField> searchableFields = new ArrayList<>(config.getSearchableFields());
+        for (final SearchableField summarizedField : new SearchableField[] {SearchableFields.FlowFileUUID, SearchableFields.ComponentID}) {
+            if (!searchableFields.contains(summarizedField)) {
+                searchableFields.add(summarizedField);
+            }
+        }
+
+        return Collections.unmodifiableList(searchableFields);
     }
 
     @Override
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.lucene;
+
+import org.apache.nifi.provenance.ProgressiveResult;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.summary.EventFileQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates a query by reading every event from a single event file, rather than by searching a Lucene index. Only the most recent
+ * matching events are retained, up to the maximum number of results requested by the query.
+ */
+public class EventFileQueryTask implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(EventFileQueryTask.class);
+    private static final int EVENTS_BETWEEN_FINISHED_CHECKS = 1000;
+
+    private final EventFileQuery query;
+    private final EventIterator eventIterator;
+    private final ProgressiveResult queryResult;
+    private final int maxResults;
+    private final EventAuthorizer authorizer;
+
+    public EventFileQueryTask(final EventFileQuery query, final EventIterator eventIterator, final ProgressiveResult result, final int maxResults, final EventAuthorizer authorizer) {
+        this.query = query;
+        this.eventIterator = eventIterator;
+        this.queryResult = result;
+        this.maxResults = maxResults;
+        this.authorizer = authorizer;
+    }
+
+    @Override
+    public void run() {
+        final long startNanos = System.nanoTime();
+        final Deque<ProvenanceEventRecord> matchingEvents = new ArrayDeque<>();
+        long hitCount = 0L;
+        long eventsRead = 0L;
+
+        try (final EventIterator iterator = eventIterator) {
+            if (queryResult.isFinished()) {
+                logger.debug("Will not read events for query {} because the query is already finished", query);
+                return;
+            }
+
+            Optional<ProvenanceEventRecord> eventOption;
+            while ((eventOption = iterator.nextEvent()).isPresent()) {
+                if (++eventsRead % EVENTS_BETWEEN_FINISHED_CHECKS == 0 && queryResult.isFinished()) {
+                    logger.debug("Will stop reading events for query {} because the query has already finished", query);
+                    return;
+                }
+
+                final ProvenanceEventRecord event = eventOption.get();
+                if (!query.matches(event)) {
+                    continue;
+                }
+
+                hitCount++;
+                if (!authorizer.isAuthorized(event)) {
+                    continue;
+                }
+
+                // Events are read in ascending order of Event ID, so keep only the most recent of them.
+                matchingEvents.addLast(event);
+                if (matchingEvents.size() > maxResults) {
+                    matchingEvents.removeFirst();
+                }
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to query events from Event File", e);
+            queryResult.setError("Failed to complete query due to " + e);
+            return;
+        }
+
+        queryResult.update(new ArrayList<>(matchingEvents), hitCount);
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        logger.debug("Read {} events from Event File for query {}; found {} matching events in {} millis", eventsRead, query, hitCount, millis);
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.nifi.authorization.user.NiFiUser;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.AsyncLineageSubmission;
 import org.apache.nifi.provenance.AsyncQuerySubmission;
+import org.apache.nifi.provenance.ProgressiveResult;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.RepositoryConfiguration;
 import org.apache.nifi.provenance.SearchableFields;
@@ -44,8 +45,12 @@ import org.apache.nifi.provenance.lucene.IndexManager;
 import org.apache.nifi.provenance.lucene.LuceneUtil;
 import org.apache.nifi.provenance.search.Query;
 import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.provenance.serialization.StorageSummary;
 import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.summary.EventFileQuery;
 import org.apache.nifi.provenance.util.DirectoryUtils;
 import org.apache.nifi.provenance.util.NamedThreadFactory;
 import org.apache.nifi.reporting.Severity;
@@ -70,12 +75,14 @@ import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -546,6 +553,17 @@ public class LuceneEventIndex implements EventIndex {
             throw new IllegalArgumentException(String.format("Cannot compute lineage for more than %s FlowFiles. This lineage contains %s.", MAX_LINEAGE_UUIDS, flowFileUuids.size()));
         }
 
+        // If the Event Store maintains a Lineage Index, use it to find the events directly instead of searching the Lucene indices.
+        final Optional<List<Long>> lineageEventIds = getLineageEventIds(flowFileUuids);
+        if (lineageEventIds.isPresent()) {
+            final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, 1, user == null ? null : user.getIdentity());
+            lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+
+            queryExecutor.submit(() -> retrieveLineageEvents(lineageEventIds.get(), submission.getResult(), eventAuthorizer, startTimestamp, endTimestamp));
+            awaitLineageCompletion(submission);
+            return submission;
+        }
+
         final List<File> indexDirs = directoryManager.getDirectories(startTimestamp, endTimestamp);
         final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, indexDirs.size(), user == null ? null : user.getIdentity());
         lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
@@ -563,6 +581,11 @@ public class LuceneEventIndex implements EventIndex {
             }
         }
 
+        awaitLineageCompletion(submission);
+        return submission;
+    }
+
+    private void awaitLineageCompletion(final AsyncLineageSubmission submission) {
         // Some computations will complete very quickly. In this case, we don't want to wait
         // for the client to submit a second query to obtain the result. Instead, we want to just
         // wait some short period of time for the computation to complete before returning the submission.
@@ -571,8 +594,44 @@ public class LuceneEventIndex implements EventIndex {
         } catch (final InterruptedException ie) {
             Thread.currentThread().interrupt();
         }
+    }
 
-        return submission;
+    private Optional<List<Long>> getLineageEventIds(final Collection<String> flowFileUuids) {
+        if (flowFileUuids == null || flowFileUuids.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return eventStore.getLineageEventIds(flowFileUuids);
+        } catch (final Exception e) {
+            logger.warn("Failed to obtain lineage for FlowFiles {} from the Lineage Index; will search the Lucene indices instead", flowFileUuids, e);
+            return Optional.empty();
+        }
+    }
+
+    private void retrieveLineageEvents(final List<Long> eventIds, final ProgressiveResult result, final EventAuthorizer authorizer,
+        final long startTimestamp, final long endTimestamp) {
+        try {
+            // The time of an event is not known until it has been read, so events are read a batch at a time and filtered by time
+            // before being counted against the maximum number of lineage nodes.
+            final List<ProvenanceEventRecord> events = new ArrayList<>();
+            int retrieved = 0;
+            while (retrieved < eventIds.size() && events.size() < MAX_LINEAGE_NODES) {
+                final List<Long> batch = eventIds.subList(retrieved, Math.min(eventIds.size(), retrieved + MAX_LINEAGE_NODES));
+                retrieved += batch.size();
+
+                for (final ProvenanceEventRecord event : eventStore.getEvents(batch, authorizer, EventTransformer.PLACEHOLDER_TRANSFORMER)) {
+                    if (event.getEventTime() >= startTimestamp && event.getEventTime() <= endTimestamp && events.size() < MAX_LINEAGE_NODES) {
+                        events.add(event);
+                    }
+                }
+            }
+
+            result.update(events, events.size() + eventIds.size() - retrieved);
+        } catch (final Exception e) {
+            logger.error("Failed to retrieve Provenance Events {} for lineage computation", eventIds, e);
+            result.setError("Failed to retrieve Provenance Events for lineage computation due to " + e);
+        }
     }
 
     private BooleanQuery buildLineageQuery(final Collection<String> flowFileUuids) {
@@ -608,32 +667,33 @@ public class LuceneEventIndex implements EventIndex {
                 final List<Long> eventIds = eventIdListOption.get();
                 logger.debug("Cached Query {} produced {} Event IDs for {}: {}", cachedQuery, eventIds.size(), query, eventIds);
 
-                queryExecutor.submit(() -> {
-                    List<ProvenanceEventRecord> events;
-                    try {
-                        events = eventStore.getEvents(eventIds, authorizer, EventTransformer.EMPTY_TRANSFORMER);
-                        logger.debug("Retrieved {} of {} Events from Event Store", events.size(), eventIds.size());
-
-                        submission.getResult().update(events, eventIds.size());
-                    } catch (final Exception e) {
-                        submission.getResult().setError("Failed to retrieve Provenance Events from store; see logs for more details");
-                        logger.error("Failed to retrieve Provenance Events from store", e);
-                    }
-                });
+                // The events are read from the Event Store once, in the background, and then retained by the result.
+                submission.getResult().update(eventIds, eventIds.size(), ids -> eventStore.getEvents(ids, authorizer, EventTransformer.EMPTY_TRANSFORMER));
+                final Future<?> readFuture = queryExecutor.submit(() -> submission.getResult().getMatchingEvents());
 
-                // There are some queries that are optimized and will complete very quickly. As a result,
-                // we don't want to wait for the client to issue a second request, so we will give the query
-                // up to 500 milliseconds to complete before running.
+                // Reading the events generally completes very quickly. As a result, we don't want to wait for the client
+                // to issue a second request, so we will give the events up to 500 milliseconds to be read before returning.
                 try {
-                    submission.getResult().awaitCompletion(500, TimeUnit.MILLISECONDS);
+                    readFuture.get(500, TimeUnit.MILLISECONDS);
                 } catch (final InterruptedException e) {
                     Thread.currentThread().interrupt();
+                } catch (final TimeoutException e) {
+                    logger.debug("Events for {} were not read within 500 milliseconds; they will continue to be read in the background", query);
+                } catch (final ExecutionException e) {
+                    logger.error("Failed to retrieve Provenance Events from store for {}", query, e.getCause());
                 }
 
                 return submission;
             }
         }
 
+        // If the query is for a specific FlowFile or component, or references a field that is not indexed, answer it from the
+        // event files that the Event File Summaries indicate may hold matching events.
+        final Optional<QuerySubmission> eventFileSubmission = submitEventFileQuery(query, authorizer, userId);
+        if (eventFileSubmission.isPresent()) {
+            return eventFileSubmission.get();
+        }
+
         final List<File> indexDirectories = directoryManager.getDirectories(
             query.getStartDate() == null ? null : query.getStartDate().getTime(),
             query.getEndDate() == null ? null : query.getEndDate().getTime());
@@ -668,6 +728,61 @@ public class LuceneEventIndex implements EventIndex {
     }
 
 
+    private Optional<QuerySubmission> submitEventFileQuery(final Query query, final EventAuthorizer authorizer, final String userId) {
+        if (!config.isEventFileSummariesEnabled()) {
+            return Optional.empty();
+        }
+
+        final Optional<EventFileQuery> eventFileQueryOption = EventFileQuery.create(query);
+        if (!eventFileQueryOption.isPresent()) {
+            return Optional.empty();
+        }
+
+        final EventFileQuery eventFileQuery = eventFileQueryOption.get();
+        if (!eventFileQuery.isSelective() && !isAnyFieldUnindexed(query)) {
+            return Optional.empty();
+        }
+
+        final Optional<List<EventIterator>> iteratorsOption = eventStore.createEventIterators(eventFileQuery::mayMatch);
+        if (!iteratorsOption.isPresent()) {
+            return Optional.empty();
+        }
+
+        final List<EventIterator> iterators = iteratorsOption.get();
+        final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, iterators.size(), userId);
+        querySubmissionMap.put(query.getIdentifier(), submission);
+
+        logger.debug("Submitting query {} with identifier {} against {} event files", eventFileQuery, query.getIdentifier(), iterators.size());
+
+        if (iterators.isEmpty()) {
+            submission.getResult().update(Collections.emptyList(), 0L);
+        } else {
+            for (final EventIterator iterator : iterators) {
+                queryExecutor.submit(new EventFileQueryTask(eventFileQuery, iterator, submission.getResult(), query.getMaxResults(), authorizer));
+            }
+        }
+
+        try {
+            submission.getResult().awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return Optional.of(submission);
+    }
+
+    private boolean isAnyFieldUnindexed(final Query query) {
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final SearchableField field = searchTerm.getSearchableField();
+            final List<SearchableField> indexedFields = field.isAttribute() ? config.getSearchableAttributes() : config.getSearchableFields();
+            if (!indexedFields.contains(field)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public ComputeLineageSubmission submitLineageComputation(final String flowFileUuid, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
         return submitLineageComputation(Collections.singleton(flowFileUuid), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE, null, 0L, Long.MAX_VALUE);
@@ -23,6 +23,7 @@ import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TopDocs;
 import org.apache.nifi.provenance.ProgressiveResult;
+import org.apache.nifi.provenance.ProvenanceEventLoader;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
@@ -152,19 +153,21 @@ public class QueryTask implements Runnable {
                 return;
             }
 
-            final Tuple<List<ProvenanceEventRecord>, Long> eventsAndTotalHits = readDocuments(topDocs, indexReader);
+            final Tuple<List<Long>, Long> eventIdsAndTotalHits = readDocuments(topDocs, indexReader);
 
-            if (eventsAndTotalHits == null) {
+            if (eventIdsAndTotalHits == null) {
                 queryResult.update(Collections.emptyList(), 0L);
                 logger.info("Will not update query results for queried index {} for query {} because the maximum number of results have been reached already",
                     indexDir, query);
             } else {
-                queryResult.update(eventsAndTotalHits.getKey(), eventsAndTotalHits.getValue());
+                // Hand over only the Event IDs. The result decides whether to read all of the events now or to read them lazily as they are requested.
+                final ProvenanceEventLoader eventLoader = eventIds -> readEvents(eventIds);
+                queryResult.update(eventIdsAndTotalHits.getKey(), eventIdsAndTotalHits.getValue(), eventLoader);
 
                 final long searchNanos = System.nanoTime() - startNanos;
                 final long millis = TimeUnit.NANOSECONDS.toMillis(searchNanos);
-                logger.info("Successfully queried index {} for query {}; retrieved {} events with a total of {} hits in {} millis",
-                    indexDir, query, eventsAndTotalHits.getKey().size(), eventsAndTotalHits.getValue(), millis);
+                logger.info("Successfully queried index {} for query {}; found {} matching events with a total of {} hits in {} millis",
+                    indexDir, query, eventIdsAndTotalHits.getKey().size(), eventIdsAndTotalHits.getValue(), millis);
             }
         } catch (final Exception e) {
             logger.error("Failed to query events against index " + indexDir, e);
@@ -174,10 +177,10 @@ public class QueryTask implements Runnable {
         }
     }
 
-    private Tuple<List<ProvenanceEventRecord>, Long> readDocuments(final TopDocs topDocs, final IndexReader indexReader) {
+    private Tuple<List<Long>, Long> readDocuments(final TopDocs topDocs, final IndexReader indexReader) {
         // If no topDocs is supplied, just provide a Tuple that has no records and a hit count of 0.
         if (topDocs == null || topDocs.totalHits.value == 0) {
-            return new Tuple<>(Collections.<ProvenanceEventRecord> emptyList(), 0L);
+            return new Tuple<>(Collections.<Long> emptyList(), 0L);
         }
 
         final long start = System.nanoTime();
@@ -193,22 +196,20 @@ public class QueryTask implements Runnable {
             .map(doc -> doc.getField(SearchableFields.Identifier.getSearchableFieldName()).numericValue().longValue())
             .collect(Collectors.toList());
 
-        final long endConvert = System.nanoTime();
-        final long ms = TimeUnit.NANOSECONDS.toMillis(endConvert - start);
+        final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
         logger.trace("Converting documents took {} ms", ms);
 
-        List<ProvenanceEventRecord> events;
-        try {
-            events = eventStore.getEvents(eventIds, authorizer, transformer);
-        } catch (IOException e) {
-            throw new SearchFailedException("Unable to retrieve events from the Provenance Store", e);
-        }
+        final long totalHits = topDocs.totalHits.value;
+        return new Tuple<>(eventIds, totalHits);
+    }
 
-        final long fetchEventNanos = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - endConvert);
-        logger.debug("Fetching {} events from Event Store took {} ms ({} events actually fetched)", eventIds.size(), fetchEventNanos, events.size());
+    private List<ProvenanceEventRecord> readEvents(final List<Long> eventIds) throws IOException {
+        final long start = System.nanoTime();
+        final List<ProvenanceEventRecord> events = eventStore.getEvents(eventIds, authorizer, transformer);
 
-        final long totalHits = topDocs.totalHits.value;
-        return new Tuple<>(events, totalHits);
+        final long fetchEventMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.debug("Fetching {} events from Event Store took {} ms ({} events actually fetched)", eventIds.size(), fetchEventMillis, events.size());
+        return events;
     }
 
 }
@@ -41,6 +41,7 @@ public abstract class CompressableRecordReader implements RecordReader {
     private final String filename;
     private final int serializationVersion;
     private final boolean compressed;
+    private final boolean blockCompressed;
     private final TocReader tocReader;
     private final int headerLength;
     private final int maxAttributeChars;
@@ -55,41 +56,44 @@ public abstract class CompressableRecordReader implements RecordReader {
 
     public CompressableRecordReader(final InputStream in, final String filename, final TocReader tocReader, final int maxAttributeChars) throws IOException {
         logger.trace("Creating RecordReader for {}", filename);
+        final String repoClassName;
+        final int serializationVersion;
 
         rawInputStream = new ByteCountingInputStream(in);
         this.maxAttributeChars = maxAttributeChars;
+        this.filename = filename;
+        this.tocReader = tocReader;
 
-        final InputStream limitedStream;
-        if (tocReader == null) {
-            limitedStream = rawInputStream;
-        } else {
-            final long offset1 = tocReader.getBlockOffset(1);
-            if (offset1 < 0) {
-                limitedStream = rawInputStream;
-            } else {
-                limitedStream = new LimitingInputStream(rawInputStream, offset1 - rawInputStream.getBytesConsumed());
-            }
-        }
-
-        final InputStream readableStream;
         if (filename.endsWith(".gz")) {
-            readableStream = new BufferedInputStream(new GZIPInputStream(limitedStream));
             compressed = true;
+            blockCompressed = false;
+
+            final InputStream readableStream = new BufferedInputStream(new GZIPInputStream(createBlockLimitedStream(1)));
+            byteCountingIn = new ByteCountingInputStream(readableStream);
+            dis = new DataInputStream(byteCountingIn);
+
+            repoClassName = dis.readUTF();
+            serializationVersion = dis.readInt();
         } else {
-            readableStream = new BufferedInputStream(limitedStream);
             compressed = false;
-        }
 
-        byteCountingIn = new ByteCountingInputStream(readableStream);
-        dis = new DataInputStream(byteCountingIn);
+            // The serialization name and version are never compressed, other than in a GZIP'ed file, so they are read directly
+            // from the underlying stream in order to determine whether or not the rest of the file was written using Block Compression.
+            final DataInputStream rawDataIn = new DataInputStream(rawInputStream);
+            repoClassName = rawDataIn.readUTF();
+            serializationVersion = rawDataIn.readInt();
+            blockCompressed = isBlockCompressed(serializationVersion);
+
+            final InputStream limitedStream = createBlockLimitedStream(1);
+            final InputStream readableStream = blockCompressed
+                ? new BufferedInputStream(new CompressedBlockInputStream(limitedStream, filename, rawInputStream.getBytesConsumed()))
+                : new BufferedInputStream(limitedStream);
+            byteCountingIn = new ByteCountingInputStream(readableStream, rawInputStream.getBytesConsumed());
+            dis = new DataInputStream(byteCountingIn);
+        }
 
-        final String repoClassName = dis.readUTF();
-        final int serializationVersion = dis.readInt();
         headerLength = repoClassName.getBytes(StandardCharsets.UTF_8).length + 2 + 4; // 2 bytes for string length, 4 for integer.
-
         this.serializationVersion = serializationVersion;
-        this.filename = filename;
-        this.tocReader = tocReader;
 
         readHeader(dis, serializationVersion);
     }
@@ -131,21 +135,13 @@ public abstract class CompressableRecordReader implements RecordReader {
     }
 
     private void resetStreamForNextBlock() throws IOException {
-        final InputStream limitedStream;
-        if (tocReader == null) {
-            limitedStream = rawInputStream;
-        } else {
-            final long offset = tocReader.getBlockOffset(1 + getBlockIndex());
-            if (offset < 0) {
-                limitedStream = rawInputStream;
-            } else {
-                limitedStream = new LimitingInputStream(rawInputStream, offset - rawInputStream.getBytesConsumed());
-            }
-        }
+        final InputStream limitedStream = createBlockLimitedStream(1 + getBlockIndex());
 
         final InputStream readableStream;
         if (compressed) {
             readableStream = new BufferedInputStream(new GZIPInputStream(limitedStream));
+        } else if (blockCompressed) {
+            readableStream = new BufferedInputStream(new CompressedBlockInputStream(limitedStream, filename, rawInputStream.getBytesConsumed()));
         } else {
             readableStream = new BufferedInputStream(limitedStream);
         }
@@ -154,6 +150,22 @@ public abstract class CompressableRecordReader implements RecordReader {
         dis = new DataInputStream(byteCountingIn);
     }
 
+    /**
+     * Creates a stream that reads from the current position of the underlying stream up to the start of the given block,
+     * or to the end of the stream if there is no Table-of-Contents or no such block
+     */
+    private InputStream createBlockLimitedStream(final int nextBlockIndex) {
+        if (tocReader == null) {
+            return rawInputStream;
+        }
+
+        final long offset = tocReader.getBlockOffset(nextBlockIndex);
+        if (offset < 0) {
+            return rawInputStream;
+        }
+
+        return new LimitingInputStream(rawInputStream, offset - rawInputStream.getBytesConsumed());
+    }
 
     @Override
     public TocReader getTocReader() {
@@ -362,6 +374,16 @@ public abstract class CompressableRecordReader implements RecordReader {
 
     protected abstract StandardProvenanceEventRecord nextRecord(DataInputStream in, int serializationVersion) throws IOException;
 
+    /**
+     * Indicates whether or not the data following the serialization name and version was written using a {@link CompressedBlockOutputStream}
+     *
+     * @param serializationVersion the serialization version of the file
+     * @return <code>true</code> if the data is block compressed, <code>false</code> otherwise
+     */
+    protected boolean isBlockCompressed(final int serializationVersion) {
+        return false;
+    }
+
     protected void readHeader(DataInputStream in, int serializationVersion) throws IOException {
     }
 }
@@ -40,6 +40,7 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
     private final FileOutputStream fos;
     private final ByteCountingOutputStream rawOutStream;
     private final boolean compressed;
+    private final boolean blockCompressed;
     private final int uncompressedBlockSize;
     private final AtomicLong idGenerator;
 
@@ -51,10 +52,33 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
 
     public CompressableRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter writer, final boolean compressed,
         final int uncompressedBlockSize) throws IOException {
+        this(file, idGenerator, writer, compressed, false, uncompressedBlockSize);
+    }
+
+    /**
+     * Creates a Record Writer for the given file
+     *
+     * @param file the file to write to
+     * @param idGenerator the generator to use for assigning Event IDs
+     * @param writer the TOC Writer to use, or <code>null</code> if no Table-of-Contents should be written
+     * @param compressed whether or not each block should be written as a GZIP stream
+     * @param blockCompressed whether or not the data that follows the serialization name and version should be written using a
+     *            {@link CompressedBlockOutputStream}, so that the file is compressed as it is written and the Table-of-Contents
+     *            points directly to the compressed blocks. Cannot be combined with <code>compressed</code>.
+     * @param uncompressedBlockSize the number of uncompressed bytes to write to a block before starting a new block
+     * @throws IOException if unable to create the file
+     */
+    public CompressableRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter writer, final boolean compressed,
+        final boolean blockCompressed, final int uncompressedBlockSize) throws IOException {
         super(file, writer);
         logger.trace("Creating Record Writer for {}", file.getName());
 
+        if (compressed && blockCompressed) {
+            throw new IllegalArgumentException("A Record Writer cannot use both GZIP and Block Compression");
+        }
+
         this.compressed = compressed;
+        this.blockCompressed = blockCompressed;
         this.fos = new FileOutputStream(file);
         rawOutStream = new ByteCountingOutputStream(new BufferedOutputStream(fos));
         this.uncompressedBlockSize = uncompressedBlockSize;
@@ -67,6 +91,7 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
         this.fos = null;
 
         this.compressed = compressed;
+        this.blockCompressed = false;
         this.uncompressedBlockSize = uncompressedBlockSize;
         this.rawOutStream = new ByteCountingOutputStream(new BufferedOutputStream(out));
         this.idGenerator = idGenerator;
@@ -85,9 +110,17 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
 
         try {
             blockStartOffset = rawOutStream.getBytesWritten();
-            resetWriteStream(firstEventId);
-            out.writeUTF(getSerializationName());
-            out.writeInt(getSerializationVersion());
+            if (blockCompressed) {
+                // The serialization name and version are written uncompressed so that a reader is able to determine how the rest of the file is encoded.
+                final DataOutputStream rawOut = new DataOutputStream(rawOutStream);
+                rawOut.writeUTF(getSerializationName());
+                rawOut.writeInt(getSerializationVersion());
+                resetWriteStream(firstEventId);
+            } else {
+                resetWriteStream(firstEventId);
+                out.writeUTF(getSerializationName());
+                out.writeInt(getSerializationVersion());
+            }
             writeHeader(firstEventId, out);
             out.flush();
             blockStartOffset = getBytesWritten();
@@ -129,6 +162,19 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
 
                 final OutputStream writableStream = new BufferedOutputStream(new GZIPOutputStream(new NonCloseableOutputStream(rawOutStream), 1), 65536);
                 this.byteCountingOut = new ByteCountingOutputStream(writableStream, byteOffset);
+            } else if (blockCompressed) {
+                // Closing the current stream writes out any data that it has buffered as a final compressed block, so the next
+                // block of the Table of Contents begins at the current position of the underlying stream.
+                if (out != null) {
+                    out.close();
+                }
+
+                if (tocWriter != null && eventId != null) {
+                    tocWriter.addBlockOffset(rawOutStream.getBytesWritten(), eventId);
+                }
+
+                final OutputStream writableStream = new CompressedBlockOutputStream(new NonCloseableOutputStream(rawOutStream));
+                this.byteCountingOut = new ByteCountingOutputStream(writableStream, byteOffset);
             } else {
                 if (tocWriter != null && eventId != null) {
                     tocWriter.addBlockOffset(rawOutStream.getBytesWritten(), eventId);
@@ -211,8 +257,13 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
         }
     }
 
-    protected boolean isCompressed() {
-        return compressed;
+    @Override
+    public boolean isCompressed() {
+        return compressed || blockCompressed;
+    }
+
+    protected boolean isBlockCompressed() {
+        return blockCompressed;
     }
 
     protected abstract void writeRecord(final ProvenanceEventRecord event, final long eventId, final DataOutputStream out) throws IOException;
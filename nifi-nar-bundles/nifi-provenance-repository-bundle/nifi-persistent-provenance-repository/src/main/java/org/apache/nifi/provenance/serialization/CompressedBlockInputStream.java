@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+import org.iq80.snappy.CorruptionException;
+import org.iq80.snappy.Snappy;
+
+/**
+ * Reads the data that was written by a {@link CompressedBlockOutputStream}. If the underlying stream ends cleanly between two blocks,
+ * the end of the stream is reached. If it ends in the middle of a block, as will happen if the writer was stopped while writing the block,
+ * an EOFException is thrown, just as it would be for an incomplete record in an uncompressed file. A block that is complete but fails its
+ * checksum is corrupt rather than incomplete, so an IOException that identifies the file and the offset of the block is thrown instead.
+ */
+public class CompressedBlockInputStream extends InputStream {
+    private final InputStream in;
+    private final String filename;
+    private final byte[] header = new byte[CompressedBlockOutputStream.HEADER_LENGTH];
+    private final CRC32 checksum = new CRC32();
+    private byte[] compressed = new byte[0];
+    private byte[] buffer = new byte[0];
+    private int position = 0;
+    private int limit = 0;
+    private boolean endOfStream = false;
+    private long offset;
+
+    /**
+     * @param in the stream to read compressed blocks from
+     * @param filename the name of the file being read, for use in error messages
+     * @param startOffset the offset within the file of the first byte of the given stream
+     */
+    public CompressedBlockInputStream(final InputStream in, final String filename, final long startOffset) {
+        this.in = in;
+        this.filename = filename;
+        this.offset = startOffset;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!fill()) {
+            return -1;
+        }
+
+        final int toCopy = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, toCopy);
+        position += toCopy;
+        return toCopy;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0 || !fill()) {
+            return 0L;
+        }
+
+        final int toSkip = (int) Math.min(n, limit - position);
+        position += toSkip;
+        return toSkip;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean fill() throws IOException {
+        while (position >= limit) {
+            if (endOfStream || !readBlock()) {
+                endOfStream = true;
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean readBlock() throws IOException {
+        final long blockOffset = offset;
+        final int headerBytes = readFully(header, CompressedBlockOutputStream.HEADER_LENGTH);
+        if (headerBytes == 0) {
+            return false;
+        }
+        if (headerBytes < CompressedBlockOutputStream.HEADER_LENGTH) {
+            throw new EOFException("Reached end of " + filename + " while reading the header of the compressed block at offset " + blockOffset);
+        }
+
+        final int uncompressedLength = readInt(header, 0);
+        final int compressedLength = readInt(header, 4);
+        final int expectedChecksum = readInt(header, 8);
+        if (uncompressedLength == 0 && compressedLength == 0 && expectedChecksum == 0) {
+            // Space that the file system allocated for the block but that was never written to, as may be left behind by a power failure.
+            throw new EOFException("Reached unwritten data in " + filename + " while reading the header of the compressed block at offset " + blockOffset);
+        }
+        if (uncompressedLength <= 0 || compressedLength <= 0 || compressedLength > Snappy.maxCompressedLength(uncompressedLength)) {
+            throw new IOException("The compressed block at offset " + blockOffset + " of " + filename + " is corrupt: it has an uncompressed length of "
+                + uncompressedLength + " and a compressed length of " + compressedLength);
+        }
+
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (readFully(compressed, compressedLength) < compressedLength) {
+            throw new EOFException("Reached end of " + filename + " while reading the compressed block of " + compressedLength + " bytes at offset " + blockOffset);
+        }
+
+        checksum.reset();
+        checksum.update(compressed, 0, compressedLength);
+        if ((int) checksum.getValue() != expectedChecksum) {
+            throw new IOException("The compressed block at offset " + blockOffset + " of " + filename + " is corrupt: its checksum does not match its contents");
+        }
+
+        if (buffer.length < uncompressedLength) {
+            buffer = new byte[uncompressedLength];
+        }
+
+        final int decompressedLength;
+        try {
+            decompressedLength = Snappy.uncompress(compressed, 0, compressedLength, buffer, 0);
+        } catch (final CorruptionException e) {
+            throw new IOException("Failed to decompress the block at offset " + blockOffset + " of " + filename, e);
+        }
+
+        if (decompressedLength != uncompressedLength) {
+            throw new IOException("Expected the compressed block at offset " + blockOffset + " of " + filename + " to contain " + uncompressedLength
+                + " bytes but it contained " + decompressedLength + " bytes");
+        }
+
+        position = 0;
+        limit = decompressedLength;
+        return true;
+    }
+
+    private int readFully(final byte[] destination, final int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            final int read = in.read(destination, total, length - total);
+            if (read < 0) {
+                break;
+            }
+
+            total += read;
+        }
+
+        offset += total;
+        return total;
+    }
+
+    private static int readInt(final byte[] source, final int offset) {
+        return ((source[offset] & 0xFF) << 24)
+            | ((source[offset + 1] & 0xFF) << 16)
+            | ((source[offset + 2] & 0xFF) << 8)
+            | (source[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+import org.iq80.snappy.Snappy;
+
+/**
+ * <p>
+ * An OutputStream that compresses the data written to it as a series of independent, Snappy-compressed blocks. Each block is written
+ * in its entirety to the underlying stream, preceded by a header that contains the uncompressed length of the block, the compressed length
+ * of the block, and a CRC-32 checksum of the compressed bytes. A block is written whenever the buffer is filled and whenever {@link #flush()}
+ * or {@link #close()} is called, so any data that has been flushed can be read back without the stream being closed.
+ * </p>
+ *
+ * <p>
+ * Because each block is self-contained, a reader can begin reading at the start of any block, and if the process is stopped while a block
+ * is being written, only that block is lost; the {@link CompressedBlockInputStream} will treat it as the end of the data.
+ * </p>
+ */
+public class CompressedBlockOutputStream extends OutputStream {
+    static final int HEADER_LENGTH = 4 + 4 + 4; // uncompressed length, compressed length, checksum
+    public static final int DEFAULT_MAX_BLOCK_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final byte[] block;
+    private final CRC32 checksum = new CRC32();
+    private int count = 0;
+
+    public CompressedBlockOutputStream(final OutputStream out) {
+        this(out, DEFAULT_MAX_BLOCK_SIZE);
+    }
+
+    public CompressedBlockOutputStream(final OutputStream out, final int maxBlockSize) {
+        if (maxBlockSize < 1) {
+            throw new IllegalArgumentException("Max Block Size must be positive");
+        }
+
+        this.out = out;
+        this.buffer = new byte[maxBlockSize];
+        this.block = new byte[HEADER_LENGTH + Snappy.maxCompressedLength(maxBlockSize)];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (count == buffer.length) {
+            writeBlock();
+        }
+
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (count == buffer.length) {
+                writeBlock();
+            }
+
+            final int toCopy = Math.min(remaining, buffer.length - count);
+            System.arraycopy(b, offset, buffer, count, toCopy);
+            count += toCopy;
+            offset += toCopy;
+            remaining -= toCopy;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+
+        final int compressedLength = Snappy.compress(buffer, 0, count, block, HEADER_LENGTH);
+        checksum.reset();
+        checksum.update(block, HEADER_LENGTH, compressedLength);
+
+        writeInt(block, 0, count);
+        writeInt(block, 4, compressedLength);
+        writeInt(block, 8, (int) checksum.getValue());
+
+        // Write the header and the compressed data with a single call so that a block is never split across separate writes.
+        out.write(block, 0, HEADER_LENGTH + compressedLength);
+        count = 0;
+    }
+
+    private static void writeInt(final byte[] destination, final int offset, final int value) {
+        destination[offset] = (byte) (value >>> 24);
+        destination[offset + 1] = (byte) (value >>> 16);
+        destination[offset + 2] = (byte) (value >>> 8);
+        destination[offset + 3] = (byte) value;
+    }
+}
@@ -53,6 +53,11 @@ import java.util.concurrent.TimeUnit;
  * task will wait for the other thread to finish reading the data before deleting the file. This synchronization of the File is handled
  * via the {@link EventFileManager Event File Manager}.
  * </p>
+ *
+ * <p>
+ * Event Files that are written using Block Compression are already compressed, and a partially written block is simply ignored when
+ * the file is read, so those files are never given to this task.
+ * </p>
  */
 public class EventFileCompressor implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(EventFileCompressor.class);
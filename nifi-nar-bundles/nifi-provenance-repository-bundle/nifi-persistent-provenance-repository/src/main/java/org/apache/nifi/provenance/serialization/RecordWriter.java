@@ -109,6 +109,11 @@ public interface RecordWriter extends Closeable {
      */
     TocWriter getTocWriter();
 
+    /**
+     * @return <code>true</code> if the data is compressed as it is written, in which case there is no need to compress the journal when it is rolled over
+     */
+    boolean isCompressed();
+
     /**
      * @return <code>true</code> if this Writer has been closed via the {@link #close()} method, <code>false</code> otherwise
      */
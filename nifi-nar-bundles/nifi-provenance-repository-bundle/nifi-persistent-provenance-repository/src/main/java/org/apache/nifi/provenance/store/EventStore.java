@@ -23,11 +23,14 @@ import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.serialization.StorageSummary;
 import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.summary.EventFileSummary;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * <p>
@@ -115,6 +118,29 @@ public interface EventStore extends Closeable {
      */
     List<ProvenanceEventRecord> getEvents(List<Long> eventIds, EventAuthorizer authorizer, EventTransformer unauthorizedTransformer) throws IOException;
 
+    /**
+     * Returns the IDs of all events that reference any of the given FlowFile UUIDs, either as the FlowFile that the event is about,
+     * as a parent or child of that FlowFile, or as the identifier that a source system uses for the FlowFile. The IDs are obtained from
+     * a lineage index that is maintained alongside the stored events, so the events can then be retrieved via {@link #getEvents(List, EventAuthorizer, EventTransformer)}.
+     *
+     * @param flowFileUuids the UUIDs of the FlowFiles of interest
+     * @return an Optional containing the IDs of the events, in ascending order, or an empty Optional if the store does not maintain a lineage index
+     *         or the lineage index does not yet cover all of the events in the store
+     * @throws IOException if unable to read from the lineage index
+     */
+    Optional<List<Long>> getLineageEventIds(Collection<String> flowFileUuids) throws IOException;
+
+    /**
+     * Returns one {@link EventIterator} for each event file in the store that may contain events of interest. Each event file that is
+     * written while Event File Summaries are enabled is summarized by the range of its event times and Event ID's, along with Bloom Filters
+     * over the FlowFile UUIDs and Component IDs of its events. An event file is skipped if it has a summary and the given filter rejects
+     * that summary. The EventIterators are independent of one another, so that the event files may be read in parallel.
+     *
+     * @param summaryFilter the filter that determines whether or not an event file may contain events of interest, based on its summary
+     * @return an Optional containing the EventIterators, or an empty Optional if the store does not maintain Event File Summaries
+     */
+    Optional<List<EventIterator>> createEventIterators(Predicate<EventFileSummary> summaryFilter);
+
     /**
      * Causes the latest events in this store to be re-indexed by the given Event Index
      *
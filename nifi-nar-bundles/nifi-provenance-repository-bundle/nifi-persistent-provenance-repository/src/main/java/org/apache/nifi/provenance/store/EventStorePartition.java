@@ -19,13 +19,16 @@ package org.apache.nifi.provenance.store;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.summary.EventFileSummary;
 
 public interface EventStorePartition extends Closeable {
     /**
@@ -96,6 +99,25 @@ public interface EventStorePartition extends Closeable {
      */
     EventIterator createEventIterator(List<Long> eventIds);
 
+    /**
+     * Returns the IDs of all events in the partition that reference any of the given FlowFile UUIDs
+     *
+     * @param flowFileUuids the UUIDs of the FlowFiles of interest
+     * @return an Optional containing the IDs of the events, in ascending order, or an empty Optional if the partition does not maintain a lineage index
+     *         or the lineage index does not yet cover all of the events in the partition
+     * @throws IOException if unable to read from the lineage index
+     */
+    Optional<List<Long>> getLineageEventIds(Collection<String> flowFileUuids) throws IOException;
+
+    /**
+     * Returns one {@link EventIterator} for each event file in the partition that may contain events of interest, newest file first.
+     * An event file is skipped if it has a summary and the given filter rejects that summary.
+     *
+     * @param summaryFilter the filter that determines whether or not an event file may contain events of interest, based on its summary
+     * @return an Optional containing the EventIterators, or an empty Optional if the partition does not maintain Event File Summaries
+     */
+    Optional<List<EventIterator>> createEventIterators(Predicate<EventFileSummary> summaryFilter);
+
     /**
      * Purges any events from the partition that are older than the given amount of time
      *
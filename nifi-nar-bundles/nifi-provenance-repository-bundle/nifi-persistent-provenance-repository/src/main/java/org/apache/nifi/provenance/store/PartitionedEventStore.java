@@ -25,6 +25,7 @@ import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.store.iterator.AuthorizingEventIterator;
 import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.summary.EventFileSummary;
 import org.apache.nifi.provenance.util.DirectoryUtils;
 import org.apache.nifi.reporting.Severity;
 import org.slf4j.Logger;
@@ -33,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -43,6 +45,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 public abstract class PartitionedEventStore implements EventStore {
     private static final Logger logger = LoggerFactory.getLogger(PartitionedEventStore.class);
@@ -168,6 +171,37 @@ public abstract class PartitionedEventStore implements EventStore {
         return getEvents(eventIds.size(), authorizer, part -> part.createEventIterator(eventIds), transformer);
     }
 
+    @Override
+    public Optional<List<Long>> getLineageEventIds(final Collection<String> flowFileUuids) throws IOException {
+        final List<Long> eventIds = new ArrayList<>();
+        for (final EventStorePartition partition : getPartitions()) {
+            final Optional<List<Long>> partitionEventIds = partition.getLineageEventIds(flowFileUuids);
+            if (!partitionEventIds.isPresent()) {
+                return Optional.empty();
+            }
+
+            eventIds.addAll(partitionEventIds.get());
+        }
+
+        Collections.sort(eventIds);
+        return Optional.of(eventIds);
+    }
+
+    @Override
+    public Optional<List<EventIterator>> createEventIterators(final Predicate<EventFileSummary> summaryFilter) {
+        final List<EventIterator> iterators = new ArrayList<>();
+        for (final EventStorePartition partition : getPartitions()) {
+            final Optional<List<EventIterator>> partitionIterators = partition.createEventIterators(summaryFilter);
+            if (!partitionIterators.isPresent()) {
+                return Optional.empty();
+            }
+
+            iterators.addAll(partitionIterators.get());
+        }
+
+        return Optional.of(iterators);
+    }
+
     private List<ProvenanceEventRecord> getEvents(final int maxRecords, final EventAuthorizer authorizer,
         final Function<EventStorePartition, EventIterator> eventIteratorFactory, final EventTransformer transformer) throws IOException {
 
@@ -29,6 +29,8 @@ import org.apache.nifi.provenance.serialization.StorageSummary;
 import org.apache.nifi.provenance.store.iterator.EventIterator;
 import org.apache.nifi.provenance.store.iterator.SelectiveRecordReaderEventIterator;
 import org.apache.nifi.provenance.store.iterator.SequentialRecordReaderEventIterator;
+import org.apache.nifi.provenance.store.lineage.LineageIndex;
+import org.apache.nifi.provenance.store.summary.EventFileSummary;
 import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.util.DirectoryUtils;
 import org.apache.nifi.provenance.util.NamedThreadFactory;
@@ -43,6 +45,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -52,6 +55,8 @@ import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -59,11 +64,13 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class WriteAheadStorePartition implements EventStorePartition {
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadStorePartition.class);
+    private static final String LINEAGE_INDEX_DIRECTORY = "lineage";
 
     private final RepositoryConfiguration config;
     private final File partitionDirectory;
@@ -74,6 +81,9 @@ public class WriteAheadStorePartition implements EventStorePartition {
     private final AtomicLong idGenerator;
     private final AtomicLong maxEventId = new AtomicLong(-1L);
     private final EventFileManager eventFileManager;
+    private final LineageIndex lineageIndex;
+    private final ConcurrentMap<Long, EventFileSummary> eventFileSummaries; // keyed by the first Event ID of the event file
+    private final ConcurrentMap<Long, EventFileSummary.Builder> summaryBuilders; // summaries of the event files that are still being written to
     private volatile boolean closed = false;
 
     private AtomicReference<RecordWriterLease> eventWriterLeaseRef = new AtomicReference<>();
@@ -92,6 +102,9 @@ public class WriteAheadStorePartition implements EventStorePartition {
         this.recordReaderFactory = recordReaderFactory;
         this.filesToCompress = filesToCompress;
         this.eventFileManager = eventFileManager;
+        this.lineageIndex = repoConfig.isLineageIndexEnabled() ? new LineageIndex(new File(storageDirectory, LINEAGE_INDEX_DIRECTORY)) : null;
+        this.eventFileSummaries = repoConfig.isEventFileSummariesEnabled() ? new ConcurrentHashMap<>() : null;
+        this.summaryBuilders = repoConfig.isEventFileSummariesEnabled() ? new ConcurrentHashMap<>() : null;
     }
 
     @Override
@@ -101,6 +114,15 @@ public class WriteAheadStorePartition implements EventStorePartition {
         final RecordWriterLease lease = eventWriterLeaseRef.get();
         if (lease != null) {
             lease.close();
+
+            // The summary can be written only if no other thread is still writing to the event file.
+            if (lease.getWriter().isClosed()) {
+                completeSummary(lease.getWriter());
+            }
+        }
+
+        if (lineageIndex != null) {
+            lineageIndex.close();
         }
     }
 
@@ -145,6 +167,14 @@ public class WriteAheadStorePartition implements EventStorePartition {
 
         this.maxEventId.set(maxEventId);
 
+        if (lineageIndex != null) {
+            recoverLineageIndex(maxEventId);
+        }
+
+        if (eventFileSummaries != null) {
+            loadEventFileSummaries(fileList);
+        }
+
         // If configured to compress, compress any files that are not yet compressed.
         if (config.isCompressOnRollover()) {
             final File[] uncompressedFiles = partitionDirectory.listFiles(f -> f.getName().endsWith(".prov"));
@@ -168,6 +198,70 @@ public class WriteAheadStorePartition implements EventStorePartition {
     }
 
 
+    private void recoverLineageIndex(final long maxEventId) throws IOException {
+        lineageIndex.initialize(maxEventId + 1);
+
+        // Entries that had not yet been written to disk by the Lineage Index are rebuilt from the events in this partition.
+        final long firstEventId = lineageIndex.getMaxPersistedEventId() + 1;
+        if (firstEventId > maxEventId) {
+            return;
+        }
+
+        long eventCount = 0L;
+        try (final EventIterator iterator = createEventIterator(firstEventId)) {
+            Optional<ProvenanceEventRecord> eventOption;
+            while ((eventOption = iterator.nextEvent()).isPresent()) {
+                final ProvenanceEventRecord event = eventOption.get();
+                lineageIndex.addEvent(event, event.getEventId());
+                eventCount++;
+            }
+        } catch (final EOFException eof) {
+            logger.warn("Reached unexpected end of Provenance Event data while rebuilding Lineage Index for {}", this, eof);
+        }
+
+        logger.info("Added {} events to the Lineage Index for {} that had not been persisted by the index", eventCount, this);
+    }
+
+    private void loadEventFileSummaries(final List<File> eventFiles) {
+        // An event file that has no summary, such as the file that was being written to when NiFi was stopped abruptly,
+        // cannot be pruned from queries but is otherwise usable.
+        int summaryCount = 0;
+        for (final File eventFile : eventFiles) {
+            final File summaryFile = EventFileSummary.getSummaryFile(eventFile);
+            if (!summaryFile.exists()) {
+                continue;
+            }
+
+            try {
+                eventFileSummaries.put(DirectoryUtils.getMinId(eventFile), EventFileSummary.read(summaryFile));
+                summaryCount++;
+            } catch (final IOException ioe) {
+                logger.warn("Could not read Event File Summary {}; all queries that use Event File Summaries will need to read {}", summaryFile, eventFile, ioe);
+            }
+        }
+
+        logger.info("Loaded {} Event File Summaries for {} event files in {}", summaryCount, eventFiles.size(), this);
+    }
+
+    private void completeSummary(final RecordWriter writer) {
+        final long firstEventId = DirectoryUtils.getMinId(writer.getFile());
+        final EventFileSummary.Builder builder = summaryBuilders == null ? null : summaryBuilders.get(firstEventId);
+        if (builder == null) {
+            return;
+        }
+
+        final EventFileSummary summary = builder.build();
+        final File summaryFile = EventFileSummary.getSummaryFile(writer.getFile());
+        try {
+            summary.writeTo(summaryFile);
+            eventFileSummaries.put(firstEventId, summary);
+        } catch (final IOException ioe) {
+            logger.error("Failed to write Event File Summary {}; queries that use Event File Summaries will always need to read {}", summaryFile, writer.getFile(), ioe);
+        } finally {
+            summaryBuilders.remove(firstEventId);
+        }
+    }
+
     @Override
     public StorageResult addEvents(final Iterable<ProvenanceEventRecord> events) throws IOException {
         if (closed) {
@@ -260,6 +354,11 @@ public class WriteAheadStorePartition implements EventStorePartition {
         final RecordWriter updatedWriter = recordWriterFactory.createWriter(updatedEventFile, idGenerator, false, true);
         updatedWriter.writeHeader(nextEventId);
 
+        // Register the summary before the new lease is made available so that no events can be written without being summarized.
+        if (summaryBuilders != null) {
+            summaryBuilders.put(nextEventId, new EventFileSummary.Builder(config));
+        }
+
         final RecordWriterLease updatedLease = new RecordWriterLease(updatedWriter, config.getMaxEventFileCapacity(), config.getMaxEventFileCount(), config.getMaxEventFileLife(TimeUnit.MILLISECONDS));
         final boolean updated = eventWriterLeaseRef.compareAndSet(lease, updatedLease);
 
@@ -271,18 +370,24 @@ public class WriteAheadStorePartition implements EventStorePartition {
             }
 
             updatedEventFile.delete();
+            if (summaryBuilders != null) {
+                summaryBuilders.remove(nextEventId);
+            }
             return false;
         }
 
         if (lease != null) {
             lease.close();
+
+            // A lease is rolled over only once all claims on it have been relinquished, so all events have now been added to the summary.
+            completeSummary(lease.getWriter());
         }
 
         synchronized (minEventIdToPathMap) {
             minEventIdToPathMap.put(nextEventId, updatedEventFile);
         }
 
-        if (config.isCompressOnRollover() && lease != null && lease.getWriter() != null) {
+        if (config.isCompressOnRollover() && lease != null && lease.getWriter() != null && !lease.getWriter().isCompressed()) {
             boolean offered = false;
             while (!offered && !closed) {
                 try {
@@ -332,9 +437,36 @@ public class WriteAheadStorePartition implements EventStorePartition {
             // the journal contains part of our record but not all of it. Writing to the end of this
             // journal will result in corruption!
             writer.markDirty();
+
+            // Some of the events may have been written to the event file without being added to its summary, so the
+            // summary can no longer be trusted to rule out any FlowFile or component.
+            if (summaryBuilders != null) {
+                summaryBuilders.remove(DirectoryUtils.getMinId(writer.getFile()));
+            }
+
             throw e;
         }
 
+        // Update the Lineage Index while we still hold the claim on the writer so that events are always
+        // added to the index in the order of their Event ID's.
+        if (lineageIndex != null) {
+            try {
+                lineageIndex.addEvents(locationMap);
+            } catch (final Exception e) {
+                logger.error("Failed to update Lineage Index for {}; lineage will be computed from the Lucene indices until these events have been aged off", this, e);
+                invalidateLineageIndex(locationMap);
+            }
+        }
+
+        if (summaryBuilders != null) {
+            final EventFileSummary.Builder summaryBuilder = summaryBuilders.get(DirectoryUtils.getMinId(writer.getFile()));
+            if (summaryBuilder != null) {
+                for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : locationMap.entrySet()) {
+                    summaryBuilder.addEvent(entry.getKey(), entry.getValue().getEventId());
+                }
+            }
+        }
+
         return locationMap;
     }
 
@@ -453,6 +585,78 @@ public class WriteAheadStorePartition implements EventStorePartition {
         return new SelectiveRecordReaderEventIterator(allFiles, recordReaderFactory, eventIds, config.getMaxAttributeChars());
     }
 
+    private void invalidateLineageIndex(final Map<ProvenanceEventRecord, StorageSummary> locationMap) {
+        final long maxEventIdAdded = locationMap.values().stream()
+            .mapToLong(StorageSummary::getEventId)
+            .max()
+            .orElse(-1L);
+
+        try {
+            lineageIndex.invalidateThrough(maxEventIdAdded);
+        } catch (final IOException ioe) {
+            logger.error("Failed to persist the coverage of the Lineage Index for {}", this, ioe);
+        }
+    }
+
+    @Override
+    public Optional<List<Long>> getLineageEventIds(final Collection<String> flowFileUuids) throws IOException {
+        if (lineageIndex == null) {
+            return Optional.empty();
+        }
+
+        // If the index was created after events were already written to this partition, or could not be updated with some of the
+        // events, it cannot be used until all of those events have been aged off.
+        final long minEventId = getMinEventId();
+        if (lineageIndex.getCoverageStartEventId() > minEventId) {
+            return Optional.empty();
+        }
+
+        final List<Long> eventIds = lineageIndex.getEventIds(flowFileUuids);
+        eventIds.removeIf(id -> id < minEventId);
+        return Optional.of(eventIds);
+    }
+
+    @Override
+    public Optional<List<EventIterator>> createEventIterators(final Predicate<EventFileSummary> summaryFilter) {
+        if (eventFileSummaries == null) {
+            return Optional.empty();
+        }
+
+        final List<File> eventFiles;
+        synchronized (minEventIdToPathMap) {
+            eventFiles = new ArrayList<>(minEventIdToPathMap.values());
+        }
+
+        // Provide the newest files first, as the most recent events are the ones most likely to be of interest.
+        Collections.reverse(eventFiles);
+
+        final List<EventIterator> iterators = new ArrayList<>();
+        for (final File eventFile : eventFiles) {
+            final long firstEventId = DirectoryUtils.getMinId(eventFile);
+
+            EventFileSummary summary = eventFileSummaries.get(firstEventId);
+            if (summary == null) {
+                final EventFileSummary.Builder builder = summaryBuilders.get(firstEventId);
+                summary = builder == null ? null : builder.build();
+            }
+
+            if (summary != null && !summaryFilter.test(summary)) {
+                continue;
+            }
+
+            iterators.add(new SequentialRecordReaderEventIterator(Collections.singletonList(eventFile), recordReaderFactory, 0L, config.getMaxAttributeChars()));
+        }
+
+        logger.debug("Selected {} of {} event files in {} to be read for query", iterators.size(), eventFiles.size(), this);
+        return Optional.of(iterators);
+    }
+
+    private long getMinEventId() {
+        synchronized (minEventIdToPathMap) {
+            return minEventIdToPathMap.isEmpty() ? maxEventId.get() + 1 : minEventIdToPathMap.firstKey();
+        }
+    }
+
     private Optional<File> getPathForEventId(final long id) {
         File lastFile = null;
 
@@ -485,6 +689,14 @@ public class WriteAheadStorePartition implements EventStorePartition {
         } else {
             logger.info("Purged {} Provenance Event files from Provenance Repository because the events were older than {} {}: {}", removed.size(), olderThan, unit, removed);
         }
+
+        if (lineageIndex != null) {
+            try {
+                lineageIndex.compact();
+            } catch (final IOException ioe) {
+                logger.error("Failed to compact Lineage Index for {}", this, ioe);
+            }
+        }
     }
 
     private File getActiveEventFile() {
@@ -550,6 +762,19 @@ public class WriteAheadStorePartition implements EventStorePartition {
                 logger.warn("Failed to remove Provenance Table-of-Contents file {}; this file should be cleaned up manually", tocFile);
             }
 
+            if (eventFileSummaries != null) {
+                eventFileSummaries.remove(firstEventId);
+            }
+
+            final File summaryFile = EventFileSummary.getSummaryFile(file);
+            if (summaryFile.exists() && !summaryFile.delete()) {
+                logger.warn("Failed to remove Provenance Event File Summary {}; this file should be cleaned up manually", summaryFile);
+            }
+
+            if (lineageIndex != null) {
+                lineageIndex.purgeEventsBefore(getMinEventId());
+            }
+
             return true;
         } finally {
             eventFileManager.releaseWriteLock(file);
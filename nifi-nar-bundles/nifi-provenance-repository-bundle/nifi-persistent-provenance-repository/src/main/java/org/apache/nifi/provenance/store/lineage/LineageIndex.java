@@ -0,0 +1,625 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.lineage;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * A secondary index that maps FlowFile UUIDs to the IDs of the Provenance Events that reference them, so that the events that make up
+ * the lineage of a FlowFile can be found without searching the Lucene indices. The index is maintained by an Event Store partition,
+ * and the Event IDs that it returns are intended to be resolved through that partition.
+ * </p>
+ *
+ * <p>
+ * An event is indexed under the UUID of its FlowFile and under the same additional identifiers that the Lucene index uses for lineage:
+ * the child UUIDs of FORK, CLONE and REPLAY events, the parent UUIDs of JOIN events, and the FlowFile identifier of the source system
+ * for RECEIVE events. Newly added entries are held in memory until enough of them have accumulated, at which point they are written
+ * to an immutable segment file that is sorted by key. Segments are merged together during maintenance so that their number stays
+ * bounded, and they are removed once all of the events that they reference have been aged off.
+ * </p>
+ *
+ * <p>
+ * The entries that are held in memory are not journaled. The Event Store partition is itself a write-ahead log, so upon restart any
+ * events with an ID greater than {@link #getMaxPersistedEventId()} must be re-added from the partition.
+ * </p>
+ */
+public class LineageIndex implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(LineageIndex.class);
+
+    static final String SEGMENT_SUFFIX = ".lineage";
+    static final String PARTIAL_SUFFIX = ".partial";
+    static final String COVERAGE_FILENAME = "coverage";
+
+    public static final int DEFAULT_MAX_ENTRIES_IN_MEMORY = 100_000;
+    public static final int DEFAULT_MAX_SEGMENT_COUNT = 16;
+
+    private final File directory;
+    private final int maxEntriesInMemory;
+    private final int maxSegmentCount;
+
+    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final Lock readLock = rwLock.readLock();
+    private final Lock writeLock = rwLock.writeLock();
+    private final Object maintenanceMonitor = new Object();
+
+    // guarded by rwLock
+    private final List<LineageIndexSegment> segments = new ArrayList<>();
+    private long[] keyMsbs = new long[1024];
+    private long[] keyLsbs = new long[1024];
+    private long[] eventIds = new long[1024];
+    private int entriesInMemory = 0;
+    private long minEventIdInMemory = Long.MAX_VALUE;
+    private long maxEventIdInMemory = -1L;
+    private long maxPersistedEventId = -1L;
+    private long coverageStartEventId = -1L;
+
+    public LineageIndex(final File directory) {
+        this(directory, DEFAULT_MAX_ENTRIES_IN_MEMORY, DEFAULT_MAX_SEGMENT_COUNT);
+    }
+
+    public LineageIndex(final File directory, final int maxEntriesInMemory, final int maxSegmentCount) {
+        this.directory = directory;
+        this.maxEntriesInMemory = maxEntriesInMemory;
+        this.maxSegmentCount = Math.max(2, maxSegmentCount);
+    }
+
+    /**
+     * Recovers the index from disk. If no index exists yet, or the index cannot be recovered, a new index is created that covers only
+     * events whose ID is greater than or equal to <code>nextEventId</code>.
+     *
+     * @param nextEventId the ID of the next event that will be added to the index
+     * @throws IOException if unable to create the index
+     */
+    public void initialize(final long nextEventId) throws IOException {
+        writeLock.lock();
+        try {
+            Files.createDirectories(directory.toPath());
+
+            final File[] partialFiles = directory.listFiles(file -> file.getName().endsWith(PARTIAL_SUFFIX));
+            if (partialFiles != null) {
+                for (final File partialFile : partialFiles) {
+                    Files.deleteIfExists(partialFile.toPath());
+                }
+            }
+
+            final File coverageFile = new File(directory, COVERAGE_FILENAME);
+            final List<LineageIndexSegment> recovered = new ArrayList<>();
+            boolean recoveredIndex = false;
+            if (coverageFile.exists()) {
+                try {
+                    coverageStartEventId = readCoverage(coverageFile);
+                    for (final File segmentFile : getSegmentFiles()) {
+                        recovered.add(LineageIndexSegment.open(segmentFile));
+                    }
+
+                    recoveredIndex = true;
+                } catch (final IOException ioe) {
+                    logger.warn("Failed to recover Lineage Index from {}; the index will be re-created and will only cover events that are added from now on", directory, ioe);
+                    for (final LineageIndexSegment segment : recovered) {
+                        closeQuietly(segment);
+                    }
+                    recovered.clear();
+                }
+            }
+
+            if (!recoveredIndex) {
+                for (final File segmentFile : getSegmentFiles()) {
+                    Files.deleteIfExists(segmentFile.toPath());
+                }
+
+                coverageStartEventId = nextEventId;
+                writeCoverage(coverageFile, coverageStartEventId);
+            }
+
+            recovered.sort(Comparator.comparingLong(LineageIndexSegment::getMinEventId));
+            segments.addAll(recovered);
+
+            maxPersistedEventId = coverageStartEventId - 1;
+            for (final LineageIndexSegment segment : segments) {
+                maxPersistedEventId = Math.max(maxPersistedEventId, segment.getMaxEventId());
+            }
+
+            logger.info("Recovered Lineage Index from {} with {} segments; index covers all events with an ID of at least {}",
+                directory, segments.size(), coverageStartEventId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return the smallest Event ID for which the index is known to contain all events with the same or larger ID
+     */
+    public long getCoverageStartEventId() {
+        readLock.lock();
+        try {
+            return coverageStartEventId;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the index from being used for any event whose ID is less than or equal to the given ID, because the index could not be
+     * updated with some of those events. The coverage of the index is moved past the given ID, so it will be used again once all of
+     * those events have been aged off. The updated coverage is persisted so that it also applies after a restart.
+     *
+     * @param eventId the largest Event ID that the index may be missing
+     * @throws IOException if the coverage was updated in memory but could not be written to disk
+     */
+    public void invalidateThrough(final long eventId) throws IOException {
+        writeLock.lock();
+        try {
+            if (eventId < coverageStartEventId) {
+                return;
+            }
+
+            coverageStartEventId = eventId + 1;
+            writeCoverage(new File(directory, COVERAGE_FILENAME), coverageStartEventId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return the largest Event ID that has been written to a segment on disk. Any event with a larger ID must be re-added upon restart.
+     */
+    public long getMaxPersistedEventId() {
+        readLock.lock();
+        try {
+            return maxPersistedEventId;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the given events to the index. Events must be added in the order in which their IDs were assigned.
+     *
+     * @param storageLocations the events that were written to the partition, along with their storage locations
+     * @throws IOException if the events were added but the index was unable to write its entries to disk
+     */
+    public void addEvents(final Map<ProvenanceEventRecord, StorageSummary> storageLocations) throws IOException {
+        writeLock.lock();
+        try {
+            for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : storageLocations.entrySet()) {
+                addToMemory(entry.getKey(), entry.getValue().getEventId());
+            }
+
+            if (entriesInMemory >= maxEntriesInMemory) {
+                flush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the given event to the index. Events must be added in the order in which their IDs were assigned.
+     *
+     * @param event the event
+     * @param eventId the ID of the event
+     * @throws IOException if the event was added but the index was unable to write its entries to disk
+     */
+    public void addEvent(final ProvenanceEventRecord event, final long eventId) throws IOException {
+        writeLock.lock();
+        try {
+            addToMemory(event, eventId);
+
+            if (entriesInMemory >= maxEntriesInMemory) {
+                flush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addToMemory(final ProvenanceEventRecord event, final long eventId) {
+        for (final String identifier : getLineageIdentifiers(event)) {
+            if (entriesInMemory == eventIds.length) {
+                final int newLength = eventIds.length * 2;
+                keyMsbs = Arrays.copyOf(keyMsbs, newLength);
+                keyLsbs = Arrays.copyOf(keyLsbs, newLength);
+                eventIds = Arrays.copyOf(eventIds, newLength);
+            }
+
+            final UUID key = toKey(identifier);
+            keyMsbs[entriesInMemory] = key.getMostSignificantBits();
+            keyLsbs[entriesInMemory] = key.getLeastSignificantBits();
+            eventIds[entriesInMemory] = eventId;
+            entriesInMemory++;
+        }
+
+        minEventIdInMemory = Math.min(minEventIdInMemory, eventId);
+        maxEventIdInMemory = Math.max(maxEventIdInMemory, eventId);
+    }
+
+    /**
+     * Writes any entries that are held in memory to a new segment on disk
+     *
+     * @throws IOException if unable to write the segment
+     */
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            if (entriesInMemory == 0) {
+                return;
+            }
+
+            final Integer[] order = new Integer[entriesInMemory];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> LineageIndexSegment.compare(keyMsbs[a], keyLsbs[a], eventIds[a], keyMsbs[b], keyLsbs[b], eventIds[b]));
+
+            final File segmentFile = getSegmentFile(minEventIdInMemory, maxEventIdInMemory);
+            final File partialFile = getPartialFile(segmentFile);
+            try (final DataOutputStream out = LineageIndexSegment.createOutputStream(partialFile, minEventIdInMemory, maxEventIdInMemory, entriesInMemory)) {
+                for (final int index : order) {
+                    LineageIndexSegment.writeEntry(out, keyMsbs[index], keyLsbs[index], eventIds[index]);
+                }
+            }
+
+            final LineageIndexSegment segment = commit(partialFile, segmentFile);
+            segments.add(segment);
+            maxPersistedEventId = Math.max(maxPersistedEventId, maxEventIdInMemory);
+
+            logger.debug("Wrote {} entries to {}", entriesInMemory, segment);
+
+            entriesInMemory = 0;
+            minEventIdInMemory = Long.MAX_VALUE;
+            maxEventIdInMemory = -1L;
+            if (eventIds.length > maxEntriesInMemory * 2) {
+                keyMsbs = new long[1024];
+                keyLsbs = new long[1024];
+                eventIds = new long[1024];
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of all events in the index that reference any of the given FlowFile UUIDs
+     *
+     * @param flowFileUuids the UUIDs of the FlowFiles of interest
+     * @return the IDs of the events, in ascending order
+     * @throws IOException if unable to read from the index
+     */
+    public List<Long> getEventIds(final Collection<String> flowFileUuids) throws IOException {
+        final SortedSet<Long> matchingIds = new TreeSet<>();
+
+        readLock.lock();
+        try {
+            for (final String flowFileUuid : flowFileUuids) {
+                final UUID key = toKey(flowFileUuid);
+                final long msb = key.getMostSignificantBits();
+                final long lsb = key.getLeastSignificantBits();
+
+                for (final LineageIndexSegment segment : segments) {
+                    segment.getEventIds(msb, lsb, matchingIds);
+                }
+
+                for (int i = 0; i < entriesInMemory; i++) {
+                    if (keyMsbs[i] == msb && keyLsbs[i] == lsb) {
+                        matchingIds.add(eventIds[i]);
+                    }
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        return new ArrayList<>(matchingIds);
+    }
+
+    /**
+     * Removes any segment that references only events whose ID is smaller than the given ID
+     *
+     * @param minEventId the smallest Event ID that is still retained by the partition
+     */
+    public void purgeEventsBefore(final long minEventId) {
+        synchronized (maintenanceMonitor) {
+            final List<LineageIndexSegment> obsolete = new ArrayList<>();
+
+            writeLock.lock();
+            try {
+                for (final LineageIndexSegment segment : segments) {
+                    if (segment.getMaxEventId() < minEventId) {
+                        obsolete.add(segment);
+                    }
+                }
+
+                segments.removeAll(obsolete);
+            } finally {
+                writeLock.unlock();
+            }
+
+            for (final LineageIndexSegment segment : obsolete) {
+                destroy(segment);
+            }
+
+            if (!obsolete.isEmpty()) {
+                logger.debug("Removed {} Lineage Index segments from {} because all events that they reference have been aged off", obsolete.size(), directory);
+            }
+        }
+    }
+
+    /**
+     * Merges segments together until no more than the configured maximum number of segments remain. Adjacent segments are always merged
+     * so that each segment continues to cover a contiguous range of Event IDs, and the pair with the fewest entries is chosen first.
+     *
+     * @throws IOException if unable to merge segments
+     */
+    public void compact() throws IOException {
+        synchronized (maintenanceMonitor) {
+            while (true) {
+                final LineageIndexSegment first;
+                final LineageIndexSegment second;
+
+                readLock.lock();
+                try {
+                    if (segments.size() <= maxSegmentCount) {
+                        return;
+                    }
+
+                    int pairIndex = -1;
+                    long smallestPair = Long.MAX_VALUE;
+                    for (int i = 0; i < segments.size() - 1; i++) {
+                        final long pairEntries = (long) segments.get(i).getEntryCount() + segments.get(i + 1).getEntryCount();
+                        if (pairEntries < smallestPair) {
+                            smallestPair = pairEntries;
+                            pairIndex = i;
+                        }
+                    }
+
+                    if (smallestPair > Integer.MAX_VALUE) {
+                        logger.warn("Cannot merge Lineage Index segments in {} because the merged segment would contain too many entries", directory);
+                        return;
+                    }
+
+                    first = segments.get(pairIndex);
+                    second = segments.get(pairIndex + 1);
+                } finally {
+                    readLock.unlock();
+                }
+
+                final LineageIndexSegment merged = merge(first, second);
+
+                writeLock.lock();
+                try {
+                    final int index = segments.indexOf(first);
+                    segments.set(index, merged);
+                    segments.remove(second);
+                } finally {
+                    writeLock.unlock();
+                }
+
+                destroy(first);
+                destroy(second);
+            }
+        }
+    }
+
+    private LineageIndexSegment merge(final LineageIndexSegment first, final LineageIndexSegment second) throws IOException {
+        final long minEventId = Math.min(first.getMinEventId(), second.getMinEventId());
+        final long maxEventId = Math.max(first.getMaxEventId(), second.getMaxEventId());
+        final int entryCount = first.getEntryCount() + second.getEntryCount();
+
+        final File segmentFile = getSegmentFile(minEventId, maxEventId);
+        final File partialFile = getPartialFile(segmentFile);
+
+        try (final DataInputStream firstIn = first.openEntryStream();
+             final DataInputStream secondIn = second.openEntryStream();
+             final DataOutputStream out = LineageIndexSegment.createOutputStream(partialFile, minEventId, maxEventId, entryCount)) {
+
+            int firstRemaining = first.getEntryCount();
+            int secondRemaining = second.getEntryCount();
+            long[] firstEntry = firstRemaining > 0 ? readEntry(firstIn) : null;
+            long[] secondEntry = secondRemaining > 0 ? readEntry(secondIn) : null;
+
+            while (firstEntry != null || secondEntry != null) {
+                final boolean takeFirst = secondEntry == null
+                    || (firstEntry != null && LineageIndexSegment.compare(firstEntry[0], firstEntry[1], firstEntry[2], secondEntry[0], secondEntry[1], secondEntry[2]) <= 0);
+
+                if (takeFirst) {
+                    LineageIndexSegment.writeEntry(out, firstEntry[0], firstEntry[1], firstEntry[2]);
+                    firstEntry = --firstRemaining > 0 ? readEntry(firstIn) : null;
+                } else {
+                    LineageIndexSegment.writeEntry(out, secondEntry[0], secondEntry[1], secondEntry[2]);
+                    secondEntry = --secondRemaining > 0 ? readEntry(secondIn) : null;
+                }
+            }
+        }
+
+        final LineageIndexSegment merged = commit(partialFile, segmentFile);
+        logger.info("Merged {} and {} into {}", first, second, merged);
+        return merged;
+    }
+
+    private static long[] readEntry(final DataInputStream in) throws IOException {
+        return new long[] {in.readLong(), in.readLong(), in.readLong()};
+    }
+
+    private LineageIndexSegment commit(final File partialFile, final File segmentFile) throws IOException {
+        try (final FileChannel channel = FileChannel.open(partialFile.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+
+        Files.move(partialFile.toPath(), segmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return LineageIndexSegment.open(segmentFile);
+    }
+
+    private void destroy(final LineageIndexSegment segment) {
+        closeQuietly(segment);
+
+        final File file = segment.getFile();
+        if (!file.delete() && file.exists()) {
+            logger.warn("Failed to delete Lineage Index segment {}; this file should be cleaned up manually", file);
+        }
+    }
+
+    private static void closeQuietly(final LineageIndexSegment segment) {
+        try {
+            segment.close();
+        } catch (final IOException ioe) {
+            logger.warn("Failed to close {}", segment, ioe);
+        }
+    }
+
+    private List<File> getSegmentFiles() {
+        final File[] files = directory.listFiles(file -> file.getName().endsWith(SEGMENT_SUFFIX));
+        return files == null ? new ArrayList<>() : Arrays.asList(files);
+    }
+
+    private File getSegmentFile(final long minEventId, final long maxEventId) {
+        return new File(directory, minEventId + "-" + maxEventId + SEGMENT_SUFFIX);
+    }
+
+    private static File getPartialFile(final File segmentFile) {
+        return new File(segmentFile.getParentFile(), segmentFile.getName() + PARTIAL_SUFFIX);
+    }
+
+    private static long readCoverage(final File coverageFile) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new FileInputStream(coverageFile))) {
+            final int version = in.readInt();
+            if (version != LineageIndexSegment.VERSION) {
+                throw new IOException("Cannot read Lineage Index coverage file " + coverageFile + " because it was written using version " + version
+                    + " of the encoding, but only version " + LineageIndexSegment.VERSION + " is supported");
+            }
+
+            return in.readLong();
+        }
+    }
+
+    private static void writeCoverage(final File coverageFile, final long coverageStartEventId) throws IOException {
+        final File partialFile = new File(coverageFile.getParentFile(), coverageFile.getName() + PARTIAL_SUFFIX);
+        try (final FileOutputStream fos = new FileOutputStream(partialFile);
+             final DataOutputStream out = new DataOutputStream(fos)) {
+            out.writeInt(LineageIndexSegment.VERSION);
+            out.writeLong(coverageStartEventId);
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        Files.move(partialFile.toPath(), coverageFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Converts the given identifier into the 128-bit key that is stored in the index. Identifiers that are UUIDs in their canonical
+     * form are stored as-is; any other identifier is stored as a name-based UUID derived from the identifier.
+     *
+     * @param identifier the identifier
+     * @return the key for the identifier
+     */
+    static UUID toKey(final String identifier) {
+        if (identifier.length() == 36) {
+            try {
+                final UUID uuid = UUID.fromString(identifier);
+                if (uuid.toString().equals(identifier)) {
+                    return uuid;
+                }
+            } catch (final IllegalArgumentException iae) {
+                // Not a UUID. Fall through and use a name-based key.
+            }
+        }
+
+        return UUID.nameUUIDFromBytes(identifier.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the identifiers under which the given event should be indexed. These are the same identifiers that are stored in the
+     * FlowFile UUID field of the Lucene index.
+     *
+     * @param event the event
+     * @return the identifiers that the event should be indexed under
+     */
+    public static Set<String> getLineageIdentifiers(final ProvenanceEventRecord event) {
+        final Set<String> identifiers = new LinkedHashSet<>();
+        identifiers.add(event.getFlowFileUuid());
+
+        final ProvenanceEventType eventType = event.getEventType();
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            identifiers.addAll(event.getChildUuids());
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            identifiers.addAll(event.getParentUuids());
+        } else if (eventType == ProvenanceEventType.RECEIVE && event.getSourceSystemFlowFileIdentifier() != null) {
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                identifiers.add(sourceIdentifier.substring(lastColon + 1));
+            }
+        }
+
+        return identifiers;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (maintenanceMonitor) {
+            writeLock.lock();
+            try {
+                try {
+                    flush();
+                } finally {
+                    for (final LineageIndexSegment segment : segments) {
+                        closeQuietly(segment);
+                    }
+                    segments.clear();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LineageIndex[directory=" + directory + "]";
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.lineage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * An immutable, sorted file of lineage index entries. Each entry is a fixed-width record consisting of the most and least significant
+ * bits of the key followed by the Event ID, so that the entries for a given key can be located with a binary search, using positional
+ * reads against the file.
+ */
+class LineageIndexSegment implements Closeable {
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 4 + 8 + 8 + 4; // version, min event id, max event id, entry count
+    static final int ENTRY_LENGTH = 8 + 8 + 8;  // key msb, key lsb, event id
+
+    private static final int ENTRIES_PER_READ = 64;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long minEventId;
+    private final long maxEventId;
+    private final int entryCount;
+
+    private LineageIndexSegment(final File file, final FileChannel channel, final long minEventId, final long maxEventId, final int entryCount) {
+        this.file = file;
+        this.channel = channel;
+        this.minEventId = minEventId;
+        this.maxEventId = maxEventId;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Opens the segment stored in the given file, verifying that the file is complete
+     *
+     * @param file the segment file
+     * @return the segment
+     * @throws IOException if unable to read the file or the file is not a valid segment
+     */
+    static LineageIndexSegment open(final File file) throws IOException {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0L);
+            header.flip();
+
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Cannot read Lineage Index segment " + file + " because it was written using version " + version
+                    + " of the encoding, but only version " + VERSION + " is supported");
+            }
+
+            final long minEventId = header.getLong();
+            final long maxEventId = header.getLong();
+            final int entryCount = header.getInt();
+
+            final long expectedLength = HEADER_LENGTH + (long) entryCount * ENTRY_LENGTH;
+            if (channel.size() != expectedLength) {
+                throw new IOException("Lineage Index segment " + file + " should contain " + entryCount + " entries (" + expectedLength
+                    + " bytes) but is " + channel.size() + " bytes long");
+            }
+
+            return new LineageIndexSegment(file, channel, minEventId, maxEventId, entryCount);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a stream that writes a new segment to the given file. The caller is responsible for writing exactly <code>entryCount</code> entries,
+     * ordered by key and then by Event ID, each using {@link #writeEntry(DataOutputStream, long, long, long)}.
+     */
+    static DataOutputStream createOutputStream(final File file, final long minEventId, final long maxEventId, final int entryCount) throws IOException {
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+        out.writeInt(VERSION);
+        out.writeLong(minEventId);
+        out.writeLong(maxEventId);
+        out.writeInt(entryCount);
+        return out;
+    }
+
+    static void writeEntry(final DataOutputStream out, final long keyMsb, final long keyLsb, final long eventId) throws IOException {
+        out.writeLong(keyMsb);
+        out.writeLong(keyLsb);
+        out.writeLong(eventId);
+    }
+
+    static int compare(final long msb1, final long lsb1, final long eventId1, final long msb2, final long lsb2, final long eventId2) {
+        int comparison = Long.compare(msb1, msb2);
+        if (comparison != 0) {
+            return comparison;
+        }
+
+        comparison = Long.compare(lsb1, lsb2);
+        if (comparison != 0) {
+            return comparison;
+        }
+
+        return Long.compare(eventId1, eventId2);
+    }
+
+    /**
+     * @return a stream that is positioned at the first entry of this segment, to be used for reading the entries sequentially
+     * @throws IOException if unable to open the file
+     */
+    DataInputStream openEntryStream() throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            long skipped = 0L;
+            while (skipped < HEADER_LENGTH) {
+                final long skippedThisTime = in.skip(HEADER_LENGTH - skipped);
+                if (skippedThisTime <= 0) {
+                    throw new EOFException("Unexpected end of Lineage Index segment " + file);
+                }
+
+                skipped += skippedThisTime;
+            }
+        } catch (final IOException ioe) {
+            in.close();
+            throw ioe;
+        }
+
+        return new DataInputStream(new BufferedInputStream(in, 65536));
+    }
+
+    /**
+     * Adds to the given collection the Event ID of each entry in this segment that has the given key
+     *
+     * @param keyMsb the most significant bits of the key
+     * @param keyLsb the least significant bits of the key
+     * @param eventIds the collection to add the Event IDs to
+     * @throws IOException if unable to read from the segment
+     */
+    void getEventIds(final long keyMsb, final long keyLsb, final Collection<Long> eventIds) throws IOException {
+        // Binary search for the first entry whose key is not less than the key that we are looking for.
+        final ByteBuffer keyBuffer = ByteBuffer.allocate(16);
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            keyBuffer.clear();
+            readFully(channel, keyBuffer, getEntryOffset(mid));
+            keyBuffer.flip();
+
+            final int comparison = compare(keyBuffer.getLong(), keyBuffer.getLong(), 0L, keyMsb, keyLsb, 0L);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        // Read forward from that entry for as long as the keys match.
+        final ByteBuffer entryBuffer = ByteBuffer.allocate(ENTRIES_PER_READ * ENTRY_LENGTH);
+        int index = low;
+        while (index < entryCount) {
+            final int entriesToRead = Math.min(ENTRIES_PER_READ, entryCount - index);
+            entryBuffer.clear();
+            entryBuffer.limit(entriesToRead * ENTRY_LENGTH);
+            readFully(channel, entryBuffer, getEntryOffset(index));
+            entryBuffer.flip();
+
+            for (int i = 0; i < entriesToRead; i++) {
+                final long msb = entryBuffer.getLong();
+                final long lsb = entryBuffer.getLong();
+                final long eventId = entryBuffer.getLong();
+                if (msb != keyMsb || lsb != keyLsb) {
+                    return;
+                }
+
+                eventIds.add(eventId);
+            }
+
+            index += entriesToRead;
+        }
+    }
+
+    private static long getEntryOffset(final int index) {
+        return HEADER_LENGTH + (long) index * ENTRY_LENGTH;
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of Lineage Index segment");
+            }
+
+            offset += read;
+        }
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getMinEventId() {
+        return minEventId;
+    }
+
+    long getMaxEventId() {
+        return maxEventId;
+    }
+
+    int getEntryCount() {
+        return entryCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "LineageIndexSegment[file=" + file + ", eventIds=" + minEventId + "-" + maxEventId + ", entries=" + entryCount + "]";
+    }
+}
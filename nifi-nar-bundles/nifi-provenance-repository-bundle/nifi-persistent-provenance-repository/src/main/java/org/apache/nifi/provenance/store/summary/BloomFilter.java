@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.summary;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A simple Bloom Filter over String values. Values are added and tested in a case-insensitive manner, consistent with the
+ * way that values are indexed and searched in the Lucene indices. This class is not thread-safe.
+ */
+class BloomFilter {
+    private static final double LN2 = Math.log(2);
+    private static final int MAX_HASH_FUNCTIONS = 16;
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    private BloomFilter(final long[] bits, final int hashFunctions) {
+        this.bits = bits;
+        this.bitCount = (long) bits.length * Long.SIZE;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Creates a Bloom Filter that is sized to hold the given number of distinct values with approximately the given rate of false positives
+     *
+     * @param expectedValues the number of distinct values that are expected to be added
+     * @param falsePositiveRate the desired false positive rate, between 0 and 1, exclusive
+     * @return the Bloom Filter
+     */
+    static BloomFilter create(final int expectedValues, final double falsePositiveRate) {
+        if (falsePositiveRate <= 0D || falsePositiveRate >= 1D) {
+            throw new IllegalArgumentException("False Positive Rate must be between 0 and 1, exclusive");
+        }
+
+        final int values = Math.max(1, expectedValues);
+        final long desiredBits = (long) Math.ceil(-values * Math.log(falsePositiveRate) / (LN2 * LN2));
+        final int longs = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (desiredBits + Long.SIZE - 1) / Long.SIZE));
+        final int hashFunctions = (int) Math.max(1L, Math.min(MAX_HASH_FUNCTIONS, Math.round((double) longs * Long.SIZE / values * LN2)));
+        return new BloomFilter(new long[longs], hashFunctions);
+    }
+
+    void add(final String value) {
+        final long hash = hash(value);
+        final long hash1 = mix(hash);
+        final long hash2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+
+        for (int i = 0; i < hashFunctions; i++) {
+            final long bitIndex = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+            bits[(int) (bitIndex >>> 6)] |= 1L << bitIndex;
+        }
+    }
+
+    /**
+     * @param value the value to check
+     * @return <code>false</code> if the value was definitely never added to this filter, <code>true</code> if it may have been
+     */
+    boolean mightContain(final String value) {
+        final long hash = hash(value);
+        final long hash1 = mix(hash);
+        final long hash2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+
+        for (int i = 0; i < hashFunctions; i++) {
+            final long bitIndex = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+            if ((bits[(int) (bitIndex >>> 6)] & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    BloomFilter copy() {
+        return new BloomFilter(bits.clone(), hashFunctions);
+    }
+
+    void writeTo(final DataOutputStream out) throws IOException {
+        out.writeInt(hashFunctions);
+        out.writeInt(bits.length);
+        for (final long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    static BloomFilter readFrom(final DataInputStream in) throws IOException {
+        final int hashFunctions = in.readInt();
+        final int length = in.readInt();
+        if (hashFunctions < 1 || hashFunctions > MAX_HASH_FUNCTIONS || length < 1) {
+            throw new IOException("Invalid Bloom Filter encoding: " + hashFunctions + " hash functions and " + length + " words");
+        }
+
+        final long[] bits = new long[length];
+        for (int i = 0; i < length; i++) {
+            bits[i] = in.readLong();
+        }
+
+        return new BloomFilter(bits, hashFunctions);
+    }
+
+    // 64-bit FNV-1a over the lower-cased characters of the value
+    private static long hash(final String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= Character.toLowerCase(value.charAt(i));
+            hash *= 0x100000001B3L;
+        }
+
+        return hash;
+    }
+
+    // Finalization step of MurmurHash3, used to spread the bits of the FNV hash
+    private static long mix(final long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
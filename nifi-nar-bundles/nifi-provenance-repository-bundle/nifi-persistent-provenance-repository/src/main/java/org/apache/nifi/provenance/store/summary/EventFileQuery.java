@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.summary;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.store.lineage.LineageIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * A Provenance Query that is evaluated directly against the events in the Event Files, rather than against a Lucene index. Terms are
+ * matched in the same way that Lucene matches them: case-insensitively, with <code>*</code> and <code>?</code> treated as wildcards, and with
+ * a FlowFile UUID term matching the parents or children of a JOIN, FORK, CLONE, or REPLAY event. Event File Summaries are used to determine
+ * which Event Files cannot contain any matching event, so that those files need not be read.
+ */
+public class EventFileQuery {
+    private final Query query;
+    private final long startTimestamp;
+    private final long endTimestamp;
+    private final long minFileSize;
+    private final long maxFileSize;
+    private final List<TermMatcher> termMatchers;
+
+    private EventFileQuery(final Query query, final long startTimestamp, final long endTimestamp, final long minFileSize, final long maxFileSize,
+                           final List<TermMatcher> termMatchers) {
+        this.query = query;
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.minFileSize = minFileSize;
+        this.maxFileSize = maxFileSize;
+        this.termMatchers = termMatchers;
+    }
+
+    /**
+     * Creates an EventFileQuery that is equivalent to the given Provenance Query
+     *
+     * @param query the query
+     * @return an Optional containing the equivalent EventFileQuery, or an empty Optional if the query contains a term whose field cannot be
+     *         evaluated against the events directly
+     */
+    public static Optional<EventFileQuery> create(final Query query) {
+        final List<TermMatcher> termMatchers = new ArrayList<>();
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final String value = searchTerm.getValue();
+            if (value == null) {
+                throw new IllegalArgumentException("Empty search value not allowed (for term '" + searchTerm.getSearchableField().getFriendlyName() + "')");
+            }
+
+            final Function<ProvenanceEventRecord, Collection<String>> valueExtractor = getValueExtractor(searchTerm.getSearchableField());
+            if (valueExtractor == null) {
+                return Optional.empty();
+            }
+
+            termMatchers.add(new TermMatcher(searchTerm.getSearchableField(), value, valueExtractor));
+        }
+
+        final long startTimestamp = query.getStartDate() == null ? Long.MIN_VALUE : query.getStartDate().getTime();
+        final long endTimestamp = query.getEndDate() == null ? Long.MAX_VALUE : query.getEndDate().getTime();
+        final long minFileSize = query.getMinFileSize() == null ? Long.MIN_VALUE : DataUnit.parseDataSize(query.getMinFileSize(), DataUnit.B).longValue();
+        final long maxFileSize = query.getMaxFileSize() == null ? Long.MAX_VALUE : DataUnit.parseDataSize(query.getMaxFileSize(), DataUnit.B).longValue();
+        return Optional.of(new EventFileQuery(query, startTimestamp, endTimestamp, minFileSize, maxFileSize, termMatchers));
+    }
+
+    private static Function<ProvenanceEventRecord, Collection<String>> getValueExtractor(final SearchableField field) {
+        if (field.isAttribute()) {
+            return event -> Collections.singleton(event.getAttribute(field.getSearchableFieldName()));
+        }
+
+        if (SearchableFields.FlowFileUUID.equals(field)) {
+            return LineageIndex::getLineageIdentifiers;
+        }
+        if (SearchableFields.Filename.equals(field)) {
+            return event -> Collections.singleton(event.getAttribute(CoreAttributes.FILENAME.key()));
+        }
+        if (SearchableFields.ComponentID.equals(field)) {
+            return event -> Collections.singleton(event.getComponentId());
+        }
+        if (SearchableFields.AlternateIdentifierURI.equals(field)) {
+            return event -> Collections.singleton(event.getAlternateIdentifierUri());
+        }
+        if (SearchableFields.EventType.equals(field)) {
+            return event -> Collections.singleton(event.getEventType().name());
+        }
+        if (SearchableFields.Relationship.equals(field)) {
+            return event -> Collections.singleton(event.getRelationship());
+        }
+        if (SearchableFields.Details.equals(field)) {
+            return event -> Collections.singleton(event.getDetails());
+        }
+        if (SearchableFields.ContentClaimSection.equals(field)) {
+            return event -> Collections.singleton(event.getContentClaimSection());
+        }
+        if (SearchableFields.ContentClaimContainer.equals(field)) {
+            return event -> Collections.singleton(event.getContentClaimContainer());
+        }
+        if (SearchableFields.ContentClaimIdentifier.equals(field)) {
+            return event -> Collections.singleton(event.getContentClaimIdentifier());
+        }
+        if (SearchableFields.SourceQueueIdentifier.equals(field)) {
+            return event -> Collections.singleton(event.getSourceQueueIdentifier());
+        }
+        if (SearchableFields.TransitURI.equals(field)) {
+            return event -> Collections.singleton(event.getTransitUri());
+        }
+
+        return null;
+    }
+
+    /**
+     * @return <code>true</code> if the query contains a term that can be checked against the Bloom Filters of an Event File Summary,
+     *         so that most Event Files can be eliminated without being read
+     */
+    public boolean isSelective() {
+        return termMatchers.stream().anyMatch(TermMatcher::isSummarized);
+    }
+
+    /**
+     * @param summary the summary of an Event File
+     * @return <code>false</code> if the Event File cannot contain any event that matches this query, <code>true</code> if it may
+     */
+    public boolean mayMatch(final EventFileSummary summary) {
+        if (!summary.overlaps(startTimestamp, endTimestamp)) {
+            return false;
+        }
+
+        for (final TermMatcher termMatcher : termMatchers) {
+            if (!termMatcher.mayMatch(summary)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param event the event
+     * @return <code>true</code> if the event matches this query
+     */
+    public boolean matches(final ProvenanceEventRecord event) {
+        final long eventTime = event.getEventTime();
+        if (eventTime < startTimestamp || eventTime > endTimestamp) {
+            return false;
+        }
+
+        final long fileSize = event.getFileSize();
+        if (fileSize < minFileSize || fileSize > maxFileSize) {
+            return false;
+        }
+
+        for (final TermMatcher termMatcher : termMatchers) {
+            if (!termMatcher.matches(event)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "EventFileQuery[" + query + "]";
+    }
+
+
+    private static class TermMatcher {
+        private final SearchableField field;
+        private final String value;
+        private final Pattern pattern;
+        private final Function<ProvenanceEventRecord, Collection<String>> valueExtractor;
+
+        TermMatcher(final SearchableField field, final String value, final Function<ProvenanceEventRecord, Collection<String>> valueExtractor) {
+            this.field = field;
+            this.value = value;
+            this.valueExtractor = valueExtractor;
+            this.pattern = isWildcard(value) ? toPattern(value) : null;
+        }
+
+        private static boolean isWildcard(final String value) {
+            return value.contains("*") || value.contains("?");
+        }
+
+        private static Pattern toPattern(final String value) {
+            final StringBuilder regex = new StringBuilder();
+            final StringBuilder literal = new StringBuilder();
+            for (final char c : value.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+
+            return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+        }
+
+        boolean isSummarized() {
+            return pattern == null && (SearchableFields.FlowFileUUID.equals(field) || SearchableFields.ComponentID.equals(field));
+        }
+
+        boolean mayMatch(final EventFileSummary summary) {
+            if (pattern != null) {
+                return true;
+            }
+
+            if (SearchableFields.FlowFileUUID.equals(field)) {
+                return summary.mightContainFlowFile(value);
+            }
+            if (SearchableFields.ComponentID.equals(field)) {
+                return summary.mightContainComponent(value);
+            }
+
+            return true;
+        }
+
+        boolean matches(final ProvenanceEventRecord event) {
+            for (final String eventValue : valueExtractor.apply(event)) {
+                if (eventValue == null) {
+                    continue;
+                }
+
+                if (pattern == null ? value.equalsIgnoreCase(eventValue) : pattern.matcher(eventValue).matches()) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.summary;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.lucene.LuceneUtil;
+import org.apache.nifi.provenance.store.lineage.LineageIndex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A small summary of the contents of a single Provenance Event File: the range of Event IDs and event times that the file holds,
+ * along with Bloom Filters over the FlowFile UUIDs and Component IDs of its events. The summary is written alongside the event file
+ * so that queries for a particular FlowFile or component, or for a particular time range, can skip event files that cannot contain
+ * any matching events, without consulting the Lucene indices.
+ */
+public class EventFileSummary {
+    static final int VERSION = 1;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01D;
+    private static final int MIN_EXPECTED_FLOWFILES = 1024;
+    private static final int MAX_EXPECTED_FLOWFILES = 4 * 1024 * 1024;
+    private static final int EXPECTED_COMPONENTS = 10_000;
+    private static final int ESTIMATED_BYTES_PER_EVENT = 256;
+
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int eventCount;
+    private final BloomFilter flowFileUuids;
+    private final BloomFilter componentIds;
+
+    private EventFileSummary(final long minEventId, final long maxEventId, final long minTimestamp, final long maxTimestamp, final int eventCount,
+                             final BloomFilter flowFileUuids, final BloomFilter componentIds) {
+        this.minEventId = minEventId;
+        this.maxEventId = maxEventId;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.eventCount = eventCount;
+        this.flowFileUuids = flowFileUuids;
+        this.componentIds = componentIds;
+    }
+
+    /**
+     * @return the smallest Event ID in the event file, or -1 if the event file contains no events
+     */
+    public long getMinEventId() {
+        return minEventId;
+    }
+
+    /**
+     * @return the largest Event ID in the event file, or -1 if the event file contains no events
+     */
+    public long getMaxEventId() {
+        return maxEventId;
+    }
+
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @param flowFileUuid the UUID of a FlowFile
+     * @return <code>false</code> if no event in the event file references the FlowFile, <code>true</code> if some event may reference it. A FlowFile
+     *         is referenced by an event if it is the FlowFile that the event is about or if the event would be found by searching the FlowFile UUID field
+     *         of the Lucene index for the FlowFile's UUID.
+     */
+    public boolean mightContainFlowFile(final String flowFileUuid) {
+        return eventCount > 0 && flowFileUuids.mightContain(flowFileUuid);
+    }
+
+    /**
+     * @param componentId the identifier of a component
+     * @return <code>false</code> if no event in the event file was generated by the component, <code>true</code> if some event may have been
+     */
+    public boolean mightContainComponent(final String componentId) {
+        return eventCount > 0 && componentIds.mightContain(componentId);
+    }
+
+    /**
+     * @param startTimestamp the start of the time range, inclusive
+     * @param endTimestamp the end of the time range, inclusive
+     * @return <code>true</code> if the event file may contain an event whose event time falls within the given range
+     */
+    public boolean overlaps(final long startTimestamp, final long endTimestamp) {
+        return eventCount > 0 && minTimestamp <= endTimestamp && maxTimestamp >= startTimestamp;
+    }
+
+    /**
+     * Writes the summary to the given file. The summary is first written to a temporary file, which is then renamed,
+     * so that a partially written summary is never left in place of the given file.
+     *
+     * @param file the file to write to
+     * @throws IOException if unable to write to the file
+     */
+    public void writeTo(final File file) throws IOException {
+        final File directory = file.getParentFile();
+        if (!directory.exists()) {
+            Files.createDirectories(directory.toPath());
+        }
+
+        final File tempFile = new File(directory, file.getName() + ".tmp");
+        try (final FileOutputStream fos = new FileOutputStream(tempFile);
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(VERSION);
+            out.writeLong(minEventId);
+            out.writeLong(maxEventId);
+            out.writeLong(minTimestamp);
+            out.writeLong(maxTimestamp);
+            out.writeInt(eventCount);
+            flowFileUuids.writeTo(out);
+            componentIds.writeTo(out);
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a summary that was written using {@link #writeTo(File)}
+     *
+     * @param file the file to read
+     * @return the summary
+     * @throws IOException if unable to read the file or the file is not a valid summary
+     */
+    public static EventFileSummary read(final File file) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Cannot read Event File Summary " + file + " because it was written using version " + version
+                    + " of the encoding, but only version " + VERSION + " is supported");
+            }
+
+            final long minEventId = in.readLong();
+            final long maxEventId = in.readLong();
+            final long minTimestamp = in.readLong();
+            final long maxTimestamp = in.readLong();
+            final int eventCount = in.readInt();
+            final BloomFilter flowFileUuids = BloomFilter.readFrom(in);
+            final BloomFilter componentIds = BloomFilter.readFrom(in);
+
+            if (in.read() != -1) {
+                throw new IOException("Event File Summary " + file + " contains unexpected trailing data");
+            }
+
+            return new EventFileSummary(minEventId, maxEventId, minTimestamp, maxTimestamp, eventCount, flowFileUuids, componentIds);
+        }
+    }
+
+    /**
+     * Returns the file that should be used to hold the summary of the given event file. Note, if no summary exists for the given
+     * event file, a File will still be returned but the file will not actually exist.
+     *
+     * @param eventFile the event file
+     * @return the file that holds the summary of the event file
+     */
+    public static File getSummaryFile(final File eventFile) {
+        final File summaryDir = new File(eventFile.getParentFile(), "summary");
+        final String basename = LuceneUtil.substringBefore(eventFile.getName(), ".prov");
+        return new File(summaryDir, basename + ".summary");
+    }
+
+    @Override
+    public String toString() {
+        return "EventFileSummary[eventIds=" + minEventId + "-" + maxEventId + ", timestamps=" + minTimestamp + "-" + maxTimestamp + ", events=" + eventCount + "]";
+    }
+
+
+    /**
+     * Accumulates the summary of an event file as events are written to it. The Builder is thread-safe, so that it may be updated
+     * by any thread that holds a claim on the event file's writer.
+     */
+    public static class Builder {
+        private final BloomFilter flowFileUuids;
+        private final BloomFilter componentIds;
+        private long minEventId = -1L;
+        private long maxEventId = -1L;
+        private long minTimestamp = Long.MAX_VALUE;
+        private long maxTimestamp = Long.MIN_VALUE;
+        private int eventCount = 0;
+
+        /**
+         * Creates a Builder whose Bloom Filters are sized according to the number of events that an event file is expected to hold,
+         * given the rollover thresholds of the repository
+         *
+         * @param config the repository configuration
+         */
+        public Builder(final RepositoryConfiguration config) {
+            this(estimateFlowFilesPerEventFile(config), EXPECTED_COMPONENTS);
+        }
+
+        Builder(final int expectedFlowFiles, final int expectedComponents) {
+            this.flowFileUuids = BloomFilter.create(expectedFlowFiles, FALSE_POSITIVE_RATE);
+            this.componentIds = BloomFilter.create(expectedComponents, FALSE_POSITIVE_RATE);
+        }
+
+        private static int estimateFlowFilesPerEventFile(final RepositoryConfiguration config) {
+            final long estimatedEvents = Math.max(MIN_EXPECTED_FLOWFILES, config.getMaxEventFileCapacity() / ESTIMATED_BYTES_PER_EVENT);
+            return (int) Math.min(MAX_EXPECTED_FLOWFILES, Math.min(config.getMaxEventFileCount(), estimatedEvents));
+        }
+
+        /**
+         * Adds the given event, which has been assigned the given Event ID, to the summary
+         *
+         * @param event the event
+         * @param eventId the ID of the event
+         */
+        public synchronized void addEvent(final ProvenanceEventRecord event, final long eventId) {
+            if (eventCount == 0 || eventId < minEventId) {
+                minEventId = eventId;
+            }
+            maxEventId = Math.max(maxEventId, eventId);
+
+            final long eventTime = event.getEventTime();
+            minTimestamp = Math.min(minTimestamp, eventTime);
+            maxTimestamp = Math.max(maxTimestamp, eventTime);
+            eventCount++;
+
+            for (final String identifier : LineageIndex.getLineageIdentifiers(event)) {
+                if (identifier != null) {
+                    flowFileUuids.add(identifier);
+                }
+            }
+
+            final String componentId = event.getComponentId();
+            if (componentId != null) {
+                componentIds.add(componentId);
+            }
+        }
+
+        public synchronized int getEventCount() {
+            return eventCount;
+        }
+
+        /**
+         * @return a summary of the events that have been added so far. Events that are added after this method is called are not
+         *         reflected in the summary that is returned.
+         */
+        public synchronized EventFileSummary build() {
+            return new EventFileSummary(minEventId, maxEventId, minTimestamp, maxTimestamp, eventCount, flowFileUuids.copy(), componentIds.copy());
+        }
+    }
+}
@@ -18,23 +18,32 @@
 package org.apache.nifi.provenance;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.nifi.provenance.serialization.RecordReader;
+import org.apache.nifi.provenance.serialization.RecordReaders;
 import org.apache.nifi.provenance.serialization.RecordWriter;
 import org.apache.nifi.provenance.toc.StandardTocReader;
 import org.apache.nifi.provenance.toc.StandardTocWriter;
@@ -414,6 +423,157 @@ public class TestEventIdFirstSchemaRecordReaderWriter extends AbstractTestRecord
         FileUtils.deleteFile(journalFile.getParentFile(), true);
     }
 
+    @Test
+    public void testBlockCompressedMultipleBlocks() throws IOException {
+        final List<ProvenanceEventRecord> events = new ArrayList<>();
+        try (final RecordWriter writer = createBlockCompressedWriter(journalFile, new StandardTocWriter(tocFile, true, false), 100)) {
+            assertTrue(writer.isCompressed());
+            writer.writeHeader(0L);
+
+            for (int i = 0; i < 10; i++) {
+                final ProvenanceEventRecord event = createEvent();
+                events.add(event);
+                writer.writeRecord(event);
+            }
+        }
+
+        // The serialization name and version must be readable without decompressing anything.
+        try (final DataInputStream dis = new DataInputStream(new FileInputStream(journalFile))) {
+            assertEquals(EventIdFirstSchemaRecordWriter.SERIALIZATION_NAME, dis.readUTF());
+            assertEquals(EventIdFirstSchemaRecordWriter.BLOCK_COMPRESSED_SERIALIZATION_VERSION, dis.readInt());
+        }
+
+        final TocReader tocReader = new StandardTocReader(tocFile);
+        assertTrue(tocReader.isCompressed());
+        assertTrue(tocReader.getBlockOffset(1) > 0);
+
+        try (final RecordReader reader = RecordReaders.newRecordReader(journalFile, Collections.emptyList(), 2048)) {
+            for (int i = 0; i < 10; i++) {
+                final StandardProvenanceEventRecord recovered = reader.nextRecord();
+                assertNotNull(recovered);
+                assertEquals(i, recovered.getEventId());
+                assertEquals(events.get(i), recovered);
+            }
+
+            assertNull(reader.nextRecord());
+        }
+
+        // Each event should be found by skipping directly to the compressed block that contains it.
+        for (int i = 9; i >= 0; i -= 3) {
+            try (final FileInputStream fis = new FileInputStream(journalFile);
+                final RecordReader reader = createReader(fis, journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+                final Optional<ProvenanceEventRecord> eventOption = reader.skipToEvent(i);
+                assertTrue(eventOption.isPresent());
+                assertEquals(events.get(i), eventOption.get());
+            }
+        }
+
+        try (final FileInputStream fis = new FileInputStream(journalFile);
+            final RecordReader reader = createReader(fis, journalFile.getName(), tocReader, 2048)) {
+            assertEquals(9L, reader.getMaxEventId());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Test
+    public void testBlockCompressedEventsReadableAfterFlush() throws IOException {
+        try (final RecordWriter writer = createBlockCompressedWriter(journalFile, new StandardTocWriter(tocFile, true, false), 1024 * 1024)) {
+            writer.writeHeader(0L);
+            writer.writeRecord(createEvent());
+            writer.writeRecord(createEvent());
+            writer.flush();
+
+            try (final FileInputStream fis = new FileInputStream(journalFile);
+                final RecordReader reader = createReader(fis, journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+                assertEquals(0L, reader.nextRecord().getEventId());
+                assertEquals(1L, reader.nextRecord().getEventId());
+                assertNull(reader.nextRecord());
+            }
+
+            writer.writeRecord(createEvent());
+        }
+
+        try (final FileInputStream fis = new FileInputStream(journalFile);
+            final RecordReader reader = createReader(fis, journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+            assertEquals(2L, reader.getMaxEventId());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Test
+    public void testBlockCompressedIncompleteBlockIgnored() throws IOException {
+        try (final RecordWriter writer = createBlockCompressedWriter(journalFile, new StandardTocWriter(tocFile, true, false), 1024 * 1024)) {
+            writer.writeHeader(0L);
+            for (int i = 0; i < 5; i++) {
+                writer.writeRecord(createEvent());
+            }
+            writer.flush();
+
+            for (int i = 0; i < 5; i++) {
+                writer.writeRecord(createEvent());
+            }
+        }
+
+        // Simulate being stopped while the last compressed block was being written.
+        try (final RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+            raf.setLength(raf.length() - 10);
+        }
+
+        try (final FileInputStream fis = new FileInputStream(journalFile);
+            final RecordReader reader = createReader(fis, journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+            assertEquals(4L, reader.getMaxEventId());
+        }
+
+        try (final FileInputStream fis = new FileInputStream(journalFile);
+            final RecordReader reader = createReader(fis, journalFile.getName(), new StandardTocReader(tocFile), 2048)) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i, reader.nextRecord().getEventId());
+            }
+
+            assertFalse(reader.isData());
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    @Test
+    public void testBlockCompressedCorruptBlockIdentified() throws IOException {
+        try (final RecordWriter writer = createBlockCompressedWriter(journalFile, new StandardTocWriter(tocFile, true, false), 1024 * 1024)) {
+            writer.writeHeader(0L);
+            for (int i = 0; i < 5; i++) {
+                writer.writeRecord(createEvent());
+            }
+        }
+
+        // Corrupt a byte of the first compressed block, which follows the uncompressed serialization name and version and the block header.
+        final long blockOffset = 2 + EventIdFirstSchemaRecordWriter.SERIALIZATION_NAME.length() + 4;
+        try (final RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+            final long corruptOffset = blockOffset + 12 + 8;
+            raf.seek(corruptOffset);
+            final int original = raf.read();
+            raf.seek(corruptOffset);
+            raf.write(original ^ 0xFF);
+        }
+
+        try (final FileInputStream fis = new FileInputStream(journalFile)) {
+            createReader(fis, journalFile.getName(), new StandardTocReader(tocFile), 2048);
+            fail("Expected the corrupt block to be reported");
+        } catch (final EOFException eof) {
+            fail("A corrupt block that was written in full should not be treated as the end of the data");
+        } catch (final IOException ioe) {
+            assertTrue(ioe.getMessage().contains(journalFile.getName()));
+            assertTrue(ioe.getMessage().contains("offset " + blockOffset));
+        }
+
+        FileUtils.deleteFile(journalFile.getParentFile(), true);
+    }
+
+    private RecordWriter createBlockCompressedWriter(final File file, final TocWriter tocWriter, final int uncompressedBlockSize) throws IOException {
+        return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, false, true, uncompressedBlockSize, IdentifierLookup.EMPTY);
+    }
+
     @Override
     protected RecordWriter createWriter(final File file, final TocWriter tocWriter, final boolean compressed, final int uncompressedBlockSize) throws IOException {
         return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, uncompressedBlockSize, IdentifierLookup.EMPTY);
@@ -39,6 +39,8 @@ import org.apache.nifi.provenance.serialization.StorageSummary;
 import org.apache.nifi.provenance.store.ArrayListEventStore;
 import org.apache.nifi.provenance.store.EventStore;
 import org.apache.nifi.provenance.store.StorageResult;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.summary.EventFileSummary;
 import org.apache.nifi.util.Tuple;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -53,14 +55,19 @@ import org.mockito.stubbing.Answer;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
@@ -176,6 +183,123 @@ public class TestLuceneEventIndex {
         }
     }
 
+    @Test(timeout = 60000)
+    public void testLineageComputedFromEventStoreLineageIndex() throws InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        // The events are never added to the Lucene index, so they can be found only through the Event Store's lineage index.
+        final ArrayListEventStore eventStore = new ArrayListEventStore() {
+            @Override
+            public Optional<List<Long>> getLineageEventIds(final Collection<String> flowFileUuids) {
+                return Optional.of(flowFileUuids.contains("1234") ? Arrays.asList(1L, 2L, 3L) : Collections.emptyList());
+            }
+        };
+
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 3, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        eventStore.addEvent(createEvent("5678"));
+        for (int i = 0; i < 3; i++) {
+            eventStore.addEvent(createEvent("1234"));
+        }
+
+        final ComputeLineageSubmission submission = index.submitLineageComputation("1234", createUser(), EventAuthorizer.GRANT_ALL);
+        assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+
+        final List<LineageNode> eventNodes = submission.getResult().getNodes().stream()
+            .filter(node -> node.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE)
+            .collect(Collectors.toList());
+        assertEquals(3, eventNodes.size());
+    }
+
+    @Test(timeout = 60000)
+    public void testLineageIndexEventsFilteredByTimeBeforeTruncating() throws InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        final int oldEventCount = LuceneEventIndex.MAX_LINEAGE_NODES + 100;
+        final int newEventCount = 5;
+        final List<Long> eventIds = new ArrayList<>();
+        for (long i = 0; i < oldEventCount + newEventCount; i++) {
+            eventIds.add(i);
+        }
+
+        final ArrayListEventStore eventStore = new ArrayListEventStore() {
+            @Override
+            public Optional<List<Long>> getLineageEventIds(final Collection<String> flowFileUuids) {
+                return Optional.of(eventIds);
+            }
+        };
+
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 3, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        // Events that occurred before the lineage start date of the event of interest are outside of the time range of the lineage.
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < oldEventCount; i++) {
+            eventStore.addEvent(createEvent(now - 60_000L, "1234"));
+        }
+        for (int i = 0; i < newEventCount; i++) {
+            eventStore.addEvent(createEvent(now, "1234"));
+        }
+
+        final ComputeLineageSubmission submission = index.submitLineageComputation(oldEventCount + newEventCount - 1, createUser(), EventAuthorizer.GRANT_ALL);
+        assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+
+        final List<LineageNode> eventNodes = submission.getResult().getNodes().stream()
+            .filter(node -> node.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE)
+            .collect(Collectors.toList());
+        assertEquals(newEventCount, eventNodes.size());
+    }
+
+    @Test(timeout = 60000)
+    public void testQueryAnsweredFromEventFiles() throws InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        repoConfig.setEventFileSummariesEnabled(true);
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        // The events are never added to the Lucene index, and the Component ID is not indexed, so they can be found only by reading the events.
+        final ArrayListEventStore eventStore = new ArrayListEventStore() {
+            @Override
+            public Optional<List<EventIterator>> createEventIterators(final Predicate<EventFileSummary> summaryFilter) {
+                try {
+                    final Iterator<ProvenanceEventRecord> events = getEvents(0L, Integer.MAX_VALUE).iterator();
+                    return Optional.of(Collections.singletonList(new EventIterator() {
+                        @Override
+                        public Optional<ProvenanceEventRecord> nextEvent() {
+                            return events.hasNext() ? Optional.of(events.next()) : Optional.empty();
+                        }
+
+                        @Override
+                        public void close() {
+                        }
+                    }));
+                } catch (final IOException ioe) {
+                    throw new AssertionError(ioe);
+                }
+            }
+        };
+
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 3, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        eventStore.addEvent(createEvent());
+        eventStore.addEvent(new StandardProvenanceEventRecord.Builder().fromEvent(createEvent()).setComponentId("component-2").build());
+        eventStore.addEvent(createEvent());
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "COMPONENT-2"));
+
+        final QuerySubmission submission = index.submitQuery(query, EventAuthorizer.GRANT_ALL, "unit test");
+        assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+
+        final List<ProvenanceEventRecord> events = submission.getResult().getMatchingEvents();
+        assertEquals(1, events.size());
+        assertEquals("component-2", events.get(0).getComponentId());
+        assertEquals(1L, submission.getResult().getTotalHitCount());
+    }
+
     @Ignore("This test is unreliable in certain build environments")
     @Test(timeout = 60000)
     public void testUnauthorizedEventsGetPlaceholdersForExpandChildren() throws InterruptedException, IOException {
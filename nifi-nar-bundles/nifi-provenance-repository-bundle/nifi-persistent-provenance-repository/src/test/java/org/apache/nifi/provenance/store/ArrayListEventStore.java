@@ -23,17 +23,20 @@ import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.serialization.StorageSummary;
 import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.summary.EventFileSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 public class ArrayListEventStore implements EventStore {
     private static final Logger logger = LoggerFactory.getLogger(ArrayListEventStore.class);
@@ -150,6 +153,16 @@ public class ArrayListEventStore implements EventStore {
         return events;
     }
 
+    @Override
+    public Optional<List<Long>> getLineageEventIds(final Collection<String> flowFileUuids) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<List<EventIterator>> createEventIterators(final Predicate<EventFileSummary> summaryFilter) {
+        return Optional.empty();
+    }
+
     @Override
     public void reindexLatestEvents(EventIndex eventIndex) {
     }
@@ -26,6 +26,8 @@ import org.apache.nifi.provenance.TestUtil;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.serialization.RecordReaders;
 import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.summary.EventFileSummary;
 import org.apache.nifi.provenance.toc.StandardTocWriter;
 import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.toc.TocWriter;
@@ -37,17 +39,21 @@ import org.mockito.stubbing.Answer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class TestWriteAheadStorePartition {
@@ -140,6 +146,136 @@ public class TestWriteAheadStorePartition {
         assertEquals(maxEventId, partition.getMaxEventId());
     }
 
+    @Test
+    public void testLineageIndex() throws IOException {
+        final RepositoryConfiguration repoConfig = createConfig(1, "testLineageIndex");
+        repoConfig.setMaxEventFileCount(5);
+
+        final String partitionName = repoConfig.getStorageDirectories().keySet().iterator().next();
+        final File storageDirectory = repoConfig.getStorageDirectories().values().iterator().next();
+
+        final RecordWriterFactory recordWriterFactory = (file, idGenerator, compressed, createToc) -> {
+            final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), false, false) : null;
+            return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, 32 * 1024, IdentifierLookup.EMPTY);
+        };
+
+        final RecordReaderFactory recordReaderFactory = RecordReaders::newRecordReader;
+
+        // Write events before the Lineage Index is enabled. The index should not be used until these events have been aged off.
+        WriteAheadStorePartition partition = new WriteAheadStorePartition(storageDirectory, partitionName, repoConfig, recordWriterFactory,
+            recordReaderFactory, new LinkedBlockingQueue<>(), new AtomicLong(0L), EventReporter.NO_OP, Mockito.mock(EventFileManager.class));
+        partition.initialize();
+
+        final ProvenanceEventRecord unindexedEvent = TestUtil.createEvent();
+        partition.addEvents(Collections.singleton(unindexedEvent));
+        assertFalse(partition.getLineageEventIds(Collections.singleton(unindexedEvent.getFlowFileUuid())).isPresent());
+        partition.close();
+
+        repoConfig.setLineageIndexEnabled(true);
+        partition = new WriteAheadStorePartition(storageDirectory, partitionName, repoConfig, recordWriterFactory,
+            recordReaderFactory, new LinkedBlockingQueue<>(), new AtomicLong(0L), EventReporter.NO_OP, Mockito.mock(EventFileManager.class));
+        partition.initialize();
+
+        final ProvenanceEventRecord indexedEvent = TestUtil.createEvent();
+        partition.addEvents(Collections.singleton(indexedEvent));
+        for (int i = 0; i < 20; i++) {
+            partition.addEvents(Collections.singleton(TestUtil.createEvent()));
+        }
+
+        assertFalse(partition.getLineageEventIds(Collections.singleton(indexedEvent.getFlowFileUuid())).isPresent());
+
+        // Once the events that were written before the index existed are gone, the index is used.
+        partition.purgeOldestEvents();
+        final Optional<List<Long>> eventIds = partition.getLineageEventIds(Collections.singleton(indexedEvent.getFlowFileUuid()));
+        assertTrue(eventIds.isPresent());
+        assertEquals(Collections.singletonList(1L), eventIds.get());
+        partition.close();
+
+        // The index should be recovered upon restart.
+        partition = new WriteAheadStorePartition(storageDirectory, partitionName, repoConfig, recordWriterFactory,
+            recordReaderFactory, new LinkedBlockingQueue<>(), new AtomicLong(0L), EventReporter.NO_OP, Mockito.mock(EventFileManager.class));
+        partition.initialize();
+        assertEquals(Collections.singletonList(1L), partition.getLineageEventIds(Collections.singleton(indexedEvent.getFlowFileUuid())).get());
+        partition.close();
+    }
+
+    @Test
+    public void testEventFileSummaries() throws IOException {
+        final RepositoryConfiguration repoConfig = createConfig(1, "testEventFileSummaries");
+        repoConfig.setMaxEventFileCount(5);
+        repoConfig.setEventFileSummariesEnabled(true);
+
+        final String partitionName = repoConfig.getStorageDirectories().keySet().iterator().next();
+        final File storageDirectory = repoConfig.getStorageDirectories().values().iterator().next();
+
+        final RecordWriterFactory recordWriterFactory = (file, idGenerator, compressed, createToc) -> {
+            final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), false, false) : null;
+            return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, 32 * 1024, IdentifierLookup.EMPTY);
+        };
+
+        final RecordReaderFactory recordReaderFactory = RecordReaders::newRecordReader;
+
+        WriteAheadStorePartition partition = new WriteAheadStorePartition(storageDirectory, partitionName, repoConfig, recordWriterFactory,
+            recordReaderFactory, new LinkedBlockingQueue<>(), new AtomicLong(0L), EventReporter.NO_OP, Mockito.mock(EventFileManager.class));
+        partition.initialize();
+
+        // Write 12 events, which results in event files 0.prov and 5.prov holding 5 events each and 10.prov holding 2 events.
+        final ProvenanceEventRecord firstEvent = TestUtil.createEvent();
+        final ProvenanceEventRecord lastEvent = TestUtil.createEvent();
+        partition.addEvents(Collections.singleton(firstEvent));
+        for (int i = 0; i < 10; i++) {
+            partition.addEvents(Collections.singleton(TestUtil.createEvent()));
+        }
+        partition.addEvents(Collections.singleton(lastEvent));
+
+        assertTrue(EventFileSummary.getSummaryFile(new File(storageDirectory, "0.prov")).exists());
+        assertTrue(EventFileSummary.getSummaryFile(new File(storageDirectory, "5.prov")).exists());
+        assertFalse(EventFileSummary.getSummaryFile(new File(storageDirectory, "10.prov")).exists());
+
+        // Only the event files whose summaries may contain the FlowFile are read.
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L), readEventIds(partition, summary -> summary.mightContainFlowFile(firstEvent.getFlowFileUuid())));
+        assertEquals(Arrays.asList(10L, 11L), readEventIds(partition, summary -> summary.mightContainFlowFile(lastEvent.getFlowFileUuid())));
+        assertEquals(12, readEventIds(partition, summary -> summary.mightContainComponent("1234")).size());
+        assertTrue(readEventIds(partition, summary -> summary.mightContainComponent("5678")).isEmpty());
+        partition.close();
+
+        // The summary of the active event file is written when the partition is closed, and all summaries are loaded upon restart.
+        assertTrue(EventFileSummary.getSummaryFile(new File(storageDirectory, "10.prov")).exists());
+        partition = new WriteAheadStorePartition(storageDirectory, partitionName, repoConfig, recordWriterFactory,
+            recordReaderFactory, new LinkedBlockingQueue<>(), new AtomicLong(0L), EventReporter.NO_OP, Mockito.mock(EventFileManager.class));
+        partition.initialize();
+        assertEquals(Arrays.asList(10L, 11L), readEventIds(partition, summary -> summary.mightContainFlowFile(lastEvent.getFlowFileUuid())));
+
+        // The summary is removed along with the event file.
+        partition.addEvents(Collections.singleton(TestUtil.createEvent()));
+        partition.purgeOldestEvents();
+        assertFalse(EventFileSummary.getSummaryFile(new File(storageDirectory, "0.prov")).exists());
+        assertTrue(readEventIds(partition, summary -> summary.mightContainFlowFile(firstEvent.getFlowFileUuid())).isEmpty());
+        partition.close();
+
+        repoConfig.setEventFileSummariesEnabled(false);
+        partition = new WriteAheadStorePartition(storageDirectory, partitionName, repoConfig, recordWriterFactory,
+            recordReaderFactory, new LinkedBlockingQueue<>(), new AtomicLong(0L), EventReporter.NO_OP, Mockito.mock(EventFileManager.class));
+        partition.initialize();
+        assertFalse(partition.createEventIterators(summary -> true).isPresent());
+        partition.close();
+    }
+
+    private List<Long> readEventIds(final WriteAheadStorePartition partition, final Predicate<EventFileSummary> summaryFilter) throws IOException {
+        final List<Long> eventIds = new ArrayList<>();
+        for (final EventIterator iterator : partition.createEventIterators(summaryFilter).get()) {
+            try (final EventIterator closeable = iterator) {
+                Optional<ProvenanceEventRecord> eventOption;
+                while ((eventOption = closeable.nextEvent()).isPresent()) {
+                    eventIds.add(eventOption.get().getEventId());
+                }
+            }
+        }
+
+        Collections.sort(eventIds);
+        return eventIds;
+    }
+
     private RepositoryConfiguration createConfig(final int numStorageDirs, final String testName) {
         final RepositoryConfiguration config = new RepositoryConfiguration();
         final File storageDir = new File("target/storage/" + testName + "/" + UUID.randomUUID().toString());
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.lineage;
+
+import org.apache.nifi.provenance.ProvenanceEventBuilder;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.TestUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLineageIndex {
+    private File indexDirectory;
+
+    @Before
+    public void setup() {
+        indexDirectory = new File("target/storage/lineage-index/" + UUID.randomUUID().toString());
+    }
+
+    @Test
+    public void testEventIdsFoundInMemoryAndInSegments() throws IOException {
+        final String uuid = UUID.randomUUID().toString();
+
+        try (final LineageIndex index = new LineageIndex(indexDirectory, 10, 16)) {
+            index.initialize(0L);
+
+            for (int i = 0; i < 25; i++) {
+                final String flowFileUuid = i % 5 == 0 ? uuid : UUID.randomUUID().toString();
+                index.addEvent(createEvent(ProvenanceEventType.CONTENT_MODIFIED, flowFileUuid), i);
+            }
+
+            assertEquals(2, getSegmentCount());
+            assertEquals(19L, index.getMaxPersistedEventId());
+            assertEquals(Arrays.asList(0L, 5L, 10L, 15L, 20L), index.getEventIds(Collections.singleton(uuid)));
+            assertTrue(index.getEventIds(Collections.singleton(UUID.randomUUID().toString())).isEmpty());
+        }
+    }
+
+    @Test
+    public void testRelatedIdentifiersIndexed() throws IOException {
+        final String parentUuid = UUID.randomUUID().toString();
+        final String childUuid = UUID.randomUUID().toString();
+
+        final ProvenanceEventBuilder receiveBuilder = createEventBuilder(ProvenanceEventType.RECEIVE, parentUuid);
+        receiveBuilder.setSourceSystemFlowFileIdentifier("urn:nifi:source-identifier");
+        final ProvenanceEventRecord receive = receiveBuilder.build();
+
+        final ProvenanceEventBuilder forkBuilder = createEventBuilder(ProvenanceEventType.FORK, parentUuid);
+        forkBuilder.addChildFlowFile(childUuid);
+        final ProvenanceEventRecord fork = forkBuilder.build();
+
+        try (final LineageIndex index = new LineageIndex(indexDirectory)) {
+            index.initialize(0L);
+            index.addEvent(receive, 0L);
+            index.addEvent(fork, 1L);
+            index.addEvent(createEvent(ProvenanceEventType.DROP, childUuid), 2L);
+
+            assertEquals(Arrays.asList(0L, 1L), index.getEventIds(Collections.singleton(parentUuid)));
+            assertEquals(Arrays.asList(1L, 2L), index.getEventIds(Collections.singleton(childUuid)));
+            assertEquals(Collections.singletonList(0L), index.getEventIds(Collections.singleton("source-identifier")));
+            assertEquals(Arrays.asList(0L, 1L, 2L), index.getEventIds(Arrays.asList(parentUuid, childUuid)));
+        }
+    }
+
+    @Test
+    public void testRecoverAfterRestart() throws IOException {
+        final String uuid = UUID.randomUUID().toString();
+
+        try (final LineageIndex index = new LineageIndex(indexDirectory, 10, 16)) {
+            index.initialize(0L);
+            for (int i = 0; i < 15; i++) {
+                index.addEvent(createEvent(ProvenanceEventType.CONTENT_MODIFIED, uuid), i);
+            }
+        }
+
+        try (final LineageIndex index = new LineageIndex(indexDirectory, 10, 16)) {
+            index.initialize(1000L);
+
+            assertEquals(0L, index.getCoverageStartEventId());
+            assertEquals(14L, index.getMaxPersistedEventId());
+            assertEquals(15, index.getEventIds(Collections.singleton(uuid)).size());
+        }
+    }
+
+    @Test
+    public void testNewIndexCoversOnlyNewEvents() throws IOException {
+        try (final LineageIndex index = new LineageIndex(indexDirectory)) {
+            index.initialize(500L);
+
+            assertEquals(500L, index.getCoverageStartEventId());
+            assertEquals(499L, index.getMaxPersistedEventId());
+        }
+    }
+
+    @Test
+    public void testInvalidatedEventsNotCoveredAfterRestart() throws IOException {
+        try (final LineageIndex index = new LineageIndex(indexDirectory)) {
+            index.initialize(0L);
+            index.invalidateThrough(99L);
+            assertEquals(100L, index.getCoverageStartEventId());
+
+            // Invalidating events that are already outside of the coverage has no effect
+            index.invalidateThrough(50L);
+            assertEquals(100L, index.getCoverageStartEventId());
+        }
+
+        try (final LineageIndex index = new LineageIndex(indexDirectory)) {
+            index.initialize(1000L);
+            assertEquals(100L, index.getCoverageStartEventId());
+        }
+    }
+
+    @Test
+    public void testCompactAndPurge() throws IOException {
+        final String uuid = UUID.randomUUID().toString();
+
+        try (final LineageIndex index = new LineageIndex(indexDirectory, 4, 3)) {
+            index.initialize(0L);
+            for (int i = 0; i < 40; i++) {
+                index.addEvent(createEvent(ProvenanceEventType.CONTENT_MODIFIED, i % 2 == 0 ? uuid : UUID.randomUUID().toString()), i);
+            }
+
+            assertEquals(10, getSegmentCount());
+
+            index.compact();
+            assertTrue(getSegmentCount() <= 3);
+
+            final List<Long> eventIds = index.getEventIds(Collections.singleton(uuid));
+            assertEquals(20, eventIds.size());
+            for (int i = 0; i < eventIds.size(); i++) {
+                assertEquals(i * 2L, eventIds.get(i).longValue());
+            }
+
+            index.purgeEventsBefore(Long.MAX_VALUE);
+            assertEquals(0, getSegmentCount());
+            assertTrue(index.getEventIds(Collections.singleton(uuid)).isEmpty());
+        }
+    }
+
+    @Test
+    public void testNonUuidIdentifiersDoNotCollide() {
+        final UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, LineageIndex.toKey(uuid.toString()));
+        assertTrue(!uuid.equals(LineageIndex.toKey(uuid.toString().toUpperCase())));
+        assertTrue(!LineageIndex.toKey("abc").equals(LineageIndex.toKey("abd")));
+    }
+
+    private int getSegmentCount() {
+        final File[] files = indexDirectory.listFiles(file -> file.getName().endsWith(LineageIndex.SEGMENT_SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    private ProvenanceEventRecord createEvent(final ProvenanceEventType eventType, final String flowFileUuid) {
+        return createEventBuilder(eventType, flowFileUuid).build();
+    }
+
+    private ProvenanceEventBuilder createEventBuilder(final ProvenanceEventType eventType, final String flowFileUuid) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", flowFileUuid);
+
+        final ProvenanceEventBuilder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setEventType(eventType);
+        builder.setTransitUri("nifi://unit-test");
+        builder.fromFlowFile(TestUtil.createFlowFile(3L, 3000L, attributes));
+        builder.setComponentId("1234");
+        builder.setComponentType("dummy processor");
+        return builder;
+    }
+}
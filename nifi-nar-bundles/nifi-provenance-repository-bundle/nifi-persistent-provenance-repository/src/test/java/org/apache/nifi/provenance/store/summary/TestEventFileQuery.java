@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.summary;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.apache.nifi.provenance.store.summary.TestEventFileSummary.createEvent;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestEventFileQuery {
+
+    @Test
+    public void testUnsupportedField() {
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.LineageStartDate, "1000"));
+        assertFalse(EventFileQuery.create(query).isPresent());
+    }
+
+    @Test
+    public void testMatchesTerms() {
+        final ProvenanceEventRecord event = createEvent(ProvenanceEventType.CREATE, "1111", "component-1", 1000L);
+
+        assertTrue(createQuery(SearchableFields.ComponentID, "COMPONENT-1").matches(event));
+        assertFalse(createQuery(SearchableFields.ComponentID, "component-2").matches(event));
+        assertTrue(createQuery(SearchableFields.Filename, "file-1111.txt").matches(event));
+        assertTrue(createQuery(SearchableFields.Filename, "FILE-*.txt").matches(event));
+        assertTrue(createQuery(SearchableFields.Filename, "file-111?.txt").matches(event));
+        assertFalse(createQuery(SearchableFields.Filename, "file-111?").matches(event));
+        assertTrue(createQuery(SearchableFields.EventType, "create").matches(event));
+        assertTrue(createQuery(SearchableFields.newSearchableAttribute("filename"), "file-1111.txt").matches(event));
+        assertFalse(createQuery(SearchableFields.newSearchableAttribute("missing"), "*").matches(event));
+
+        // Characters that have special meaning in a regular expression are matched literally.
+        assertFalse(createQuery(SearchableFields.Filename, "file-1111.tx[t]").matches(event));
+    }
+
+    @Test
+    public void testMatchesTimeRangeAndFileSize() {
+        final ProvenanceEventRecord event = createEvent(ProvenanceEventType.CREATE, "1111", "component-1", 1000L);
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-1"));
+        query.setStartDate(new Date(500L));
+        query.setEndDate(new Date(1000L));
+        query.setMinFileSize("1 KB");
+        assertTrue(EventFileQuery.create(query).get().matches(event));
+
+        query.setMaxFileSize("1000 B");
+        assertFalse(EventFileQuery.create(query).get().matches(event));
+
+        query.setMaxFileSize(null);
+        query.setEndDate(new Date(999L));
+        assertFalse(EventFileQuery.create(query).get().matches(event));
+    }
+
+    @Test
+    public void testSummaryPruning() {
+        final EventFileSummary.Builder builder = new EventFileSummary.Builder(1000, 100);
+        builder.addEvent(createEvent(ProvenanceEventType.CREATE, "1111", "component-1", 1000L), 1L);
+        builder.addEvent(createEvent(ProvenanceEventType.CREATE, "2222", "component-1", 2000L), 2L);
+        final EventFileSummary summary = builder.build();
+
+        assertTrue(createQuery(SearchableFields.FlowFileUUID, "1111").isSelective());
+        assertTrue(createQuery(SearchableFields.FlowFileUUID, "1111").mayMatch(summary));
+        assertFalse(createQuery(SearchableFields.FlowFileUUID, "3333").mayMatch(summary));
+        assertFalse(createQuery(SearchableFields.ComponentID, "component-2").mayMatch(summary));
+
+        // Wildcards cannot be checked against the Bloom Filters, so they never prune a file.
+        assertFalse(createQuery(SearchableFields.FlowFileUUID, "3*").isSelective());
+        assertTrue(createQuery(SearchableFields.FlowFileUUID, "3*").mayMatch(summary));
+        assertFalse(createQuery(SearchableFields.Filename, "other.txt").isSelective());
+        assertTrue(createQuery(SearchableFields.Filename, "other.txt").mayMatch(summary));
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, "1111"));
+        query.setStartDate(new Date(2500L));
+        assertFalse(EventFileQuery.create(query).get().mayMatch(summary));
+    }
+
+    private EventFileQuery createQuery(final SearchableField field, final String value) {
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(field, value));
+        return EventFileQuery.create(query).get();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.summary;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestEventFileSummary {
+
+    @Test
+    public void testSummaryOfEvents() {
+        final EventFileSummary.Builder builder = new EventFileSummary.Builder(1000, 100);
+        builder.addEvent(createEvent(ProvenanceEventType.CREATE, "1111", "component-1", 1000L), 10L);
+        builder.addEvent(createEvent(ProvenanceEventType.CREATE, "2222", "component-2", 3000L), 12L);
+        builder.addEvent(createEvent(ProvenanceEventType.CREATE, "3333", "component-1", 2000L), 11L);
+
+        final EventFileSummary summary = builder.build();
+        assertEquals(10L, summary.getMinEventId());
+        assertEquals(12L, summary.getMaxEventId());
+        assertEquals(1000L, summary.getMinTimestamp());
+        assertEquals(3000L, summary.getMaxTimestamp());
+        assertEquals(3, summary.getEventCount());
+
+        assertTrue(summary.mightContainFlowFile("1111"));
+        assertTrue(summary.mightContainFlowFile("2222"));
+        assertFalse(summary.mightContainFlowFile("4444"));
+        assertTrue(summary.mightContainComponent("COMPONENT-2"));
+        assertFalse(summary.mightContainComponent("component-3"));
+
+        assertTrue(summary.overlaps(0L, 1000L));
+        assertTrue(summary.overlaps(2500L, 2600L));
+        assertFalse(summary.overlaps(0L, 999L));
+        assertFalse(summary.overlaps(3001L, Long.MAX_VALUE));
+
+        // Events that are added after the summary is built are not reflected in it.
+        builder.addEvent(createEvent(ProvenanceEventType.CREATE, "4444", "component-3", 4000L), 13L);
+        assertFalse(summary.mightContainFlowFile("4444"));
+        assertTrue(builder.build().mightContainFlowFile("4444"));
+    }
+
+    @Test
+    public void testEmptySummaryMatchesNothing() {
+        final EventFileSummary summary = new EventFileSummary.Builder(1000, 100).build();
+        assertEquals(0, summary.getEventCount());
+        assertFalse(summary.overlaps(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(summary.mightContainFlowFile("1111"));
+        assertFalse(summary.mightContainComponent("component-1"));
+    }
+
+    @Test
+    public void testLineageIdentifiersAreSummarized() {
+        final ProvenanceEventRecord fork = new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.FORK)
+            .setFlowFileUUID("parent")
+            .setComponentId("component-1")
+            .setComponentType("unit test")
+            .setEventTime(1000L)
+            .setCurrentContentClaim(null, null, null, null, 0L)
+            .setAttributes(Collections.emptyMap(), Collections.emptyMap())
+            .addParentUuid("parent")
+            .addChildUuid("child-1")
+            .addChildUuid("child-2")
+            .build();
+
+        final EventFileSummary.Builder builder = new EventFileSummary.Builder(1000, 100);
+        builder.addEvent(fork, 1L);
+        final EventFileSummary summary = builder.build();
+
+        assertTrue(summary.mightContainFlowFile("parent"));
+        assertTrue(summary.mightContainFlowFile("child-1"));
+        assertTrue(summary.mightContainFlowFile("child-2"));
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final EventFileSummary.Builder builder = new EventFileSummary.Builder(10_000, 100);
+        for (int i = 0; i < 5000; i++) {
+            builder.addEvent(createEvent(ProvenanceEventType.CREATE, "uuid-" + i, "component-" + (i % 10), 1000L + i), i);
+        }
+
+        final File eventFile = new File("target/storage/" + getClass().getSimpleName() + "/" + UUID.randomUUID().toString() + "/0.prov");
+        final File summaryFile = EventFileSummary.getSummaryFile(eventFile);
+        assertEquals(new File(eventFile.getParentFile(), "summary/0.summary"), summaryFile);
+        assertEquals(summaryFile, EventFileSummary.getSummaryFile(new File(eventFile.getParentFile(), "0.prov.gz")));
+
+        final EventFileSummary summary = builder.build();
+        summary.writeTo(summaryFile);
+
+        final EventFileSummary recovered = EventFileSummary.read(summaryFile);
+        assertEquals(0L, recovered.getMinEventId());
+        assertEquals(4999L, recovered.getMaxEventId());
+        assertEquals(1000L, recovered.getMinTimestamp());
+        assertEquals(5999L, recovered.getMaxTimestamp());
+        assertEquals(5000, recovered.getEventCount());
+
+        int falsePositives = 0;
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(recovered.mightContainFlowFile("uuid-" + i));
+            if (recovered.mightContainFlowFile("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // The filter is sized for a 1% false positive rate; allow some slack.
+        assertTrue("Found " + falsePositives + " false positives", falsePositives < 150);
+        assertTrue(recovered.mightContainComponent("component-9"));
+        assertFalse(recovered.mightContainComponent("component-10"));
+    }
+
+    static ProvenanceEventRecord createEvent(final ProvenanceEventType eventType, final String uuid, final String componentId, final long timestamp) {
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setFlowFileUUID(uuid)
+            .setComponentId(componentId)
+            .setComponentType("unit test")
+            .setEventTime(timestamp)
+            .setCurrentContentClaim("container", "section", "identifier", 0L, 1024L)
+            .setAttributes(Collections.emptyMap(), Collections.singletonMap("filename", "file-" + uuid + ".txt"))
+            .build();
+    }
+}
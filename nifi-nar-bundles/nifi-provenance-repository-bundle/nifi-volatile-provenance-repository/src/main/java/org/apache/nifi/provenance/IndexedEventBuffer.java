@@ -0,0 +1,378 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * A thread-safe, fixed-capacity ring of Provenance Events that also maintains in-memory indices of the events that it holds.
+ * Event ID's are assigned by the buffer as events are added, so that the slot holding a given event can be computed directly
+ * from its Event ID. In addition, the buffer maintains hash indices from FlowFile UUID (including parent and child UUIDs), Component ID
+ * and Event Type to the ID's of the events that reference them. When an event is evicted from the ring to make room for a newer one,
+ * it is removed from the indices as well, so the memory used by the indices is proportional to the number of events held by the buffer
+ * (and the number of distinct values that they reference), never to the number of events that have been added over time.
+ */
+class IndexedEventBuffer {
+    private static final long[] NO_EVENT_IDS = new long[0];
+
+    private final ProvenanceEventRecord[] buffer;
+    private final Map<String, EventIdList> flowFileIndex = new HashMap<>();
+    private final Map<String, EventIdList> componentIndex = new HashMap<>();
+    private final Map<ProvenanceEventType, EventIdList> eventTypeIndex = new EnumMap<>(ProvenanceEventType.class);
+
+    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final Lock readLock = rwLock.readLock();
+    private final Lock writeLock = rwLock.writeLock();
+
+    private long nextEventId = 0L;
+
+    IndexedEventBuffer(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        this.buffer = new ProvenanceEventRecord[capacity];
+    }
+
+    /**
+     * Adds an event to the buffer, evicting the oldest event if the buffer is full
+     *
+     * @param eventFactory creates the event to add, given the Event ID that has been assigned to it
+     * @return the event that was added
+     */
+    ProvenanceEventRecord add(final LongFunction<ProvenanceEventRecord> eventFactory) {
+        writeLock.lock();
+        try {
+            final long eventId = nextEventId;
+            final ProvenanceEventRecord event = eventFactory.apply(eventId);
+            final int slot = getSlot(eventId);
+
+            final ProvenanceEventRecord evicted = buffer[slot];
+            if (evicted != null) {
+                unindex(evicted);
+            }
+
+            buffer[slot] = event;
+            index(event);
+            nextEventId++;
+            return event;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int getSlot(final long eventId) {
+        return (int) (eventId % buffer.length);
+    }
+
+    private long getOldestEventId() {
+        return Math.max(0L, nextEventId - buffer.length);
+    }
+
+    private void index(final ProvenanceEventRecord event) {
+        final long eventId = event.getEventId();
+        for (final String flowFileUuid : getFlowFileKeys(event)) {
+            flowFileIndex.computeIfAbsent(flowFileUuid, key -> new EventIdList()).add(eventId);
+        }
+
+        final String componentKey = getComponentKey(event.getComponentId());
+        if (componentKey != null) {
+            componentIndex.computeIfAbsent(componentKey, key -> new EventIdList()).add(eventId);
+        }
+
+        if (event.getEventType() != null) {
+            eventTypeIndex.computeIfAbsent(event.getEventType(), key -> new EventIdList()).add(eventId);
+        }
+    }
+
+    private void unindex(final ProvenanceEventRecord event) {
+        final long eventId = event.getEventId();
+        for (final String flowFileUuid : getFlowFileKeys(event)) {
+            removeOldest(flowFileIndex, flowFileUuid, eventId);
+        }
+
+        final String componentKey = getComponentKey(event.getComponentId());
+        if (componentKey != null) {
+            removeOldest(componentIndex, componentKey, eventId);
+        }
+
+        if (event.getEventType() != null) {
+            removeOldest(eventTypeIndex, event.getEventType(), eventId);
+        }
+    }
+
+    // Events are added and evicted in order of their Event ID's, so the evicted event is always the first entry of each list that references it.
+    private static <K> void removeOldest(final Map<K, EventIdList> index, final K key, final long eventId) {
+        final EventIdList eventIds = index.get(key);
+        if (eventIds != null && eventIds.removeOldest(eventId)) {
+            index.remove(key);
+        }
+    }
+
+    private static Set<String> getFlowFileKeys(final ProvenanceEventRecord event) {
+        final Set<String> keys = new LinkedHashSet<>();
+        if (event.getFlowFileUuid() != null) {
+            keys.add(event.getFlowFileUuid());
+        }
+        if (event.getParentUuids() != null) {
+            keys.addAll(event.getParentUuids());
+        }
+        if (event.getChildUuids() != null) {
+            keys.addAll(event.getChildUuids());
+        }
+        return keys;
+    }
+
+    private static String getComponentKey(final String componentId) {
+        return componentId == null ? null : componentId.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param eventId the ID of the event
+     * @return the event with the given ID, or <code>null</code> if the event has been evicted or does not yet exist
+     */
+    ProvenanceEventRecord get(final long eventId) {
+        readLock.lock();
+        try {
+            return getIfPresent(eventId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private ProvenanceEventRecord getIfPresent(final long eventId) {
+        if (eventId < getOldestEventId() || eventId >= nextEventId) {
+            return null;
+        }
+
+        return buffer[getSlot(eventId)];
+    }
+
+    /**
+     * @return the most recently added event, or <code>null</code> if no events have been added
+     */
+    ProvenanceEventRecord getNewest() {
+        readLock.lock();
+        try {
+            return nextEventId == 0L ? null : buffer[getSlot(nextEventId - 1)];
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    int getSize() {
+        readLock.lock();
+        try {
+            return (int) Math.min(nextEventId, buffer.length);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns up to <code>maxEvents</code> events, in ascending order of Event ID, beginning with the event whose ID is equal to
+     * <code>firstEventId</code> (or the oldest event in the buffer, if that event has been evicted), that are accepted by the given filter
+     */
+    List<ProvenanceEventRecord> getEvents(final long firstEventId, final int maxEvents, final Predicate<ProvenanceEventRecord> filter) {
+        final List<ProvenanceEventRecord> selected = new ArrayList<>(Math.min(maxEvents, 1000));
+
+        readLock.lock();
+        try {
+            for (long eventId = Math.max(firstEventId, getOldestEventId()); eventId < nextEventId && selected.size() < maxEvents; eventId++) {
+                final ProvenanceEventRecord event = buffer[getSlot(eventId)];
+                if (filter.test(event)) {
+                    selected.add(event);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        return selected;
+    }
+
+    /**
+     * Evaluates each event in the buffer, newest first, until the given evaluator returns <code>false</code>
+     */
+    void forEachNewestFirst(final Predicate<ProvenanceEventRecord> evaluator) {
+        readLock.lock();
+        try {
+            for (long eventId = nextEventId - 1; eventId >= getOldestEventId(); eventId--) {
+                if (!evaluator.test(buffer[getSlot(eventId)])) {
+                    return;
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Evaluates each of the events with the given ID's that are still in the buffer, in the order given, until the given evaluator returns <code>false</code>
+     */
+    void forEach(final long[] eventIds, final Predicate<ProvenanceEventRecord> evaluator) {
+        readLock.lock();
+        try {
+            for (final long eventId : eventIds) {
+                final ProvenanceEventRecord event = getIfPresent(eventId);
+                if (event != null && !evaluator.test(event)) {
+                    return;
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param flowFileUuids the UUIDs of the FlowFiles of interest
+     * @return the ID's, in ascending order, of all events in the buffer whose FlowFile UUID, parent UUIDs or child UUIDs include any of the given UUIDs
+     */
+    long[] getEventIdsForFlowFiles(final Collection<String> flowFileUuids) {
+        readLock.lock();
+        try {
+            if (flowFileUuids.size() == 1) {
+                return getEventIds(flowFileIndex.get(flowFileUuids.iterator().next()));
+            }
+
+            long[] combined = NO_EVENT_IDS;
+            for (final String flowFileUuid : flowFileUuids) {
+                final long[] eventIds = getEventIds(flowFileIndex.get(flowFileUuid));
+                if (eventIds.length > 0) {
+                    final long[] merged = Arrays.copyOf(combined, combined.length + eventIds.length);
+                    System.arraycopy(eventIds, 0, merged, combined.length, eventIds.length);
+                    combined = merged;
+                }
+            }
+
+            return Arrays.stream(combined).sorted().distinct().toArray();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param componentId the ID of the component, compared case-insensitively
+     * @return the ID's, in ascending order, of all events in the buffer that were generated by the given component
+     */
+    long[] getEventIdsForComponent(final String componentId) {
+        readLock.lock();
+        try {
+            return getEventIds(componentIndex.get(getComponentKey(componentId)));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @param eventType the type of event
+     * @return the ID's, in ascending order, of all events in the buffer that have the given type
+     */
+    long[] getEventIdsForEventType(final ProvenanceEventType eventType) {
+        readLock.lock();
+        try {
+            return getEventIds(eventTypeIndex.get(eventType));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private static long[] getEventIds(final EventIdList eventIdList) {
+        return eventIdList == null ? NO_EVENT_IDS : eventIdList.toArray();
+    }
+
+    /**
+     * @return the number of distinct FlowFile UUIDs, Component IDs and Event Types that are referenced by the events in the buffer
+     */
+    int getIndexedKeyCount() {
+        readLock.lock();
+        try {
+            return flowFileIndex.size() + componentIndex.size() + eventTypeIndex.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * A FIFO list of Event ID's, held in a circular array that grows and shrinks with the number of entries
+     */
+    private static class EventIdList {
+        private static final int MIN_CAPACITY = 2;
+
+        private long[] eventIds = new long[MIN_CAPACITY];
+        private int head = 0;
+        private int size = 0;
+
+        void add(final long eventId) {
+            if (size == eventIds.length) {
+                resize(eventIds.length * 2);
+            }
+
+            eventIds[(head + size) % eventIds.length] = eventId;
+            size++;
+        }
+
+        /**
+         * Removes the given Event ID if it is the oldest entry in the list
+         *
+         * @return <code>true</code> if the list is now empty
+         */
+        boolean removeOldest(final long eventId) {
+            if (size > 0 && eventIds[head] == eventId) {
+                head = (head + 1) % eventIds.length;
+                size--;
+
+                if (eventIds.length > MIN_CAPACITY && size <= eventIds.length / 4) {
+                    resize(Math.max(MIN_CAPACITY, eventIds.length / 2));
+                }
+            }
+
+            return size == 0;
+        }
+
+        private void resize(final int capacity) {
+            eventIds = toArray(capacity);
+            head = 0;
+        }
+
+        long[] toArray() {
+            return toArray(size);
+        }
+
+        private long[] toArray(final int capacity) {
+            final long[] copy = new long[capacity];
+            final int firstChunk = Math.min(size, eventIds.length - head);
+            System.arraycopy(eventIds, head, copy, 0, firstChunk);
+            System.arraycopy(eventIds, 0, copy, firstChunk, size - firstChunk);
+            return copy;
+        }
+    }
+}
@@ -36,10 +36,7 @@ import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchTerm;
 import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.util.NiFiProperties;
-import org.apache.nifi.util.RingBuffer;
 import org.apache.nifi.util.RingBuffer.Filter;
-import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
-import org.apache.nifi.util.RingBuffer.IterationDirection;
 import org.apache.nifi.web.ResourceNotFoundException;
 
 import java.io.IOException;
@@ -60,7 +57,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public class VolatileProvenanceRepository implements ProvenanceRepository {
@@ -73,7 +70,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     public static String CONTAINER_NAME = "in-memory";
 
-    private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+    private final IndexedEventBuffer eventBuffer;
     private final int maxSize;
     private final List<SearchableField> searchableFields;
     private final List<SearchableField> searchableAttributes;
@@ -82,7 +79,6 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
-    private final AtomicLong idGenerator = new AtomicLong(0L);
     private final AtomicBoolean initialized = new AtomicBoolean(false);
 
     private Authorizer authorizer;  // effectively final
@@ -92,7 +88,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
      * Default no args constructor for service loading only
      */
     public VolatileProvenanceRepository() {
-        ringBuffer = null;
+        eventBuffer = null;
         searchableFields = null;
         searchableAttributes = null;
         queryExecService = null;
@@ -105,7 +101,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
     public VolatileProvenanceRepository(final NiFiProperties nifiProperties) {
 
         maxSize = nifiProperties.getIntegerProperty(BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
-        ringBuffer = new RingBuffer<>(maxSize);
+        eventBuffer = new IndexedEventBuffer(maxSize);
 
         final String indexedFieldString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_FIELDS);
         final String indexedAttrString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES);
@@ -153,8 +149,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public void registerEvent(final ProvenanceEventRecord event) {
-        final long id = idGenerator.getAndIncrement();
-        ringBuffer.add(new IdEnrichedProvEvent(event, id));
+        eventBuffer.add(id -> new IdEnrichedProvEvent(event, id));
     }
 
     @Override
@@ -171,44 +166,32 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords, final NiFiUser user) throws IOException {
-        return ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
-            @Override
-            public boolean select(final ProvenanceEventRecord value) {
-                if (!isAuthorized(value, user)) {
-                    return false;
-                }
-
-                return value.getEventId() >= firstRecordId;
-            }
-        }, maxRecords);
+        return eventBuffer.getEvents(firstRecordId, maxRecords, event -> isAuthorized(event, user));
     }
 
     @Override
     public Long getMaxEventId() {
-        final ProvenanceEventRecord newest = ringBuffer.getNewestElement();
+        final ProvenanceEventRecord newest = eventBuffer.getNewest();
         return (newest == null) ? null : newest.getEventId();
     }
 
     public ProvenanceEventRecord getEvent(final String identifier) throws IOException {
-        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
-            @Override
-            public boolean select(final ProvenanceEventRecord event) {
-                return identifier.equals(event.getFlowFileUuid());
+        final List<ProvenanceEventRecord> records = new ArrayList<>(1);
+        eventBuffer.forEach(eventBuffer.getEventIdsForFlowFiles(Collections.singleton(identifier)), event -> {
+            if (identifier.equals(event.getFlowFileUuid())) {
+                records.add(event);
+                return false;
             }
-        }, 1);
+
+            return true;
+        });
+
         return records.isEmpty() ? null : records.get(0);
     }
 
     @Override
     public ProvenanceEventRecord getEvent(final long id) {
-        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
-            @Override
-            public boolean select(final ProvenanceEventRecord event) {
-                return event.getEventId() == id;
-            }
-        }, 1);
-
-        return records.isEmpty() ? null : records.get(0);
+        return eventBuffer.get(id);
     }
 
     @Override
@@ -436,14 +419,14 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
         final String userId = user == null ? null : user.getIdentity();
         if (query.getSearchTerms().isEmpty() && query.getStartDate() == null && query.getEndDate() == null) {
             final AsyncQuerySubmission result = new AsyncQuerySubmission(query, 1, userId);
-            queryExecService.submit(new QueryRunnable(ringBuffer, createFilter(query, user), query.getMaxResults(), result));
+            queryExecService.submit(new QueryRunnable(eventBuffer, query, createFilter(query, user), query.getMaxResults(), result));
             querySubmissionMap.put(query.getIdentifier(), result);
             return result;
         }
 
         final AsyncQuerySubmission result = new AsyncQuerySubmission(query, 1, userId);
         querySubmissionMap.put(query.getIdentifier(), result);
-        queryExecService.submit(new QueryRunnable(ringBuffer, createFilter(query, user), query.getMaxResults(), result));
+        queryExecService.submit(new QueryRunnable(eventBuffer, query, createFilter(query, user), query.getMaxResults(), result));
 
         return result;
     }
@@ -602,7 +585,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public long getContainerUsableSpace(String containerName) throws IOException {
-        return maxSize - ringBuffer.getSize();
+        return maxSize - eventBuffer.getSize();
     }
 
     public String getContainerFileStoreName(String containerName) {
@@ -642,20 +625,71 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
             }
         };
 
-        queryExecService.submit(new ComputeLineageRunnable(ringBuffer, filter, result));
+        queryExecService.submit(new ComputeLineageRunnable(eventBuffer, flowFileUuids, filter, result));
 
         return result;
     }
 
+    /**
+     * Determines which events must be evaluated in order to answer the given query, using the indices that are maintained by the event buffer
+     *
+     * @param eventBuffer the event buffer
+     * @param query the query
+     * @return the ID's of the events that may match the query, in ascending order, or <code>null</code> if no term of the query can be answered
+     *         by an index, in which case every event must be evaluated
+     */
+    static long[] getCandidateEventIds(final IndexedEventBuffer eventBuffer, final Query query) {
+        long[] candidateEventIds = null;
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final String searchValue = searchTerm.getValue();
+            if (searchValue == null || searchValue.contains("?") || searchValue.contains("*")) {
+                continue;
+            }
+
+            final SearchableField searchableField = searchTerm.getSearchableField();
+            final long[] eventIds;
+            if (SearchableFields.FlowFileUUID.equals(searchableField)) {
+                eventIds = eventBuffer.getEventIdsForFlowFiles(Collections.singleton(searchValue));
+            } else if (SearchableFields.ComponentID.equals(searchableField)) {
+                eventIds = eventBuffer.getEventIdsForComponent(searchValue);
+            } else if (SearchableFields.EventType.equals(searchableField)) {
+                final ProvenanceEventType eventType = getEventType(searchValue);
+                eventIds = eventType == null ? new long[0] : eventBuffer.getEventIdsForEventType(eventType);
+            } else {
+                continue;
+            }
+
+            // All terms must match, so the term that matches the fewest events determines the candidates
+            if (candidateEventIds == null || eventIds.length < candidateEventIds.length) {
+                candidateEventIds = eventIds;
+            }
+        }
+
+        return candidateEventIds;
+    }
+
+    private static ProvenanceEventType getEventType(final String name) {
+        for (final ProvenanceEventType eventType : ProvenanceEventType.values()) {
+            if (eventType.name().equalsIgnoreCase(name)) {
+                return eventType;
+            }
+        }
+
+        return null;
+    }
+
     private static class QueryRunnable implements Runnable {
 
-        private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+        private final IndexedEventBuffer eventBuffer;
+        private final Query query;
         private final Filter<ProvenanceEventRecord> filter;
         private final AsyncQuerySubmission submission;
         private final int maxRecords;
 
-        public QueryRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Filter<ProvenanceEventRecord> filter, final int maxRecords, final AsyncQuerySubmission submission) {
-            this.ringBuffer = ringBuffer;
+        public QueryRunnable(final IndexedEventBuffer eventBuffer, final Query query, final Filter<ProvenanceEventRecord> filter, final int maxRecords,
+                             final AsyncQuerySubmission submission) {
+            this.eventBuffer = eventBuffer;
+            this.query = query;
             this.filter = filter;
             this.submission = submission;
             this.maxRecords = maxRecords;
@@ -666,19 +700,29 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
             // Retrieve the most recent results and count the total number of matches
             final AtomicInteger matchingCount = new AtomicInteger(0);
             final List<ProvenanceEventRecord> matchingRecords = new ArrayList<>(maxRecords);
-            ringBuffer.forEach(new ForEachEvaluator<ProvenanceEventRecord>() {
-                @Override
-                public boolean evaluate(final ProvenanceEventRecord record) {
-                    if (filter.select(record)) {
-                        if (matchingCount.incrementAndGet() <= maxRecords) {
-                            matchingRecords.add(record);
-                        }
+            final Predicate<ProvenanceEventRecord> evaluator = record -> {
+                if (filter.select(record)) {
+                    if (matchingCount.incrementAndGet() <= maxRecords) {
+                        matchingRecords.add(record);
                     }
+                }
 
-                    return true;
+                return true;
+            };
+
+            final long[] candidateEventIds = getCandidateEventIds(eventBuffer, query);
+            if (candidateEventIds == null) {
+                eventBuffer.forEachNewestFirst(evaluator);
+            } else {
+                // evaluate the newest candidates first so that the most recent matches are the ones retained
+                for (int i = 0, j = candidateEventIds.length - 1; i < j; i++, j--) {
+                    final long eventId = candidateEventIds[i];
+                    candidateEventIds[i] = candidateEventIds[j];
+                    candidateEventIds[j] = eventId;
                 }
 
-            }, IterationDirection.BACKWARD);
+                eventBuffer.forEach(candidateEventIds, evaluator);
+            }
 
             submission.getResult().update(matchingRecords, matchingCount.get());
         }
@@ -686,19 +730,30 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     private static class ComputeLineageRunnable implements Runnable {
 
-        private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+        private final IndexedEventBuffer eventBuffer;
+        private final Collection<String> flowFileUuids;
         private final Filter<ProvenanceEventRecord> filter;
         private final AsyncLineageSubmission submission;
 
-        public ComputeLineageRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Filter<ProvenanceEventRecord> filter, final AsyncLineageSubmission submission) {
-            this.ringBuffer = ringBuffer;
+        public ComputeLineageRunnable(final IndexedEventBuffer eventBuffer, final Collection<String> flowFileUuids, final Filter<ProvenanceEventRecord> filter,
+                                      final AsyncLineageSubmission submission) {
+            this.eventBuffer = eventBuffer;
+            this.flowFileUuids = flowFileUuids;
             this.filter = filter;
             this.submission = submission;
         }
 
         @Override
         public void run() {
-            final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(filter);
+            final List<ProvenanceEventRecord> records = new ArrayList<>();
+            eventBuffer.forEach(eventBuffer.getEventIdsForFlowFiles(flowFileUuids), event -> {
+                if (filter.select(event)) {
+                    records.add(event);
+                }
+
+                return true;
+            });
+
             submission.getResult().update(records, records.size());
         }
     }
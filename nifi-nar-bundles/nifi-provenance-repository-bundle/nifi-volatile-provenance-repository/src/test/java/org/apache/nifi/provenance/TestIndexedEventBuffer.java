@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class TestIndexedEventBuffer {
+
+    private static ProvenanceEventRecord createEvent(final long eventId, final String flowFileUuid, final String componentId, final ProvenanceEventType eventType,
+                                                     final String... childUuids) {
+        final StandardProvenanceEventRecord.Builder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventId(eventId);
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setEventType(eventType);
+        builder.setComponentId(componentId);
+        builder.setComponentType("Unit Test");
+        builder.setFlowFileUUID(flowFileUuid);
+        builder.setCurrentContentClaim(null, null, null, null, 0L);
+        builder.setTransitUri("nifi://unit-test");
+        for (final String childUuid : childUuids) {
+            builder.addChildUuid(childUuid);
+        }
+
+        return builder.build();
+    }
+
+    private static List<Long> getEventIds(final List<ProvenanceEventRecord> events) {
+        return events.stream().map(ProvenanceEventRecord::getEventId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testGetByEventId() {
+        final IndexedEventBuffer buffer = new IndexedEventBuffer(4);
+        assertNull(buffer.get(0L));
+        assertNull(buffer.getNewest());
+
+        for (int i = 0; i < 10; i++) {
+            final ProvenanceEventRecord added = buffer.add(id -> createEvent(id, "ff-" + id, "comp", ProvenanceEventType.RECEIVE));
+            assertEquals(i, added.getEventId());
+            assertSame(added, buffer.get(i));
+            assertSame(added, buffer.getNewest());
+        }
+
+        assertEquals(4, buffer.getSize());
+        for (long i = 0; i < 6; i++) {
+            assertNull(buffer.get(i));
+        }
+        for (long i = 6; i < 10; i++) {
+            assertEquals(i, buffer.get(i).getEventId());
+        }
+        assertNull(buffer.get(10L));
+        assertNull(buffer.get(-1L));
+
+        assertEquals(Arrays.asList(6L, 7L, 8L, 9L), getEventIds(buffer.getEvents(0L, 10, event -> true)));
+        assertEquals(Arrays.asList(8L, 9L), getEventIds(buffer.getEvents(8L, 10, event -> true)));
+        assertEquals(Arrays.asList(7L, 8L), getEventIds(buffer.getEvents(7L, 2, event -> true)));
+        assertEquals(Arrays.asList(7L, 9L), getEventIds(buffer.getEvents(0L, 10, event -> event.getEventId() % 2 == 1)));
+
+        final List<Long> newestFirst = new ArrayList<>();
+        buffer.forEachNewestFirst(event -> newestFirst.add(event.getEventId()));
+        assertEquals(Arrays.asList(9L, 8L, 7L, 6L), newestFirst);
+    }
+
+    @Test
+    public void testIndicesEvictedWithEvents() {
+        final IndexedEventBuffer buffer = new IndexedEventBuffer(5);
+        for (int i = 0; i < 4; i++) {
+            final String componentId = i % 2 == 0 ? "Even" : "Odd";
+            buffer.add(id -> createEvent(id, "parent", componentId, ProvenanceEventType.RECEIVE));
+        }
+        buffer.add(id -> createEvent(id, "parent", "Even", ProvenanceEventType.FORK, "child-1", "child-2"));
+
+        assertArrayEquals(new long[] {0L, 1L, 2L, 3L, 4L}, buffer.getEventIdsForFlowFiles(Collections.singleton("parent")));
+        assertArrayEquals(new long[] {4L}, buffer.getEventIdsForFlowFiles(Collections.singleton("child-2")));
+        assertArrayEquals(new long[] {0L, 2L, 4L}, buffer.getEventIdsForComponent("even"));
+        assertArrayEquals(new long[] {1L, 3L}, buffer.getEventIdsForComponent("ODD"));
+        assertArrayEquals(new long[] {0L, 1L, 2L, 3L}, buffer.getEventIdsForEventType(ProvenanceEventType.RECEIVE));
+        assertArrayEquals(new long[] {4L}, buffer.getEventIdsForEventType(ProvenanceEventType.FORK));
+        assertArrayEquals(new long[0], buffer.getEventIdsForEventType(ProvenanceEventType.DROP));
+
+        // Evict events 0 through 3
+        for (int i = 0; i < 4; i++) {
+            buffer.add(id -> createEvent(id, "child-1", "Other", ProvenanceEventType.DROP));
+        }
+
+        assertArrayEquals(new long[] {4L}, buffer.getEventIdsForFlowFiles(Collections.singleton("parent")));
+        assertArrayEquals(new long[] {4L, 5L, 6L, 7L, 8L}, buffer.getEventIdsForFlowFiles(Arrays.asList("child-1", "child-2")));
+        assertArrayEquals(new long[] {4L}, buffer.getEventIdsForComponent("Even"));
+        assertArrayEquals(new long[0], buffer.getEventIdsForComponent("Odd"));
+        assertArrayEquals(new long[0], buffer.getEventIdsForEventType(ProvenanceEventType.RECEIVE));
+        assertArrayEquals(new long[] {5L, 6L, 7L, 8L}, buffer.getEventIdsForEventType(ProvenanceEventType.DROP));
+
+        final List<Long> visited = new ArrayList<>();
+        buffer.forEach(new long[] {8L, 2L, 5L}, event -> visited.add(event.getEventId()));
+        assertEquals(Arrays.asList(8L, 5L), visited);
+    }
+
+    @Test
+    public void testIndexSizeBoundedByCapacity() {
+        final ProvenanceEventType[] eventTypes = {ProvenanceEventType.CREATE, ProvenanceEventType.RECEIVE, ProvenanceEventType.SEND, ProvenanceEventType.DROP};
+        final IndexedEventBuffer buffer = new IndexedEventBuffer(100);
+        for (int i = 0; i < 10_000; i++) {
+            buffer.add(id -> createEvent(id, "ff-" + id, "comp-" + (id % 250), eventTypes[(int) (id % eventTypes.length)]));
+        }
+
+        assertEquals(100, buffer.getSize());
+
+        // 100 FlowFile UUID's, 100 Component ID's and one key per Event Type
+        assertEquals(100 + 100 + eventTypes.length, buffer.getIndexedKeyCount());
+        assertArrayEquals(new long[] {9_999L}, buffer.getEventIdsForFlowFiles(Collections.singleton("ff-9999")));
+        assertArrayEquals(new long[0], buffer.getEventIdsForFlowFiles(Collections.singleton("ff-9899")));
+    }
+}
@@ -17,6 +17,9 @@
 package org.apache.nifi.provenance;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -27,6 +30,7 @@ import java.util.Set;
 import java.util.UUID;
 import org.apache.nifi.authorization.user.NiFiUser;
 import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.search.Query;
 import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchTerms;
@@ -118,6 +122,91 @@ public class TestVolatileProvenanceRepository {
         }
     }
 
+    @Test
+    public void testIndexedQueryReturnsNewestMatches() throws InterruptedException {
+        repo = new VolatileProvenanceRepository(NiFiProperties.createBasicNiFiProperties(null, Collections.singletonMap(VolatileProvenanceRepository.BUFFER_SIZE, "50")));
+
+        final Map<String, String> attributes = new HashMap<>();
+        final ProvenanceEventBuilder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setTransitUri("nifi://unit-test");
+        builder.setComponentType("dummy processor");
+
+        // Register more events than the repository can hold, so that the oldest are evicted
+        for (int i = 0; i < 80; i++) {
+            attributes.put("uuid", "00000000-0000-0000-0000-0000000000" + (i < 10 ? "0" : "") + i);
+            builder.fromFlowFile(createFlowFile(i, 3000L, attributes));
+            builder.setComponentId(i % 2 == 0 ? "even" : "odd");
+            builder.setEventType(i % 4 == 0 ? ProvenanceEventType.SEND : ProvenanceEventType.RECEIVE);
+            repo.registerEvent(builder.build());
+        }
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "EVEN"));
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.EventType, "send"));
+        query.setMaxResults(5);
+
+        final QuerySubmission submission = repo.submitQuery(query, createUser());
+        while (!submission.getResult().isFinished()) {
+            Thread.sleep(100L);
+        }
+
+        // Events 32, 36, ..., 76 match and are still held by the repository, but only the newest 5 are returned
+        final List<ProvenanceEventRecord> matches = submission.getResult().getMatchingEvents();
+        assertEquals(5, matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            assertEquals(76 - i * 4, matches.get(i).getEventId());
+        }
+
+        final Query uuidQuery = new Query(UUID.randomUUID().toString());
+        uuidQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, "00000000-0000-0000-0000-000000000042"));
+        uuidQuery.setMaxResults(100);
+
+        final QuerySubmission uuidSubmission = repo.submitQuery(uuidQuery, createUser());
+        while (!uuidSubmission.getResult().isFinished()) {
+            Thread.sleep(100L);
+        }
+
+        assertEquals(1, uuidSubmission.getResult().getMatchingEvents().size());
+        assertEquals(42L, uuidSubmission.getResult().getMatchingEvents().get(0).getEventId());
+    }
+
+    @Test
+    public void testGetEventAndLineageAfterEviction() throws IOException, InterruptedException {
+        repo = new VolatileProvenanceRepository(NiFiProperties.createBasicNiFiProperties(null, Collections.singletonMap(VolatileProvenanceRepository.BUFFER_SIZE, "10")));
+
+        final String uuid = "00000000-0000-0000-0000-000000000000";
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", uuid);
+
+        final ProvenanceEventBuilder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setEventType(ProvenanceEventType.ATTRIBUTES_MODIFIED);
+        builder.setTransitUri("nifi://unit-test");
+        builder.fromFlowFile(createFlowFile(3L, 3000L, attributes));
+        builder.setComponentId("1234");
+        builder.setComponentType("dummy processor");
+
+        for (int i = 0; i < 25; i++) {
+            repo.registerEvent(builder.build());
+        }
+
+        assertEquals(Long.valueOf(24L), repo.getMaxEventId());
+        assertNull(repo.getEvent(14L));
+        assertEquals(15L, repo.getEvent(15L).getEventId());
+        assertEquals(15L, repo.getEvent(uuid).getEventId());
+        assertNull(repo.getEvent("11111111-1111-1111-1111-111111111111"));
+
+        final ComputeLineageSubmission submission = repo.submitLineageComputation(uuid, createUser());
+        while (!submission.getResult().isFinished()) {
+            Thread.sleep(100L);
+        }
+
+        assertNull(submission.getResult().getError());
+        assertNotNull(submission.getResult().getNodes());
+        assertTrue(submission.getResult().getNodes().size() > 1);
+    }
+
     private FlowFile createFlowFile(final long id, final long fileSize, final Map<String, String> attributes) {
         final Map<String, String> attrCopy = new HashMap<>(attributes);
 
@@ -35,11 +35,11 @@ import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.record.path.FieldValue;
 import org.apache.nifi.record.path.RecordPath;
-import org.apache.nifi.record.path.RecordPathResult;
 import org.apache.nifi.record.path.util.RecordPathCache;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
-import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -65,6 +65,7 @@ import java.util.stream.Collectors;
 })
 public class CalculateRecordStats extends AbstractProcessor {
     static final String RECORD_COUNT_ATTR = "record.count";
+    private static final int RECORD_BATCH_SIZE = 1000;
 
     static final PropertyDescriptor RECORD_READER = new PropertyDescriptor.Builder()
         .name("record-stats-reader")
@@ -173,33 +174,36 @@ public class CalculateRecordStats extends AbstractProcessor {
             RecordReader reader = factory.createRecordReader(flowFile, is, getLogger());
 
             Map<String, Integer> retVal = new HashMap<>();
-            Record record;
+            RecordBatch batch;
 
             int recordCount = 0;
             List<String> baseKeys = new ArrayList<>();
-            while ((record = reader.nextRecord()) != null) {
-                for (Map.Entry<String, RecordPath> entry : paths.entrySet()) {
-                    RecordPathResult result = entry.getValue().evaluate(record);
-                    Optional<FieldValue> value = result.getSelectedFields().findFirst();
-                    if (value.isPresent() && value.get().getValue() != null) {
-                        String approxValue = value.get().getValue().toString();
-                        String baseKey = String.format("recordStats.%s", entry.getKey());
-                        String key = String.format("%s.%s", baseKey, approxValue);
-                        Integer stat = retVal.containsKey(key) ? retVal.get(key) : 0;
-                        Integer baseStat = retVal.getOrDefault(baseKey, 0);
-                        stat++;
-                        baseStat++;
-
-                        retVal.put(key, stat);
-                        retVal.put(baseKey, baseStat);
-
-                        if (!baseKeys.contains(baseKey)) {
-                            baseKeys.add(baseKey);
+            while ((batch = reader.nextBatch(RECORD_BATCH_SIZE)) != null) {
+                final Map<String, ColumnVector> columns = getRootFieldColumns(paths, batch);
+
+                for (int row = 0; row < batch.size(); row++) {
+                    for (Map.Entry<String, RecordPath> entry : paths.entrySet()) {
+                        final Object value = getValue(entry.getValue(), columns.get(entry.getKey()), batch, row);
+                        if (value != null) {
+                            String approxValue = value.toString();
+                            String baseKey = String.format("recordStats.%s", entry.getKey());
+                            String key = String.format("%s.%s", baseKey, approxValue);
+                            Integer stat = retVal.containsKey(key) ? retVal.get(key) : 0;
+                            Integer baseStat = retVal.getOrDefault(baseKey, 0);
+                            stat++;
+                            baseStat++;
+
+                            retVal.put(key, stat);
+                            retVal.put(baseKey, baseStat);
+
+                            if (!baseKeys.contains(baseKey)) {
+                                baseKeys.add(baseKey);
+                            }
                         }
                     }
-                }
 
-                recordCount++;
+                    recordCount++;
+                }
             }
 
             retVal = filterBySize(retVal, limit, baseKeys);
@@ -217,6 +221,27 @@ public class CalculateRecordStats extends AbstractProcessor {
         }
     }
 
+    /**
+     * Provides, for each of the paths that selects a field of the root record, the column of the batch that holds the field's values,
+     * so that the values can be read from the column rather than by evaluating the path against each record.
+     */
+    private Map<String, ColumnVector> getRootFieldColumns(Map<String, RecordPath> paths, RecordBatch batch) {
+        final Map<String, ColumnVector> columns = new HashMap<>();
+        for (Map.Entry<String, RecordPath> entry : paths.entrySet()) {
+            entry.getValue().getRootFieldName().flatMap(batch::getColumn).ifPresent(column -> columns.put(entry.getKey(), column));
+        }
+        return columns;
+    }
+
+    private Object getValue(RecordPath path, ColumnVector column, RecordBatch batch, int row) {
+        if (column != null) {
+            return column.getObject(row);
+        }
+
+        final Optional<FieldValue> value = path.evaluate(batch.getRecord(row)).getSelectedFields().findFirst();
+        return value.isPresent() ? value.get().getValue() : null;
+    }
+
     protected Map filterBySize(Map<String, Integer> values, Integer limit, List<String> baseKeys) {
         Map<String, Integer> toFilter = values.entrySet().stream()
             .filter(e -> !baseKeys.contains(e.getKey()))
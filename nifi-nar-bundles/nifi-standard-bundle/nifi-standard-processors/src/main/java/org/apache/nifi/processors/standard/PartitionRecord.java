@@ -48,8 +48,9 @@ import org.apache.nifi.serialization.RecordReaderFactory;
 import org.apache.nifi.serialization.RecordSetWriter;
 import org.apache.nifi.serialization.RecordSetWriterFactory;
 import org.apache.nifi.serialization.WriteResult;
-import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.apache.nifi.serialization.record.util.DataTypeUtils;
 
 import java.io.IOException;
@@ -63,6 +64,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -98,6 +100,8 @@ import java.util.stream.Stream;
 @SeeAlso({ConvertRecord.class, SplitRecord.class, UpdateRecord.class, QueryRecord.class})
 
 public class PartitionRecord extends AbstractProcessor {
+    private static final int RECORD_BATCH_SIZE = 1000;
+
     private final RecordPathCache recordPathCache = new RecordPathCache(25);
 
     static final PropertyDescriptor RECORD_READER = new PropertyDescriptor.Builder()
@@ -204,38 +208,56 @@ public class PartitionRecord extends AbstractProcessor {
 
             final RecordSchema writeSchema = writerFactory.getSchema(originalAttributes, reader.getSchema());
 
-            Record record;
-            while ((record = reader.nextRecord()) != null) {
-                final Map<String, List<ValueWrapper>> recordMap = new HashMap<>();
-
-                // Evaluate all of the RecordPath's for this Record
+            RecordBatch batch;
+            while ((batch = reader.nextBatch(RECORD_BATCH_SIZE)) != null) {
+                // A RecordPath that selects a field of the root record can read the field's values from the batch's column rather than being evaluated against each record
+                final Map<String, ColumnVector> rootFieldColumns = new HashMap<>();
                 for (final Map.Entry<String, RecordPath> entry : recordPaths.entrySet()) {
-                    final String propName = entry.getKey();
-                    final RecordPath recordPath = entry.getValue();
-
-                    final Stream<FieldValue> fieldValueStream = recordPath.evaluate(record).getSelectedFields();
-                    final List<ValueWrapper> fieldValues = fieldValueStream
-                        .map(fieldVal -> new ValueWrapper(fieldVal.getValue()))
-                        .collect(Collectors.toList());
-                    recordMap.put(propName, fieldValues);
+                    final Optional<String> rootFieldName = entry.getValue().getRootFieldName();
+                    if (rootFieldName.isPresent()) {
+                        rootFieldColumns.put(entry.getKey(), batch.getColumn(rootFieldName.get()).orElse(null));
+                    }
                 }
 
-                final RecordValueMap recordValueMap = new RecordValueMap(recordMap);
+                for (int row = 0; row < batch.size(); row++) {
+                    final Map<String, List<ValueWrapper>> recordMap = new HashMap<>();
 
-                // Get the RecordSetWriter that contains the same values for all RecordPaths - or create one if none exists.
-                RecordSetWriter writer = writerMap.get(recordValueMap);
-                if (writer == null) {
-                    final FlowFile childFlowFile = session.create(flowFile);
-                    recordValueMap.setFlowFile(childFlowFile);
+                    // Evaluate all of the RecordPath's for this Record
+                    for (final Map.Entry<String, RecordPath> entry : recordPaths.entrySet()) {
+                        final String propName = entry.getKey();
 
-                    final OutputStream out = session.write(childFlowFile);
+                        if (rootFieldColumns.containsKey(propName)) {
+                            final ColumnVector column = rootFieldColumns.get(propName);
+                            final Object value = column == null ? null : column.getObject(row);
+                            recordMap.put(propName, Collections.singletonList(new ValueWrapper(value)));
+                            continue;
+                        }
 
-                    writer = writerFactory.createWriter(getLogger(), writeSchema, out, childFlowFile);
-                    writer.beginRecordSet();
-                    writerMap.put(recordValueMap, writer);
-                }
+                        final RecordPath recordPath = entry.getValue();
+                        final Stream<FieldValue> fieldValueStream = recordPath.evaluate(batch.getRecord(row)).getSelectedFields();
+                        final List<ValueWrapper> fieldValues = fieldValueStream
+                            .map(fieldVal -> new ValueWrapper(fieldVal.getValue()))
+                            .collect(Collectors.toList());
+                        recordMap.put(propName, fieldValues);
+                    }
+
+                    final RecordValueMap recordValueMap = new RecordValueMap(recordMap);
 
-                writer.write(record);
+                    // Get the RecordSetWriter that contains the same values for all RecordPaths - or create one if none exists.
+                    RecordSetWriter writer = writerMap.get(recordValueMap);
+                    if (writer == null) {
+                        final FlowFile childFlowFile = session.create(flowFile);
+                        recordValueMap.setFlowFile(childFlowFile);
+
+                        final OutputStream out = session.write(childFlowFile);
+
+                        writer = writerFactory.createWriter(getLogger(), writeSchema, out, childFlowFile);
+                        writer.beginRecordSet();
+                        writerMap.put(recordValueMap, writer);
+                    }
+
+                    writer.write(batch.getRecord(row));
+                }
             }
 
             // For each RecordSetWriter, finish the record set and close the writer.
@@ -53,7 +53,6 @@ import org.apache.nifi.processors.standard.db.DatabaseAdapter;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
-import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordSchema;
@@ -737,19 +736,27 @@ public class PutDatabaseRecord extends AbstractSessionFactoryProcessor {
             int currentBatchSize = 0;
             int batchIndex = 0;
 
+            // The SQL type of each field only depends on the record's schema, so it is determined once for each schema
+            // rather than for every value. Readers normally return the same schema for every record.
+            final boolean deleteType = DELETE_TYPE.equalsIgnoreCase(statementType);
+            RecordSchema sqlTypesSchema = null;
+            int[] sqlTypes = null;
+
             while ((currentRecord = recordParser.nextRecord()) != null) {
                 Object[] values = currentRecord.getValues();
-                List<DataType> dataTypes = currentRecord.getSchema().getDataTypes();
+                if (currentRecord.getSchema() != sqlTypesSchema) {
+                    sqlTypesSchema = currentRecord.getSchema();
+                    sqlTypes = getSQLTypeValues(sqlTypesSchema);
+                }
                 if (values != null) {
                     if (fieldIndexes != null) {
                         for (int i = 0; i < fieldIndexes.size(); i++) {
                             final int currentFieldIndex = fieldIndexes.get(i);
                             final Object currentValue = values[currentFieldIndex];
-                            final DataType dataType = dataTypes.get(currentFieldIndex);
-                            final int sqlType = DataTypeUtils.getSQLTypeValue(dataType);
+                            final int sqlType = sqlTypes[currentFieldIndex];
 
                             // If DELETE type, insert the object twice because of the null check (see generateDelete for details)
-                            if (DELETE_TYPE.equalsIgnoreCase(statementType)) {
+                            if (deleteType) {
                                 ps.setObject(i * 2 + 1, currentValue, sqlType);
                                 ps.setObject(i * 2 + 2, currentValue, sqlType);
                             } else {
@@ -760,10 +767,9 @@ public class PutDatabaseRecord extends AbstractSessionFactoryProcessor {
                         // If there's no index map, assume all values are included and set them in order
                         for (int i = 0; i < values.length; i++) {
                             final Object currentValue = values[i];
-                            final DataType dataType = dataTypes.get(i);
-                            final int sqlType = DataTypeUtils.getSQLTypeValue(dataType);
+                            final int sqlType = sqlTypes[i];
                             // If DELETE type, insert the object twice because of the null check (see generateDelete for details)
-                            if (DELETE_TYPE.equalsIgnoreCase(statementType)) {
+                            if (deleteType) {
                                 ps.setObject(i * 2 + 1, currentValue, sqlType);
                                 ps.setObject(i * 2 + 2, currentValue, sqlType);
                             } else {
@@ -792,6 +798,14 @@ public class PutDatabaseRecord extends AbstractSessionFactoryProcessor {
         }
     }
 
+    private static int[] getSQLTypeValues(final RecordSchema recordSchema) {
+        final int[] sqlTypes = new int[recordSchema.getFieldCount()];
+        for (int i = 0; i < sqlTypes.length; i++) {
+            sqlTypes[i] = DataTypeUtils.getSQLTypeValue(recordSchema.getField(i).getDataType());
+        }
+        return sqlTypes;
+    }
+
     @Override
     public void onTrigger(ProcessContext context, ProcessSessionFactory sessionFactory) throws ProcessException {
 
@@ -24,7 +24,8 @@ import org.apache.nifi.processor.ProcessSession;
 import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
-import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 
 import java.io.InputStream;
 import java.lang.reflect.Array;
@@ -32,23 +33,37 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class FlowFileEnumerator implements Enumerator<Object> {
+    private static final int RECORD_BATCH_SIZE = 1000;
+
     private final ProcessSession session;
     private final FlowFile flowFile;
     private final ComponentLog logger;
     private final RecordReaderFactory recordParserFactory;
     private final int[] fields;
+    private final RecordPushdown pushdown;
 
     private InputStream rawIn;
     private Object currentRow;
     private RecordReader recordParser;
+    private RecordBatch currentBatch;
+    private int batchRow;
     private int recordsRead = 0;
 
     public FlowFileEnumerator(final ProcessSession session, final FlowFile flowFile, final ComponentLog logger, final RecordReaderFactory parserFactory, final int[] fields) {
+        this(session, flowFile, logger, parserFactory, fields, null);
+    }
+
+    /**
+     * @param pushdown the fields and predicates to push down into the Record Reader, or <code>null</code> if all records are to be read in full
+     */
+    public FlowFileEnumerator(final ProcessSession session, final FlowFile flowFile, final ComponentLog logger, final RecordReaderFactory parserFactory, final int[] fields,
+                              final RecordPushdown pushdown) {
         this.session = session;
         this.flowFile = flowFile;
         this.recordParserFactory = parserFactory;
         this.logger = logger;
         this.fields = fields;
+        this.pushdown = pushdown;
         reset();
     }
 
@@ -61,8 +76,16 @@ public class FlowFileEnumerator implements Enumerator<Object> {
     public boolean moveNext() {
         currentRow = null;
         try {
-            final Record record = recordParser.nextRecord();
-            if (record == null) {
+            // Records are read a batch at a time, so that the values of each row can be taken from the batch's columns
+            if (currentBatch == null || ++batchRow >= currentBatch.size()) {
+                currentBatch = recordParser.nextBatch(RECORD_BATCH_SIZE);
+                batchRow = 0;
+            }
+
+            if (currentBatch == null) {
+                // Records that the reader skipped because they could not satisfy the query were still read
+                recordsRead += (int) recordParser.getSkippedRecordCount();
+
                 // If we are out of data, close the InputStream. We do this because
                 // Calcite does not necessarily call our close() method.
                 close();
@@ -75,7 +98,7 @@ public class FlowFileEnumerator implements Enumerator<Object> {
                 return false;
             }
 
-            currentRow = filterColumns(record);
+            currentRow = filterColumns(currentBatch, batchRow);
         } catch (final Exception e) {
             throw new ProcessException("Failed to read next record in stream for " + flowFile + " due to " + e.getMessage(), e);
         }
@@ -91,15 +114,13 @@ public class FlowFileEnumerator implements Enumerator<Object> {
     protected void onFinish() {
     }
 
-    private Object filterColumns(final Record record) {
-        if (record == null) {
-            return null;
-        }
-
-        final Object[] row = record.getValues();
-
-        // If we want no fields or if the row is null, just return null
-        if (fields == null || row == null) {
+    private Object filterColumns(final RecordBatch batch, final int rowIndex) {
+        // If we want no fields, return the values of all of the fields
+        if (fields == null) {
+            final Object[] row = new Object[batch.getSchema().getFieldCount()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = batch.getColumn(i).getObject(rowIndex);
+            }
             return row;
         }
 
@@ -107,14 +128,14 @@ public class FlowFileEnumerator implements Enumerator<Object> {
         // the actual value, NOT a 1-element array of values.
         if (fields.length == 1) {
             final int desiredCellIndex = fields[0];
-            return row[desiredCellIndex];
+            return batch.getColumn(desiredCellIndex).getObject(rowIndex);
         }
 
         // Create a new Object array that contains only the desired fields.
         final Object[] filtered = new Object[fields.length];
         for (int i = 0; i < fields.length; i++) {
             final int indexToKeep = fields[i];
-            filtered[i] = cast(row[indexToKeep]);
+            filtered[i] = cast(batch.getColumn(indexToKeep).getObject(rowIndex));
         }
 
         return filtered;
@@ -145,9 +166,13 @@ public class FlowFileEnumerator implements Enumerator<Object> {
         }
 
         rawIn = session.read(flowFile);
+        currentBatch = null;
 
         try {
             recordParser = recordParserFactory.createRecordReader(flowFile, rawIn, logger);
+            if (pushdown != null && !recordParser.pushDown(pushdown)) {
+                logger.debug("Record Reader for {} does not support pushing down {}; all records will be read in full", new Object[] {flowFile, pushdown});
+            }
         } catch (final Exception e) {
             throw new ProcessException("Failed to reset stream", e);
         }
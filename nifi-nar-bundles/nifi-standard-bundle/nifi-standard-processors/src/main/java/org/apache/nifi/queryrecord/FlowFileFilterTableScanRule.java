@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.queryrecord;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.nifi.serialization.record.pushdown.FieldPredicate;
+import org.apache.nifi.serialization.record.pushdown.FieldPredicate.Operator;
+
+/**
+ * Pushes the simple comparisons of a filter over a FlowFile table into the scan of the table, so that the Record Reader can skip
+ * records that do not satisfy them. The filter itself is retained, as the reader is not required to skip every such record.
+ */
+public class FlowFileFilterTableScanRule extends RelOptRule {
+    public static final FlowFileFilterTableScanRule INSTANCE = new FlowFileFilterTableScanRule();
+
+    private FlowFileFilterTableScanRule() {
+        super(
+            operand(LogicalFilter.class,
+                operand(FlowFileTableScan.class, none())),
+            "FlowFileFilterTableScanRule");
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        final LogicalFilter filter = call.rel(0);
+        final FlowFileTableScan scan = call.rel(1);
+
+        if (!scan.predicates.isEmpty()) {
+            // Predicates have already been pushed down into the scan.
+            return;
+        }
+
+        final List<FieldPredicate> predicates = getPredicates(filter.getCondition(), scan);
+        if (predicates.isEmpty()) {
+            return;
+        }
+
+        call.transformTo(filter.copy(filter.getTraitSet(), scan.withPushdown(scan.requiredFields, predicates), filter.getCondition()));
+    }
+
+    /**
+     * Determines which of the conjuncts of the given condition compare a field of the scan with a literal value, or check whether it is null
+     */
+    static List<FieldPredicate> getPredicates(final RexNode condition, final FlowFileTableScan scan) {
+        final List<String> fieldNames = scan.getTable().getRowType().getFieldNames();
+        final List<FieldPredicate> predicates = new ArrayList<>();
+
+        for (final RexNode conjunction : RelOptUtil.conjunctions(condition)) {
+            if (!(conjunction instanceof RexCall)) {
+                continue;
+            }
+
+            final List<RexNode> operands = ((RexCall) conjunction).getOperands();
+            final SqlKind kind = conjunction.getKind();
+            if (kind == SqlKind.IS_NULL || kind == SqlKind.IS_NOT_NULL) {
+                if (operands.get(0) instanceof RexInputRef) {
+                    final String fieldName = fieldNames.get(scan.fields[((RexInputRef) operands.get(0)).getIndex()]);
+                    predicates.add(kind == SqlKind.IS_NULL ? FieldPredicate.isNull(fieldName) : FieldPredicate.isNotNull(fieldName));
+                }
+
+                continue;
+            }
+
+            final Operator operator = getOperator(kind);
+            if (operator == null || operands.size() != 2) {
+                continue;
+            }
+
+            // The field may be on either side of the comparison; if it is on the right, then the comparison is reversed.
+            final RexInputRef inputRef;
+            final RexLiteral literal;
+            final Operator fieldOperator;
+            if (operands.get(0) instanceof RexInputRef && operands.get(1) instanceof RexLiteral) {
+                inputRef = (RexInputRef) operands.get(0);
+                literal = (RexLiteral) operands.get(1);
+                fieldOperator = operator;
+            } else if (operands.get(0) instanceof RexLiteral && operands.get(1) instanceof RexInputRef) {
+                inputRef = (RexInputRef) operands.get(1);
+                literal = (RexLiteral) operands.get(0);
+                fieldOperator = reverse(operator);
+            } else {
+                continue;
+            }
+
+            final Object value = getLiteralValue(literal);
+            if (value == null) {
+                continue;
+            }
+
+            final String fieldName = fieldNames.get(scan.fields[inputRef.getIndex()]);
+            predicates.add(FieldPredicate.compare(fieldName, fieldOperator, value));
+        }
+
+        return predicates;
+    }
+
+    private static Operator getOperator(final SqlKind kind) {
+        switch (kind) {
+            case EQUALS:
+                return Operator.EQUALS;
+            case NOT_EQUALS:
+                return Operator.NOT_EQUALS;
+            case LESS_THAN:
+                return Operator.LESS_THAN;
+            case LESS_THAN_OR_EQUAL:
+                return Operator.LESS_THAN_OR_EQUAL;
+            case GREATER_THAN:
+                return Operator.GREATER_THAN;
+            case GREATER_THAN_OR_EQUAL:
+                return Operator.GREATER_THAN_OR_EQUAL;
+            default:
+                return null;
+        }
+    }
+
+    private static Operator reverse(final Operator operator) {
+        switch (operator) {
+            case LESS_THAN:
+                return Operator.GREATER_THAN;
+            case LESS_THAN_OR_EQUAL:
+                return Operator.GREATER_THAN_OR_EQUAL;
+            case GREATER_THAN:
+                return Operator.LESS_THAN;
+            case GREATER_THAN_OR_EQUAL:
+                return Operator.LESS_THAN_OR_EQUAL;
+            default:
+                return operator;
+        }
+    }
+
+    /**
+     * Returns the value of the literal if it is a string, a number or a boolean, or null if it is any other type of value
+     */
+    private static Object getLiteralValue(final RexLiteral literal) {
+        if (literal.isNull()) {
+            return null;
+        }
+
+        switch (literal.getTypeName()) {
+            case CHAR:
+                return literal.getValueAs(String.class);
+            case BOOLEAN:
+                return literal.getValueAs(Boolean.class);
+            case DECIMAL:
+            case DOUBLE:
+                return literal.getValueAs(BigDecimal.class);
+            default:
+                return null;
+        }
+    }
+}
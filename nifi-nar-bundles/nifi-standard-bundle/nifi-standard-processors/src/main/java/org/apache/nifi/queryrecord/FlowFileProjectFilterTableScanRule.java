@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.queryrecord;
+
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.nifi.serialization.record.pushdown.FieldPredicate;
+
+/**
+ * Pushes a filter's simple comparisons, and the fields that a projection over the filter and the filter itself use, into the scan of a FlowFile
+ * table, so that the Record Reader converts only the values of those fields and can skip records that do not satisfy the comparisons. The
+ * projection and the filter are retained, as the scan still produces all of its fields, leaving those that are not read null.
+ */
+public class FlowFileProjectFilterTableScanRule extends RelOptRule {
+    public static final FlowFileProjectFilterTableScanRule INSTANCE = new FlowFileProjectFilterTableScanRule();
+
+    private FlowFileProjectFilterTableScanRule() {
+        super(
+            operand(LogicalProject.class,
+                operand(LogicalFilter.class,
+                    operand(FlowFileTableScan.class, none()))),
+            "FlowFileProjectFilterTableScanRule");
+    }
+
+    @Override
+    public void onMatch(RelOptRuleCall call) {
+        final LogicalProject project = call.rel(0);
+        final LogicalFilter filter = call.rel(1);
+        final FlowFileTableScan scan = call.rel(2);
+
+        if (scan.requiredFields != null) {
+            // The fields that are required have already been pushed down into the scan.
+            return;
+        }
+
+        final ImmutableBitSet usedFields = RelOptUtil.InputFinder.bits(project.getProjects(), filter.getCondition());
+        if (usedFields.cardinality() >= scan.fields.length) {
+            // All of the scan's fields are used.
+            return;
+        }
+
+        final int[] requiredFields = new int[usedFields.cardinality()];
+        int i = 0;
+        for (final int usedField : usedFields) {
+            requiredFields[i++] = scan.fields[usedField];
+        }
+
+        final List<FieldPredicate> predicates = scan.predicates.isEmpty() ? FlowFileFilterTableScanRule.getPredicates(filter.getCondition(), scan) : scan.predicates;
+        final RelNode newFilter = filter.copy(filter.getTraitSet(), scan.withPushdown(requiredFields, predicates), filter.getCondition());
+        call.transformTo(project.copy(project.getTraitSet(), newFilter, project.getProjects(), project.getRowType()));
+    }
+}
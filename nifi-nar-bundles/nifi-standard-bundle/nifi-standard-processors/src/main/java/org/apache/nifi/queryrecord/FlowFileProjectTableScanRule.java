@@ -43,29 +43,25 @@ public class FlowFileProjectTableScanRule extends RelOptRule {
     public void onMatch(RelOptRuleCall call) {
         final LogicalProject project = call.rel(0);
         final FlowFileTableScan scan = call.rel(1);
-        final int[] fields = getProjectFields(project.getProjects());
+        final int[] fields = getProjectFields(project.getProjects(), scan);
 
         if (fields == null) {
             // Project contains expressions more complex than just field references.
             return;
         }
 
-        call.transformTo(
-            new FlowFileTableScan(
-                scan.getCluster(),
-                scan.getTable(),
-                scan.flowFileTable,
-                fields));
+        call.transformTo(scan.withFields(fields));
     }
 
-    private int[] getProjectFields(List<RexNode> exps) {
+    private int[] getProjectFields(List<RexNode> exps, FlowFileTableScan scan) {
         final int[] fields = new int[exps.size()];
 
         for (int i = 0; i < exps.size(); i++) {
             final RexNode exp = exps.get(i);
 
             if (exp instanceof RexInputRef) {
-                fields[i] = ((RexInputRef) exp).getIndex();
+                // The project refers to the fields of the scan, which may itself be a projection of the table's fields
+                fields[i] = scan.fields[((RexInputRef) exp).getIndex()];
             } else {
                 return null; // not a simple projection
             }
@@ -42,6 +42,7 @@ import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 import org.apache.nifi.serialization.record.type.ArrayDataType;
 import org.apache.nifi.serialization.record.type.ChoiceDataType;
 
@@ -67,6 +68,7 @@ public class FlowFileTable extends AbstractTable implements QueryableTable, Tran
     private volatile int maxRecordsRead;
 
     private final Set<FlowFileEnumerator> enumerators = new HashSet<>();
+    private final List<RecordPushdown> pushdowns = new ArrayList<>();
 
     /**
      * Creates a FlowFile table.
@@ -99,6 +101,19 @@ public class FlowFileTable extends AbstractTable implements QueryableTable, Tran
         }
     }
 
+    /**
+     * Holds the fields and the predicates that a scan of the table pushes down into the Record Reader, so that the code that is generated
+     * for the scan can refer to them.
+     *
+     * @return the index by which the generated code refers to the pushdown
+     */
+    int addPushdown(final RecordPushdown pushdown) {
+        synchronized (pushdowns) {
+            pushdowns.add(pushdown);
+            return pushdowns.size() - 1;
+        }
+    }
+
     /**
      * Returns an enumerable over a given projection of the fields.
      *
@@ -106,11 +121,31 @@ public class FlowFileTable extends AbstractTable implements QueryableTable, Tran
      * Called from generated code.
      */
     public Enumerable<Object> project(final int[] fields) {
+        return createEnumerable(fields, null);
+    }
+
+    /**
+     * Returns an enumerable over a given projection of the fields, which pushes the fields and predicates that were added by
+     * {@link #addPushdown(RecordPushdown)} under the given index down into the Record Reader.
+     *
+     * <p>
+     * Called from generated code.
+     */
+    public Enumerable<Object> project(final int[] fields, final int pushdownIndex) {
+        final RecordPushdown pushdown;
+        synchronized (pushdowns) {
+            pushdown = pushdowns.get(pushdownIndex);
+        }
+
+        return createEnumerable(fields, pushdown);
+    }
+
+    private Enumerable<Object> createEnumerable(final int[] fields, final RecordPushdown pushdown) {
         return new AbstractEnumerable<Object>() {
             @Override
             @SuppressWarnings({"unchecked", "rawtypes"})
             public Enumerator<Object> enumerator() {
-                final FlowFileEnumerator flowFileEnumerator = new FlowFileEnumerator(session, flowFile, logger, recordReaderFactory, fields) {
+                final FlowFileEnumerator flowFileEnumerator = new FlowFileEnumerator(session, flowFile, logger, recordReaderFactory, fields, pushdown) {
                     @Override
                     protected void onFinish() {
                         final int recordCount = getRecordsRead();
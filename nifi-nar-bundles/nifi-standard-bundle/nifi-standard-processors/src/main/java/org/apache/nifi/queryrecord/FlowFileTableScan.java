@@ -25,17 +25,25 @@ import org.apache.calcite.linq4j.tree.Blocks;
 import org.apache.calcite.linq4j.tree.Expressions;
 import org.apache.calcite.linq4j.tree.Primitive;
 import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.nifi.serialization.record.pushdown.FieldPredicate;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Relational expression representing a scan of a FlowFile.
@@ -47,22 +55,71 @@ import java.util.List;
 public class FlowFileTableScan extends TableScan implements EnumerableRel {
     final FlowFileTable flowFileTable;
     final int[] fields;
+    // The indexes of the fields that are used by the relational expressions that consume the scan, or null if all of the scan's fields are used.
+    // The values of any other field are never read, so the scan produces null for them.
+    final int[] requiredFields;
+    // Predicates that the relational expressions that consume the scan evaluate against each row, which allow the Record Reader to skip rows
+    final List<FieldPredicate> predicates;
 
     protected FlowFileTableScan(final RelOptCluster cluster, final RelOptTable table, final FlowFileTable flowFileTable, final int[] fields) {
+        this(cluster, table, flowFileTable, fields, null, Collections.emptyList());
+    }
+
+    protected FlowFileTableScan(final RelOptCluster cluster, final RelOptTable table, final FlowFileTable flowFileTable, final int[] fields,
+                                final int[] requiredFields, final List<FieldPredicate> predicates) {
         super(cluster, cluster.traitSetOf(EnumerableConvention.INSTANCE), table);
 
         this.flowFileTable = flowFileTable;
         this.fields = fields;
+        this.requiredFields = requiredFields;
+        this.predicates = predicates;
+    }
+
+    /**
+     * Creates a scan of the given fields of the table that reads only those of the given fields that this scan reads and pushes down the same predicates
+     */
+    FlowFileTableScan withFields(final int[] fields) {
+        int[] required = null;
+        if (requiredFields != null) {
+            final Set<Integer> fieldSet = new HashSet<>();
+            for (final int field : fields) {
+                fieldSet.add(field);
+            }
+
+            required = Arrays.stream(requiredFields).filter(fieldSet::contains).toArray();
+        }
+
+        return new FlowFileTableScan(getCluster(), table, flowFileTable, fields, required, predicates);
+    }
+
+    /**
+     * Creates a scan of the same fields of the table that reads only the given fields and pushes down the given predicates
+     */
+    FlowFileTableScan withPushdown(final int[] requiredFields, final List<FieldPredicate> predicates) {
+        return new FlowFileTableScan(getCluster(), table, flowFileTable, fields, requiredFields, predicates);
     }
 
     @Override
     public RelNode copy(final RelTraitSet traitSet, final List<RelNode> inputs) {
-        return new FlowFileTableScan(getCluster(), table, flowFileTable, fields);
+        return new FlowFileTableScan(getCluster(), table, flowFileTable, fields, requiredFields, predicates);
     }
 
     @Override
     public RelWriter explainTerms(final RelWriter pw) {
-        return super.explainTerms(pw).item("fields", Primitive.asList(fields));
+        // The required fields and the predicates must be part of the scan's digest, as a scan that pushes them down is not equivalent to one that does not
+        return super.explainTerms(pw).item("fields", Primitive.asList(fields))
+            .itemIf("requiredFields", requiredFields == null ? null : Primitive.asList(requiredFields), requiredFields != null)
+            .itemIf("predicates", predicates, !predicates.isEmpty());
+    }
+
+    @Override
+    public RelOptCost computeSelfCost(final RelOptPlanner planner, final RelMetadataQuery mq) {
+        // Favor scans that read fewer fields and that let the Record Reader skip rows, as the reader then parses and converts fewer values
+        final int fieldCount = table.getRowType().getFieldCount();
+        final int readFieldCount = requiredFields == null ? fields.length : requiredFields.length;
+        final double fieldFactor = (readFieldCount + 2D) / (fieldCount + 2D);
+        final double predicateFactor = predicates.isEmpty() ? 1D : 0.9D;
+        return super.computeSelfCost(planner, mq).multiplyBy(fieldFactor * predicateFactor);
     }
 
     @Override
@@ -78,14 +135,39 @@ public class FlowFileTableScan extends TableScan implements EnumerableRel {
     @Override
     public void register(RelOptPlanner planner) {
         planner.addRule(FlowFileProjectTableScanRule.INSTANCE);
+        planner.addRule(FlowFileFilterTableScanRule.INSTANCE);
+        planner.addRule(FlowFileProjectFilterTableScanRule.INSTANCE);
     }
 
     @Override
     public Result implement(EnumerableRelImplementor implementor, Prefer pref) {
         PhysType physType = PhysTypeImpl.of(implementor.getTypeFactory(), getRowType(), pref.preferArray());
 
+        final RecordPushdown pushdown = createPushdown();
+        if (pushdown == null) {
+            return implementor.result(physType, Blocks.toBlock(
+                Expressions.call(table.getExpression(FlowFileTable.class), "project", Expressions.constant(fields))));
+        }
+
+        // The generated code cannot hold the pushdown itself, so the table holds it, and the generated code refers to it by its index
+        final int pushdownIndex = flowFileTable.addPushdown(pushdown);
         return implementor.result(physType, Blocks.toBlock(
-            Expressions.call(table.getExpression(FlowFileTable.class), "project", Expressions.constant(fields))));
+            Expressions.call(table.getExpression(FlowFileTable.class), "project", Expressions.constant(fields), Expressions.constant(pushdownIndex))));
+    }
+
+    private RecordPushdown createPushdown() {
+        final List<String> fieldNames = table.getRowType().getFieldNames();
+        final Set<String> requiredFieldNames = new HashSet<>();
+        for (final int field : requiredFields == null ? fields : requiredFields) {
+            requiredFieldNames.add(fieldNames.get(field));
+        }
+
+        final boolean allFieldsRequired = requiredFieldNames.size() == fieldNames.size();
+        if (allFieldsRequired && predicates.isEmpty()) {
+            return null;
+        }
+
+        return new RecordPushdown(allFieldsRequired ? null : requiredFieldNames, predicates);
     }
 
 }
@@ -20,30 +20,73 @@ package org.apache.nifi.avro;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
-import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.SerializedForm;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 
 import com.google.common.base.Throwables;
 
 import java.io.IOException;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
 
 public abstract class AvroRecordReader implements RecordReader {
+    private boolean[] requiredFields;
+    private Predicate<Object[]> filter;
+    private long skippedRecordCount = 0L;
 
     protected abstract GenericRecord nextAvroRecord() throws IOException;
 
+    @Override
+    public boolean pushDown(final RecordPushdown pushdown) {
+        // Each Avro record is still decoded in full, but the values of fields that are not needed are not converted
+        final RecordSchema schema;
+        try {
+            schema = getSchema();
+        } catch (final MalformedRecordException e) {
+            return false;
+        }
+
+        requiredFields = pushdown.getRequiredFieldNames().isPresent() ? pushdown.getRequiredFields(schema) : null;
+        filter = pushdown.getPredicates().isEmpty() ? null : pushdown.createFilter(schema);
+        return true;
+    }
+
+    @Override
+    public long getSkippedRecordCount() {
+        return skippedRecordCount;
+    }
+
+    private Object[] convertAvroRecord(final GenericRecord record, final RecordSchema schema) {
+        return AvroTypeUtil.convertAvroRecordToArray(record, schema, requiredFields, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An Avro record is the serialized form of a Record only if the values of all of its fields were converted
+     */
+    private SerializedForm createSerializedForm(final GenericRecord record) {
+        return requiredFields == null ? SerializedForm.of(record, AvroTypeUtil.AVRO_BINARY_MIME_TYPE) : null;
+    }
+
     @Override
     public Record nextRecord(final boolean coerceTypes, final boolean dropUnknownFields) throws IOException, MalformedRecordException {
         try {
-            GenericRecord record = nextAvroRecord();
-            if (record == null) {
-                return null;
+            GenericRecord record;
+            while ((record = nextAvroRecord()) != null) {
+                final RecordSchema schema = getSchema();
+                final Object[] values = convertAvroRecord(record, schema);
+                if (filter != null && !filter.test(values)) {
+                    skippedRecordCount++;
+                    continue;
+                }
+
+                return new ArrayRecord(schema, values, createSerializedForm(record), false, false);
             }
 
-            final RecordSchema schema = getSchema();
-            final Map<String, Object> values = AvroTypeUtil.convertAvroRecordToMap(record, schema);
-            return new MapRecord(schema, values);
+            return null;
         } catch (IOException e) {
             throw e;
         } catch (MalformedRecordException e) {
@@ -52,4 +95,38 @@ public abstract class AvroRecordReader implements RecordReader {
             throw new MalformedRecordException("Error while getting next record. Root cause: " + Throwables.getRootCause(e), e);
         }
     }
+
+    @Override
+    public RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("Cannot read a batch of " + maxRecords + " records");
+        }
+
+        try {
+            final RecordSchema schema = getSchema();
+            RecordBatch.Builder builder = null;
+            GenericRecord record;
+            while ((builder == null || builder.size() < maxRecords) && (record = nextAvroRecord()) != null) {
+                final Object[] values = convertAvroRecord(record, schema);
+                if (filter != null && !filter.test(values)) {
+                    skippedRecordCount++;
+                    continue;
+                }
+
+                if (builder == null) {
+                    builder = new RecordBatch.Builder(schema, Math.min(maxRecords, 1024), requiredFields == null);
+                }
+
+                builder.addRow(values, createSerializedForm(record));
+            }
+
+            return builder == null ? null : builder.build();
+        } catch (IOException e) {
+            throw e;
+        } catch (MalformedRecordException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MalformedRecordException("Error while getting next batch of records. Root cause: " + Throwables.getRootCause(e), e);
+        }
+    }
 }
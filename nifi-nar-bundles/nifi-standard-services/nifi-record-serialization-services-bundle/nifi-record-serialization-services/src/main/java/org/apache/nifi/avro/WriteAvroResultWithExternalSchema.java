@@ -28,11 +28,13 @@ import org.apache.nifi.schema.access.SchemaAccessWriter;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 
 public class WriteAvroResultWithExternalSchema extends AbstractRecordSetWriter {
@@ -84,11 +86,26 @@ public class WriteAvroResultWithExternalSchema extends AbstractRecordSetWriter {
             schemaAccessWriter.writeHeader(recordSchema, getOutputStream());
         }
 
-        final GenericRecord rec = AvroTypeUtil.createAvroRecord(record, avroSchema);
+        // A record that has not been modified since it was read from Avro with the same schema can be written as it was read
+        final Optional<GenericRecord> serializedAvroRecord = AvroTypeUtil.getSerializedAvroRecord(record, avroSchema);
+        final GenericRecord rec = serializedAvroRecord.isPresent() ? serializedAvroRecord.get() : AvroTypeUtil.createAvroRecord(record, avroSchema);
         datumWriter.write(rec, encoder);
         return schemaAccessWriter.getAttributes(recordSchema);
     }
 
+    @Override
+    protected Map<String, String> writeBatch(final RecordBatch batch) throws IOException {
+        if (!isActiveRecordSet()) {
+            flush();
+            schemaAccessWriter.writeHeader(recordSchema, getOutputStream());
+        }
+
+        for (final GenericRecord rec : AvroTypeUtil.createAvroRecords(batch, avroSchema)) {
+            datumWriter.write(rec, encoder);
+        }
+        return schemaAccessWriter.getAttributes(recordSchema);
+    }
+
     @Override
     public void flush() throws IOException {
         encoder.flush();
@@ -97,7 +114,7 @@ public class WriteAvroResultWithExternalSchema extends AbstractRecordSetWriter {
 
     @Override
     public String getMimeType() {
-        return "application/avro-binary";
+        return AvroTypeUtil.AVRO_BINARY_MIME_TYPE;
     }
 
     @Override
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
 
 import org.apache.avro.Schema;
 import org.apache.avro.file.CodecFactory;
@@ -29,6 +30,7 @@ import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 public class WriteAvroResultWithSchema extends AbstractRecordSetWriter {
 
@@ -57,13 +59,23 @@ public class WriteAvroResultWithSchema extends AbstractRecordSetWriter {
 
     @Override
     public Map<String, String> writeRecord(final Record record) throws IOException {
-        final GenericRecord rec = AvroTypeUtil.createAvroRecord(record, schema);
+        // A record that has not been modified since it was read from Avro with the same schema can be written as it was read
+        final Optional<GenericRecord> serializedAvroRecord = AvroTypeUtil.getSerializedAvroRecord(record, schema);
+        final GenericRecord rec = serializedAvroRecord.isPresent() ? serializedAvroRecord.get() : AvroTypeUtil.createAvroRecord(record, schema);
         dataFileWriter.append(rec);
         return Collections.emptyMap();
     }
 
+    @Override
+    protected Map<String, String> writeBatch(final RecordBatch batch) throws IOException {
+        for (final GenericRecord rec : AvroTypeUtil.createAvroRecords(batch, schema)) {
+            dataFileWriter.append(rec);
+        }
+        return Collections.emptyMap();
+    }
+
     @Override
     public String getMimeType() {
-        return "application/avro-binary";
+        return AvroTypeUtil.AVRO_BINARY_MIME_TYPE;
     }
 }
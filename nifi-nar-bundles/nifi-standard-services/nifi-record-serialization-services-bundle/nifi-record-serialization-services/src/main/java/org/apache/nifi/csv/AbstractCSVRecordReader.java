@@ -20,9 +20,17 @@ package org.apache.nifi.csv;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.record.DataType;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.SerializedForm;
 import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.ThreadSafeDateFormat;
+
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
 abstract public class AbstractCSVRecordReader implements RecordReader {
@@ -40,11 +48,13 @@ abstract public class AbstractCSVRecordReader implements RecordReader {
     protected final String timestampFormat;
 
     protected final RecordSchema schema;
+    private final boolean stringFieldsOnly;
 
     AbstractCSVRecordReader(final ComponentLog logger, final RecordSchema schema, final boolean hasHeader, final boolean ignoreHeader,
                             final String dateFormat, final String timeFormat, final String timestampFormat) {
         this.logger = logger;
         this.schema = schema;
+        this.stringFieldsOnly = hasOnlyStringFields(schema);
         this.hasHeader = hasHeader;
         this.ignoreHeader = ignoreHeader;
 
@@ -53,7 +63,8 @@ abstract public class AbstractCSVRecordReader implements RecordReader {
             LAZY_DATE_FORMAT = null;
         } else {
             this.dateFormat = dateFormat;
-            LAZY_DATE_FORMAT = () -> DataTypeUtils.getDateFormat(dateFormat);
+            final DateFormat format = ThreadSafeDateFormat.of(dateFormat);
+            LAZY_DATE_FORMAT = () -> format;
         }
 
         if (timeFormat == null || timeFormat.isEmpty()) {
@@ -61,7 +72,8 @@ abstract public class AbstractCSVRecordReader implements RecordReader {
             LAZY_TIME_FORMAT = null;
         } else {
             this.timeFormat = timeFormat;
-            LAZY_TIME_FORMAT = () -> DataTypeUtils.getDateFormat(timeFormat);
+            final DateFormat format = ThreadSafeDateFormat.of(timeFormat);
+            LAZY_TIME_FORMAT = () -> format;
         }
 
         if (timestampFormat == null || timestampFormat.isEmpty()) {
@@ -69,7 +81,8 @@ abstract public class AbstractCSVRecordReader implements RecordReader {
             LAZY_TIMESTAMP_FORMAT = null;
         } else {
             this.timestampFormat = timestampFormat;
-            LAZY_TIMESTAMP_FORMAT = () -> DataTypeUtils.getDateFormat(timestampFormat);
+            final DateFormat format = ThreadSafeDateFormat.of(timestampFormat);
+            LAZY_TIMESTAMP_FORMAT = () -> format;
         }
     }
 
@@ -86,6 +99,28 @@ abstract public class AbstractCSVRecordReader implements RecordReader {
         return DataTypeUtils.convertType(trimmed, dataType, LAZY_DATE_FORMAT, LAZY_TIME_FORMAT, LAZY_TIMESTAMP_FORMAT, fieldName);
     }
 
+    /**
+     * Compiles a converter for the values of a field, which {@link #convert(String, Function)} applies in the same way as
+     * {@link #convert(String, DataType, String)} converts a value, so that readers can compile a converter for each column once
+     * rather than decide how to convert every value.
+     */
+    protected final Function<Object, Object> compileConverter(final DataType dataType, final String fieldName) {
+        return DataTypeUtils.compileConverter(dataType, fieldName, dateFormat, timeFormat, timestampFormat, StandardCharsets.UTF_8);
+    }
+
+    protected final Object convert(final String value, final Function<Object, Object> converter) {
+        if (converter == null || value == null) {
+            return value;
+        }
+
+        final String trimmed = trim(value);
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+
+        return converter.apply(trimmed);
+    }
+
     protected final Object convertSimpleIfPossible(final String value, final DataType dataType, final String fieldName) {
         if (dataType == null || value == null) {
             return value;
@@ -132,6 +167,44 @@ abstract public class AbstractCSVRecordReader implements RecordReader {
         return value;
     }
 
+    /**
+     * Creates the serialized form of a record whose columns are the fields of the reader's schema, in the same order. The serialized form
+     * holds the value of each column as the reader interprets it, so that a CSV writer can write the record again without converting its
+     * values back to text. Only records whose fields are all Strings have a serialized form, as a CSV writer does not write values of other
+     * types as they were read.
+     *
+     * @return the serialized form of the record, or <code>null</code> if the reader's schema has a field that is not a String
+     */
+    protected final SerializedForm createSerializedForm(final int columnCount, final IntFunction<String> columnValues) {
+        if (!stringFieldsOnly) {
+            return null;
+        }
+
+        final Supplier<Object> supplier = () -> {
+            final String[] values = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                final String value = columnValues.apply(i);
+                if (value != null) {
+                    final String trimmed = trim(value);
+                    values[i] = trimmed.isEmpty() ? null : trimmed;
+                }
+            }
+            return values;
+        };
+
+        return SerializedForm.of(supplier, "text/csv");
+    }
+
+    private static boolean hasOnlyStringFields(final RecordSchema schema) {
+        for (final RecordField field : schema.getFields()) {
+            if (field.getDataType().getFieldType() != RecordFieldType.STRING) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private String trim(String value) {
         return (value.length() > 1) && value.startsWith("\"") && value.endsWith("\"") ? value.substring(1, value.length() - 1) : value;
     }
@@ -22,12 +22,15 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -35,12 +38,15 @@ import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.SerializedForm;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 
 import com.google.common.base.Throwables;
 
@@ -49,6 +55,12 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
     private final CSVParser csvParser;
 
     private List<RecordField> recordFields;
+    private int[] schemaFieldIndexes;
+    private Function<Object, Object>[] converters;
+    private boolean columnsMatchSchema;
+    private boolean[] requiredFields;
+    private Predicate<Object[]> filter;
+    private long skippedRecordCount = 0L;
 
     public CSVRecordReader(final InputStream in, final ComponentLog logger, final RecordSchema schema, final CSVFormat csvFormat, final boolean hasHeader, final boolean ignoreHeader,
                            final String dateFormat, final String timeFormat, final String timestampFormat, final String encoding) throws IOException {
@@ -81,15 +93,25 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
             final List<RecordField> recordFields = getRecordFields();
             final int numFieldNames = recordFields.size();
             for (final CSVRecord csvRecord : csvParser) {
-                final Map<String, Object> values = new LinkedHashMap<>(recordFields.size() * 2);
+                final Object[] values = new Object[schema.getFieldCount()];
+                Arrays.fill(values, ArrayRecord.MISSING_VALUE);
+                Map<String, Object> unknownValues = null;
+
                 for (int i = 0; i < csvRecord.size(); i++) {
+                    if (!isRequired(i, numFieldNames)) {
+                        continue;
+                    }
+
                     final String rawValue = csvRecord.get(i);
 
                     final String rawFieldName;
                     final DataType dataType;
                     if (i >= numFieldNames) {
                         if (!dropUnknownFields) {
-                            values.put("unknown_field_index_" + i, rawValue);
+                            if (unknownValues == null) {
+                                unknownValues = new LinkedHashMap<>();
+                            }
+                            unknownValues.put("unknown_field_index_" + i, rawValue);
                         }
 
                         continue;
@@ -102,7 +124,7 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
 
                     final Object value;
                     if (coerceTypes) {
-                        value = convert(rawValue, dataType, rawFieldName);
+                        value = convert(rawValue, converters[i]);
                     } else {
                         // The CSV Reader is going to return all fields as Strings, because CSV doesn't have any way to
                         // dictate a field type. As a result, we will use the schema that we have to attempt to convert
@@ -110,10 +132,25 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
                         value = convertSimpleIfPossible(rawValue, dataType, rawFieldName);
                     }
 
-                    values.put(rawFieldName, value);
+                    final int schemaFieldIndex = schemaFieldIndexes[i];
+                    if (schemaFieldIndex >= 0) {
+                        values[schemaFieldIndex] = value;
+                    } else {
+                        if (unknownValues == null) {
+                            unknownValues = new LinkedHashMap<>();
+                        }
+                        unknownValues.put(rawFieldName, value);
+                    }
                 }
 
-                return new MapRecord(schema, values, coerceTypes, dropUnknownFields);
+                if (filter != null && !filter.test(values)) {
+                    skippedRecordCount++;
+                    continue;
+                }
+
+                final SerializedForm serializedForm = (requiredFields == null && columnsMatchSchema && csvRecord.size() == numFieldNames)
+                    ? createSerializedForm(numFieldNames, csvRecord::get) : null;
+                return new ArrayRecord(schema, values, unknownValues, serializedForm, coerceTypes && requiredFields == null, dropUnknownFields);
             }
         } catch (Exception e) {
             throw new MalformedRecordException("Error while getting next record. Root cause: " +  Throwables.getRootCause(e), e);
@@ -122,7 +159,87 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
         return null;
     }
 
+    @Override
+    public RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("Cannot read a batch of " + maxRecords + " records");
+        }
+
+        try {
+            final RecordSchema schema = getSchema();
+
+            final List<RecordField> recordFields = getRecordFields();
+            final int numFieldNames = recordFields.size();
+
+            // The values are copied into the columns of the batch, so a single array can hold the values of each row in turn
+            final Object[] values = new Object[schema.getFieldCount()];
+            RecordBatch.Builder builder = null;
+            for (final CSVRecord csvRecord : csvParser) {
+                Arrays.fill(values, ArrayRecord.MISSING_VALUE);
+
+                // Unknown fields are always dropped from a batch, so any column beyond those of the header can be skipped
+                final int columnCount = Math.min(csvRecord.size(), numFieldNames);
+                for (int i = 0; i < columnCount; i++) {
+                    final int schemaFieldIndex = schemaFieldIndexes[i];
+                    if (schemaFieldIndex >= 0 && isRequired(i, numFieldNames)) {
+                        values[schemaFieldIndex] = convert(csvRecord.get(i), converters[i]);
+                    }
+                }
+
+                if (filter != null && !filter.test(values)) {
+                    skippedRecordCount++;
+                    continue;
+                }
+
+                if (builder == null) {
+                    builder = new RecordBatch.Builder(schema, Math.min(maxRecords, 1024), requiredFields == null);
+                }
 
+                final SerializedForm serializedForm = (requiredFields == null && columnsMatchSchema && csvRecord.size() == numFieldNames)
+                    ? createSerializedForm(numFieldNames, csvRecord::get) : null;
+                builder.addRow(values, serializedForm);
+
+                if (builder.size() >= maxRecords) {
+                    break;
+                }
+            }
+
+            return builder == null ? null : builder.build();
+        } catch (Exception e) {
+            throw new MalformedRecordException("Error while getting next batch of records. Root cause: " +  Throwables.getRootCause(e), e);
+        }
+    }
+
+    @Override
+    public boolean pushDown(final RecordPushdown pushdown) {
+        requiredFields = pushdown.getRequiredFieldNames().isPresent() ? pushdown.getRequiredFields(schema) : null;
+        filter = pushdown.getPredicates().isEmpty() ? null : pushdown.createFilter(schema);
+        return true;
+    }
+
+    @Override
+    public long getSkippedRecordCount() {
+        return skippedRecordCount;
+    }
+
+    /**
+     * Determines whether or not the value of the column at the given index is needed. When only some of the schema's fields are needed,
+     * the values of all other columns, including those that are not in the schema at all, are neither converted nor kept.
+     */
+    private boolean isRequired(final int columnIndex, final int numFieldNames) {
+        if (requiredFields == null) {
+            return true;
+        }
+
+        if (columnIndex >= numFieldNames) {
+            return false;
+        }
+
+        final int schemaFieldIndex = schemaFieldIndexes[columnIndex];
+        return schemaFieldIndex >= 0 && requiredFields[schemaFieldIndex];
+    }
+
+    @SuppressWarnings("unchecked")
     private List<RecordField> getRecordFields() {
         if (this.recordFields != null) {
             return this.recordFields;
@@ -136,15 +253,29 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
 
         final List<RecordField> fields = new ArrayList<>();
         final List<String> rawFieldNames = new ArrayList<>(sortedMap.values());
+        final int[] fieldIndexes = new int[rawFieldNames.size()];
+        final Function<Object, Object>[] fieldConverters = new Function[rawFieldNames.size()];
         for (final String rawFieldName : rawFieldNames) {
             final Optional<RecordField> option = schema.getField(rawFieldName);
-            if (option.isPresent()) {
-                fields.add(option.get());
-            } else {
-                fields.add(new RecordField(rawFieldName, RecordFieldType.STRING.getDataType()));
-            }
+            final RecordField field = option.orElseGet(() -> new RecordField(rawFieldName, RecordFieldType.STRING.getDataType()));
+            fields.add(field);
+
+            // Keep the index of the column's field in the schema so that values can be placed directly into the record's array,
+            // and a converter for its type so that coercing a value does not need to determine how to convert it again
+            final int columnIndex = fields.size() - 1;
+            fieldIndexes[columnIndex] = schema.getFieldIndex(rawFieldName);
+            fieldConverters[columnIndex] = compileConverter(field.getDataType(), field.getFieldName());
+        }
+
+        // A record can only be serialized as its columns if they are exactly the fields of the schema, in order
+        boolean matchesSchema = fieldIndexes.length == schema.getFieldCount();
+        for (int i = 0; i < fieldIndexes.length && matchesSchema; i++) {
+            matchesSchema = fieldIndexes[i] == i;
         }
 
+        this.schemaFieldIndexes = fieldIndexes;
+        this.converters = fieldConverters;
+        this.columnsMatchSchema = matchesSchema;
         this.recordFields = fields;
         return fields;
     }
@@ -23,10 +23,11 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.io.input.BOMInputStream;
@@ -34,10 +35,11 @@ import org.apache.commons.lang3.CharUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.SerializedForm;
 
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectReader;
@@ -49,6 +51,8 @@ import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 public class JacksonCSVRecordReader extends AbstractCSVRecordReader {
     private final MappingIterator<String[]> recordStream;
     private List<String> rawFieldNames = null;
+    private Function<Object, Object>[] converters = null;
+    private boolean columnsMatchSchema = false;
 
     private volatile static CsvMapper mapper = new CsvMapper().enable(CsvParser.Feature.WRAP_AS_ARRAY);
 
@@ -116,6 +120,13 @@ public class JacksonCSVRecordReader extends AbstractCSVRecordReader {
                         return null;
                     }
                 }
+
+                // A record can only be serialized as its columns if they are exactly the fields of the schema, in order
+                boolean matchesSchema = rawFieldNames.size() == schema.getFieldCount();
+                for (int i = 0; i < rawFieldNames.size() && matchesSchema; i++) {
+                    matchesSchema = schema.getFieldIndex(rawFieldNames.get(i)) == i;
+                }
+                columnsMatchSchema = matchesSchema;
             }
 
             // Check for empty lines and ignore them
@@ -138,13 +149,17 @@ public class JacksonCSVRecordReader extends AbstractCSVRecordReader {
                 return null;
             }
 
-            final Map<String, Object> values = new HashMap<>(rawFieldNames.size() * 2);
+            final Object[] values = new Object[schema.getFieldCount()];
+            Arrays.fill(values, ArrayRecord.MISSING_VALUE);
+            Map<String, Object> unknownValues = null;
+
             final int numFieldNames = rawFieldNames.size();
             for (int i = 0; i < csvRecord.length; i++) {
                 final String rawFieldName = numFieldNames <= i ? "unknown_field_index_" + i : rawFieldNames.get(i);
                 String rawValue = (i >= csvRecord.length) ? null : csvRecord[i];
 
-                final Optional<DataType> dataTypeOption = schema.getDataType(rawFieldName);
+                final int schemaFieldIndex = schema.getFieldIndex(rawFieldName);
+                final Optional<DataType> dataTypeOption = schemaFieldIndex < 0 ? Optional.empty() : Optional.of(schema.getField(schemaFieldIndex).getDataType());
 
                 if (!dataTypeOption.isPresent() && dropUnknownFields) {
                     continue;
@@ -152,7 +167,7 @@ public class JacksonCSVRecordReader extends AbstractCSVRecordReader {
 
                 final Object value;
                 if (coerceTypes && dataTypeOption.isPresent()) {
-                    value = convert(rawValue, dataTypeOption.get(), rawFieldName);
+                    value = convert(rawValue, getConverter(i, rawFieldName, dataTypeOption.get()));
                 } else if (dataTypeOption.isPresent()) {
                     // The CSV Reader is going to return all fields as Strings, because CSV doesn't have any way to
                     // dictate a field type. As a result, we will use the schema that we have to attempt to convert
@@ -162,15 +177,47 @@ public class JacksonCSVRecordReader extends AbstractCSVRecordReader {
                     value = rawValue;
                 }
 
-                values.put(rawFieldName, value);
+                if (schemaFieldIndex >= 0) {
+                    values[schemaFieldIndex] = value;
+                } else {
+                    if (unknownValues == null) {
+                        unknownValues = new LinkedHashMap<>();
+                    }
+                    unknownValues.put(rawFieldName, value);
+                }
             }
 
-            return new MapRecord(schema, values, coerceTypes, dropUnknownFields);
+            final String[] columns = csvRecord;
+            final SerializedForm serializedForm = (columnsMatchSchema && columns.length == numFieldNames) ? createSerializedForm(numFieldNames, i -> columns[i]) : null;
+            return new ArrayRecord(schema, values, unknownValues, serializedForm, coerceTypes, dropUnknownFields);
         }
 
         return null;
     }
 
+    /**
+     * Returns the converter for the given column, compiling it the first time that the column is coerced so that the
+     * conversion for each value does not need to be determined again. Columns beyond the header are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    private Function<Object, Object> getConverter(final int columnIndex, final String rawFieldName, final DataType dataType) {
+        if (columnIndex >= rawFieldNames.size()) {
+            return compileConverter(dataType, rawFieldName);
+        }
+
+        if (converters == null) {
+            converters = new Function[rawFieldNames.size()];
+        }
+
+        Function<Object, Object> converter = converters[columnIndex];
+        if (converter == null) {
+            converter = compileConverter(dataType, rawFieldName);
+            converters[columnIndex] = converter;
+        }
+
+        return converter;
+    }
+
     @Override
     public void close() throws IOException {
         recordStream.close();
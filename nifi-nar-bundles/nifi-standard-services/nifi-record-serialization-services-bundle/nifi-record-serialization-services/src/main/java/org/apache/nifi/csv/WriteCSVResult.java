@@ -29,11 +29,16 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.SerializedForm;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -47,6 +52,7 @@ public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSet
     private final CSVPrinter printer;
     private final Object[] fieldValues;
     private final boolean includeHeaderLine;
+    private final boolean serializedFormWritable;
     private boolean headerWritten = false;
     private String[] fieldNames;
 
@@ -66,6 +72,46 @@ public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSet
         printer = new CSVPrinter(streamWriter, formatWithHeader);
 
         fieldValues = new Object[recordSchema.getFieldCount()];
+        serializedFormWritable = hasOnlyStringFields(recordSchema);
+    }
+
+    /**
+     * Values of any type other than String are written as the writer formats them, which may differ from the text that they were read from
+     * (for example, <code>007</code> for an int or <code>TRUE</code> for a boolean), so only records whose fields are all Strings can be
+     * written in the form that they were read in.
+     */
+    private static boolean hasOnlyStringFields(final RecordSchema recordSchema) {
+        for (final RecordField field : recordSchema.getFields()) {
+            if (field.getDataType().getFieldType() != RecordFieldType.STRING) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the values of the columns that the given record was read from, if the record can be written as it was read.
+     */
+    private Object[] getSerializedValues(final Record record) {
+        if (!serializedFormWritable || !record.getSchema().equals(recordSchema)) {
+            return null;
+        }
+
+        return record.getSerializedForm().map(this::getSerializedFormValues).orElse(null);
+    }
+
+    private Object[] getSerializedFormValues(final SerializedForm form) {
+        if (!form.getMimeType().equals(getMimeType())) {
+            return null;
+        }
+
+        final Object serialized = form.getSerialized();
+        if (serialized instanceof String[] && ((String[]) serialized).length == fieldValues.length) {
+            return (String[]) serialized;
+        }
+
+        return null;
     }
 
     private String getFormat(final RecordField field) {
@@ -141,6 +187,12 @@ public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSet
 
         includeHeaderIfNecessary(record, true);
 
+        final Object[] serializedValues = getSerializedValues(record);
+        if (serializedValues != null) {
+            printer.printRecord(serializedValues);
+            return schemaWriter.getAttributes(recordSchema);
+        }
+
         int i = 0;
         for (final RecordField recordField : recordSchema.getFields()) {
             fieldValues[i++] = getFieldValue(record, recordField);
@@ -150,6 +202,71 @@ public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSet
         return schemaWriter.getAttributes(recordSchema);
     }
 
+    @Override
+    protected Map<String, String> writeBatch(final RecordBatch batch) throws IOException {
+        // The columns of the batch can be written directly only if the batch holds exactly the fields that are to be written
+        final List<RecordField> fields = recordSchema.getFields();
+        final ColumnVector[] columns = new ColumnVector[fields.size()];
+        final RecordSchema batchSchema = batch.getSchema();
+        for (int i = 0; i < columns.length; i++) {
+            final RecordField field = fields.get(i);
+            final int batchFieldIndex = batchSchema.getFieldIndex(field.getFieldName());
+            if (batchFieldIndex < 0 || !batchSchema.getField(batchFieldIndex).equals(field)) {
+                return super.writeBatch(batch);
+            }
+
+            columns[i] = batch.getColumn(batchFieldIndex);
+        }
+
+        if (!isActiveRecordSet()) {
+            schemaWriter.writeHeader(recordSchema, getOutputStream());
+        }
+
+        includeHeaderIfNecessary(null, true);
+
+        final boolean serializedFormsWritable = serializedFormWritable && batchSchema.equals(recordSchema);
+        for (int row = 0; row < batch.size(); row++) {
+            final Object[] serializedValues = serializedFormsWritable ? batch.getSerializedForm(row).map(this::getSerializedFormValues).orElse(null) : null;
+            if (serializedValues != null) {
+                printer.printRecord(serializedValues);
+                continue;
+            }
+
+            for (int i = 0; i < columns.length; i++) {
+                fieldValues[i] = getFieldValue(columns[i], row);
+            }
+
+            printer.printRecord(fieldValues);
+        }
+
+        return schemaWriter.getAttributes(recordSchema);
+    }
+
+    private Object getFieldValue(final ColumnVector column, final int row) {
+        final Object value = column.getObject(row);
+        if (value == null) {
+            return null;
+        }
+
+        final RecordField recordField = column.getField();
+        switch (recordField.getDataType().getFieldType()) {
+            case BIGINT:
+            case BYTE:
+            case DECIMAL:
+            case DOUBLE:
+            case FLOAT:
+            case LONG:
+            case INT:
+            case SHORT:
+                if (value instanceof Number) {
+                    return value;
+                }
+                break;
+        }
+
+        return DataTypeUtils.toString(value, getFormat(recordField));
+    }
+
     private Object getFieldValue(final Record record, final RecordField recordField) {
         final RecordFieldType fieldType = recordField.getDataType().getFieldType();
 
@@ -31,6 +31,7 @@ import org.apache.nifi.serialization.record.type.ChoiceDataType;
 import org.apache.nifi.serialization.record.type.MapDataType;
 import org.apache.nifi.serialization.record.type.RecordDataType;
 import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.ThreadSafeDateFormat;
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.JsonParseException;
@@ -57,6 +58,7 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
     private final Supplier<DateFormat> LAZY_TIMESTAMP_FORMAT;
 
     private boolean firstObjectConsumed = false;
+    private long skippedRecordCount = 0L;
 
     private static final JsonFactory jsonFactory = new JsonFactory();
     private static final ObjectMapper codec = new ObjectMapper();
@@ -67,9 +69,9 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
 
         this.logger = logger;
 
-        final DateFormat df = dateFormat == null ? null : DataTypeUtils.getDateFormat(dateFormat);
-        final DateFormat tf = timeFormat == null ? null : DataTypeUtils.getDateFormat(timeFormat);
-        final DateFormat tsf = timestampFormat == null ? null : DataTypeUtils.getDateFormat(timestampFormat);
+        final DateFormat df = ThreadSafeDateFormat.of(dateFormat);
+        final DateFormat tf = ThreadSafeDateFormat.of(timeFormat);
+        final DateFormat tsf = ThreadSafeDateFormat.of(timestampFormat);
 
         LAZY_DATE_FORMAT = () -> df;
         LAZY_TIME_FORMAT = () -> tf;
@@ -109,20 +111,33 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
 
     @Override
     public Record nextRecord(final boolean coerceTypes, final boolean dropUnknownFields) throws IOException, MalformedRecordException {
-        final JsonNode nextNode = getNextJsonNode();
-        if (nextNode == null) {
-            return null;
-        }
-
         final RecordSchema schema = getSchema();
-        try {
-            return convertJsonNodeToRecord(nextNode, schema, coerceTypes, dropUnknownFields);
-        } catch (final MalformedRecordException mre) {
-            throw mre;
-        } catch (final Exception e) {
-            logger.debug("Failed to convert JSON Element {} into a Record object using schema {} due to {}", new Object[] {nextNode, schema, e.toString(), e});
-            throw new MalformedRecordException("Successfully parsed a JSON object from input but failed to convert into a Record object with the given schema", e);
+
+        JsonNode nextNode;
+        while ((nextNode = getNextJsonNode()) != null) {
+            final Record record;
+            try {
+                record = convertJsonNodeToRecord(nextNode, schema, coerceTypes, dropUnknownFields);
+            } catch (final MalformedRecordException mre) {
+                throw mre;
+            } catch (final Exception e) {
+                logger.debug("Failed to convert JSON Element {} into a Record object using schema {} due to {}", new Object[] {nextNode, schema, e.toString(), e});
+                throw new MalformedRecordException("Successfully parsed a JSON object from input but failed to convert into a Record object with the given schema", e);
+            }
+
+            if (record != null) {
+                return record;
+            }
+
+            skippedRecordCount++;
         }
+
+        return null;
+    }
+
+    @Override
+    public long getSkippedRecordCount() {
+        return skippedRecordCount;
     }
 
     protected Object getRawNodeValue(final JsonNode fieldNode, final String fieldName) throws IOException {
@@ -290,5 +305,10 @@ public abstract class AbstractJsonRowRecordReader implements RecordReader {
         jsonParser.close();
     }
 
+    /**
+     * Converts a JSON object that was read from the input into a Record
+     *
+     * @return the Record, or <code>null</code> if the object is to be skipped, such as when it does not satisfy a predicate that was pushed down into the reader
+     */
     protected abstract Record convertJsonNodeToRecord(JsonNode nextNode, RecordSchema schema, boolean coerceTypes, boolean dropUnknownFields) throws IOException, MalformedRecordException;
 }
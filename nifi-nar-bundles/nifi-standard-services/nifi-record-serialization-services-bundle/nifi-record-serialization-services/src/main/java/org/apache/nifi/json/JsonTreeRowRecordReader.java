@@ -20,13 +20,14 @@ package org.apache.nifi.json;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.SerializedForm;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 import org.apache.nifi.serialization.record.type.ArrayDataType;
 import org.apache.nifi.serialization.record.type.MapDataType;
 import org.apache.nifi.serialization.record.type.RecordDataType;
@@ -37,15 +38,19 @@ import org.codehaus.jackson.node.ArrayNode;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
     private final RecordSchema schema;
-
+    private boolean[] requiredFields;
+    private Predicate<Object[]> filter;
 
     public JsonTreeRowRecordReader(final InputStream in, final ComponentLog logger, final RecordSchema schema,
         final String dateFormat, final String timeFormat, final String timestampFormat) throws IOException, MalformedRecordException {
@@ -54,11 +59,23 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
     }
 
 
+    @Override
+    public boolean pushDown(final RecordPushdown pushdown) {
+        // Each JSON object is still parsed in full, but the values of fields that are not needed are not converted
+        requiredFields = pushdown.getRequiredFieldNames().isPresent() ? pushdown.getRequiredFields(schema) : null;
+        filter = pushdown.getPredicates().isEmpty() ? null : pushdown.createFilter(schema);
+        return true;
+    }
 
     @Override
     protected Record convertJsonNodeToRecord(final JsonNode jsonNode, final RecordSchema schema, final boolean coerceTypes, final boolean dropUnknownFields)
         throws IOException, MalformedRecordException {
-        return convertJsonNodeToRecord(jsonNode, schema, coerceTypes, dropUnknownFields, null);
+        if (jsonNode == null) {
+            return null;
+        }
+
+        // The fields that are needed, and the predicates, apply only to top-level records, not to any records nested within them
+        return convertJsonNodeToRecord(jsonNode, schema, null, coerceTypes, dropUnknownFields, requiredFields, filter);
     }
 
     private Record convertJsonNodeToRecord(final JsonNode jsonNode, final RecordSchema schema, final boolean coerceTypes, final boolean dropUnknown, final String fieldNamePrefix)
@@ -67,7 +84,7 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
             return null;
         }
 
-        return convertJsonNodeToRecord(jsonNode, schema, fieldNamePrefix, coerceTypes, dropUnknown);
+        return convertJsonNodeToRecord(jsonNode, schema, fieldNamePrefix, coerceTypes, dropUnknown, null, null);
     }
 
     private JsonNode getChildNode(final JsonNode jsonNode, final RecordField field) {
@@ -100,19 +117,34 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
         }
     }
 
-    private Record convertJsonNodeToRecord(final JsonNode jsonNode, final RecordSchema schema, final String fieldNamePrefix,
-            final boolean coerceTypes, final boolean dropUnknown) throws IOException, MalformedRecordException {
+    private Record convertJsonNodeToRecord(final JsonNode jsonNode, final RecordSchema schema, final String fieldNamePrefix, final boolean coerceTypes, final boolean dropUnknown,
+            final boolean[] requiredFields, final Predicate<Object[]> filter) throws IOException, MalformedRecordException {
 
-        final Map<String, Object> values = new HashMap<>(schema.getFieldCount() * 2);
+        final Object[] values = new Object[schema.getFieldCount()];
+        Arrays.fill(values, ArrayRecord.MISSING_VALUE);
+        Map<String, Object> unknownValues = null;
 
+        // The JSON can only be used as the serialized form of the record if it holds nothing but the fields of the schema, by their names.
+        // Otherwise, writing it would write fields that the schema does not know about, or write fields by the names of their aliases.
+        int schemaFieldCount = 0;
+        boolean onlySchemaFields = true;
         if (dropUnknown) {
-            for (final RecordField recordField : schema.getFields()) {
+            for (int i = 0; i < values.length; i++) {
+                if (requiredFields != null && !requiredFields[i]) {
+                    continue;
+                }
+
+                final RecordField recordField = schema.getField(i);
                 final JsonNode childNode = getChildNode(jsonNode, recordField);
                 if (childNode == null) {
                     continue;
                 }
 
                 final String fieldName = recordField.getFieldName();
+                schemaFieldCount++;
+                if (!jsonNode.has(fieldName)) {
+                    onlySchemaFields = false;
+                }
 
                 Object value;
                 if (coerceTypes) {
@@ -123,7 +155,7 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
                     value = getRawNodeValue(childNode, recordField == null ? null : recordField.getDataType(), fieldName);
                 }
 
-                values.put(fieldName, value);
+                values[i] = value;
             }
         } else {
             final Iterator<String> fieldNames = jsonNode.getFieldNames();
@@ -131,7 +163,11 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
                 final String fieldName = fieldNames.next();
                 final JsonNode childNode = jsonNode.get(fieldName);
 
-                final RecordField recordField = schema.getField(fieldName).orElse(null);
+                final int fieldIndex = schema.getFieldIndex(fieldName);
+                final RecordField recordField = fieldIndex < 0 ? null : schema.getField(fieldIndex);
+                if (requiredFields != null && (fieldIndex < 0 || !requiredFields[fieldIndex])) {
+                    continue;
+                }
 
                 final Object value;
                 if (coerceTypes && recordField != null) {
@@ -142,12 +178,39 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
                     value = getRawNodeValue(childNode, recordField == null ? null : recordField.getDataType(), fieldName);
                 }
 
-                values.put(fieldName, value);
+                if (recordField == null || !fieldName.equals(recordField.getFieldName())) {
+                    onlySchemaFields = false;
+                }
+
+                if (recordField == null) {
+                    if (unknownValues == null) {
+                        unknownValues = new LinkedHashMap<>();
+                    }
+                    unknownValues.put(fieldName, value);
+                } else if (values[fieldIndex] == ArrayRecord.MISSING_VALUE || values[fieldIndex] == null || (value != null && fieldName.equals(recordField.getFieldName()))) {
+                    // As with a MapRecord, a non-null value for the field's name takes precedence over values for its aliases
+                    values[fieldIndex] = value;
+                }
             }
         }
 
-        final Supplier<String> supplier = jsonNode::toString;
-        return new MapRecord(schema, values, SerializedForm.of(supplier, "application/json"), false, dropUnknown);
+        if (filter != null && !filter.test(values)) {
+            return null;
+        }
+
+        if (dropUnknown && schemaFieldCount != jsonNode.size()) {
+            onlySchemaFields = false;
+        }
+
+        final SerializedForm serializedForm;
+        if (onlySchemaFields && requiredFields == null) {
+            final Supplier<String> supplier = jsonNode::toString;
+            serializedForm = SerializedForm.of(supplier, "application/json");
+        } else {
+            serializedForm = null;
+        }
+
+        return new ArrayRecord(schema, values, unknownValues, serializedForm, false, dropUnknown);
     }
 
 
@@ -30,6 +30,7 @@ import org.apache.nifi.serialization.record.type.ArrayDataType;
 import org.apache.nifi.serialization.record.type.MapDataType;
 import org.apache.nifi.serialization.record.type.RecordDataType;
 import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.ThreadSafeDateFormat;
 import org.apache.nifi.util.StringUtils;
 
 import javax.xml.stream.XMLEventReader;
@@ -73,9 +74,9 @@ public class XMLRecordReader implements RecordReader {
         this.contentFieldName = contentFieldName;
         this.logger = logger;
 
-        final DateFormat df = dateFormat == null ? null : DataTypeUtils.getDateFormat(dateFormat);
-        final DateFormat tf = timeFormat == null ? null : DataTypeUtils.getDateFormat(timeFormat);
-        final DateFormat tsf = timestampFormat == null ? null : DataTypeUtils.getDateFormat(timestampFormat);
+        final DateFormat df = ThreadSafeDateFormat.of(dateFormat);
+        final DateFormat tf = ThreadSafeDateFormat.of(timeFormat);
+        final DateFormat tsf = ThreadSafeDateFormat.of(timestampFormat);
 
         LAZY_DATE_FORMAT = () -> df;
         LAZY_TIME_FORMAT = () -> tf;
@@ -19,7 +19,9 @@ package org.apache.nifi.avro;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -34,6 +36,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +58,9 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.pushdown.FieldPredicate;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 import org.junit.Test;
 
 public class TestAvroReaderWithEmbeddedSchema {
@@ -333,6 +339,46 @@ public class TestAvroReaderWithEmbeddedSchema {
         }
     }
 
+    @Test
+    public void testPushDown() throws IOException, MalformedRecordException {
+        final Schema schema = new Schema.Parser().parse("{\"type\": \"record\", \"name\": \"account\", \"fields\": ["
+            + "{\"name\": \"id\", \"type\": \"int\"}, {\"name\": \"name\", \"type\": \"string\"}, {\"name\": \"balance\", \"type\": \"double\"}]}");
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        final DatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<>(schema);
+        try (final DataFileWriter<GenericRecord> dataFileWriter = new DataFileWriter<>(datumWriter);
+             final DataFileWriter<GenericRecord> writer = dataFileWriter.create(schema, baos)) {
+
+            for (int i = 0; i < 5; i++) {
+                final GenericRecord record = new GenericData.Record(schema);
+                record.put("id", i);
+                record.put("name", "Name " + i);
+                record.put("balance", i * 10D);
+                writer.append(record);
+            }
+        }
+
+        final RecordPushdown pushdown = new RecordPushdown(Collections.singleton("name"),
+            Collections.singletonList(FieldPredicate.compare("balance", FieldPredicate.Operator.GREATER_THAN_OR_EQUAL, new BigDecimal("25"))));
+
+        try (final InputStream in = new ByteArrayInputStream(baos.toByteArray())) {
+            final AvroRecordReader reader = new AvroReaderWithEmbeddedSchema(in);
+            assertTrue(reader.pushDown(pushdown));
+
+            final Record record = reader.nextRecord();
+            assertNull(record.getValue("id"));
+            assertEquals("Name 3", record.getValue("name"));
+            assertEquals(30D, record.getValue("balance"));
+            assertFalse(record.getSerializedForm().isPresent());
+
+            final RecordBatch batch = reader.nextBatch(10);
+            assertEquals(1, batch.size());
+            assertEquals("Name 4", batch.getRecord(0).getValue("name"));
+            assertNull(reader.nextBatch(10));
+            assertEquals(3L, reader.getSkippedRecordCount());
+        }
+    }
+
     private Object[] toObjectArray(final byte[] bytes) {
         final Object[] array = new Object[bytes.length];
         for (int i = 0; i < bytes.length; i++) {
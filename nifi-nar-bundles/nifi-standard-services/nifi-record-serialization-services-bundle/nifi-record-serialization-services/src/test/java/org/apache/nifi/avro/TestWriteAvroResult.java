@@ -20,6 +20,7 @@ package org.apache.nifi.avro;
 import org.apache.avro.Conversions;
 import org.apache.avro.LogicalType;
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.Array;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.nifi.serialization.RecordSetWriter;
@@ -33,6 +34,7 @@ import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.RecordSet;
+import org.apache.nifi.serialization.record.SerializedForm;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -51,6 +53,7 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -102,6 +105,35 @@ public abstract class TestWriteAvroResult {
         }
     }
 
+    @Test
+    public void testWriteSerializedForm() throws IOException {
+        final Schema schema = new Schema.Parser().parse(new File("src/test/resources/avro/simple.avsc"));
+
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("msg", RecordFieldType.STRING.getDataType()));
+        final RecordSchema recordSchema = new SimpleRecordSchema(fields);
+
+        // The record's serialized form deliberately differs from its values, in order to show which of them is written
+        final GenericRecord serialized = new GenericData.Record(schema);
+        serialized.put("msg", "serialized");
+        final Record unmodified = new MapRecord(recordSchema, new HashMap<>(Collections.singletonMap("msg", "nifi")),
+            SerializedForm.of(serialized, AvroTypeUtil.AVRO_BINARY_MIME_TYPE));
+        final Record modified = new MapRecord(recordSchema, new HashMap<>(Collections.singletonMap("msg", "nifi")),
+            SerializedForm.of(serialized, AvroTypeUtil.AVRO_BINARY_MIME_TYPE));
+        modified.setValue("msg", "modified");
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final RecordSetWriter writer = createWriter(schema, baos)) {
+            writer.write(new ListRecordSet(recordSchema, Arrays.asList(unmodified, modified)));
+        }
+
+        try (final InputStream in = new ByteArrayInputStream(baos.toByteArray())) {
+            final List<GenericRecord> avroRecords = readRecords(in, schema, 2);
+            assertEquals("serialized", avroRecords.get(0).get("msg").toString());
+            assertEquals("modified", avroRecords.get(1).get("msg").toString());
+        }
+    }
+
     @Test
     public void testWriteRecordSet() throws IOException {
         final Schema schema = new Schema.Parser().parse(new File("src/test/resources/avro/simple.avsc"));
@@ -27,6 +27,10 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.LongColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.pushdown.FieldPredicate;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -47,12 +51,15 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.TimeZone;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class TestCSVRecordReader {
     private final DataType doubleDataType = RecordFieldType.DOUBLE.getDataType();
@@ -96,6 +103,90 @@ public class TestCSVRecordReader {
         }
     }
 
+    @Test
+    public void testNextBatch() throws IOException, MalformedRecordException {
+        final String text = "id,name,balance,extra\n1,John,40.80,x\n2,Jane,\n3,Jim,0.5,y\n";
+
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("balance", doubleDataType));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        try (final InputStream bais = new ByteArrayInputStream(text.getBytes());
+             final CSVRecordReader reader = createReader(bais, schema, format)) {
+
+            final RecordBatch first = reader.nextBatch(2);
+            assertEquals(2, first.size());
+            assertEquals(1L, ((LongColumnVector) first.getColumn("id").get()).getLong(0));
+            assertEquals(40.8D, first.getColumn("balance").get().getObject(0));
+            assertTrue(first.getColumn("balance").get().isNull(1));
+            assertNull(first.getRecord(0).getValue("extra"));
+            assertEquals("Jane", first.getRecord(1).getValue("name"));
+
+            final RecordBatch second = reader.nextBatch(2);
+            assertEquals(1, second.size());
+            assertEquals(3, second.getRecord(0).getValue("id"));
+
+            assertNull(reader.nextBatch(2));
+        }
+    }
+
+    @Test
+    public void testPushDown() throws IOException, MalformedRecordException {
+        final String text = "id,name,balance,extra\n1,John,40.80,x\n2,Jane,\n3,Jim,0.5,y\n";
+
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType(), false));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("balance", doubleDataType));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final RecordPushdown pushdown = new RecordPushdown(new HashSet<>(Collections.singletonList("name")),
+            Collections.singletonList(FieldPredicate.compare("balance", FieldPredicate.Operator.GREATER_THAN, new BigDecimal("1"))));
+
+        try (final InputStream bais = new ByteArrayInputStream(text.getBytes());
+             final CSVRecordReader reader = createReader(bais, schema, format)) {
+            assertTrue(reader.pushDown(pushdown));
+
+            // The id is not needed, so it is neither parsed nor checked against the schema
+            final Record record = reader.nextRecord(true, false);
+            assertNull(record.getValue("id"));
+            assertEquals("John", record.getValue("name"));
+            assertEquals(40.8D, record.getValue("balance"));
+            assertNull(record.getValue("extra"));
+            assertFalse(record.getSerializedForm().isPresent());
+
+            assertNull(reader.nextRecord(true, false));
+            assertEquals(2L, reader.getSkippedRecordCount());
+        }
+
+        // A value that cannot be converted into the type of its field is left for the query to evaluate
+        try (final InputStream bais = new ByteArrayInputStream((text + "4,Jill,abc,z\n").getBytes());
+             final CSVRecordReader reader = createReader(bais, schema, format)) {
+            assertTrue(reader.pushDown(pushdown));
+
+            final Record record = reader.nextRecord(false, false);
+            assertEquals("John", record.getValue("name"));
+
+            final Record unconverted = reader.nextRecord(false, false);
+            assertEquals("Jill", unconverted.getValue("name"));
+            assertEquals("abc", unconverted.getValue("balance"));
+            assertNull(reader.nextRecord(false, false));
+        }
+
+        try (final InputStream bais = new ByteArrayInputStream(text.getBytes());
+             final CSVRecordReader reader = createReader(bais, schema, format)) {
+            assertTrue(reader.pushDown(pushdown));
+
+            final RecordBatch batch = reader.nextBatch(10);
+            assertEquals(1, batch.size());
+            assertTrue(batch.getColumn("id").get().isNull(0));
+            assertEquals("John", batch.getRecord(0).getValue("name"));
+            assertFalse(batch.getSerializedForm(0).isPresent());
+        }
+    }
+
     @Test
     public void testDate() throws IOException, MalformedRecordException {
         final String text = "date\n11/30/1983";
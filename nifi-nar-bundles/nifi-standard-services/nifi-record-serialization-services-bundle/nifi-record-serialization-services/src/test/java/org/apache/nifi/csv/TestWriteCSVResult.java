@@ -19,8 +19,11 @@ package org.apache.nifi.csv;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.QuoteMode;
+import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.schema.access.SchemaNameAsAttribute;
+import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.WriteResult;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
@@ -28,8 +31,11 @@ import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.RecordSet;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -48,6 +54,8 @@ import java.util.Map;
 import java.util.TimeZone;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 
 public class TestWriteCSVResult {
@@ -163,6 +171,101 @@ public class TestWriteCSVResult {
         assertEquals(expectedValues, values);
     }
 
+    @Test
+    public void testWriteSerializedForm() throws IOException, MalformedRecordException {
+        final CSVFormat csvFormat = CSVFormat.DEFAULT.withRecordSeparator("\n");
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("balance", RecordFieldType.STRING.getDataType()));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final byte[] input = "id,name,balance\n1,John,4750.80\n2,Jane,0.50\n".getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final CSVRecordReader reader = new CSVRecordReader(new ByteArrayInputStream(input), Mockito.mock(ComponentLog.class), schema, csvFormat, true, false,
+                RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), "UTF-8");
+             final WriteCSVResult writer = new WriteCSVResult(csvFormat, schema, new SchemaNameAsAttribute(), baos,
+                RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), true, "UTF-8")) {
+
+            final Record unmodified = reader.nextRecord();
+            assertTrue(unmodified.getSerializedForm().isPresent());
+
+            final Record modified = reader.nextRecord();
+            modified.setValue("name", "Jane Doe");
+            assertFalse(modified.getSerializedForm().isPresent());
+
+            writer.beginRecordSet();
+            writer.write(unmodified);
+            writer.write(modified);
+            writer.finishRecordSet();
+        }
+
+        // The unmodified record is written as it was read, while the modified record is written from its values
+        assertEquals("id,name,balance\n1,John,4750.80\n2,Jane Doe,0.50\n", baos.toString());
+    }
+
+    @Test
+    public void testSerializedFormNotWrittenForTypedFields() throws IOException, MalformedRecordException {
+        final CSVFormat csvFormat = CSVFormat.DEFAULT.withRecordSeparator("\n");
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final byte[] input = "id,active,name\n007,TRUE,John\n".getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final CSVRecordReader reader = new CSVRecordReader(new ByteArrayInputStream(input), Mockito.mock(ComponentLog.class), schema, csvFormat, true, false,
+                RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), "UTF-8");
+             final WriteCSVResult writer = new WriteCSVResult(csvFormat, schema, new SchemaNameAsAttribute(), baos,
+                RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), true, "UTF-8")) {
+
+            final Record record = reader.nextRecord();
+            assertFalse(record.getSerializedForm().isPresent());
+
+            writer.beginRecordSet();
+            writer.write(record);
+            writer.finishRecordSet();
+        }
+
+        // The int and boolean are written as their values, not as the text that they were read from
+        assertEquals("id,active,name\n7,true,John\n", baos.toString());
+    }
+
+    @Test
+    public void testWriteBatch() throws IOException, MalformedRecordException {
+        final CSVFormat csvFormat = CSVFormat.DEFAULT.withRecordSeparator("\n");
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("balance", RecordFieldType.DOUBLE.getDataType()));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final byte[] input = "id,name,balance\n1,John,4750.80\n2,Jane,0.50\n".getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final CSVRecordReader reader = new CSVRecordReader(new ByteArrayInputStream(input), Mockito.mock(ComponentLog.class), schema, csvFormat, true, false,
+                RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), "UTF-8");
+             final WriteCSVResult writer = new WriteCSVResult(csvFormat, schema, new SchemaNameAsAttribute(), baos,
+                RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), true, "UTF-8")) {
+
+            final RecordBatch readBatch = reader.nextBatch(10);
+            assertEquals(2, readBatch.size());
+
+            final RecordBatch builtBatch = new RecordBatch.Builder(schema, 1)
+                .addRow(new Object[] {3, "Jim", 1.25D}, null)
+                .build();
+
+            writer.beginRecordSet();
+            writer.write(readBatch);
+            final WriteResult writeResult = writer.write(builtBatch);
+            assertEquals(3, writeResult.getRecordCount());
+            writer.finishRecordSet();
+        }
+
+        // The schema has fields that are not Strings, so every row is written from its columns rather than as it was read
+        assertEquals("id,name,balance\n1,John,4750.8\n2,Jane,0.5\n3,Jim,1.25\n", baos.toString());
+    }
+
     @Test
     public void testExtraFieldInWriteRecord() throws IOException {
         final CSVFormat csvFormat = CSVFormat.DEFAULT.withEscape('\\').withQuoteMode(QuoteMode.NONE).withRecordSeparator("\n");
@@ -27,6 +27,8 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.pushdown.FieldPredicate;
+import org.apache.nifi.serialization.record.pushdown.RecordPushdown;
 import org.apache.nifi.serialization.record.type.ChoiceDataType;
 import org.junit.Assert;
 import org.junit.Ignore;
@@ -44,12 +46,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -200,6 +204,33 @@ public class TestJsonTreeRowRecordReader {
 
     }
 
+    @Test
+    public void testSerializedFormOnlyWhenJsonHoldsSchemaFields() throws IOException, MalformedRecordException {
+        final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());
+
+        try (final InputStream in = new FileInputStream(new File("src/test/resources/json/single-bank-account.json"));
+            final JsonTreeRowRecordReader reader = new JsonTreeRowRecordReader(in, Mockito.mock(ComponentLog.class), schema, dateFormat, timeFormat, timestampFormat)) {
+
+            final Record record = reader.nextRecord();
+            assertTrue(record.getSerializedForm().isPresent());
+            assertEquals("application/json", record.getSerializedForm().get().getMimeType());
+        }
+
+        final List<RecordField> fields = getDefaultFields();
+        fields.remove(fields.size() - 1);
+        final RecordSchema schemaWithoutCountry = new SimpleRecordSchema(fields);
+
+        // The JSON holds a field that is not in the schema, so writing it as-is would write that field, whether it is dropped or not
+        for (final boolean dropUnknownFields : new boolean[] {true, false}) {
+            try (final InputStream in = new FileInputStream(new File("src/test/resources/json/single-bank-account.json"));
+                final JsonTreeRowRecordReader reader = new JsonTreeRowRecordReader(in, Mockito.mock(ComponentLog.class), schemaWithoutCountry, dateFormat, timeFormat, timestampFormat)) {
+
+                final Record record = reader.nextRecord(true, dropUnknownFields);
+                assertFalse(record.getSerializedForm().isPresent());
+            }
+        }
+    }
+
     @Test
     public void testReadArray() throws IOException, MalformedRecordException {
         final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());
@@ -226,6 +257,27 @@ public class TestJsonTreeRowRecordReader {
         }
     }
 
+    @Test
+    public void testPushDown() throws IOException, MalformedRecordException {
+        final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());
+        final RecordPushdown pushdown = new RecordPushdown(new HashSet<>(Arrays.asList("id", "unknown")),
+            Collections.singletonList(FieldPredicate.compare("state", FieldPredicate.Operator.EQUALS, "NY")));
+
+        for (final boolean dropUnknownFields : new boolean[] {true, false}) {
+            try (final InputStream in = new FileInputStream(new File("src/test/resources/json/bank-account-array.json"));
+                final JsonTreeRowRecordReader reader = new JsonTreeRowRecordReader(in, Mockito.mock(ComponentLog.class), schema, dateFormat, timeFormat, timestampFormat)) {
+                assertTrue(reader.pushDown(pushdown));
+
+                final Record record = reader.nextRecord(true, dropUnknownFields);
+                Assert.assertArrayEquals(new Object[] {2, null, null, null, null, "NY", null, null}, record.getValues());
+                assertFalse(record.getSerializedForm().isPresent());
+
+                assertNull(reader.nextRecord(true, dropUnknownFields));
+                assertEquals(1L, reader.getSkippedRecordCount());
+            }
+        }
+    }
+
     @Test
     public void testReadOneLinePerJSON() throws IOException, MalformedRecordException {
         final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());